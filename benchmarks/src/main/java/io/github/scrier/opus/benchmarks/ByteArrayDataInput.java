@@ -0,0 +1,183 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ * @author Andreas Joelsson (andreas.joelsson@gmail.com)
+ */
+package io.github.scrier.opus.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteOrder;
+
+import com.hazelcast.nio.ObjectDataInput;
+
+/**
+ * ObjectDataInput reading what was written by a ByteArrayDataOutput.
+ */
+public class ByteArrayDataInput implements ObjectDataInput {
+	
+	private DataInputStream stream;
+	
+	public ByteArrayDataInput(byte[] data) {
+		stream = new DataInputStream(new ByteArrayInputStream(data));
+	}
+
+	@Override
+	public void readFully(byte[] b) throws IOException {
+		stream.readFully(b);
+	}
+
+	@Override
+	public void readFully(byte[] b, int off, int len) throws IOException {
+		stream.readFully(b, off, len);
+	}
+
+	@Override
+	public int skipBytes(int n) throws IOException {
+		return stream.skipBytes(n);
+	}
+
+	@Override
+	public boolean readBoolean() throws IOException {
+		return stream.readBoolean();
+	}
+
+	@Override
+	public byte readByte() throws IOException {
+		return stream.readByte();
+	}
+
+	@Override
+	public int readUnsignedByte() throws IOException {
+		return stream.readUnsignedByte();
+	}
+
+	@Override
+	public short readShort() throws IOException {
+		return stream.readShort();
+	}
+
+	@Override
+	public int readUnsignedShort() throws IOException {
+		return stream.readUnsignedShort();
+	}
+
+	@Override
+	public char readChar() throws IOException {
+		return stream.readChar();
+	}
+
+	@Override
+	public int readInt() throws IOException {
+		return stream.readInt();
+	}
+
+	@Override
+	public long readLong() throws IOException {
+		return stream.readLong();
+	}
+
+	@Override
+	public float readFloat() throws IOException {
+		return stream.readFloat();
+	}
+
+	@Override
+	public double readDouble() throws IOException {
+		return stream.readDouble();
+	}
+
+	@Override
+	public String readLine() throws IOException {
+		throw new UnsupportedOperationException("readLine is not supported.");
+	}
+
+	@Override
+	public String readUTF() throws IOException {
+		if( true == stream.readBoolean() ) {
+			return null;
+		}
+		return stream.readUTF();
+	}
+
+	@Override
+	public char[] readCharArray() throws IOException {
+		char[] retValue = new char[stream.readInt()];
+		for( int i = 0; i < retValue.length; i++ ) {
+			retValue[i] = stream.readChar();
+		}
+		return retValue;
+	}
+
+	@Override
+	public int[] readIntArray() throws IOException {
+		int[] retValue = new int[stream.readInt()];
+		for( int i = 0; i < retValue.length; i++ ) {
+			retValue[i] = stream.readInt();
+		}
+		return retValue;
+	}
+
+	@Override
+	public long[] readLongArray() throws IOException {
+		long[] retValue = new long[stream.readInt()];
+		for( int i = 0; i < retValue.length; i++ ) {
+			retValue[i] = stream.readLong();
+		}
+		return retValue;
+	}
+
+	@Override
+	public double[] readDoubleArray() throws IOException {
+		double[] retValue = new double[stream.readInt()];
+		for( int i = 0; i < retValue.length; i++ ) {
+			retValue[i] = stream.readDouble();
+		}
+		return retValue;
+	}
+
+	@Override
+	public float[] readFloatArray() throws IOException {
+		float[] retValue = new float[stream.readInt()];
+		for( int i = 0; i < retValue.length; i++ ) {
+			retValue[i] = stream.readFloat();
+		}
+		return retValue;
+	}
+
+	@Override
+	public short[] readShortArray() throws IOException {
+		short[] retValue = new short[stream.readInt()];
+		for( int i = 0; i < retValue.length; i++ ) {
+			retValue[i] = stream.readShort();
+		}
+		return retValue;
+	}
+
+	@Override
+	public <T> T readObject() throws IOException {
+		throw new UnsupportedOperationException("readObject is not supported.");
+	}
+
+	@Override
+	public ClassLoader getClassLoader() {
+		return getClass().getClassLoader();
+	}
+
+	@Override
+	public ByteOrder getByteOrder() {
+		return ByteOrder.BIG_ENDIAN;
+	}
+
+}
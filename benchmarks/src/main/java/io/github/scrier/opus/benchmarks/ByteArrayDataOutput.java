@@ -0,0 +1,192 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ * @author Andreas Joelsson (andreas.joelsson@gmail.com)
+ */
+package io.github.scrier.opus.benchmarks;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteOrder;
+
+import com.hazelcast.nio.ObjectDataOutput;
+
+/**
+ * ObjectDataOutput writing to a byte array through a DataOutputStream.
+ * Used instead of the hazelcast buffers so only the writeData of the
+ * messages is measured, and since the UTF writer of hazelcast 3.3 relies
+ * on the internal char[] of String that is gone from newer JVMs.
+ */
+public class ByteArrayDataOutput implements ObjectDataOutput {
+	
+	private ByteArrayOutputStream buffer;
+	private DataOutputStream stream;
+	
+	public ByteArrayDataOutput(int size) {
+		buffer = new ByteArrayOutputStream(size);
+		stream = new DataOutputStream(buffer);
+	}
+	
+	/**
+	 * Method to reuse the output for a new payload.
+	 */
+	public void reset() {
+		buffer.reset();
+	}
+	
+	/**
+	 * @return the number of written bytes.
+	 */
+	public int size() {
+		return buffer.size();
+	}
+
+	@Override
+	public void write(int b) throws IOException {
+		stream.write(b);
+	}
+
+	@Override
+	public void write(byte[] b) throws IOException {
+		stream.write(b);
+	}
+
+	@Override
+	public void write(byte[] b, int off, int len) throws IOException {
+		stream.write(b, off, len);
+	}
+
+	@Override
+	public void writeBoolean(boolean v) throws IOException {
+		stream.writeBoolean(v);
+	}
+
+	@Override
+	public void writeByte(int v) throws IOException {
+		stream.writeByte(v);
+	}
+
+	@Override
+	public void writeShort(int v) throws IOException {
+		stream.writeShort(v);
+	}
+
+	@Override
+	public void writeChar(int v) throws IOException {
+		stream.writeChar(v);
+	}
+
+	@Override
+	public void writeInt(int v) throws IOException {
+		stream.writeInt(v);
+	}
+
+	@Override
+	public void writeLong(long v) throws IOException {
+		stream.writeLong(v);
+	}
+
+	@Override
+	public void writeFloat(float v) throws IOException {
+		stream.writeFloat(v);
+	}
+
+	@Override
+	public void writeDouble(double v) throws IOException {
+		stream.writeDouble(v);
+	}
+
+	@Override
+	public void writeBytes(String s) throws IOException {
+		stream.writeBytes(s);
+	}
+
+	@Override
+	public void writeChars(String s) throws IOException {
+		stream.writeChars(s);
+	}
+
+	@Override
+	public void writeUTF(String s) throws IOException {
+		// hazelcast writes a null flag in front of every string.
+		stream.writeBoolean(null == s);
+		if( null != s ) {
+			stream.writeUTF(s);
+		}
+	}
+
+	@Override
+	public void writeCharArray(char[] v) throws IOException {
+		stream.writeInt(v.length);
+		for( char c : v ) {
+			stream.writeChar(c);
+		}
+	}
+
+	@Override
+	public void writeIntArray(int[] v) throws IOException {
+		stream.writeInt(v.length);
+		for( int i : v ) {
+			stream.writeInt(i);
+		}
+	}
+
+	@Override
+	public void writeLongArray(long[] v) throws IOException {
+		stream.writeInt(v.length);
+		for( long l : v ) {
+			stream.writeLong(l);
+		}
+	}
+
+	@Override
+	public void writeDoubleArray(double[] v) throws IOException {
+		stream.writeInt(v.length);
+		for( double d : v ) {
+			stream.writeDouble(d);
+		}
+	}
+
+	@Override
+	public void writeFloatArray(float[] v) throws IOException {
+		stream.writeInt(v.length);
+		for( float f : v ) {
+			stream.writeFloat(f);
+		}
+	}
+
+	@Override
+	public void writeShortArray(short[] v) throws IOException {
+		stream.writeInt(v.length);
+		for( short s : v ) {
+			stream.writeShort(s);
+		}
+	}
+
+	@Override
+	public void writeObject(Object object) throws IOException {
+		throw new UnsupportedOperationException("writeObject is not supported.");
+	}
+
+	@Override
+	public byte[] toByteArray() {
+		return buffer.toByteArray();
+	}
+
+	@Override
+	public ByteOrder getByteOrder() {
+		return ByteOrder.BIG_ENDIAN;
+	}
+
+}
@@ -0,0 +1,147 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ * @author Andreas Joelsson (andreas.joelsson@gmail.com)
+ */
+package io.github.scrier.opus.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import io.github.scrier.opus.common.Constants;
+import io.github.scrier.opus.common.nuke.CommandState;
+import io.github.scrier.opus.common.nuke.NukeExecuteBatchRspMsgC;
+import io.github.scrier.opus.common.nuke.NukeExecuteIndMsgC;
+import io.github.scrier.opus.common.nuke.NukeInfo;
+import io.github.scrier.opus.common.nuke.NukeState;
+import io.github.scrier.opus.duke.commander.BatchCommandProcedure;
+import io.github.scrier.opus.duke.commander.Context;
+import io.github.scrier.opus.duke.commander.DukeCommander;
+import io.github.scrier.opus.duke.commander.NukeProcedure;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.hazelcast.core.HazelcastInstance;
+
+/**
+ * DukeCommander.handleInMessage with a number of running batch procedures
+ * and one NukeProcedure per nuke. The indications are routed on saga id to
+ * one of the procedures, the unrouted message only reaches the procedures
+ * that are not routed.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CommanderDispatchBenchmark {
+	
+	private static final int NUKES = 4;
+	private static final long NUKE_ID = 1000L;
+	
+	@Param({"10", "1000", "50000"})
+	public int procedures;
+	
+	private Context theContext = Context.INSTANCE;
+	private StubActiveObject activeObject;
+	private DukeCommander commander;
+	private NukeExecuteIndMsgC[] indications;
+	private NukeExecuteIndMsgC unrouted;
+	private int next;
+	
+	@Setup
+	public void setUp() throws Exception {
+		HazelcastInstance instance = StubHazelcast.create();
+		activeObject = new StubActiveObject(instance);
+		activeObject.preInit();
+		commander = new DukeCommander(instance);
+		theContext.init(commander, activeObject);
+		long identity = activeObject.getIdentity();
+		for( int i = 0; i < NUKES; i++ ) {
+			NukeInfo info = new NukeInfo();
+			info.setNukeID(NUKE_ID + i);
+			info.setState(NukeState.RUNNING);
+			commander.registerProcedure(new NukeProcedure(info));
+		}
+		List<BatchCommandProcedure> batches = new ArrayList<BatchCommandProcedure>(procedures);
+		for( int i = 0; i < procedures; i++ ) {
+			BatchCommandProcedure batch = new BatchCommandProcedure(NUKE_ID + ( i % NUKES ), "sleep 1", "/tmp", true, 1);
+			commander.registerProcedure(batch);
+			batches.add(batch);
+		}
+		commander.initializeProcedures();
+		indications = new NukeExecuteIndMsgC[procedures];
+		for( int i = 0; i < procedures; i++ ) {
+			BatchCommandProcedure batch = batches.get(i);
+			NukeExecuteBatchRspMsgC response = new NukeExecuteBatchRspMsgC();
+			response.setSource(batch.getDestination());
+			response.setDestination(identity);
+			response.setTxID(batch.getTxID());
+			response.setSagaID(batch.getSagaID());
+			response.setProcessIDs(new ArrayList<Long>(Collections.singletonList(2000000L + i)));
+			commander.handleInMessage(response);
+			if( batch.WORKING != batch.getState() ) {
+				throw new IllegalStateException("Procedure " + batch + " not working after setup, state " + batch.getState() + ".");
+			}
+			indications[i] = new NukeExecuteIndMsgC();
+			indications[i].setSource(batch.getDestination());
+			indications[i].setDestination(identity);
+			indications[i].setSagaID(batch.getSagaID());
+			indications[i].setProcessID(2000000L + i);
+			indications[i].setStatus(CommandState.WORKING);
+		}
+		unrouted = new NukeExecuteIndMsgC();
+		unrouted.setSource(NUKE_ID);
+		unrouted.setDestination(identity);
+		unrouted.setSagaID(Constants.HC_UNDEFINED);
+		unrouted.setProcessID(1L);
+		unrouted.setStatus(CommandState.WORKING);
+		next = 0;
+	}
+	
+	@TearDown
+	public void tearDown() {
+		commander.shutDown();
+		theContext.shutDown();
+		activeObject.shutDown();
+	}
+	
+	@Benchmark
+	public int routedIndication() throws Exception {
+		NukeExecuteIndMsgC indication = indications[next];
+		next = ( next + 1 == procedures ) ? 0 : next + 1;
+		commander.handleInMessage(indication);
+		return next;
+	}
+	
+	@Benchmark
+	public int unroutedMessage() throws Exception {
+		commander.handleInMessage(unrouted);
+		return next;
+	}
+
+}
@@ -0,0 +1,171 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * @author Andreas Joelsson (andreas.joelsson@gmail.com)
+ */
+package io.github.scrier.opus.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import io.github.scrier.opus.common.TypedDispatcher;
+import io.github.scrier.opus.common.message.BaseMsgC;
+import io.github.scrier.opus.common.nuke.CommandState;
+import io.github.scrier.opus.common.nuke.NukeExecuteIndMsgC;
+import io.github.scrier.opus.common.nuke.NukeExecuteReqMsgC;
+import io.github.scrier.opus.common.nuke.NukeExecuteRspMsgC;
+import io.github.scrier.opus.common.nuke.NukeMsgFactory;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Dispatch of one incoming message to a procedure style handler, either with
+ * a switch on the id and a copy of the message or with the TypedDispatcher
+ * handing over the received instance. One operation is one dispatched
+ * message, run with -prof gc and read gc.alloc.rate.norm for the bytes
+ * allocated per dispatched message.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DispatchBenchmark {
+	
+	private static final TypedDispatcher<Receiver> dispatcher = new TypedDispatcher<Receiver>();
+	
+	static {
+		dispatcher.register(NukeMsgFactory.FACTORY_ID, NukeMsgFactory.NUKE_EXECUTE_REQ, NukeExecuteReqMsgC.class,
+				new TypedDispatcher.Handler<Receiver, NukeExecuteReqMsgC>() {
+			@Override
+			public void handle(Receiver target, NukeExecuteReqMsgC message) {
+				target.handleMessage(message);
+			}
+		});
+		dispatcher.register(NukeMsgFactory.FACTORY_ID, NukeMsgFactory.NUKE_EXECUTE_RSP, NukeExecuteRspMsgC.class,
+				new TypedDispatcher.Handler<Receiver, NukeExecuteRspMsgC>() {
+			@Override
+			public void handle(Receiver target, NukeExecuteRspMsgC message) {
+				target.handleMessage(message);
+			}
+		});
+		dispatcher.register(NukeMsgFactory.FACTORY_ID, NukeMsgFactory.NUKE_EXECUTE_IND, NukeExecuteIndMsgC.class,
+				new TypedDispatcher.Handler<Receiver, NukeExecuteIndMsgC>() {
+			@Override
+			public void handle(Receiver target, NukeExecuteIndMsgC message) {
+				target.handleMessage(message);
+			}
+		});
+	}
+	
+	private Receiver receiver;
+	private BaseMsgC indication;
+	private BaseMsgC request;
+	
+	@Setup
+	public void setUp() {
+		receiver = new Receiver();
+		NukeExecuteIndMsgC ind = new NukeExecuteIndMsgC();
+		ind.setSource(89123456L);
+		ind.setDestination(12345678L);
+		ind.setSagaID(4711L);
+		ind.setTxID(17);
+		ind.setProcessID(123754L);
+		ind.setStatus(CommandState.WORKING);
+		indication = ind;
+		NukeExecuteReqMsgC req = new NukeExecuteReqMsgC();
+		req.setSource(12345678L);
+		req.setDestination(89123456L);
+		req.setTxID(18);
+		req.setCommand("java -jar client.jar --host target --port 8080");
+		req.setFolder("/opt/opus/clients");
+		req.setRepeated(true);
+		request = req;
+	}
+	
+	@Benchmark
+	public long indicationCopy() {
+		copyDispatch(receiver, indication);
+		return receiver.sum;
+	}
+	
+	@Benchmark
+	public long indicationTyped() {
+		dispatcher.dispatch(receiver, indication);
+		return receiver.sum;
+	}
+	
+	@Benchmark
+	public long requestCopy() {
+		copyDispatch(receiver, request);
+		return receiver.sum;
+	}
+	
+	@Benchmark
+	public long requestTyped() {
+		dispatcher.dispatch(receiver, request);
+		return receiver.sum;
+	}
+	
+	/**
+	 * The dispatch used by the procedures before the TypedDispatcher.
+	 */
+	private static void copyDispatch(Receiver receiver, BaseMsgC message) {
+		switch( message.getId() ) {
+			case NukeMsgFactory.NUKE_EXECUTE_REQ: {
+				NukeExecuteReqMsgC pNukeExecuteReq = new NukeExecuteReqMsgC(message);
+				receiver.handleMessage(pNukeExecuteReq);
+				break;
+			}
+			case NukeMsgFactory.NUKE_EXECUTE_RSP: {
+				NukeExecuteRspMsgC pNukeExecuteRsp = new NukeExecuteRspMsgC(message);
+				receiver.handleMessage(pNukeExecuteRsp);
+				break;
+			}
+			case NukeMsgFactory.NUKE_EXECUTE_IND: {
+				NukeExecuteIndMsgC pNukeExecuteInd = new NukeExecuteIndMsgC(message);
+				receiver.handleMessage(pNukeExecuteInd);
+				break;
+			}
+		}
+	}
+	
+	/**
+	 * Handler reading the fields a procedure would look at.
+	 */
+	public static class Receiver {
+		public long sum;
+		
+		public void handleMessage(NukeExecuteReqMsgC message) {
+			sum += message.getTxID() + message.getCommand().length();
+		}
+		
+		public void handleMessage(NukeExecuteRspMsgC message) {
+			sum += message.getTxID() + message.getProcessID();
+		}
+		
+		public void handleMessage(NukeExecuteIndMsgC message) {
+			sum += message.getProcessID() + message.getStatus().ordinal();
+		}
+	}
+	
+}
@@ -0,0 +1,178 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ * @author Andreas Joelsson (andreas.joelsson@gmail.com)
+ */
+package io.github.scrier.opus.benchmarks;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import io.github.scrier.opus.common.nuke.NukeInfo;
+import io.github.scrier.opus.common.nuke.NukeState;
+import io.github.scrier.opus.duke.commander.ClusterDistributorProcedure;
+import io.github.scrier.opus.duke.commander.Context;
+import io.github.scrier.opus.duke.commander.INukeInfo;
+import io.github.scrier.opus.duke.commander.NukeProcedure;
+import io.github.scrier.opus.duke.commander.state.RampingUp;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * RampingUp.getDistributionSuggestion of one ramp step over a number of
+ * running nukes, compared to the previous allocator placing one user at a
+ * time. The nukes start with an uneven load that is restored before every
+ * suggestion and have capacities from 100 to 400, the previous allocator
+ * doesn't look at the capacity.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DistributionBenchmark {
+	
+	@Param({"10", "200", "1000"})
+	public int nukes;
+	
+	@Param({"100", "5000"})
+	public int users;
+	
+	private Context theContext = Context.INSTANCE;
+	private StubActiveObject activeObject;
+	private NukeProcedure[] available;
+	private RampingUp rampingUp;
+	private LegacyRampingUp legacyRampingUp;
+	
+	@Setup
+	public void setUp() {
+		activeObject = new StubActiveObject(StubHazelcast.create());
+		activeObject.preInit();
+		theContext.init(null, activeObject);
+		available = new NukeProcedure[nukes];
+		for( int i = 0; i < nukes; i++ ) {
+			NukeInfo info = new NukeInfo();
+			info.setNukeID(1000L + i);
+			info.setState(NukeState.RUNNING);
+			info.setCapacity(100 * ( 1 + i % 4 ));
+			available[i] = new NukeProcedure(info);
+			theContext.addNuke(info.getNukeID(), available[i]);
+		}
+		rampingUp = new RampingUp(new ClusterDistributorProcedure());
+		legacyRampingUp = new LegacyRampingUp(new ClusterDistributorProcedure());
+	}
+	
+	@TearDown
+	public void tearDown() {
+		theContext.shutDown();
+		activeObject.shutDown();
+	}
+	
+	@Benchmark
+	public Map<Long, Integer> suggestion() {
+		reset();
+		return rampingUp.getDistributionSuggestion(users);
+	}
+	
+	@Benchmark
+	public Map<Long, Integer> suggestionLegacy() {
+		reset();
+		return legacyRampingUp.getDistributionSuggestion(users);
+	}
+	
+	private void reset() {
+		for( int i = 0; i < nukes; i++ ) {
+			available[i].setRequestedNoOfThreads(i % 7);
+		}
+	}
+	
+	/**
+	 * RampingUp with the allocator used before the fill level, rescanning
+	 * every nuke for each user.
+	 */
+	public static class LegacyRampingUp extends RampingUp {
+		
+		private static Logger log = LogManager.getLogger(LegacyRampingUp.class);
+		
+		private Context theContext = Context.INSTANCE;
+		
+		public LegacyRampingUp(ClusterDistributorProcedure parent) {
+			super(parent);
+		}
+		
+		@Override
+		public Map<Long, Integer> getDistributionSuggestion(int noOfThreads) {
+			Map<Long, Integer> retValue = new HashMap<Long, Integer>();
+			List<INukeInfo> availableNukes = theContext.getNukes(NukeState.RUNNING);
+			int toExecute = noOfThreads;
+			if( true == availableNukes.isEmpty() ) {
+				return null;
+			}
+			while( toExecute > 0 ) {
+				INukeInfo minInfo = null;
+				log.debug("Checking " + availableNukes.size() + " for who gets the ball.");
+				for( INukeInfo info : availableNukes ) {
+					if( minInfo == null ) {
+						minInfo = info;
+					} else {
+						int minInfoAmount = getTotalUsers(retValue, minInfo);
+						int infoAmount = getTotalUsers(retValue, info);
+						log.debug("if( minInfoAmount[" + minInfoAmount + "] > infoAmount[" + infoAmount + "] )");
+						if( minInfoAmount > infoAmount ) {
+							log.debug("Changing info object from " + minInfo + " to " + info + ".");
+							minInfo = info;
+						}
+					}
+				}
+				if( true == retValue.containsKey(minInfo.getNukeID()) ) {
+					int value = retValue.get(minInfo.getNukeID());
+					log.debug("Changing from " + value + " to " + (value + 1 ) + " commands to nuke id:" + minInfo.getNukeID() + ".");
+					retValue.put(minInfo.getNukeID(), value + 1);
+				} else {
+					log.debug("Addding 1 command to nuke id: " + minInfo.getNukeID() + ".");
+					retValue.put(minInfo.getNukeID(), 1);
+				}
+				minInfo.setRequestedNoOfThreads(minInfo.getRequestedNoOfThreads() + 1);
+				toExecute--;
+			}
+			return retValue;
+		}
+		
+		private int getTotalUsers(Map<Long, Integer> availableNukes, INukeInfo info) {
+			int retValue = info.getRequestedNoOfThreads();
+			if( availableNukes.containsKey(info.getNukeID()) ) {
+				log.debug("Adding " + availableNukes.get(info.getNukeID()) + " to " + retValue + ".");
+				retValue += availableNukes.get(info.getNukeID());
+			}
+			return retValue;
+		}
+		
+	}
+
+}
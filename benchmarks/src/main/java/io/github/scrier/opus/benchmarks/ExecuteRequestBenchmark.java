@@ -0,0 +1,130 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ * @author Andreas Joelsson (andreas.joelsson@gmail.com)
+ */
+package io.github.scrier.opus.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import io.github.scrier.opus.common.nuke.NukeExecuteBatchReqMsgC;
+import io.github.scrier.opus.common.nuke.NukeExecuteBatchRspMsgC;
+import io.github.scrier.opus.common.nuke.NukeExecuteReqMsgC;
+import io.github.scrier.opus.common.nuke.NukeExecuteRspMsgC;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Ramp tick of a number of users to one nuke, either with one execute
+ * request and response per user or with one batched request and response.
+ * The score is ticks per second, the publishes counter shows the topic
+ * publishes per second needed for it.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ExecuteRequestBenchmark {
+	
+	@Param({"10", "100", "500"})
+	public int users;
+	
+	private SerializingSendIF sendIF;
+	private List<Long> processIDs;
+	
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.OPERATIONS)
+	public static class Publishes {
+		public long publishes;
+		
+		@Setup(Level.Iteration)
+		public void clean() {
+			publishes = 0;
+		}
+	}
+	
+	@Setup
+	public void setUp() {
+		sendIF = new SerializingSendIF();
+		processIDs = new ArrayList<Long>(users);
+		for( long i = 0; i < users; i++ ) {
+			processIDs.add(1000000L + i);
+		}
+	}
+	
+	@Benchmark
+	public long perUserTick(Publishes counter) {
+		sendIF.reset();
+		for( int i = 0; i < users; i++ ) {
+			NukeExecuteReqMsgC request = new NukeExecuteReqMsgC(sendIF);
+			request.setSource(1L);
+			request.setDestination(2L);
+			request.setTxID(i);
+			request.setSagaID(i);
+			request.setCommand("sleep 1");
+			request.setFolder("/tmp");
+			request.setRepeated(true);
+			request.send();
+			NukeExecuteRspMsgC response = new NukeExecuteRspMsgC(sendIF);
+			response.setSource(2L);
+			response.setDestination(1L);
+			response.setTxID(i);
+			response.setSagaID(i);
+			response.setProcessID(processIDs.get(i));
+			response.send();
+		}
+		counter.publishes += sendIF.getPublishes();
+		return sendIF.getBytes();
+	}
+	
+	@Benchmark
+	public long batchedTick(Publishes counter) {
+		sendIF.reset();
+		NukeExecuteBatchReqMsgC request = new NukeExecuteBatchReqMsgC(sendIF);
+		request.setSource(1L);
+		request.setDestination(2L);
+		request.setTxID(1);
+		request.setSagaID(1);
+		request.setCommand("sleep 1");
+		request.setFolder("/tmp");
+		request.setRepeated(true);
+		request.setNoOfUsers(users);
+		request.send();
+		NukeExecuteBatchRspMsgC response = new NukeExecuteBatchRspMsgC(sendIF);
+		response.setSource(2L);
+		response.setDestination(1L);
+		response.setTxID(1);
+		response.setSagaID(1);
+		response.setProcessIDs(processIDs);
+		response.send();
+		counter.publishes += sendIF.getPublishes();
+		return sendIF.getBytes();
+	}
+
+}
@@ -0,0 +1,192 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ * @author Andreas Joelsson (andreas.joelsson@gmail.com)
+ */
+package io.github.scrier.opus.benchmarks;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import io.github.scrier.opus.common.Shared;
+import io.github.scrier.opus.nuke.process.ProcessHandler;
+import io.github.scrier.opus.nuke.task.TaskExecutor;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Concurrent users a nuke sustains with each executor strategy. Every user
+ * starts a child process and waits for it, like BaseTaskProcedure does, and
+ * the benchmark measures the time until all users that were accepted have
+ * started their process, or the deadline passed.
+ * - synchronized: the user waits for the process inside a synchronized
+ *   method, which pins the carrier of a virtual thread on JDK 21.
+ * - unlocked: the process is started under a lock and waited for without
+ *   it, as BaseTaskProcedure.executeProcess does.
+ * The running and rejected counters show how many of the requested users the
+ * strategy sustained, the bounded pool runs threads users and queues queue
+ * users. The virtual strategy uses the bounded pool on runtimes without
+ * virtual threads.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class ExecutorBenchmark {
+
+	private static final long DEADLINE_MILLIS = 2000;
+
+	@Param({"pool", "bounded", "virtual"})
+	private String strategy;
+
+	@Param({"synchronized", "unlocked"})
+	private String wait;
+
+	@Param({"100", "1000"})
+	private int users;
+
+	@Param({"1000"})
+	private int threads;
+
+	@Param({"1000"})
+	private int queue;
+
+	private TaskExecutor executor;
+	private List<Process> processes;
+
+	/**
+	 * Users running and rejected in the measured iteration.
+	 */
+	@AuxCounters(AuxCounters.Type.EVENTS)
+	@State(Scope.Thread)
+	public static class Users {
+		public long running;
+		public long rejected;
+
+		@Setup(Level.Iteration)
+		public void clear() {
+			running = 0;
+			rejected = 0;
+		}
+	}
+
+	/**
+	 * A user waiting for its process, one per user like a procedure.
+	 */
+	private class User implements Callable<String> {
+
+		private final ReentrantLock lock = new ReentrantLock();
+		private final CountDownLatch started;
+
+		User(CountDownLatch started) {
+			this.started = started;
+		}
+
+		@Override
+		public String call() throws Exception {
+			if( "synchronized".equals(wait) ) {
+				waitLocked();
+			} else {
+				waitUnlocked();
+			}
+			return null;
+		}
+
+		private synchronized int waitLocked() throws IOException, InterruptedException {
+			Process process = start();
+			return process.waitFor();
+		}
+
+		private int waitUnlocked() throws IOException, InterruptedException {
+			Process process = null;
+			lock.lock();
+			try {
+				process = start();
+			} finally {
+				lock.unlock();
+			}
+			return process.waitFor();
+		}
+
+		private Process start() throws IOException {
+			ProcessHandler handler = new ProcessHandler(new String[] { "sleep", "60" });
+			handler.discardOutput();
+			Process retValue = handler.start();
+			processes.add(retValue);
+			started.countDown();
+			return retValue;
+		}
+	}
+
+	@Setup(Level.Iteration)
+	public void setUp() {
+		executor = new TaskExecutor(strategy, threads, queue);
+		processes = Collections.synchronizedList(new ArrayList<Process>());
+	}
+
+	@TearDown(Level.Iteration)
+	public void tearDown() {
+		synchronized( processes ) {
+			for( Process process : processes ) {
+				process.destroyForcibly();
+			}
+		}
+		executor.shutDown(10);
+	}
+
+	@Benchmark
+	public void startUsers(Users counters) throws InterruptedException {
+		final CountDownLatch started = new CountDownLatch(users);
+		for( int i = 0; i < users; i++ ) {
+			try {
+				executor.submit(new User(started));
+			} catch( RejectedExecutionException e ) {
+				counters.rejected++;
+				started.countDown();
+			}
+		}
+		long queued = Math.max(0, users - counters.rejected - threads);
+		if( true == Shared.Values.EXECUTOR_VIRTUAL.equals(executor.getStrategy()) ) {
+			queued = 0;
+		}
+		// queued users never start while the running users wait, pinned users stop at the deadline.
+		long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(DEADLINE_MILLIS);
+		while( started.getCount() > queued && System.nanoTime() < deadline ) {
+			started.await(10, TimeUnit.MILLISECONDS);
+		}
+		counters.running = users - counters.rejected - started.getCount();
+	}
+
+}
@@ -0,0 +1,132 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * @author Andreas Joelsson (andreas.joelsson@gmail.com)
+ */
+package io.github.scrier.opus.benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import io.github.scrier.opus.common.message.BaseMsgC;
+import io.github.scrier.opus.common.nuke.CommandState;
+import io.github.scrier.opus.common.nuke.NukeExecuteBatchIndMsgC;
+import io.github.scrier.opus.common.nuke.NukeExecuteIndMsgC;
+import io.github.scrier.opus.common.nuke.NukeInfo;
+import io.github.scrier.opus.common.nuke.NukeState;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.hazelcast.nio.serialization.DataSerializable;
+
+/**
+ * Cost of the trace logging in the message and data hot paths with the
+ * benchmark log4j2.xml, root level INFO. The round trips and the copy run
+ * the trace calls in the common classes, the trace benchmarks compare a
+ * concatenating trace call with and without the level guard.
+ * Run with -prof gc to see the bytes allocated per operation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LoggingBenchmark {
+	
+	private static Logger log = LogManager.getLogger(LoggingBenchmark.class);
+	
+	private ByteArrayDataOutput out;
+	private NukeInfo nukeInfo;
+	private NukeExecuteIndMsgC indication;
+	private NukeExecuteBatchIndMsgC batchIndication;
+	
+	@Setup
+	public void setUp() {
+		out = new ByteArrayDataOutput(1024);
+		nukeInfo = new NukeInfo();
+		nukeInfo.setKey(89123456L);
+		nukeInfo.setNukeID(89123456L);
+		nukeInfo.setNumberOfThreads(150);
+		nukeInfo.setRequestedThreads(200);
+		nukeInfo.setState(NukeState.RUNNING);
+		nukeInfo.setActiveCommands(150);
+		nukeInfo.setRequestedCommands(1500);
+		nukeInfo.setCompletedCommands(1350);
+		indication = new NukeExecuteIndMsgC();
+		indication.setSource(89123456L);
+		indication.setDestination(12345678L);
+		indication.setSagaID(4711L);
+		indication.setTxID(17);
+		indication.setProcessID(123754L);
+		indication.setStatus(CommandState.WORKING);
+		batchIndication = new NukeExecuteBatchIndMsgC();
+		batchIndication.setSource(89123456L);
+		batchIndication.setDestination(12345678L);
+		batchIndication.setSagaID(4711L);
+		for( long i = 0; i < 32; i++ ) {
+			batchIndication.addStatus(123754L + i, CommandState.DONE);
+		}
+	}
+	
+	@Benchmark
+	public NukeInfo nukeInfoRoundTrip() throws IOException {
+		return roundTrip(nukeInfo, new NukeInfo());
+	}
+	
+	@Benchmark
+	public NukeExecuteIndMsgC indicationRoundTrip() throws IOException {
+		return roundTrip(indication, new NukeExecuteIndMsgC());
+	}
+	
+	@Benchmark
+	public NukeExecuteBatchIndMsgC batchIndicationRoundTrip() throws IOException {
+		return roundTrip(batchIndication, new NukeExecuteBatchIndMsgC());
+	}
+	
+	@Benchmark
+	public NukeExecuteIndMsgC indicationCopy() {
+		return new NukeExecuteIndMsgC((BaseMsgC)indication);
+	}
+	
+	@Benchmark
+	public void traceUnguarded() {
+		log.trace("handleInMessage(" + indication + ")");
+	}
+	
+	@Benchmark
+	public void traceGuarded() {
+		if( log.isTraceEnabled() ) {
+			log.trace("handleInMessage(" + indication + ")");
+		}
+	}
+	
+	private <T extends DataSerializable> T roundTrip(T input, T output) throws IOException {
+		out.reset();
+		input.writeData(out);
+		output.readData(new ByteArrayDataInput(out.toByteArray()));
+		return output;
+	}
+	
+}
@@ -0,0 +1,98 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ * @author Andreas Joelsson (andreas.joelsson@gmail.com)
+ */
+package io.github.scrier.opus.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import io.github.scrier.opus.common.data.BaseDataC;
+import io.github.scrier.opus.common.nuke.NukeInfo;
+import io.github.scrier.opus.common.nuke.NukeState;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * NukeInfo.compare against an equal and a fully modified info, and the copy
+ * constructors used when the map updates are handled.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class NukeInfoBenchmark {
+	
+	private NukeInfo nukeInfo;
+	private NukeInfo equal;
+	private NukeInfo modified;
+	private BaseDataC data;
+	
+	@Setup
+	public void setUp() {
+		nukeInfo = new NukeInfo();
+		nukeInfo.setKey(89123456L);
+		nukeInfo.setTxID(17);
+		nukeInfo.setNukeID(89123456L);
+		nukeInfo.setNumberOfThreads(150);
+		nukeInfo.setRequestedThreads(200);
+		nukeInfo.setRepeated(true);
+		nukeInfo.setState(NukeState.RUNNING);
+		nukeInfo.setActiveCommands(150);
+		nukeInfo.setRequestedCommands(1500);
+		nukeInfo.setCompletedCommands(1350);
+		equal = new NukeInfo(nukeInfo);
+		modified = new NukeInfo();
+		modified.setNukeID(89123457L);
+		modified.setNumberOfThreads(151);
+		modified.setRequestedThreads(201);
+		modified.setRepeated(false);
+		modified.setState(NukeState.COMPLETED);
+		modified.setActiveCommands(151);
+		modified.setRequestedCommands(1501);
+		modified.setCompletedCommands(1351);
+		data = nukeInfo;
+	}
+	
+	@Benchmark
+	public long compareEqual() {
+		return nukeInfo.compare(equal);
+	}
+	
+	@Benchmark
+	public long compareModified() {
+		return nukeInfo.compare(modified);
+	}
+	
+	@Benchmark
+	public NukeInfo copy() {
+		return new NukeInfo(nukeInfo);
+	}
+	
+	@Benchmark
+	public NukeInfo copyFromData() {
+		return new NukeInfo(data);
+	}
+
+}
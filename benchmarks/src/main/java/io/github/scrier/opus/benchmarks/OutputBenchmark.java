@@ -0,0 +1,103 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ * @author Andreas Joelsson (andreas.joelsson@gmail.com)
+ */
+package io.github.scrier.opus.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import io.github.scrier.opus.nuke.process.ProcessHandler;
+import io.github.scrier.opus.nuke.task.StreamGobbler;
+import io.github.scrier.opus.nuke.task.StreamGobblerToFile;
+import io.github.scrier.opus.nuke.task.StreamGobblerToNull;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Processes per second of a chatty command with the output read by a
+ * gobbler thread compared to the output redirected by the OS. The command
+ * prints lines numbers, the gobbler modes read every line in the JVM and
+ * the redirect modes leave the output to the OS.
+ * - gobble: StreamGobblerToNull reads and drops the lines.
+ * - gobble-file: StreamGobblerToFile appends the lines to a file.
+ * - discard: the OS discards the output.
+ * - append: the OS appends the output to a file.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class OutputBenchmark {
+
+	@Param({"gobble", "gobble-file", "discard", "append"})
+	private String mode;
+
+	@Param({"1000", "100000"})
+	private int lines;
+
+	private File target;
+
+	@Setup(Level.Iteration)
+	public void setUp() throws IOException {
+		target = File.createTempFile("output-benchmark", ".log");
+	}
+
+	@TearDown(Level.Iteration)
+	public void tearDown() {
+		target.delete();
+	}
+
+	@Benchmark
+	public int runProcess() throws IOException, InterruptedException {
+		ProcessHandler handler = new ProcessHandler(new String[] { "seq", "1", Integer.toString(lines) });
+		handler.redirectErrorStream(true);
+		StreamGobbler gobbler = null;
+		if( "gobble".equals(mode) ) {
+			gobbler = new StreamGobblerToNull(null);
+		} else if( "gobble-file".equals(mode) ) {
+			gobbler = new StreamGobblerToFile(target);
+		} else if( "discard".equals(mode) ) {
+			handler.discardOutput();
+		} else {
+			handler.redirectOutput(target);
+		}
+		Process process = handler.start();
+		if( null != gobbler ) {
+			gobbler.setInputStream(process.getInputStream());
+			gobbler.start();
+		}
+		int retValue = process.waitFor();
+		if( null != gobbler ) {
+			gobbler.join();
+		}
+		return retValue;
+	}
+
+}
@@ -0,0 +1,239 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ * @author Andreas Joelsson (andreas.joelsson@gmail.com)
+ */
+package io.github.scrier.opus.benchmarks;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import io.github.scrier.opus.common.duke.DukeCommandEnum;
+import io.github.scrier.opus.common.duke.DukeCommandReqMsgC;
+import io.github.scrier.opus.common.duke.DukeCommandRspMsgC;
+import io.github.scrier.opus.common.duke.DukeInfo;
+import io.github.scrier.opus.common.duke.DukeState;
+import io.github.scrier.opus.common.message.BaseMsgC;
+import io.github.scrier.opus.common.nuke.CommandState;
+import io.github.scrier.opus.common.nuke.NukeExecuteBatchIndMsgC;
+import io.github.scrier.opus.common.nuke.NukeExecuteBatchReqMsgC;
+import io.github.scrier.opus.common.nuke.NukeExecuteBatchRspMsgC;
+import io.github.scrier.opus.common.nuke.NukeExecuteIndMsgC;
+import io.github.scrier.opus.common.nuke.NukeExecuteReqMsgC;
+import io.github.scrier.opus.common.nuke.NukeExecuteRspMsgC;
+import io.github.scrier.opus.common.nuke.NukeInfo;
+import io.github.scrier.opus.common.nuke.NukeState;
+import io.github.scrier.opus.common.nuke.NukeStopAllReqMsgC;
+import io.github.scrier.opus.common.nuke.NukeStopAllRspMsgC;
+import io.github.scrier.opus.common.nuke.NukeTerminateAllReqMsgC;
+import io.github.scrier.opus.common.nuke.NukeTerminateAllRspMsgC;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.hazelcast.nio.serialization.DataSerializable;
+
+/**
+ * Round trip of every message and data class, written and read back into a
+ * new instance. The bytes counter shows the payload size of one round trip.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SerializationBenchmark {
+	
+	private static final int BATCH_SIZE = 32;
+	
+	private ByteArrayDataOutput out;
+	private DukeCommandReqMsgC dukeCommandReq;
+	private DukeCommandRspMsgC dukeCommandRsp;
+	private DukeInfo dukeInfo;
+	private NukeExecuteReqMsgC executeReq;
+	private NukeExecuteRspMsgC executeRsp;
+	private NukeExecuteIndMsgC executeInd;
+	private NukeExecuteBatchReqMsgC executeBatchReq;
+	private NukeExecuteBatchRspMsgC executeBatchRsp;
+	private NukeExecuteBatchIndMsgC executeBatchInd;
+	private NukeInfo nukeInfo;
+	private NukeStopAllReqMsgC stopAllReq;
+	private NukeStopAllRspMsgC stopAllRsp;
+	private NukeTerminateAllReqMsgC terminateAllReq;
+	private NukeTerminateAllRspMsgC terminateAllRsp;
+	
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.EVENTS)
+	public static class Size {
+		public long bytes;
+		
+		@Setup(Level.Iteration)
+		public void clean() {
+			bytes = 0;
+		}
+	}
+	
+	@Setup
+	public void setUp() {
+		out = new ByteArrayDataOutput(1024);
+		dukeCommandReq = header(new DukeCommandReqMsgC());
+		dukeCommandReq.setDukeCommand(DukeCommandEnum.STATUS);
+		dukeCommandRsp = header(new DukeCommandRspMsgC());
+		dukeCommandRsp.setResponse("Nukes: 4, users: 1500, state: RAMPING_UP.");
+		dukeInfo = new DukeInfo();
+		dukeInfo.setKey(12345678L);
+		dukeInfo.setDukeID(12345678L);
+		dukeInfo.setState(DukeState.RUNNING);
+		executeReq = header(new NukeExecuteReqMsgC());
+		executeReq.setCommand("sleep 1");
+		executeReq.setFolder("/tmp");
+		executeReq.setRepeated(true);
+		executeRsp = header(new NukeExecuteRspMsgC());
+		executeRsp.setProcessID(123754L);
+		executeInd = header(new NukeExecuteIndMsgC());
+		executeInd.setProcessID(123754L);
+		executeInd.setStatus(CommandState.WORKING);
+		executeBatchReq = header(new NukeExecuteBatchReqMsgC());
+		executeBatchReq.setCommand("sleep 1");
+		executeBatchReq.setFolder("/tmp");
+		executeBatchReq.setRepeated(true);
+		executeBatchReq.setNoOfUsers(BATCH_SIZE);
+		List<Long> processIDs = new ArrayList<Long>(BATCH_SIZE);
+		executeBatchInd = header(new NukeExecuteBatchIndMsgC());
+		for( long i = 0; i < BATCH_SIZE; i++ ) {
+			processIDs.add(123754L + i);
+			executeBatchInd.addStatus(123754L + i, CommandState.WORKING);
+		}
+		executeBatchRsp = header(new NukeExecuteBatchRspMsgC());
+		executeBatchRsp.setProcessIDs(processIDs);
+		nukeInfo = new NukeInfo();
+		nukeInfo.setKey(89123456L);
+		nukeInfo.setTxID(17);
+		nukeInfo.setNukeID(89123456L);
+		nukeInfo.setNumberOfThreads(150);
+		nukeInfo.setRequestedThreads(200);
+		nukeInfo.setRepeated(true);
+		nukeInfo.setState(NukeState.RUNNING);
+		nukeInfo.setActiveCommands(150);
+		nukeInfo.setRequestedCommands(1500);
+		nukeInfo.setCompletedCommands(1350);
+		stopAllReq = header(new NukeStopAllReqMsgC());
+		stopAllRsp = header(new NukeStopAllRspMsgC());
+		stopAllRsp.setSuccess(true);
+		stopAllRsp.setStatus("Stopped 150 commands.");
+		terminateAllReq = header(new NukeTerminateAllReqMsgC());
+		terminateAllRsp = header(new NukeTerminateAllRspMsgC());
+		terminateAllRsp.setSuccess(true);
+		terminateAllRsp.setStatus("Terminated 150 commands.");
+	}
+	
+	@Benchmark
+	public DukeCommandReqMsgC dukeCommandReq(Size size) throws IOException {
+		return roundTrip(dukeCommandReq, new DukeCommandReqMsgC(), size);
+	}
+	
+	@Benchmark
+	public DukeCommandRspMsgC dukeCommandRsp(Size size) throws IOException {
+		return roundTrip(dukeCommandRsp, new DukeCommandRspMsgC(), size);
+	}
+	
+	@Benchmark
+	public DukeInfo dukeInfo(Size size) throws IOException {
+		return roundTrip(dukeInfo, new DukeInfo(), size);
+	}
+	
+	@Benchmark
+	public NukeExecuteReqMsgC executeReq(Size size) throws IOException {
+		return roundTrip(executeReq, new NukeExecuteReqMsgC(), size);
+	}
+	
+	@Benchmark
+	public NukeExecuteRspMsgC executeRsp(Size size) throws IOException {
+		return roundTrip(executeRsp, new NukeExecuteRspMsgC(), size);
+	}
+	
+	@Benchmark
+	public NukeExecuteIndMsgC executeInd(Size size) throws IOException {
+		return roundTrip(executeInd, new NukeExecuteIndMsgC(), size);
+	}
+	
+	@Benchmark
+	public NukeExecuteBatchReqMsgC executeBatchReq(Size size) throws IOException {
+		return roundTrip(executeBatchReq, new NukeExecuteBatchReqMsgC(), size);
+	}
+	
+	@Benchmark
+	public NukeExecuteBatchRspMsgC executeBatchRsp(Size size) throws IOException {
+		return roundTrip(executeBatchRsp, new NukeExecuteBatchRspMsgC(), size);
+	}
+	
+	@Benchmark
+	public NukeExecuteBatchIndMsgC executeBatchInd(Size size) throws IOException {
+		return roundTrip(executeBatchInd, new NukeExecuteBatchIndMsgC(), size);
+	}
+	
+	@Benchmark
+	public NukeInfo nukeInfo(Size size) throws IOException {
+		return roundTrip(nukeInfo, new NukeInfo(), size);
+	}
+	
+	@Benchmark
+	public NukeStopAllReqMsgC stopAllReq(Size size) throws IOException {
+		return roundTrip(stopAllReq, new NukeStopAllReqMsgC(), size);
+	}
+	
+	@Benchmark
+	public NukeStopAllRspMsgC stopAllRsp(Size size) throws IOException {
+		return roundTrip(stopAllRsp, new NukeStopAllRspMsgC(), size);
+	}
+	
+	@Benchmark
+	public NukeTerminateAllReqMsgC terminateAllReq(Size size) throws IOException {
+		return roundTrip(terminateAllReq, new NukeTerminateAllReqMsgC(), size);
+	}
+	
+	@Benchmark
+	public NukeTerminateAllRspMsgC terminateAllRsp(Size size) throws IOException {
+		return roundTrip(terminateAllRsp, new NukeTerminateAllRspMsgC(), size);
+	}
+	
+	private <T extends BaseMsgC> T header(T message) {
+		message.setSource(89123456L);
+		message.setDestination(12345678L);
+		message.setTxID(17);
+		message.setSagaID(4711L);
+		return message;
+	}
+	
+	private <T extends DataSerializable> T roundTrip(T input, T output, Size size) throws IOException {
+		out.reset();
+		input.writeData(out);
+		size.bytes += out.size();
+		output.readData(new ByteArrayDataInput(out.toByteArray()));
+		return output;
+	}
+
+}
@@ -0,0 +1,82 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ * @author Andreas Joelsson (andreas.joelsson@gmail.com)
+ */
+package io.github.scrier.opus.benchmarks;
+
+import java.io.IOException;
+
+import io.github.scrier.opus.common.message.BaseMsgC;
+import io.github.scrier.opus.common.message.SendIF;
+
+/**
+ * SendIF that serializes every published message the same way a topic
+ * publish would, without a cluster, and counts the publishes.
+ */
+public class SerializingSendIF implements SendIF {
+	
+	/**
+	 * Header hazelcast writes in front of an IdentifiedDataSerializable,
+	 * identified flag, factory id and class id.
+	 */
+	public static final int IDENTIFIED_HEADER_SIZE = 1 + 4 + 4;
+	
+	private ByteArrayDataOutput out;
+	private long publishes;
+	private long bytes;
+	
+	public SerializingSendIF() {
+		out = new ByteArrayDataOutput(1024);
+		publishes = 0;
+		bytes = 0;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void publishMessage(BaseMsgC message) {
+		out.reset();
+		try {
+			message.writeData(out);
+		} catch( IOException e ) {
+			throw new IllegalStateException("Failed to serialize " + message + ".", e);
+		}
+		bytes += IDENTIFIED_HEADER_SIZE + out.size();
+		publishes++;
+	}
+	
+	/**
+	 * @return the number of published messages.
+	 */
+	public long getPublishes() {
+		return publishes;
+	}
+	
+	/**
+	 * @return the number of serialized bytes.
+	 */
+	public long getBytes() {
+		return bytes;
+	}
+	
+	/**
+	 * Method to reset the counters.
+	 */
+	public void reset() {
+		publishes = 0;
+		bytes = 0;
+	}
+
+}
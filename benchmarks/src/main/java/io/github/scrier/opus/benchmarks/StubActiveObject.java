@@ -0,0 +1,82 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ * @author Andreas Joelsson (andreas.joelsson@gmail.com)
+ */
+package io.github.scrier.opus.benchmarks;
+
+import io.github.scrier.opus.common.aoc.BaseActiveObject;
+import io.github.scrier.opus.common.message.BaseMsgC;
+import io.github.scrier.opus.common.message.SendIF;
+
+import com.hazelcast.core.HazelcastInstance;
+
+/**
+ * Active object without message service for the benchmarks, sent messages
+ * are serialized by a SerializingSendIF and dropped.
+ */
+public class StubActiveObject extends BaseActiveObject {
+	
+	private final SerializingSendIF sendIF;
+	
+	/**
+	 * Constructor
+	 * @param instance HazelcastInstance, normally a StubHazelcast.
+	 */
+	public StubActiveObject(HazelcastInstance instance) {
+		super(instance);
+		sendIF = new SerializingSendIF();
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void init() {
+		// nothing to initialize.
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void shutDown() {
+		if( null != getMailbox() ) {
+			getMailbox().shutDown();
+		}
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public SendIF getSendIF() {
+		return sendIF;
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void handleInMessage(BaseMsgC message) {
+		// not subscribing to anything.
+	}
+	
+	/**
+	 * @return the number of messages sent.
+	 */
+	public long getPublishes() {
+		return sendIF.getPublishes();
+	}
+
+}
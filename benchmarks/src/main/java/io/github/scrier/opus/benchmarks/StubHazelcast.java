@@ -0,0 +1,90 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ * @author Andreas Joelsson (andreas.joelsson@gmail.com)
+ */
+package io.github.scrier.opus.benchmarks;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.hazelcast.core.HazelcastInstance;
+
+/**
+ * HazelcastInstance without a cluster for the benchmarks that need to create
+ * the duke and nuke objects. Every call returning an interface returns a stub
+ * of it, the same stub for the same method and arguments, id generators count
+ * from 1 and all other calls return null, false or 0.
+ */
+public class StubHazelcast implements InvocationHandler {
+	
+	private final Map<List<Object>, Object> stubs;
+	private long nextId;
+	
+	private StubHazelcast() {
+		stubs = new HashMap<List<Object>, Object>();
+		nextId = 0;
+	}
+	
+	/**
+	 * Method to create a new stubbed instance.
+	 * @return HazelcastInstance
+	 */
+	public static HazelcastInstance create() {
+		return stub(HazelcastInstance.class);
+	}
+	
+	private static <T> T stub(Class<T> type) {
+		return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, new StubHazelcast()));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public synchronized Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+		Class<?> type = method.getReturnType();
+		if( "newId".equals(method.getName()) ) {
+			return ++nextId;
+		} else if( "hashCode".equals(method.getName()) ) {
+			return System.identityHashCode(proxy);
+		} else if( "equals".equals(method.getName()) ) {
+			return proxy == args[0];
+		} else if( "toString".equals(method.getName()) ) {
+			return "StubHazelcast@" + Integer.toHexString(System.identityHashCode(proxy));
+		} else if( true == type.isInterface() ) {
+			List<Object> key = Arrays.asList(method.getName(), ( null == args ) ? null : Arrays.asList(args));
+			Object retValue = stubs.get(key);
+			if( null == retValue ) {
+				retValue = stub(type);
+				stubs.put(key, retValue);
+			}
+			return retValue;
+		} else if( boolean.class == type ) {
+			return false;
+		} else if( long.class == type ) {
+			return 0L;
+		} else if( int.class == type ) {
+			return 0;
+		} else if( true == type.isPrimitive() && void.class != type ) {
+			throw new UnsupportedOperationException("No stub value for " + method + ".");
+		}
+		return null;
+	}
+
+}
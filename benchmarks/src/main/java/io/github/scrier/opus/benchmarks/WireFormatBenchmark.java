@@ -0,0 +1,206 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ * @author Andreas Joelsson (andreas.joelsson@gmail.com)
+ */
+package io.github.scrier.opus.benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import io.github.scrier.opus.common.nuke.CommandState;
+import io.github.scrier.opus.common.nuke.NukeExecuteIndMsgC;
+import io.github.scrier.opus.common.nuke.NukeInfo;
+import io.github.scrier.opus.common.nuke.NukeState;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.DataSerializable;
+
+/**
+ * Round trip of NukeInfo and NukeExecuteIndMsgC with the compact wire format
+ * compared to the previous encoding with fixed size ids and enum names.
+ * The bytes counter shows the payload size of one round trip.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class WireFormatBenchmark {
+	
+	private ByteArrayDataOutput out;
+	private NukeInfo nukeInfo;
+	private LegacyNukeInfo legacyNukeInfo;
+	private NukeExecuteIndMsgC indication;
+	private LegacyExecuteInd legacyIndication;
+	
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.EVENTS)
+	public static class Size {
+		public long bytes;
+		
+		@Setup(Level.Iteration)
+		public void clean() {
+			bytes = 0;
+		}
+	}
+	
+	@Setup
+	public void setUp() {
+		out = new ByteArrayDataOutput(256);
+		nukeInfo = new NukeInfo();
+		nukeInfo.setKey(89123456L);
+		nukeInfo.setTxID(17);
+		nukeInfo.setNukeID(89123456L);
+		nukeInfo.setNumberOfThreads(150);
+		nukeInfo.setRequestedThreads(200);
+		nukeInfo.setRepeated(true);
+		nukeInfo.setState(NukeState.RUNNING);
+		nukeInfo.setActiveCommands(150);
+		nukeInfo.setRequestedCommands(1500);
+		nukeInfo.setCompletedCommands(1350);
+		legacyNukeInfo = new LegacyNukeInfo(nukeInfo);
+		indication = new NukeExecuteIndMsgC();
+		indication.setSource(89123456L);
+		indication.setDestination(12345678L);
+		indication.setSagaID(4711L);
+		indication.setTxID(17);
+		indication.setProcessID(123754L);
+		indication.setStatus(CommandState.WORKING);
+		legacyIndication = new LegacyExecuteInd(indication);
+	}
+	
+	@Benchmark
+	public NukeInfo nukeInfoCompact(Size size) throws IOException {
+		return roundTrip(nukeInfo, new NukeInfo(), size);
+	}
+	
+	@Benchmark
+	public NukeInfo nukeInfoLegacy(Size size) throws IOException {
+		return roundTrip(legacyNukeInfo, new LegacyNukeInfo(), size);
+	}
+	
+	@Benchmark
+	public NukeExecuteIndMsgC indicationCompact(Size size) throws IOException {
+		return roundTrip(indication, new NukeExecuteIndMsgC(), size);
+	}
+	
+	@Benchmark
+	public NukeExecuteIndMsgC indicationLegacy(Size size) throws IOException {
+		return roundTrip(legacyIndication, new LegacyExecuteInd(), size);
+	}
+	
+	private <T extends DataSerializable> T roundTrip(T input, T output, Size size) throws IOException {
+		out.reset();
+		input.writeData(out);
+		size.bytes += out.size();
+		output.readData(new ByteArrayDataInput(out.toByteArray()));
+		return output;
+	}
+	
+	/**
+	 * NukeInfo with the encoding used before the wire format version byte.
+	 */
+	public static class LegacyNukeInfo extends NukeInfo {
+		
+		public LegacyNukeInfo() {
+			super();
+		}
+		
+		public LegacyNukeInfo(NukeInfo obj2copy) {
+			super(obj2copy);
+		}
+		
+		@Override
+		public void readData(ObjectDataInput in) throws IOException {
+			setKey(in.readLong());
+			setTxID(in.readInt());
+			in.readInt();
+			in.readInt();
+			setNukeID(in.readLong());
+			setNumberOfThreads(in.readInt());
+			setRequestedThreads(in.readInt());
+			setRepeated(in.readBoolean());
+			setState(NukeState.valueOf(in.readUTF()));
+			setActiveCommands(in.readInt());
+			setRequestedCommands(in.readInt());
+			setCompletedCommands(in.readInt());
+		}
+		
+		@Override
+		public void writeData(ObjectDataOutput out) throws IOException {
+			out.writeLong(getKey());
+			out.writeInt(getTxID());
+			out.writeInt(getFactoryId());
+			out.writeInt(getId());
+			out.writeLong(getNukeID());
+			out.writeInt(getNumberOfThreads());
+			out.writeInt(getRequestedThreads());
+			out.writeBoolean(isRepeated());
+			out.writeUTF(getState().toString());
+			out.writeInt(getActiveCommands());
+			out.writeInt(getRequestedCommands());
+			out.writeInt(getCompletedCommands());
+		}
+	}
+	
+	/**
+	 * NukeExecuteIndMsgC with the encoding used before the wire format version byte.
+	 */
+	public static class LegacyExecuteInd extends NukeExecuteIndMsgC {
+		
+		public LegacyExecuteInd() {
+			super();
+		}
+		
+		public LegacyExecuteInd(NukeExecuteIndMsgC obj2copy) {
+			super(obj2copy);
+		}
+		
+		@Override
+		public void readData(ObjectDataInput in) throws IOException {
+			setSource(in.readLong());
+			setDestination(in.readLong());
+			setSagaID(in.readLong());
+			setTxID(in.readInt());
+			setStatus(CommandState.valueOf(in.readUTF()));
+			setProcessID(in.readLong());
+		}
+		
+		@Override
+		public void writeData(ObjectDataOutput out) throws IOException {
+			out.writeLong(getSource());
+			out.writeLong(getDestination());
+			out.writeLong(getSagaID());
+			out.writeInt(getTxID());
+			out.writeUTF(getStatus().toString());
+			out.writeLong(getProcessID());
+		}
+	}
+
+}
@@ -37,12 +37,46 @@ public class Shared {
 		public static final String EXECUTE_REPEATED = "execute-repeat";
 		public static final String EXECUTE_INTERVAL = "execute-interval";
 		public static final String EXECUTE_USER_INCREASE = "execute-user-inc";
+		public static final String EXECUTE_USER_DECREASE = "execute-user-dec";
 		public static final String EXECUTE_PEAK_DELAY = "execute-peak-delay";
 		public static final String EXECUTE_TERMINATE = "execute-terminate";
 		public static final String EXECUTE_FOLDER = "execute-folder";
 		public static final String EXECUTE_COMMAND = "execute-command";
 		public static final String EXECUTE_GOBBLER_DIR = "execute-gobbler-dir";
 		public static final String EXECUTE_GOBBLER_LEVEL = "execute-gobbler-level";
+		public static final String EXECUTE_GOBBLER_REDIRECT = "execute-gobbler-redirect";
+		public static final String EXECUTE_MODE = "execute-mode";
+		public static final String EXECUTE_MAX_RATE = "execute-max-rate";
+		public static final String EXECUTE_RATE_INCREASE = "execute-rate-inc";
+		public static final String EXECUTE_MAX_IN_FLIGHT = "execute-max-in-flight";
+		public static final String EXECUTE_PROFILE = "execute-profile";
+		public static final String EXECUTE_LAUNCH_SPREAD = "execute-launch-spread";
+		public static final String EXECUTE_LAUNCH_JITTER = "execute-launch-jitter";
+		public static final String EXECUTE_REBALANCE_RATE = "execute-rebalance-rate";
+		public static final String EXECUTE_MAX_P95 = "execute-max-p95";
+		public static final String EXECUTE_MAX_ERROR_RATIO = "execute-max-error-ratio";
+		public static final String EXECUTE_PLATEAU_PERCENT = "execute-plateau-percent";
+		public static final String EXECUTE_IND_FLUSH_INTERVAL = "execute-ind-flush-interval";
+		public static final String EXECUTE_IND_FLUSH_EVENTS = "execute-ind-flush-events";
+		public static final String EXECUTE_EXECUTOR = "execute-executor";
+		public static final String EXECUTE_EXECUTOR_THREADS = "execute-executor-threads";
+		public static final String EXECUTE_EXECUTOR_QUEUE = "execute-executor-queue";
+		public static final String EXECUTE_REAPERS = "execute-reapers";
+		public static final String EXECUTE_REAPER_INTERVAL = "execute-reaper-interval";
+		public static final String MAILBOX_CAPACITY = "mailbox-capacity";
+		public static final String MAILBOX_BACKPRESSURE = "mailbox-backpressure";
+		public static final String CALIBRATION_SPAWNS = "calibration-spawns";
+	}
+	
+	public static class Values {
+		public static final String EXECUTE_MODE_USERS = "users";
+		public static final String EXECUTE_MODE_RATE = "rate";
+		public static final String EXECUTE_MODE_PROFILE = "profile";
+		public static final String EXECUTE_MODE_TARGET = "target";
+		public static final String EXECUTE_MODE_SATURATION = "saturation";
+		public static final String EXECUTOR_POOL = "pool";
+		public static final String EXECUTOR_BOUNDED = "bounded";
+		public static final String EXECUTOR_VIRTUAL = "virtual";
 	}
 	
 	public static class Methods {
@@ -0,0 +1,136 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * @author Andreas Joelsson (andreas.joelsson@gmail.com)
+ */
+package io.github.scrier.opus.common;
+
+import java.util.Arrays;
+
+import com.hazelcast.nio.serialization.IdentifiedDataSerializable;
+
+/**
+ * Dispatch of messages and data to typed handlers keyed on factory id and id.
+ *
+ * The handler receives the deserialized instance itself, no copy is made,
+ * so handlers must treat it as read only. A dispatch doesn't allocate, a class
+ * only has a handful of handlers so a linear search on a long key finds them.
+ * Handlers are registered once per class, normally in a static initializer,
+ * and get the object to call as the first argument.
+ * @param <T> type of the object the handlers are called on.
+ */
+public class TypedDispatcher<T> {
+
+	/**
+	 * Handler of one message or data type.
+	 * @param <T> type of the object the handler is called on.
+	 * @param <M> type of the handled message or data.
+	 */
+	public interface Handler<T, M> {
+
+		/**
+		 * Method to handle a message or data.
+		 * @param target the object to call.
+		 * @param message the message or data, read only.
+		 */
+		public void handle(T target, M message);
+
+	}
+
+	private static final int INITIAL_CAPACITY = 8;
+
+	private long[] keys;
+	private Class<?>[] types;
+	private Handler<?, ?>[] handlers;
+	private int size;
+
+	public TypedDispatcher() {
+		keys = new long[INITIAL_CAPACITY];
+		types = new Class<?>[INITIAL_CAPACITY];
+		handlers = new Handler<?, ?>[INITIAL_CAPACITY];
+		size = 0;
+	}
+
+	/**
+	 * Method to register the handler of a factory id and id.
+	 * @param factoryId int with the factory id.
+	 * @param id int with the id within the factory.
+	 * @param type Class the instances with the factory id and id must have.
+	 * @param handler Handler to call.
+	 * @throws IllegalArgumentException if a handler is already registered.
+	 */
+	public synchronized <M extends IdentifiedDataSerializable> void register(int factoryId, int id, Class<M> type, Handler<T, ? super M> handler) {
+		if( true == contains(factoryId, id) ) {
+			throw new IllegalArgumentException("Handler already registered for " + factoryId + ":" + id + ".");
+		}
+		if( size == keys.length ) {
+			keys = Arrays.copyOf(keys, size * 2);
+			types = Arrays.copyOf(types, size * 2);
+			handlers = Arrays.copyOf(handlers, size * 2);
+		}
+		keys[size] = getKey(factoryId, id);
+		types[size] = type;
+		handlers[size] = handler;
+		size++;
+	}
+
+	/**
+	 * Method to dispatch a message or data to its handler.
+	 * @param target the object to call the handler on.
+	 * @param message IdentifiedDataSerializable to dispatch.
+	 * @return boolean true if a handler was called, false if none is registered.
+	 * @throws ClassCastException if the instance doesn't have the registered type.
+	 */
+	@SuppressWarnings("unchecked")
+	public boolean dispatch(T target, IdentifiedDataSerializable message) throws ClassCastException {
+		int slot = find(getKey(message.getFactoryId(), message.getId()));
+		if( 0 > slot ) {
+			return false;
+		}
+		if( true != types[slot].isInstance(message) ) {
+			throw new ClassCastException("Data with id " + message.getId() + " is not an instanceof " + types[slot].getSimpleName() + ", are you using correct class?");
+		}
+		((Handler<T, Object>)handlers[slot]).handle(target, message);
+		return true;
+	}
+
+	/**
+	 * @param factoryId int with the factory id.
+	 * @param id int with the id within the factory.
+	 * @return boolean true if a handler is registered.
+	 */
+	public boolean contains(int factoryId, int id) {
+		return 0 <= find(getKey(factoryId, id));
+	}
+
+	/**
+	 * @return the number of registered handlers.
+	 */
+	public int size() {
+		return size;
+	}
+
+	private static long getKey(int factoryId, int id) {
+		return ( (long)factoryId << 32 ) | ( id & 0xFFFFFFFFL );
+	}
+
+	private int find(long key) {
+		for( int i = 0; i < size; i++ ) {
+			if( key == keys[i] ) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+}
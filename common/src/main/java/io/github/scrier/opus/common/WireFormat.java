@@ -0,0 +1,224 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * @author Andreas Joelsson (andreas.joelsson@gmail.com)
+ */
+package io.github.scrier.opus.common;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+
+/**
+ * Compact encoding shared by BaseMsgC and BaseDataC.
+ *
+ * Every payload starts with a version byte, followed by one layer for every
+ * class in the hierarchy that writes fields, base class first. A layer is
+ * prefixed with its length, so fields added later are appended at the end of
+ * their layer and only read when the received version is high enough, a reader
+ * skips the fields of a newer version it doesn't know about in every layer.
+ * Enums are written as their ordinal in one byte, so new constants must only
+ * be appended to an enum, an ordinal unknown to the reader fails the read.
+ * Ids and counters are written as zigzag varints, making the common small
+ * values and Constants.HC_UNDEFINED a single byte.
+ */
+public class WireFormat {
+
+	/**
+	 * Current version of the encoding written by this node.
+	 * Version 2 appends the capacity calibration, the achieved users, the execution
+	 * metrics and the executor counters to NukeInfo and the gap markers and the
+	 * measured capacity to DukeInfo. Version 3 prefixes every layer with its length.
+	 */
+	public static final int VERSION = 3;
+
+	/**
+	 * Lowest version read by this node, versions 1 and 2 didn't prefix the layers
+	 * with their length.
+	 */
+	public static final int MIN_VERSION = 3;
+
+	/**
+	 * Method to write the version byte.
+	 * @param out ObjectDataOutput to write to.
+	 * @throws IOException thrown on write failures.
+	 */
+	public static void writeVersion(ObjectDataOutput out) throws IOException {
+		out.writeByte(VERSION);
+	}
+
+	/**
+	 * Method to read the version byte.
+	 * @param in ObjectDataInput to read from.
+	 * @return int with the version of the payload.
+	 * @throws IOException thrown on read failures or an unsupported version.
+	 */
+	public static int readVersion(ObjectDataInput in) throws IOException {
+		int version = in.readUnsignedByte();
+		if( MIN_VERSION > version ) {
+			throw new IOException("Unsupported wire format version " + version + ", lowest supported is " + MIN_VERSION + ".");
+		}
+		return version;
+	}
+
+	/**
+	 * Method to start the layer of a class, the fields of the class are
+	 * written to the layer and the layer to the payload with endLayer.
+	 * @return Layer to write the fields of the class to.
+	 */
+	public static Layer startLayer() {
+		return new Layer(new ByteArrayOutputStream());
+	}
+
+	/**
+	 * Method to write a layer prefixed with its length.
+	 * @param out ObjectDataOutput of the payload.
+	 * @param layer Layer from startLayer.
+	 * @throws IOException thrown on write failures.
+	 */
+	public static void endLayer(ObjectDataOutput out, Layer layer) throws IOException {
+		layer.flush();
+		writeVarInt(out, layer.size());
+		out.write(layer.bytes.toByteArray());
+	}
+
+	/**
+	 * Method to read the layer of a class, the fields of the class are read
+	 * from the returned input and fields it doesn't know about are skipped.
+	 * @param in ObjectDataInput of the payload.
+	 * @return DataInput with the fields of the layer.
+	 * @throws IOException thrown on read failures or an invalid length.
+	 */
+	public static DataInput readLayer(ObjectDataInput in) throws IOException {
+		int length = readVarInt(in);
+		if( 0 > length ) {
+			throw new IOException("Invalid layer length " + length + ".");
+		}
+		byte[] layer = new byte[length];
+		in.readFully(layer);
+		return new DataInputStream(new ByteArrayInputStream(layer));
+	}
+
+	/**
+	 * Method to write an enum as its ordinal.
+	 * @param out DataOutput to write to.
+	 * @param value Enum to write.
+	 * @throws IOException thrown on write failures.
+	 */
+	public static void writeEnum(DataOutput out, Enum<?> value) throws IOException {
+		out.writeByte(value.ordinal());
+	}
+
+	/**
+	 * Method to read an enum written with writeEnum.
+	 * @param in DataInput to read from.
+	 * @param values the values() of the enum to read.
+	 * @return the enum constant.
+	 * @throws IOException thrown on read failures or an ordinal unknown to this node.
+	 */
+	public static <E extends Enum<E>> E readEnum(DataInput in, E[] values) throws IOException {
+		int ordinal = in.readUnsignedByte();
+		if( ordinal >= values.length ) {
+			throw new IOException("Unknown ordinal " + ordinal + " of an enum with " + values.length + " constants.");
+		}
+		return values[ordinal];
+	}
+
+	/**
+	 * Method to write an int as a zigzag varint, 1 to 5 bytes.
+	 * @param out DataOutput to write to.
+	 * @param value int to write.
+	 * @throws IOException thrown on write failures.
+	 */
+	public static void writeVarInt(DataOutput out, int value) throws IOException {
+		int zigzag = ( value << 1 ) ^ ( value >> 31 );
+		while( 0 != ( zigzag & ~0x7F ) ) {
+			out.writeByte(( zigzag & 0x7F ) | 0x80);
+			zigzag >>>= 7;
+		}
+		out.writeByte(zigzag);
+	}
+
+	/**
+	 * Method to read an int written with writeVarInt.
+	 * @param in DataInput to read from.
+	 * @return int read.
+	 * @throws IOException thrown on read failures or a malformed varint.
+	 */
+	public static int readVarInt(DataInput in) throws IOException {
+		int zigzag = 0;
+		for( int shift = 0; shift < 35; shift += 7 ) {
+			int b = in.readUnsignedByte();
+			zigzag |= ( b & 0x7F ) << shift;
+			if( 0 == ( b & 0x80 ) ) {
+				return ( zigzag >>> 1 ) ^ -( zigzag & 1 );
+			}
+		}
+		throw new IOException("Malformed varint.");
+	}
+
+	/**
+	 * Method to write a long as a zigzag varint, 1 to 10 bytes.
+	 * @param out DataOutput to write to.
+	 * @param value long to write.
+	 * @throws IOException thrown on write failures.
+	 */
+	public static void writeVarLong(DataOutput out, long value) throws IOException {
+		long zigzag = ( value << 1 ) ^ ( value >> 63 );
+		while( 0L != ( zigzag & ~0x7FL ) ) {
+			out.writeByte((int)( zigzag & 0x7F ) | 0x80);
+			zigzag >>>= 7;
+		}
+		out.writeByte((int)zigzag);
+	}
+
+	/**
+	 * Method to read a long written with writeVarLong.
+	 * @param in DataInput to read from.
+	 * @return long read.
+	 * @throws IOException thrown on read failures or a malformed varint.
+	 */
+	public static long readVarLong(DataInput in) throws IOException {
+		long zigzag = 0L;
+		for( int shift = 0; shift < 70; shift += 7 ) {
+			int b = in.readUnsignedByte();
+			zigzag |= (long)( b & 0x7F ) << shift;
+			if( 0 == ( b & 0x80 ) ) {
+				return ( zigzag >>> 1 ) ^ -( zigzag & 1L );
+			}
+		}
+		throw new IOException("Malformed varint.");
+	}
+
+	/**
+	 * Layer of a class, buffered until its length is known.
+	 */
+	public static final class Layer extends DataOutputStream {
+
+		private final ByteArrayOutputStream bytes;
+
+		private Layer(ByteArrayOutputStream bytes) {
+			super(bytes);
+			this.bytes = bytes;
+		}
+
+	}
+
+}
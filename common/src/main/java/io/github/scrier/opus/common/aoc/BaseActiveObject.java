@@ -18,6 +18,7 @@ package io.github.scrier.opus.common.aoc;
 import io.github.scrier.opus.common.Constants;
 import io.github.scrier.opus.common.Shared;
 import io.github.scrier.opus.common.exception.InvalidOperationException;
+import io.github.scrier.opus.common.message.BaseMsgC;
 import io.github.scrier.opus.common.message.MessageIF;
 import io.github.scrier.opus.common.message.MessageService;
 import io.github.scrier.opus.common.message.SendIF;
@@ -28,6 +29,11 @@ import org.apache.logging.log4j.Logger;
 import com.hazelcast.core.HazelcastInstance;
 import com.hazelcast.core.IMap;
 
+/**
+ * Base of the duke and nuke active objects. Incoming messages are posted to
+ * the Mailbox of the active object and handled by its consumer thread, so
+ * the hazelcast event threads never run procedure code.
+ */
 public abstract class BaseActiveObject implements MessageIF {
 	
 	public static Logger log = LogManager.getLogger(BaseActiveObject.class);
@@ -37,6 +43,7 @@ public abstract class BaseActiveObject implements MessageIF {
 	private HazelcastInstance instance;
 	private IMap<String, String> settings;
 	private MessageService msgService;
+	private Mailbox mailbox;
 	
 	/**
 	 * Constructor
@@ -48,6 +55,7 @@ public abstract class BaseActiveObject implements MessageIF {
 		setCorrectInitPerformed(false);
 		setSettings(null);
 		setMsgService(null);
+		setMailbox(null);
 	}
 
 	/**
@@ -111,8 +119,79 @@ public abstract class BaseActiveObject implements MessageIF {
 		setCorrectInitPerformed(true);
 		setIdentity(getInstance().getIdGenerator(Shared.Hazelcast.COMMON_MAP_UNIQUE_ID).newId());
 		settings = getInstance().getMap(Shared.Hazelcast.SETTINGS_MAP);
-		setMsgService(new MessageService(this));
+		setMailbox(createMailbox());
+		setMsgService(new MessageService(new MailboxMessageIF(), identity));
 		init();
+		mailbox.start();
+	}
+	
+	/**
+	 * Method to create the mailbox from the mailbox-capacity and
+	 * mailbox-backpressure settings, defaults are used for missing values.
+	 * @return Mailbox that is not started.
+	 */
+	protected Mailbox createMailbox() {
+		log.trace("createMailbox()");
+		int capacity = Mailbox.DEFAULT_CAPACITY;
+		Mailbox.Backpressure backpressure = Mailbox.Backpressure.BLOCK;
+		String value = ( null == settings ) ? null : settings.get(Shared.Settings.MAILBOX_CAPACITY);
+		if( null != value ) {
+			try {
+				capacity = Integer.parseInt(value);
+			} catch( NumberFormatException e ) {
+				log.error("Invalid " + Shared.Settings.MAILBOX_CAPACITY + " \"" + value + "\", using " + capacity + ".", e);
+			}
+		}
+		value = ( null == settings ) ? null : settings.get(Shared.Settings.MAILBOX_BACKPRESSURE);
+		if( null != value ) {
+			try {
+				backpressure = Mailbox.Backpressure.valueOf(value.trim().toUpperCase());
+			} catch( IllegalArgumentException e ) {
+				log.error("Invalid " + Shared.Settings.MAILBOX_BACKPRESSURE + " \"" + value + "\", using " + backpressure + ".", e);
+			}
+		}
+		return new Mailbox(getClass().getSimpleName() + "-mailbox", capacity, backpressure);
+	}
+	
+	/**
+	 * Method to run work on the consumer thread of the active object, runs
+	 * the work directly if the mailbox isn't created.
+	 * @param command Runnable to run.
+	 * @return boolean true if queued or run, false if rejected.
+	 */
+	public boolean post(Runnable command) {
+		if( null == mailbox ) {
+			command.run();
+			return true;
+		}
+		return mailbox.post(command);
+	}
+	
+	/**
+	 * Method to run internal work such as timers on the consumer thread of the
+	 * active object, the work is never rejected. Runs the work directly if the
+	 * mailbox isn't created.
+	 * @param command Runnable to run.
+	 * @return boolean true if queued or run, false if interrupted while waiting for room.
+	 */
+	public boolean postInternal(Runnable command) {
+		if( null == mailbox ) {
+			command.run();
+			return true;
+		}
+		return mailbox.postInternal(command);
+	}
+	
+	/**
+	 * Method to stop the consumer thread of the mailbox, called from the
+	 * shutDown of the active object. The mailbox counters are logged.
+	 */
+	protected void stopMailbox() {
+		log.trace("stopMailbox()");
+		if( null != mailbox ) {
+			log.info("Stopping " + mailbox + ".");
+			mailbox.shutDown();
+		}
 	}
 	
 	/**
@@ -164,6 +243,20 @@ public abstract class BaseActiveObject implements MessageIF {
 	  this.msgService = msgService;
   }
   
+	/**
+	 * @return the mailbox, null before preInit.
+	 */
+  public Mailbox getMailbox() {
+	  return mailbox;
+  }
+
+	/**
+	 * @param mailbox the mailbox to set
+	 */
+  private void setMailbox(Mailbox mailbox) {
+	  this.mailbox = mailbox;
+  }
+  
   /**
    * Register on a factory id of messages.
    * @param factoryID int
@@ -182,4 +275,28 @@ public abstract class BaseActiveObject implements MessageIF {
   	return this.msgService.unRegisterOnFactory(factoryID);
   }
 	
+  /**
+   * Posts the messages from the message service to the mailbox.
+   */
+  private class MailboxMessageIF implements MessageIF {
+  	
+  	@Override
+  	public HazelcastInstance getInstance() {
+  		return BaseActiveObject.this.getInstance();
+  	}
+  	
+  	@Override
+  	public void handleInMessage(final BaseMsgC message) {
+  		if( true != post(new Runnable() {
+  			@Override
+  			public void run() {
+  				BaseActiveObject.this.handleInMessage(message);
+  			}
+  		}) ) {
+  			log.error("Mailbox full, dropped message " + message + ", " + mailbox.getRejected() + " dropped in total.");
+  		}
+  	}
+  	
+  }
+	
 }
@@ -0,0 +1,340 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * @author Andreas Joelsson (andreas.joelsson@gmail.com)
+ */
+package io.github.scrier.opus.common.aoc;
+
+import java.util.Queue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Bounded mailbox of an active object. Any number of threads may post to it
+ * but only the single consumer thread runs the posted work, so everything
+ * that goes through the mailbox is executed in order and never concurrently.
+ * When the mailbox is full the producer is either blocked until there is room
+ * or the work is rejected, depending on the Backpressure policy. Internal work
+ * such as timers is never rejected, and work the consumer posts to its own full
+ * mailbox is kept in an overflow queue, since the consumer can't wait for itself.
+ */
+public class Mailbox implements Executor {
+
+	private static Logger log = LogManager.getLogger(Mailbox.class);
+
+	public static final int DEFAULT_CAPACITY = 10000;
+
+	/**
+	 * What to do with work posted to a full mailbox.
+	 */
+	public enum Backpressure {
+		BLOCK,	// wait for room, slows the producer down.
+		REJECT	// drop the work and count it as rejected.
+	}
+
+	private final String name;
+	private final int capacity;
+	private final Backpressure backpressure;
+	private final BlockingQueue<Runnable> queue;
+	private final Queue<Runnable> overflow;		///< Work the consumer posted to the full queue, run before it.
+	private final AtomicInteger overflowDepth;
+	private final AtomicInteger maxDepth;
+	private final AtomicLong posted;
+	private final AtomicLong processed;
+	private final AtomicLong rejected;
+	private final AtomicLong blocked;
+	private final AtomicLong overflowed;
+	private volatile boolean running;
+	private volatile Thread consumer;
+
+	/**
+	 * Constructor
+	 * @param name String with the name of the consumer thread.
+	 * @param capacity int with the max number of queued items.
+	 * @param backpressure Backpressure to apply when the mailbox is full.
+	 */
+	public Mailbox(String name, int capacity, Backpressure backpressure) {
+		if( log.isTraceEnabled() ) {
+			log.trace("Mailbox(" + name + ", " + capacity + ", " + backpressure + ")");
+		}
+		if( 0 >= capacity ) {
+			throw new IllegalArgumentException("Capacity must be above 0, was " + capacity + ".");
+		}
+		this.name = name;
+		this.capacity = capacity;
+		this.backpressure = backpressure;
+		this.queue = new LinkedBlockingQueue<Runnable>(capacity);
+		this.overflow = new ConcurrentLinkedQueue<Runnable>();
+		this.overflowDepth = new AtomicInteger(0);
+		this.maxDepth = new AtomicInteger(0);
+		this.posted = new AtomicLong(0);
+		this.processed = new AtomicLong(0);
+		this.rejected = new AtomicLong(0);
+		this.blocked = new AtomicLong(0);
+		this.overflowed = new AtomicLong(0);
+		this.running = false;
+		this.consumer = null;
+	}
+
+	/**
+	 * Method to start the consumer thread, work posted before start is queued.
+	 */
+	public synchronized void start() {
+		log.trace("start()");
+		if( null != consumer ) {
+			log.error("Mailbox " + name + " already started.");
+			return;
+		}
+		running = true;
+		consumer = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				consume();
+			}
+		}, name);
+		consumer.setDaemon(true);
+		consumer.start();
+	}
+
+	/**
+	 * Method to stop the consumer thread, queued work that isn't started is discarded.
+	 */
+	public void shutDown() {
+		log.trace("shutDown()");
+		Thread toStop = null;
+		synchronized( this ) {
+			running = false;
+			toStop = consumer;
+			consumer = null;
+		}
+		if( null != toStop && Thread.currentThread() != toStop ) {
+			toStop.interrupt();
+			try {
+				toStop.join(1000);
+			} catch( InterruptedException e ) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		queue.clear();
+		overflow.clear();
+		overflowDepth.set(0);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void execute(Runnable command) {
+		if( true != post(command) ) {
+			log.warn("Mailbox " + name + " is full, rejected " + command + ", " + getRejected() + " rejected in total.");
+		}
+	}
+
+	/**
+	 * Method to post work to the mailbox, the work is handled according to
+	 * the Backpressure policy when the mailbox is full.
+	 * @param command Runnable to run on the consumer thread.
+	 * @return boolean true if queued, false if rejected.
+	 */
+	public boolean post(Runnable command) {
+		return post(command, false);
+	}
+	
+	/**
+	 * Method to post internal work such as timers and wake ups, which is never
+	 * rejected. The producer waits for room when the mailbox is full whatever
+	 * the Backpressure policy.
+	 * @param command Runnable to run on the consumer thread.
+	 * @return boolean true if queued, false if interrupted while waiting.
+	 */
+	public boolean postInternal(Runnable command) {
+		return post(command, true);
+	}
+	
+	/**
+	 * Method to post work to the mailbox. Work posted from the consumer thread
+	 * to a full mailbox goes to the overflow queue, the consumer can't wait for
+	 * itself and the work must not run in the middle of the current item.
+	 * @param command Runnable to run on the consumer thread.
+	 * @param internal boolean true if the work may not be rejected.
+	 * @return boolean true if queued, false if rejected.
+	 */
+	private boolean post(Runnable command, boolean internal) {
+		boolean retValue = queue.offer(command);
+		if( true != retValue ) {
+			if( true == isConsumerThread() ) {
+				overflow.add(command);
+				overflowDepth.incrementAndGet();
+				overflowed.incrementAndGet();
+				retValue = true;
+			} else if( true == internal || Backpressure.BLOCK == backpressure ) {
+				blocked.incrementAndGet();
+				try {
+					queue.put(command);
+					retValue = true;
+				} catch( InterruptedException e ) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		}
+		if( true == retValue ) {
+			posted.incrementAndGet();
+			updateMaxDepth(getDepth());
+		} else {
+			rejected.incrementAndGet();
+		}
+		return retValue;
+	}
+
+	/**
+	 * @return boolean true if called from the consumer thread.
+	 */
+	public boolean isConsumerThread() {
+		return Thread.currentThread() == consumer;
+	}
+
+	/**
+	 * @return boolean true if the consumer thread is running.
+	 */
+	public boolean isRunning() {
+		return running;
+	}
+
+	/**
+	 * @return the name
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * @return the capacity
+	 */
+	public int getCapacity() {
+		return capacity;
+	}
+
+	/**
+	 * @return the backpressure
+	 */
+	public Backpressure getBackpressure() {
+		return backpressure;
+	}
+
+	/**
+	 * @return the number of queued items, including the overflow of the consumer.
+	 */
+	public int getDepth() {
+		return queue.size() + overflowDepth.get();
+	}
+
+	/**
+	 * @return the highest number of queued items seen.
+	 */
+	public int getMaxDepth() {
+		return maxDepth.get();
+	}
+
+	/**
+	 * @return the number of posted items.
+	 */
+	public long getPosted() {
+		return posted.get();
+	}
+
+	/**
+	 * @return the number of items run by the consumer.
+	 */
+	public long getProcessed() {
+		return processed.get();
+	}
+
+	/**
+	 * @return the number of items rejected because the mailbox was full.
+	 */
+	public long getRejected() {
+		return rejected.get();
+	}
+
+	/**
+	 * @return the number of times a producer had to wait for room.
+	 */
+	public long getBlocked() {
+		return blocked.get();
+	}
+
+	/**
+	 * @return the number of items the consumer posted to the full mailbox.
+	 */
+	public long getOverflowed() {
+		return overflowed.get();
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String toString() {
+		return "Mailbox{name: " + name + ", depth: " + getDepth() + ", maxDepth: " + getMaxDepth() + ", capacity: " + capacity + 
+				", posted: " + getPosted() + ", processed: " + getProcessed() + ", rejected: " + getRejected() + 
+				", blocked: " + getBlocked() + ", overflowed: " + getOverflowed() + "}";
+	}
+
+	private void consume() {
+		log.debug("Mailbox " + name + " consumer started.");
+		while( true == running ) {
+			try {
+				Runnable command = overflow.poll();
+				if( null == command ) {
+					command = queue.take();
+				} else {
+					overflowDepth.decrementAndGet();
+				}
+				run(command);
+			} catch( InterruptedException e ) {
+				if( true == running ) {
+					log.error("Mailbox " + name + " consumer interrupted while running.", e);
+				}
+			}
+		}
+		log.debug("Mailbox " + name + " consumer stopped.");
+	}
+
+	private void run(Runnable command) {
+		try {
+			command.run();
+		} catch( RuntimeException e ) {
+			log.error("Mailbox " + name + " received exception from " + command + ".", e);
+		}
+		processed.incrementAndGet();
+	}
+
+	private void updateMaxDepth(int depth) {
+		int current = maxDepth.get();
+		while( depth > current && true != maxDepth.compareAndSet(current, depth) ) {
+			current = maxDepth.get();
+		}
+		// warn each time a new tenth of the capacity is reached.
+		if( depth > current && depth * 10L / capacity > current * 10L / capacity ) {
+			log.warn("Mailbox " + name + " reached a depth of " + depth + " of " + capacity + ".");
+		}
+	}
+
+}
@@ -114,7 +114,9 @@ public abstract class BaseProcedureC {
 	 * @param previousState int with previous state.
 	 */
 	public void onStateChanged(int newState, int previousState) {
-		log.trace("onStateChanged(" + newState + ", " + previousState + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("onStateChanged(" + newState + ", " + previousState + ")");
+		}
 	}
 	
 	/**
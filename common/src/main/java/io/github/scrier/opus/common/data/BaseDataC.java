@@ -16,7 +16,9 @@
 package io.github.scrier.opus.common.data;
 
 import io.github.scrier.opus.common.Constants;
+import io.github.scrier.opus.common.WireFormat;
 
+import java.io.DataInput;
 import java.io.IOException;
 
 import org.apache.logging.log4j.LogManager;
@@ -34,20 +36,27 @@ public class BaseDataC implements IdentifiedDataSerializable {
 	private int txID;
 	private int factoryID;
 	private int messageID;
+	private int wireVersion;
 	
 	public BaseDataC(int factoryID, int messageID) {
-		log.trace("BaseDataC(" + factoryID + ", " + messageID + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("BaseDataC(" + factoryID + ", " + messageID + ")");
+		}
 		setKey(Constants.HC_UNDEFINED);
 		setFactoryID(factoryID);
 		setMessageID(messageID);
+		setWireVersion(WireFormat.VERSION);
 	}
 	
 	public BaseDataC(BaseDataC obj2copy) {
-		log.trace("BaseDataC(" + obj2copy + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("BaseDataC(" + obj2copy + ")");
+		}
 		setKey(obj2copy.getKey());
 		setTxID(obj2copy.getTxID());
 		setFactoryID(obj2copy.getFactoryId());
 		setMessageID(obj2copy.getId());
+		setWireVersion(obj2copy.getWireVersion());
 	}
 
 	/**
@@ -55,11 +64,13 @@ public class BaseDataC implements IdentifiedDataSerializable {
 	 */
 	@Override
 	public void readData(ObjectDataInput in) throws IOException {
-		log.trace("readData(" + in + ")"); 
-		setKey(in.readLong());
-		setTxID(in.readInt());
-		setFactoryID(in.readInt());
-		setMessageID(in.readInt());
+		if( log.isTraceEnabled() ) {
+			log.trace("readData(" + in + ")"); 
+		}
+		setWireVersion(WireFormat.readVersion(in));
+		DataInput layer = WireFormat.readLayer(in);
+		setKey(WireFormat.readVarLong(layer));
+		setTxID(WireFormat.readVarInt(layer));
 	}
 
 	/**
@@ -67,11 +78,14 @@ public class BaseDataC implements IdentifiedDataSerializable {
 	 */
 	@Override
 	public void writeData(ObjectDataOutput out) throws IOException {
-		log.trace("writeData(" + out + ")");
-		out.writeLong(getKey());
-		out.writeInt(getTxID());
-		out.writeInt(getFactoryId());
-		out.writeInt(getId());
+		if( log.isTraceEnabled() ) {
+			log.trace("writeData(" + out + ")");
+		}
+		WireFormat.writeVersion(out);
+		WireFormat.Layer layer = WireFormat.startLayer();
+		WireFormat.writeVarLong(layer, getKey());
+		WireFormat.writeVarInt(layer, getTxID());
+		WireFormat.endLayer(out, layer);
 	}
 	
 	/**
@@ -104,6 +118,20 @@ public class BaseDataC implements IdentifiedDataSerializable {
 		this.messageID = messageID;
 	}
 
+	/**
+	 * @return the wire format version the data was read with.
+	 */
+	public int getWireVersion() {
+		return wireVersion;
+	}
+
+	/**
+	 * @param wireVersion the wireVersion to set
+	 */
+	private void setWireVersion(int wireVersion) {
+		this.wireVersion = wireVersion;
+	}
+
 	/**
 	 * @return the txID
 	 */
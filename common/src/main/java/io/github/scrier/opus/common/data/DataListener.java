@@ -16,8 +16,10 @@
 package io.github.scrier.opus.common.data;
 
 import java.util.Collection;
+import java.util.concurrent.Executor;
 
 import io.github.scrier.opus.common.Shared;
+import io.github.scrier.opus.common.aoc.Mailbox;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -33,9 +35,11 @@ public abstract class DataListener implements EntryListener<Long, BaseDataC> {
 	
 	private HazelcastInstance instance;
 	private IMap<Long, BaseDataC> sharedMap;
+	private Executor dispatcher;
 	
 	public DataListener(HazelcastInstance instance, String distributedMap) {
 		setInstance(instance);
+		setDispatcher(null);
 		sharedMap = instance.getMap(distributedMap);
 		sharedMap.addEntryListener(this, true);
 	}
@@ -61,7 +65,9 @@ public abstract class DataListener implements EntryListener<Long, BaseDataC> {
 	 * @param data BaseNukeC to add to the map.
 	 */
 	public void addEntry(BaseDataC data) {
-		log.trace("addEntry(" + data + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("addEntry(" + data + ")");
+		}
 		if( 0 > data.getKey() ) {
 			data.setKey(getInstance().getIdGenerator(Shared.Hazelcast.COMMON_MAP_UNIQUE_ID).newId());
 		}
@@ -69,7 +75,9 @@ public abstract class DataListener implements EntryListener<Long, BaseDataC> {
 	}
 	
 	public boolean updateEntry(BaseDataC data) {
-		log.trace("updateEntry(" + data + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("updateEntry(" + data + ")");
+		}
 		boolean retValue = true;
 		if( sharedMap.containsKey(data.getKey()) ) {
 			sharedMap.put(data.getKey(), data);
@@ -80,7 +88,9 @@ public abstract class DataListener implements EntryListener<Long, BaseDataC> {
 	}
 	
 	public boolean removeEntry(BaseDataC data) {
-		log.trace("removeEntry(" + data + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("removeEntry(" + data + ")");
+		}
 		return null != sharedMap.remove(data.getKey());
 	}
 	
@@ -90,8 +100,87 @@ public abstract class DataListener implements EntryListener<Long, BaseDataC> {
 	}
 	
 	@Override
-	public synchronized void entryAdded(EntryEvent<Long, BaseDataC> added) {
-		log.trace("entryAdded(" + added + ")");
+	public void entryAdded(final EntryEvent<Long, BaseDataC> added) {
+		if( log.isTraceEnabled() ) {
+			log.trace("entryAdded(" + added + ")");
+		}
+		dispatch(new Runnable() {
+			@Override
+			public void run() {
+				handleEntryAdded(added);
+			}
+		});
+	}
+
+	@Override
+	public void entryEvicted(final EntryEvent<Long, BaseDataC> evicted) {
+		if( log.isTraceEnabled() ) {
+			log.trace("entryEvicted(" + evicted + ")");
+		}
+		dispatch(new Runnable() {
+			@Override
+			public void run() {
+				handleEntryEvicted(evicted);
+			}
+		});
+	}
+
+	@Override
+	public void entryRemoved(final EntryEvent<Long, BaseDataC> removed) {
+		if( log.isTraceEnabled() ) {
+			log.trace("entryRemoved(" + removed + ")");
+		}
+		dispatch(new Runnable() {
+			@Override
+			public void run() {
+				handleEntryRemoved(removed);
+			}
+		});
+	}
+
+	@Override
+	public void entryUpdated(final EntryEvent<Long, BaseDataC> updated) {
+		if( log.isTraceEnabled() ) {
+			log.trace("entryUpdated(" + updated + ")");
+		}
+		dispatch(new Runnable() {
+			@Override
+			public void run() {
+				handleEntryUpdated(updated);
+			}
+		});
+	}
+	
+	/**
+	 * Method to run an event on the dispatcher, or directly if there is none.
+	 * @param event Runnable handling the event.
+	 */
+	protected void dispatch(Runnable event) {
+		if( null == getDispatcher() ) {
+			event.run();
+		} else {
+			getDispatcher().execute(event);
+		}
+	}
+	
+	/**
+	 * Method to run internal work such as timers on the dispatcher, or
+	 * directly if there is none. A Mailbox never rejects the work.
+	 * @param work Runnable to run.
+	 */
+	protected void dispatchInternal(Runnable work) {
+		if( null == getDispatcher() ) {
+			work.run();
+		} else if( getDispatcher() instanceof Mailbox ) {
+			if( true != ((Mailbox)getDispatcher()).postInternal(work) ) {
+				log.error("Interrupted while posting " + work + ".");
+			}
+		} else {
+			getDispatcher().execute(work);
+		}
+	}
+
+	protected synchronized void handleEntryAdded(EntryEvent<Long, BaseDataC> added) {
 		if( added.getKey() != added.getValue().getKey() ) {
 			log.fatal("Received a mismatch mapkey and BasenukeC key in entryAdded!!");
 			throw new RuntimeException("Received a mismatch mapkey[" + added.getKey() + "] and BasenukeC[" + added.getValue() + "] key in entryAdded!!");
@@ -102,25 +191,19 @@ public abstract class DataListener implements EntryListener<Long, BaseDataC> {
 		}
 	}
 
-	@Override
-	public synchronized void entryEvicted(EntryEvent<Long, BaseDataC> evicted) {
-		log.trace("entryEvicted(" + evicted + ")");
+	protected synchronized void handleEntryEvicted(EntryEvent<Long, BaseDataC> evicted) {
 		preEntry();
 		entryEvicted(evicted.getKey(), evicted.getValue());
 		postEntry();
 	}
 
-	@Override
-	public synchronized void entryRemoved(EntryEvent<Long, BaseDataC> removed) {
-		log.trace("entryRemoved(" + removed + ")");
+	protected synchronized void handleEntryRemoved(EntryEvent<Long, BaseDataC> removed) {
 		preEntry();
 		entryRemoved(removed.getKey());
 		postEntry();
 	}
 
-	@Override
-	public synchronized void entryUpdated(EntryEvent<Long, BaseDataC> updated) {
-		log.trace("entryUpdated(" + updated + ")");
+	protected synchronized void handleEntryUpdated(EntryEvent<Long, BaseDataC> updated) {
 		if( updated.getKey() != updated.getValue().getKey() ) {
 			log.fatal("Received a mismatch mapkey and BasenukeC key in entryUpdated!!");
 			throw new RuntimeException("Received a mismatch mapkey[" + updated.getKey() + "] and BasenukeC[" + updated.getValue() + "] key in entryUpdated!!");
@@ -131,6 +214,20 @@ public abstract class DataListener implements EntryListener<Long, BaseDataC> {
 		}
 	}
 
+	/**
+	 * @return the dispatcher map events are run on, null to run them on the hazelcast event thread.
+	 */
+  public Executor getDispatcher() {
+	  return dispatcher;
+  }
+
+	/**
+	 * @param dispatcher the dispatcher to set, normally the Mailbox of the active object.
+	 */
+  public void setDispatcher(Executor dispatcher) {
+	  this.dispatcher = dispatcher;
+  }
+
 	/**
 	 * @return the instance
 	 */
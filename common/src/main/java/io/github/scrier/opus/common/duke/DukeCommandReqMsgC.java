@@ -15,6 +15,7 @@
  */
 package io.github.scrier.opus.common.duke;
 
+import java.io.DataInput;
 import java.io.IOException;
 
 import org.apache.logging.log4j.LogManager;
@@ -23,6 +24,7 @@ import org.apache.logging.log4j.Logger;
 import com.hazelcast.nio.ObjectDataInput;
 import com.hazelcast.nio.ObjectDataOutput;
 
+import io.github.scrier.opus.common.WireFormat;
 import io.github.scrier.opus.common.message.BaseMsgC;
 import io.github.scrier.opus.common.message.SendIF;
 
@@ -47,7 +49,9 @@ public class DukeCommandReqMsgC extends BaseMsgC {
 	 */
 	public DukeCommandReqMsgC(SendIF sendIF) {
 		super(DukeMsgFactory.FACTORY_ID, DukeMsgFactory.DUKE_COMMAND_REQ, sendIF);
-		log.trace("DukeCommandReqMsgC(" + sendIF + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("DukeCommandReqMsgC(" + sendIF + ")");
+		}
 		setDukeCommand(DukeCommandEnum.UNDEFINED);
 	}
 	
@@ -57,7 +61,9 @@ public class DukeCommandReqMsgC extends BaseMsgC {
 	 */
 	public DukeCommandReqMsgC(DukeCommandReqMsgC obj2copy) {
 		super(obj2copy);
-		log.trace("DukeCommandReqMsgC(" + obj2copy + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("DukeCommandReqMsgC(" + obj2copy + ")");
+		}
 		setDukeCommand(obj2copy.getDukeCommand());
 	}
 	
@@ -68,7 +74,9 @@ public class DukeCommandReqMsgC extends BaseMsgC {
 	 */
 	public DukeCommandReqMsgC(BaseMsgC input) throws ClassCastException {
 		super(input);
-		log.trace("DukeCommandReqMsgC(" + input + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("DukeCommandReqMsgC(" + input + ")");
+		}
 		if( input instanceof DukeCommandReqMsgC ) {
 			DukeCommandReqMsgC obj2copy = (DukeCommandReqMsgC)input;
 			setDukeCommand(obj2copy.getDukeCommand());
@@ -82,9 +90,12 @@ public class DukeCommandReqMsgC extends BaseMsgC {
 	 */
 	@Override
 	public void readData(ObjectDataInput in) throws IOException {
-		log.trace("readData(" + in + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("readData(" + in + ")");
+		}
 		super.readData(in);
-		setDukeCommand(DukeCommandEnum.valueOf(in.readUTF()));
+		DataInput layer = WireFormat.readLayer(in);
+		setDukeCommand(WireFormat.readEnum(layer, DukeCommandEnum.values()));
 	}
 
 	/**
@@ -92,9 +103,13 @@ public class DukeCommandReqMsgC extends BaseMsgC {
 	 */
 	@Override
 	public void writeData(ObjectDataOutput out) throws IOException {
-		log.trace("writeData(" + out + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("writeData(" + out + ")");
+		}
 		super.writeData(out);
-		out.writeUTF(getDukeCommand().toString());
+		WireFormat.Layer layer = WireFormat.startLayer();
+		WireFormat.writeEnum(layer, getDukeCommand());
+		WireFormat.endLayer(out, layer);
 	}
 
 	/**
@@ -15,16 +15,16 @@
  */
 package io.github.scrier.opus.common.duke;
 
+import java.io.DataInput;
 import java.io.IOException;
 
-import javafx.scene.Parent;
-
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import com.hazelcast.nio.ObjectDataInput;
 import com.hazelcast.nio.ObjectDataOutput;
 
+import io.github.scrier.opus.common.WireFormat;
 import io.github.scrier.opus.common.message.BaseMsgC;
 import io.github.scrier.opus.common.message.SendIF;
 
@@ -49,7 +49,9 @@ public class DukeCommandRspMsgC extends BaseMsgC {
 	 */
 	public DukeCommandRspMsgC(SendIF sendIF) {
 		super(DukeMsgFactory.FACTORY_ID, DukeMsgFactory.DUKE_COMMAND_RSP, sendIF);
-		log.trace("DukeCommandRspMsgC(" + sendIF + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("DukeCommandRspMsgC(" + sendIF + ")");
+		}
 		setResponse("");
 	}
 	
@@ -59,7 +61,9 @@ public class DukeCommandRspMsgC extends BaseMsgC {
 	 */
 	public DukeCommandRspMsgC(DukeCommandRspMsgC obj2copy) {
 		super(obj2copy);
-		log.trace("DukeCommandRspMsgC(" + obj2copy + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("DukeCommandRspMsgC(" + obj2copy + ")");
+		}
 		setResponse(obj2copy.getResponse());
 	}
 	
@@ -70,7 +74,9 @@ public class DukeCommandRspMsgC extends BaseMsgC {
 	 */
 	public DukeCommandRspMsgC(BaseMsgC input) throws ClassCastException {
 		super(input);
-		log.trace("DukeCommandRspMsgC(" + input + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("DukeCommandRspMsgC(" + input + ")");
+		}
 		if( input instanceof DukeCommandRspMsgC ) {
 			DukeCommandRspMsgC obj2copy = (DukeCommandRspMsgC)input;
 			setResponse(obj2copy.getResponse());
@@ -84,9 +90,12 @@ public class DukeCommandRspMsgC extends BaseMsgC {
 	 */
 	@Override
 	public void readData(ObjectDataInput in) throws IOException {
-		log.trace("readData(" + in + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("readData(" + in + ")");
+		}
 		super.readData(in);
-		setResponse(in.readUTF());
+		DataInput layer = WireFormat.readLayer(in);
+		setResponse(layer.readUTF());
 	}
 
 	/**
@@ -94,9 +103,13 @@ public class DukeCommandRspMsgC extends BaseMsgC {
 	 */
 	@Override
 	public void writeData(ObjectDataOutput out) throws IOException {
-		log.trace("writeData(" + out + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("writeData(" + out + ")");
+		}
 		super.writeData(out);
-		out.writeUTF(getResponse());
+		WireFormat.Layer layer = WireFormat.startLayer();
+		layer.writeUTF(getResponse());
+		WireFormat.endLayer(out, layer);
 	}
 
 	/**
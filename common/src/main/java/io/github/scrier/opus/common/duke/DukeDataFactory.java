@@ -40,7 +40,9 @@ public class DukeDataFactory implements DataSerializableFactory {
 	
 	@Override
 	public IdentifiedDataSerializable create(int dataID) {
-		log.trace("create(" + dataID + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("create(" + dataID + ")");
+		}
 		IdentifiedDataSerializable retValue = null;
 		switch(dataID) {
 			case DUKE_INFO:
@@ -15,7 +15,11 @@
  */
 package io.github.scrier.opus.common.duke;
 
+import java.io.DataInput;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -24,6 +28,7 @@ import com.hazelcast.nio.ObjectDataInput;
 import com.hazelcast.nio.ObjectDataOutput;
 
 import io.github.scrier.opus.common.Constants;
+import io.github.scrier.opus.common.WireFormat;
 import io.github.scrier.opus.common.data.BaseDataC;
 
 public class DukeInfo extends BaseDataC {
@@ -32,9 +37,13 @@ public class DukeInfo extends BaseDataC {
 	
 	private long dukeID;
 	private DukeState state;
+	private List<Long> gapMarkers;	///< Times in milliseconds the load was disturbed by a lost nuke.
+	private int measuredCapacity;		///< Users the saturation search confirmed the cluster handles, 0 if not measured.
 	
 	public static final long DUKE_ID_MODIFIED    = 0x0000000000000001L;
 	public static final long STATE_MODIFIED      = 0x0000000000000002L;
+	public static final long GAP_MARKERS_MODIFIED = 0x0000000000000004L;
+	public static final long MEASURED_CAPACITY_MODIFIED = 0x0000000000000008L;
 	
 	private long valuesModified;
 
@@ -46,6 +55,8 @@ public class DukeInfo extends BaseDataC {
 		log.trace("DukeInfo()");
 		setDukeID(Constants.HC_UNDEFINED);
 		setState(DukeState.UNDEFINED);
+		gapMarkers = new ArrayList<Long>();
+		setMeasuredCapacity(0);
 		resetValuesModified();
 	}
 	
@@ -55,9 +66,13 @@ public class DukeInfo extends BaseDataC {
 	 */
 	public DukeInfo(DukeInfo obj2copy) {
 		super(obj2copy);
-		log.trace("DukeInfo(" + obj2copy + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("DukeInfo(" + obj2copy + ")");
+		}
 		setDukeID(obj2copy.getDukeID());
 		setState(obj2copy.getState());
+		gapMarkers = new ArrayList<Long>(obj2copy.getGapMarkers());
+		setMeasuredCapacity(obj2copy.getMeasuredCapacity());
 	}
 	
 	/**
@@ -67,11 +82,15 @@ public class DukeInfo extends BaseDataC {
 	 */
 	public DukeInfo(BaseDataC input) throws ClassCastException {
 		super(input);
-		log.trace("DukeInfo(" + input + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("DukeInfo(" + input + ")");
+		}
 		if( input instanceof DukeInfo ) {
 			DukeInfo obj2copy = (DukeInfo)input;
 			setDukeID(obj2copy.getDukeID());
 			setState(obj2copy.getState());
+			gapMarkers = new ArrayList<Long>(obj2copy.getGapMarkers());
+			setMeasuredCapacity(obj2copy.getMeasuredCapacity());
 		} else {
 			throw new ClassCastException("Data with id " + input.getId() + " is not an instanceof DukeInfo[" + DukeDataFactory.DUKE_INFO + "], are you using correct class?");
 		}
@@ -82,10 +101,19 @@ public class DukeInfo extends BaseDataC {
 	 */
 	@Override
 	public void readData(ObjectDataInput in) throws IOException {
-		log.trace("readData(" + in + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("readData(" + in + ")");
+		}
 		super.readData(in);
-		setDukeID(in.readLong());
-		setState(DukeState.valueOf(in.readUTF()));
+		DataInput layer = WireFormat.readLayer(in);
+		setDukeID(WireFormat.readVarLong(layer));
+		setState(WireFormat.readEnum(layer, DukeState.values()));
+		gapMarkers = new ArrayList<Long>();
+		int size = WireFormat.readVarInt(layer);
+		for( int i = 0; i < size; i++ ) {
+			gapMarkers.add(WireFormat.readVarLong(layer));
+		}
+		setMeasuredCapacity(WireFormat.readVarInt(layer));
 	}
 
 	/**
@@ -93,10 +121,19 @@ public class DukeInfo extends BaseDataC {
 	 */
 	@Override
 	public void writeData(ObjectDataOutput out) throws IOException {
-		log.trace("writeData(" + out + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("writeData(" + out + ")");
+		}
 		super.writeData(out);
-		out.writeLong(getDukeID());
-		out.writeUTF(getState().toString());
+		WireFormat.Layer layer = WireFormat.startLayer();
+		WireFormat.writeVarLong(layer, getDukeID());
+		WireFormat.writeEnum(layer, getState());
+		WireFormat.writeVarInt(layer, gapMarkers.size());
+		for( Long time : gapMarkers ) {
+			WireFormat.writeVarLong(layer, time);
+		}
+		WireFormat.writeVarInt(layer, getMeasuredCapacity());
+		WireFormat.endLayer(out, layer);
 	}
 	
 	/**
@@ -144,6 +181,8 @@ public class DukeInfo extends BaseDataC {
 		long retValue = 0L;
 		retValue |= ( getDukeID() != obj2compare.getDukeID() ) ? DUKE_ID_MODIFIED : 0L;
 		retValue |= ( getState() != obj2compare.getState() ) ? STATE_MODIFIED : 0L;
+		retValue |= ( true != getGapMarkers().equals(obj2compare.getGapMarkers()) ) ? GAP_MARKERS_MODIFIED : 0L;
+		retValue |= ( getMeasuredCapacity() != obj2compare.getMeasuredCapacity() ) ? MEASURED_CAPACITY_MODIFIED : 0L;
 		return retValue;
 	}
 
@@ -203,4 +242,38 @@ public class DukeInfo extends BaseDataC {
 		}
 	}
 
+	/**
+	 * @return the times in milliseconds of the gap markers, results from
+	 * around them are affected by a lost nuke.
+	 */
+	public List<Long> getGapMarkers() {
+		return Collections.unmodifiableList(gapMarkers);
+	}
+
+	/**
+	 * Method to add a gap marker.
+	 * @param time long with the time in milliseconds the gap started.
+	 */
+	public void addGapMarker(long time) {
+		gapMarkers.add(time);
+		addValueModified(GAP_MARKERS_MODIFIED);
+	}
+
+	/**
+	 * @return the users the saturation search confirmed, 0 if not measured.
+	 */
+	public int getMeasuredCapacity() {
+		return measuredCapacity;
+	}
+
+	/**
+	 * @param measuredCapacity the measuredCapacity to set
+	 */
+	public void setMeasuredCapacity(int measuredCapacity) {
+		if( this.measuredCapacity != measuredCapacity ) {
+			this.measuredCapacity = measuredCapacity;
+			addValueModified(MEASURED_CAPACITY_MODIFIED);
+		}
+	}
+
 }
@@ -41,7 +41,9 @@ public class DukeMsgFactory implements DataSerializableFactory {
 	
 	@Override
 	public IdentifiedDataSerializable create(int dataID) {
-		log.trace("create(" + dataID + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("create(" + dataID + ")");
+		}
 		IdentifiedDataSerializable retValue = null;
 		switch(dataID) {
 			case DUKE_COMMAND_REQ:
@@ -16,7 +16,9 @@
 package io.github.scrier.opus.common.message;
 
 import io.github.scrier.opus.common.Constants;
+import io.github.scrier.opus.common.WireFormat;
 
+import java.io.DataInput;
 import java.io.IOException;
 
 import org.apache.logging.log4j.Logger;
@@ -36,6 +38,7 @@ public class BaseMsgC implements IdentifiedDataSerializable {
 	private int txID;
 	private int factoryID;
 	private int messageID;
+	private int wireVersion;
 	private SendIF sendIF;
 
 	/**
@@ -54,13 +57,16 @@ public class BaseMsgC implements IdentifiedDataSerializable {
 	 * @param sendIF The send interface to call when sending messages.
 	 */
 	public BaseMsgC(int factoryID, int messageID, SendIF sendIF) {
-		log.trace("BaseMsgC(" + factoryID + ", " + messageID + ", " + sendIF + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("BaseMsgC(" + factoryID + ", " + messageID + ", " + sendIF + ")");
+		}
 		this.source = Constants.HC_UNDEFINED;
 		this.destination = Constants.HC_UNDEFINED;
 		this.sagaID = -1;
 		this.txID = -1;
 		this.factoryID = factoryID;
 		this.messageID = messageID;
+		this.wireVersion = WireFormat.VERSION;
 		this.sendIF = sendIF;
 	}
 
@@ -69,13 +75,16 @@ public class BaseMsgC implements IdentifiedDataSerializable {
 	 * @param obj2copy BaseMsgC to copy.
 	 */
 	public BaseMsgC(BaseMsgC obj2copy) {
-		log.trace("BaseMsgC(" + obj2copy + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("BaseMsgC(" + obj2copy + ")");
+		}
 		this.source = obj2copy.source;
 		this.destination = obj2copy.destination;
 		this.sagaID = obj2copy.sagaID;
 		this.txID = obj2copy.txID;
 		this.factoryID = obj2copy.factoryID;
 		this.messageID = obj2copy.messageID;
+		this.wireVersion = obj2copy.wireVersion;
 		this.sendIF = obj2copy.sendIF;
 	}
 
@@ -84,10 +93,12 @@ public class BaseMsgC implements IdentifiedDataSerializable {
 	 */
 	@Override
 	public void readData(ObjectDataInput in) throws IOException {
-		this.source = in.readLong();
-		this.destination = in.readLong();
-		this.sagaID = in.readLong();
-		this.txID = in.readInt();
+		this.wireVersion = WireFormat.readVersion(in);
+		DataInput layer = WireFormat.readLayer(in);
+		this.source = WireFormat.readVarLong(layer);
+		this.destination = WireFormat.readVarLong(layer);
+		this.sagaID = WireFormat.readVarLong(layer);
+		this.txID = WireFormat.readVarInt(layer);
 	}
 
 	/**
@@ -95,10 +106,13 @@ public class BaseMsgC implements IdentifiedDataSerializable {
 	 */
 	@Override
 	public void writeData(ObjectDataOutput out) throws IOException {
-		out.writeLong(this.source);
-		out.writeLong(this.destination);
-		out.writeLong(this.sagaID);
-		out.writeInt(this.txID);
+		WireFormat.writeVersion(out);
+		WireFormat.Layer layer = WireFormat.startLayer();
+		WireFormat.writeVarLong(layer, this.source);
+		WireFormat.writeVarLong(layer, this.destination);
+		WireFormat.writeVarLong(layer, this.sagaID);
+		WireFormat.writeVarInt(layer, this.txID);
+		WireFormat.endLayer(out, layer);
 	}
 
 	/**
@@ -117,6 +131,13 @@ public class BaseMsgC implements IdentifiedDataSerializable {
 		return messageID;
 	}
 
+	/**
+	 * @return the wire format version the message was read with.
+	 */
+	public int getWireVersion() {
+		return wireVersion;
+	}
+
 	/**
 	 * @return the source
 	 */
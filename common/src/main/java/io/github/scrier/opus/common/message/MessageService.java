@@ -16,30 +16,78 @@
 package io.github.scrier.opus.common.message;
 
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 import org.apache.logging.log4j.Logger;
 import org.apache.logging.log4j.LogManager;
 
+import io.github.scrier.opus.common.Constants;
+
 import com.hazelcast.core.ITopic;
 import com.hazelcast.core.Message;
 import com.hazelcast.core.MessageListener;
 import com.hazelcast.nio.serialization.IdentifiedDataSerializable;
 
+/**
+ * Service publishing and receiving messages on hazelcast topics.
+ * Every factory has one broadcast topic used for messages to Constants.MSG_TO_ALL
+ * and one inbox topic per identity used for messages to a specific destination,
+ * so a member only receives the messages that are addressed to it.
+ * The inbox topics of the member are destroyed when it unregisters on a factory.
+ * Hazelcast only orders the messages within a topic, so a message sent to all and
+ * a message sent to a destination can arrive in another order than they were sent.
+ */
 public class MessageService implements MessageListener<IdentifiedDataSerializable>, SendIF {
 	
 	private static Logger log = LogManager.getLogger(MessageService.class);
 	
+	public static final String INBOX_SEPARATOR = ".";
+	public static final int DESTINATIONS_SIZE = 256;
+	
 	private MessageIF messageIF;
+	private long identity;
 	private Map<Integer, ITopic<IdentifiedDataSerializable>> topicsMap;
+	private Map<Integer, ITopic<IdentifiedDataSerializable>> inboxMap;
+	private Map<ITopic<IdentifiedDataSerializable>, String> registrations;
+	private Map<String, ITopic<IdentifiedDataSerializable>> destinations;	///< least recently used inboxes of destinations, bounded as members come and go.
 	
 	/**
-	 * Constructor
+	 * Constructor, without an identity only the broadcast topics are listened to.
 	 * @param messageIF send interface that will publish messages to the system.
 	 */
 	public MessageService(MessageIF messageIF) {
+		this(messageIF, Constants.HC_UNDEFINED);
+	}
+	
+	/**
+	 * Constructor
+	 * @param messageIF send interface that will publish messages to the system.
+	 * @param identity long with the identity whose inbox to listen to.
+	 */
+	public MessageService(MessageIF messageIF, long identity) {
 		this.messageIF = messageIF;
+		this.identity = identity;
 		this.topicsMap = new HashMap<Integer, ITopic<IdentifiedDataSerializable>>();
+		this.inboxMap = new HashMap<Integer, ITopic<IdentifiedDataSerializable>>();
+		this.registrations = new HashMap<ITopic<IdentifiedDataSerializable>, String>();
+		this.destinations = new LinkedHashMap<String, ITopic<IdentifiedDataSerializable>>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, ITopic<IdentifiedDataSerializable>> eldest) {
+				return DESTINATIONS_SIZE < size();
+			}
+		};
+	}
+	
+	/**
+	 * Method to get the name of the inbox topic of an identity.
+	 * @param factoryID int with the factory id.
+	 * @param identity long with the identity owning the inbox.
+	 * @return String with the topic name.
+	 */
+	public static String getInboxName(int factoryID, long identity) {
+		return Integer.toString(factoryID) + INBOX_SEPARATOR + Long.toString(identity);
 	}
 	
 	/**
@@ -48,7 +96,9 @@ public class MessageService implements MessageListener<IdentifiedDataSerializabl
 	 * @return boolean if successfult or not.
 	 */
 	public boolean registerOnFactory(int factoryID) {
-	 log.trace("registerOnFactory(" + factoryID + ")");
+	 if( log.isTraceEnabled() ) {
+	 	log.trace("registerOnFactory(" + factoryID + ")");
+	 }
 		boolean retValue = true;
 		if( true ==  topicsMap.containsKey(factoryID) ) {
 			log.error("Already registered on factory with id: " + factoryID + ".");
@@ -57,8 +107,15 @@ public class MessageService implements MessageListener<IdentifiedDataSerializabl
 			log.debug("Registering on factory id: " + factoryID + ".");
 			String topic = Integer.toString(factoryID);
 			ITopic<IdentifiedDataSerializable> top = messageIF.getInstance().getTopic(topic);
-			top.addMessageListener(this);
+			registrations.put(top, top.addMessageListener(this));
 			topicsMap.put(factoryID, top);
+			if( Constants.HC_UNDEFINED != identity ) {
+				String inboxName = getInboxName(factoryID, identity);
+				log.debug("Registering on inbox: " + inboxName + ".");
+				ITopic<IdentifiedDataSerializable> inbox = messageIF.getInstance().getTopic(inboxName);
+				registrations.put(inbox, inbox.addMessageListener(this));
+				inboxMap.put(factoryID, inbox);
+			}
 		}
 		return retValue;
 	}
@@ -69,16 +126,22 @@ public class MessageService implements MessageListener<IdentifiedDataSerializabl
 	 * @return boolean if successful or not.
 	 */
 	public boolean unRegisterOnFactory(int factoryID) {
-		log.trace("unRegisterOnFactory(" + factoryID + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("unRegisterOnFactory(" + factoryID + ")");
+		}
 		boolean retValue = true;
 		if( false == topicsMap.containsKey(factoryID) ) {
 			log.error("Not registered on factory with id: " + factoryID + ".");
 			retValue = false;
 		} else {
 			log.debug("Unregistering on factory id: " + factoryID + ".");
-			ITopic<IdentifiedDataSerializable> top = topicsMap.get(factoryID);
-			top.removeMessageListener(Integer.toString(factoryID));
-			topicsMap.remove(factoryID);
+			removeListener(topicsMap.remove(factoryID));
+			ITopic<IdentifiedDataSerializable> inbox = inboxMap.remove(factoryID);
+			if( null != inbox ) {
+				removeListener(inbox);
+				log.debug("Destroying inbox: " + inbox.getName() + ".");
+				inbox.destroy();
+			}
 		}
 		return retValue;
 	}
@@ -88,21 +151,58 @@ public class MessageService implements MessageListener<IdentifiedDataSerializabl
 	 */
 	@Override
   public void onMessage(Message<IdentifiedDataSerializable> inMessage) {
-		log.trace("onMessge(" + inMessage + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("onMessge(" + inMessage + ")");
+		}
 		BaseMsgC msg = (BaseMsgC)inMessage.getMessageObject();
 		messageIF.handleInMessage(msg);
   }
 
 	/**
 	 * {@inheritDoc}
+	 * Messages to Constants.MSG_TO_ALL, or without a destination, are published
+	 * on the broadcast topic, all other messages on the inbox of the destination.
 	 */
 	@Override
   public void publishMessage(BaseMsgC message) {
 	  if( false == topicsMap.containsKey(message.getFactoryId()) ) {
 	  	log.error("No topic is registered for message " + message + " with factory id: " + message.getFactoryId() + ".");
-	  } else {
+	  } else if( Constants.MSG_TO_ALL == message.getDestination() || 
+	  		       Constants.HC_UNDEFINED == message.getDestination() ) {
 	  	topicsMap.get(message.getFactoryId()).publish(message);
+	  } else {
+	  	getInbox(message.getFactoryId(), message.getDestination()).publish(message);
 	  }
   }
+	
+	/**
+	 * Method to get the inbox topic of a destination, the topics of the
+	 * last DESTINATIONS_SIZE destinations are cached. An evicted topic is
+	 * only forgotten, the inbox belongs to its owner that destroys it.
+	 * @param factoryID int with the factory id.
+	 * @param destination long with the identity of the destination.
+	 * @return ITopic to publish on.
+	 */
+	protected ITopic<IdentifiedDataSerializable> getInbox(int factoryID, long destination) {
+		String inboxName = getInboxName(factoryID, destination);
+		ITopic<IdentifiedDataSerializable> retValue = null;
+		synchronized( destinations ) {
+			retValue = destinations.get(inboxName);
+			if( null == retValue ) {
+				retValue = messageIF.getInstance().getTopic(inboxName);
+				destinations.put(inboxName, retValue);
+			}
+		}
+		return retValue;
+	}
+	
+	private void removeListener(ITopic<IdentifiedDataSerializable> topic) {
+		if( null != topic ) {
+			String registration = registrations.remove(topic);
+			if( null != registration ) {
+				topic.removeMessageListener(registration);
+			}
+		}
+	}
 
 }
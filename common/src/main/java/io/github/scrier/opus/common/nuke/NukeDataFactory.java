@@ -40,7 +40,9 @@ public class NukeDataFactory implements DataSerializableFactory {
 	 */
 	@Override
 	public IdentifiedDataSerializable create(int dataID) {
-		log.trace("create(" + dataID + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("create(" + dataID + ")");
+		}
 		IdentifiedDataSerializable retValue = null;
 		switch(dataID) {
 			case NUKE_INFO:
@@ -0,0 +1,207 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ * @author Andreas Joelsson (andreas.joelsson@gmail.com)
+ */
+package io.github.scrier.opus.common.nuke;
+
+import java.io.DataInput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+
+import io.github.scrier.opus.common.WireFormat;
+import io.github.scrier.opus.common.message.BaseMsgC;
+import io.github.scrier.opus.common.message.SendIF;
+
+/**
+ * Indication with a number of coalesced process state changes, in the order
+ * they happened. All entries belong to the same destination and sagaID.
+ */
+public class NukeExecuteBatchIndMsgC extends BaseMsgC {
+	
+	private static Logger log = LogManager.getLogger(NukeExecuteBatchIndMsgC.class);
+	
+	private List<Long> processIDs;
+	private List<CommandState> statuses;
+	
+	/**
+	 * Constructor
+	 */
+	public NukeExecuteBatchIndMsgC() {
+		super(NukeMsgFactory.FACTORY_ID, NukeMsgFactory.NUKE_EXECUTE_BATCH_IND);
+		log.trace("NukeExecuteBatchIndMsgC()");
+		setProcessIDs(new ArrayList<Long>());
+		setStatuses(new ArrayList<CommandState>());
+	}
+
+	/**
+	 * Constructor
+	 * @param sendIF the SendIF to use for distribution
+	 */
+	public NukeExecuteBatchIndMsgC(SendIF sendIF) {
+		super(NukeMsgFactory.FACTORY_ID, NukeMsgFactory.NUKE_EXECUTE_BATCH_IND, sendIF);
+		if( log.isTraceEnabled() ) {
+			log.trace("NukeExecuteBatchIndMsgC(" + sendIF + ")");
+		}
+		setProcessIDs(new ArrayList<Long>());
+		setStatuses(new ArrayList<CommandState>());
+	}
+	
+	/**
+	 * Copy constructor
+	 * @param obj2copy NukeExecuteBatchIndMsgC object
+	 */
+	public NukeExecuteBatchIndMsgC(NukeExecuteBatchIndMsgC obj2copy) {
+		super(obj2copy);
+		if( log.isTraceEnabled() ) {
+			log.trace("NukeExecuteBatchIndMsgC(" + obj2copy + ")");
+		}
+		setProcessIDs(new ArrayList<Long>(obj2copy.getProcessIDs()));
+		setStatuses(new ArrayList<CommandState>(obj2copy.getStatuses()));
+	}
+	
+	/**
+	 * Cast constructor
+	 * @param input BaseMsgC object
+	 * @throws ClassCastException if provided with a mismatching class.
+	 */
+	public NukeExecuteBatchIndMsgC(BaseMsgC input) throws ClassCastException {
+		super(input);
+		if( log.isTraceEnabled() ) {
+			log.trace("NukeExecuteBatchIndMsgC(" + input + ")");
+		}
+		if( input instanceof NukeExecuteBatchIndMsgC ) {
+			NukeExecuteBatchIndMsgC obj2copy = (NukeExecuteBatchIndMsgC)input;
+			setProcessIDs(new ArrayList<Long>(obj2copy.getProcessIDs()));
+			setStatuses(new ArrayList<CommandState>(obj2copy.getStatuses()));
+		} else {
+			throw new ClassCastException("Data with id " + input.getId() + " is not an instanceof NukeExecuteBatchIndMsgC[" + NukeMsgFactory.NUKE_EXECUTE_BATCH_IND + "], are you using correct class?");
+		}
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void readData(ObjectDataInput in) throws IOException {
+		if( log.isTraceEnabled() ) {
+			log.trace("readData(" + in + ")");
+		}
+		super.readData(in);
+		DataInput layer = WireFormat.readLayer(in);
+		int size = WireFormat.readVarInt(layer);
+		List<Long> ids = new ArrayList<Long>(size);
+		List<CommandState> states = new ArrayList<CommandState>(size);
+		for( int i = 0; i < size; i++ ) {
+			ids.add(WireFormat.readVarLong(layer));
+			states.add(WireFormat.readEnum(layer, CommandState.values()));
+		}
+		setProcessIDs(ids);
+		setStatuses(states);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void writeData(ObjectDataOutput out) throws IOException {
+		if( log.isTraceEnabled() ) {
+			log.trace("writeData(" + out + ")");
+		}
+		super.writeData(out);
+		WireFormat.Layer layer = WireFormat.startLayer();
+		WireFormat.writeVarInt(layer, size());
+		for( int i = 0; i < size(); i++ ) {
+			WireFormat.writeVarLong(layer, getProcessIDs().get(i));
+			WireFormat.writeEnum(layer, getStatuses().get(i));
+		}
+		WireFormat.endLayer(out, layer);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String toString() {
+		return "NukeExecuteBatchIndMsgC{processIDs: " + getProcessIDs() + ", statuses: " + getStatuses() + "} - " + super.toString();
+	}
+	
+	/**
+	 * Method to add a state change of a process.
+	 * @param processID long with the id of the process.
+	 * @param status CommandState the process changed to.
+	 */
+	public void addStatus(long processID, CommandState status) {
+		getProcessIDs().add(processID);
+		getStatuses().add(status);
+	}
+	
+	/**
+	 * @return the number of state changes in the message.
+	 */
+	public int size() {
+		return getProcessIDs().size();
+	}
+	
+	/**
+	 * Method to get one of the state changes as a single indication.
+	 * @param index int with the index of the state change.
+	 * @return NukeExecuteIndMsgC with the same source, destination, txID and sagaID.
+	 */
+	public NukeExecuteIndMsgC getIndication(int index) {
+		NukeExecuteIndMsgC retValue = new NukeExecuteIndMsgC();
+		retValue.setSource(getSource());
+		retValue.setDestination(getDestination());
+		retValue.setTxID(getTxID());
+		retValue.setSagaID(getSagaID());
+		retValue.setProcessID(getProcessIDs().get(index));
+		retValue.setStatus(getStatuses().get(index));
+		return retValue;
+	}
+
+	/**
+	 * @return the processIDs
+	 */
+  public List<Long> getProcessIDs() {
+	  return processIDs;
+  }
+
+	/**
+	 * @param processIDs the processIDs to set
+	 */
+  public void setProcessIDs(List<Long> processIDs) {
+	  this.processIDs = processIDs;
+  }
+
+	/**
+	 * @return the statuses
+	 */
+  public List<CommandState> getStatuses() {
+	  return statuses;
+  }
+
+	/**
+	 * @param statuses the statuses to set
+	 */
+  public void setStatuses(List<CommandState> statuses) {
+	  this.statuses = statuses;
+  }
+	
+}
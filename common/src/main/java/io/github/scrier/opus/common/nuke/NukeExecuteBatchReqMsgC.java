@@ -0,0 +1,208 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ * @author Andreas Joelsson (andreas.joelsson@gmail.com)
+ */
+package io.github.scrier.opus.common.nuke;
+
+import java.io.DataInput;
+import java.io.IOException;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+
+import io.github.scrier.opus.common.WireFormat;
+import io.github.scrier.opus.common.message.BaseMsgC;
+import io.github.scrier.opus.common.message.SendIF;
+
+/**
+ * Request to start a number of users with the same command on a nuke,
+ * replaces one NukeExecuteReqMsgC per user.
+ */
+public class NukeExecuteBatchReqMsgC extends BaseMsgC {
+	
+	private static Logger log = LogManager.getLogger(NukeExecuteBatchReqMsgC.class);
+	
+	private String command;
+	private String folder;
+	private boolean repeated;
+	private int noOfUsers;
+	
+	/**
+	 * Constructor
+	 */
+	public NukeExecuteBatchReqMsgC() {
+		super(NukeMsgFactory.FACTORY_ID, NukeMsgFactory.NUKE_EXECUTE_BATCH_REQ);
+		log.trace("NukeExecuteBatchReqMsgC()");
+		this.command = "";
+		this.folder = "";
+		this.repeated = false;
+		this.noOfUsers = 0;
+	}
+
+	/**
+	 * Constructor
+	 * @param sendIF the SendIF to use for distribution
+	 */
+	public NukeExecuteBatchReqMsgC(SendIF sendIF) {
+		super(NukeMsgFactory.FACTORY_ID, NukeMsgFactory.NUKE_EXECUTE_BATCH_REQ, sendIF);
+		if( log.isTraceEnabled() ) {
+			log.trace("NukeExecuteBatchReqMsgC(" + sendIF + ")");
+		}
+		this.command = "";
+		this.folder = "";
+		this.repeated = false;
+		this.noOfUsers = 0;
+	}
+	
+	/**
+	 * Copy constructor
+	 * @param obj2copy DukeCommand object
+	 */
+	public NukeExecuteBatchReqMsgC(NukeExecuteBatchReqMsgC obj2copy) {
+		super(obj2copy);
+		if( log.isTraceEnabled() ) {
+			log.trace("NukeExecuteBatchReqMsgC(" + obj2copy + ")");
+		}
+		this.command = obj2copy.command;
+		this.folder = obj2copy.folder;
+		this.repeated = obj2copy.repeated;
+		this.noOfUsers = obj2copy.noOfUsers;
+	}
+	
+	/**
+	 * Cast constructor
+	 * @param input BaseNukeC object
+	 * @throws ClassCastException if provided with a mismatching class.
+	 */
+	public NukeExecuteBatchReqMsgC(BaseMsgC input) throws ClassCastException {
+		super(input);
+		if( log.isTraceEnabled() ) {
+			log.trace("NukeExecuteBatchReqMsgC(" + input + ")");
+		}
+		if( input instanceof NukeExecuteBatchReqMsgC ) {
+			NukeExecuteBatchReqMsgC obj2copy = (NukeExecuteBatchReqMsgC)input;
+			this.command = obj2copy.command;
+			this.folder = obj2copy.folder;
+			this.repeated = obj2copy.repeated;
+			this.noOfUsers = obj2copy.noOfUsers;
+		} else {
+			throw new ClassCastException("Data with id " + input.getId() + " is not an instanceof NukeExecuteBatchReqMsgC[" + NukeMsgFactory.NUKE_EXECUTE_BATCH_REQ + "], are you using correct class?");
+		}
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void readData(ObjectDataInput in) throws IOException {
+		if( log.isTraceEnabled() ) {
+			log.trace("readData(" + in + ")");
+		}
+		super.readData(in);
+		DataInput layer = WireFormat.readLayer(in);
+		this.command = layer.readUTF();
+		this.folder = layer.readUTF();
+		this.repeated = layer.readBoolean();
+		this.noOfUsers = WireFormat.readVarInt(layer);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void writeData(ObjectDataOutput out) throws IOException {
+		if( log.isTraceEnabled() ) {
+			log.trace("writeData(" + out + ")");
+		}
+		super.writeData(out);
+		WireFormat.Layer layer = WireFormat.startLayer();
+		layer.writeUTF(this.command);
+		layer.writeUTF(this.folder);
+		layer.writeBoolean(this.repeated);
+		WireFormat.writeVarInt(layer, this.noOfUsers);
+		WireFormat.endLayer(out, layer);
+	}
+
+	/**
+	 * @return the command
+	 */
+  public String getCommand() {
+	  return command;
+  }
+
+	/**
+	 * @param command the command to set
+	 */
+  public void setCommand(String command) {
+	  this.command = command;
+  }
+
+	/**
+	 * @return the folder
+	 */
+  public String getFolder() {
+	  return folder;
+  }
+
+	/**
+	 * @param folder the folder to set
+	 */
+  public void setFolder(String folder) {
+	  this.folder = folder;
+  }
+
+	/**
+	 * @return the repeated
+	 */
+  public boolean isRepeated() {
+	  return repeated;
+  }
+
+	/**
+	 * @param repeated the repeated to set
+	 */
+  public void setRepeated(boolean repeated) {
+	  this.repeated = repeated;
+  }
+  
+	/**
+	 * @return the noOfUsers
+	 */
+  public int getNoOfUsers() {
+	  return noOfUsers;
+  }
+
+	/**
+	 * @param noOfUsers the noOfUsers to set
+	 */
+  public void setNoOfUsers(int noOfUsers) {
+	  this.noOfUsers = noOfUsers;
+  }
+  
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String toString() {
+		String retValue = "NukeExecuteBatchReqMsgC{command: " + getCommand(); 
+		retValue += ", folder: " + getFolder();
+		retValue += ", repeated: " + isRepeated();
+		retValue += ", noOfUsers: " + getNoOfUsers() + "} - " + super.toString();
+		return retValue;
+	}
+
+}
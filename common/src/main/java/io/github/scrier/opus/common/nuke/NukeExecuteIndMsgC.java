@@ -15,6 +15,7 @@
  */
 package io.github.scrier.opus.common.nuke;
 
+import java.io.DataInput;
 import java.io.IOException;
 
 import org.apache.logging.log4j.LogManager;
@@ -24,6 +25,7 @@ import com.hazelcast.nio.ObjectDataInput;
 import com.hazelcast.nio.ObjectDataOutput;
 
 import io.github.scrier.opus.common.Constants;
+import io.github.scrier.opus.common.WireFormat;
 import io.github.scrier.opus.common.message.BaseMsgC;
 import io.github.scrier.opus.common.message.SendIF;
 
@@ -50,7 +52,9 @@ public class NukeExecuteIndMsgC extends BaseMsgC {
 	 */
 	public NukeExecuteIndMsgC(SendIF sendIF) {
 		super(NukeMsgFactory.FACTORY_ID, NukeMsgFactory.NUKE_EXECUTE_IND, sendIF);
-		log.trace("NukeExecuteIndMsgC(" + sendIF + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("NukeExecuteIndMsgC(" + sendIF + ")");
+		}
 		setStatus(CommandState.UNDEFINED);
 		setProcessID(Constants.HC_UNDEFINED);
 	}
@@ -61,7 +65,9 @@ public class NukeExecuteIndMsgC extends BaseMsgC {
 	 */
 	public NukeExecuteIndMsgC(NukeExecuteIndMsgC obj2copy) {
 		super(obj2copy);
-		log.trace("NukeExecuteIndMsgC(" + obj2copy + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("NukeExecuteIndMsgC(" + obj2copy + ")");
+		}
 		setStatus(obj2copy.getStatus());
 		setProcessID(obj2copy.getProcessID());
 	}
@@ -73,7 +79,9 @@ public class NukeExecuteIndMsgC extends BaseMsgC {
 	 */
 	public NukeExecuteIndMsgC(BaseMsgC input) throws ClassCastException {
 		super(input);
-		log.trace("NukeExecuteIndMsgC(" + input + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("NukeExecuteIndMsgC(" + input + ")");
+		}
 		if( input instanceof NukeExecuteIndMsgC ) {
 			NukeExecuteIndMsgC obj2copy = (NukeExecuteIndMsgC)input;
 			setStatus(obj2copy.getStatus());
@@ -88,10 +96,13 @@ public class NukeExecuteIndMsgC extends BaseMsgC {
 	 */
 	@Override
 	public void readData(ObjectDataInput in) throws IOException {
-		log.trace("readData(" + in + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("readData(" + in + ")");
+		}
 		super.readData(in);
-		setStatus(CommandState.valueOf(in.readUTF()));
-		setProcessID(in.readLong());
+		DataInput layer = WireFormat.readLayer(in);
+		setStatus(WireFormat.readEnum(layer, CommandState.values()));
+		setProcessID(WireFormat.readVarLong(layer));
 	}
 
 	/**
@@ -99,10 +110,14 @@ public class NukeExecuteIndMsgC extends BaseMsgC {
 	 */
 	@Override
 	public void writeData(ObjectDataOutput out) throws IOException {
-		log.trace("writeData(" + out + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("writeData(" + out + ")");
+		}
 		super.writeData(out);
-		out.writeUTF(getStatus().toString());
-		out.writeLong(getProcessID());
+		WireFormat.Layer layer = WireFormat.startLayer();
+		WireFormat.writeEnum(layer, getStatus());
+		WireFormat.writeVarLong(layer, getProcessID());
+		WireFormat.endLayer(out, layer);
 	}
 
 	/**
@@ -0,0 +1,209 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ * @author Andreas Joelsson (andreas.joelsson@gmail.com)
+ */
+package io.github.scrier.opus.common.nuke;
+
+import java.io.DataInput;
+import java.io.IOException;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+
+import io.github.scrier.opus.common.WireFormat;
+import io.github.scrier.opus.common.message.BaseMsgC;
+import io.github.scrier.opus.common.message.SendIF;
+
+/**
+ * Request to launch a command on a nuke at a fixed rate, whether or not the
+ * earlier executions are finished. The first request for a saga starts the
+ * schedule, later requests for the same saga change the rate.
+ */
+public class NukeExecuteRateReqMsgC extends BaseMsgC {
+	
+	private static Logger log = LogManager.getLogger(NukeExecuteRateReqMsgC.class);
+	
+	private String command;
+	private String folder;
+	private double rate;
+	private int maxInFlight;
+	
+	/**
+	 * Constructor
+	 */
+	public NukeExecuteRateReqMsgC() {
+		super(NukeMsgFactory.FACTORY_ID, NukeMsgFactory.NUKE_EXECUTE_RATE_REQ);
+		log.trace("NukeExecuteRateReqMsgC()");
+		this.command = "";
+		this.folder = "";
+		this.rate = 0.0;
+		this.maxInFlight = 0;
+	}
+
+	/**
+	 * Constructor
+	 * @param sendIF the SendIF to use for distribution
+	 */
+	public NukeExecuteRateReqMsgC(SendIF sendIF) {
+		super(NukeMsgFactory.FACTORY_ID, NukeMsgFactory.NUKE_EXECUTE_RATE_REQ, sendIF);
+		if( log.isTraceEnabled() ) {
+			log.trace("NukeExecuteRateReqMsgC(" + sendIF + ")");
+		}
+		this.command = "";
+		this.folder = "";
+		this.rate = 0.0;
+		this.maxInFlight = 0;
+	}
+	
+	/**
+	 * Copy constructor
+	 * @param obj2copy NukeExecuteRateReqMsgC object
+	 */
+	public NukeExecuteRateReqMsgC(NukeExecuteRateReqMsgC obj2copy) {
+		super(obj2copy);
+		if( log.isTraceEnabled() ) {
+			log.trace("NukeExecuteRateReqMsgC(" + obj2copy + ")");
+		}
+		this.command = obj2copy.command;
+		this.folder = obj2copy.folder;
+		this.rate = obj2copy.rate;
+		this.maxInFlight = obj2copy.maxInFlight;
+	}
+	
+	/**
+	 * Cast constructor
+	 * @param input BaseMsgC object
+	 * @throws ClassCastException if provided with a mismatching class.
+	 */
+	public NukeExecuteRateReqMsgC(BaseMsgC input) throws ClassCastException {
+		super(input);
+		if( log.isTraceEnabled() ) {
+			log.trace("NukeExecuteRateReqMsgC(" + input + ")");
+		}
+		if( input instanceof NukeExecuteRateReqMsgC ) {
+			NukeExecuteRateReqMsgC obj2copy = (NukeExecuteRateReqMsgC)input;
+			this.command = obj2copy.command;
+			this.folder = obj2copy.folder;
+			this.rate = obj2copy.rate;
+			this.maxInFlight = obj2copy.maxInFlight;
+		} else {
+			throw new ClassCastException("Data with id " + input.getId() + " is not an instanceof NukeExecuteRateReqMsgC[" + NukeMsgFactory.NUKE_EXECUTE_RATE_REQ + "], are you using correct class?");
+		}
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void readData(ObjectDataInput in) throws IOException {
+		if( log.isTraceEnabled() ) {
+			log.trace("readData(" + in + ")");
+		}
+		super.readData(in);
+		DataInput layer = WireFormat.readLayer(in);
+		this.command = layer.readUTF();
+		this.folder = layer.readUTF();
+		this.rate = layer.readDouble();
+		this.maxInFlight = WireFormat.readVarInt(layer);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void writeData(ObjectDataOutput out) throws IOException {
+		if( log.isTraceEnabled() ) {
+			log.trace("writeData(" + out + ")");
+		}
+		super.writeData(out);
+		WireFormat.Layer layer = WireFormat.startLayer();
+		layer.writeUTF(this.command);
+		layer.writeUTF(this.folder);
+		layer.writeDouble(this.rate);
+		WireFormat.writeVarInt(layer, this.maxInFlight);
+		WireFormat.endLayer(out, layer);
+	}
+
+	/**
+	 * @return the command
+	 */
+  public String getCommand() {
+	  return command;
+  }
+
+	/**
+	 * @param command the command to set
+	 */
+  public void setCommand(String command) {
+	  this.command = command;
+  }
+
+	/**
+	 * @return the folder
+	 */
+  public String getFolder() {
+	  return folder;
+  }
+
+	/**
+	 * @param folder the folder to set
+	 */
+  public void setFolder(String folder) {
+	  this.folder = folder;
+  }
+
+	/**
+	 * @return the rate in executions per second, 0 stops the launching.
+	 */
+  public double getRate() {
+	  return rate;
+  }
+
+	/**
+	 * @param rate the rate to set
+	 */
+  public void setRate(double rate) {
+	  this.rate = rate;
+  }
+
+	/**
+	 * @return the maximum number of executions in flight, 0 for no limit.
+	 */
+  public int getMaxInFlight() {
+	  return maxInFlight;
+  }
+
+	/**
+	 * @param maxInFlight the maxInFlight to set
+	 */
+  public void setMaxInFlight(int maxInFlight) {
+	  this.maxInFlight = maxInFlight;
+  }
+  
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String toString() {
+		String retValue = "NukeExecuteRateReqMsgC{command: " + getCommand(); 
+		retValue += ", folder: " + getFolder();
+		retValue += ", rate: " + getRate();
+		retValue += ", maxInFlight: " + getMaxInFlight() + "} - " + super.toString();
+		return retValue;
+	}
+
+}
@@ -15,6 +15,7 @@
  */
 package io.github.scrier.opus.common.nuke;
 
+import java.io.DataInput;
 import java.io.IOException;
 
 import org.apache.logging.log4j.LogManager;
@@ -23,6 +24,7 @@ import org.apache.logging.log4j.Logger;
 import com.hazelcast.nio.ObjectDataInput;
 import com.hazelcast.nio.ObjectDataOutput;
 
+import io.github.scrier.opus.common.WireFormat;
 import io.github.scrier.opus.common.message.BaseMsgC;
 import io.github.scrier.opus.common.message.SendIF;
 
@@ -51,7 +53,9 @@ public class NukeExecuteReqMsgC extends BaseMsgC {
 	 */
 	public NukeExecuteReqMsgC(SendIF sendIF) {
 		super(NukeMsgFactory.FACTORY_ID, NukeMsgFactory.NUKE_EXECUTE_REQ, sendIF);
-		log.trace("NukeExecuteReqMsgC(" + sendIF + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("NukeExecuteReqMsgC(" + sendIF + ")");
+		}
 		this.command = "";
 		this.folder = "";
 		this.repeated = false;
@@ -63,7 +67,9 @@ public class NukeExecuteReqMsgC extends BaseMsgC {
 	 */
 	public NukeExecuteReqMsgC(NukeExecuteReqMsgC obj2copy) {
 		super(obj2copy);
-		log.trace("NukeExecuteReqMsgC(" + obj2copy + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("NukeExecuteReqMsgC(" + obj2copy + ")");
+		}
 		this.command = obj2copy.command;
 		this.folder = obj2copy.folder;
 		this.repeated = obj2copy.repeated;
@@ -76,7 +82,9 @@ public class NukeExecuteReqMsgC extends BaseMsgC {
 	 */
 	public NukeExecuteReqMsgC(BaseMsgC input) throws ClassCastException {
 		super(input);
-		log.trace("NukeExecuteReqMsgC(" + input + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("NukeExecuteReqMsgC(" + input + ")");
+		}
 		if( input instanceof NukeExecuteReqMsgC ) {
 			NukeExecuteReqMsgC obj2copy = (NukeExecuteReqMsgC)input;
 			this.command = obj2copy.command;
@@ -92,11 +100,14 @@ public class NukeExecuteReqMsgC extends BaseMsgC {
 	 */
 	@Override
 	public void readData(ObjectDataInput in) throws IOException {
-		log.trace("readData(" + in + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("readData(" + in + ")");
+		}
 		super.readData(in);
-		this.command = in.readUTF();
-		this.folder = in.readUTF();
-		this.repeated = in.readBoolean();
+		DataInput layer = WireFormat.readLayer(in);
+		this.command = layer.readUTF();
+		this.folder = layer.readUTF();
+		this.repeated = layer.readBoolean();
 	}
 
 	/**
@@ -104,11 +115,15 @@ public class NukeExecuteReqMsgC extends BaseMsgC {
 	 */
 	@Override
 	public void writeData(ObjectDataOutput out) throws IOException {
-		log.trace("writeData(" + out + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("writeData(" + out + ")");
+		}
 		super.writeData(out);
-		out.writeUTF(this.command);
-		out.writeUTF(this.folder);
-		out.writeBoolean(this.repeated);
+		WireFormat.Layer layer = WireFormat.startLayer();
+		layer.writeUTF(this.command);
+		layer.writeUTF(this.folder);
+		layer.writeBoolean(this.repeated);
+		WireFormat.endLayer(out, layer);
 	}
 
 	/**
@@ -15,6 +15,7 @@
  */
 package io.github.scrier.opus.common.nuke;
 
+import java.io.DataInput;
 import java.io.IOException;
 
 import org.apache.logging.log4j.LogManager;
@@ -24,6 +25,7 @@ import com.hazelcast.nio.ObjectDataInput;
 import com.hazelcast.nio.ObjectDataOutput;
 
 import io.github.scrier.opus.common.Constants;
+import io.github.scrier.opus.common.WireFormat;
 import io.github.scrier.opus.common.message.BaseMsgC;
 import io.github.scrier.opus.common.message.SendIF;
 
@@ -48,7 +50,9 @@ public class NukeExecuteRspMsgC extends BaseMsgC {
 	 */
 	public NukeExecuteRspMsgC(SendIF sendIF) {
 		super(NukeMsgFactory.FACTORY_ID, NukeMsgFactory.NUKE_EXECUTE_RSP, sendIF);
-		log.trace("NukeExecuteRspMsgC(" + sendIF + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("NukeExecuteRspMsgC(" + sendIF + ")");
+		}
 		setProcessID(Constants.HC_UNDEFINED);
 	}
 	
@@ -58,7 +62,9 @@ public class NukeExecuteRspMsgC extends BaseMsgC {
 	 */
 	public NukeExecuteRspMsgC(NukeExecuteRspMsgC obj2copy) {
 		super(obj2copy);
-		log.trace("NukeExecuteRspMsgC(" + obj2copy + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("NukeExecuteRspMsgC(" + obj2copy + ")");
+		}
 		setProcessID(obj2copy.getProcessID());
 	}
 	
@@ -69,7 +75,9 @@ public class NukeExecuteRspMsgC extends BaseMsgC {
 	 */
 	public NukeExecuteRspMsgC(BaseMsgC input) throws ClassCastException {
 		super(input);
-		log.trace("NukeExecuteRspMsgC(" + input + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("NukeExecuteRspMsgC(" + input + ")");
+		}
 		if( input instanceof NukeExecuteRspMsgC ) {
 			NukeExecuteRspMsgC obj2copy = (NukeExecuteRspMsgC)input;
 			setProcessID(obj2copy.getProcessID());
@@ -83,9 +91,12 @@ public class NukeExecuteRspMsgC extends BaseMsgC {
 	 */
 	@Override
 	public void readData(ObjectDataInput in) throws IOException {
-		log.trace("readData(" + in + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("readData(" + in + ")");
+		}
 		super.readData(in);
-		setProcessID(in.readLong());
+		DataInput layer = WireFormat.readLayer(in);
+		setProcessID(WireFormat.readVarLong(layer));
 	}
 
 	/**
@@ -93,9 +104,13 @@ public class NukeExecuteRspMsgC extends BaseMsgC {
 	 */
 	@Override
 	public void writeData(ObjectDataOutput out) throws IOException {
-		log.trace("writeData(" + out + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("writeData(" + out + ")");
+		}
 		super.writeData(out);
-		out.writeLong(getProcessID());
+		WireFormat.Layer layer = WireFormat.startLayer();
+		WireFormat.writeVarLong(layer, getProcessID());
+		WireFormat.endLayer(out, layer);
 	}
 
 	/**
@@ -0,0 +1,211 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ * @author Andreas Joelsson (andreas.joelsson@gmail.com)
+ */
+package io.github.scrier.opus.common.nuke;
+
+import java.io.DataInput;
+import java.io.IOException;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+
+import io.github.scrier.opus.common.WireFormat;
+import io.github.scrier.opus.common.message.BaseMsgC;
+import io.github.scrier.opus.common.message.SendIF;
+
+/**
+ * Request to run a target number of repeated users of a command on a nuke.
+ * The nuke converges to the target on its own, linearly over the ramp time,
+ * and reports the users it achieved through its NukeInfo. The first request
+ * for a saga starts the users, later requests for the same saga change the
+ * target from the number achieved so far.
+ */
+public class NukeExecuteTargetReqMsgC extends BaseMsgC {
+	
+	private static Logger log = LogManager.getLogger(NukeExecuteTargetReqMsgC.class);
+	
+	private String command;
+	private String folder;
+	private int target;
+	private int rampSeconds;
+	
+	/**
+	 * Constructor
+	 */
+	public NukeExecuteTargetReqMsgC() {
+		super(NukeMsgFactory.FACTORY_ID, NukeMsgFactory.NUKE_EXECUTE_TARGET_REQ);
+		log.trace("NukeExecuteTargetReqMsgC()");
+		this.command = "";
+		this.folder = "";
+		this.target = 0;
+		this.rampSeconds = 0;
+	}
+
+	/**
+	 * Constructor
+	 * @param sendIF the SendIF to use for distribution
+	 */
+	public NukeExecuteTargetReqMsgC(SendIF sendIF) {
+		super(NukeMsgFactory.FACTORY_ID, NukeMsgFactory.NUKE_EXECUTE_TARGET_REQ, sendIF);
+		if( log.isTraceEnabled() ) {
+			log.trace("NukeExecuteTargetReqMsgC(" + sendIF + ")");
+		}
+		this.command = "";
+		this.folder = "";
+		this.target = 0;
+		this.rampSeconds = 0;
+	}
+	
+	/**
+	 * Copy constructor
+	 * @param obj2copy NukeExecuteTargetReqMsgC object
+	 */
+	public NukeExecuteTargetReqMsgC(NukeExecuteTargetReqMsgC obj2copy) {
+		super(obj2copy);
+		if( log.isTraceEnabled() ) {
+			log.trace("NukeExecuteTargetReqMsgC(" + obj2copy + ")");
+		}
+		this.command = obj2copy.command;
+		this.folder = obj2copy.folder;
+		this.target = obj2copy.target;
+		this.rampSeconds = obj2copy.rampSeconds;
+	}
+	
+	/**
+	 * Cast constructor
+	 * @param input BaseMsgC object
+	 * @throws ClassCastException if provided with a mismatching class.
+	 */
+	public NukeExecuteTargetReqMsgC(BaseMsgC input) throws ClassCastException {
+		super(input);
+		if( log.isTraceEnabled() ) {
+			log.trace("NukeExecuteTargetReqMsgC(" + input + ")");
+		}
+		if( input instanceof NukeExecuteTargetReqMsgC ) {
+			NukeExecuteTargetReqMsgC obj2copy = (NukeExecuteTargetReqMsgC)input;
+			this.command = obj2copy.command;
+			this.folder = obj2copy.folder;
+			this.target = obj2copy.target;
+			this.rampSeconds = obj2copy.rampSeconds;
+		} else {
+			throw new ClassCastException("Data with id " + input.getId() + " is not an instanceof NukeExecuteTargetReqMsgC[" + NukeMsgFactory.NUKE_EXECUTE_TARGET_REQ + "], are you using correct class?");
+		}
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void readData(ObjectDataInput in) throws IOException {
+		if( log.isTraceEnabled() ) {
+			log.trace("readData(" + in + ")");
+		}
+		super.readData(in);
+		DataInput layer = WireFormat.readLayer(in);
+		this.command = layer.readUTF();
+		this.folder = layer.readUTF();
+		this.target = WireFormat.readVarInt(layer);
+		this.rampSeconds = WireFormat.readVarInt(layer);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void writeData(ObjectDataOutput out) throws IOException {
+		if( log.isTraceEnabled() ) {
+			log.trace("writeData(" + out + ")");
+		}
+		super.writeData(out);
+		WireFormat.Layer layer = WireFormat.startLayer();
+		layer.writeUTF(this.command);
+		layer.writeUTF(this.folder);
+		WireFormat.writeVarInt(layer, this.target);
+		WireFormat.writeVarInt(layer, this.rampSeconds);
+		WireFormat.endLayer(out, layer);
+	}
+
+	/**
+	 * @return the command
+	 */
+  public String getCommand() {
+	  return command;
+  }
+
+	/**
+	 * @param command the command to set
+	 */
+  public void setCommand(String command) {
+	  this.command = command;
+  }
+
+	/**
+	 * @return the folder
+	 */
+  public String getFolder() {
+	  return folder;
+  }
+
+	/**
+	 * @param folder the folder to set
+	 */
+  public void setFolder(String folder) {
+	  this.folder = folder;
+  }
+
+	/**
+	 * @return the target number of users, 0 stops all users.
+	 */
+  public int getTarget() {
+	  return target;
+  }
+
+	/**
+	 * @param target the target to set
+	 */
+  public void setTarget(int target) {
+	  this.target = target;
+  }
+
+	/**
+	 * @return the seconds to reach the target in, 0 to go there at once.
+	 */
+  public int getRampSeconds() {
+	  return rampSeconds;
+  }
+
+	/**
+	 * @param rampSeconds the rampSeconds to set
+	 */
+  public void setRampSeconds(int rampSeconds) {
+	  this.rampSeconds = rampSeconds;
+  }
+  
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String toString() {
+		String retValue = "NukeExecuteTargetReqMsgC{command: " + getCommand(); 
+		retValue += ", folder: " + getFolder();
+		retValue += ", target: " + getTarget();
+		retValue += ", rampSeconds: " + getRampSeconds() + "} - " + super.toString();
+		return retValue;
+	}
+
+}
@@ -15,8 +15,10 @@
  */
 package io.github.scrier.opus.common.nuke;
 
+import io.github.scrier.opus.common.WireFormat;
 import io.github.scrier.opus.common.data.BaseDataC;
 
+import java.io.DataInput;
 import java.io.IOException;
 
 import org.apache.logging.log4j.Logger;
@@ -37,6 +39,16 @@ public class NukeInfo extends BaseDataC {
 	private int activeCommands;
 	private int requestedCommands;
 	private int completedCommands;
+	private int cores;
+	private long memory;
+	private int spawnRate;
+	private int capacity;
+	private int achievedUsers;
+	private long executions;
+	private long failedExecutions;
+	private int executionTimeP95;
+	private long submittedUsers;
+	private long rejectedUsers;
 
 	public static final long NUKE_ID_MODIFIED            = 0x0000000000000001L;
 	public static final long NUMBER_OF_THREADS_MODIFIED  = 0x0000000000000002L;
@@ -46,6 +58,16 @@ public class NukeInfo extends BaseDataC {
 	public static final long ACTIVE_COMMANDS_MODIFIED    = 0x0000000000000020L;
 	public static final long REQUESTED_COMMANDS_MODIFIED = 0x0000000000000040L;
 	public static final long COMPLETED_COMMANDS_MODIFIED = 0x0000000000000080L;
+	public static final long CORES_MODIFIED              = 0x0000000000000100L;
+	public static final long MEMORY_MODIFIED             = 0x0000000000000200L;
+	public static final long SPAWN_RATE_MODIFIED         = 0x0000000000000400L;
+	public static final long CAPACITY_MODIFIED           = 0x0000000000000800L;
+	public static final long ACHIEVED_USERS_MODIFIED     = 0x0000000000001000L;
+	public static final long EXECUTIONS_MODIFIED         = 0x0000000000002000L;
+	public static final long FAILED_EXECUTIONS_MODIFIED  = 0x0000000000004000L;
+	public static final long EXECUTION_TIME_P95_MODIFIED = 0x0000000000008000L;
+	public static final long SUBMITTED_USERS_MODIFIED    = 0x0000000000010000L;
+	public static final long REJECTED_USERS_MODIFIED     = 0x0000000000020000L;
 
 	private long valuesModified;
 
@@ -62,7 +84,9 @@ public class NukeInfo extends BaseDataC {
 
 	public NukeInfo(NukeInfo obj2copy) {
 		super(obj2copy);
-		log.trace("NukeInfo(" + obj2copy + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("NukeInfo(" + obj2copy + ")");
+		}
 		setNukeID(obj2copy.getNukeID());
 		setNumberOfThreads(obj2copy.getNumberOfThreads());
 		setRequestedThreads(obj2copy.getRequestedThreads());
@@ -71,6 +95,16 @@ public class NukeInfo extends BaseDataC {
 		setActiveCommands(obj2copy.getActiveCommands());
 		setRequestedCommands(obj2copy.getRequestedCommands());
 		setCompletedCommands(obj2copy.getCompletedCommands());
+		setCores(obj2copy.getCores());
+		setMemory(obj2copy.getMemory());
+		setSpawnRate(obj2copy.getSpawnRate());
+		setCapacity(obj2copy.getCapacity());
+		setAchievedUsers(obj2copy.getAchievedUsers());
+		setExecutions(obj2copy.getExecutions());
+		setFailedExecutions(obj2copy.getFailedExecutions());
+		setExecutionTimeP95(obj2copy.getExecutionTimeP95());
+		setSubmittedUsers(obj2copy.getSubmittedUsers());
+		setRejectedUsers(obj2copy.getRejectedUsers());
 	}
 
 	public NukeInfo(BaseDataC input) throws ClassCastException {
@@ -85,6 +119,16 @@ public class NukeInfo extends BaseDataC {
 			setActiveCommands(obj2copy.getActiveCommands());
 			setRequestedCommands(obj2copy.getRequestedCommands());
 			setCompletedCommands(obj2copy.getCompletedCommands());
+			setCores(obj2copy.getCores());
+			setMemory(obj2copy.getMemory());
+			setSpawnRate(obj2copy.getSpawnRate());
+			setCapacity(obj2copy.getCapacity());
+			setAchievedUsers(obj2copy.getAchievedUsers());
+			setExecutions(obj2copy.getExecutions());
+			setFailedExecutions(obj2copy.getFailedExecutions());
+			setExecutionTimeP95(obj2copy.getExecutionTimeP95());
+			setSubmittedUsers(obj2copy.getSubmittedUsers());
+			setRejectedUsers(obj2copy.getRejectedUsers());
 		} else {
 			throw new ClassCastException("Data with id " + input.getId() + " is not an instanceof NukeInfo[" + NukeDataFactory.NUKE_INFO + "], are you using correct class?");
 		}
@@ -112,6 +156,16 @@ public class NukeInfo extends BaseDataC {
 		retValue |= ( getActiveCommands() != obj2compare.getActiveCommands() ) ? ACTIVE_COMMANDS_MODIFIED : 0L;
 		retValue |= ( getRequestedCommands() != obj2compare.getRequestedCommands() ) ? REQUESTED_COMMANDS_MODIFIED : 0L;
 		retValue |= ( getCompletedCommands() != obj2compare.getCompletedCommands() ) ? COMPLETED_COMMANDS_MODIFIED : 0L;
+		retValue |= ( getCores() != obj2compare.getCores() ) ? CORES_MODIFIED : 0L;
+		retValue |= ( getMemory() != obj2compare.getMemory() ) ? MEMORY_MODIFIED : 0L;
+		retValue |= ( getSpawnRate() != obj2compare.getSpawnRate() ) ? SPAWN_RATE_MODIFIED : 0L;
+		retValue |= ( getCapacity() != obj2compare.getCapacity() ) ? CAPACITY_MODIFIED : 0L;
+		retValue |= ( getAchievedUsers() != obj2compare.getAchievedUsers() ) ? ACHIEVED_USERS_MODIFIED : 0L;
+		retValue |= ( getExecutions() != obj2compare.getExecutions() ) ? EXECUTIONS_MODIFIED : 0L;
+		retValue |= ( getFailedExecutions() != obj2compare.getFailedExecutions() ) ? FAILED_EXECUTIONS_MODIFIED : 0L;
+		retValue |= ( getExecutionTimeP95() != obj2compare.getExecutionTimeP95() ) ? EXECUTION_TIME_P95_MODIFIED : 0L;
+		retValue |= ( getSubmittedUsers() != obj2compare.getSubmittedUsers() ) ? SUBMITTED_USERS_MODIFIED : 0L;
+		retValue |= ( getRejectedUsers() != obj2compare.getRejectedUsers() ) ? REJECTED_USERS_MODIFIED : 0L;
 		return retValue;
 	}
 
@@ -124,16 +178,29 @@ public class NukeInfo extends BaseDataC {
 	 */
 	@Override
 	public void readData(ObjectDataInput in) throws IOException {
-		log.trace("readData(" + in + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("readData(" + in + ")");
+		}
 		super.readData(in);
-		setNukeID(in.readLong());
-		setNumberOfThreads(in.readInt());
-		setRequestedThreads(in.readInt());
-		setRepeated(in.readBoolean());
-		setState(NukeState.valueOf(in.readUTF()));
-		setActiveCommands(in.readInt());
-		setRequestedCommands(in.readInt());
-		setCompletedCommands(in.readInt());
+		DataInput layer = WireFormat.readLayer(in);
+		setNukeID(WireFormat.readVarLong(layer));
+		setNumberOfThreads(WireFormat.readVarInt(layer));
+		setRequestedThreads(WireFormat.readVarInt(layer));
+		setRepeated(layer.readBoolean());
+		setState(WireFormat.readEnum(layer, NukeState.values()));
+		setActiveCommands(WireFormat.readVarInt(layer));
+		setRequestedCommands(WireFormat.readVarInt(layer));
+		setCompletedCommands(WireFormat.readVarInt(layer));
+		setCores(WireFormat.readVarInt(layer));
+		setMemory(WireFormat.readVarLong(layer));
+		setSpawnRate(WireFormat.readVarInt(layer));
+		setCapacity(WireFormat.readVarInt(layer));
+		setAchievedUsers(WireFormat.readVarInt(layer));
+		setExecutions(WireFormat.readVarLong(layer));
+		setFailedExecutions(WireFormat.readVarLong(layer));
+		setExecutionTimeP95(WireFormat.readVarInt(layer));
+		setSubmittedUsers(WireFormat.readVarLong(layer));
+		setRejectedUsers(WireFormat.readVarLong(layer));
 	}
 
 	/**
@@ -141,16 +208,30 @@ public class NukeInfo extends BaseDataC {
 	 */
 	@Override
 	public void writeData(ObjectDataOutput out) throws IOException {
-		log.trace("writeData(" + out + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("writeData(" + out + ")");
+		}
 		super.writeData(out);
-		out.writeLong(getNukeID());
-		out.writeInt(getNumberOfThreads());
-		out.writeInt(getRequestedThreads());
-		out.writeBoolean(isRepeated());
-		out.writeUTF(getState().toString());
-		out.writeInt(getActiveCommands());
-		out.writeInt(getRequestedCommands());
-		out.writeInt(getCompletedCommands());
+		WireFormat.Layer layer = WireFormat.startLayer();
+		WireFormat.writeVarLong(layer, getNukeID());
+		WireFormat.writeVarInt(layer, getNumberOfThreads());
+		WireFormat.writeVarInt(layer, getRequestedThreads());
+		layer.writeBoolean(isRepeated());
+		WireFormat.writeEnum(layer, getState());
+		WireFormat.writeVarInt(layer, getActiveCommands());
+		WireFormat.writeVarInt(layer, getRequestedCommands());
+		WireFormat.writeVarInt(layer, getCompletedCommands());
+		WireFormat.writeVarInt(layer, getCores());
+		WireFormat.writeVarLong(layer, getMemory());
+		WireFormat.writeVarInt(layer, getSpawnRate());
+		WireFormat.writeVarInt(layer, getCapacity());
+		WireFormat.writeVarInt(layer, getAchievedUsers());
+		WireFormat.writeVarLong(layer, getExecutions());
+		WireFormat.writeVarLong(layer, getFailedExecutions());
+		WireFormat.writeVarInt(layer, getExecutionTimeP95());
+		WireFormat.writeVarLong(layer, getSubmittedUsers());
+		WireFormat.writeVarLong(layer, getRejectedUsers());
+		WireFormat.endLayer(out, layer);
 	}
 
 	/**
@@ -289,6 +370,176 @@ public class NukeInfo extends BaseDataC {
 		}
 	}
 
+	/**
+	 * @return the number of cores of the nuke host.
+	 */
+	public int getCores() {
+		return cores;
+	}
+
+	/**
+	 * @param cores the cores to set
+	 */
+	public void setCores(int cores) {
+		if( this.cores != cores ) {
+			this.cores = cores;
+			addValueModified(CORES_MODIFIED);
+		}
+	}
+
+	/**
+	 * @return the memory of the nuke host in MB.
+	 */
+	public long getMemory() {
+		return memory;
+	}
+
+	/**
+	 * @param memory the memory to set
+	 */
+	public void setMemory(long memory) {
+		if( this.memory != memory ) {
+			this.memory = memory;
+			addValueModified(MEMORY_MODIFIED);
+		}
+	}
+
+	/**
+	 * @return the measured process spawns per second, 0 if not calibrated.
+	 */
+	public int getSpawnRate() {
+		return spawnRate;
+	}
+
+	/**
+	 * @param spawnRate the spawnRate to set
+	 */
+	public void setSpawnRate(int spawnRate) {
+		if( this.spawnRate != spawnRate ) {
+			this.spawnRate = spawnRate;
+			addValueModified(SPAWN_RATE_MODIFIED);
+		}
+	}
+
+	/**
+	 * @return the capacity score of the nuke, 0 if unknown.
+	 */
+	public int getCapacity() {
+		return capacity;
+	}
+
+	/**
+	 * @param capacity the capacity to set
+	 */
+	public void setCapacity(int capacity) {
+		if( this.capacity != capacity ) {
+			this.capacity = capacity;
+			addValueModified(CAPACITY_MODIFIED);
+		}
+	}
+
+	/**
+	 * @return the number of users the nuke runs towards its target, 0 if none.
+	 */
+	public int getAchievedUsers() {
+		return achievedUsers;
+	}
+
+	/**
+	 * @param achievedUsers the achievedUsers to set
+	 */
+	public void setAchievedUsers(int achievedUsers) {
+		if( this.achievedUsers != achievedUsers ) {
+			this.achievedUsers = achievedUsers;
+			addValueModified(ACHIEVED_USERS_MODIFIED);
+		}
+	}
+
+	/**
+	 * @return the number of finished process executions on the nuke.
+	 */
+	public long getExecutions() {
+		return executions;
+	}
+
+	/**
+	 * @param executions the executions to set
+	 */
+	public void setExecutions(long executions) {
+		if( this.executions != executions ) {
+			this.executions = executions;
+			addValueModified(EXECUTIONS_MODIFIED);
+		}
+	}
+
+	/**
+	 * @return the number of process executions that failed, included in executions.
+	 */
+	public long getFailedExecutions() {
+		return failedExecutions;
+	}
+
+	/**
+	 * @param failedExecutions the failedExecutions to set
+	 */
+	public void setFailedExecutions(long failedExecutions) {
+		if( this.failedExecutions != failedExecutions ) {
+			this.failedExecutions = failedExecutions;
+			addValueModified(FAILED_EXECUTIONS_MODIFIED);
+		}
+	}
+
+	/**
+	 * @return the 95th percentile execution time in ms of the latest executions, 0 if none.
+	 */
+	public int getExecutionTimeP95() {
+		return executionTimeP95;
+	}
+
+	/**
+	 * @param executionTimeP95 the executionTimeP95 to set
+	 */
+	public void setExecutionTimeP95(int executionTimeP95) {
+		if( this.executionTimeP95 != executionTimeP95 ) {
+			this.executionTimeP95 = executionTimeP95;
+			addValueModified(EXECUTION_TIME_P95_MODIFIED);
+		}
+	}
+
+	/**
+	 * @return the number of users submitted to the executor of the nuke.
+	 */
+	public long getSubmittedUsers() {
+		return submittedUsers;
+	}
+
+	/**
+	 * @param submittedUsers the submittedUsers to set
+	 */
+	public void setSubmittedUsers(long submittedUsers) {
+		if( this.submittedUsers != submittedUsers ) {
+			this.submittedUsers = submittedUsers;
+			addValueModified(SUBMITTED_USERS_MODIFIED);
+		}
+	}
+
+	/**
+	 * @return the number of users the executor of the nuke rejected, never started.
+	 */
+	public long getRejectedUsers() {
+		return rejectedUsers;
+	}
+
+	/**
+	 * @param rejectedUsers the rejectedUsers to set
+	 */
+	public void setRejectedUsers(long rejectedUsers) {
+		if( this.rejectedUsers != rejectedUsers ) {
+			this.rejectedUsers = rejectedUsers;
+			addValueModified(REJECTED_USERS_MODIFIED);
+		}
+	}
+
 	/**
 	 * @return the valuesModified
 	 */
@@ -307,7 +558,10 @@ public class NukeInfo extends BaseDataC {
 	public String toString() {
 		return "NukeInfo: {nukeID:"+nukeID+", numberOfThreads:"+numberOfThreads+ ", requestedThreads:"+requestedThreads+
 				", repeated:"+repeated+", state:"+state+", activeCommands:"+activeCommands+", requestedCommands:"+
-				requestedCommands+", completedCommands:"+completedCommands+"}";
+				requestedCommands+", completedCommands:"+completedCommands+", cores:"+cores+", memory:"+memory+
+				", spawnRate:"+spawnRate+", capacity:"+capacity+", achievedUsers:"+achievedUsers+
+				", executions:"+executions+", failedExecutions:"+failedExecutions+", executionTimeP95:"+executionTimeP95+
+				", submittedUsers:"+submittedUsers+", rejectedUsers:"+rejectedUsers+"}";
 	}
 
 }
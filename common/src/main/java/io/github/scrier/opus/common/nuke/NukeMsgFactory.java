@@ -36,6 +36,12 @@ public class NukeMsgFactory implements DataSerializableFactory {
 	public static final int NUKE_STOP_ALL_RSP =      Constants.NUKE_MSG_START + 5;
 	public static final int NUKE_TERMINATE_ALL_REQ = Constants.NUKE_MSG_START + 6;
 	public static final int NUKE_TERMINATE_ALL_RSP = Constants.NUKE_MSG_START + 7;
+	public static final int NUKE_EXECUTE_BATCH_REQ = Constants.NUKE_MSG_START + 8;
+	public static final int NUKE_EXECUTE_BATCH_RSP = Constants.NUKE_MSG_START + 9;
+	public static final int NUKE_EXECUTE_BATCH_IND = Constants.NUKE_MSG_START + 10;
+	public static final int NUKE_EXECUTE_RATE_REQ =  Constants.NUKE_MSG_START + 11;
+	public static final int NUKE_STOP_PROCESS_REQ =  Constants.NUKE_MSG_START + 12;
+	public static final int NUKE_EXECUTE_TARGET_REQ = Constants.NUKE_MSG_START + 13;
 	
 	/**
 	 * Constructor
@@ -46,7 +52,9 @@ public class NukeMsgFactory implements DataSerializableFactory {
 	
 	@Override
 	public IdentifiedDataSerializable create(int dataID) {
-		log.trace("create(" + dataID + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("create(" + dataID + ")");
+		}
 		IdentifiedDataSerializable retValue = null;
 		switch(dataID) {
 			case NUKE_EXECUTE_REQ:
@@ -70,6 +78,24 @@ public class NukeMsgFactory implements DataSerializableFactory {
 			case NUKE_TERMINATE_ALL_RSP:
 				retValue = new NukeTerminateAllRspMsgC();
 				break;
+			case NUKE_EXECUTE_BATCH_REQ:
+				retValue = new NukeExecuteBatchReqMsgC();
+				break;
+			case NUKE_EXECUTE_BATCH_RSP:
+				retValue = new NukeExecuteBatchRspMsgC();
+				break;
+			case NUKE_EXECUTE_BATCH_IND:
+				retValue = new NukeExecuteBatchIndMsgC();
+				break;
+			case NUKE_EXECUTE_RATE_REQ:
+				retValue = new NukeExecuteRateReqMsgC();
+				break;
+			case NUKE_STOP_PROCESS_REQ:
+				retValue = new NukeStopProcessReqMsgC();
+				break;
+			case NUKE_EXECUTE_TARGET_REQ:
+				retValue = new NukeExecuteTargetReqMsgC();
+				break;
 		}
 		return retValue;
 	}
@@ -44,7 +44,9 @@ public class NukeStopAllReqMsgC extends BaseMsgC {
 	 */
 	public NukeStopAllReqMsgC(SendIF sendIF) {
 		super(NukeMsgFactory.FACTORY_ID, NukeMsgFactory.NUKE_STOP_ALL_REQ, sendIF);
-		log.trace("NukeStopAllReqMsgC(" + sendIF + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("NukeStopAllReqMsgC(" + sendIF + ")");
+		}
 	}
 	
 	/**
@@ -53,7 +55,9 @@ public class NukeStopAllReqMsgC extends BaseMsgC {
 	 */
 	public NukeStopAllReqMsgC(NukeStopAllReqMsgC obj2copy) {
 		super(obj2copy);
-		log.trace("NukeStopAllReqMsgC(" + obj2copy + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("NukeStopAllReqMsgC(" + obj2copy + ")");
+		}
 	}
 	
 	/**
@@ -63,7 +67,9 @@ public class NukeStopAllReqMsgC extends BaseMsgC {
 	 */
 	public NukeStopAllReqMsgC(BaseMsgC input) throws ClassCastException {
 		super(input);
-		log.trace("NukeStopAllReqMsgC(" + input + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("NukeStopAllReqMsgC(" + input + ")");
+		}
 		if( input instanceof NukeStopAllReqMsgC ) {
 			// no parameters.
 		} else {
@@ -76,7 +82,9 @@ public class NukeStopAllReqMsgC extends BaseMsgC {
 	 */
 	@Override
 	public void readData(ObjectDataInput in) throws IOException {
-		log.trace("readData(" + in + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("readData(" + in + ")");
+		}
 		super.readData(in);
 	}
 
@@ -85,7 +93,9 @@ public class NukeStopAllReqMsgC extends BaseMsgC {
 	 */
 	@Override
 	public void writeData(ObjectDataOutput out) throws IOException {
-		log.trace("writeData(" + out + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("writeData(" + out + ")");
+		}
 		super.writeData(out);
 	}
 
@@ -15,6 +15,7 @@
  */
 package io.github.scrier.opus.common.nuke;
 
+import java.io.DataInput;
 import java.io.IOException;
 
 import org.apache.logging.log4j.LogManager;
@@ -24,6 +25,7 @@ import com.hazelcast.nio.ObjectDataInput;
 import com.hazelcast.nio.ObjectDataOutput;
 
 import io.github.scrier.opus.common.Constants;
+import io.github.scrier.opus.common.WireFormat;
 import io.github.scrier.opus.common.message.BaseMsgC;
 import io.github.scrier.opus.common.message.SendIF;
 
@@ -50,7 +52,9 @@ public class NukeStopAllRspMsgC extends BaseMsgC {
 	 */
 	public NukeStopAllRspMsgC(SendIF sendIF) {
 		super(NukeMsgFactory.FACTORY_ID, NukeMsgFactory.NUKE_STOP_ALL_RSP, sendIF);
-		log.trace("NukeStopAllRspMsgC(" + sendIF + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("NukeStopAllRspMsgC(" + sendIF + ")");
+		}
 		setSuccess(false);
 		setStatus("");
 	}
@@ -61,7 +65,9 @@ public class NukeStopAllRspMsgC extends BaseMsgC {
 	 */
 	public NukeStopAllRspMsgC(NukeStopAllRspMsgC obj2copy) {
 		super(obj2copy);
-		log.trace("NukeStopAllRspMsgC(" + obj2copy + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("NukeStopAllRspMsgC(" + obj2copy + ")");
+		}
 		setSuccess(obj2copy.isSuccess());
 		setStatus(obj2copy.getStatus());
 	}
@@ -73,7 +79,9 @@ public class NukeStopAllRspMsgC extends BaseMsgC {
 	 */
 	public NukeStopAllRspMsgC(BaseMsgC input) throws ClassCastException {
 		super(input);
-		log.trace("NukeStopAllRspMsgC(" + input + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("NukeStopAllRspMsgC(" + input + ")");
+		}
 		if( input instanceof NukeStopAllRspMsgC ) {
 			NukeStopAllRspMsgC obj2copy = (NukeStopAllRspMsgC)input;
 			setSuccess(obj2copy.isSuccess());
@@ -88,10 +96,13 @@ public class NukeStopAllRspMsgC extends BaseMsgC {
 	 */
 	@Override
 	public void readData(ObjectDataInput in) throws IOException {
-		log.trace("readData(" + in + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("readData(" + in + ")");
+		}
 		super.readData(in);
-		setSuccess(in.readBoolean());
-		setStatus(in.readUTF());
+		DataInput layer = WireFormat.readLayer(in);
+		setSuccess(layer.readBoolean());
+		setStatus(layer.readUTF());
 	}
 
 	/**
@@ -99,10 +110,14 @@ public class NukeStopAllRspMsgC extends BaseMsgC {
 	 */
 	@Override
 	public void writeData(ObjectDataOutput out) throws IOException {
-		log.trace("writeData(" + out + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("writeData(" + out + ")");
+		}
 		super.writeData(out);
-		out.writeBoolean(isSuccess());
-		out.writeUTF(getStatus());
+		WireFormat.Layer layer = WireFormat.startLayer();
+		layer.writeBoolean(isSuccess());
+		layer.writeUTF(getStatus());
+		WireFormat.endLayer(out, layer);
 	}
 
 	/**
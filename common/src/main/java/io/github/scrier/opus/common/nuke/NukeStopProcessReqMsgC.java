@@ -0,0 +1,156 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ * @author Andreas Joelsson (andreas.joelsson@gmail.com)
+ */
+package io.github.scrier.opus.common.nuke;
+
+import java.io.DataInput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+
+import io.github.scrier.opus.common.WireFormat;
+import io.github.scrier.opus.common.message.BaseMsgC;
+import io.github.scrier.opus.common.message.SendIF;
+
+/**
+ * Response to a NukeExecuteBatchReqMsgC with the process id of every
+ * started user.
+ */
+public class NukeStopProcessReqMsgC extends BaseMsgC {
+	
+	private static Logger log = LogManager.getLogger(NukeStopProcessReqMsgC.class);
+	
+	private List<Long> processIDs;
+	
+	/**
+	 * Constructor
+	 */
+	public NukeStopProcessReqMsgC() {
+		super(NukeMsgFactory.FACTORY_ID, NukeMsgFactory.NUKE_STOP_PROCESS_REQ);
+		log.trace("NukeStopProcessReqMsgC()");
+		setProcessIDs(new ArrayList<Long>());
+	}
+
+	/**
+	 * Constructor
+	 * @param sendIF the SendIF to use for distribution
+	 */
+	public NukeStopProcessReqMsgC(SendIF sendIF) {
+		super(NukeMsgFactory.FACTORY_ID, NukeMsgFactory.NUKE_STOP_PROCESS_REQ, sendIF);
+		if( log.isTraceEnabled() ) {
+			log.trace("NukeStopProcessReqMsgC(" + sendIF + ")");
+		}
+		setProcessIDs(new ArrayList<Long>());
+	}
+	
+	/**
+	 * Copy constructor
+	 * @param obj2copy NukeStopProcessReqMsgC object
+	 */
+	public NukeStopProcessReqMsgC(NukeStopProcessReqMsgC obj2copy) {
+		super(obj2copy);
+		if( log.isTraceEnabled() ) {
+			log.trace("NukeStopProcessReqMsgC(" + obj2copy + ")");
+		}
+		setProcessIDs(new ArrayList<Long>(obj2copy.getProcessIDs()));
+	}
+	
+	/**
+	 * Cast constructor
+	 * @param input BaseMsgC object
+	 * @throws ClassCastException if provided with a mismatching class.
+	 */
+	public NukeStopProcessReqMsgC(BaseMsgC input) throws ClassCastException {
+		super(input);
+		if( log.isTraceEnabled() ) {
+			log.trace("NukeStopProcessReqMsgC(" + input + ")");
+		}
+		if( input instanceof NukeStopProcessReqMsgC ) {
+			NukeStopProcessReqMsgC obj2copy = (NukeStopProcessReqMsgC)input;
+			setProcessIDs(new ArrayList<Long>(obj2copy.getProcessIDs()));
+		} else {
+			throw new ClassCastException("Data with id " + input.getId() + " is not an instanceof NukeStopProcessReqMsgC[" + NukeMsgFactory.NUKE_STOP_PROCESS_REQ + "], are you using correct class?");
+		}
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void readData(ObjectDataInput in) throws IOException {
+		if( log.isTraceEnabled() ) {
+			log.trace("readData(" + in + ")");
+		}
+		super.readData(in);
+		DataInput layer = WireFormat.readLayer(in);
+		int size = WireFormat.readVarInt(layer);
+		List<Long> ids = new ArrayList<Long>(size);
+		long previous = 0L;
+		for( int i = 0; i < size; i++ ) {
+			previous += WireFormat.readVarLong(layer);
+			ids.add(previous);
+		}
+		setProcessIDs(ids);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void writeData(ObjectDataOutput out) throws IOException {
+		if( log.isTraceEnabled() ) {
+			log.trace("writeData(" + out + ")");
+		}
+		super.writeData(out);
+		WireFormat.Layer layer = WireFormat.startLayer();
+		// process ids are mostly close to each other, write the delta to the previous one.
+		WireFormat.writeVarInt(layer, getProcessIDs().size());
+		long previous = 0L;
+		for( Long processID : getProcessIDs() ) {
+			WireFormat.writeVarLong(layer, processID - previous);
+			previous = processID;
+		}
+		WireFormat.endLayer(out, layer);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String toString() {
+		return "NukeStopProcessReqMsgC{processIDs: " + getProcessIDs() + "} - " + super.toString();
+	}
+
+	/**
+	 * @return the processIDs
+	 */
+  public List<Long> getProcessIDs() {
+	  return processIDs;
+  }
+
+	/**
+	 * @param processIDs the processIDs to set
+	 */
+  public void setProcessIDs(List<Long> processIDs) {
+	  this.processIDs = processIDs;
+  }
+	
+}
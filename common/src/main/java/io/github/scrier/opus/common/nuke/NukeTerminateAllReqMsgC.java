@@ -45,7 +45,9 @@ public class NukeTerminateAllReqMsgC extends BaseMsgC {
 	 */
 	public NukeTerminateAllReqMsgC(SendIF sendIF) {
 		super(NukeMsgFactory.FACTORY_ID, NukeMsgFactory.NUKE_TERMINATE_ALL_REQ, sendIF);
-		log.trace("NukeTerminateAllReqMsgC(" + sendIF + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("NukeTerminateAllReqMsgC(" + sendIF + ")");
+		}
 	}
 	
 	/**
@@ -54,7 +56,9 @@ public class NukeTerminateAllReqMsgC extends BaseMsgC {
 	 */
 	public NukeTerminateAllReqMsgC(NukeTerminateAllReqMsgC obj2copy) {
 		super(obj2copy);
-		log.trace("NukeTerminateAllReqMsgC(" + obj2copy + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("NukeTerminateAllReqMsgC(" + obj2copy + ")");
+		}
 	}
 	
 	/**
@@ -64,7 +68,9 @@ public class NukeTerminateAllReqMsgC extends BaseMsgC {
 	 */
 	public NukeTerminateAllReqMsgC(BaseMsgC input) throws ClassCastException {
 		super(input);
-		log.trace("NukeTerminateAllReqMsgC(" + input + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("NukeTerminateAllReqMsgC(" + input + ")");
+		}
 		if( input instanceof NukeTerminateAllReqMsgC ) {
 		} else {
 			// no parameters to work with.
@@ -77,7 +83,9 @@ public class NukeTerminateAllReqMsgC extends BaseMsgC {
 	 */
 	@Override
 	public void readData(ObjectDataInput in) throws IOException {
-		log.trace("readData(" + in + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("readData(" + in + ")");
+		}
 		super.readData(in);
 	}
 
@@ -86,7 +94,9 @@ public class NukeTerminateAllReqMsgC extends BaseMsgC {
 	 */
 	@Override
 	public void writeData(ObjectDataOutput out) throws IOException {
-		log.trace("writeData(" + out + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("writeData(" + out + ")");
+		}
 		super.writeData(out);
 	}
 
@@ -15,6 +15,7 @@
  */
 package io.github.scrier.opus.common.nuke;
 
+import java.io.DataInput;
 import java.io.IOException;
 
 import org.apache.logging.log4j.LogManager;
@@ -23,6 +24,7 @@ import org.apache.logging.log4j.Logger;
 import com.hazelcast.nio.ObjectDataInput;
 import com.hazelcast.nio.ObjectDataOutput;
 
+import io.github.scrier.opus.common.WireFormat;
 import io.github.scrier.opus.common.message.BaseMsgC;
 import io.github.scrier.opus.common.message.SendIF;
 
@@ -49,7 +51,9 @@ public class NukeTerminateAllRspMsgC extends BaseMsgC {
 	 */
 	public NukeTerminateAllRspMsgC(SendIF sendIF) {
 		super(NukeMsgFactory.FACTORY_ID, NukeMsgFactory.NUKE_TERMINATE_ALL_RSP, sendIF);
-		log.trace("NukeTerminateAllRspMsgC(" + sendIF + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("NukeTerminateAllRspMsgC(" + sendIF + ")");
+		}
 		setSuccess(false);
 		setStatus("");
 	}
@@ -60,7 +64,9 @@ public class NukeTerminateAllRspMsgC extends BaseMsgC {
 	 */
 	public NukeTerminateAllRspMsgC(NukeTerminateAllRspMsgC obj2copy) {
 		super(obj2copy);
-		log.trace("NukeTerminateAllRspMsgC(" + obj2copy + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("NukeTerminateAllRspMsgC(" + obj2copy + ")");
+		}
 		setSuccess(obj2copy.isSuccess());
 		setStatus(obj2copy.getStatus());
 	}
@@ -72,7 +78,9 @@ public class NukeTerminateAllRspMsgC extends BaseMsgC {
 	 */
 	public NukeTerminateAllRspMsgC(BaseMsgC input) throws ClassCastException {
 		super(input);
-		log.trace("NukeTerminateAllRspMsgC(" + input + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("NukeTerminateAllRspMsgC(" + input + ")");
+		}
 		if( input instanceof NukeTerminateAllRspMsgC ) {
 			NukeTerminateAllRspMsgC obj2copy = (NukeTerminateAllRspMsgC)input;
 			setSuccess(obj2copy.isSuccess());
@@ -87,10 +95,13 @@ public class NukeTerminateAllRspMsgC extends BaseMsgC {
 	 */
 	@Override
 	public void readData(ObjectDataInput in) throws IOException {
-		log.trace("readData(" + in + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("readData(" + in + ")");
+		}
 		super.readData(in);
-		setSuccess(in.readBoolean());
-		setStatus(in.readUTF());
+		DataInput layer = WireFormat.readLayer(in);
+		setSuccess(layer.readBoolean());
+		setStatus(layer.readUTF());
 	}
 
 	/**
@@ -98,10 +109,14 @@ public class NukeTerminateAllRspMsgC extends BaseMsgC {
 	 */
 	@Override
 	public void writeData(ObjectDataOutput out) throws IOException {
-		log.trace("writeData(" + out + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("writeData(" + out + ")");
+		}
 		super.writeData(out);
-		out.writeBoolean(isSuccess());
-		out.writeUTF(getStatus());
+		WireFormat.Layer layer = WireFormat.startLayer();
+		layer.writeBoolean(isSuccess());
+		layer.writeUTF(getStatus());
+		WireFormat.endLayer(out, layer);
 	}
 
 	/**
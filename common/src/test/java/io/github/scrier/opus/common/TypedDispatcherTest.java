@@ -0,0 +1,90 @@
+package io.github.scrier.opus.common;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import io.github.scrier.opus.common.duke.DukeCommandReqMsgC;
+import io.github.scrier.opus.common.duke.DukeMsgFactory;
+import io.github.scrier.opus.common.message.BaseMsgC;
+import io.github.scrier.opus.common.nuke.NukeExecuteIndMsgC;
+import io.github.scrier.opus.common.nuke.NukeExecuteReqMsgC;
+import io.github.scrier.opus.common.nuke.NukeMsgFactory;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class TypedDispatcherTest {
+
+	private TypedDispatcher<List<BaseMsgC>> testObject;
+
+	@Before
+	public void setUp() {
+		testObject = new TypedDispatcher<List<BaseMsgC>>();
+		testObject.register(NukeMsgFactory.FACTORY_ID, NukeMsgFactory.NUKE_EXECUTE_IND, NukeExecuteIndMsgC.class,
+				new TypedDispatcher.Handler<List<BaseMsgC>, NukeExecuteIndMsgC>() {
+			@Override
+			public void handle(List<BaseMsgC> target, NukeExecuteIndMsgC message) {
+				target.add(message);
+			}
+		});
+	}
+
+	@Test
+	public void testDispatchSameInstance() {
+		List<BaseMsgC> received = new ArrayList<BaseMsgC>();
+		NukeExecuteIndMsgC message = new NukeExecuteIndMsgC();
+		assertTrue(testObject.dispatch(received, message));
+		assertEquals(1, received.size());
+		assertSame(message, received.get(0));
+	}
+
+	@Test
+	public void testDispatchUnknown() {
+		List<BaseMsgC> received = new ArrayList<BaseMsgC>();
+		assertFalse(testObject.dispatch(received, new NukeExecuteReqMsgC()));
+		assertFalse(testObject.dispatch(received, new DukeCommandReqMsgC()));
+		assertTrue(received.isEmpty());
+	}
+
+	@Test(expected=ClassCastException.class)
+	public void testDispatchWrongClass() {
+		BaseMsgC message = new BaseMsgC(NukeMsgFactory.FACTORY_ID, NukeMsgFactory.NUKE_EXECUTE_IND) {};
+		testObject.dispatch(new ArrayList<BaseMsgC>(), message);
+	}
+
+	@Test(expected=IllegalArgumentException.class)
+	public void testRegisterTwice() {
+		testObject.register(NukeMsgFactory.FACTORY_ID, NukeMsgFactory.NUKE_EXECUTE_IND, NukeExecuteIndMsgC.class,
+				new TypedDispatcher.Handler<List<BaseMsgC>, BaseMsgC>() {
+			@Override
+			public void handle(List<BaseMsgC> target, BaseMsgC message) {
+			}
+		});
+	}
+
+	@Test
+	public void testSameIdOtherFactory() {
+		assertTrue(testObject.contains(NukeMsgFactory.FACTORY_ID, NukeMsgFactory.NUKE_EXECUTE_IND));
+		assertFalse(testObject.contains(DukeMsgFactory.FACTORY_ID, NukeMsgFactory.NUKE_EXECUTE_IND));
+	}
+
+	@Test
+	public void testResize() {
+		TypedDispatcher.Handler<List<BaseMsgC>, BaseMsgC> handler = new TypedDispatcher.Handler<List<BaseMsgC>, BaseMsgC>() {
+			@Override
+			public void handle(List<BaseMsgC> target, BaseMsgC message) {
+			}
+		};
+		for( int i = 0; i < 100; i++ ) {
+			testObject.register(DukeMsgFactory.FACTORY_ID, i, BaseMsgC.class, handler);
+		}
+		assertEquals(101, testObject.size());
+		for( int i = 0; i < 100; i++ ) {
+			assertTrue(testObject.contains(DukeMsgFactory.FACTORY_ID, i));
+		}
+		assertTrue(testObject.contains(NukeMsgFactory.FACTORY_ID, NukeMsgFactory.NUKE_EXECUTE_IND));
+	}
+
+}
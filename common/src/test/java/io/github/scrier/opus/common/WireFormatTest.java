@@ -0,0 +1,302 @@
+package io.github.scrier.opus.common;
+
+import static org.junit.Assert.*;
+
+import io.github.scrier.opus.common.duke.DukeInfo;
+import io.github.scrier.opus.common.duke.DukeState;
+import io.github.scrier.opus.common.nuke.CommandState;
+import io.github.scrier.opus.common.nuke.NukeExecuteIndMsgC;
+import io.github.scrier.opus.common.nuke.NukeInfo;
+import io.github.scrier.opus.common.nuke.NukeState;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.apache.logging.log4j.Level;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.serialization.DataSerializable;
+import com.hazelcast.nio.serialization.ObjectDataInputStream;
+import com.hazelcast.nio.serialization.ObjectDataOutputStream;
+
+public class WireFormatTest {
+	
+	private ByteArrayOutputStream bytes;
+	private ObjectDataOutputStream out;
+	
+	@BeforeClass
+	public static void setupClass() {
+		TestHelper.INSTANCE.setLogLevel(Level.ERROR);
+	}
+	
+	@Before
+	public void setUp() {
+		bytes = new ByteArrayOutputStream();
+		out = new ObjectDataOutputStream(bytes, null);
+	}
+
+	@Test
+	public void testVarInt() throws IOException {
+		int[] values = { 0, 1, -1, 63, -64, 64, 127, 128, 16383, 16384, Integer.MAX_VALUE, Integer.MIN_VALUE };
+		for( int value : values ) {
+			WireFormat.writeVarInt(out, value);
+		}
+		ObjectDataInput in = input(bytes.toByteArray());
+		for( int value : values ) {
+			assertEquals(value, WireFormat.readVarInt(in));
+		}
+	}
+	
+	@Test
+	public void testVarLong() throws IOException {
+		long[] values = { 0L, 1L, -1L, Constants.MSG_TO_ALL, 123754L, 1L << 35, Long.MAX_VALUE, Long.MIN_VALUE };
+		for( long value : values ) {
+			WireFormat.writeVarLong(out, value);
+		}
+		ObjectDataInput in = input(bytes.toByteArray());
+		for( long value : values ) {
+			assertEquals(value, WireFormat.readVarLong(in));
+		}
+	}
+	
+	@Test
+	public void testVarLongSize() throws IOException {
+		assertEquals(1, sizeOf(Constants.HC_UNDEFINED));
+		assertEquals(1, sizeOf(63L));
+		assertEquals(2, sizeOf(64L));
+		assertEquals(10, sizeOf(Long.MIN_VALUE));
+	}
+	
+	@Test(expected=IOException.class)
+	public void testMalformedVarInt() throws IOException {
+		byte[] data = { (byte)0x80, (byte)0x80, (byte)0x80, (byte)0x80, (byte)0x80, 0x01 };
+		WireFormat.readVarInt(input(data));
+	}
+	
+	@Test
+	public void testEnum() throws IOException {
+		WireFormat.writeEnum(out, NukeState.ABORTED);
+		WireFormat.writeEnum(out, CommandState.UNDEFINED);
+		assertEquals(2, bytes.toByteArray().length);
+		ObjectDataInput in = input(bytes.toByteArray());
+		assertEquals(NukeState.ABORTED, WireFormat.readEnum(in, NukeState.values()));
+		assertEquals(CommandState.UNDEFINED, WireFormat.readEnum(in, CommandState.values()));
+	}
+	
+	@Test(expected=IOException.class)
+	public void testUnknownEnum() throws IOException {
+		byte[] data = { (byte)DukeState.values().length };
+		WireFormat.readEnum(input(data), DukeState.values());
+	}
+	
+	@Test(expected=IOException.class)
+	public void testInvalidVersion() throws IOException {
+		byte[] data = { 0 };
+		WireFormat.readVersion(input(data));
+	}
+	
+	@Test
+	public void testNukeInfoRoundTrip() throws IOException {
+		NukeInfo expected = new NukeInfo();
+		expected.setKey(9876543L);
+		expected.setTxID(12);
+		expected.setNukeID(9876543L);
+		expected.setNumberOfThreads(150);
+		expected.setRequestedThreads(200);
+		expected.setRepeated(true);
+		expected.setState(NukeState.RUNNING);
+		expected.setActiveCommands(150);
+		expected.setRequestedCommands(1500);
+		expected.setCompletedCommands(1350);
+		NukeInfo actual = roundTrip(expected, new NukeInfo());
+		assertEquals(0L, expected.compare(actual));
+		assertEquals(expected.getKey(), actual.getKey());
+		assertEquals(expected.getTxID(), actual.getTxID());
+		assertEquals(WireFormat.VERSION, actual.getWireVersion());
+	}
+	
+	@Test
+	public void testNukeInfoCapacityRoundTrip() throws IOException {
+		NukeInfo expected = new NukeInfo();
+		expected.setNukeID(9876543L);
+		expected.setCores(64);
+		expected.setMemory(262144L);
+		expected.setSpawnRate(850);
+		expected.setCapacity(6400);
+		NukeInfo actual = roundTrip(expected, new NukeInfo());
+		assertEquals(0L, expected.compare(actual));
+		assertEquals(6400, actual.getCapacity());
+	}
+	
+	@Test(expected=IOException.class)
+	public void testUnsupportedVersion() throws IOException {
+		NukeInfo expected = new NukeInfo();
+		expected.setNukeID(9876543L);
+		expected.writeData(out);
+		byte[] data = bytes.toByteArray();
+		data[0] = (byte)( WireFormat.MIN_VERSION - 1 );
+		new NukeInfo().readData(input(data));
+	}
+	
+	@Test
+	public void testNukeInfoAchievedUsersRoundTrip() throws IOException {
+		NukeInfo expected = new NukeInfo();
+		expected.setNukeID(9876543L);
+		expected.setAchievedUsers(1500);
+		NukeInfo actual = roundTrip(expected, new NukeInfo());
+		assertEquals(0L, expected.compare(actual));
+		assertEquals(1500, actual.getAchievedUsers());
+	}
+	
+	@Test
+	public void testNukeInfoExecutionsRoundTrip() throws IOException {
+		NukeInfo expected = new NukeInfo();
+		expected.setNukeID(9876543L);
+		expected.setExecutions(1L << 33);
+		expected.setFailedExecutions(17L);
+		expected.setExecutionTimeP95(250);
+		NukeInfo actual = roundTrip(expected, new NukeInfo());
+		assertEquals(0L, expected.compare(actual));
+		assertEquals(1L << 33, actual.getExecutions());
+		assertEquals(17L, actual.getFailedExecutions());
+		assertEquals(250, actual.getExecutionTimeP95());
+	}
+	
+	@Test
+	public void testNukeInfoExecutorCountersRoundTrip() throws IOException {
+		NukeInfo expected = new NukeInfo();
+		expected.setNukeID(9876543L);
+		expected.setSubmittedUsers(150000L);
+		expected.setRejectedUsers(42L);
+		NukeInfo actual = roundTrip(expected, new NukeInfo());
+		assertEquals(0L, expected.compare(actual));
+		assertEquals(150000L, actual.getSubmittedUsers());
+		assertEquals(42L, actual.getRejectedUsers());
+		assertEquals(42L, new NukeInfo(actual).getRejectedUsers());
+	}
+	
+	@Test
+	public void testDukeInfoRoundTrip() throws IOException {
+		DukeInfo expected = new DukeInfo();
+		expected.setKey(Constants.HC_UNDEFINED);
+		expected.setDukeID(1L << 40);
+		expected.setState(DukeState.RUNNING);
+		DukeInfo actual = roundTrip(expected, new DukeInfo());
+		assertEquals(0L, expected.compare(actual));
+		assertEquals(expected.getKey(), actual.getKey());
+	}
+	
+	@Test
+	public void testDukeInfoGapMarkersRoundTrip() throws IOException {
+		DukeInfo expected = new DukeInfo();
+		expected.setDukeID(1L << 40);
+		expected.addGapMarker(1413000000000L);
+		expected.addGapMarker(1413000042000L);
+		assertTrue(expected.isValueModified(DukeInfo.GAP_MARKERS_MODIFIED));
+		DukeInfo actual = roundTrip(expected, new DukeInfo());
+		assertEquals(0L, expected.compare(actual));
+		assertEquals(Arrays.asList(1413000000000L, 1413000042000L), actual.getGapMarkers());
+		assertEquals(2, new DukeInfo(actual).getGapMarkers().size());
+	}
+	
+	@Test
+	public void testNewerLayersAreRead() throws IOException {
+		DukeInfo expected = new DukeInfo();
+		expected.setKey(9876543L);
+		expected.setTxID(12);
+		expected.setDukeID(1L << 40);
+		expected.setState(DukeState.RUNNING);
+		expected.writeData(out);
+		ObjectDataInput in = input(bytes.toByteArray());
+		in.readUnsignedByte();
+		byte[] base = new byte[WireFormat.readVarInt(in)];
+		in.readFully(base);
+		byte[] duke = new byte[WireFormat.readVarInt(in)];
+		in.readFully(duke);
+		bytes.reset();
+		out.writeByte(WireFormat.VERSION + 1);
+		WireFormat.writeVarInt(out, base.length + 1);
+		out.write(base);
+		out.writeByte(0x2A); // a field appended to the base layer by a newer version.
+		WireFormat.writeVarInt(out, duke.length + 1);
+		out.write(duke);
+		out.writeByte(0x2A); // a field appended to the duke layer by a newer version.
+		DukeInfo actual = new DukeInfo();
+		actual.readData(input(bytes.toByteArray()));
+		assertEquals(WireFormat.VERSION + 1, actual.getWireVersion());
+		assertEquals(0L, expected.compare(actual));
+		assertEquals(expected.getKey(), actual.getKey());
+		assertEquals(expected.getTxID(), actual.getTxID());
+	}
+	
+	@Test
+	public void testDukeInfoMeasuredCapacityRoundTrip() throws IOException {
+		DukeInfo expected = new DukeInfo();
+		expected.setDukeID(1L << 40);
+		expected.addGapMarker(1413000000000L);
+		expected.setMeasuredCapacity(350);
+		assertTrue(expected.isValueModified(DukeInfo.MEASURED_CAPACITY_MODIFIED));
+		DukeInfo actual = roundTrip(expected, new DukeInfo());
+		assertEquals(0L, expected.compare(actual));
+		assertEquals(350, actual.getMeasuredCapacity());
+		assertEquals(350, new DukeInfo(actual).getMeasuredCapacity());
+	}
+	
+	@Test
+	public void testIndicationSize() throws IOException {
+		NukeExecuteIndMsgC message = new NukeExecuteIndMsgC();
+		message.setSource(9876543L);
+		message.setDestination(1234567L);
+		message.setSagaID(42L);
+		message.setTxID(7);
+		message.setProcessID(123754L);
+		message.setStatus(CommandState.WORKING);
+		message.writeData(out);
+		// version, base layer length, source 4, destination 4, saga 1, tx 1, indication layer length, status 1, process 3.
+		// It used to be 45 bytes with fixed size ids and the state name.
+		assertEquals(17, bytes.toByteArray().length);
+	}
+	
+	@Test
+	public void testNewerVersionIsRead() throws IOException {
+		NukeExecuteIndMsgC expected = new NukeExecuteIndMsgC();
+		expected.setSource(9876543L);
+		expected.setDestination(1234567L);
+		expected.setProcessID(123754L);
+		expected.setStatus(CommandState.DONE);
+		expected.writeData(out);
+		out.writeLong(123456789L);
+		byte[] data = bytes.toByteArray();
+		data[0] = (byte)( WireFormat.VERSION + 1 );
+		NukeExecuteIndMsgC actual = new NukeExecuteIndMsgC();
+		actual.readData(input(data));
+		assertEquals(WireFormat.VERSION + 1, actual.getWireVersion());
+		assertEquals(expected.getSource(), actual.getSource());
+		assertEquals(expected.getDestination(), actual.getDestination());
+		assertEquals(expected.getProcessID(), actual.getProcessID());
+		assertEquals(expected.getStatus(), actual.getStatus());
+	}
+	
+	private int sizeOf(long value) throws IOException {
+		bytes.reset();
+		WireFormat.writeVarLong(out, value);
+		return bytes.size();
+	}
+	
+	private ObjectDataInput input(byte[] data) {
+		return new ObjectDataInputStream(new ByteArrayInputStream(data), null);
+	}
+	
+	private <T extends DataSerializable> T roundTrip(T input, T output) throws IOException {
+		bytes.reset();
+		input.writeData(out);
+		output.readData(input(bytes.toByteArray()));
+		return output;
+	}
+
+}
@@ -72,6 +72,49 @@ public class BaseActiveObjectTest {
 		assertNotNull(testObject.getSettings());
 		assertEquals(id, testObject.getIdentity());
 		assertTrue((Boolean)TestHelper.INSTANCE.invokeMethod(BaseActiveObject.class, "isCorrectInitPerformed", testObject));
+		assertNotNull(testObject.getMailbox());
+		assertTrue(testObject.getMailbox().isRunning());
+		assertEquals(Mailbox.DEFAULT_CAPACITY, testObject.getMailbox().getCapacity());
+		assertEquals(Mailbox.Backpressure.BLOCK, testObject.getMailbox().getBackpressure());
+		testObject.stopMailbox();
+		assertFalse(testObject.getMailbox().isRunning());
+	}
+
+	@Test
+	public void testMailboxSettings() throws Exception {
+		Mockito.when(settings.get(Shared.Settings.MAILBOX_CAPACITY)).thenReturn("12");
+		Mockito.when(settings.get(Shared.Settings.MAILBOX_BACKPRESSURE)).thenReturn("reject");
+		BaseActiveObjectMock testObject = new BaseActiveObjectMock(instance);
+		testObject.preInit();
+		assertEquals(12, testObject.getMailbox().getCapacity());
+		assertEquals(Mailbox.Backpressure.REJECT, testObject.getMailbox().getBackpressure());
+		testObject.getMailbox().shutDown();
+	}
+
+	@Test
+	public void testPostWithoutMailbox() {
+		BaseActiveObjectMock testObject = new BaseActiveObjectMock(instance);
+		final boolean[] ran = { false };
+		assertTrue(testObject.post(new Runnable() {
+			@Override
+			public void run() {
+				ran[0] = true;
+			}
+		}));
+		assertTrue(ran[0]);
+	}
+	
+	@Test
+	public void testPostInternalWithoutMailbox() {
+		BaseActiveObjectMock testObject = new BaseActiveObjectMock(instance);
+		final boolean[] ran = { false };
+		assertTrue(testObject.postInternal(new Runnable() {
+			@Override
+			public void run() {
+				ran[0] = true;
+			}
+		}));
+		assertTrue(ran[0]);
 	}
 
 }
@@ -0,0 +1,221 @@
+package io.github.scrier.opus.common.aoc;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class MailboxTest {
+
+	private Mailbox testObject;
+
+	@Before
+	public void setUp() {
+		testObject = null;
+	}
+
+	@After
+	public void tearDown() {
+		if( null != testObject ) {
+			testObject.shutDown();
+		}
+	}
+
+	@Test(expected=IllegalArgumentException.class)
+	public void testInvalidCapacity() {
+		new Mailbox("test", 0, Mailbox.Backpressure.BLOCK);
+	}
+
+	@Test
+	public void testRunsInOrderOnConsumer() throws InterruptedException {
+		testObject = new Mailbox("test", 100, Mailbox.Backpressure.BLOCK);
+		final List<Integer> result = Collections.synchronizedList(new ArrayList<Integer>());
+		final List<Thread> threads = Collections.synchronizedList(new ArrayList<Thread>());
+		final CountDownLatch done = new CountDownLatch(10);
+		for( int i = 0; i < 10; i++ ) {
+			final int value = i;
+			assertTrue(testObject.post(new Runnable() {
+				@Override
+				public void run() {
+					result.add(value);
+					threads.add(Thread.currentThread());
+					done.countDown();
+				}
+			}));
+		}
+		assertEquals(10, testObject.getDepth());
+		testObject.start();
+		assertTrue(done.await(5, TimeUnit.SECONDS));
+		assertEquals(Integer.valueOf(0), result.get(0));
+		assertEquals(Integer.valueOf(9), result.get(9));
+		for( Thread thread : threads ) {
+			assertEquals("test", thread.getName());
+		}
+		assertEquals(10, testObject.getPosted());
+		assertEquals(10, testObject.getMaxDepth());
+	}
+
+	@Test
+	public void testRejectWhenFull() {
+		testObject = new Mailbox("test", 2, Mailbox.Backpressure.REJECT);
+		Runnable noop = new Runnable() {
+			@Override
+			public void run() {
+			}
+		};
+		assertTrue(testObject.post(noop));
+		assertTrue(testObject.post(noop));
+		assertFalse(testObject.post(noop));
+		assertEquals(1, testObject.getRejected());
+		assertEquals(2, testObject.getDepth());
+		assertEquals(2, testObject.getCapacity());
+	}
+
+	@Test
+	public void testBlockWhenFull() throws InterruptedException {
+		testObject = new Mailbox("test", 1, Mailbox.Backpressure.BLOCK);
+		final CountDownLatch release = new CountDownLatch(1);
+		final CountDownLatch done = new CountDownLatch(3);
+		Runnable slow = new Runnable() {
+			@Override
+			public void run() {
+				try {
+					release.await(5, TimeUnit.SECONDS);
+				} catch( InterruptedException e ) {
+					Thread.currentThread().interrupt();
+				}
+				done.countDown();
+			}
+		};
+		Runnable fast = new Runnable() {
+			@Override
+			public void run() {
+				done.countDown();
+			}
+		};
+		testObject.start();
+		assertTrue(testObject.post(slow));
+		while( 0 < testObject.getDepth() ) {
+			Thread.sleep(1);
+		}
+		assertTrue(testObject.post(fast));
+		Thread producer = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				testObject.post(new Runnable() {
+					@Override
+					public void run() {
+						done.countDown();
+					}
+				});
+			}
+		});
+		producer.start();
+		while( 0 == testObject.getBlocked() ) {
+			Thread.sleep(1);
+		}
+		release.countDown();
+		producer.join(5000);
+		assertTrue(done.await(5, TimeUnit.SECONDS));
+		assertEquals(0, testObject.getRejected());
+		assertEquals(1, testObject.getBlocked());
+		assertEquals(3, testObject.getPosted());
+	}
+
+	@Test
+	public void testConsumerOverflowsWhenFull() throws InterruptedException {
+		testObject = new Mailbox("test", 1, Mailbox.Backpressure.REJECT);
+		final CountDownLatch done = new CountDownLatch(1);
+		final List<String> result = Collections.synchronizedList(new ArrayList<String>());
+		testObject.start();
+		testObject.post(new Runnable() {
+			@Override
+			public void run() {
+				testObject.post(new Runnable() {
+					@Override
+					public void run() {
+						result.add("queued");
+					}
+				});
+				result.add(Boolean.toString(testObject.post(new Runnable() {
+					@Override
+					public void run() {
+						result.add("overflow " + testObject.isConsumerThread());
+						done.countDown();
+					}
+				})));
+				result.add("first");
+			}
+		});
+		assertTrue(done.await(5, TimeUnit.SECONDS));
+		assertEquals("true", result.get(0));
+		assertEquals("first", result.get(1));
+		assertEquals("overflow true", result.get(2));
+		assertEquals(0, testObject.getRejected());
+		assertEquals(1, testObject.getOverflowed());
+		assertEquals(2, testObject.getMaxDepth());
+	}
+
+	@Test
+	public void testInternalNotRejected() throws InterruptedException {
+		testObject = new Mailbox("test", 1, Mailbox.Backpressure.REJECT);
+		final CountDownLatch done = new CountDownLatch(1);
+		Runnable noop = new Runnable() {
+			@Override
+			public void run() {
+			}
+		};
+		assertTrue(testObject.post(noop));
+		assertFalse(testObject.post(noop));
+		Thread producer = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				testObject.postInternal(new Runnable() {
+					@Override
+					public void run() {
+						done.countDown();
+					}
+				});
+			}
+		});
+		producer.start();
+		while( 0 == testObject.getBlocked() ) {
+			Thread.sleep(1);
+		}
+		testObject.start();
+		producer.join(5000);
+		assertTrue(done.await(5, TimeUnit.SECONDS));
+		assertEquals(1, testObject.getRejected());
+		assertEquals(2, testObject.getPosted());
+		assertTrue(testObject.toString().contains("rejected: 1"));
+	}
+
+	@Test
+	public void testExceptionDoesNotStopConsumer() throws InterruptedException {
+		testObject = new Mailbox("test", 10, Mailbox.Backpressure.BLOCK);
+		final CountDownLatch done = new CountDownLatch(1);
+		testObject.start();
+		testObject.post(new Runnable() {
+			@Override
+			public void run() {
+				throw new RuntimeException("test");
+			}
+		});
+		testObject.post(new Runnable() {
+			@Override
+			public void run() {
+				done.countDown();
+			}
+		});
+		assertTrue(done.await(5, TimeUnit.SECONDS));
+		assertTrue(testObject.isRunning());
+	}
+
+}
@@ -0,0 +1,150 @@
+package io.github.scrier.opus.common.message;
+
+import static org.junit.Assert.*;
+import static org.mockito.Matchers.any;
+
+import io.github.scrier.opus.common.Constants;
+import io.github.scrier.opus.common.TestHelper;
+import io.github.scrier.opus.common.nuke.NukeExecuteIndMsgC;
+import io.github.scrier.opus.common.nuke.NukeMsgFactory;
+
+import org.apache.logging.log4j.Level;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.ITopic;
+import com.hazelcast.core.MessageListener;
+import com.hazelcast.nio.serialization.IdentifiedDataSerializable;
+
+public class MessageServiceTest {
+	
+	private HazelcastInstance instance;
+	private MessageIF messageIF;
+	private ITopic<IdentifiedDataSerializable> broadcast;
+	private ITopic<IdentifiedDataSerializable> inbox;
+	private ITopic<IdentifiedDataSerializable> otherInbox;
+	private long identity = 3216548L;
+	private long other = 9876543L;
+	private int factoryID = NukeMsgFactory.FACTORY_ID;
+
+	@BeforeClass
+	public static void setupClass() {
+		TestHelper.INSTANCE.setLogLevel(Level.TRACE);
+	}
+
+	@SuppressWarnings("unchecked")
+	@Before
+	public void setUp() throws Exception {
+		instance = Mockito.mock(HazelcastInstance.class);
+		messageIF = Mockito.mock(MessageIF.class);
+		broadcast = Mockito.mock(ITopic.class);
+		inbox = Mockito.mock(ITopic.class);
+		otherInbox = Mockito.mock(ITopic.class);
+		Mockito.when(messageIF.getInstance()).thenReturn(instance);
+		Mockito.when(instance.getTopic(Integer.toString(factoryID))).thenReturn((ITopic)broadcast);
+		Mockito.when(instance.getTopic(MessageService.getInboxName(factoryID, identity))).thenReturn((ITopic)inbox);
+		Mockito.when(instance.getTopic(MessageService.getInboxName(factoryID, other))).thenReturn((ITopic)otherInbox);
+		Mockito.when(broadcast.addMessageListener(any(MessageListener.class))).thenReturn("broadcast");
+		Mockito.when(inbox.addMessageListener(any(MessageListener.class))).thenReturn("inbox");
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		instance = null;
+		messageIF = null;
+	}
+	
+	@Test
+	public void testInboxName() {
+		assertEquals(factoryID + "." + identity, MessageService.getInboxName(factoryID, identity));
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void testRegisterOnFactory() {
+		MessageService testObject = new MessageService(messageIF, identity);
+		assertTrue(testObject.registerOnFactory(factoryID));
+		assertFalse(testObject.registerOnFactory(factoryID));
+		Mockito.verify(broadcast).addMessageListener(testObject);
+		Mockito.verify(inbox).addMessageListener(testObject);
+		Mockito.verify(otherInbox, Mockito.never()).addMessageListener(any(MessageListener.class));
+	}
+	
+	@SuppressWarnings("unchecked")
+	@Test
+	public void testRegisterOnFactoryWithoutIdentity() {
+		MessageService testObject = new MessageService(messageIF);
+		assertTrue(testObject.registerOnFactory(factoryID));
+		Mockito.verify(broadcast).addMessageListener(testObject);
+		Mockito.verify(inbox, Mockito.never()).addMessageListener(any(MessageListener.class));
+	}
+	
+	@Test
+	public void testUnRegisterOnFactory() {
+		MessageService testObject = new MessageService(messageIF, identity);
+		assertFalse(testObject.unRegisterOnFactory(factoryID));
+		assertTrue(testObject.registerOnFactory(factoryID));
+		assertTrue(testObject.unRegisterOnFactory(factoryID));
+		Mockito.verify(broadcast).removeMessageListener("broadcast");
+		Mockito.verify(inbox).removeMessageListener("inbox");
+		Mockito.verify(inbox).destroy();
+		Mockito.verify(broadcast, Mockito.never()).destroy();
+		assertFalse(testObject.unRegisterOnFactory(factoryID));
+	}
+	
+	@Test
+	public void testPublishToDestination() {
+		MessageService testObject = new MessageService(messageIF, identity);
+		testObject.registerOnFactory(factoryID);
+		NukeExecuteIndMsgC message = new NukeExecuteIndMsgC(testObject);
+		message.setSource(identity);
+		message.setDestination(other);
+		message.send();
+		message.send();
+		Mockito.verify(otherInbox, Mockito.times(2)).publish(message);
+		Mockito.verify(broadcast, Mockito.never()).publish(message);
+		Mockito.verify(instance, Mockito.times(1)).getTopic(MessageService.getInboxName(factoryID, other));
+	}
+	
+	@SuppressWarnings("unchecked")
+	@Test
+	public void testDestinationsBounded() {
+		Mockito.when(instance.getTopic(Mockito.anyString())).thenReturn((ITopic)otherInbox);
+		MessageService testObject = new MessageService(messageIF, identity);
+		testObject.registerOnFactory(factoryID);
+		for( long destination = 1; destination <= MessageService.DESTINATIONS_SIZE + 1; destination++ ) {
+			testObject.getInbox(factoryID, destination);
+		}
+		testObject.getInbox(factoryID, MessageService.DESTINATIONS_SIZE + 1);
+		Mockito.verify(instance, Mockito.times(1)).getTopic(MessageService.getInboxName(factoryID, MessageService.DESTINATIONS_SIZE + 1));
+		testObject.getInbox(factoryID, 1);
+		Mockito.verify(instance, Mockito.times(2)).getTopic(MessageService.getInboxName(factoryID, 1));
+	}
+	
+	@Test
+	public void testPublishToAll() {
+		MessageService testObject = new MessageService(messageIF, identity);
+		testObject.registerOnFactory(factoryID);
+		NukeExecuteIndMsgC message = new NukeExecuteIndMsgC(testObject);
+		message.setSource(identity);
+		message.setDestination(Constants.MSG_TO_ALL);
+		message.send();
+		Mockito.verify(broadcast).publish(message);
+		Mockito.verify(otherInbox, Mockito.never()).publish(message);
+	}
+	
+	@Test
+	public void testPublishNotRegistered() {
+		MessageService testObject = new MessageService(messageIF, identity);
+		NukeExecuteIndMsgC message = new NukeExecuteIndMsgC(testObject);
+		message.setDestination(other);
+		message.send();
+		Mockito.verify(otherInbox, Mockito.never()).publish(message);
+		Mockito.verify(broadcast, Mockito.never()).publish(message);
+	}
+
+}
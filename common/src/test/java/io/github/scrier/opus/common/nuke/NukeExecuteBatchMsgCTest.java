@@ -0,0 +1,181 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ * @author Andreas Joelsson (andreas.joelsson@gmail.com)
+ */
+package io.github.scrier.opus.common.nuke;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import io.github.scrier.opus.common.ObjectDataInputMock;
+import io.github.scrier.opus.common.ObjectDataOutputMock;
+import io.github.scrier.opus.common.message.BaseMsgC;
+
+import org.junit.Test;
+
+public class NukeExecuteBatchMsgCTest {
+
+	@Test
+	public void testBatchReqDefaultConstructor() {
+		NukeExecuteBatchReqMsgC testObject = new NukeExecuteBatchReqMsgC();
+		assertEquals(NukeMsgFactory.FACTORY_ID, testObject.getFactoryId());
+		assertEquals(NukeMsgFactory.NUKE_EXECUTE_BATCH_REQ, testObject.getId());
+		assertEquals("", testObject.getCommand());
+		assertEquals("", testObject.getFolder());
+		assertEquals(false, testObject.isRepeated());
+		assertEquals(0, testObject.getNoOfUsers());
+	}
+
+	@Test
+	public void testBatchReqReadWrite() throws IOException {
+		NukeExecuteBatchReqMsgC inputObject = new NukeExecuteBatchReqMsgC();
+		inputObject.setSource(1212L);
+		inputObject.setDestination(2323L);
+		inputObject.setTxID(3434);
+		inputObject.setSagaID(4545L);
+		inputObject.setCommand("command");
+		inputObject.setFolder("folder");
+		inputObject.setRepeated(true);
+		inputObject.setNoOfUsers(500);
+		ObjectDataOutputMock out = new ObjectDataOutputMock();
+		inputObject.writeData(out);
+		out.close();
+		ObjectDataInputMock in = new ObjectDataInputMock(out.getTempFile());
+		NukeExecuteBatchReqMsgC testObject = new NukeExecuteBatchReqMsgC();
+		testObject.readData(in);
+		assertEquals(inputObject.getSource(), testObject.getSource());
+		assertEquals(inputObject.getDestination(), testObject.getDestination());
+		assertEquals(inputObject.getTxID(), testObject.getTxID());
+		assertEquals(inputObject.getSagaID(), testObject.getSagaID());
+		assertEquals(inputObject.getCommand(), testObject.getCommand());
+		assertEquals(inputObject.getFolder(), testObject.getFolder());
+		assertEquals(inputObject.isRepeated(), testObject.isRepeated());
+		assertEquals(inputObject.getNoOfUsers(), testObject.getNoOfUsers());
+		assertEquals(true, in.remove());
+	}
+
+	@Test
+	public void testBatchReqCastConstructor() {
+		NukeExecuteBatchReqMsgC inputObject = new NukeExecuteBatchReqMsgC();
+		inputObject.setNoOfUsers(12);
+		NukeExecuteBatchReqMsgC testObject = new NukeExecuteBatchReqMsgC((BaseMsgC)inputObject);
+		assertEquals(12, testObject.getNoOfUsers());
+	}
+
+	@Test(expected=ClassCastException.class)
+	public void testBatchReqInvalidCastConstructor() {
+		new NukeExecuteBatchReqMsgC(new NukeExecuteReqMsgC());
+	}
+
+	@Test
+	public void testBatchRspReadWrite() throws IOException {
+		NukeExecuteBatchRspMsgC inputObject = new NukeExecuteBatchRspMsgC();
+		inputObject.setSource(1212L);
+		inputObject.setDestination(2323L);
+		inputObject.setTxID(3434);
+		inputObject.setProcessIDs(Arrays.asList(1L, 2L, 3L));
+		ObjectDataOutputMock out = new ObjectDataOutputMock();
+		inputObject.writeData(out);
+		out.close();
+		ObjectDataInputMock in = new ObjectDataInputMock(out.getTempFile());
+		NukeExecuteBatchRspMsgC testObject = new NukeExecuteBatchRspMsgC();
+		testObject.readData(in);
+		assertEquals(inputObject.getSource(), testObject.getSource());
+		assertEquals(inputObject.getTxID(), testObject.getTxID());
+		assertEquals(inputObject.getProcessIDs(), testObject.getProcessIDs());
+		assertEquals(true, in.remove());
+	}
+
+	@Test
+	public void testBatchRspCopyConstructor() {
+		NukeExecuteBatchRspMsgC inputObject = new NukeExecuteBatchRspMsgC();
+		inputObject.setProcessIDs(Arrays.asList(1L, 2L));
+		NukeExecuteBatchRspMsgC testObject = new NukeExecuteBatchRspMsgC((BaseMsgC)inputObject);
+		assertEquals(inputObject.getProcessIDs(), testObject.getProcessIDs());
+		assertNotSame(inputObject.getProcessIDs(), testObject.getProcessIDs());
+	}
+
+	@Test(expected=ClassCastException.class)
+	public void testBatchRspInvalidCastConstructor() {
+		new NukeExecuteBatchRspMsgC(new NukeExecuteRspMsgC());
+	}
+
+	@Test
+	public void testBatchIndReadWrite() throws IOException {
+		NukeExecuteBatchIndMsgC inputObject = new NukeExecuteBatchIndMsgC();
+		inputObject.setSource(1212L);
+		inputObject.setDestination(2323L);
+		inputObject.setTxID(3434);
+		inputObject.setSagaID(4545L);
+		inputObject.addStatus(1L, CommandState.WORKING);
+		inputObject.addStatus(2L, CommandState.DONE);
+		inputObject.addStatus(3L, CommandState.ABORTED);
+		ObjectDataOutputMock out = new ObjectDataOutputMock();
+		inputObject.writeData(out);
+		out.close();
+		ObjectDataInputMock in = new ObjectDataInputMock(out.getTempFile());
+		NukeExecuteBatchIndMsgC testObject = new NukeExecuteBatchIndMsgC();
+		testObject.readData(in);
+		assertEquals(inputObject.getSource(), testObject.getSource());
+		assertEquals(inputObject.getSagaID(), testObject.getSagaID());
+		assertEquals(inputObject.getProcessIDs(), testObject.getProcessIDs());
+		assertEquals(inputObject.getStatuses(), testObject.getStatuses());
+		assertEquals(true, in.remove());
+	}
+
+	@Test
+	public void testBatchIndGetIndication() {
+		NukeExecuteBatchIndMsgC inputObject = new NukeExecuteBatchIndMsgC();
+		inputObject.setSource(1212L);
+		inputObject.setDestination(2323L);
+		inputObject.setTxID(3434);
+		inputObject.setSagaID(4545L);
+		inputObject.addStatus(7L, CommandState.WORKING);
+		inputObject.addStatus(8L, CommandState.DONE);
+		assertEquals(2, inputObject.size());
+		NukeExecuteIndMsgC testObject = inputObject.getIndication(1);
+		assertEquals(1212L, testObject.getSource());
+		assertEquals(2323L, testObject.getDestination());
+		assertEquals(3434, testObject.getTxID());
+		assertEquals(4545L, testObject.getSagaID());
+		assertEquals(8L, testObject.getProcessID());
+		assertEquals(CommandState.DONE, testObject.getStatus());
+	}
+
+	@Test
+	public void testBatchIndCopyConstructor() {
+		NukeExecuteBatchIndMsgC inputObject = new NukeExecuteBatchIndMsgC();
+		inputObject.addStatus(1L, CommandState.QUERY);
+		NukeExecuteBatchIndMsgC testObject = new NukeExecuteBatchIndMsgC((BaseMsgC)inputObject);
+		assertEquals(inputObject.getProcessIDs(), testObject.getProcessIDs());
+		assertEquals(inputObject.getStatuses(), testObject.getStatuses());
+		assertNotSame(inputObject.getStatuses(), testObject.getStatuses());
+	}
+
+	@Test(expected=ClassCastException.class)
+	public void testBatchIndInvalidCastConstructor() {
+		new NukeExecuteBatchIndMsgC(new NukeExecuteIndMsgC());
+	}
+
+	@Test
+	public void testFactoryCreate() {
+		NukeMsgFactory factory = new NukeMsgFactory();
+		assertTrue(factory.create(NukeMsgFactory.NUKE_EXECUTE_BATCH_REQ) instanceof NukeExecuteBatchReqMsgC);
+		assertTrue(factory.create(NukeMsgFactory.NUKE_EXECUTE_BATCH_RSP) instanceof NukeExecuteBatchRspMsgC);
+		assertTrue(factory.create(NukeMsgFactory.NUKE_EXECUTE_BATCH_IND) instanceof NukeExecuteBatchIndMsgC);
+	}
+
+}
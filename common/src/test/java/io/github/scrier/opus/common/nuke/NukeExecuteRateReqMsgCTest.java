@@ -0,0 +1,90 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ * @author Andreas Joelsson (andreas.joelsson@gmail.com)
+ */
+package io.github.scrier.opus.common.nuke;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+
+import io.github.scrier.opus.common.ObjectDataInputMock;
+import io.github.scrier.opus.common.ObjectDataOutputMock;
+import io.github.scrier.opus.common.message.BaseMsgC;
+
+import org.junit.Test;
+
+public class NukeExecuteRateReqMsgCTest {
+
+	@Test
+	public void testDefaultConstructor() {
+		NukeExecuteRateReqMsgC testObject = new NukeExecuteRateReqMsgC();
+		assertEquals(NukeMsgFactory.FACTORY_ID, testObject.getFactoryId());
+		assertEquals(NukeMsgFactory.NUKE_EXECUTE_RATE_REQ, testObject.getId());
+		assertEquals("", testObject.getCommand());
+		assertEquals("", testObject.getFolder());
+		assertEquals(0.0, testObject.getRate(), 0.0);
+		assertEquals(0, testObject.getMaxInFlight());
+	}
+
+	@Test
+	public void testReadWrite() throws IOException {
+		NukeExecuteRateReqMsgC inputObject = new NukeExecuteRateReqMsgC();
+		inputObject.setSource(1212L);
+		inputObject.setDestination(2323L);
+		inputObject.setTxID(3434);
+		inputObject.setSagaID(4545L);
+		inputObject.setCommand("command");
+		inputObject.setFolder("folder");
+		inputObject.setRate(12.5);
+		inputObject.setMaxInFlight(300);
+		ObjectDataOutputMock out = new ObjectDataOutputMock();
+		inputObject.writeData(out);
+		out.close();
+		ObjectDataInputMock in = new ObjectDataInputMock(out.getTempFile());
+		NukeExecuteRateReqMsgC testObject = new NukeExecuteRateReqMsgC();
+		testObject.readData(in);
+		assertEquals(inputObject.getSource(), testObject.getSource());
+		assertEquals(inputObject.getDestination(), testObject.getDestination());
+		assertEquals(inputObject.getTxID(), testObject.getTxID());
+		assertEquals(inputObject.getSagaID(), testObject.getSagaID());
+		assertEquals(inputObject.getCommand(), testObject.getCommand());
+		assertEquals(inputObject.getFolder(), testObject.getFolder());
+		assertEquals(inputObject.getRate(), testObject.getRate(), 0.0);
+		assertEquals(inputObject.getMaxInFlight(), testObject.getMaxInFlight());
+		assertEquals(true, in.remove());
+	}
+
+	@Test
+	public void testCastConstructor() {
+		NukeExecuteRateReqMsgC inputObject = new NukeExecuteRateReqMsgC();
+		inputObject.setRate(0.5);
+		inputObject.setMaxInFlight(7);
+		NukeExecuteRateReqMsgC testObject = new NukeExecuteRateReqMsgC((BaseMsgC)inputObject);
+		assertEquals(0.5, testObject.getRate(), 0.0);
+		assertEquals(7, testObject.getMaxInFlight());
+	}
+
+	@Test(expected=ClassCastException.class)
+	public void testInvalidCastConstructor() {
+		new NukeExecuteRateReqMsgC(new NukeExecuteReqMsgC());
+	}
+
+	@Test
+	public void testFactory() {
+		NukeMsgFactory factory = new NukeMsgFactory();
+		assertTrue(factory.create(NukeMsgFactory.NUKE_EXECUTE_RATE_REQ) instanceof NukeExecuteRateReqMsgC);
+	}
+
+}
@@ -0,0 +1,90 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ * @author Andreas Joelsson (andreas.joelsson@gmail.com)
+ */
+package io.github.scrier.opus.common.nuke;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+
+import io.github.scrier.opus.common.ObjectDataInputMock;
+import io.github.scrier.opus.common.ObjectDataOutputMock;
+import io.github.scrier.opus.common.message.BaseMsgC;
+
+import org.junit.Test;
+
+public class NukeExecuteTargetReqMsgCTest {
+
+	@Test
+	public void testDefaultConstructor() {
+		NukeExecuteTargetReqMsgC testObject = new NukeExecuteTargetReqMsgC();
+		assertEquals(NukeMsgFactory.FACTORY_ID, testObject.getFactoryId());
+		assertEquals(NukeMsgFactory.NUKE_EXECUTE_TARGET_REQ, testObject.getId());
+		assertEquals("", testObject.getCommand());
+		assertEquals("", testObject.getFolder());
+		assertEquals(0, testObject.getTarget());
+		assertEquals(0, testObject.getRampSeconds());
+	}
+
+	@Test
+	public void testReadWrite() throws IOException {
+		NukeExecuteTargetReqMsgC inputObject = new NukeExecuteTargetReqMsgC();
+		inputObject.setSource(1212L);
+		inputObject.setDestination(2323L);
+		inputObject.setTxID(3434);
+		inputObject.setSagaID(4545L);
+		inputObject.setCommand("command");
+		inputObject.setFolder("folder");
+		inputObject.setTarget(2500);
+		inputObject.setRampSeconds(300);
+		ObjectDataOutputMock out = new ObjectDataOutputMock();
+		inputObject.writeData(out);
+		out.close();
+		ObjectDataInputMock in = new ObjectDataInputMock(out.getTempFile());
+		NukeExecuteTargetReqMsgC testObject = new NukeExecuteTargetReqMsgC();
+		testObject.readData(in);
+		assertEquals(inputObject.getSource(), testObject.getSource());
+		assertEquals(inputObject.getDestination(), testObject.getDestination());
+		assertEquals(inputObject.getTxID(), testObject.getTxID());
+		assertEquals(inputObject.getSagaID(), testObject.getSagaID());
+		assertEquals(inputObject.getCommand(), testObject.getCommand());
+		assertEquals(inputObject.getFolder(), testObject.getFolder());
+		assertEquals(inputObject.getTarget(), testObject.getTarget());
+		assertEquals(inputObject.getRampSeconds(), testObject.getRampSeconds());
+		assertEquals(true, in.remove());
+	}
+
+	@Test
+	public void testCastConstructor() {
+		NukeExecuteTargetReqMsgC inputObject = new NukeExecuteTargetReqMsgC();
+		inputObject.setTarget(5);
+		inputObject.setRampSeconds(7);
+		NukeExecuteTargetReqMsgC testObject = new NukeExecuteTargetReqMsgC((BaseMsgC)inputObject);
+		assertEquals(5, testObject.getTarget());
+		assertEquals(7, testObject.getRampSeconds());
+	}
+
+	@Test(expected=ClassCastException.class)
+	public void testInvalidCastConstructor() {
+		new NukeExecuteTargetReqMsgC(new NukeExecuteReqMsgC());
+	}
+
+	@Test
+	public void testFactory() {
+		NukeMsgFactory factory = new NukeMsgFactory();
+		assertTrue(factory.create(NukeMsgFactory.NUKE_EXECUTE_TARGET_REQ) instanceof NukeExecuteTargetReqMsgC);
+	}
+
+}
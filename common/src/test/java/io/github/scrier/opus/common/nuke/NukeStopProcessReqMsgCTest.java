@@ -0,0 +1,70 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ * @author Andreas Joelsson (andreas.joelsson@gmail.com)
+ */
+package io.github.scrier.opus.common.nuke;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import io.github.scrier.opus.common.ObjectDataInputMock;
+import io.github.scrier.opus.common.ObjectDataOutputMock;
+import io.github.scrier.opus.common.message.BaseMsgC;
+
+import org.junit.Test;
+
+public class NukeStopProcessReqMsgCTest {
+
+	@Test
+	public void testDefaultConstructor() {
+		NukeStopProcessReqMsgC testObject = new NukeStopProcessReqMsgC();
+		assertEquals(NukeMsgFactory.FACTORY_ID, testObject.getFactoryId());
+		assertEquals(NukeMsgFactory.NUKE_STOP_PROCESS_REQ, testObject.getId());
+		assertTrue(testObject.getProcessIDs().isEmpty());
+	}
+
+	@Test
+	public void testFactory() {
+		assertTrue(new NukeMsgFactory().create(NukeMsgFactory.NUKE_STOP_PROCESS_REQ) instanceof NukeStopProcessReqMsgC);
+	}
+
+	@Test
+	public void testReadWrite() throws IOException {
+		NukeStopProcessReqMsgC inputObject = new NukeStopProcessReqMsgC();
+		inputObject.setSource(1212L);
+		inputObject.setDestination(2323L);
+		inputObject.setTxID(3434);
+		inputObject.setSagaID(4545L);
+		inputObject.setProcessIDs(Arrays.asList(30L, 10L, 20L));
+		ObjectDataOutputMock out = new ObjectDataOutputMock();
+		inputObject.writeData(out);
+		out.close();
+		ObjectDataInputMock in = new ObjectDataInputMock(out.getTempFile());
+		NukeStopProcessReqMsgC testObject = new NukeStopProcessReqMsgC();
+		testObject.readData(in);
+		assertEquals(inputObject.getSource(), testObject.getSource());
+		assertEquals(inputObject.getTxID(), testObject.getTxID());
+		assertEquals(inputObject.getSagaID(), testObject.getSagaID());
+		assertEquals(inputObject.getProcessIDs(), testObject.getProcessIDs());
+		assertEquals(true, in.remove());
+	}
+
+	@Test(expected=ClassCastException.class)
+	public void testInvalidCastConstructor() {
+		new NukeStopProcessReqMsgC((BaseMsgC)new NukeStopAllReqMsgC());
+	}
+
+}
@@ -40,14 +40,18 @@ public class DukeAOC extends BaseActiveObject {
 	
 	public DukeAOC(HazelcastInstance instance) {
 		super(instance);
-		log.trace("DukeRunner(" + instance + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("DukeRunner(" + instance + ")");
+		}
 		commander = null;
 		settings = new XmlSettings();
 	}
 	
 	public DukeAOC(HazelcastInstance instance, String xmlFile) {
 		super(instance);
-		log.trace("DukeRunner(" + instance + ", " + xmlFile + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("DukeRunner(" + instance + ", " + xmlFile + ")");
+		}
 		commander = null;
 		settings = new XmlSettings(xmlFile);
 	}
@@ -59,6 +63,7 @@ public class DukeAOC extends BaseActiveObject {
 	public void init() {
 		log.trace("init()");
 		commander = new DukeCommander(getInstance());
+		commander.setDispatcher(getMailbox());
 		Context.INSTANCE.init(commander, this);
 		if( true != registerOnFactory(DukeMsgFactory.FACTORY_ID) ) {
 			log.fatal("Unable to register on factory message. " + DukeMsgFactory.FACTORY_ID + ", cannot continue.");
@@ -97,6 +102,7 @@ public class DukeAOC extends BaseActiveObject {
 		}
 		commander.shutDown();
 		Context.INSTANCE.shutDown();
+		stopMailbox();
 		getInstance().getLifecycleService().shutdown();
 		log.info("System exit.");
 		System.exit(0);
@@ -107,7 +113,9 @@ public class DukeAOC extends BaseActiveObject {
 	 */
 	@Override
   public void handleInMessage(BaseMsgC message) {
-		log.trace("handleInMessage(" + message + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("handleInMessage(" + message + ")");
+		}
 	  try {
 	    commander.handleInMessage(message);
     } catch (InvalidOperationException e) {
@@ -26,12 +26,16 @@ public class Main {
 	private static Logger log = LogManager.getLogger(Main.class);
 
 	public static void main(String[] args) {
-		log.trace("main(" + args + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("main(" + args + ")");
+		}
 		new Main(args);
 	}
 	
 	public Main(String[] args) {
-		log.trace("Main(" + args + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("Main(" + args + ")");
+		}
 		HazelcastInstance instance = HazelcastClient.newHazelcastClient(null);
 		
 		for( String str : args ) {
@@ -17,6 +17,7 @@ package io.github.scrier.opus.duke.commander;
 
 import java.util.concurrent.TimeUnit;
 
+import io.github.scrier.opus.common.Constants;
 import io.github.scrier.opus.common.commander.BaseProcedureC;
 import io.github.scrier.opus.common.data.BaseDataC;
 import io.github.scrier.opus.common.exception.InvalidOperationException;
@@ -58,7 +59,9 @@ public abstract class BaseDukeProcedure extends BaseProcedureC {
 	}
 
 	public boolean registerProcedure(BaseDukeProcedure procedure) {
-		log.trace("registerProcedure(" + procedure + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("registerProcedure(" + procedure + ")");
+		}
 		return theContext.registerProcedure(procedure);
 	}
 
@@ -88,19 +91,23 @@ public abstract class BaseDukeProcedure extends BaseProcedureC {
 	 * @param callback ITimeOutCallback interface to call.
 	 */
 	public void startTimeout(int time, long id, ITimeOutCallback callback) {
-		log.trace("startTimeout(" + time + ", " + id + ", " + callback + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("startTimeout(" + time + ", " + id + ", " + callback + ")");
+		}
 		theContext.startTimeout(time, id, callback);
 	}
 
 	/**
 	 * Method to start a timeout in the service.
-	 * @param time int with the time in the specified format.
+	 * @param time long with the time in the specified format.
 	 * @param id long with unique id to get returned.
 	 * @param callback ITimeOutCallback interface to call.
 	 * @param timeUnit TimeUnit format to schedule timeout in.
 	 */
-	public void startTimeout(int time, long id, ITimeOutCallback callback, TimeUnit timeUnit) {
-		log.trace("startTimeout(" + time + ", " + id + ", " + callback + ", " + timeUnit + ")");
+	public void startTimeout(long time, long id, ITimeOutCallback callback, TimeUnit timeUnit) {
+		if( log.isTraceEnabled() ) {
+			log.trace("startTimeout(" + time + ", " + id + ", " + callback + ", " + timeUnit + ")");
+		}
 		theContext.startTimeout(time, id, callback, timeUnit);
 	}
 	
@@ -110,7 +117,9 @@ public abstract class BaseDukeProcedure extends BaseProcedureC {
 	 * @return boolean if exists and successfully terminate the timeout.
 	 */
 	public boolean terminateTimeout(long id) {
-		log.trace("terminateTimeout(" + id + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("terminateTimeout(" + id + ")");
+		}
 		return theContext.terminateTimeout(id);
 	}
 	
@@ -128,10 +137,36 @@ public abstract class BaseDukeProcedure extends BaseProcedureC {
 	 * @return boolean
 	 */
 	public boolean isTimeoutActive(long id) {
-		log.trace("isTimeoutActive(" + id + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("isTimeoutActive(" + id + ")");
+		}
 		return theContext.isTimeoutActive(id);
 	}
 
+	/**
+	 * Method to tell if the procedure only wants the messages matching its
+	 * txID, processID or sagaID. Procedures that are not routed receives
+	 * every message that passes the commander.
+	 * @return boolean
+	 */
+	public boolean isRouted() {
+		return false;
+	}
+
+	/**
+	 * @return the processID to route messages on, Constants.HC_UNDEFINED if none.
+	 */
+	public long getRoutingProcessID() {
+		return Constants.HC_UNDEFINED;
+	}
+
+	/**
+	 * @return the sagaID to route messages on, Constants.HC_UNDEFINED if none.
+	 */
+	public long getRoutingSagaID() {
+		return Constants.HC_UNDEFINED;
+	}
+
 	/**
 	 * @return the commander
 	 */
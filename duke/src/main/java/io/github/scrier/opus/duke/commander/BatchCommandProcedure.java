@@ -0,0 +1,499 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * @author Andreas Joelsson (andreas.joelsson@gmail.com)
+ */
+package io.github.scrier.opus.duke.commander;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import io.github.scrier.opus.common.TypedDispatcher;
+import io.github.scrier.opus.common.data.BaseDataC;
+import io.github.scrier.opus.common.message.BaseMsgC;
+import io.github.scrier.opus.common.nuke.CommandState;
+import io.github.scrier.opus.common.nuke.NukeExecuteBatchReqMsgC;
+import io.github.scrier.opus.common.nuke.NukeExecuteBatchRspMsgC;
+import io.github.scrier.opus.common.nuke.NukeExecuteBatchIndMsgC;
+import io.github.scrier.opus.common.nuke.NukeExecuteIndMsgC;
+import io.github.scrier.opus.common.nuke.NukeMsgFactory;
+import io.github.scrier.opus.common.nuke.NukeStopProcessReqMsgC;
+
+/**
+ * Procedure starting a number of users with the same command on one nuke
+ * through a single NukeExecuteBatchReqMsgC, and following the state of
+ * every started process until all of them are finished.
+ */
+public class BatchCommandProcedure extends BaseDukeProcedure {
+
+	private static Logger log = LogManager.getLogger(BatchCommandProcedure.class);
+	
+	private static final TypedDispatcher<BatchCommandProcedure> dispatcher = new TypedDispatcher<BatchCommandProcedure>();
+	
+	static {
+		dispatcher.register(NukeMsgFactory.FACTORY_ID, NukeMsgFactory.NUKE_EXECUTE_BATCH_RSP, NukeExecuteBatchRspMsgC.class,
+				new TypedDispatcher.Handler<BatchCommandProcedure, NukeExecuteBatchRspMsgC>() {
+			@Override
+			public void handle(BatchCommandProcedure target, NukeExecuteBatchRspMsgC message) {
+				log.debug("[" + target.getTxID() + "] Received NUKE_EXECUTE_BATCH_RSP message.");
+				target.handleMessage(message);
+			}
+		});
+		dispatcher.register(NukeMsgFactory.FACTORY_ID, NukeMsgFactory.NUKE_EXECUTE_IND, NukeExecuteIndMsgC.class,
+				new TypedDispatcher.Handler<BatchCommandProcedure, NukeExecuteIndMsgC>() {
+			@Override
+			public void handle(BatchCommandProcedure target, NukeExecuteIndMsgC message) {
+				log.debug("[" + target.getTxID() + "] Received NUKE_EXECUTE_IND message.");
+				target.handleMessage(message);
+			}
+		});
+		dispatcher.register(NukeMsgFactory.FACTORY_ID, NukeMsgFactory.NUKE_EXECUTE_BATCH_IND, NukeExecuteBatchIndMsgC.class,
+				new TypedDispatcher.Handler<BatchCommandProcedure, NukeExecuteBatchIndMsgC>() {
+			@Override
+			public void handle(BatchCommandProcedure target, NukeExecuteBatchIndMsgC message) {
+				log.debug("[" + target.getTxID() + "] Received NUKE_EXECUTE_BATCH_IND message.");
+				target.handleMessage(message);
+			}
+		});
+	}
+
+	public final int INITIALIZING = CREATED + 1;
+	public final int WORKING =      CREATED + 2;
+
+	private long destination;
+	private String command;
+	private String folder;
+	private boolean repeated;
+	private int noOfUsers;
+	private long sagaID;
+	private Map<Long, CommandState> processes;
+	private Set<Long> stoppedProcesses;
+	private int finishedProcesses;
+	private int abortedProcesses;
+
+	/**
+	 * Constructor
+	 * @param destination long with the id of the nuke to call.
+	 * @param command String with the command to execute.
+	 * @param folder String with the folder to execute the command from.
+	 * @param repeated boolean if the command should be repeated or not.
+	 * @param noOfUsers int with the number of users to start.
+	 */
+	public BatchCommandProcedure(long destination, String command, String folder, boolean repeated, int noOfUsers) {
+		if( log.isTraceEnabled() ) {
+			log.trace("BatchCommandProcedure(" + destination + ", \"" + command + "\", \"" + folder + "\", " + repeated + ", " + noOfUsers + ")");
+		}
+		setDestination(destination);
+		setCommand(command);
+		setFolder(folder);
+		setRepeated(repeated);
+		setNoOfUsers(noOfUsers);
+		setSagaID(getNextSagaID());
+		processes = new HashMap<Long, CommandState>();
+		stoppedProcesses = new HashSet<Long>();
+		finishedProcesses = 0;
+		abortedProcesses = 0;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void init() throws Exception {
+		log.trace("init()");
+		NukeExecuteBatchReqMsgC pNukeExecuteBatchReq = new NukeExecuteBatchReqMsgC(getSendIF());
+		pNukeExecuteBatchReq.setTxID(getTxID());
+		pNukeExecuteBatchReq.setSagaID(getSagaID());
+		pNukeExecuteBatchReq.setSource(getIdentity());
+		pNukeExecuteBatchReq.setDestination(getDestination());
+		pNukeExecuteBatchReq.setCommand(getCommand());
+		pNukeExecuteBatchReq.setFolder(getFolder());
+		pNukeExecuteBatchReq.setRepeated(isRepeated());
+		pNukeExecuteBatchReq.setNoOfUsers(getNoOfUsers());
+		pNukeExecuteBatchReq.send();
+		setState(INITIALIZING);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void shutDown() throws Exception {
+		log.trace("shutDown()");
+		log.debug("[" + getTxID() + "] Batch of " + getNoOfUsers() + " users to " + getDestination() + " finished with " + getAbortedProcesses() + " aborted.");
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int handleOnUpdated(BaseDataC data) {
+		if( log.isTraceEnabled() ) {
+			log.trace("handleOnUpdated(" + data + ")");
+		}
+		return getState();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int handleOnEvicted(BaseDataC data) {
+		if( log.isTraceEnabled() ) {
+			log.trace("handleOnEvicted(" + data + ")");
+		}
+		return getState();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int handleOnRemoved(Long key) {
+		if( log.isTraceEnabled() ) {
+			log.trace("handleOnRemoved(" + key + ")");
+		}
+		return getState();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int handleInMessage(BaseMsgC message) {
+		if( log.isTraceEnabled() ) {
+			log.trace("handleInMessage(" + message + ")");
+		}
+		dispatcher.dispatch(this, message);
+		return getState();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean isRouted() {
+		return true;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long getRoutingSagaID() {
+		return getSagaID();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String toString() {
+		String retValue = "BatchCommandProcedure{destination:" + getDestination();
+		retValue += ", command:" + getCommand();
+		retValue += ", repeated:" + isRepeated();
+		retValue += ", folder:" + getFolder();
+		retValue += ", noOfUsers:" + getNoOfUsers();
+		retValue += ", finished:" + getFinishedProcesses() + "}";
+		return retValue;
+	}
+
+	/**
+	 * Method to handle the NukeExecuteBatchRspMsgC message.
+	 * @param message NukeExecuteBatchRspMsgC instance
+	 */
+	protected void handleMessage(NukeExecuteBatchRspMsgC message) {
+		if( log.isTraceEnabled() ) {
+			log.trace("handleMessage(" + message + ")");
+		}
+		if( getTxID() != message.getTxID() ) {
+			log.debug("[" + getTxID() + "] Wrong txid. expected: " + getTxID() + ", but was: " + message.getTxID() + ".");
+		} else if( INITIALIZING != getState() ) {
+			log.error("[" + getTxID() + "] Received NukeExecuteBatchRspMsgC in wrong state: " + getState() + ", expected: " + INITIALIZING + ".");
+			setState(ABORTED);
+		} else if( getNoOfUsers() != message.getProcessIDs().size() ) {
+			log.error("[" + getTxID() + "] Requested " + getNoOfUsers() + " users, but nuke started " + message.getProcessIDs().size() + ".");
+			setState(ABORTED);
+		} else {
+			log.debug("[" + getTxID() + "] Received " + message.getProcessIDs().size() + " process ids.");
+			for( Long processID : message.getProcessIDs() ) {
+				processes.put(processID, CommandState.UNDEFINED);
+			}
+			setState(( 0 == getNoOfUsers() ) ? COMPLETED : WORKING);
+		}
+	}
+
+	/**
+	 * Method to handle the NukeExecuteIndMsgC message.
+	 * @param message NukeExecuteIndMsgC instance
+	 */
+	protected void handleMessage(NukeExecuteIndMsgC message) {
+		if( log.isTraceEnabled() ) {
+			log.trace("handleMessage(" + message + ")");
+		}
+		handleStatus(message.getSource(), message.getProcessID(), message.getStatus());
+	}
+
+	/**
+	 * Method to handle the NukeExecuteBatchIndMsgC message, every state change
+	 * is handled as a separate indication.
+	 * @param message NukeExecuteBatchIndMsgC instance
+	 */
+	protected void handleMessage(NukeExecuteBatchIndMsgC message) {
+		if( log.isTraceEnabled() ) {
+			log.trace("handleMessage(" + message + ")");
+		}
+		for( int i = 0; i < message.size() && true != isProcedureFinished(); i++ ) {
+			handleStatus(message.getSource(), message.getProcessIDs().get(i), message.getStatuses().get(i));
+		}
+	}
+
+	/**
+	 * Method to handle a state change reported by a nuke.
+	 * @param source long with the identity of the reporting nuke.
+	 * @param processID long with the id of the process.
+	 * @param status CommandState the process changed to.
+	 */
+	protected void handleStatus(long source, long processID, CommandState status) {
+		CommandState previous = processes.get(processID);
+		if( getDestination() != source || null == previous ) {
+			log.debug("[" + getTxID() + "] Message not for us, process: " + processID + ".");
+		} else if( WORKING != getState() ) {
+			log.error("[" + getTxID() + "] Received NukeExecuteIndMsgC when not in state WORKING.");
+			setState(ABORTED);
+		} else if( CommandState.DONE == previous || CommandState.ABORTED == previous ) {
+			log.error("[" + getTxID() + "] Received " + status + " for finished process " + processID + ".");
+		} else {
+			processes.put(processID, status);
+			switch( status ) {
+				case ABORTED: {
+					log.error("[" + getTxID() + "] Task " + processID + " reports aborted state.");
+					abortedProcesses++;
+					finishedProcesses++;
+					break;
+				}
+				case DONE: {
+					log.debug("[" + getTxID() + "] Task " + processID + " reports done state.");
+					finishedProcesses++;
+					break;
+				}
+				default: {
+					// do nothing.
+				}
+			}
+			if( getNoOfUsers() == getFinishedProcesses() ) {
+				setState(( getNoOfUsers() == getAbortedProcesses() ) ? ABORTED : COMPLETED);
+			}
+		}
+	}
+
+	/**
+	 * Method to stop some of the started users, the nuke lets the current
+	 * execution of each finish and they then report done as usual.
+	 * @param noOfUsers int with the number of users to stop.
+	 * @return int with the number of users a stop was sent for.
+	 */
+	public int stopUsers(int noOfUsers) {
+		if( log.isTraceEnabled() ) {
+			log.trace("stopUsers(" + noOfUsers + ")");
+		}
+		List<Long> processIDs = new ArrayList<Long>();
+		if( WORKING == getState() ) {
+			for( Entry<Long, CommandState> process : processes.entrySet() ) {
+				if( processIDs.size() >= noOfUsers ) {
+					break;
+				} else if( true == isActive(process.getKey(), process.getValue()) ) {
+					processIDs.add(process.getKey());
+				}
+			}
+		}
+		if( true != processIDs.isEmpty() ) {
+			log.debug("[" + getTxID() + "] Stopping " + processIDs.size() + " users on " + getDestination() + ".");
+			stoppedProcesses.addAll(processIDs);
+			NukeStopProcessReqMsgC pNukeStopProcessReq = new NukeStopProcessReqMsgC(getSendIF());
+			pNukeStopProcessReq.setTxID(getTxID());
+			pNukeStopProcessReq.setSagaID(getSagaID());
+			pNukeStopProcessReq.setSource(getIdentity());
+			pNukeStopProcessReq.setDestination(getDestination());
+			pNukeStopProcessReq.setProcessIDs(processIDs);
+			pNukeStopProcessReq.send();
+		}
+		return processIDs.size();
+	}
+
+	/**
+	 * Method to get the number of users that are started or starting and not
+	 * yet asked to stop, until the response all requested users count.
+	 * @return int
+	 */
+	public int getActiveUsers() {
+		int retValue = 0;
+		if( CREATED == getState() || INITIALIZING == getState() ) {
+			retValue = getNoOfUsers();
+		} else if( WORKING == getState() ) {
+			for( Entry<Long, CommandState> process : processes.entrySet() ) {
+				if( true == isActive(process.getKey(), process.getValue()) ) {
+					retValue++;
+				}
+			}
+		}
+		return retValue;
+	}
+
+	/**
+	 * Method to get the number of users requested that the nuke hasn't
+	 * responded to yet.
+	 * @return int
+	 */
+	public int getStartingUsers() {
+		return ( CREATED == getState() || INITIALIZING == getState() ) ? getNoOfUsers() : 0;
+	}
+
+	/**
+	 * Method to get the number of users asked to stop that haven't reported
+	 * done or aborted yet, they still run their current execution.
+	 * @return int
+	 */
+	public int getStoppingUsers() {
+		int retValue = 0;
+		if( WORKING == getState() ) {
+			for( Long processID : stoppedProcesses ) {
+				CommandState state = processes.get(processID);
+				if( CommandState.DONE != state && CommandState.ABORTED != state ) {
+					retValue++;
+				}
+			}
+		}
+		return retValue;
+	}
+
+	/**
+	 * Method to get the last reported state of a started process.
+	 * @param processID long with the process id.
+	 * @return CommandState or null if the process is unknown.
+	 */
+	public CommandState getProcessState(long processID) {
+		return processes.get(processID);
+	}
+
+	private boolean isActive(long processID, CommandState state) {
+		return CommandState.DONE != state && CommandState.ABORTED != state && true != stoppedProcesses.contains(processID);
+	}
+
+	/**
+	 * @return the destination
+	 */
+	public long getDestination() {
+		return destination;
+	}
+
+	/**
+	 * @param destination the destination to set
+	 */
+	public void setDestination(long destination) {
+		this.destination = destination;
+	}
+
+	/**
+	 * @return the command
+	 */
+	public String getCommand() {
+		return command;
+	}
+
+	/**
+	 * @param command the command to set
+	 */
+	public void setCommand(String command) {
+		this.command = command;
+	}
+
+	/**
+	 * @return the folder
+	 */
+	public String getFolder() {
+		return folder;
+	}
+
+	/**
+	 * @param folder the folder to set
+	 */
+	public void setFolder(String folder) {
+		this.folder = folder;
+	}
+
+	/**
+	 * @return the repeated
+	 */
+	public boolean isRepeated() {
+		return repeated;
+	}
+
+	/**
+	 * @param repeated the repeated to set
+	 */
+	public void setRepeated(boolean repeated) {
+		this.repeated = repeated;
+	}
+
+	/**
+	 * @return the noOfUsers
+	 */
+	public int getNoOfUsers() {
+		return noOfUsers;
+	}
+
+	/**
+	 * @param noOfUsers the noOfUsers to set
+	 */
+	public void setNoOfUsers(int noOfUsers) {
+		this.noOfUsers = noOfUsers;
+	}
+
+	/**
+	 * @return the sagaID
+	 */
+	public long getSagaID() {
+		return sagaID;
+	}
+
+	/**
+	 * @param sagaID the sagaID to set
+	 */
+	public void setSagaID(long sagaID) {
+		this.sagaID = sagaID;
+	}
+
+	/**
+	 * @return the number of processes that reported done or aborted.
+	 */
+	public int getFinishedProcesses() {
+		return finishedProcesses;
+	}
+
+	/**
+	 * @return the number of processes that reported aborted.
+	 */
+	public int getAbortedProcesses() {
+		return abortedProcesses;
+	}
+
+}
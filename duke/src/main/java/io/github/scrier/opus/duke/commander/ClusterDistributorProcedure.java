@@ -15,6 +15,8 @@
  */
 package io.github.scrier.opus.duke.commander;
 
+import java.util.concurrent.TimeUnit;
+
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -22,17 +24,24 @@ import io.github.scrier.opus.common.Constants;
 import io.github.scrier.opus.common.Shared;
 import io.github.scrier.opus.common.data.BaseDataC;
 import io.github.scrier.opus.common.duke.DukeState;
+import io.github.scrier.opus.common.exception.InvalidOperationException;
 import io.github.scrier.opus.common.message.BaseMsgC;
 import io.github.scrier.opus.common.nuke.NukeState;
 import io.github.scrier.opus.duke.commander.state.Aborted;
 import io.github.scrier.opus.duke.commander.state.Completed;
 import io.github.scrier.opus.duke.commander.state.Created;
 import io.github.scrier.opus.duke.commander.state.PeakDelay;
+import io.github.scrier.opus.duke.commander.state.ProfileDriven;
 import io.github.scrier.opus.duke.commander.state.RampingDown;
 import io.github.scrier.opus.duke.commander.state.RampingUp;
+import io.github.scrier.opus.duke.commander.state.RampingUpRate;
+import io.github.scrier.opus.duke.commander.state.RampingUpSaturation;
+import io.github.scrier.opus.duke.commander.state.RampingUpTarget;
+import io.github.scrier.opus.duke.commander.state.Rebalancer;
 import io.github.scrier.opus.duke.commander.state.State;
 import io.github.scrier.opus.duke.commander.state.Terminating;
 import io.github.scrier.opus.duke.commander.state.WaitingForNuke;
+import io.github.scrier.opus.duke.io.LoadProfile;
 
 /**
  * Class that handles the distribution of work between nodes.
@@ -47,11 +56,29 @@ public class ClusterDistributorProcedure extends BaseDukeProcedure implements IT
 	public final int PEAK_DELAY       = CREATED + 3;	///< State handling the peak delay phase
 	public final int RAMPING_DOWN     = CREATED + 4;	///< State handling the ramping down phase.
 	public final int TERMINATING      = CREATED + 5;	///< State when handling terminate phase.
+	
+	public static final int REBALANCE_INTERVAL_SECONDS = 1;	///< Interval to rebalance the users on.
 
 	private int minNodes;	///< minimum number of nodes before we start ramping up.
 	private int maxUsers;	///< How many user or commands should be issued before peak.
 	private int intervalSeconds;	///< Which interval we should increase active commands.
 	private int userIncrease;		///< Number of users increase each interval
+	private int userDecrease;		///< Number of users stopped each interval when ramping down, 0 to stop all at once.
+	private boolean arrivalRate;	///< If executions are launched at a rate instead of by a number of users.
+	private double maxRate;			///< Executions per second to reach before peak in arrival rate mode.
+	private double rateIncrease;	///< Executions per second increase each interval in arrival rate mode.
+	private int maxInFlight;		///< Max executions in flight in the cluster in arrival rate mode, 0 for no limit.
+	private boolean profiled;		///< If the users follow a load profile instead of the linear ramp.
+	private LoadProfile profile;	///< Profile of users over time in profile mode.
+	private boolean targeted;		///< If the nukes are given a target of users to ramp to on their own.
+	private boolean launchSpread;	///< If the users of a ramp tick are launched spread over the interval.
+	private int launchJitter;		///< Jitter in percent of the launch spacing when spread.
+	private boolean saturation;	///< If the ramp searches for the level where a threshold is breached.
+	private int maxP95;					///< Max p95 execution time in ms in saturation mode, 0 if not checked.
+	private double maxErrorRatio;	///< Max percent of failed executions in saturation mode, 0 if not checked.
+	private int plateauPercent;	///< Min throughput gain in percent of the users added in saturation mode, 0 if not checked.
+	private int rebalanceRate;	///< Max users per second moved to keep them spread, 0 to not rebalance.
+	private Rebalancer rebalancer;	///< Keeps the users spread when nukes join, null if not rebalancing.
 	private int peakDelaySeconds;	///< How long in seconds the peak should hold
 	private int terminateSeconds;	///< How many seconds from start the application can run before terminating.
 	private boolean repeated;		///< Issues if commands should be repeated or not.
@@ -60,6 +87,7 @@ public class ClusterDistributorProcedure extends BaseDukeProcedure implements IT
 	private String folder;			///< What folder each node should execute the command from
 	
 	private long terminateID;		///< id for the terminate tick callback.
+	private long rebalanceID;		///< id for the rebalance tick callback.
 
 	private State[] states;		///< State array holding logic for each state.
 	
@@ -71,6 +99,22 @@ public class ClusterDistributorProcedure extends BaseDukeProcedure implements IT
 		setMaxUsers(0);
 		setIntervalSeconds(0);
 		setUserIncrease(0);
+		setUserDecrease(0);
+		setArrivalRate(false);
+		setMaxRate(0.0);
+		setRateIncrease(0.0);
+		setMaxInFlight(0);
+		setProfiled(false);
+		setProfile(new LoadProfile());
+		setTargeted(false);
+		setLaunchSpread(false);
+		setLaunchJitter(0);
+		setSaturation(false);
+		setMaxP95(0);
+		setMaxErrorRatio(0.0);
+		setPlateauPercent(0);
+		setRebalanceRate(0);
+		setRebalancer(null);
 		setPeakDelaySeconds(0);
 		setTerminateSeconds(0);
 		setRepeated(false);
@@ -78,6 +122,7 @@ public class ClusterDistributorProcedure extends BaseDukeProcedure implements IT
 		setCommand("");
 		setFolder("");
 		setTerminateID(Constants.HC_UNDEFINED);
+		setRebalanceID(Constants.HC_UNDEFINED);
 		setStates(new State[TERMINATING + 1]);
 	}
 
@@ -93,10 +138,33 @@ public class ClusterDistributorProcedure extends BaseDukeProcedure implements IT
 			log.error("We have more than one cluster distributor running, expected 1 but was " + noOfProcedures + ", aborting.");
 			setState(ABORTED);
 		} else {
+			String mode = getSetting(Shared.Settings.EXECUTE_MODE, Shared.Values.EXECUTE_MODE_USERS);
 			setMinNodes(Integer.parseInt(getSetting(Shared.Settings.EXECUTE_MINIMUM_NODES)));
-			setMaxUsers(Integer.parseInt(getSetting(Shared.Settings.EXECUTE_MAX_USERS)));
+			setArrivalRate(Shared.Values.EXECUTE_MODE_RATE.equals(mode));
+			setProfiled(Shared.Values.EXECUTE_MODE_PROFILE.equals(mode));
+			setTargeted(Shared.Values.EXECUTE_MODE_TARGET.equals(mode));
+			setSaturation(Shared.Values.EXECUTE_MODE_SATURATION.equals(mode));
+			if( true == isArrivalRate() ) {
+				setMaxRate(Double.parseDouble(getSetting(Shared.Settings.EXECUTE_MAX_RATE)));
+				setRateIncrease(Double.parseDouble(getSetting(Shared.Settings.EXECUTE_RATE_INCREASE)));
+				setMaxInFlight(Integer.parseInt(getSetting(Shared.Settings.EXECUTE_MAX_IN_FLIGHT, "0")));
+			} else if( true == isProfiled() ) {
+				setProfile(LoadProfile.parse(getSetting(Shared.Settings.EXECUTE_PROFILE, "")));
+				setMaxUsers(getProfile().getMaxTarget());
+			} else {
+				setMaxUsers(Integer.parseInt(getSetting(Shared.Settings.EXECUTE_MAX_USERS)));
+				setUserIncrease(Integer.parseInt(getSetting(Shared.Settings.EXECUTE_USER_INCREASE)));
+			}
+			if( true == isSaturation() ) {
+				setMaxP95(Integer.parseInt(getSetting(Shared.Settings.EXECUTE_MAX_P95, "0")));
+				setMaxErrorRatio(Double.parseDouble(getSetting(Shared.Settings.EXECUTE_MAX_ERROR_RATIO, "0")));
+				setPlateauPercent(Integer.parseInt(getSetting(Shared.Settings.EXECUTE_PLATEAU_PERCENT, "0")));
+			}
 			setIntervalSeconds(Integer.parseInt(getSetting(Shared.Settings.EXECUTE_INTERVAL)));
-			setUserIncrease(Integer.parseInt(getSetting(Shared.Settings.EXECUTE_USER_INCREASE)));
+			setUserDecrease(Integer.parseInt(getSetting(Shared.Settings.EXECUTE_USER_DECREASE, "0")));
+			setLaunchSpread(Boolean.parseBoolean(getSetting(Shared.Settings.EXECUTE_LAUNCH_SPREAD, "false")));
+			setLaunchJitter(Integer.parseInt(getSetting(Shared.Settings.EXECUTE_LAUNCH_JITTER, "0")));
+			setRebalanceRate(Integer.parseInt(getSetting(Shared.Settings.EXECUTE_REBALANCE_RATE, "0")));
 			setPeakDelaySeconds(Integer.parseInt(getSetting(Shared.Settings.EXECUTE_PEAK_DELAY)));
 			setTerminateSeconds(Integer.parseInt(getSetting(Shared.Settings.EXECUTE_TERMINATE)));
 			setRepeated(Boolean.parseBoolean(getSetting(Shared.Settings.EXECUTE_REPEATED)));
@@ -106,16 +174,66 @@ public class ClusterDistributorProcedure extends BaseDukeProcedure implements IT
 			states[ABORTED] = new Aborted(this);
 			states[CREATED] = new Created(this);
 			states[WAITING_FOR_NUKE] = new WaitingForNuke(this);
-			states[RAMPING_UP] = new RampingUp(this, getIntervalSeconds()); 
+			if( true == isArrivalRate() ) {
+				states[RAMPING_UP] = new RampingUpRate(this, getIntervalSeconds());
+			} else if( true == isProfiled() ) {
+				states[RAMPING_UP] = new ProfileDriven(this, getIntervalSeconds());
+			} else if( true == isTargeted() ) {
+				states[RAMPING_UP] = new RampingUpTarget(this, getIntervalSeconds());
+			} else if( true == isSaturation() ) {
+				states[RAMPING_UP] = new RampingUpSaturation(this, getIntervalSeconds());
+			} else {
+				states[RAMPING_UP] = new RampingUp(this, getIntervalSeconds());
+			}
 			states[PEAK_DELAY] = new PeakDelay(this);
 			states[RAMPING_DOWN] = new RampingDown(this);
 			states[TERMINATING] = new Terminating(this);
-			int exTime = getExecutionTime();
-			if ( exTime > getTerminateSeconds() ) {
-				log.error("Calculated execcutiontime: " + Shared.Methods.formatTime(exTime) + " time overlaps the terminate time: " + Shared.Methods.formatTime(getTerminateSeconds()) + ".");
+			if( 0 < getRebalanceRate() ) {
+				if( true != Shared.Values.EXECUTE_MODE_USERS.equals(mode) || true != isRepeated() ) {
+					log.warn(Shared.Settings.EXECUTE_REBALANCE_RATE + " only applies to repeated users in " + Shared.Settings.EXECUTE_MODE + " " + 
+							Shared.Values.EXECUTE_MODE_USERS + ", users will not be rebalanced.");
+				} else {
+					setRebalanceID(getUniqueID());
+					setRebalancer(new Rebalancer((RampingUp)states[RAMPING_UP], getRebalanceRate() * REBALANCE_INTERVAL_SECONDS));
+				}
+			}
+			if( true != Shared.Values.EXECUTE_MODE_USERS.equals(mode) && true != isArrivalRate() && true != isProfiled() && true != isTargeted() && true != isSaturation() ) {
+				log.error("Unknown " + Shared.Settings.EXECUTE_MODE + " \"" + mode + "\", expected " + Shared.Values.EXECUTE_MODE_USERS + 
+						", " + Shared.Values.EXECUTE_MODE_RATE + ", " + Shared.Values.EXECUTE_MODE_PROFILE + ", " + Shared.Values.EXECUTE_MODE_TARGET + 
+						" or " + Shared.Values.EXECUTE_MODE_SATURATION + ".");
+				setState(ABORTED);
+			} else if( 0 > getLaunchJitter() || 100 < getLaunchJitter() ) {
+				log.error(Shared.Settings.EXECUTE_LAUNCH_JITTER + " must be between 0 and 100 percent, was " + getLaunchJitter() + ".");
+				setState(ABORTED);
+			} else if( 0 > getUserDecrease() ) {
+				log.error(Shared.Settings.EXECUTE_USER_DECREASE + " must be 0 or above, was " + getUserDecrease() + ".");
+				setState(ABORTED);
+			} else if( 0 > getRebalanceRate() ) {
+				log.error(Shared.Settings.EXECUTE_REBALANCE_RATE + " must be 0 or above, was " + getRebalanceRate() + ".");
+				setState(ABORTED);
+			} else if( true == isSaturation() && ( 0 > getMaxP95() || 0.0 > getMaxErrorRatio() || 0 > getPlateauPercent() ) ) {
+				log.error("Saturation mode thresholds must be 0 or above, was " + Shared.Settings.EXECUTE_MAX_P95 + ": " + getMaxP95() + ", " + 
+						Shared.Settings.EXECUTE_MAX_ERROR_RATIO + ": " + getMaxErrorRatio() + " and " + Shared.Settings.EXECUTE_PLATEAU_PERCENT + ": " + getPlateauPercent() + ".");
+				setState(ABORTED);
+			} else if( true == isSaturation() && 0 == getMaxP95() && 0.0 == getMaxErrorRatio() && 0 == getPlateauPercent() ) {
+				log.error("Saturation mode needs at least one of " + Shared.Settings.EXECUTE_MAX_P95 + ", " + Shared.Settings.EXECUTE_MAX_ERROR_RATIO + 
+						" or " + Shared.Settings.EXECUTE_PLATEAU_PERCENT + " above 0.");
+				setState(ABORTED);
+			} else if( true == isSaturation() && true != isRepeated() ) {
+				log.error("Saturation mode needs " + Shared.Settings.EXECUTE_REPEATED + " true, the load must be held to measure it.");
+				setState(ABORTED);
+			} else if( true == isProfiled() && 0 >= getProfile().getDuration() ) {
+				log.error("Profile mode needs an " + Shared.Settings.EXECUTE_PROFILE + " lasting more than 0 seconds, was \"" + getProfile() + "\".");
+				setState(ABORTED);
+			} else if( true == isArrivalRate() && ( 0.0 >= getMaxRate() || 0.0 >= getRateIncrease() ) ) {
+				log.error("Arrival rate mode needs a " + Shared.Settings.EXECUTE_MAX_RATE + " and " + Shared.Settings.EXECUTE_RATE_INCREASE + 
+						" above 0, was " + getMaxRate() + " and " + getRateIncrease() + ".");
+				setState(ABORTED);
+			} else if ( getExecutionTime() > getTerminateSeconds() ) {
+				log.error("Calculated execcutiontime: " + Shared.Methods.formatTime(getExecutionTime()) + " time overlaps the terminate time: " + Shared.Methods.formatTime(getTerminateSeconds()) + ".");
 				setState(ABORTED);
 			} else {
-				log.info("Calculated execution time (excluding rampdown) is " + Shared.Methods.formatTime(exTime) + ".");
+				log.info("Calculated execution time (excluding rampdown) is " + Shared.Methods.formatTime(getExecutionTime()) + ".");
 				log.info("Starting timeout for execution to go off in " + Shared.Methods.formatTime(getTerminateSeconds()) + ".");
 				startTimeout(getTerminateSeconds(), getTerminateID(), this);
 				if( true == isNukesReady() ) {
@@ -145,7 +263,9 @@ public class ClusterDistributorProcedure extends BaseDukeProcedure implements IT
 	 */
 	@Override
 	public int handleOnUpdated(BaseDataC data) {
-		log.trace("handleOnUpdated(" + data + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("handleOnUpdated(" + data + ")");
+		}
 		try {
 			log.debug("states[" + states[getState()].getClass().getSimpleName() + "].updated(" + data + ");");
 			states[getState()].updated(data);
@@ -164,7 +284,9 @@ public class ClusterDistributorProcedure extends BaseDukeProcedure implements IT
 	 */
 	@Override
 	public int handleOnEvicted(BaseDataC data) {
-		log.trace("handleOnEvicted(" + data + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("handleOnEvicted(" + data + ")");
+		}
 		try {
 			log.debug("states[" + states[getState()].getClass().getSimpleName() + "].evicted(" + data + ");");
 			states[getState()].evicted(data);
@@ -183,7 +305,9 @@ public class ClusterDistributorProcedure extends BaseDukeProcedure implements IT
 	 */
 	@Override
 	public int handleOnRemoved(Long key) {
-		log.trace("handleOnRemoved(" + key + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("handleOnRemoved(" + key + ")");
+		}
 		try {
 			log.debug("states[" + states[getState()].getClass().getSimpleName() + "].removed(" + key + ");");
 			states[getState()].removed(key);
@@ -201,15 +325,21 @@ public class ClusterDistributorProcedure extends BaseDukeProcedure implements IT
 	 */
 	@Override
 	public void timeOutTriggered(long id) {
-		log.trace("timeOutTriggered(" + id + ")");
-		try {
-			log.debug("states[" + states[getState()].getClass().getSimpleName() + "].timeout(" + id + ");");
-			states[getState()].timeout(id);
-		} catch ( ArrayIndexOutOfBoundsException e ) {
-			if( COMPLETED == getState() ) {
-				new Completed(this).timeout(id);
-			} else {
-				log.error("Received out of bound exception in state: " + getState() + ".", e);
+		if( log.isTraceEnabled() ) {
+			log.trace("timeOutTriggered(" + id + ")");
+		}
+		if( null != getRebalancer() && id == getRebalanceID() ) {
+			handleRebalanceTick();
+		} else {
+			try {
+				log.debug("states[" + states[getState()].getClass().getSimpleName() + "].timeout(" + id + ");");
+				states[getState()].timeout(id);
+			} catch ( ArrayIndexOutOfBoundsException e ) {
+				if( COMPLETED == getState() ) {
+					new Completed(this).timeout(id);
+				} else {
+					log.error("Received out of bound exception in state: " + getState() + ".", e);
+				}
 			}
 		}
 		theContext.getCommander().initializeProcedures();
@@ -220,7 +350,9 @@ public class ClusterDistributorProcedure extends BaseDukeProcedure implements IT
 	 */
 	@Override
 	public void onStateChanged(int newState, int previousState) {
-		log.trace("onStateChanged(" + newState + ", " + previousState + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("onStateChanged(" + newState + ", " + previousState + ")");
+		}
 		if( RAMPING_UP == newState ) {
 			theContext.setClientState(DukeState.RUNNING);
 		} else if ( ABORTED == newState ) {
@@ -248,6 +380,26 @@ public class ClusterDistributorProcedure extends BaseDukeProcedure implements IT
 				log.error("Received out of bound exception in state: " + getState() + ".", e);
 			}
 		}
+		if( null != getRebalancer() ) {
+			if( RAMPING_UP == newState ) {
+				log.info("Rebalancing up to " + getRebalanceRate() + " users per second while ramping up and at peak.");
+				startTimeout(REBALANCE_INTERVAL_SECONDS, getRebalanceID(), this);
+			} else if( PEAK_DELAY != newState && true == isTimeoutActive(getRebalanceID()) ) {
+				terminateTimeout(getRebalanceID());
+			}
+		}
+	}
+	
+	/**
+	 * Method to handle the rebalance tick, the users are only moved while
+	 * ramping up and at peak.
+	 */
+	protected void handleRebalanceTick() {
+		log.trace("handleRebalanceTick()");
+		if( RAMPING_UP == getState() || PEAK_DELAY == getState() ) {
+			getRebalancer().rebalance();
+			startTimeout(REBALANCE_INTERVAL_SECONDS, getRebalanceID(), this);
+		}
 	}
 
 	/**
@@ -281,7 +433,7 @@ public class ClusterDistributorProcedure extends BaseDukeProcedure implements IT
 	/**
 	 * @return the intervalSeconds
 	 */
-	protected int getIntervalSeconds() {
+	public int getIntervalSeconds() {
 		return intervalSeconds;
 	}
 
@@ -306,6 +458,230 @@ public class ClusterDistributorProcedure extends BaseDukeProcedure implements IT
 		this.userIncrease = userIncrease;
 	}
 
+	/**
+	 * @return the userDecrease
+	 */
+	public int getUserDecrease() {
+		return userDecrease;
+	}
+
+	/**
+	 * @param userDecrease the userDecrease to set
+	 */
+	private void setUserDecrease(int userDecrease) {
+		this.userDecrease = userDecrease;
+	}
+
+	/**
+	 * @return the arrivalRate
+	 */
+	public boolean isArrivalRate() {
+		return arrivalRate;
+	}
+
+	/**
+	 * @param arrivalRate the arrivalRate to set
+	 */
+	private void setArrivalRate(boolean arrivalRate) {
+		this.arrivalRate = arrivalRate;
+	}
+
+	/**
+	 * @return the maxRate
+	 */
+	public double getMaxRate() {
+		return maxRate;
+	}
+
+	/**
+	 * @param maxRate the maxRate to set
+	 */
+	private void setMaxRate(double maxRate) {
+		this.maxRate = maxRate;
+	}
+
+	/**
+	 * @return the rateIncrease
+	 */
+	public double getRateIncrease() {
+		return rateIncrease;
+	}
+
+	/**
+	 * @param rateIncrease the rateIncrease to set
+	 */
+	private void setRateIncrease(double rateIncrease) {
+		this.rateIncrease = rateIncrease;
+	}
+
+	/**
+	 * @return the maxInFlight
+	 */
+	public int getMaxInFlight() {
+		return maxInFlight;
+	}
+
+	/**
+	 * @param maxInFlight the maxInFlight to set
+	 */
+	private void setMaxInFlight(int maxInFlight) {
+		this.maxInFlight = maxInFlight;
+	}
+
+	/**
+	 * @return the profiled
+	 */
+	public boolean isProfiled() {
+		return profiled;
+	}
+
+	/**
+	 * @param profiled the profiled to set
+	 */
+	private void setProfiled(boolean profiled) {
+		this.profiled = profiled;
+	}
+
+	/**
+	 * @return the profile
+	 */
+	public LoadProfile getProfile() {
+		return profile;
+	}
+
+	/**
+	 * @param profile the profile to set
+	 */
+	private void setProfile(LoadProfile profile) {
+		this.profile = profile;
+	}
+
+	/**
+	 * @return the targeted
+	 */
+	public boolean isTargeted() {
+		return targeted;
+	}
+
+	/**
+	 * @param targeted the targeted to set
+	 */
+	private void setTargeted(boolean targeted) {
+		this.targeted = targeted;
+	}
+
+	/**
+	 * @return the launchSpread
+	 */
+	public boolean isLaunchSpread() {
+		return launchSpread;
+	}
+
+	/**
+	 * @param launchSpread the launchSpread to set
+	 */
+	private void setLaunchSpread(boolean launchSpread) {
+		this.launchSpread = launchSpread;
+	}
+
+	/**
+	 * @return the launchJitter
+	 */
+	public int getLaunchJitter() {
+		return launchJitter;
+	}
+
+	/**
+	 * @param launchJitter the launchJitter to set
+	 */
+	private void setLaunchJitter(int launchJitter) {
+		this.launchJitter = launchJitter;
+	}
+
+	/**
+	 * @return the saturation
+	 */
+	public boolean isSaturation() {
+		return saturation;
+	}
+
+	/**
+	 * @param saturation the saturation to set
+	 */
+	private void setSaturation(boolean saturation) {
+		this.saturation = saturation;
+	}
+
+	/**
+	 * @return the maxP95
+	 */
+	public int getMaxP95() {
+		return maxP95;
+	}
+
+	/**
+	 * @param maxP95 the maxP95 to set
+	 */
+	private void setMaxP95(int maxP95) {
+		this.maxP95 = maxP95;
+	}
+
+	/**
+	 * @return the maxErrorRatio
+	 */
+	public double getMaxErrorRatio() {
+		return maxErrorRatio;
+	}
+
+	/**
+	 * @param maxErrorRatio the maxErrorRatio to set
+	 */
+	private void setMaxErrorRatio(double maxErrorRatio) {
+		this.maxErrorRatio = maxErrorRatio;
+	}
+
+	/**
+	 * @return the plateauPercent
+	 */
+	public int getPlateauPercent() {
+		return plateauPercent;
+	}
+
+	/**
+	 * @param plateauPercent the plateauPercent to set
+	 */
+	private void setPlateauPercent(int plateauPercent) {
+		this.plateauPercent = plateauPercent;
+	}
+
+	/**
+	 * @return the rebalanceRate
+	 */
+	public int getRebalanceRate() {
+		return rebalanceRate;
+	}
+
+	/**
+	 * @param rebalanceRate the rebalanceRate to set
+	 */
+	private void setRebalanceRate(int rebalanceRate) {
+		this.rebalanceRate = rebalanceRate;
+	}
+
+	/**
+	 * @return the rebalancer, null if not rebalancing.
+	 */
+	public Rebalancer getRebalancer() {
+		return rebalancer;
+	}
+
+	/**
+	 * @param rebalancer the rebalancer to set
+	 */
+	private void setRebalancer(Rebalancer rebalancer) {
+		this.rebalancer = rebalancer;
+	}
+
 	/**
 	 * @return the peakDelaySeconds
 	 */
@@ -404,6 +780,20 @@ public class ClusterDistributorProcedure extends BaseDukeProcedure implements IT
 	  this.terminateID = terminateID;
   }
 	
+	/**
+	 * @return the rebalanceID
+	 */
+	public long getRebalanceID() {
+	  return rebalanceID;
+  }
+
+	/**
+	 * @param rebalanceID the rebalanceID to set
+	 */
+	private void setRebalanceID(long rebalanceID) {
+	  this.rebalanceID = rebalanceID;
+  }
+	
 	/**
 	 * Method used for testing.
 	 * @param states The State array to set.
@@ -436,23 +826,92 @@ public class ClusterDistributorProcedure extends BaseDukeProcedure implements IT
 	 */
 	protected int getExecutionTime() {
 		log.trace("getExecutionTime()");
-		int intervals = (int)((getMaxUsers() / getUserIncrease())) + (getMaxUsers() % getUserIncrease() > 0 ? 1 : 0);
-		log.debug(intervals + " = " + (int)((getMaxUsers() / getUserIncrease())) + " + " + (getMaxUsers() % getUserIncrease() > 0 ? 1 : 0));
-		int retValue = intervals * getIntervalSeconds();
-		log.debug(retValue + " = " + intervals + " * " + getIntervalSeconds() + ")");
-		retValue += getPeakDelaySeconds();
+		int retValue = 0;
+		if( true == isProfiled() ) {
+			// the profile is followed until the ramp down, there is no peak delay.
+			retValue = getProfile().getDuration();
+		} else {
+			int intervals = 0;
+			if( true == isArrivalRate() ) {
+				intervals = (int)Math.ceil(getMaxRate() / getRateIncrease());
+				log.debug(intervals + " = ceil(" + getMaxRate() + " / " + getRateIncrease() + ")");
+			} else {
+				intervals = (int)((getMaxUsers() / getUserIncrease())) + (getMaxUsers() % getUserIncrease() > 0 ? 1 : 0);
+				log.debug(intervals + " = " + (int)((getMaxUsers() / getUserIncrease())) + " + " + (getMaxUsers() % getUserIncrease() > 0 ? 1 : 0));
+			}
+			retValue = intervals * getIntervalSeconds();
+			log.debug(retValue + " = " + intervals + " * " + getIntervalSeconds() + ")");
+			retValue += getPeakDelaySeconds();
+		}
 		return retValue;
 	}
 	
+	/**
+	 * Method to get an optional setting.
+	 * @param key String with the key to look for.
+	 * @param defaultValue String to use when the setting is missing.
+	 * @return String
+	 * @throws InvalidOperationException if not initialized correctly.
+	 */
+	protected String getSetting(String key, String defaultValue) throws InvalidOperationException {
+		String retValue = getSetting(key);
+		return ( null == retValue || retValue.trim().isEmpty() ) ? defaultValue : retValue.trim();
+	}
+	
+	/**
+	 * Method to handle a removed or evicted entry during the run. If it was a
+	 * nuke with users they are moved to the remaining nukes by the ramp up
+	 * state, and a gap marker is published as the load was disturbed.
+	 * @param nukeID long with the key of the entry.
+	 * @return int with the number of users moved.
+	 */
+	public int redistributeLostNuke(long nukeID) {
+		if( log.isTraceEnabled() ) {
+			log.trace("redistributeLostNuke(" + nukeID + ")");
+		}
+		INukeInfo lost = theContext.getNuke(nukeID);
+		if( null == lost || 0 >= lost.getRequestedNoOfThreads() ) {
+			return 0;
+		}
+		log.error("Lost nuke " + nukeID + " with " + lost.getRequestedNoOfThreads() + " users in state " + getState() + ".");
+		theContext.addGapMarker(System.currentTimeMillis());
+		return states[RAMPING_UP].redistribute(lost);
+	}
+	
+	/**
+	 * Method to confirm the level held at peak before ramping down, the
+	 * ramp up state confirms the level it found.
+	 */
+	public void confirmPeak() {
+		log.trace("confirmPeak()");
+		if( null != states[RAMPING_UP] ) {
+			states[RAMPING_UP].confirm();
+		}
+	}
+	
 	/**
 	 * Method to start a timer from the states.
 	 * @param time int with the time in seconds to start.
 	 * @param timerID long with the id of the timer.
 	 */
 	public void startTimeout(int time, long timerID) {
-		log.trace("startTimeout(" + time + ", " + timerID + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("startTimeout(" + time + ", " + timerID + ")");
+		}
 		startTimeout(time, timerID, this);
 	}
+	
+	/**
+	 * Method to start a timer with millisecond precision from the states.
+	 * @param millis long with the time in milliseconds to start.
+	 * @param timerID long with the id of the timer.
+	 */
+	public void startTimeoutMillis(long millis, long timerID) {
+		if( log.isTraceEnabled() ) {
+			log.trace("startTimeoutMillis(" + millis + ", " + timerID + ")");
+		}
+		startTimeout(millis, timerID, this, TimeUnit.MILLISECONDS);
+	}
 
   /**
    * {@inheritDoc}
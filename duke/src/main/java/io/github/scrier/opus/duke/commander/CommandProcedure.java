@@ -19,9 +19,11 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import io.github.scrier.opus.common.Constants;
+import io.github.scrier.opus.common.TypedDispatcher;
 import io.github.scrier.opus.common.data.BaseDataC;
 import io.github.scrier.opus.common.message.BaseMsgC;
 import io.github.scrier.opus.common.nuke.CommandState;
+import io.github.scrier.opus.common.nuke.NukeExecuteBatchIndMsgC;
 import io.github.scrier.opus.common.nuke.NukeExecuteIndMsgC;
 import io.github.scrier.opus.common.nuke.NukeExecuteReqMsgC;
 import io.github.scrier.opus.common.nuke.NukeExecuteRspMsgC;
@@ -30,6 +32,41 @@ import io.github.scrier.opus.common.nuke.NukeMsgFactory;
 public class CommandProcedure extends BaseDukeProcedure {
 	
 	private static Logger log = LogManager.getLogger(CommandProcedure.class);
+	
+	private static final TypedDispatcher<CommandProcedure> dispatcher = new TypedDispatcher<CommandProcedure>();
+	
+	static {
+		dispatcher.register(NukeMsgFactory.FACTORY_ID, NukeMsgFactory.NUKE_EXECUTE_RSP, NukeExecuteRspMsgC.class,
+				new TypedDispatcher.Handler<CommandProcedure, NukeExecuteRspMsgC>() {
+			@Override
+			public void handle(CommandProcedure target, NukeExecuteRspMsgC message) {
+				if( log.isDebugEnabled() ) {
+					log.debug("[" + target.getTxID() + "] Received NUKE_EXECUTE_RSP message.");
+				}
+				target.handleMessage(message);
+			}
+		});
+		dispatcher.register(NukeMsgFactory.FACTORY_ID, NukeMsgFactory.NUKE_EXECUTE_IND, NukeExecuteIndMsgC.class,
+				new TypedDispatcher.Handler<CommandProcedure, NukeExecuteIndMsgC>() {
+			@Override
+			public void handle(CommandProcedure target, NukeExecuteIndMsgC message) {
+				if( log.isDebugEnabled() ) {
+					log.debug("[" + target.getTxID() + "] Received NUKE_EXECUTE_IND message.");
+				}
+				target.handleMessage(message);
+			}
+		});
+		dispatcher.register(NukeMsgFactory.FACTORY_ID, NukeMsgFactory.NUKE_EXECUTE_BATCH_IND, NukeExecuteBatchIndMsgC.class,
+				new TypedDispatcher.Handler<CommandProcedure, NukeExecuteBatchIndMsgC>() {
+			@Override
+			public void handle(CommandProcedure target, NukeExecuteBatchIndMsgC message) {
+				if( log.isDebugEnabled() ) {
+					log.debug("[" + target.getTxID() + "] Received NUKE_EXECUTE_BATCH_IND message.");
+				}
+				target.handleMessage(message);
+			}
+		});
+	}
 
 	public final int INITIALIZING = CREATED + 1;
 	public final int WORKING =      CREATED + 2;
@@ -104,7 +141,9 @@ public class CommandProcedure extends BaseDukeProcedure {
 	 * @param callback interface to callback the result of the handling.
 	 */
 	public CommandProcedure(long destination, String command, String folder, boolean repeated, ICommandCallback callback) {
-		log.trace("CommandProcedure(" + destination + ", \"" + command + "\", \"" + folder + "\", " + repeated + ", " + callback + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("CommandProcedure(" + destination + ", \"" + command + "\", \"" + folder + "\", " + repeated + ", " + callback + ")");
+		}
 		setDestination(destination);
 		setCommand(command);
 		setFolder(folder);
@@ -120,6 +159,7 @@ public class CommandProcedure extends BaseDukeProcedure {
 		log.trace("init()");
 		NukeExecuteReqMsgC pNukeExecuteReq = new NukeExecuteReqMsgC(getSendIF());
 		pNukeExecuteReq.setTxID(getTxID());
+		pNukeExecuteReq.setSagaID(getSagaID());
 		pNukeExecuteReq.setSource(getIdentity());
 		pNukeExecuteReq.setDestination(getDestination());
 		pNukeExecuteReq.setCommand(getCommand());
@@ -140,19 +180,25 @@ public class CommandProcedure extends BaseDukeProcedure {
 
 	@Override
 	public int handleOnUpdated(BaseDataC data) {
-		log.trace("handleOnUpdated(" + data + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("handleOnUpdated(" + data + ")");
+		}
 		return getState();
 	}
 
 	@Override
 	public int handleOnEvicted(BaseDataC data) {
-		log.trace("handleOnEvicted(" + data + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("handleOnEvicted(" + data + ")");
+		}
 		return getState();
 	}
 
 	@Override
 	public int handleOnRemoved(Long key) {
-		log.trace("handleOnRemoved(" + key + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("handleOnRemoved(" + key + ")");
+		}
 		return getState();
 	}
 	
@@ -190,24 +236,37 @@ public class CommandProcedure extends BaseDukeProcedure {
    */
 	@Override
   public int handleInMessage(BaseMsgC message) {
-		log.trace("handleInMessage(" + message + ")");
-	  switch( message.getId() ) {
-	  	case NukeMsgFactory.NUKE_EXECUTE_RSP: {
-	  		log.debug("[" + getTxID() + "] Received NUKE_EXECUTE_RSP message.");
-	  		NukeExecuteRspMsgC pNukeExecuteRsp = new NukeExecuteRspMsgC(message);
-	  		handleMessage(pNukeExecuteRsp);
-	  		break;
-	  	}
-	  	case NukeMsgFactory.NUKE_EXECUTE_IND: {
-	  		log.debug("[" + getTxID() + "] Received NUKE_EXECUTE_IND message.");
-	  		NukeExecuteIndMsgC pNukeExecuteInd = new NukeExecuteIndMsgC(message);
-	  		handleMessage(pNukeExecuteInd);
-	  		break;
-	  	}
-	  }
+		if( log.isTraceEnabled() ) {
+			log.trace("handleInMessage(" + message + ")");
+		}
+	  dispatcher.dispatch(this, message);
 	  return getState();
   }
 
+  /**
+   * {@inheritDoc}
+   */
+	@Override
+	public boolean isRouted() {
+		return true;
+	}
+
+  /**
+   * {@inheritDoc}
+   */
+	@Override
+	public long getRoutingProcessID() {
+		return getProcessID();
+	}
+
+  /**
+   * {@inheritDoc}
+   */
+	@Override
+	public long getRoutingSagaID() {
+		return getSagaID();
+	}
+
 	/**
 	 * @return the destination
 	 */
@@ -311,15 +370,21 @@ public class CommandProcedure extends BaseDukeProcedure {
    * @param message NukeExecuteRspMsgC instance
    */
   protected void handleMessage(NukeExecuteRspMsgC message) {
-  	log.trace(" handleMessage(" + message + ")");
+  	if( log.isTraceEnabled() ) {
+  		log.trace(" handleMessage(" + message + ")");
+  	}
   	if( getTxID() != message.getTxID() ) {
-  		log.debug("[" + getTxID() + "] Wrong txid. expected: " + getTxID() + ", but was: " + message.getTxID() + ".");
+  		if( log.isDebugEnabled() ) {
+  			log.debug("[" + getTxID() + "] Wrong txid. expected: " + getTxID() + ", but was: " + message.getTxID() + ".");
+  		}
   	} else {
   		if( INITIALIZING != getState() ) {
   			log.error("[" + getTxID() + "] Received NukeExecuteRspMsgC in wrong state: " + getState() + ", expected: " + INITIALIZING + ".");
   			setState(ABORTED);
   		} else {
-	  		log.debug("[" + getTxID() + "] Received: " + message + ", updating processID to: " + message.getProcessID() + ".");
+	  		if( log.isDebugEnabled() ) {
+	  			log.debug("[" + getTxID() + "] Received: " + message + ", updating processID to: " + message.getProcessID() + ".");
+	  		}
 	  		setProcessID(message.getProcessID());
 	  		setState(WORKING);
   		}
@@ -331,25 +396,59 @@ public class CommandProcedure extends BaseDukeProcedure {
    * @param message NukeExecuteIndMsgC instance
    */
   protected void handleMessage(NukeExecuteIndMsgC message) {
-  	log.trace(" handleMessage(" + message + ")");
-  	if( getDestination() == message.getSource() ) {
-  		if( getProcessID() != message.getProcessID() ) {
-  			log.debug("[" + getTxID() + "] Message not for us, expected: " + getProcessID() + ", received: " + message.getProcessID() + ".");
+  	if( log.isTraceEnabled() ) {
+  		log.trace(" handleMessage(" + message + ")");
+  	}
+  	handleStatus(message.getSource(), message.getProcessID(), message.getStatus());
+  }
+
+  /**
+   * Method to handle the NukeExecuteBatchIndMsgC message, every state change
+   * is handled as a separate indication.
+   * @param message NukeExecuteBatchIndMsgC instance
+   */
+  protected void handleMessage(NukeExecuteBatchIndMsgC message) {
+  	if( log.isTraceEnabled() ) {
+  		log.trace(" handleMessage(" + message + ")");
+  	}
+  	for( int i = 0; i < message.size() && true != isProcedureFinished(); i++ ) {
+  		handleStatus(message.getSource(), message.getProcessIDs().get(i), message.getStatuses().get(i));
+  	}
+  }
+
+  /**
+   * Method to handle a state change reported by a nuke.
+   * @param source long with the identity of the reporting nuke.
+   * @param processID long with the id of the process.
+   * @param status CommandState the process changed to.
+   */
+  protected void handleStatus(long source, long processID, CommandState status) {
+  	if( getDestination() == source ) {
+  		if( getProcessID() != processID ) {
+  			if( log.isDebugEnabled() ) {
+  				log.debug("[" + getTxID() + "] Message not for us, expected: " + getProcessID() + ", received: " + processID + ".");
+  			}
   		} else {
-  			log.debug("[" + getTxID() + "] Received: " + message);
+  			if( log.isDebugEnabled() ) {
+  				log.debug("[" + getTxID() + "] Received: " + status + " for process " + processID + ".");
+  			}
   			if( WORKING != getState() ) {
   				log.error("[" + getTxID() + "] Received NukeExecuteIndMsgC when not in state WORKING.");
   				setState(ABORTED);
   			} else {
-  				log.debug("[" + getTxID() + "] Changed status to: " + message.getStatus() + ".");
-  				switch( message.getStatus() ) {
+  				if( log.isDebugEnabled() ) {
+  					log.debug("[" + getTxID() + "] Changed status to: " + status + ".");
+  				}
+  				switch( status ) {
   					case ABORTED: {
   						log.error("[" + getTxID() + "] Task reports aborted state.");
   						setState(ABORTED);
   						break;
   					}
   					case DONE: {
-  						log.debug("[" + getTxID() + "] Task reports done state.");
+  						if( log.isDebugEnabled() ) {
+  							log.debug("[" + getTxID() + "] Task reports done state.");
+  						}
   						setState(COMPLETED);
   						break;
   					}
@@ -357,7 +456,7 @@ public class CommandProcedure extends BaseDukeProcedure {
   						// do nothing.
   					}
   				}
-  				setCurrentState(message.getStatus());
+  				setCurrentState(status);
   			}
   		}
   	}
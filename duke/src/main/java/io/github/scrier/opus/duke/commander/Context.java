@@ -70,7 +70,9 @@ public enum Context {
 	}
 	
 	public void init(DukeCommander commander, BaseActiveObject baseAoC) {
-		log.trace("init(" + commander + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("init(" + commander + ")");
+		}
 		if( doOnce ) {
 			setCommander(commander);
 			setBaseAoC(baseAoC);
@@ -93,7 +95,9 @@ public enum Context {
 	}
 	
 	public boolean registerProcedure(BaseDukeProcedure procedure) {
-		log.trace("registerProcedure(" + procedure + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("registerProcedure(" + procedure + ")");
+		}
 		return (null == getCommander()) ? false : getCommander().registerProcedure(procedure);
 	}
 	
@@ -201,7 +205,9 @@ public enum Context {
    * @return boolean
    */
   public boolean addNuke(Long identity, INukeInfo info) {
-  	log.trace("addNuke(" + identity + ", " + info + ")");
+  	if( log.isTraceEnabled() ) {
+  		log.trace("addNuke(" + identity + ", " + info + ")");
+  	}
 		if (true == getNukesMap().containsKey(identity)) {
 			return false;
 		} else {
@@ -210,7 +216,9 @@ public enum Context {
 	}
   
   public boolean removeNuke(Long identity, INukeInfo info) {
-  	log.trace("removeNuke(" + identity + ", " + info + ")");
+  	if( log.isTraceEnabled() ) {
+  		log.trace("removeNuke(" + identity + ", " + info + ")");
+  	}
   	return getNukesMap().remove(identity, info);
   }
   
@@ -232,7 +240,9 @@ public enum Context {
    * }
    */
   public List<INukeInfo> getNukes(NukeState... states) {
-  	log.trace("getNukes(" + states + ")");
+  	if( log.isTraceEnabled() ) {
+  		log.trace("getNukes(" + states + ")");
+  	}
   	List<INukeInfo> retValue = new ArrayList<INukeInfo>();
   	for( INukeInfo info : getNukes() ) {
   		for( NukeState state : states ) {
@@ -261,26 +271,30 @@ public enum Context {
 	 * @param callback ITimeOutCallback interface to call.
 	 */
   public void startTimeout(int time, long id, ITimeOutCallback callback) {
-  	log.trace("startTimeout(" + time + ", " + id + ", " + callback + ")");
+  	if( log.isTraceEnabled() ) {
+  		log.trace("startTimeout(" + time + ", " + id + ", " + callback + ")");
+  	}
   	startTimeout(time, id, callback, TimeUnit.SECONDS);
   }
   
 	/**
 	 * Method to start a timeout in the service.
-	 * @param time int with the time in the specified format.
+	 * @param time long with the time in the specified format.
 	 * @param id long with unique id to get returned.
 	 * @param callback ITimeOutCallback interface to call.
-	 * @param timeUnit TuneUnit format to schedule timeout in.
+	 * @param timeUnit TimeUnit format to schedule timeout in.
 	 */
-  public void startTimeout(int time, long id, ITimeOutCallback callback, TimeUnit timeUnit) {
-  	log.trace("startTimeout(" + time + ", " + id + ", " + callback + ", " + timeUnit + ")");
+  public void startTimeout(long time, long id, ITimeOutCallback callback, TimeUnit timeUnit) {
+  	if( log.isTraceEnabled() ) {
+  		log.trace("startTimeout(" + time + ", " + id + ", " + callback + ", " + timeUnit + ")");
+  	}
   	if( null == this.timeoutService ) {
   		timeoutService = Executors.newSingleThreadScheduledExecutor();
   	}
   	final long timeOutID = id;
   	final ITimeOutCallback itemToCallback = callback;
   	getExecuteItems().add(timeOutID);
-  	timeoutService.schedule(new Runnable() {
+  	final Runnable timeOut = new Runnable() {
   		public synchronized void run() {
   			if( getExecuteItems().contains(timeOutID) ) {
   				getExecuteItems().remove(timeOutID);
@@ -288,6 +302,15 @@ public enum Context {
   				getCommander().handlePostEntry();
   			}
   		}
+  	};
+  	timeoutService.schedule(new Runnable() {
+  		public void run() {
+  			if( null == getBaseAoC() ) {
+  				timeOut.run();
+  			} else if( true != getBaseAoC().postInternal(timeOut) ) {
+  				log.error("Interrupted while posting timeout " + timeOutID + ".");
+  			}
+  		}
   	}, time, timeUnit);
   }
   
@@ -307,7 +330,9 @@ public enum Context {
 	 * @return boolean
 	 */
   public boolean terminateTimeout(long id) {
-  	log.trace("terminateTimeout(" + id + ")");
+  	if( log.isTraceEnabled() ) {
+  		log.trace("terminateTimeout(" + id + ")");
+  	}
   	return getExecuteItems().remove(id);
   }
   
@@ -317,7 +342,9 @@ public enum Context {
 	 * @return boolean
 	 */
   public boolean isTimeoutActive(long id) {
-  	log.trace("isTimeoutActive(" + id + ")");
+  	if( log.isTraceEnabled() ) {
+  		log.trace("isTimeoutActive(" + id + ")");
+  	}
   	return getExecuteItems().contains(id);
   }
   
@@ -398,5 +425,46 @@ public enum Context {
   		this.clientState = clientState;
   	}
   }
+  
+  /**
+   * Method to publish a gap marker in the duke info, marking that the load
+   * was disturbed from this time.
+   * @param time long with the time in milliseconds.
+   */
+  public void addGapMarker(long time) {
+  	if( log.isTraceEnabled() ) {
+  		log.trace("addGapMarker(" + time + ")");
+  	}
+  	if( null == this.clientInfo ) {
+  		log.error("No duke info published, unable to add gap marker at " + time + ".");
+  	} else {
+  		clientInfo.addGapMarker(time);
+  		getCommander().updateEntry(this.clientInfo);
+  	}
+  }
+  
+  /**
+   * Method to publish the capacity measured by the saturation search in the
+   * duke info.
+   * @param users int with the number of users the cluster handled.
+   */
+  public void setMeasuredCapacity(int users) {
+  	if( log.isTraceEnabled() ) {
+  		log.trace("setMeasuredCapacity(" + users + ")");
+  	}
+  	if( null == this.clientInfo ) {
+  		log.error("No duke info published, unable to publish measured capacity of " + users + " users.");
+  	} else {
+  		clientInfo.setMeasuredCapacity(users);
+  		getCommander().updateEntry(this.clientInfo);
+  	}
+  }
+  
+  /**
+   * @return the published duke info, null if not published yet.
+   */
+  public DukeInfo getClientInfo() {
+  	return clientInfo;
+  }
 
 }
@@ -16,6 +16,7 @@
 package io.github.scrier.opus.duke.commander;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import org.apache.logging.log4j.LogManager;
@@ -37,9 +38,11 @@ public class DukeCommander extends DataListener implements IProcedureWait {
 
 	private static Logger log = LogManager.getLogger(DukeCommander.class);
 
-	private List<BaseDukeProcedure> procedures;
+	private List<BaseDukeProcedure> procedures;	///< changed only through addRunningProcedure and removeRunningProcedure.
+	private List<BaseDukeProcedure> proceduresView;
 	private List<BaseDukeProcedure> proceduresToAdd;
 	private List<BaseDukeProcedure> toRemove;
+	private ProcedureIndex procedureIndex;
 	private boolean distributorRunning;
 	private final long terminateDukeProcedureID = 782452L;
 	private boolean waitingForProcedure;
@@ -54,7 +57,9 @@ public class DukeCommander extends DataListener implements IProcedureWait {
 
 	public DukeCommander(HazelcastInstance instance) {
 		super(instance, Shared.Hazelcast.BASE_NUKE_MAP);
+		procedureIndex = new ProcedureIndex();
 		procedures = new ArrayList<BaseDukeProcedure>();
+		proceduresView = Collections.unmodifiableList(procedures);
 		proceduresToAdd = new ArrayList<BaseDukeProcedure>();
 		toRemove = new ArrayList<BaseDukeProcedure>();
 		setDistributorRunning(false);
@@ -67,7 +72,9 @@ public class DukeCommander extends DataListener implements IProcedureWait {
 	@Override
 	public void init() {
 		log.trace("init()");
-		log.debug("Size is: " + getEntries().size());
+		if( log.isDebugEnabled() ) {
+			log.debug("Size is: " + getEntries().size());
+		}
 		theContext.setClientState(DukeState.STARTED);
 		DukeInfo info = isAnotherDukeRunning();
 		if ( null != info ) {
@@ -87,7 +94,7 @@ public class DukeCommander extends DataListener implements IProcedureWait {
 	public void shutDown() {
 		log.trace("shutDown()");
 		clear(getProceduresToAdd());
-		clear(getProcedures());
+		clearRunningProcedures();
 		clear(getProceduresToRemove());
 	}
 
@@ -99,7 +106,9 @@ public class DukeCommander extends DataListener implements IProcedureWait {
 	 * @return boolean
 	 */
 	public boolean registerProcedure(BaseDukeProcedure procedure) {
-		log.trace("registerProcedure(" + procedure + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("registerProcedure(" + procedure + ")");
+		}
 		boolean retValue = true;
 		if (contains(procedure)) {
 			retValue = false;
@@ -116,7 +125,9 @@ public class DukeCommander extends DataListener implements IProcedureWait {
 	 *          List with the procedures to remove.
 	 */
 	public void clear(List<BaseDukeProcedure> toClear) {
-		log.trace("clear(" + toClear + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("clear(" + toClear + ")");
+		}
 		for (BaseDukeProcedure procedure : toClear) {
 			try {
 				procedure.shutDown();
@@ -136,7 +147,9 @@ public class DukeCommander extends DataListener implements IProcedureWait {
 	 * @return boolean with true if it is contained in one of the 2 lists.
 	 */
 	private boolean contains(BaseDukeProcedure procedure) {
-		log.trace("contains(" + procedure + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("contains(" + procedure + ")");
+		}
 		boolean retValue = procedures.contains(procedure);
 		retValue = (true == retValue) ? true : proceduresToAdd.contains(procedure);
 		return retValue;
@@ -149,7 +162,9 @@ public class DukeCommander extends DataListener implements IProcedureWait {
 	 *          BaseDukeProcedure to remove.
 	 */
 	private void removeProcedure(BaseDukeProcedure procedure) {
-		log.trace("removeProcedure(" + procedure + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("removeProcedure(" + procedure + ")");
+		}
 		toRemove.add(procedure);
 	}
 
@@ -158,7 +173,49 @@ public class DukeCommander extends DataListener implements IProcedureWait {
 	 */
 	private void removeAllProcedures() {
 		log.trace("removeAllProcedures()");
-		clear(getProcedures());
+		clearRunningProcedures();
+	}
+	
+	/**
+	 * Method to add a running procedure and index it.
+	 * 
+	 * @param procedure
+	 *          BaseDukeProcedure that is initialized.
+	 */
+	protected void addRunningProcedure(BaseDukeProcedure procedure) {
+		procedures.add(procedure);
+		procedureIndex.add(procedure);
+	}
+	
+	/**
+	 * Method to remove a running procedure from the list and the index.
+	 * 
+	 * @param procedure
+	 *          BaseDukeProcedure to remove.
+	 * @return boolean true if it was running.
+	 */
+	protected boolean removeRunningProcedure(BaseDukeProcedure procedure) {
+		boolean retValue = procedures.remove(procedure);
+		if( true == retValue ) {
+			procedureIndex.remove(procedure);
+		}
+		return retValue;
+	}
+	
+	/**
+	 * Method to shut down and remove all running procedures.
+	 */
+	private void clearRunningProcedures() {
+		log.trace("clearRunningProcedures()");
+		for (BaseDukeProcedure procedure : procedures) {
+			try {
+				procedure.shutDown();
+			} catch (Exception e) {
+				log.error("shutDown of procedure: " + procedure + " threw Exception", e);
+			}
+		}
+		procedures.clear();
+		procedureIndex.clear();
 	}
 
 	/**
@@ -166,7 +223,9 @@ public class DukeCommander extends DataListener implements IProcedureWait {
 	 */
 	@Override
 	public void mapCleared(MapEvent cleared) {
-		log.trace("mapCleared(" + cleared + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("mapCleared(" + cleared + ")");
+		}
 		log.error("Map was cleared, removing all.");
 		removeAllProcedures();
 	}
@@ -176,7 +235,9 @@ public class DukeCommander extends DataListener implements IProcedureWait {
 	 */
 	@Override
 	public void mapEvicted(MapEvent evicted) {
-		log.trace("mapEvicted(" + evicted + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("mapEvicted(" + evicted + ")");
+		}
 		log.error("Map was evicted, removing all.");
 		removeAllProcedures();
 	}
@@ -195,11 +256,13 @@ public class DukeCommander extends DataListener implements IProcedureWait {
 	public synchronized void initializeProcedures() {
 		log.trace("initializeProcedures()");
 		if (true != getProceduresToAdd().isEmpty()) {
-			log.debug("Adding " + getProceduresToAdd().size() + " procedures.");
+			if( log.isDebugEnabled() ) {
+				log.debug("Adding " + getProceduresToAdd().size() + " procedures.");
+			}
 			for (BaseDukeProcedure procedure : getProceduresToAdd()) {
 				try {
 					procedure.init();
-					procedures.add(procedure);
+					addRunningProcedure(procedure);
 				} catch (Exception e) {
 					log.error("init of procedure: " + procedure + " threw Exception", e);
 				}
@@ -213,11 +276,13 @@ public class DukeCommander extends DataListener implements IProcedureWait {
 	 */
 	@Override
 	public void entryAdded(Long component, BaseDataC data) {
-		log.trace("entryAdded(" + component + ", " + data + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("entryAdded(" + component + ", " + data + ")");
+		}
 		switch (data.getId()) {
 			case NukeDataFactory.NUKE_INFO: {
 				log.info("Adding new NukeProcedure for NukeInfo: " + data + ".");
-				registerProcedure(new NukeProcedure(new NukeInfo(data)));
+				registerProcedure(new NukeProcedure((NukeInfo)data));
 				break;
 			}
 			case DukeDataFactory.FACTORY_ID: {
@@ -237,14 +302,20 @@ public class DukeCommander extends DataListener implements IProcedureWait {
 	 */
 	@Override
 	public void entryEvicted(Long component, BaseDataC data) {
-		log.trace("entryEvicted(" + component + ", " + data + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("entryEvicted(" + component + ", " + data + ")");
+		}
 		for (BaseDukeProcedure procedure : getProcedures()) {
 			int result = procedure.handleOnEvicted(data);
 			if ( COMPLETED == result ) {
-				log.debug("Procedure " + procedure + " completed.");
+				if( log.isDebugEnabled() ) {
+					log.debug("Procedure " + procedure + " completed.");
+				}
 				removeProcedure(procedure);
 			} else if ( ABORTED == result ) {
-				log.debug("Procedure " + procedure + " aborted.");
+				if( log.isDebugEnabled() ) {
+					log.debug("Procedure " + procedure + " aborted.");
+				}
 				removeProcedure(procedure);
 			}
 		}
@@ -255,14 +326,20 @@ public class DukeCommander extends DataListener implements IProcedureWait {
 	 */
 	@Override
 	public void entryRemoved(Long key) {
-		log.trace("entryRemoved(" + key + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("entryRemoved(" + key + ")");
+		}
 		for (BaseDukeProcedure procedure : getProcedures()) {
 			int result = procedure.handleOnRemoved(key);
 			if ( COMPLETED == result ) {
-				log.debug("Procedure " + procedure + " completed.");
+				if( log.isDebugEnabled() ) {
+					log.debug("Procedure " + procedure + " completed.");
+				}
 				removeProcedure(procedure);
 			} else if ( ABORTED == result ) {
-				log.debug("Procedure " + procedure + " aborted.");
+				if( log.isDebugEnabled() ) {
+					log.debug("Procedure " + procedure + " aborted.");
+				}
 				removeProcedure(procedure);
 			}
 		}
@@ -273,14 +350,20 @@ public class DukeCommander extends DataListener implements IProcedureWait {
 	 */
 	@Override
 	public void entryUpdated(Long component, BaseDataC data) {
-		log.trace("entryUpdated(" + component + ", " + data + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("entryUpdated(" + component + ", " + data + ")");
+		}
 		for (BaseDukeProcedure procedure : getProcedures()) {
 			int result = procedure.handleOnUpdated(data);
 			if ( COMPLETED == result ) {
-				log.debug("Procedure " + procedure + " completed.");
+				if( log.isDebugEnabled() ) {
+					log.debug("Procedure " + procedure + " completed.");
+				}
 				removeProcedure(procedure);
 			} else if ( ABORTED == result ) {
-				log.debug("Procedure " + procedure + " aborted.");
+				if( log.isDebugEnabled() ) {
+					log.debug("Procedure " + procedure + " aborted.");
+				}
 				removeProcedure(procedure);
 			}
 		}
@@ -295,7 +378,9 @@ public class DukeCommander extends DataListener implements IProcedureWait {
 	 * @throws ClassCastException thrown if an invalid messages is entered.
 	 */
 	public void handleInMessage(BaseMsgC message) throws ClassCastException, InvalidOperationException {
-		log.trace("handleInMessage(" + message + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("handleInMessage(" + message + ")");
+		}
 		preEntry();
 		if ( theContext.getIdentity() == message.getDestination() ||
 			 ( Constants.MSG_TO_ALL == message.getDestination() && 
@@ -305,13 +390,19 @@ public class DukeCommander extends DataListener implements IProcedureWait {
 				handleMessage(pDukeCommandReq);
 			} else { // /@TODO Might need to check if there is more calls that is needed
 				// for the DUKE_COMMAND_REQ message.
-				for (BaseDukeProcedure procedure : procedures) {
+				ProcedureIndex index = getProcedureIndex();
+				for (BaseDukeProcedure procedure : index.route(message)) {
 					int result = procedure.handleInMessage(message);
+					index.update(procedure);
 					if ( COMPLETED == result ) {
-						log.debug("Procedure " + procedure + " completed.");
+						if( log.isDebugEnabled() ) {
+							log.debug("Procedure " + procedure + " completed.");
+						}
 						removeProcedure(procedure);
 					} else if ( ABORTED == result ) {
-						log.debug("Procedure " + procedure + " aborted.");
+						if( log.isDebugEnabled() ) {
+							log.debug("Procedure " + procedure + " aborted.");
+						}
 						removeProcedure(procedure);
 					}
 				}
@@ -338,7 +429,7 @@ public class DukeCommander extends DataListener implements IProcedureWait {
 		for (BaseDukeProcedure procedure : getProceduresToRemove()) {
 			try {
 				procedure.shutDown();
-				procedures.remove(procedure);
+				removeRunningProcedure(procedure);
 			} catch (Exception e) {
 				log.error("shutDown of procedure: " + procedure + " threw Exception", e);
 			}
@@ -353,10 +444,14 @@ public class DukeCommander extends DataListener implements IProcedureWait {
 	public void handlePostEntry() {
 		for (BaseDukeProcedure procedure : getProcedures()) {
 			if ( COMPLETED == procedure.getState()) {
-				log.debug("Procedure " + procedure + " completed.");
+				if( log.isDebugEnabled() ) {
+					log.debug("Procedure " + procedure + " completed.");
+				}
 				removeProcedure(procedure);
 			} else if ( ABORTED == procedure.getState()) {
-				log.debug("Procedure " + procedure + " aborted.");
+				if( log.isDebugEnabled() ) {
+					log.debug("Procedure " + procedure + " aborted.");
+				}
 				removeProcedure(procedure);
 			}
 		}
@@ -373,20 +468,24 @@ public class DukeCommander extends DataListener implements IProcedureWait {
 	 *         for( BaseDukeProcedures procedure : commandProcedures ) ... } }
 	 */
 	public List<BaseDukeProcedure> getProcedures(Class<?> procs) {
-		List<BaseDukeProcedure> retVal = new ArrayList<BaseDukeProcedure>();
-		for (BaseDukeProcedure procedure : getProcedures()) {
-			if (procs.getName() == procedure.getClass().getName()) {
-				retVal.add(procedure);
-			}
-		}
-		return retVal;
+		return getProcedureIndex().getProcedures(procs);
 	}
 
 	/**
-	 * @return the procedures
+	 * @return unmodifiable view of the running procedures.
 	 */
 	protected List<BaseDukeProcedure> getProcedures() {
-		return procedures;
+		return proceduresView;
+	}
+
+	/**
+	 * Method to get the index used to route messages to the running procedures.
+	 * The index is updated by every change of the running procedures.
+	 * 
+	 * @return ProcedureIndex
+	 */
+	protected ProcedureIndex getProcedureIndex() {
+		return procedureIndex;
 	}
 
 	/**
@@ -484,10 +583,12 @@ public class DukeCommander extends DataListener implements IProcedureWait {
 	private void initializeAsSingleDuke() {
 		log.trace("initializeAsSingleDuke()");
 		for (BaseDataC nuke : getEntries()) {
-			log.debug("Instance is: " + nuke + ".");
+			if( log.isDebugEnabled() ) {
+				log.debug("Instance is: " + nuke + ".");
+			}
 			if (NukeDataFactory.NUKE_INFO == nuke.getId()) {
 				log.info("Adding new NukeProcedure for NukeInfo: " + nuke + ".");
-				registerProcedure(new NukeProcedure(new NukeInfo(nuke)));
+				registerProcedure(new NukeProcedure((NukeInfo)nuke));
 			}
 		}
 		startDistributor();
@@ -499,7 +600,9 @@ public class DukeCommander extends DataListener implements IProcedureWait {
 	 */
 	@Override
 	public void procedureFinished(long identity, int state) {
-		log.trace("procedureFinished(" + identity + ", " + state + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("procedureFinished(" + identity + ", " + state + ")");
+		}
 		if( terminateDukeProcedureID != identity ) {
 			log.error("Received procedure finished from unknown procedure: " + identity + ", expected: " + terminateDukeProcedureID + ".");
 			theContext.shutDown();
@@ -540,7 +643,9 @@ public class DukeCommander extends DataListener implements IProcedureWait {
 	 */
 	protected void handleMessage(DukeCommandReqMsgC message)
 	    throws InvalidOperationException {
-		log.trace("handleMessage( " + message + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("handleMessage( " + message + ")");
+		}
 		DukeCommandRspMsgC pDukeCommandRsp = new DukeCommandRspMsgC(
 		    theContext.getSendIF());
 		pDukeCommandRsp.setSource(theContext.getIdentity());
@@ -75,4 +75,39 @@ public interface INukeInfo {
 	 */
 	public int getNoOfCompletedCommands();
 	
+	/**
+	 * Method to get the capacity score the nuke calibrated at startup,
+	 * users are distributed in proportion to it.
+	 * @return int with the score, 0 if the nuke didn't report one.
+	 */
+	public int getCapacity();
+	
+	/**
+	 * Method to get the number of users the nuke runs towards the target it
+	 * was given, the nuke starts and stops them on its own.
+	 * @return int with the users, 0 if the nuke has no target.
+	 */
+	public int getAchievedUsers();
+	
+	/**
+	 * Method to get the number of process executions the nuke finished,
+	 * every execution of a repeated user is counted.
+	 * @return long
+	 */
+	public long getExecutions();
+	
+	/**
+	 * Method to get the number of process executions that failed, they are
+	 * included in the executions.
+	 * @return long
+	 */
+	public long getFailedExecutions();
+	
+	/**
+	 * Method to get the 95th percentile of the execution time of the latest
+	 * executions on the nuke.
+	 * @return int with the time in milliseconds, 0 if nothing is executed.
+	 */
+	public int getExecutionTimeP95();
+	
 }
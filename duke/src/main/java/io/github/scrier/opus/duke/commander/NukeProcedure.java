@@ -37,7 +37,9 @@ public class NukeProcedure extends BaseDukeProcedure implements INukeInfo {
 	public final int WORKING      = CREATED + 2;
 	
 	public NukeProcedure(NukeInfo info) {
-		log.trace("NukeProcedure(" + info + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("NukeProcedure(" + info + ")");
+		}
 		local = new NukeInfo(info);
 		setPublishToMap(false);
 		setRequestedNoOfThreads(0);
@@ -78,13 +80,15 @@ public class NukeProcedure extends BaseDukeProcedure implements INukeInfo {
 	 */
 	@Override
 	public int handleOnUpdated(BaseDataC data) {
-		log.trace("handleOnUpdated(" + data + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("handleOnUpdated(" + data + ")");
+		}
 		if( local.getKey() == data.getKey()) {
 			setPublishToMap(false);
 			switch( data.getId() ) {
 				case NukeDataFactory.NUKE_INFO:
 				{
-					NukeInfo info = new NukeInfo(data);
+					NukeInfo info = (NukeInfo)data;
 					handleUpdated(info);
 					break;
 				}
@@ -106,11 +110,13 @@ public class NukeProcedure extends BaseDukeProcedure implements INukeInfo {
 	 */
 	@Override
 	public int handleOnEvicted(BaseDataC data) {
-		log.trace("handleOnEvicted(" + data + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("handleOnEvicted(" + data + ")");
+		}
 		switch( data.getId() ) {
 			case NukeDataFactory.NUKE_INFO:
 			{
-				NukeInfo info = new NukeInfo(data);
+				NukeInfo info = (NukeInfo)data;
 				handleEvicted(info);
 				break;
 			}
@@ -128,8 +134,10 @@ public class NukeProcedure extends BaseDukeProcedure implements INukeInfo {
 	 */
 	@Override
   public int handleOnRemoved(Long key) {
-		log.trace("handleOnRemoved(" + key + ")");
-		if( getIdentity() == key ) {
+		if( log.isTraceEnabled() ) {
+			log.trace("handleOnRemoved(" + key + ")");
+		}
+		if( local.getKey() == key ) {
 			log.error("[" + getTxID() + "] Entry: " + key + " was removed, aborting handler for it.");
 			setState(ABORTED);
 		}
@@ -137,7 +145,9 @@ public class NukeProcedure extends BaseDukeProcedure implements INukeInfo {
   }
 	
 	private void handleUpdated(NukeInfo info) {
-		log.trace("handleUpdated(" + info + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("handleUpdated(" + info + ")");
+		}
 		long modified = local.compare(info);
 		if( 0 < ( NukeInfo.NUKE_ID_MODIFIED & modified ) ) {
 			log.error("[" + getTxID() + "] Received modified id of the NukeInfo object. cannot continue.");
@@ -168,26 +178,56 @@ public class NukeProcedure extends BaseDukeProcedure implements INukeInfo {
 				log.error("Skipping to set requested users to the global state due to issue #16, this needs to be fixed for the next release");
 				//local.setRequestedUsers(info.getRequestedUsers());
 			}
+			if( 0 < ( ( NukeInfo.CORES_MODIFIED | NukeInfo.MEMORY_MODIFIED | NukeInfo.SPAWN_RATE_MODIFIED | NukeInfo.CAPACITY_MODIFIED ) & modified ) ) {
+				log.info("[" + getTxID() + "] Capacity of nuke " + info.getNukeID() + " is " + info.getCapacity() + " with " + info.getCores() + 
+						" cores, " + info.getMemory() + " MB and " + info.getSpawnRate() + " spawns/s.");
+				local.setCores(info.getCores());
+				local.setMemory(info.getMemory());
+				local.setSpawnRate(info.getSpawnRate());
+				local.setCapacity(info.getCapacity());
+			}
+			if( 0 < ( NukeInfo.ACHIEVED_USERS_MODIFIED & modified ) ) {
+				log.debug("[" + getTxID() + "] Achieved users changed from " + local.getAchievedUsers() + " to " + info.getAchievedUsers() + ".");
+				local.setAchievedUsers(info.getAchievedUsers());
+			}
+			if( 0 < ( ( NukeInfo.EXECUTIONS_MODIFIED | NukeInfo.FAILED_EXECUTIONS_MODIFIED | NukeInfo.EXECUTION_TIME_P95_MODIFIED ) & modified ) ) {
+				log.debug("[" + getTxID() + "] Executions changed to " + info.getExecutions() + " with " + info.getFailedExecutions() + 
+						" failed, p95 " + info.getExecutionTimeP95() + " ms.");
+				local.setExecutions(info.getExecutions());
+				local.setFailedExecutions(info.getFailedExecutions());
+				local.setExecutionTimeP95(info.getExecutionTimeP95());
+			}
+			if( 0 < ( ( NukeInfo.SUBMITTED_USERS_MODIFIED | NukeInfo.REJECTED_USERS_MODIFIED ) & modified ) ) {
+				if( info.getRejectedUsers() > local.getRejectedUsers() ) {
+					log.warn("[" + getTxID() + "] Nuke " + info.getNukeID() + " rejected " + ( info.getRejectedUsers() - local.getRejectedUsers() ) + 
+							" users, " + info.getRejectedUsers() + " of " + ( info.getSubmittedUsers() + info.getRejectedUsers() ) + " in total.");
+				}
+				local.setSubmittedUsers(info.getSubmittedUsers());
+				local.setRejectedUsers(info.getRejectedUsers());
+			}
 			if( 0 < ( NukeInfo.STATE_MODIFIED & modified ) ) {
 				log.debug("[" + getTxID() + "] State changed from " + local.getState() + " to " + info.getState() + ".");
 				handleState(info.getState());
 			}
-			info.resetValuesModified();
 		} else {
 			// do nothing, another nuke procedure will take care of it.
 		}
 	}
 	
 	private void handleEvicted(NukeInfo info) {
-		log.trace("handleEvicted(" + info + ")");
-		if( getIdentity() == info.getNukeID() ) {
+		if( log.isTraceEnabled() ) {
+			log.trace("handleEvicted(" + info + ")");
+		}
+		if( local.getNukeID() == info.getNukeID() ) {
 			log.error("[" + getTxID() + "] Entry " + info + " was evicted, aborting handler for it.");
 			setState(ABORTED);
 		}
 	}
 	
 	protected void handleState(NukeState state) {
-		log.trace("handleState(" + state + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("handleState(" + state + ")");
+		}
 		switch( state ) {
 			case ABORTED: {
 				log.info("[" + getTxID() + "] Node " + getNukeID() + " aborted.");
@@ -314,6 +354,46 @@ public class NukeProcedure extends BaseDukeProcedure implements INukeInfo {
 		return local.getRequestedThreads();
 	}
 	
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int getCapacity() {
+		return local.getCapacity();
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int getAchievedUsers() {
+		return local.getAchievedUsers();
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long getExecutions() {
+		return local.getExecutions();
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long getFailedExecutions() {
+		return local.getFailedExecutions();
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int getExecutionTimeP95() {
+		return local.getExecutionTimeP95();
+	}
+	
 	/**
 	 * {@inheritDoc}
 	 */
@@ -0,0 +1,241 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * @author Andreas Joelsson (andreas.joelsson@gmail.com)
+ */
+package io.github.scrier.opus.duke.commander;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import io.github.scrier.opus.common.Constants;
+import io.github.scrier.opus.common.message.BaseMsgC;
+import io.github.scrier.opus.common.nuke.NukeExecuteIndMsgC;
+import io.github.scrier.opus.common.nuke.NukeExecuteRspMsgC;
+
+/**
+ * Index of the running procedures in the DukeCommander used to route
+ * incoming messages without visiting every procedure.
+ * Procedures that are routed are indexed on txID, processID and sagaID,
+ * all other procedures are indexed on their type and receive every message.
+ */
+public class ProcedureIndex {
+
+	private static Logger log = LogManager.getLogger(ProcedureIndex.class);
+
+	private Map<Integer, BaseDukeProcedure> txIDs;
+	private Map<Long, BaseDukeProcedure> processIDs;
+	private Map<Long, BaseDukeProcedure> sagaIDs;
+	private Map<Class<?>, List<BaseDukeProcedure>> types;
+	private List<BaseDukeProcedure> fallback;
+	private Map<BaseDukeProcedure, RoutingKeys> registered;
+
+	public ProcedureIndex() {
+		log.trace("ProcedureIndex()");
+		txIDs = new HashMap<Integer, BaseDukeProcedure>();
+		processIDs = new HashMap<Long, BaseDukeProcedure>();
+		sagaIDs = new HashMap<Long, BaseDukeProcedure>();
+		types = new HashMap<Class<?>, List<BaseDukeProcedure>>();
+		fallback = new ArrayList<BaseDukeProcedure>();
+		registered = new IdentityHashMap<BaseDukeProcedure, RoutingKeys>();
+	}
+
+	/**
+	 * Method to add a procedure to the index.
+	 * @param procedure BaseDukeProcedure to add.
+	 * @return boolean true if added, false if already indexed.
+	 */
+	public boolean add(BaseDukeProcedure procedure) {
+		if( log.isTraceEnabled() ) {
+			log.trace("add(" + procedure + ")");
+		}
+		if( registered.containsKey(procedure) ) {
+			return false;
+		}
+		RoutingKeys keys = new RoutingKeys();
+		registered.put(procedure, keys);
+		List<BaseDukeProcedure> ofType = types.get(procedure.getClass());
+		if( null == ofType ) {
+			ofType = new ArrayList<BaseDukeProcedure>();
+			types.put(procedure.getClass(), ofType);
+		}
+		ofType.add(procedure);
+		if( true == procedure.isRouted() ) {
+			keys.txID = procedure.getTxID();
+			put(txIDs, keys.txID, procedure);
+			update(procedure);
+		} else {
+			fallback.add(procedure);
+		}
+		return true;
+	}
+
+	/**
+	 * Method to refresh the keys of a routed procedure, used when the
+	 * procedure learns its processID or sagaID after it was added.
+	 * @param procedure BaseDukeProcedure to refresh.
+	 */
+	public void update(BaseDukeProcedure procedure) {
+		RoutingKeys keys = registered.get(procedure);
+		if( null == keys || true != procedure.isRouted() ) {
+			return;
+		}
+		long processID = procedure.getRoutingProcessID();
+		if( processID != keys.processID ) {
+			removeKey(processIDs, keys.processID, procedure);
+			keys.processID = processID;
+			if( Constants.HC_UNDEFINED != processID ) {
+				put(processIDs, processID, procedure);
+			}
+		}
+		long sagaID = procedure.getRoutingSagaID();
+		if( sagaID != keys.sagaID ) {
+			removeKey(sagaIDs, keys.sagaID, procedure);
+			keys.sagaID = sagaID;
+			if( Constants.HC_UNDEFINED != sagaID ) {
+				put(sagaIDs, sagaID, procedure);
+			}
+		}
+	}
+
+	/**
+	 * Method to remove a procedure from the index.
+	 * @param procedure BaseDukeProcedure to remove.
+	 * @return boolean true if it was indexed.
+	 */
+	public boolean remove(BaseDukeProcedure procedure) {
+		if( log.isTraceEnabled() ) {
+			log.trace("remove(" + procedure + ")");
+		}
+		RoutingKeys keys = registered.remove(procedure);
+		if( null == keys ) {
+			return false;
+		}
+		List<BaseDukeProcedure> ofType = types.get(procedure.getClass());
+		if( null != ofType ) {
+			ofType.remove(procedure);
+			if( ofType.isEmpty() ) {
+				types.remove(procedure.getClass());
+			}
+		}
+		if( true != fallback.remove(procedure) ) {
+			removeKey(txIDs, keys.txID, procedure);
+			removeKey(processIDs, keys.processID, procedure);
+			removeKey(sagaIDs, keys.sagaID, procedure);
+		}
+		return true;
+	}
+
+	/**
+	 * Method to clear the index.
+	 */
+	public void clear() {
+		log.trace("clear()");
+		txIDs.clear();
+		processIDs.clear();
+		sagaIDs.clear();
+		types.clear();
+		fallback.clear();
+		registered.clear();
+	}
+
+	/**
+	 * Method to get the procedures that should receive a message.
+	 * Routed procedures matching the txID, sagaID or processID of the message
+	 * comes first followed by all procedures that are not routed.
+	 * @param message BaseMsgC to route.
+	 * @return List with the BaseDukeProcedure to call.
+	 */
+	public List<BaseDukeProcedure> route(BaseMsgC message) {
+		List<BaseDukeProcedure> retValue = new ArrayList<BaseDukeProcedure>(fallback.size() + 1);
+		addMatch(retValue, txIDs.get(message.getTxID()));
+		if( Constants.HC_UNDEFINED != message.getSagaID() ) {
+			addMatch(retValue, sagaIDs.get(message.getSagaID()));
+		}
+		long processID = getProcessID(message);
+		if( Constants.HC_UNDEFINED != processID ) {
+			addMatch(retValue, processIDs.get(processID));
+		}
+		retValue.addAll(fallback);
+		return retValue;
+	}
+
+	/**
+	 * Method to get the indexed procedures of a specific class.
+	 * @param procs the class to look for.
+	 * @return List with BaseDukeProcedure
+	 */
+	public List<BaseDukeProcedure> getProcedures(Class<?> procs) {
+		List<BaseDukeProcedure> ofType = types.get(procs);
+		if( null == ofType ) {
+			return new ArrayList<BaseDukeProcedure>();
+		}
+		return new ArrayList<BaseDukeProcedure>(ofType);
+	}
+
+	/**
+	 * @return the number of indexed procedures.
+	 */
+	public int size() {
+		return registered.size();
+	}
+
+	/**
+	 * Method to get the process id of the messages that carries one.
+	 * @param message BaseMsgC to check.
+	 * @return long with the process id or Constants.HC_UNDEFINED.
+	 */
+	protected long getProcessID(BaseMsgC message) {
+		if( message instanceof NukeExecuteIndMsgC ) {
+			return ((NukeExecuteIndMsgC)message).getProcessID();
+		} else if( message instanceof NukeExecuteRspMsgC ) {
+			return ((NukeExecuteRspMsgC)message).getProcessID();
+		}
+		return Constants.HC_UNDEFINED;
+	}
+
+	private void addMatch(List<BaseDukeProcedure> matches, BaseDukeProcedure procedure) {
+		if( null != procedure && true != matches.contains(procedure) ) {
+			matches.add(procedure);
+		}
+	}
+
+	private <K> void put(Map<K, BaseDukeProcedure> index, K key, BaseDukeProcedure procedure) {
+		BaseDukeProcedure previous = index.put(key, procedure);
+		if( null != previous && previous != procedure ) {
+			log.warn("Key " + key + " was routed to " + previous + ", now routed to " + procedure + ".");
+		}
+	}
+
+	private <K> void removeKey(Map<K, BaseDukeProcedure> index, K key, BaseDukeProcedure procedure) {
+		if( procedure == index.get(key) ) {
+			index.remove(key);
+		}
+	}
+
+	/**
+	 * Keys a routed procedure is currently indexed on.
+	 */
+	private static class RoutingKeys {
+		int txID = -1;
+		long processID = Constants.HC_UNDEFINED;
+		long sagaID = Constants.HC_UNDEFINED;
+	}
+
+}
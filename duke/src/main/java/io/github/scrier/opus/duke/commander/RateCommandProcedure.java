@@ -0,0 +1,451 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ * @author Andreas Joelsson (andreas.joelsson@gmail.com)
+ */
+package io.github.scrier.opus.duke.commander;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import io.github.scrier.opus.common.Constants;
+import io.github.scrier.opus.common.TypedDispatcher;
+import io.github.scrier.opus.common.data.BaseDataC;
+import io.github.scrier.opus.common.message.BaseMsgC;
+import io.github.scrier.opus.common.nuke.CommandState;
+import io.github.scrier.opus.common.nuke.NukeExecuteBatchIndMsgC;
+import io.github.scrier.opus.common.nuke.NukeExecuteIndMsgC;
+import io.github.scrier.opus.common.nuke.NukeExecuteRateReqMsgC;
+import io.github.scrier.opus.common.nuke.NukeExecuteRspMsgC;
+import io.github.scrier.opus.common.nuke.NukeMsgFactory;
+
+/**
+ * Procedure starting an arrival rate of a command on one nuke through a
+ * NukeExecuteRateReqMsgC, the nuke launches the command on schedule whether
+ * or not the earlier executions are finished. The rate can be changed while
+ * running, the procedure is finished when the nuke stops the schedule.
+ */
+public class RateCommandProcedure extends BaseDukeProcedure {
+
+	private static Logger log = LogManager.getLogger(RateCommandProcedure.class);
+	
+	private static final TypedDispatcher<RateCommandProcedure> dispatcher = new TypedDispatcher<RateCommandProcedure>();
+	
+	static {
+		dispatcher.register(NukeMsgFactory.FACTORY_ID, NukeMsgFactory.NUKE_EXECUTE_RSP, NukeExecuteRspMsgC.class,
+				new TypedDispatcher.Handler<RateCommandProcedure, NukeExecuteRspMsgC>() {
+			@Override
+			public void handle(RateCommandProcedure target, NukeExecuteRspMsgC message) {
+				log.debug("[" + target.getTxID() + "] Received NUKE_EXECUTE_RSP message.");
+				target.handleMessage(message);
+			}
+		});
+		dispatcher.register(NukeMsgFactory.FACTORY_ID, NukeMsgFactory.NUKE_EXECUTE_IND, NukeExecuteIndMsgC.class,
+				new TypedDispatcher.Handler<RateCommandProcedure, NukeExecuteIndMsgC>() {
+			@Override
+			public void handle(RateCommandProcedure target, NukeExecuteIndMsgC message) {
+				log.debug("[" + target.getTxID() + "] Received NUKE_EXECUTE_IND message.");
+				target.handleMessage(message);
+			}
+		});
+		dispatcher.register(NukeMsgFactory.FACTORY_ID, NukeMsgFactory.NUKE_EXECUTE_BATCH_IND, NukeExecuteBatchIndMsgC.class,
+				new TypedDispatcher.Handler<RateCommandProcedure, NukeExecuteBatchIndMsgC>() {
+			@Override
+			public void handle(RateCommandProcedure target, NukeExecuteBatchIndMsgC message) {
+				log.debug("[" + target.getTxID() + "] Received NUKE_EXECUTE_BATCH_IND message.");
+				target.handleMessage(message);
+			}
+		});
+	}
+
+	public final int INITIALIZING = CREATED + 1;
+	public final int WORKING =      CREATED + 2;
+
+	private long destination;
+	private String command;
+	private String folder;
+	private double rate;
+	private int maxInFlight;
+	private long sagaID;
+	private long processID;
+	private int startedProcesses;
+	private int finishedProcesses;
+	private int abortedProcesses;
+
+	/**
+	 * Constructor
+	 * @param destination long with the id of the nuke to call.
+	 * @param command String with the command to execute.
+	 * @param folder String with the folder to execute the command from.
+	 * @param rate double with the executions per second.
+	 * @param maxInFlight int with the max executions in flight, 0 for no limit.
+	 */
+	public RateCommandProcedure(long destination, String command, String folder, double rate, int maxInFlight) {
+		if( log.isTraceEnabled() ) {
+			log.trace("RateCommandProcedure(" + destination + ", \"" + command + "\", \"" + folder + "\", " + rate + ", " + maxInFlight + ")");
+		}
+		setDestination(destination);
+		setCommand(command);
+		setFolder(folder);
+		setRate(rate);
+		setMaxInFlight(maxInFlight);
+		setSagaID(getNextSagaID());
+		setProcessID(Constants.HC_UNDEFINED);
+		startedProcesses = 0;
+		finishedProcesses = 0;
+		abortedProcesses = 0;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void init() throws Exception {
+		log.trace("init()");
+		sendRequest();
+		setState(INITIALIZING);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void shutDown() throws Exception {
+		log.trace("shutDown()");
+		log.debug("[" + getTxID() + "] Arrival rate on " + getDestination() + " finished with " + getStartedProcesses() + " started, " + 
+				getFinishedProcesses() + " finished and " + getAbortedProcesses() + " aborted.");
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int handleOnUpdated(BaseDataC data) {
+		if( log.isTraceEnabled() ) {
+			log.trace("handleOnUpdated(" + data + ")");
+		}
+		return getState();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int handleOnEvicted(BaseDataC data) {
+		if( log.isTraceEnabled() ) {
+			log.trace("handleOnEvicted(" + data + ")");
+		}
+		return getState();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int handleOnRemoved(Long key) {
+		if( log.isTraceEnabled() ) {
+			log.trace("handleOnRemoved(" + key + ")");
+		}
+		return getState();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int handleInMessage(BaseMsgC message) {
+		if( log.isTraceEnabled() ) {
+			log.trace("handleInMessage(" + message + ")");
+		}
+		dispatcher.dispatch(this, message);
+		return getState();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean isRouted() {
+		return true;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long getRoutingSagaID() {
+		return getSagaID();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String toString() {
+		String retValue = "RateCommandProcedure{destination:" + getDestination();
+		retValue += ", command:" + getCommand();
+		retValue += ", folder:" + getFolder();
+		retValue += ", rate:" + getRate();
+		retValue += ", maxInFlight:" + getMaxInFlight();
+		retValue += ", started:" + getStartedProcesses();
+		retValue += ", finished:" + getFinishedProcesses() + "}";
+		return retValue;
+	}
+	
+	/**
+	 * Method to change the rate on the nuke.
+	 * @param rate double with the executions per second.
+	 * @param maxInFlight int with the max executions in flight, 0 for no limit.
+	 * @return boolean true if the change was sent.
+	 */
+	public boolean changeRate(double rate, int maxInFlight) {
+		if( log.isTraceEnabled() ) {
+			log.trace("changeRate(" + rate + ", " + maxInFlight + ")");
+		}
+		boolean retValue = false;
+		if( rate != getRate() || maxInFlight != getMaxInFlight() ) {
+			setRate(rate);
+			setMaxInFlight(maxInFlight);
+			if( CREATED != getState() && true != isProcedureFinished() ) {
+				sendRequest();
+				retValue = true;
+			}
+		}
+		return retValue;
+	}
+	
+	/**
+	 * Method to send the rate to the nuke.
+	 */
+	protected void sendRequest() {
+		NukeExecuteRateReqMsgC pNukeExecuteRateReq = new NukeExecuteRateReqMsgC(getSendIF());
+		pNukeExecuteRateReq.setTxID(getTxID());
+		pNukeExecuteRateReq.setSagaID(getSagaID());
+		pNukeExecuteRateReq.setSource(getIdentity());
+		pNukeExecuteRateReq.setDestination(getDestination());
+		pNukeExecuteRateReq.setCommand(getCommand());
+		pNukeExecuteRateReq.setFolder(getFolder());
+		pNukeExecuteRateReq.setRate(getRate());
+		pNukeExecuteRateReq.setMaxInFlight(getMaxInFlight());
+		pNukeExecuteRateReq.send();
+	}
+
+	/**
+	 * Method to handle the NukeExecuteRspMsgC message.
+	 * @param message NukeExecuteRspMsgC instance
+	 */
+	protected void handleMessage(NukeExecuteRspMsgC message) {
+		if( log.isTraceEnabled() ) {
+			log.trace("handleMessage(" + message + ")");
+		}
+		if( getTxID() != message.getTxID() ) {
+			log.debug("[" + getTxID() + "] Wrong txid. expected: " + getTxID() + ", but was: " + message.getTxID() + ".");
+		} else if( INITIALIZING != getState() ) {
+			log.error("[" + getTxID() + "] Received NukeExecuteRspMsgC in wrong state: " + getState() + ", expected: " + INITIALIZING + ".");
+			setState(ABORTED);
+		} else {
+			log.debug("[" + getTxID() + "] Arrival rate started with process id " + message.getProcessID() + ".");
+			setProcessID(message.getProcessID());
+			setState(WORKING);
+		}
+	}
+
+	/**
+	 * Method to handle the NukeExecuteIndMsgC message.
+	 * @param message NukeExecuteIndMsgC instance
+	 */
+	protected void handleMessage(NukeExecuteIndMsgC message) {
+		if( log.isTraceEnabled() ) {
+			log.trace("handleMessage(" + message + ")");
+		}
+		handleStatus(message.getSource(), message.getProcessID(), message.getStatus());
+	}
+
+	/**
+	 * Method to handle the NukeExecuteBatchIndMsgC message, every state change
+	 * is handled as a separate indication.
+	 * @param message NukeExecuteBatchIndMsgC instance
+	 */
+	protected void handleMessage(NukeExecuteBatchIndMsgC message) {
+		if( log.isTraceEnabled() ) {
+			log.trace("handleMessage(" + message + ")");
+		}
+		for( int i = 0; i < message.size() && true != isProcedureFinished(); i++ ) {
+			handleStatus(message.getSource(), message.getProcessIDs().get(i), message.getStatuses().get(i));
+		}
+	}
+
+	/**
+	 * Method to handle a state change reported by a nuke, the state of the
+	 * schedule finishes the procedure while the launched executions are counted.
+	 * @param source long with the identity of the reporting nuke.
+	 * @param processID long with the id of the process.
+	 * @param status CommandState the process changed to.
+	 */
+	protected void handleStatus(long source, long processID, CommandState status) {
+		if( getDestination() != source ) {
+			log.debug("[" + getTxID() + "] Message not for us, source: " + source + ".");
+		} else if( WORKING != getState() ) {
+			log.error("[" + getTxID() + "] Received NukeExecuteIndMsgC when not in state WORKING.");
+			setState(ABORTED);
+		} else if( getProcessID() == processID ) {
+			if( CommandState.DONE == status ) {
+				log.info("[" + getTxID() + "] Arrival rate on " + getDestination() + " stopped.");
+				setState(COMPLETED);
+			} else if( CommandState.ABORTED == status ) {
+				log.error("[" + getTxID() + "] Arrival rate on " + getDestination() + " reports aborted state.");
+				setState(ABORTED);
+			}
+		} else {
+			switch( status ) {
+				case WORKING: {
+					startedProcesses++;
+					break;
+				}
+				case ABORTED: {
+					log.error("[" + getTxID() + "] Task " + processID + " reports aborted state.");
+					abortedProcesses++;
+					finishedProcesses++;
+					break;
+				}
+				case DONE: {
+					finishedProcesses++;
+					break;
+				}
+				default: {
+					// do nothing.
+				}
+			}
+		}
+	}
+
+	/**
+	 * @return the destination
+	 */
+	public long getDestination() {
+		return destination;
+	}
+
+	/**
+	 * @param destination the destination to set
+	 */
+	public void setDestination(long destination) {
+		this.destination = destination;
+	}
+
+	/**
+	 * @return the command
+	 */
+	public String getCommand() {
+		return command;
+	}
+
+	/**
+	 * @param command the command to set
+	 */
+	public void setCommand(String command) {
+		this.command = command;
+	}
+
+	/**
+	 * @return the folder
+	 */
+	public String getFolder() {
+		return folder;
+	}
+
+	/**
+	 * @param folder the folder to set
+	 */
+	public void setFolder(String folder) {
+		this.folder = folder;
+	}
+
+	/**
+	 * @return the rate
+	 */
+	public double getRate() {
+		return rate;
+	}
+
+	/**
+	 * @param rate the rate to set
+	 */
+	private void setRate(double rate) {
+		this.rate = rate;
+	}
+
+	/**
+	 * @return the maxInFlight
+	 */
+	public int getMaxInFlight() {
+		return maxInFlight;
+	}
+
+	/**
+	 * @param maxInFlight the maxInFlight to set
+	 */
+	private void setMaxInFlight(int maxInFlight) {
+		this.maxInFlight = maxInFlight;
+	}
+
+	/**
+	 * @return the sagaID
+	 */
+	public long getSagaID() {
+		return sagaID;
+	}
+
+	/**
+	 * @param sagaID the sagaID to set
+	 */
+	public void setSagaID(long sagaID) {
+		this.sagaID = sagaID;
+	}
+
+	/**
+	 * @return the processID of the schedule on the nuke.
+	 */
+	public long getProcessID() {
+		return processID;
+	}
+
+	/**
+	 * @param processID the processID to set
+	 */
+	private void setProcessID(long processID) {
+		this.processID = processID;
+	}
+
+	/**
+	 * @return the number of executions that reported working.
+	 */
+	public int getStartedProcesses() {
+		return startedProcesses;
+	}
+
+	/**
+	 * @return the number of executions that reported done or aborted.
+	 */
+	public int getFinishedProcesses() {
+		return finishedProcesses;
+	}
+
+	/**
+	 * @return the number of executions that reported aborted.
+	 */
+	public int getAbortedProcesses() {
+		return abortedProcesses;
+	}
+
+}
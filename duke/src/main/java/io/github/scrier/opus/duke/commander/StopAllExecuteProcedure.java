@@ -41,7 +41,9 @@ public class StopAllExecuteProcedure extends BaseDukeProcedure {
 	 * @param callback callback interface with result of the execution.
 	 */
 	public StopAllExecuteProcedure(long id, ICommandCallback callback) {
-		log.trace("StopAllExecuteProcedure(" + id + ", " + callback + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("StopAllExecuteProcedure(" + id + ", " + callback + ")");
+		}
 		setNukeID(id);
 		setCallback(callback);
 	}
@@ -66,25 +68,38 @@ public class StopAllExecuteProcedure extends BaseDukeProcedure {
 
 	@Override
   public int handleOnUpdated(BaseDataC value) {
-		log.trace("handleOnUpdated(" + value + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("handleOnUpdated(" + value + ")");
+		}
 		return getState();
   }
 
 	@Override
   public int handleOnEvicted(BaseDataC value) {
-		log.trace("handleOnEvicted(" + value + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("handleOnEvicted(" + value + ")");
+		}
 	  return getState();
   }
 
 	@Override
   public int handleOnRemoved(Long key) {
-		log.trace("handleOnRemoved(" + key + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("handleOnRemoved(" + key + ")");
+		}
 		return getState();
   }
 
+	@Override
+  public boolean isRouted() {
+	  return true;
+  }
+
 	@Override
   public int handleInMessage(BaseMsgC message) {
-		log.trace("handleInMessage(" + message + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("handleInMessage(" + message + ")");
+		}
 		assert Constants.HC_UNDEFINED != message.getSource() : "Source should not be undefined: " + message.getSource() + ".";
 		assert Constants.HC_UNDEFINED != message.getDestination() : "Destination should not be undefined: " + message.getDestination() + ".";
 		switch( message.getId() ) {
@@ -148,7 +163,9 @@ public class StopAllExecuteProcedure extends BaseDukeProcedure {
    * @param message NukeStopAllRspMsgC to handle.
    */
   protected void handleMessage(NukeStopAllRspMsgC message) {
-  	log.trace("handleMessage(" + message + ")"); 
+  	if( log.isTraceEnabled() ) {
+  		log.trace("handleMessage(" + message + ")"); 
+  	}
   	if( getTxID() == message.getTxID() ) {
   		if( WAITING_FOR_STOP_RSP != getState() ) {
   			setResult("Received NukeStopAllRspMsgC in wrong state, expected: " + WAITING_FOR_STOP_RSP + ", but was: " + getState() + ".");
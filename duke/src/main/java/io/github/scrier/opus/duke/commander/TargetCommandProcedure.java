@@ -0,0 +1,380 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ * @author Andreas Joelsson (andreas.joelsson@gmail.com)
+ */
+package io.github.scrier.opus.duke.commander;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import io.github.scrier.opus.common.Constants;
+import io.github.scrier.opus.common.TypedDispatcher;
+import io.github.scrier.opus.common.data.BaseDataC;
+import io.github.scrier.opus.common.message.BaseMsgC;
+import io.github.scrier.opus.common.nuke.CommandState;
+import io.github.scrier.opus.common.nuke.NukeExecuteIndMsgC;
+import io.github.scrier.opus.common.nuke.NukeExecuteTargetReqMsgC;
+import io.github.scrier.opus.common.nuke.NukeExecuteRspMsgC;
+import io.github.scrier.opus.common.nuke.NukeMsgFactory;
+
+/**
+ * Procedure giving one nuke a target number of repeated users through a
+ * NukeExecuteTargetReqMsgC, the nuke ramps to the target on its own and
+ * reports the users it achieved through its NukeInfo, so the messages scale
+ * with the number of nukes instead of the number of users. The target can be
+ * changed while running, the procedure is finished when the nuke stops it.
+ */
+public class TargetCommandProcedure extends BaseDukeProcedure {
+
+	private static Logger log = LogManager.getLogger(TargetCommandProcedure.class);
+	
+	private static final TypedDispatcher<TargetCommandProcedure> dispatcher = new TypedDispatcher<TargetCommandProcedure>();
+	
+	static {
+		dispatcher.register(NukeMsgFactory.FACTORY_ID, NukeMsgFactory.NUKE_EXECUTE_RSP, NukeExecuteRspMsgC.class,
+				new TypedDispatcher.Handler<TargetCommandProcedure, NukeExecuteRspMsgC>() {
+			@Override
+			public void handle(TargetCommandProcedure target, NukeExecuteRspMsgC message) {
+				log.debug("[" + target.getTxID() + "] Received NUKE_EXECUTE_RSP message.");
+				target.handleMessage(message);
+			}
+		});
+		dispatcher.register(NukeMsgFactory.FACTORY_ID, NukeMsgFactory.NUKE_EXECUTE_IND, NukeExecuteIndMsgC.class,
+				new TypedDispatcher.Handler<TargetCommandProcedure, NukeExecuteIndMsgC>() {
+			@Override
+			public void handle(TargetCommandProcedure target, NukeExecuteIndMsgC message) {
+				log.debug("[" + target.getTxID() + "] Received NUKE_EXECUTE_IND message.");
+				target.handleMessage(message);
+			}
+		});
+	}
+
+	public final int INITIALIZING = CREATED + 1;
+	public final int WORKING =      CREATED + 2;
+
+	private long destination;
+	private String command;
+	private String folder;
+	private int target;
+	private int rampSeconds;
+	private long sagaID;
+	private long processID;
+
+	/**
+	 * Constructor
+	 * @param destination long with the id of the nuke to call.
+	 * @param command String with the command to execute.
+	 * @param folder String with the folder to execute the command from.
+	 * @param target int with the users to reach.
+	 * @param rampSeconds int with the seconds to reach them in.
+	 */
+	public TargetCommandProcedure(long destination, String command, String folder, int target, int rampSeconds) {
+		if( log.isTraceEnabled() ) {
+			log.trace("TargetCommandProcedure(" + destination + ", \"" + command + "\", \"" + folder + "\", " + target + ", " + rampSeconds + ")");
+		}
+		setDestination(destination);
+		setCommand(command);
+		setFolder(folder);
+		setTarget(target);
+		setRampSeconds(rampSeconds);
+		setSagaID(getNextSagaID());
+		setProcessID(Constants.HC_UNDEFINED);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void init() throws Exception {
+		log.trace("init()");
+		sendRequest();
+		setState(INITIALIZING);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void shutDown() throws Exception {
+		log.trace("shutDown()");
+		log.debug("[" + getTxID() + "] Target of " + getTarget() + " users on " + getDestination() + " finished.");
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int handleOnUpdated(BaseDataC data) {
+		if( log.isTraceEnabled() ) {
+			log.trace("handleOnUpdated(" + data + ")");
+		}
+		return getState();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int handleOnEvicted(BaseDataC data) {
+		if( log.isTraceEnabled() ) {
+			log.trace("handleOnEvicted(" + data + ")");
+		}
+		return getState();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int handleOnRemoved(Long key) {
+		if( log.isTraceEnabled() ) {
+			log.trace("handleOnRemoved(" + key + ")");
+		}
+		return getState();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int handleInMessage(BaseMsgC message) {
+		if( log.isTraceEnabled() ) {
+			log.trace("handleInMessage(" + message + ")");
+		}
+		dispatcher.dispatch(this, message);
+		return getState();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean isRouted() {
+		return true;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long getRoutingSagaID() {
+		return getSagaID();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String toString() {
+		String retValue = "TargetCommandProcedure{destination:" + getDestination();
+		retValue += ", command:" + getCommand();
+		retValue += ", folder:" + getFolder();
+		retValue += ", target:" + getTarget();
+		retValue += ", rampSeconds:" + getRampSeconds() + "}";
+		return retValue;
+	}
+	
+	/**
+	 * Method to change the target on the nuke, the nuke ramps to it from the
+	 * users it achieved so far.
+	 * @param target int with the users to reach.
+	 * @param rampSeconds int with the seconds to reach them in.
+	 * @return boolean true if the change was sent.
+	 */
+	public boolean changeTarget(int target, int rampSeconds) {
+		if( log.isTraceEnabled() ) {
+			log.trace("changeTarget(" + target + ", " + rampSeconds + ")");
+		}
+		boolean retValue = false;
+		if( target != getTarget() ) {
+			setTarget(target);
+			setRampSeconds(rampSeconds);
+			if( CREATED != getState() && true != isProcedureFinished() ) {
+				sendRequest();
+				retValue = true;
+			}
+		}
+		return retValue;
+	}
+	
+	/**
+	 * Method to send the target to the nuke.
+	 */
+	protected void sendRequest() {
+		NukeExecuteTargetReqMsgC pNukeExecuteTargetReq = new NukeExecuteTargetReqMsgC(getSendIF());
+		pNukeExecuteTargetReq.setTxID(getTxID());
+		pNukeExecuteTargetReq.setSagaID(getSagaID());
+		pNukeExecuteTargetReq.setSource(getIdentity());
+		pNukeExecuteTargetReq.setDestination(getDestination());
+		pNukeExecuteTargetReq.setCommand(getCommand());
+		pNukeExecuteTargetReq.setFolder(getFolder());
+		pNukeExecuteTargetReq.setTarget(getTarget());
+		pNukeExecuteTargetReq.setRampSeconds(getRampSeconds());
+		pNukeExecuteTargetReq.send();
+	}
+
+	/**
+	 * Method to handle the NukeExecuteRspMsgC message.
+	 * @param message NukeExecuteRspMsgC instance
+	 */
+	protected void handleMessage(NukeExecuteRspMsgC message) {
+		if( log.isTraceEnabled() ) {
+			log.trace("handleMessage(" + message + ")");
+		}
+		if( getTxID() != message.getTxID() ) {
+			log.debug("[" + getTxID() + "] Wrong txid. expected: " + getTxID() + ", but was: " + message.getTxID() + ".");
+		} else if( INITIALIZING != getState() ) {
+			log.error("[" + getTxID() + "] Received NukeExecuteRspMsgC in wrong state: " + getState() + ", expected: " + INITIALIZING + ".");
+			setState(ABORTED);
+		} else {
+			log.debug("[" + getTxID() + "] Target users started with process id " + message.getProcessID() + ".");
+			setProcessID(message.getProcessID());
+			setState(WORKING);
+		}
+	}
+
+	/**
+	 * Method to handle the NukeExecuteIndMsgC message.
+	 * @param message NukeExecuteIndMsgC instance
+	 */
+	protected void handleMessage(NukeExecuteIndMsgC message) {
+		if( log.isTraceEnabled() ) {
+			log.trace("handleMessage(" + message + ")");
+		}
+		handleStatus(message.getSource(), message.getProcessID(), message.getStatus());
+	}
+
+	/**
+	 * Method to handle a state change reported by a nuke, only the state of
+	 * the target itself is reported, the users are counted in the NukeInfo.
+	 * @param source long with the identity of the reporting nuke.
+	 * @param processID long with the id of the process.
+	 * @param status CommandState the process changed to.
+	 */
+	protected void handleStatus(long source, long processID, CommandState status) {
+		if( getDestination() != source ) {
+			log.debug("[" + getTxID() + "] Message not for us, source: " + source + ".");
+		} else if( WORKING != getState() ) {
+			log.error("[" + getTxID() + "] Received NukeExecuteIndMsgC when not in state WORKING.");
+			setState(ABORTED);
+		} else if( getProcessID() != processID ) {
+			log.debug("[" + getTxID() + "] Ignoring " + status + " of process " + processID + ", users are not reported.");
+		} else if( CommandState.DONE == status ) {
+			log.info("[" + getTxID() + "] Target users on " + getDestination() + " stopped.");
+			setState(COMPLETED);
+		} else if( CommandState.ABORTED == status ) {
+			log.error("[" + getTxID() + "] Target users on " + getDestination() + " reports aborted state.");
+			setState(ABORTED);
+		}
+	}
+
+	/**
+	 * @return the destination
+	 */
+	public long getDestination() {
+		return destination;
+	}
+
+	/**
+	 * @param destination the destination to set
+	 */
+	public void setDestination(long destination) {
+		this.destination = destination;
+	}
+
+	/**
+	 * @return the command
+	 */
+	public String getCommand() {
+		return command;
+	}
+
+	/**
+	 * @param command the command to set
+	 */
+	public void setCommand(String command) {
+		this.command = command;
+	}
+
+	/**
+	 * @return the folder
+	 */
+	public String getFolder() {
+		return folder;
+	}
+
+	/**
+	 * @param folder the folder to set
+	 */
+	public void setFolder(String folder) {
+		this.folder = folder;
+	}
+
+	/**
+	 * @return the target
+	 */
+	public int getTarget() {
+		return target;
+	}
+
+	/**
+	 * @param target the target to set
+	 */
+	private void setTarget(int target) {
+		this.target = target;
+	}
+
+	/**
+	 * @return the rampSeconds
+	 */
+	public int getRampSeconds() {
+		return rampSeconds;
+	}
+
+	/**
+	 * @param rampSeconds the rampSeconds to set
+	 */
+	private void setRampSeconds(int rampSeconds) {
+		this.rampSeconds = rampSeconds;
+	}
+
+	/**
+	 * @return the sagaID
+	 */
+	public long getSagaID() {
+		return sagaID;
+	}
+
+	/**
+	 * @param sagaID the sagaID to set
+	 */
+	public void setSagaID(long sagaID) {
+		this.sagaID = sagaID;
+	}
+
+	/**
+	 * @return the processID of the target on the nuke.
+	 */
+	public long getProcessID() {
+		return processID;
+	}
+
+	/**
+	 * @param processID the processID to set
+	 */
+	private void setProcessID(long processID) {
+		this.processID = processID;
+	}
+
+}
\ No newline at end of file
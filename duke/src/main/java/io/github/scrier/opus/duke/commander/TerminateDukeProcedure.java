@@ -62,7 +62,9 @@ public class TerminateDukeProcedure extends BaseDukeProcedure implements ITimeOu
 	 * @param otherDuke DukeInfo with the information about the other duke.
 	 */
 	public TerminateDukeProcedure(long identity, IProcedureWait callback, DukeInfo otherDuke) {
-		log.trace("TerminateDukeProcedure(" + identity + ", " + callback + ", " +  otherDuke + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("TerminateDukeProcedure(" + identity + ", " + callback + ", " +  otherDuke + ")");
+		}
 		this.id = identity;
 		this.callback = callback;
 		this.duke = otherDuke;
@@ -121,7 +123,9 @@ public class TerminateDukeProcedure extends BaseDukeProcedure implements ITimeOu
 	 */
 	@Override
 	public int handleOnRemoved(Long key) {
-		log.trace("handleOnRemoved(" + key + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("handleOnRemoved(" + key + ")");
+		}
 		log.debug("handleOnRemoved(" + key + ")");
 		if( duke.getKey() == key ) {
 			log.info("Duke is removed, we are done.");
@@ -130,12 +134,22 @@ public class TerminateDukeProcedure extends BaseDukeProcedure implements ITimeOu
 		return getState();
 	}
 
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean isRouted() {
+		return true;
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
 	@Override
 	public int handleInMessage(BaseMsgC message) {
-		log.trace("handleInMessage(" + message + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("handleInMessage(" + message + ")");
+		}
 		switch( message.getId() ) {
 			case DukeMsgFactory.DUKE_COMMAND_RSP: {
 				DukeCommandRspMsgC command = new DukeCommandRspMsgC(message);
@@ -151,7 +165,9 @@ public class TerminateDukeProcedure extends BaseDukeProcedure implements ITimeOu
 	 */
 	@Override
 	public void onStateChanged(int newState, int previousState) {
-		log.trace("onStateChanged(" + newState + ", " + previousState + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("onStateChanged(" + newState + ", " + previousState + ")");
+		}
 		try {
 			if( COMPLETED != previousState ) {
 				log.debug("states[" + states[previousState].getClass().getSimpleName() + "].cleanup();");
@@ -172,7 +188,9 @@ public class TerminateDukeProcedure extends BaseDukeProcedure implements ITimeOu
 	 * @param message DukeCommandMsgC message.
 	 */
 	protected void handleMessage(DukeCommandRspMsgC message) {
-		log.trace("handleMessage(" + message + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("handleMessage(" + message + ")");
+		}
 		try {
 			log.debug("states[" + states[getState()].getClass().getSimpleName() + "].handleMessage(" + message + ");");
 			states[getState()].handleMessage(message);
@@ -191,7 +209,9 @@ public class TerminateDukeProcedure extends BaseDukeProcedure implements ITimeOu
 	 */
 	@Override
 	public void timeOutTriggered(long id) {
-		log.trace("timeOutTriggered(" + id + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("timeOutTriggered(" + id + ")");
+		}
 		try {
 			log.debug("states[" + states[getState()].getClass().getSimpleName() + "].handleTimeOut(" + id + ");");
 			states[getState()].handleTimeOut(id);
@@ -211,7 +231,9 @@ public class TerminateDukeProcedure extends BaseDukeProcedure implements ITimeOu
 	 * @param id that the timeout should have.
 	 */
 	public void startTimeout(int time, long id) {
-		log.trace("startTimeout(" + time + ", " + id + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("startTimeout(" + time + ", " + id + ")");
+		}
 		startTimeout(time,  id, this);
 	}
 
@@ -246,7 +268,9 @@ public class TerminateDukeProcedure extends BaseDukeProcedure implements ITimeOu
 		 * @param message DukeCommandMsgC message to handle
 		 */
 		public void handleMessage(DukeCommandRspMsgC message) {
-			logLocal.trace("handleMessage(" + message + ")");
+			if( logLocal.isTraceEnabled() ) {
+				logLocal.trace("handleMessage(" + message + ")");
+			}
 			logLocal.error("Called default state when in state " + getState() + ", cannot continue.");
 			setState(ABORTED);
 		}
@@ -256,7 +280,9 @@ public class TerminateDukeProcedure extends BaseDukeProcedure implements ITimeOu
 		 * @param id long identifying the unique id for the timeout.
 		 */
 		public void handleTimeOut(long id) {
-			logLocal.trace("handleTimeOut(" + id + ")");
+			if( logLocal.isTraceEnabled() ) {
+				logLocal.trace("handleTimeOut(" + id + ")");
+			}
 			logLocal.error("Called default state when in state " + getState() + ", cannot continue.");
 			setState(ABORTED);
 		}
@@ -355,7 +381,9 @@ public class TerminateDukeProcedure extends BaseDukeProcedure implements ITimeOu
 		 */
 		@Override
 		public void handleMessage(DukeCommandRspMsgC message) {
-			logLocal.trace("handleMessage(" + message + ")");
+			if( logLocal.isTraceEnabled() ) {
+				logLocal.trace("handleMessage(" + message + ")");
+			}
 			if( getTxID() == message.getTxID() ) {
 				log.info("Old duke is reporting the following information: \"" + message.getResponse() + "\", sending stop command.");
 				terminateTimeout(STATUS_TIMEOUT_ID);
@@ -375,7 +403,9 @@ public class TerminateDukeProcedure extends BaseDukeProcedure implements ITimeOu
 		 */
 		@Override
 		public void handleTimeOut(long id) {
-			logLocal.trace("handleTimeOut(" + id + ")");
+			if( logLocal.isTraceEnabled() ) {
+				logLocal.trace("handleTimeOut(" + id + ")");
+			}
 			if( STATUS_TIMEOUT_ID == id ) {
 				log.info("Timed out while waiting for the status feedback from duke with id: " + duke.getKey() + ", sending terminate command.");
 				sendTerminateCommand();
@@ -417,7 +447,9 @@ public class TerminateDukeProcedure extends BaseDukeProcedure implements ITimeOu
 		 */
 		@Override
 		public void handleMessage(DukeCommandRspMsgC message) {
-			logLocal.trace("handleMessage(" + message + ")");
+			if( logLocal.isTraceEnabled() ) {
+				logLocal.trace("handleMessage(" + message + ")");
+			}
 			if( getTxID() == message.getTxID() ) {
 				log.info("Old duke is reporting the following information from stop command: \"" + message.getResponse() + "\", waiting for removal from map.");
 				terminateTimeout(STOP_TIMEOUT_ID);
@@ -431,7 +463,9 @@ public class TerminateDukeProcedure extends BaseDukeProcedure implements ITimeOu
 		 */
 		@Override
 		public void handleTimeOut(long id) {
-			logLocal.trace("handleTimeOut(" + id + ")");
+			if( logLocal.isTraceEnabled() ) {
+				logLocal.trace("handleTimeOut(" + id + ")");
+			}
 			if( STOP_TIMEOUT_ID == id ) {
 				log.info("Timed out while waiting for the stop feedback from duke with id: " + duke.getKey() + ", sending terminate command.");
 				sendTerminateCommand();
@@ -473,7 +507,9 @@ public class TerminateDukeProcedure extends BaseDukeProcedure implements ITimeOu
 		 */
 		@Override
 		public void handleMessage(DukeCommandRspMsgC message) {
-			logLocal.trace("handleMessage(" + message + ")");
+			if( logLocal.isTraceEnabled() ) {
+				logLocal.trace("handleMessage(" + message + ")");
+			}
 			if( getTxID() == message.getTxID() ) {
 				log.info("Old duke is reporting the following information from terminate command: \"" + message.getResponse() + "\", waiting for removal from map.");
 				terminateTimeout(TERMINATE_TIMEOUT_ID);
@@ -487,7 +523,9 @@ public class TerminateDukeProcedure extends BaseDukeProcedure implements ITimeOu
 		 */
 		@Override
 		public void handleTimeOut(long id) {
-			logLocal.trace("handleTimeOut(" + id + ")");
+			if( logLocal.isTraceEnabled() ) {
+				logLocal.trace("handleTimeOut(" + id + ")");
+			}
 			if( TERMINATE_TIMEOUT_ID == id ) {
 				log.info("Timed out while waiting for the terminutae feedback from duke with id: " + duke.getKey() + ", cannot continue.");
 				setState(ABORTED);
@@ -529,7 +567,9 @@ public class TerminateDukeProcedure extends BaseDukeProcedure implements ITimeOu
 		 */
 		@Override
 		public void handleMessage(DukeCommandRspMsgC message) {
-			logLocal.trace("handleMessage(" + message + ")");
+			if( logLocal.isTraceEnabled() ) {
+				logLocal.trace("handleMessage(" + message + ")");
+			}
 			// do nothing
 		}
 
@@ -538,7 +578,9 @@ public class TerminateDukeProcedure extends BaseDukeProcedure implements ITimeOu
 		 */
 		@Override
 		public void handleTimeOut(long id) {
-			logLocal.trace("handleTimeOut(" + id + ")");
+			if( logLocal.isTraceEnabled() ) {
+				logLocal.trace("handleTimeOut(" + id + ")");
+			}
 			logLocal.info("Received timeout, should have terminated it with id: " + id + ".");
 		}
 
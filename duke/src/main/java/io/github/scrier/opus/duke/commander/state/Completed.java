@@ -45,22 +45,30 @@ public class Completed extends State {
 	
 	@Override
 	public void updated(BaseDataC data)  {
-		log.trace("updated(" + data + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("updated(" + data + ")");
+		}
 	}  
 
 	@Override
 	public void evicted(BaseDataC data) {
-		log.trace("evicted(" + data + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("evicted(" + data + ")");
+		}
 	}
 
 	@Override
 	public void removed(Long key) {
-		log.trace("removed(" + key + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("removed(" + key + ")");
+		}
 	}
 
 	@Override
 	public void timeout(long id) {
-		log.trace("timeout(" + id + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("timeout(" + id + ")");
+		}
 	}
 
 }
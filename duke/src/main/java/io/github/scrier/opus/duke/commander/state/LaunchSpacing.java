@@ -0,0 +1,112 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ * @author Andreas Joelsson (andreas.joelsson@gmail.com)
+ */
+package io.github.scrier.opus.duke.commander.state;
+
+/**
+ * Achieved spacing between the launches of spread ramp ticks compared with
+ * the planned spacing. Spacing is only measured between launches of the
+ * same tick, the gap to the next tick isn't part of it.
+ */
+public class LaunchSpacing {
+	
+	private double planned;	///< Planned milliseconds between launches of the current tick.
+	private long previous;	///< Time in milliseconds of the previous launch in the tick, -1 if none.
+	private long samples;		///< Number of measured spacings.
+	private long sum;				///< Sum of the measured spacings in milliseconds.
+	private long min;				///< Shortest measured spacing in milliseconds.
+	private long max;				///< Longest measured spacing in milliseconds.
+	
+	/**
+	 * Constructor
+	 */
+	public LaunchSpacing() {
+		planned = 0.0;
+		previous = -1L;
+		samples = 0L;
+		sum = 0L;
+		min = 0L;
+		max = 0L;
+	}
+	
+	/**
+	 * Method to start measuring a new tick.
+	 * @param planned double with the planned milliseconds between launches.
+	 */
+	public void startTick(double planned) {
+		this.planned = planned;
+		this.previous = -1L;
+	}
+	
+	/**
+	 * Method to record a launch.
+	 * @param time long with the time of the launch in milliseconds.
+	 */
+	public void launched(long time) {
+		if( 0 <= previous ) {
+			long spacing = time - previous;
+			min = ( 0 == samples ) ? spacing : Math.min(min, spacing);
+			max = ( 0 == samples ) ? spacing : Math.max(max, spacing);
+			sum += spacing;
+			samples++;
+		}
+		previous = time;
+	}
+	
+	/**
+	 * @return the planned milliseconds between launches of the last tick.
+	 */
+	public double getPlanned() {
+		return planned;
+	}
+	
+	/**
+	 * @return the number of measured spacings.
+	 */
+	public long getSamples() {
+		return samples;
+	}
+	
+	/**
+	 * @return the mean milliseconds between launches, 0 if none measured.
+	 */
+	public double getMean() {
+		return ( 0 == samples ) ? 0.0 : (double)sum / samples;
+	}
+	
+	/**
+	 * @return the shortest milliseconds between launches.
+	 */
+	public long getMin() {
+		return min;
+	}
+	
+	/**
+	 * @return the longest milliseconds between launches.
+	 */
+	public long getMax() {
+		return max;
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String toString() {
+		return "LaunchSpacing{planned: " + String.format("%.1f", getPlanned()) + " ms, mean: " + String.format("%.1f", getMean()) + 
+				" ms, min: " + getMin() + " ms, max: " + getMax() + " ms, samples: " + getSamples() + "}";
+	}
+
+}
@@ -63,28 +63,38 @@ public class PeakDelay extends State {
 	 */
 	@Override
 	public void updated(BaseDataC data)  {
-		log.trace("updated(" + data + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("updated(" + data + ")");
+		}
 		assertState();
 	}
 
 	/**
-	 * PeakDelay handling on evicted methods.
+	 * PeakDelay handling on evicted methods, users of an evicted nuke are
+	 * moved to the remaining nukes.
 	 * @param data BaseNukeC
 	 */
 	@Override
 	public void evicted(BaseDataC data) {
-		log.trace("evicted(" + data + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("evicted(" + data + ")");
+		}
 		assertState();
+		redistributeLostNuke(data.getKey());
 	}
 
 	/**
-	 * PeakDelay handling on removed methods.
+	 * PeakDelay handling on removed methods, users of a removed nuke are
+	 * moved to the remaining nukes.
 	 * @param key Long:
 	 */
 	@Override
 	public void removed(Long key) {
-		log.trace("removed(" + key + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("removed(" + key + ")");
+		}
 		assertState();
+		redistributeLostNuke(key);
 	}
 
 	/**
@@ -93,7 +103,9 @@ public class PeakDelay extends State {
 	 */
 	@Override
 	public void timeout(long id) {
-		log.trace("timeout(" + id + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("timeout(" + id + ")");
+		}
 		assertState();
 		if( id == getTimerID() ) {
 			handleTimerTick();
@@ -107,10 +119,11 @@ public class PeakDelay extends State {
 	}
 	
 	/**
-	 * Method to handle next timer tick to create new instances of commands to execute.
+	 * Method to handle next timer tick, the held level is confirmed before ramping down.
 	 */
 	private void handleTimerTick() {
 		log.trace("handleTimerTick()");
+		confirmPeak();
 		setState(RAMPING_DOWN);
 	}
 	
@@ -0,0 +1,187 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ * @author Andreas Joelsson (andreas.joelsson@gmail.com)
+ */
+package io.github.scrier.opus.duke.commander.state;
+
+import java.util.List;
+import java.util.Map;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import io.github.scrier.opus.common.nuke.NukeState;
+import io.github.scrier.opus.duke.commander.BatchCommandProcedure;
+import io.github.scrier.opus.duke.commander.ClusterDistributorProcedure;
+
+/**
+ * State following a load profile instead of the linear ramp up, each
+ * interval the target of the profile is compared to the active users and
+ * the difference is started or stopped. Users are started in proportion to
+ * the capacity of the nukes same as in RampingUp, and stopped from the nukes
+ * with the highest load per capacity. When the profile ends the state goes
+ * to ramp down.
+ * @author andreas.joelsson
+ * {@code
+ * RAMPING_UP -> RAMPING_DOWN
+ * RAMPING_UP -> TERMINATING
+ * }
+ */
+public class ProfileDriven extends RampingUp {
+
+	private static Logger log = LogManager.getLogger(ProfileDriven.class);
+	
+	private long startTime;					///< Time in milliseconds the profile started.
+	private int target;							///< Target of the last tick.
+	
+	/**
+	 * Constructor
+	 * @param parent  the ClusterDistributorProcedure
+	 * @param intervalSeconds the interval to follow the profile on.
+	 */
+	public ProfileDriven(ClusterDistributorProcedure parent, int intervalSeconds) {
+	  super(parent, intervalSeconds);
+	  setStartTime(0L);
+	  setTarget(0);
+  }
+	
+	/**
+	 * ProfileDriven handling on init methods.
+	 */
+	@Override
+	public void init() {
+		log.trace("init()");
+		log.info("Starting profile of " + getProfile().size() + " points over " + getProfile().getDuration() + " seconds, updated every " + getIntervalSeconds() + " seconds.");
+		setStartTime(getTime());
+		startTimeout(getIntervalSeconds(), getTimerID());
+	}
+
+	/**
+	 * ProfileDriven handling on timeout methods.
+	 * @param id long
+	 */
+	@Override
+	public void timeout(long id) {
+		if( log.isTraceEnabled() ) {
+			log.trace("timeout(" + id + ")");
+		}
+		assertState();
+		if( id == getTimerID() ) {
+			handleTimerTick();
+		} else if ( id == getLaunchTimerID() ) {
+			launchDue();
+		} else if ( id == getTerminateID() ) {
+			log.error("Received terminate timeout during state RAMPING_UP.");
+			setState(TERMINATING);
+		} else {
+			log.fatal("Received unknown timer id: " + id + " in state RAMPING_UP.");
+			throw new RuntimeException("Received unknown timer id: " + id + " in state RAMPING_UP.");
+		}
+	}
+	
+	/**
+	 * Method to handle next timer tick to move the active users to the target of the profile.
+	 */
+	private void handleTimerTick() {
+		log.trace("handleTimerTick()");
+		flushLaunches();
+		double elapsed = ( getTime() - getStartTime() ) / 1000.0;
+		int active = getActiveUsers();
+		setTarget(getProfile().getTarget(elapsed));
+		if( getTarget() > active ) {
+			Map<Long, Integer> distribution = getDistributionSuggestion(getTarget() - active);
+			if( null == distribution ) {
+				log.fatal("No available nodes in state " + NukeState.RUNNING + ", cannot continue.");
+				throw new RuntimeException("No available nodes in state " + NukeState.RUNNING + ", cannot continue.");
+			}
+			launch(distribution);
+		} else if( getTarget() < active ) {
+			stopUsers(active - getTarget());
+		}
+		if( getTarget() != active ) {
+			log.info("Profile at " + elapsed + " seconds moving from " + active + " to " + getTarget() + " users.");
+		}
+		if( elapsed >= getProfile().getDuration() ) {
+			log.info("Profile finished after " + elapsed + " seconds, changing state from RAMPING_UP to RAMPING_DOWN.");
+			setState(RAMPING_DOWN);
+		} else {
+			startTimeout(getIntervalSeconds(), getTimerID());
+		}
+	}
+	
+	/**
+	 * Method to stop users, one at a time from the nuke with the highest
+	 * load per capacity, the newest batches of a nuke are stopped first.
+	 * @param noOfUsers int with the number of users to stop.
+	 * @return int with the number of users a stop was sent for.
+	 */
+	@Override
+	protected int stopUsers(int noOfUsers) {
+		return stopUsersByLoad(getBatches(), noOfUsers);
+	}
+	
+	/**
+	 * Method to get the users started and not asked to stop, batches that
+	 * are finished or on nukes that are gone are not counted.
+	 * @return int
+	 */
+	protected int getActiveUsers() {
+		int retValue = 0;
+		for( List<BatchCommandProcedure> started : getBatchesPerNuke(getBatches()).values() ) {
+			for( BatchCommandProcedure batch : started ) {
+				retValue += batch.getActiveUsers();
+			}
+		}
+		return retValue;
+	}
+
+	/**
+	 * @return the startTime
+	 */
+  public long getStartTime() {
+	  return startTime;
+  }
+
+	/**
+	 * @param startTime the startTime to set
+	 */
+  public void setStartTime(long startTime) {
+	  this.startTime = startTime;
+  }
+
+	/**
+	 * @return the target
+	 */
+  public int getTarget() {
+	  return target;
+  }
+
+	/**
+	 * @param target the target to set
+	 */
+  public void setTarget(int target) {
+	  this.target = target;
+  }
+  
+  /**
+   * Method to assure that we are called in the correct state.
+   */
+  private void assertState() {
+  	if( RAMPING_UP != getState() ) {
+			log.error("Called state RAMPING_UP(" + RAMPING_UP + "), when in state " + getState() + ".");
+			throw new RuntimeException("Called state RAMPING_UP(" + RAMPING_UP + "), when in state " + getState() + ".");
+		} 
+  }
+	
+}
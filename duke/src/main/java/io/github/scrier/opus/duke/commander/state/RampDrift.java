@@ -0,0 +1,122 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ * @author Andreas Joelsson (andreas.joelsson@gmail.com)
+ */
+package io.github.scrier.opus.duke.commander.state;
+
+/**
+ * Drift between the users the ramp has started and the users the nukes
+ * report running, sampled every ramp tick, and the corrections made for it.
+ * A positive drift is users missing, a negative drift is users too many.
+ */
+public class RampDrift {
+	
+	private int last;				///< Drift of the latest sample.
+	private long samples;		///< Number of samples.
+	private long sum;				///< Sum of the absolute drift of the samples.
+	private int max;				///< Largest absolute drift sampled.
+	private long started;		///< Users started to correct a drift.
+	private long stopped;		///< Users stopped to correct a drift.
+	
+	/**
+	 * Constructor
+	 */
+	public RampDrift() {
+		last = 0;
+		samples = 0L;
+		sum = 0L;
+		max = 0;
+		started = 0L;
+		stopped = 0L;
+	}
+	
+	/**
+	 * Method to record the drift of a tick.
+	 * @param drift int with the users missing, negative if too many.
+	 */
+	public void record(int drift) {
+		last = drift;
+		sum += Math.abs(drift);
+		max = Math.max(max, Math.abs(drift));
+		samples++;
+	}
+	
+	/**
+	 * Method to record users started to correct a drift.
+	 * @param users int with the number of users.
+	 */
+	public void started(int users) {
+		started += users;
+	}
+	
+	/**
+	 * Method to record users stopped to correct a drift.
+	 * @param users int with the number of users.
+	 */
+	public void stopped(int users) {
+		stopped += users;
+	}
+	
+	/**
+	 * @return the drift of the latest sample.
+	 */
+	public int getLast() {
+		return last;
+	}
+	
+	/**
+	 * @return the number of samples.
+	 */
+	public long getSamples() {
+		return samples;
+	}
+	
+	/**
+	 * @return the mean absolute drift, 0 if none sampled.
+	 */
+	public double getMean() {
+		return ( 0 == samples ) ? 0.0 : (double)sum / samples;
+	}
+	
+	/**
+	 * @return the largest absolute drift sampled.
+	 */
+	public int getMax() {
+		return max;
+	}
+	
+	/**
+	 * @return the users started to correct a drift.
+	 */
+	public long getStarted() {
+		return started;
+	}
+	
+	/**
+	 * @return the users stopped to correct a drift.
+	 */
+	public long getStopped() {
+		return stopped;
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String toString() {
+		return "RampDrift{last: " + getLast() + ", mean: " + String.format("%.1f", getMean()) + ", max: " + getMax() + 
+				", started: " + getStarted() + ", stopped: " + getStopped() + ", samples: " + getSamples() + "}";
+	}
+
+}
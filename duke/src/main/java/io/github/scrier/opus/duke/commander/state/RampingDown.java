@@ -22,15 +22,24 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import io.github.scrier.opus.common.data.BaseDataC;
+import io.github.scrier.opus.common.nuke.NukeDataFactory;
+import io.github.scrier.opus.common.nuke.NukeInfo;
 import io.github.scrier.opus.common.nuke.NukeStopAllReqMsgC;
+import io.github.scrier.opus.duke.commander.BaseDukeProcedure;
+import io.github.scrier.opus.duke.commander.BatchCommandProcedure;
 import io.github.scrier.opus.duke.commander.ClusterDistributorProcedure;
 import io.github.scrier.opus.duke.commander.Context;
 import io.github.scrier.opus.duke.commander.ICommandCallback;
 import io.github.scrier.opus.duke.commander.INukeInfo;
 import io.github.scrier.opus.duke.commander.StopAllExecuteProcedure;
+import io.github.scrier.opus.duke.commander.TargetCommandProcedure;
 
 /**
- * State handling for Ramping Down transactions.
+ * State handling for Ramping Down transactions. With a user decrease the
+ * repeated users are first stopped that many every interval, spread over the
+ * nukes in proportion to their capacity, and nukes ramping to a target are
+ * given a target of 0 to reach in the same time. The stop command is sent to
+ * all nukes when no users are left, or at once without a user decrease.
  * @author andreas.joelsson
  * {@code
  * RAMPING_DOWN -> TERMINATE
@@ -47,6 +56,7 @@ public class RampingDown extends State implements ICommandCallback {
 	private int oldUsers;
 	private List<Long> activeNukeCommands;
 	private int rampDownUpdateSeconds;	///< Update interval for calculating rampdown
+	private boolean stepping;		///< If users are stopped a step every interval before the stop command.
 
 	private Context theContext = Context.INSTANCE;
 
@@ -59,6 +69,7 @@ public class RampingDown extends State implements ICommandCallback {
 		setOldUsers(-1);
 		setActiveNukeCommands(new ArrayList<Long>());
 		setRampDownUpdateSeconds(rampDownSeconds);
+		setStepping(false);
 	}
 
 	/**
@@ -68,6 +79,20 @@ public class RampingDown extends State implements ICommandCallback {
 	public void init() {
 		log.trace("init()");
 		setOldUsers(getMaxUsers());
+		if( 0 < getUserDecrease() && true == startSteps() ) {
+			log.info("Ramping down " + getUserDecrease() + " users every " + getStepSeconds() + " seconds before stopping the nukes.");
+			setStepping(true);
+			startTimeout(getStepSeconds(), getTimerID());
+		} else {
+			stopAll();
+		}
+	}
+	
+	/**
+	 * Method to send the stop command to all nukes.
+	 */
+	protected void stopAll() {
+		log.trace("stopAll()");
 		List<INukeInfo> nukes = theContext.getNukes();
 		log.info("Sending stop command to " + nukes.size() + " nukes.");
 		for( INukeInfo info : nukes ) {
@@ -90,13 +115,22 @@ public class RampingDown extends State implements ICommandCallback {
 	}
 
 	/**
-	 * RampingDown handling on update methods.
+	 * RampingDown handling on update methods, the ramp down is completed as
+	 * soon as a nuke publishes that its last user drained.
 	 * @param data BaseNukeC
 	 */
 	@Override
 	public void updated(BaseDataC data)  {
-		log.trace("updated(" + data + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("updated(" + data + ")");
+		}
 		assertState();
+		if( NukeDataFactory.FACTORY_ID == data.getFactoryId() && NukeDataFactory.NUKE_INFO == data.getId() ) {
+			NukeInfo info = (NukeInfo)data;
+			if( true != isStepping() && null != theContext.getNuke(info.getNukeID()) ) {
+				checkDrained(info);
+			}
+		}
 	}  
 
 	/**
@@ -105,7 +139,9 @@ public class RampingDown extends State implements ICommandCallback {
 	 */
 	@Override
 	public void evicted(BaseDataC data) {
-		log.trace("evicted(" + data + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("evicted(" + data + ")");
+		}
 		assertState();
 	}
 
@@ -115,7 +151,9 @@ public class RampingDown extends State implements ICommandCallback {
 	 */
 	@Override
 	public void removed(Long key) {
-		log.trace("removed(" + key + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("removed(" + key + ")");
+		}
 		assertState();
 	}
 
@@ -125,7 +163,9 @@ public class RampingDown extends State implements ICommandCallback {
 	 */
 	@Override
 	public void timeout(long id) {
-		log.trace("timeout(" + id + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("timeout(" + id + ")");
+		}
 		assertState();
 		if( id == getTimerID() ) {
 			handleTimerTick();
@@ -143,12 +183,16 @@ public class RampingDown extends State implements ICommandCallback {
 	 */
 	@Override
 	public void finished(long nukeID, long processID, int state, String query, String result) {
-		log.trace("finished(" + nukeID + ", " + processID + ", " + state + ", " + query + ", " + result + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("finished(" + nukeID + ", " + processID + ", " + state + ", " + query + ", " + result + ")");
+		}
 		if( COMPLETED == state ) {
 			log.info("Stop Execution command received ok from node " + nukeID + " still " + (getActiveNukeCommands().size() - 1) + " remaining.");
 			if( getActiveNukeCommands().contains(nukeID) ) {
 				getActiveNukeCommands().remove(nukeID);
-				if( true != isTimeoutActive(getTimerID()) ) {
+				if( true == checkDrained(null) ) {
+					log.info("Last stop command accepted with all users drained.");
+				} else if( true != isTimeoutActive(getTimerID()) ) {
 					log.info("Starting the first timeout for RAMPING_DOWN class as we received the first command acceptance.");
 					startTimeout(getRampDownUpdateSeconds(), getTimerID());
 				}
@@ -170,6 +214,17 @@ public class RampingDown extends State implements ICommandCallback {
 	 */
 	private void handleTimerTick() {
 		log.trace("handleTimerTick()");
+		if( true == isStepping() ) {
+			int remaining = getRemainingUsers();
+			if( 0 < remaining ) {
+				stepDown(remaining);
+				startTimeout(getStepSeconds(), getTimerID());
+			} else {
+				log.info("All users stopped in steps, sending the stop command.");
+				setStepping(false);
+				stopAll();
+			}
+		} else {
 			int activeUsers = getDistributedNumberOfUsers();
 			if( activeUsers != getOldUsers() ) {
 				log.info("Ramping down from " + getOldUsers() + " to " + activeUsers + ".");
@@ -184,6 +239,102 @@ public class RampingDown extends State implements ICommandCallback {
 				log.info("We have " + activeUsers + " active and waiting for " + getActiveNukeCommands().size() + " stop commands.");
 				startTimeout(getRampDownUpdateSeconds(), getTimerID());
 			}
+		}
+	}
+	
+	/**
+	 * Method to start the stepped ramp down. Nukes ramping to a target are
+	 * given a target of 0 to reach in the intervals the user decrease takes,
+	 * and the first step of the started users is stopped.
+	 * @return boolean true if there are users to step down.
+	 */
+	protected boolean startSteps() {
+		log.trace("startSteps()");
+		List<TargetCommandProcedure> targets = getTargets();
+		int total = 0;
+		for( TargetCommandProcedure target : targets ) {
+			total += target.getTarget();
+		}
+		if( 0 < total ) {
+			int rampSeconds = ( ( total + getUserDecrease() - 1 ) / getUserDecrease() ) * getStepSeconds();
+			log.info("Ramping down targets of " + total + " users on " + targets.size() + " nukes in " + rampSeconds + " seconds.");
+			for( TargetCommandProcedure target : targets ) {
+				target.changeTarget(0, rampSeconds);
+			}
+		}
+		int remaining = getRemainingUsers();
+		if( 0 < remaining && 0 == total ) {
+			stepDown(remaining);
+		}
+		return 0 < remaining;
+	}
+	
+	/**
+	 * Method to stop a step of the started users. The users are taken one at
+	 * a time from the nuke with the highest load per capacity, and the newest
+	 * batches of each nuke are stopped first.
+	 * @param remaining int with the number of users left to stop.
+	 * @return int with the number of users a stop was sent for.
+	 */
+	protected int stepDown(int remaining) {
+		if( log.isTraceEnabled() ) {
+			log.trace("stepDown(" + remaining + ")");
+		}
+		int retValue = stopUsersByLoad(getRunningBatches(), Math.min(getUserDecrease(), remaining));
+		log.info("Ramping down from " + remaining + " to " + ( remaining - retValue ) + " started users.");
+		return retValue;
+	}
+	
+	/**
+	 * Method to get the users left to step down, the started users not asked
+	 * to stop and the users the nukes with a target still run.
+	 * @return int
+	 */
+	protected int getRemainingUsers() {
+		int retValue = 0;
+		for( BatchCommandProcedure batch : getRunningBatches() ) {
+			retValue += batch.getActiveUsers();
+		}
+		for( TargetCommandProcedure target : getTargets() ) {
+			INukeInfo info = theContext.getNuke(target.getDestination());
+			if( null != info ) {
+				retValue += info.getAchievedUsers();
+			}
+		}
+		return retValue;
+	}
+	
+	/**
+	 * @return the targets of the nukes that are running.
+	 */
+	protected List<TargetCommandProcedure> getTargets() {
+		List<TargetCommandProcedure> retValue = new ArrayList<TargetCommandProcedure>();
+		for( BaseDukeProcedure procedure : getRegisteredProcedures(TargetCommandProcedure.class) ) {
+			if( true != procedure.isProcedureFinished() ) {
+				retValue.add((TargetCommandProcedure)procedure);
+			}
+		}
+		return retValue;
+	}
+
+	/**
+	 * Method to complete the ramp down if all stop commands are accepted and
+	 * no nuke has live users left.
+	 * @param updated NukeInfo just published by a nuke, or null.
+	 * @return boolean true if completed.
+	 */
+	protected boolean checkDrained(NukeInfo updated) {
+		if( log.isTraceEnabled() ) {
+			log.trace("checkDrained(" + updated + ")");
+		}
+		boolean retValue = false;
+		if( 0 == getActiveNukeCommands().size() && 0 == getDistributedNumberOfUsers(updated) ) {
+			log.info("All users drained, we are done.");
+			setOldUsers(0);
+			setState(COMPLETED);
+			retValue = true;
+		}
+		return retValue;
 	}
 
 	/**
@@ -191,10 +342,25 @@ public class RampingDown extends State implements ICommandCallback {
 	 * @return int
 	 */
 	protected int getDistributedNumberOfUsers() {
+		return getDistributedNumberOfUsers(null);
+	}
+
+	/**
+	 * Method to get the number of live users from the distributed nukes, the
+	 * nuke that just published its info is counted from that info as the
+	 * local copy may not be updated yet.
+	 * @param updated NukeInfo just published by a nuke, or null.
+	 * @return int
+	 */
+	protected int getDistributedNumberOfUsers(NukeInfo updated) {
 		log.trace("getDistributedNumberOfUsers()");
 		int retValue = 0;
 		for( INukeInfo info : theContext.getNukes() ) {
-			retValue += info.getNoOfThreads();
+			if( null != updated && updated.getNukeID() == info.getNukeID() ) {
+				retValue += updated.getNumberOfThreads();
+			} else {
+				retValue += info.getNoOfThreads();
+			}
 		}
 		return retValue;
 	}
@@ -227,6 +393,20 @@ public class RampingDown extends State implements ICommandCallback {
 		this.activeNukeCommands = activeNukeCommands;
 	}
 
+	/**
+	 * @return the stepping
+	 */
+	public boolean isStepping() {
+		return stepping;
+	}
+
+	/**
+	 * @param stepping the stepping to set
+	 */
+	public void setStepping(boolean stepping) {
+		this.stepping = stepping;
+	}
+
 	/**
 	 * @return the rampDownUpdateSeconds
 	 */
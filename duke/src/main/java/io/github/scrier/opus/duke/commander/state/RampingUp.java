@@ -19,14 +19,20 @@ import io.github.scrier.opus.common.data.BaseDataC;
 import io.github.scrier.opus.common.nuke.CommandState;
 import io.github.scrier.opus.common.nuke.NukeState;
 import io.github.scrier.opus.duke.commander.ClusterDistributorProcedure;
-import io.github.scrier.opus.duke.commander.CommandProcedure;
+import io.github.scrier.opus.duke.commander.BatchCommandProcedure;
 import io.github.scrier.opus.duke.commander.Context;
 import io.github.scrier.opus.duke.commander.INukeInfo;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -36,9 +42,21 @@ public class RampingUp extends State {
 	private static Logger log = LogManager.getLogger(RampingUp.class);
 	
 	protected static int DEFAULT_INTERVAL_SECONDS = 5;
+	protected static long MIN_LAUNCH_SPACING_MILLIS = 10;	///< Launches closer than this are sent together.
 	
 	private int intervalSeconds;		///< Interval seconds to increase each rampup.
 	private int localUserRampedUp;	///< Local information about issues commands.
+	private long launchTimerID;			///< id of the timer for the spread launches.
+	private long tickStart;					///< Time in milliseconds the spread launches of the tick are planned from.
+	private List<Long> launchOffsets;	///< Milliseconds from the tick start of each planned launch.
+	private List<Map<Long, Integer>> launches;	///< Users per nuke id of each planned launch.
+	private int nextLaunch;					///< Index of the next planned launch.
+	private LaunchSpacing launchSpacing;	///< Achieved spacing of the spread launches.
+	private List<BatchCommandProcedure> batches;	///< Started batches, oldest first.
+	private int tickBatches;				///< Number of started batches at the previous tick.
+	private int previousDrift;			///< Drift of the previous tick, corrected if it persists.
+	private RampDrift rampDrift;		///< Drift between the started and the reported users.
+	private Random random;
 	
 	private Context theContext = Context.INSTANCE;
 	
@@ -59,6 +77,16 @@ public class RampingUp extends State {
 	  super(parent);
 	  setIntervalSeconds(intervalSeconds);
 	  setLocalUserRampedUp(0);
+	  setLaunchTimerID(getUniqueID());
+	  launchOffsets = new ArrayList<Long>();
+	  launches = new ArrayList<Map<Long, Integer>>();
+	  nextLaunch = 0;
+	  launchSpacing = new LaunchSpacing();
+	  batches = new ArrayList<BatchCommandProcedure>();
+	  tickBatches = 0;
+	  previousDrift = 0;
+	  rampDrift = new RampDrift();
+	  random = new Random();
   }
 	
 	/**
@@ -78,6 +106,16 @@ public class RampingUp extends State {
 			log.info("Terminating timer with id: " + getTimerID() + ".");
 			terminateTimeout(getTimerID());
 		}
+		if( isTimeoutActive(getLaunchTimerID()) ) {
+			log.info("Terminating launch timer with id: " + getLaunchTimerID() + ", dropping " + getPendingLaunches() + " launches.");
+			terminateTimeout(getLaunchTimerID());
+		}
+		if( true == isLaunchSpread() ) {
+			log.info("Achieved launch spacing: " + getLaunchSpacing() + ".");
+		}
+		if( 0 < getRampDrift().getSamples() ) {
+			log.info("Ramp drift against the reported users: " + getRampDrift() + ".");
+		}
 	}
 
 	/**
@@ -86,28 +124,38 @@ public class RampingUp extends State {
 	 */
 	@Override
 	public void updated(BaseDataC data)  {
-		log.trace("updated(" + data + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("updated(" + data + ")");
+		}
 		assertState();
 	}  
 
 	/**
-	 * RampingUp handling on evicted methods.
+	 * RampingUp handling on evicted methods, users of an evicted nuke are
+	 * moved to the remaining nukes.
 	 * @param data BaseNukeC
 	 */
 	@Override
 	public void evicted(BaseDataC data) {
-		log.trace("evicted(" + data + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("evicted(" + data + ")");
+		}
 		assertState();
+		redistributeLostNuke(data.getKey());
 	}
 
 	/**
-	 * RampingUp handling on removed methods.
+	 * RampingUp handling on removed methods, users of a removed nuke are
+	 * moved to the remaining nukes.
 	 * @param key Long
 	 */
 	@Override
 	public void removed(Long key) {
-		log.trace("removed(" + key + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("removed(" + key + ")");
+		}
 		assertState();
+		redistributeLostNuke(key);
 	}
 
 	/**
@@ -116,10 +164,14 @@ public class RampingUp extends State {
 	 */
 	@Override
 	public void timeout(long id) {
-		log.trace("timeout(" + id + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("timeout(" + id + ")");
+		}
 		assertState();
 		if( id == getTimerID() ) {
 			handleTimerTick();
+		} else if ( id == getLaunchTimerID() ) {
+			launchDue();
 		} else if ( id == getTerminateID() ) {
 			log.error("Received terminate timeout during state RAMPING_UP.");
 			setState(TERMINATING);
@@ -134,6 +186,10 @@ public class RampingUp extends State {
 	 */
 	private void handleTimerTick() {
 		log.trace("handleTimerTick()");
+		flushLaunches();
+		if( true == isRepeated() ) {
+			correctDrift();
+		}
 		if( getLocalUserRampedUp() < getMaxUsers() ) {
 			int usersToAdd = ( getMaxUsers() - getLocalUserRampedUp() ) > getUserIncrease() ? 
 					getUserIncrease() : getMaxUsers() - getLocalUserRampedUp();
@@ -142,76 +198,403 @@ public class RampingUp extends State {
 				log.fatal("No available nodes in state " + NukeState.RUNNING + ", cannot continue.");
 				throw new RuntimeException("No available nodes in state " + NukeState.RUNNING + ", cannot continue.");
 			} else {
-				for( Entry<Long, Integer> command : distribution.entrySet() ) {
-					log.debug("Sending " + command.getValue() + " commands to nuke with id: " + command.getKey() + ".");
-					for( int i = 0; i < command.getValue(); i++ ) {
-						registerProcedure(new CommandProcedure(command.getKey(), getCommand(), getFolder(), isRepeated()));
-					}
-				}
+				launch(distribution);
 				log.info("Ramping up from " + getLocalUserRampedUp() + " to " + (getLocalUserRampedUp() + usersToAdd) + ", of a total of " + getMaxUsers() + ".");
 				setLocalUserRampedUp(getLocalUserRampedUp() + usersToAdd);
 				startTimeout(getIntervalSeconds(), getTimerID());
 			}
-		} else { ///@TODO could add checks here against the distributed status instead of local, lets wait and see how it works though.
+		} else {
 			log.info("Changing state from RAMPING_UP to PEAK_DELAY.");
 			setState(PEAK_DELAY);
 		}
 	}
 	
+	/**
+	 * Method to launch users, either all at once or spread over the interval.
+	 * @param distribution Map with the number of users per nuke id.
+	 */
+	protected void launch(Map<Long, Integer> distribution) {
+		if( true == isLaunchSpread() ) {
+			planLaunches(distribution, getIntervalSeconds() * 1000L);
+			launchDue();
+		} else {
+			for( Entry<Long, Integer> command : distribution.entrySet() ) {
+				startBatch(command.getKey(), command.getValue());
+			}
+		}
+	}
+	
+	/**
+	 * Method to start a batch of users on a nuke.
+	 * @param nukeID long with the id of the nuke.
+	 * @param noOfUsers int with the number of users.
+	 * @return BatchCommandProcedure that was registered.
+	 */
+	protected BatchCommandProcedure startBatch(long nukeID, int noOfUsers) {
+		log.debug("Sending " + noOfUsers + " commands to nuke with id: " + nukeID + ".");
+		BatchCommandProcedure retValue = new BatchCommandProcedure(nukeID, getCommand(), getFolder(), isRepeated(), noOfUsers);
+		registerProcedure(retValue);
+		batches.add(retValue);
+		return retValue;
+	}
+	
+	/**
+	 * Method to stop users, the newest batches are stopped first. Batches on
+	 * nukes that are gone are skipped.
+	 * @param noOfUsers int with the number of users to stop.
+	 * @return int with the number of users a stop was sent for.
+	 */
+	protected int stopUsers(int noOfUsers) {
+		if( log.isTraceEnabled() ) {
+			log.trace("stopUsers(" + noOfUsers + ")");
+		}
+		int retValue = 0;
+		for( int i = batches.size() - 1; 0 <= i && retValue < noOfUsers; i-- ) {
+			BatchCommandProcedure batch = batches.get(i);
+			INukeInfo info = theContext.getNuke(batch.getDestination());
+			if( null != info ) {
+				int amount = batch.stopUsers(noOfUsers - retValue);
+				info.setRequestedNoOfThreads(Math.max(0, info.getRequestedNoOfThreads() - amount));
+				retValue += amount;
+			}
+		}
+		return retValue;
+	}
+	
+	/**
+	 * Method to correct the users running against the users ramped up. The
+	 * nukes report their active commands, users asked to stop are not counted
+	 * and users of batches started since the previous tick that the nuke
+	 * hasn't responded to yet are. Older batches without a response are
+	 * counted as lost. The drift is recorded every tick, but only the part
+	 * that persists from the previous tick is corrected, so users reported
+	 * a moment late are not started twice.
+	 * @return int with the users started, negative if stopped.
+	 */
+	protected int correctDrift() {
+		log.trace("correctDrift()");
+		int running = 0;
+		for( INukeInfo info : theContext.getNukes() ) {
+			running += info.getNoOfActiveCommands();
+		}
+		for( BatchCommandProcedure batch : getRunningBatches() ) {
+			running -= batch.getStoppingUsers();
+		}
+		for( int i = tickBatches; i < batches.size(); i++ ) {
+			running += batches.get(i).getStartingUsers();
+		}
+		tickBatches = batches.size();
+		int drift = getLocalUserRampedUp() - running;
+		getRampDrift().record(drift);
+		int correction = 0;
+		if( 0 < drift && 0 < previousDrift ) {
+			correction = Math.min(drift, previousDrift);
+		} else if( 0 > drift && 0 > previousDrift ) {
+			correction = Math.max(drift, previousDrift);
+		}
+		previousDrift = drift;
+		int retValue = 0;
+		if( 0 < correction ) {
+			Map<Long, Integer> distribution = getDistributionSuggestion(correction);
+			if( null != distribution ) {
+				for( Entry<Long, Integer> command : distribution.entrySet() ) {
+					startBatch(command.getKey(), command.getValue());
+				}
+				retValue = correction;
+				getRampDrift().started(retValue);
+				log.warn("Nukes report " + running + " of " + getLocalUserRampedUp() + " users running, started " + retValue + " missing users.");
+			}
+		} else if( 0 > correction ) {
+			retValue = -stopUsers(-correction);
+			getRampDrift().stopped(-retValue);
+			log.warn("Nukes report " + running + " of " + getLocalUserRampedUp() + " users running, stopped " + -retValue + " users too many.");
+		}
+		if( 0 != retValue ) {
+			previousDrift = 0;
+		}
+		return retValue;
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * The users the nuke was given, including planned launches not yet sent,
+	 * are started at once on the remaining running nukes. Users that aren't
+	 * repeated are not restarted, they would run their command a second time.
+	 */
+	@Override
+	public int redistribute(INukeInfo lost) {
+		if( log.isTraceEnabled() ) {
+			log.trace("redistribute(" + lost + ")");
+		}
+		int users = Math.max(0, lost.getRequestedNoOfThreads());
+		lost.setRequestedNoOfThreads(0);
+		for( Map<Long, Integer> launch : launches ) {
+			launch.remove(lost.getNukeID());
+		}
+		if( 0 == users ) {
+			return 0;
+		} else if( true != isRepeated() ) {
+			log.warn("Lost " + users + " users on nuke " + lost.getNukeID() + ", not restarted as the commands are not repeated.");
+			return 0;
+		}
+		List<INukeInfo> survivors = theContext.getNukes(NukeState.RUNNING);
+		survivors.remove(lost);
+		Map<Long, Integer> distribution = getDistributionSuggestion(survivors, users);
+		if( null == distribution ) {
+			log.error("Lost " + users + " users on nuke " + lost.getNukeID() + ", no running nukes left to move them to.");
+			return 0;
+		}
+		for( Entry<Long, Integer> command : distribution.entrySet() ) {
+			startBatch(command.getKey(), command.getValue());
+		}
+		log.info("Moved " + users + " users of lost nuke " + lost.getNukeID() + " to " + distribution.size() + " running nukes.");
+		return users;
+	}
+	
+	/**
+	 * Method to plan the launches of a tick evenly over the interval. The
+	 * users of each nuke are placed at even fractions of the interval and
+	 * merged, so the nukes are interleaved in proportion to their share.
+	 * Launches closer than MIN_LAUNCH_SPACING_MILLIS are sent together, and
+	 * each launch is delayed a random part of the jitter of the spacing.
+	 * @param distribution Map with the number of users per nuke id.
+	 * @param intervalMillis long with the milliseconds to spread over.
+	 */
+	protected void planLaunches(Map<Long, Integer> distribution, long intervalMillis) {
+		if( log.isTraceEnabled() ) {
+			log.trace("planLaunches(" + distribution + ", " + intervalMillis + ")");
+		}
+		flushLaunches();
+		int total = 0;
+		for( Integer amount : distribution.values() ) {
+			total += amount;
+		}
+		final double[] fractions = new double[total];
+		long[] nukeIDs = new long[total];
+		Integer[] order = new Integer[total];
+		int index = 0;
+		for( Entry<Long, Integer> entry : distribution.entrySet() ) {
+			for( int k = 0; k < entry.getValue(); k++ ) {
+				fractions[index] = ( k + 0.5 ) / entry.getValue();
+				nukeIDs[index] = entry.getKey();
+				order[index] = index;
+				index++;
+			}
+		}
+		Arrays.sort(order, new Comparator<Integer>() {
+			@Override
+			public int compare(Integer a, Integer b) {
+				int retValue = Double.compare(fractions[a], fractions[b]);
+				return ( 0 != retValue ) ? retValue : Integer.compare(a, b);
+			}
+		});
+		int noOfLaunches = (int)Math.max(1L, Math.min(total, intervalMillis / MIN_LAUNCH_SPACING_MILLIS));
+		double spacing = (double)intervalMillis / noOfLaunches;
+		for( int i = 0; i < noOfLaunches; i++ ) {
+			double jitter = random.nextDouble() * spacing * getLaunchJitter() / 100.0;
+			launchOffsets.add(Math.round(i * spacing + jitter));
+			launches.add(new HashMap<Long, Integer>());
+		}
+		for( int j = 0; j < total; j++ ) {
+			Map<Long, Integer> launch = launches.get((int)( (long)j * noOfLaunches / total ));
+			Integer amount = launch.get(nukeIDs[order[j]]);
+			launch.put(nukeIDs[order[j]], ( null == amount ) ? 1 : amount + 1);
+		}
+		setTickStart(getTime());
+		getLaunchSpacing().startTick(spacing);
+		log.debug("Planned " + total + " users in " + noOfLaunches + " launches every " + spacing + " ms.");
+	}
+	
+	/**
+	 * Method to launch the planned launches that are due and start the timer
+	 * for the next one.
+	 */
+	protected void launchDue() {
+		log.trace("launchDue()");
+		long now = getTime();
+		while( nextLaunch < launches.size() && getTickStart() + launchOffsets.get(nextLaunch) <= now ) {
+			launchNext(now);
+		}
+		if( nextLaunch < launches.size() ) {
+			startTimeoutMillis(getTickStart() + launchOffsets.get(nextLaunch) - now, getLaunchTimerID());
+		} else if( 0 < nextLaunch ) {
+			log.debug("Launched the tick, achieved spacing: " + getLaunchSpacing() + ".");
+			launchOffsets.clear();
+			launches.clear();
+			nextLaunch = 0;
+		}
+	}
+	
+	/**
+	 * Method to launch everything still planned, used when the next tick
+	 * comes before the planned launches are done.
+	 */
+	protected void flushLaunches() {
+		if( 0 < getPendingLaunches() ) {
+			log.warn("Launching " + getPendingLaunches() + " planned launches that are late.");
+			terminateTimeout(getLaunchTimerID());
+			long now = getTime();
+			while( nextLaunch < launches.size() ) {
+				launchNext(now);
+			}
+		}
+		launchOffsets.clear();
+		launches.clear();
+		nextLaunch = 0;
+	}
+	
+	private void launchNext(long now) {
+		for( Entry<Long, Integer> command : launches.get(nextLaunch).entrySet() ) {
+			startBatch(command.getKey(), command.getValue());
+		}
+		getLaunchSpacing().launched(now);
+		nextLaunch++;
+	}
+	
+	/**
+	 * @return the started batches, oldest first.
+	 */
+	public List<BatchCommandProcedure> getBatches() {
+		return batches;
+	}
+	
+	/**
+	 * @return the drift between the started and the reported users.
+	 */
+	public RampDrift getRampDrift() {
+		return rampDrift;
+	}
+	
+	/**
+	 * @return int with the number of planned launches not yet sent.
+	 */
+	public int getPendingLaunches() {
+		return launches.size() - nextLaunch;
+	}
+	
+	/**
+	 * Method to get the current time for measuring elapsed time, from the
+	 * monotonic clock so a wall clock adjustment doesn't skew the launches.
+	 * Overridden in tests.
+	 * @return long with the time in milliseconds, only meaningful as a difference.
+	 */
+	protected long getTime() {
+		return TimeUnit.NANOSECONDS.toMillis(System.nanoTime());
+	}
+	
   /** 
    * Method to get a suggestion of the number of items to use for distribution.
+   * Users are distributed in proportion to the capacity of the nukes, each
+   * user goes to the nuke with the lowest load per capacity after taking it,
+   * ties are given to the nuke first in the list. Nukes without a capacity
+   * get the mean of the others, if none has one they are treated the same.
+   * The bulk of the users are placed in one pass by filling the nukes up to
+   * a common load per capacity, the few left over are placed one at a time.
    * @param noOfThreads int with the number that we want to use.
    * @return Map with key Long and Integer value, where key is nukeid and value is amount.
    */
 	public Map<Long, Integer> getDistributionSuggestion(int noOfThreads) {
-		log.trace("getDistributionSuggestion(" + noOfThreads + ")");
+		return getDistributionSuggestion(theContext.getNukes(NukeState.RUNNING), noOfThreads);
+	}
+	
+  /** 
+   * Method to get a suggestion of the number of items to use for distribution
+   * between the given nukes.
+   * @param availableNukes List with the INukeInfo to distribute between.
+   * @param noOfThreads int with the number that we want to use.
+   * @return Map with key Long and Integer value, where key is nukeid and value is amount.
+   */
+	protected Map<Long, Integer> getDistributionSuggestion(List<INukeInfo> availableNukes, int noOfThreads) {
+		if( log.isTraceEnabled() ) {
+			log.trace("getDistributionSuggestion(" + availableNukes + ", " + noOfThreads + ")");
+		}
 		Map<Long, Integer> retValue = new HashMap<Long, Integer>();
-		List<INukeInfo> availableNukes = theContext.getNukes(NukeState.RUNNING);
-		int toExecute = noOfThreads;
 		if( true == availableNukes.isEmpty() ) {
 			log.error("No available nodes in state " + NukeState.RUNNING + ", cannot continue, was. " + availableNukes.size() +  ".");
 			return null;
-		} else {
-			while( toExecute > 0 ) {
-				INukeInfo minInfo = null;
-				log.debug("Checking " + availableNukes.size() + " for who gets the ball.");
-				for( INukeInfo info : availableNukes ) {
-					if( minInfo == null ) {
-						minInfo = info;
-					} else {
-						int minInfoAmount = getTotalUsers(retValue, minInfo);
-						int infoAmount = getTotalUsers(retValue, info);
-						log.debug("if( minInfoAmount[" + minInfoAmount + "] > infoAmount[" + infoAmount + "] )");
-						if( minInfoAmount > infoAmount ) {
-							log.debug("Changing info object from " + minInfo + " to " + info + ".");
-							minInfo = info;
-						}
+		} else if( 0 < noOfThreads ) {
+			final int size = availableNukes.size();
+			final long[] loads = new long[size];
+			final long[] weights = getWeights(availableNukes);
+			final int[] amounts = new int[size];
+			for( int i = 0; i < size; i++ ) {
+				loads[i] = Math.max(0, availableNukes.get(i).getRequestedNoOfThreads());
+			}
+			int leftOver = noOfThreads - fill(loads, weights, noOfThreads, amounts);
+			if( 0 < leftOver ) {
+				PriorityQueue<Integer> next = new PriorityQueue<Integer>(size, new Comparator<Integer>() {
+					@Override
+					public int compare(Integer a, Integer b) {
+						long left = ( loads[a] + amounts[a] + 1 ) * weights[b];
+						long right = ( loads[b] + amounts[b] + 1 ) * weights[a];
+						return ( left != right ) ? Long.compare(left, right) : Integer.compare(a, b);
 					}
+				});
+				for( int i = 0; i < size; i++ ) {
+					next.add(i);
 				}
-				if( null == minInfo ) {
-					throw new RuntimeException("Variable minInfo of type INukeInfo is null although no possible codepath leads to that.");
-				} else if ( true == retValue.containsKey(minInfo.getNukeID()) ) {
-					int value = retValue.get(minInfo.getNukeID());
-					log.debug("Changing from " + value + " to " + (value + 1 ) + " commands to nuke id:" + minInfo.getNukeID() + ".");
-					retValue.put(minInfo.getNukeID(), value + 1);
-				} else {
-					log.debug("Addding 1 command to nuke id: " + minInfo.getNukeID() + ".");
-					retValue.put(minInfo.getNukeID(), 1);
+				for( ; 0 < leftOver; leftOver-- ) {
+					int i = next.poll();
+					amounts[i]++;
+					next.add(i);
+				}
+			}
+			for( int i = 0; i < size; i++ ) {
+				if( 0 < amounts[i] ) {
+					INukeInfo info = availableNukes.get(i);
+					retValue.put(info.getNukeID(), amounts[i]);
+					info.setRequestedNoOfThreads(info.getRequestedNoOfThreads() + amounts[i]);
 				}
-				minInfo.setRequestedNoOfThreads(minInfo.getRequestedNoOfThreads() + 1);
-				toExecute--;
 			}
 		}
 		log.debug("Returning a suggestion of " + retValue.size() + " nukes to handle distribution " + noOfThreads + " commands.");
 		return retValue;
 	}
 
-	protected int getTotalUsers(Map<Long, Integer> availableNukes, INukeInfo info) {
-		log.trace("getTotalUsers(" + availableNukes + ", " + info + ")");
-		int retValue = info.getRequestedNoOfThreads();
-		if( availableNukes.containsKey(info.getNukeID()) ) {
-			log.debug("Adding " + availableNukes.get(info.getNukeID()) + " to " + retValue + ".");
-			retValue += availableNukes.get(info.getNukeID());
+	/**
+	 * Method to fill the nukes up to the common load per capacity the users
+	 * reach, a user is only placed if it would be placed there one at a time
+	 * as well, so at most one user per nuke is left over.
+	 * @param loads long array with the current load of each nuke.
+	 * @param weights long array with the weight of each nuke.
+	 * @param noOfThreads int with the number of users to place.
+	 * @param amounts int array to add the placed users to.
+	 * @return int with the number of placed users.
+	 */
+	protected int fill(long[] loads, long[] weights, int noOfThreads, int[] amounts) {
+		int size = loads.length;
+		double[] levels = new double[size];
+		Integer[] order = new Integer[size];
+		for( int i = 0; i < size; i++ ) {
+			levels[i] = (double)loads[i] / weights[i];
+			order[i] = i;
+		}
+		final double[] sortOn = levels;
+		Arrays.sort(order, new Comparator<Integer>() {
+			@Override
+			public int compare(Integer a, Integer b) {
+				return Double.compare(sortOn[a], sortOn[b]);
+			}
+		});
+		double level = 0.0;
+		long sumLoads = 0;
+		long sumWeights = 0;
+		for( int k = 0; k < size; k++ ) {
+			sumLoads += loads[order[k]];
+			sumWeights += weights[order[k]];
+			level = (double)( sumLoads + noOfThreads ) / sumWeights;
+			if( k + 1 == size || level < levels[order[k + 1]] ) {
+				break;
+			}
+		}
+		int retValue = 0;
+		for( int i = 0; i < size; i++ ) {
+			// one less than the level allows, rounding must never place a user too many.
+			long amount = (long)Math.floor(level * weights[i] - loads[i]) - 1;
+			if( 0 < amount ) {
+				amounts[i] += (int)amount;
+				retValue += (int)amount;
+			}
 		}
 		return retValue;
 	}
@@ -231,6 +614,41 @@ public class RampingUp extends State {
 	  this.intervalSeconds = intervalSeconds;
   }
 
+	/**
+	 * @return the launchTimerID
+	 */
+  public long getLaunchTimerID() {
+	  return launchTimerID;
+  }
+
+	/**
+	 * @param launchTimerID the launchTimerID to set
+	 */
+  public void setLaunchTimerID(long launchTimerID) {
+	  this.launchTimerID = launchTimerID;
+  }
+
+	/**
+	 * @return the tickStart
+	 */
+  public long getTickStart() {
+	  return tickStart;
+  }
+
+	/**
+	 * @param tickStart the tickStart to set
+	 */
+  public void setTickStart(long tickStart) {
+	  this.tickStart = tickStart;
+  }
+
+	/**
+	 * @return the launchSpacing
+	 */
+  public LaunchSpacing getLaunchSpacing() {
+	  return launchSpacing;
+  }
+
 	/**
 	 * @return the localUserRampedUp
 	 */
@@ -0,0 +1,259 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ * @author Andreas Joelsson (andreas.joelsson@gmail.com)
+ */
+package io.github.scrier.opus.duke.commander.state;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import io.github.scrier.opus.common.data.BaseDataC;
+import io.github.scrier.opus.common.nuke.NukeState;
+import io.github.scrier.opus.duke.commander.ClusterDistributorProcedure;
+import io.github.scrier.opus.duke.commander.Context;
+import io.github.scrier.opus.duke.commander.INukeInfo;
+import io.github.scrier.opus.duke.commander.RateCommandProcedure;
+
+/**
+ * State handling the ramping up phase in arrival rate mode, the rate of
+ * executions is increased each interval and split between the nukes in
+ * proportion to their capacity, same as the users in RampingUp.
+ * @author andreas.joelsson
+ * {@code
+ * RAMPING_UP -> PEAK_DELAY
+ * RAMPING_UP -> TERMINATING
+ * }
+ */
+public class RampingUpRate extends State {
+
+	private static Logger log = LogManager.getLogger(RampingUpRate.class);
+	
+	private int intervalSeconds;		///< Interval seconds to increase each rampup.
+	private double currentRate;			///< Executions per second distributed so far.
+	private Map<Long, RateCommandProcedure> rates;	///< Arrival rate per nuke id.
+	
+	private Context theContext = Context.INSTANCE;
+	
+	/**
+	 * Constructor
+	 * @param parent the ClusterDistributorProcedure
+	 */
+	public RampingUpRate(ClusterDistributorProcedure parent) {
+	  this(parent, RampingUp.DEFAULT_INTERVAL_SECONDS);
+  }
+	
+	/**
+	 * Constructor
+	 * @param parent  the ClusterDistributorProcedure
+	 * @param intervalSeconds the interval to increase the rate on.
+	 */
+	public RampingUpRate(ClusterDistributorProcedure parent, int intervalSeconds) {
+	  super(parent);
+	  setIntervalSeconds(intervalSeconds);
+	  setCurrentRate(0.0);
+	  rates = new HashMap<Long, RateCommandProcedure>();
+  }
+	
+	/**
+	 * RampingUpRate handling on init methods.
+	 */
+	@Override
+	public void init() {
+		log.trace("init()");
+		log.info("Starting rampup phase with " + getRateIncrease() + " executions per second every " + getIntervalSeconds() + " seconds.");
+		startTimeout(getIntervalSeconds(), getTimerID());
+	}
+	
+	@Override
+	public void shutDown() {
+		log.trace("shutDown()");
+		if( isTimeoutActive(getTimerID()) ) {
+			log.info("Terminating timer with id: " + getTimerID() + ".");
+			terminateTimeout(getTimerID());
+		}
+	}
+
+	/**
+	 * RampingUpRate handling on update methods.
+	 * @param data BaseNukeC
+	 */
+	@Override
+	public void updated(BaseDataC data)  {
+		if( log.isTraceEnabled() ) {
+			log.trace("updated(" + data + ")");
+		}
+		assertState();
+	}  
+
+	/**
+	 * RampingUpRate handling on evicted methods.
+	 * @param data BaseNukeC
+	 */
+	@Override
+	public void evicted(BaseDataC data) {
+		if( log.isTraceEnabled() ) {
+			log.trace("evicted(" + data + ")");
+		}
+		assertState();
+	}
+
+	/**
+	 * RampingUpRate handling on removed methods.
+	 * @param key Long
+	 */
+	@Override
+	public void removed(Long key) {
+		if( log.isTraceEnabled() ) {
+			log.trace("removed(" + key + ")");
+		}
+		assertState();
+	}
+
+	/**
+	 * RampingUpRate handling on timeout methods.
+	 * @param id long
+	 */
+	@Override
+	public void timeout(long id) {
+		if( log.isTraceEnabled() ) {
+			log.trace("timeout(" + id + ")");
+		}
+		assertState();
+		if( id == getTimerID() ) {
+			handleTimerTick();
+		} else if ( id == getTerminateID() ) {
+			log.error("Received terminate timeout during state RAMPING_UP.");
+			setState(TERMINATING);
+		} else {
+			log.fatal("Received unknown timer id: " + id + " in state RAMPING_UP.");
+			throw new RuntimeException("Received unknown timer id: " + id + " in state RAMPING_UP.");
+		}
+	}
+	
+	/**
+	 * Method to handle next timer tick to increase the rate.
+	 */
+	private void handleTimerTick() {
+		log.trace("handleTimerTick()");
+		if( getCurrentRate() < getMaxRate() ) {
+			double rate = Math.min(getMaxRate(), getCurrentRate() + getRateIncrease());
+			if( true != distribute(rate) ) {
+				log.fatal("No available nodes in state " + NukeState.RUNNING + ", cannot continue.");
+				throw new RuntimeException("No available nodes in state " + NukeState.RUNNING + ", cannot continue.");
+			} else {
+				log.info("Ramping up from " + getCurrentRate() + " to " + rate + " executions per second, of a total of " + getMaxRate() + ".");
+				setCurrentRate(rate);
+				startTimeout(getIntervalSeconds(), getTimerID());
+			}
+		} else {
+			log.info("Changing state from RAMPING_UP to PEAK_DELAY.");
+			setState(PEAK_DELAY);
+		}
+	}
+	
+	/**
+	 * Method to split a rate and the in-flight cap between the running nukes
+	 * in proportion to their capacity. Nukes that are no longer running get
+	 * a rate of 0.
+	 * @param rate double with the executions per second of the cluster.
+	 * @return boolean false if there are no running nukes.
+	 */
+	protected boolean distribute(double rate) {
+		if( log.isTraceEnabled() ) {
+			log.trace("distribute(" + rate + ")");
+		}
+		List<INukeInfo> nukes = theContext.getNukes(NukeState.RUNNING);
+		if( true == nukes.isEmpty() ) {
+			log.error("No available nodes in state " + NukeState.RUNNING + ", cannot continue.");
+			return false;
+		}
+		long[] weights = getWeights(nukes);
+		long total = 0;
+		for( long weight : weights ) {
+			total += weight;
+		}
+		Map<Long, RateCommandProcedure> previous = new HashMap<Long, RateCommandProcedure>(rates);
+		for( int i = 0; i < weights.length; i++ ) {
+			long nukeID = nukes.get(i).getNukeID();
+			double share = rate * weights[i] / total;
+			int maxInFlight = ( 0 < getMaxInFlight() ) ? (int)Math.max(1L, Math.round((double)getMaxInFlight() * weights[i] / total)) : 0;
+			RateCommandProcedure procedure = previous.remove(nukeID);
+			if( null == procedure ) {
+				log.debug("Starting " + share + " executions per second on nuke with id: " + nukeID + ".");
+				procedure = new RateCommandProcedure(nukeID, getCommand(), getFolder(), share, maxInFlight);
+				registerProcedure(procedure);
+				rates.put(nukeID, procedure);
+			} else {
+				log.debug("Changing to " + share + " executions per second on nuke with id: " + nukeID + ".");
+				procedure.changeRate(share, maxInFlight);
+			}
+		}
+		for( Entry<Long, RateCommandProcedure> gone : previous.entrySet() ) {
+			log.info("Nuke with id: " + gone.getKey() + " is no longer running, setting its rate to 0.");
+			gone.getValue().changeRate(0.0, 0);
+		}
+		return true;
+	}
+
+	/**
+	 * @return the intervalSeconds
+	 */
+  public int getIntervalSeconds() {
+	  return intervalSeconds;
+  }
+
+	/**
+	 * @param intervalSeconds the intervalSeconds to set
+	 */
+  public void setIntervalSeconds(int intervalSeconds) {
+	  this.intervalSeconds = intervalSeconds;
+  }
+
+	/**
+	 * @return the currentRate
+	 */
+  public double getCurrentRate() {
+	  return currentRate;
+  }
+
+	/**
+	 * @param currentRate the currentRate to set
+	 */
+  public void setCurrentRate(double currentRate) {
+	  this.currentRate = currentRate;
+  }
+  
+	/**
+	 * @return the arrival rate per nuke id.
+	 */
+  public Map<Long, RateCommandProcedure> getRates() {
+	  return rates;
+  }
+  
+  /**
+   * Method to assure that we are called in the correct state.
+   */
+  private void assertState() {
+  	if( RAMPING_UP != getState() ) {
+			log.error("Called state RAMPING_UP(" + RAMPING_UP + "), when in state " + getState() + ".");
+			throw new RuntimeException("Called state RAMPING_UP(" + RAMPING_UP + "), when in state " + getState() + ".");
+		} 
+  }
+	
+}
@@ -0,0 +1,370 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ * @author Andreas Joelsson (andreas.joelsson@gmail.com)
+ */
+package io.github.scrier.opus.duke.commander.state;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import io.github.scrier.opus.common.nuke.NukeState;
+import io.github.scrier.opus.duke.commander.ClusterDistributorProcedure;
+import io.github.scrier.opus.duke.commander.Context;
+import io.github.scrier.opus.duke.commander.INukeInfo;
+
+/**
+ * State handling the ramping up phase in saturation mode. The users are
+ * ramped as in RampingUp, and each interval the executions the nukes report
+ * for the level the interval ran at are checked against the thresholds: the
+ * p95 execution time, the percent of failed executions and the throughput
+ * gained for the users added. When a threshold is breached the users are
+ * stepped back to the last good level, which PEAK_DELAY holds. The level is
+ * confirmed against the thresholds at the end of the hold and published as
+ * the measured capacity.
+ * @author andreas.joelsson
+ * {@code
+ * RAMPING_UP -> PEAK_DELAY
+ * RAMPING_UP -> RAMPING_DOWN
+ * RAMPING_UP -> TERMINATING
+ * }
+ */
+public class RampingUpSaturation extends RampingUp {
+
+	private static Logger log = LogManager.getLogger(RampingUpSaturation.class);
+	
+	private int lastGoodUsers;			///< Highest level no threshold was breached at.
+	private double lastGoodThroughput;	///< Executions per second at the last good level.
+	private int capacity;						///< Level held to be confirmed, 0 if none.
+	private String breach;					///< Reason the search stopped, null if no threshold was breached.
+	private long sampleTime;				///< Time in milliseconds of the last sample.
+	private Map<Long, long[]> samples;	///< Executions and failed executions per nuke id at the last sample.
+	
+	private Context theContext = Context.INSTANCE;
+	
+	/**
+	 * Executions the nukes finished between two samples.
+	 */
+	protected static class Sample {
+		
+		public long executions;			///< Finished executions.
+		public long failedExecutions;	///< Failed executions, included in executions.
+		public int p95;							///< Highest p95 execution time in ms of the nukes that executed.
+		public double seconds;			///< Seconds between the samples.
+		
+		/**
+		 * @return double with the executions per second.
+		 */
+		public double getThroughput() {
+			return ( 0.0 < seconds ) ? executions / seconds : 0.0;
+		}
+		
+		/**
+		 * @return double with the percent of the executions that failed.
+		 */
+		public double getErrorRatio() {
+			return ( 0 < executions ) ? failedExecutions * 100.0 / executions : 0.0;
+		}
+		
+		@Override
+		public String toString() {
+			return "Sample: {executions:" + executions + ", failedExecutions:" + failedExecutions + ", p95:" + p95 + ", seconds:" + seconds + "}";
+		}
+		
+	}
+	
+	/**
+	 * Constructor
+	 * @param parent  the ClusterDistributorProcedure
+	 * @param intervalSeconds the interval to increase users on.
+	 */
+	public RampingUpSaturation(ClusterDistributorProcedure parent, int intervalSeconds) {
+	  super(parent, intervalSeconds);
+	  setLastGoodUsers(0);
+	  setLastGoodThroughput(0.0);
+	  setCapacity(0);
+	  setBreach(null);
+	  setSampleTime(0L);
+	  samples = new HashMap<Long, long[]>();
+  }
+	
+	/**
+	 * RampingUpSaturation handling on init methods, the counters of the nukes
+	 * are sampled so the first interval only counts its own executions.
+	 */
+	@Override
+	public void init() {
+		log.trace("init()");
+		log.info("Starting saturation search with " + getUserIncrease() + " users every " + getIntervalSeconds() + " seconds up to " + getMaxUsers() + 
+				", max p95: " + getMaxP95() + " ms, max error ratio: " + getMaxErrorRatio() + " %, plateau: " + getPlateauPercent() + " %.");
+		takeSample();
+		startTimeout(getIntervalSeconds(), getTimerID());
+	}
+
+	/**
+	 * RampingUpSaturation handling on timeout methods.
+	 * @param id long
+	 */
+	@Override
+	public void timeout(long id) {
+		if( log.isTraceEnabled() ) {
+			log.trace("timeout(" + id + ")");
+		}
+		assertState();
+		if( id == getTimerID() ) {
+			handleTimerTick();
+		} else if ( id == getLaunchTimerID() ) {
+			launchDue();
+		} else if ( id == getTerminateID() ) {
+			log.error("Received terminate timeout during state RAMPING_UP.");
+			setState(TERMINATING);
+		} else {
+			log.fatal("Received unknown timer id: " + id + " in state RAMPING_UP.");
+			throw new RuntimeException("Received unknown timer id: " + id + " in state RAMPING_UP.");
+		}
+	}
+	
+	/**
+	 * Method to handle next timer tick, the interval that passed ran at the
+	 * current level which is checked before the next step is taken.
+	 */
+	private void handleTimerTick() {
+		log.trace("handleTimerTick()");
+		flushLaunches();
+		Sample sample = takeSample();
+		int level = getLocalUserRampedUp();
+		if( 0 < level ) {
+			if( 0 == sample.executions ) {
+				log.warn("No executions finished at " + level + " users, the level is not checked. Use an " + 
+						"interval longer than the execution time.");
+			} else {
+				String reason = getBreach(sample, level, getLastGoodUsers(), getLastGoodThroughput());
+				if( null != reason ) {
+					stepBack(level, reason);
+					return;
+				}
+				log.info("Level of " + level + " users is good with " + String.format("%.2f", sample.getThroughput()) + " executions/s, p95 " + 
+						sample.p95 + " ms and " + String.format("%.2f", sample.getErrorRatio()) + " % failed.");
+				setLastGoodUsers(level);
+				setLastGoodThroughput(sample.getThroughput());
+			}
+		}
+		if( level < getMaxUsers() ) {
+			int usersToAdd = Math.min(getUserIncrease(), getMaxUsers() - level);
+			Map<Long, Integer> distribution = getDistributionSuggestion(usersToAdd);
+			if( null == distribution ) {
+				log.fatal("No available nodes in state " + NukeState.RUNNING + ", cannot continue.");
+				throw new RuntimeException("No available nodes in state " + NukeState.RUNNING + ", cannot continue.");
+			}
+			launch(distribution);
+			log.info("Ramping up from " + level + " to " + ( level + usersToAdd ) + ", of a max of " + getMaxUsers() + ".");
+			setLocalUserRampedUp(level + usersToAdd);
+			startTimeout(getIntervalSeconds(), getTimerID());
+		} else {
+			log.warn("Reached " + getMaxUsers() + " users without breaching a threshold, the capacity is at least that.");
+			setCapacity(getLastGoodUsers());
+			log.info("Changing state from RAMPING_UP to PEAK_DELAY to hold " + getCapacity() + " users.");
+			setState(PEAK_DELAY);
+		}
+	}
+	
+	/**
+	 * Method to check a sample against the thresholds.
+	 * @param sample Sample of the interval.
+	 * @param level int with the users the interval ran at.
+	 * @param previousLevel int with the users of the previous good level, 0 if none.
+	 * @param previousThroughput double with the executions per second of the previous good level.
+	 * @return String with the breached threshold, null if none.
+	 */
+	protected String getBreach(Sample sample, int level, int previousLevel, double previousThroughput) {
+		if( log.isTraceEnabled() ) {
+			log.trace("getBreach(" + sample + ", " + level + ", " + previousLevel + ", " + previousThroughput + ")");
+		}
+		String retValue = null;
+		if( 0 < getMaxP95() && sample.p95 > getMaxP95() ) {
+			retValue = "p95 " + sample.p95 + " ms above " + getMaxP95() + " ms";
+		} else if( 0.0 < getMaxErrorRatio() && sample.getErrorRatio() > getMaxErrorRatio() ) {
+			retValue = String.format("%.2f", sample.getErrorRatio()) + " % failed above " + getMaxErrorRatio() + " %";
+		} else if( 0 < getPlateauPercent() && 0 < previousLevel && level > previousLevel && 0.0 < previousThroughput ) {
+			double gained = ( sample.getThroughput() / previousThroughput - 1.0 ) / ( (double)level / previousLevel - 1.0 ) * 100.0;
+			if( gained < getPlateauPercent() ) {
+				retValue = "throughput gained " + String.format("%.1f", gained) + " % of the users added, below " + getPlateauPercent() + " %";
+			}
+		}
+		return retValue;
+	}
+	
+	/**
+	 * Method to step back to the last good level after a breach, the newest
+	 * users are stopped first.
+	 * @param level int with the users the threshold was breached at.
+	 * @param reason String with the breached threshold.
+	 */
+	protected void stepBack(int level, String reason) {
+		if( log.isTraceEnabled() ) {
+			log.trace("stepBack(" + level + ", " + reason + ")");
+		}
+		setBreach(reason);
+		int stopped = stopUsers(level - getLastGoodUsers());
+		if( stopped < level - getLastGoodUsers() ) {
+			log.warn("Only " + stopped + " of " + ( level - getLastGoodUsers() ) + " users could be stopped, the users not started yet keep running.");
+		}
+		setLocalUserRampedUp(level - stopped);
+		// the hold is checked from here, the stopped users still finish their running execution.
+		takeSample();
+		if( 0 == getLastGoodUsers() ) {
+			log.error("Breached at the first level of " + level + " users, " + reason + ", no capacity measured.");
+			setState(RAMPING_DOWN);
+		} else {
+			log.warn("Breached at " + level + " users, " + reason + ", stepped back to " + getLastGoodUsers() + " users.");
+			setCapacity(getLastGoodUsers());
+			log.info("Changing state from RAMPING_UP to PEAK_DELAY to hold " + getCapacity() + " users.");
+			setState(PEAK_DELAY);
+		}
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * The level held at peak is checked against the thresholds once more,
+	 * and published as the measured capacity if it held.
+	 */
+	@Override
+	public void confirm() {
+		log.trace("confirm()");
+		if( 0 >= getCapacity() ) {
+			return;
+		}
+		Sample sample = takeSample();
+		String reason = ( 0 == sample.executions ) ? "no executions finished" : getBreach(sample, getCapacity(), getCapacity(), 0.0);
+		if( null != reason ) {
+			log.error("Held level of " + getCapacity() + " users did not hold, " + reason + ", no capacity measured.");
+		} else {
+			log.info("Measured capacity of " + getCapacity() + " users confirmed with " + String.format("%.2f", sample.getThroughput()) + 
+					" executions/s, p95 " + sample.p95 + " ms and " + String.format("%.2f", sample.getErrorRatio()) + " % failed" + 
+					( ( null == getBreach() ) ? ", no threshold was breached." : ", breached above at " + getBreach() + "." ));
+			theContext.setMeasuredCapacity(getCapacity());
+		}
+	}
+	
+	/**
+	 * Method to sample the counters of the nukes, the executions are counted
+	 * from the previous sample. Nukes that joined since count from 0 and nukes
+	 * that are gone aren't counted.
+	 * @return Sample with the executions since the previous sample.
+	 */
+	protected Sample takeSample() {
+		log.trace("takeSample()");
+		Sample retValue = new Sample();
+		Map<Long, long[]> current = new HashMap<Long, long[]>();
+		for( INukeInfo info : theContext.getNukes() ) {
+			long[] previous = samples.get(info.getNukeID());
+			long executions = info.getExecutions() - ( ( null == previous ) ? 0 : previous[0] );
+			retValue.executions += executions;
+			retValue.failedExecutions += info.getFailedExecutions() - ( ( null == previous ) ? 0 : previous[1] );
+			if( 0 < executions ) {
+				retValue.p95 = Math.max(retValue.p95, info.getExecutionTimeP95());
+			}
+			current.put(info.getNukeID(), new long[] { info.getExecutions(), info.getFailedExecutions() });
+		}
+		long now = getTime();
+		retValue.seconds = ( now - getSampleTime() ) / 1000.0;
+		samples = current;
+		setSampleTime(now);
+		log.debug("Sampled " + retValue + ".");
+		return retValue;
+	}
+
+	/**
+	 * @return the lastGoodUsers
+	 */
+  public int getLastGoodUsers() {
+	  return lastGoodUsers;
+  }
+
+	/**
+	 * @param lastGoodUsers the lastGoodUsers to set
+	 */
+  public void setLastGoodUsers(int lastGoodUsers) {
+	  this.lastGoodUsers = lastGoodUsers;
+  }
+
+	/**
+	 * @return the lastGoodThroughput
+	 */
+  public double getLastGoodThroughput() {
+	  return lastGoodThroughput;
+  }
+
+	/**
+	 * @param lastGoodThroughput the lastGoodThroughput to set
+	 */
+  public void setLastGoodThroughput(double lastGoodThroughput) {
+	  this.lastGoodThroughput = lastGoodThroughput;
+  }
+
+	/**
+	 * @return the level held to be confirmed, 0 if none.
+	 */
+  public int getCapacity() {
+	  return capacity;
+  }
+
+	/**
+	 * @param capacity the capacity to set
+	 */
+  public void setCapacity(int capacity) {
+	  this.capacity = capacity;
+  }
+
+	/**
+	 * @return the breached threshold, null if none was breached.
+	 */
+  public String getBreach() {
+	  return breach;
+  }
+
+	/**
+	 * @param breach the breach to set
+	 */
+  public void setBreach(String breach) {
+	  this.breach = breach;
+  }
+
+	/**
+	 * @return the sampleTime
+	 */
+  public long getSampleTime() {
+	  return sampleTime;
+  }
+
+	/**
+	 * @param sampleTime the sampleTime to set
+	 */
+  public void setSampleTime(long sampleTime) {
+	  this.sampleTime = sampleTime;
+  }
+  
+  /**
+   * Method to assure that we are called in the correct state.
+   */
+  private void assertState() {
+  	if( RAMPING_UP != getState() ) {
+			log.error("Called state RAMPING_UP(" + RAMPING_UP + "), when in state " + getState() + ".");
+			throw new RuntimeException("Called state RAMPING_UP(" + RAMPING_UP + "), when in state " + getState() + ".");
+		} 
+  }
+	
+}
@@ -0,0 +1,208 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ * @author Andreas Joelsson (andreas.joelsson@gmail.com)
+ */
+package io.github.scrier.opus.duke.commander.state;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import io.github.scrier.opus.common.nuke.NukeState;
+import io.github.scrier.opus.duke.commander.ClusterDistributorProcedure;
+import io.github.scrier.opus.duke.commander.Context;
+import io.github.scrier.opus.duke.commander.INukeInfo;
+import io.github.scrier.opus.duke.commander.TargetCommandProcedure;
+
+/**
+ * State handling the ramping up phase in target mode. Instead of starting
+ * users every interval the duke gives each nuke its share of the users once,
+ * together with the time to ramp to them, and the nukes ramp on their own.
+ * The shares are split in proportion to the capacity of the nukes same as in
+ * RampingUp. Each interval the users the nukes achieved are summed from their
+ * NukeInfo until all users are running.
+ * @author andreas.joelsson
+ * {@code
+ * RAMPING_UP -> PEAK_DELAY
+ * RAMPING_UP -> TERMINATING
+ * }
+ */
+public class RampingUpTarget extends RampingUp {
+
+	private static Logger log = LogManager.getLogger(RampingUpTarget.class);
+	
+	private int rampSeconds;		///< Seconds the nukes are given to reach their target.
+	private Map<Long, TargetCommandProcedure> targets;	///< Target per nuke id.
+	
+	private Context theContext = Context.INSTANCE;
+	
+	/**
+	 * Constructor
+	 * @param parent  the ClusterDistributorProcedure
+	 * @param intervalSeconds the interval to check the achieved users on.
+	 */
+	public RampingUpTarget(ClusterDistributorProcedure parent, int intervalSeconds) {
+	  super(parent, intervalSeconds);
+	  setRampSeconds(0);
+	  targets = new HashMap<Long, TargetCommandProcedure>();
+  }
+	
+	/**
+	 * RampingUpTarget handling on init methods, the targets are sent at once
+	 * as the nukes do the stepping.
+	 */
+	@Override
+	public void init() {
+		log.trace("init()");
+		int intervals = ( getMaxUsers() + getUserIncrease() - 1 ) / getUserIncrease();
+		setRampSeconds(intervals * getIntervalSeconds());
+		log.info("Starting rampup phase with a target of " + getMaxUsers() + " users reached by the nukes in " + getRampSeconds() + " seconds.");
+		Map<Long, Integer> distribution = getDistributionSuggestion(getMaxUsers());
+		if( null == distribution ) {
+			log.fatal("No available nodes in state " + NukeState.RUNNING + ", cannot continue.");
+			throw new RuntimeException("No available nodes in state " + NukeState.RUNNING + ", cannot continue.");
+		}
+		for( Entry<Long, Integer> entry : distribution.entrySet() ) {
+			log.debug("Sending target of " + entry.getValue() + " users to nuke with id: " + entry.getKey() + ".");
+			TargetCommandProcedure procedure = new TargetCommandProcedure(entry.getKey(), getCommand(), getFolder(), entry.getValue(), getRampSeconds());
+			registerProcedure(procedure);
+			targets.put(entry.getKey(), procedure);
+		}
+		startTimeout(getIntervalSeconds(), getTimerID());
+	}
+
+	/**
+	 * RampingUpTarget handling on timeout methods.
+	 * @param id long
+	 */
+	@Override
+	public void timeout(long id) {
+		if( log.isTraceEnabled() ) {
+			log.trace("timeout(" + id + ")");
+		}
+		assertState();
+		if( id == getTimerID() ) {
+			handleTimerTick();
+		} else if ( id == getTerminateID() ) {
+			log.error("Received terminate timeout during state RAMPING_UP.");
+			setState(TERMINATING);
+		} else {
+			log.fatal("Received unknown timer id: " + id + " in state RAMPING_UP.");
+			throw new RuntimeException("Received unknown timer id: " + id + " in state RAMPING_UP.");
+		}
+	}
+	
+	/**
+	 * Method to handle next timer tick to check the users achieved by the nukes.
+	 */
+	private void handleTimerTick() {
+		log.trace("handleTimerTick()");
+		int achieved = getAchievedUsers();
+		if( achieved != getLocalUserRampedUp() ) {
+			log.info("Ramping up from " + getLocalUserRampedUp() + " to " + achieved + " users achieved by the nukes, of a total of " + getMaxUsers() + ".");
+			setLocalUserRampedUp(achieved);
+		}
+		if( achieved >= getMaxUsers() ) {
+			log.info("Changing state from RAMPING_UP to PEAK_DELAY.");
+			setState(PEAK_DELAY);
+		} else {
+			startTimeout(getIntervalSeconds(), getTimerID());
+		}
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * The target of the lost nuke is added to the targets of the remaining
+	 * nukes, which ramp to it within an interval.
+	 */
+	@Override
+	public int redistribute(INukeInfo lost) {
+		if( log.isTraceEnabled() ) {
+			log.trace("redistribute(" + lost + ")");
+		}
+		TargetCommandProcedure procedure = targets.remove(lost.getNukeID());
+		lost.setRequestedNoOfThreads(0);
+		if( null == procedure || 0 >= procedure.getTarget() ) {
+			return 0;
+		}
+		List<INukeInfo> survivors = new ArrayList<INukeInfo>();
+		for( INukeInfo info : theContext.getNukes(NukeState.RUNNING) ) {
+			if( true == targets.containsKey(info.getNukeID()) ) {
+				survivors.add(info);
+			}
+		}
+		Map<Long, Integer> distribution = getDistributionSuggestion(survivors, procedure.getTarget());
+		if( null == distribution ) {
+			log.error("Lost a target of " + procedure.getTarget() + " users on nuke " + lost.getNukeID() + ", no running nukes left to move them to.");
+			return 0;
+		}
+		for( Entry<Long, Integer> entry : distribution.entrySet() ) {
+			TargetCommandProcedure target = targets.get(entry.getKey());
+			target.changeTarget(target.getTarget() + entry.getValue(), getIntervalSeconds());
+		}
+		log.info("Moved a target of " + procedure.getTarget() + " users of lost nuke " + lost.getNukeID() + " to " + distribution.size() + " running nukes.");
+		return procedure.getTarget();
+	}
+	
+	/**
+	 * Method to sum the users the nukes given a target report as achieved.
+	 * @return int with the number of users.
+	 */
+	protected int getAchievedUsers() {
+		int retValue = 0;
+		for( INukeInfo info : theContext.getNukes() ) {
+			if( true == targets.containsKey(info.getNukeID()) ) {
+				retValue += info.getAchievedUsers();
+			}
+		}
+		return retValue;
+	}
+
+	/**
+	 * @return the rampSeconds
+	 */
+  public int getRampSeconds() {
+	  return rampSeconds;
+  }
+
+	/**
+	 * @param rampSeconds the rampSeconds to set
+	 */
+  public void setRampSeconds(int rampSeconds) {
+	  this.rampSeconds = rampSeconds;
+  }
+  
+	/**
+	 * @return the target per nuke id.
+	 */
+  public Map<Long, TargetCommandProcedure> getTargets() {
+	  return targets;
+  }
+  
+  /**
+   * Method to assure that we are called in the correct state.
+   */
+  private void assertState() {
+  	if( RAMPING_UP != getState() ) {
+			log.error("Called state RAMPING_UP(" + RAMPING_UP + "), when in state " + getState() + ".");
+			throw new RuntimeException("Called state RAMPING_UP(" + RAMPING_UP + "), when in state " + getState() + ".");
+		} 
+  }
+	
+}
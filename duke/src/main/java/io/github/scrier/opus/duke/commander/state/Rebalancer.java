@@ -0,0 +1,147 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ * @author Andreas Joelsson (andreas.joelsson@gmail.com)
+ */
+package io.github.scrier.opus.duke.commander.state;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import io.github.scrier.opus.common.nuke.NukeState;
+import io.github.scrier.opus.duke.commander.BatchCommandProcedure;
+import io.github.scrier.opus.duke.commander.Context;
+import io.github.scrier.opus.duke.commander.INukeInfo;
+
+/**
+ * Class keeping the repeated users evenly spread over the running nukes
+ * when the cluster changes size during a run. Each rebalance moves users
+ * one at a time from the nuke with the highest load per capacity to the one
+ * with the lowest, as long as that makes the spread more even, and at most
+ * the migration limit per call. A user is moved by stopping it on the
+ * source, where its current execution is let finish, and starting a new
+ * one on the destination. The users are started through the ramp up
+ * state, so its batches hold both the ramped and the moved users.
+ * @author andreas.joelsson
+ */
+public class Rebalancer {
+
+	private static Logger log = LogManager.getLogger(Rebalancer.class);
+	
+	private RampingUp ramp;
+	private int maxMigrations;			///< Max number of users to move each rebalance.
+	private long migrated;					///< Total number of users moved.
+	
+	private Context theContext = Context.INSTANCE;
+	
+	/**
+	 * Constructor
+	 * @param ramp the RampingUp state starting the users.
+	 * @param maxMigrations int with the max number of users to move each rebalance.
+	 */
+	public Rebalancer(RampingUp ramp, int maxMigrations) {
+		if( log.isTraceEnabled() ) {
+			log.trace("Rebalancer(" + ramp + ", " + maxMigrations + ")");
+		}
+		this.ramp = ramp;
+		this.maxMigrations = maxMigrations;
+		this.migrated = 0;
+	}
+	
+	/**
+	 * Method to move users from the most loaded running nukes to the least
+	 * loaded ones.
+	 * @return int with the number of users moved.
+	 */
+	public int rebalance() {
+		log.trace("rebalance()");
+		List<INukeInfo> nukes = theContext.getNukes(NukeState.RUNNING);
+		if( 2 > nukes.size() ) {
+			return 0;
+		}
+		Map<Long, List<BatchCommandProcedure>> batches = ramp.getBatchesPerNuke(ramp.getBatches());
+		long[] weights = State.getWeights(nukes);
+		State.UserLoads loads = new State.UserLoads(weights, State.getActiveUsers(nukes, batches));
+		int[] stops = new int[nukes.size()];
+		List<Integer> destinations = new ArrayList<Integer>();
+		for( int left = getMaxMigrations(); 0 < left; left-- ) {
+			int highest = loads.highest();
+			int lowest = loads.lowest();
+			// only move when the source still has at least the load per capacity of the destination.
+			if( -1 == highest || highest == lowest || ( loads.get(highest) - 1 ) * weights[lowest] < ( loads.get(lowest) + 1 ) * weights[highest] ) {
+				break;
+			}
+			loads.move(highest, -1);
+			loads.move(lowest, 1);
+			stops[highest]++;
+			destinations.add(lowest);
+		}
+		int stopped = State.stopNewestUsers(nukes, batches, stops);
+		// users that couldn't be stopped yet are not started elsewhere.
+		int[] starts = new int[nukes.size()];
+		for( int i = 0; i < stopped; i++ ) {
+			starts[destinations.get(i)]++;
+		}
+		for( int i = 0; i < starts.length; i++ ) {
+			if( 0 < starts[i] ) {
+				INukeInfo info = nukes.get(i);
+				if( log.isDebugEnabled() ) {
+					log.debug("Moving " + starts[i] + " users to nuke with id: " + info.getNukeID() + ".");
+				}
+				ramp.startBatch(info.getNukeID(), starts[i]);
+				info.setRequestedNoOfThreads(info.getRequestedNoOfThreads() + starts[i]);
+			}
+		}
+		if( 0 < stopped ) {
+			migrated += stopped;
+			log.info("Rebalanced " + stopped + " users between " + nukes.size() + " nukes, " + getMigrated() + " moved in total.");
+		}
+		return stopped;
+	}
+	
+	/**
+	 * Method to get the users of a nuke that are started and not asked to
+	 * stop.
+	 * @param nukeID long with the id of the nuke.
+	 * @return int
+	 */
+	public int getActiveUsers(long nukeID) {
+		int retValue = 0;
+		List<BatchCommandProcedure> started = ramp.getBatchesPerNuke(ramp.getBatches()).get(nukeID);
+		if( null != started ) {
+			for( BatchCommandProcedure batch : started ) {
+				retValue += batch.getActiveUsers();
+			}
+		}
+		return retValue;
+	}
+
+	/**
+	 * @return the maxMigrations
+	 */
+	public int getMaxMigrations() {
+		return maxMigrations;
+	}
+
+	/**
+	 * @return the migrated
+	 */
+	public long getMigrated() {
+		return migrated;
+	}
+	
+}
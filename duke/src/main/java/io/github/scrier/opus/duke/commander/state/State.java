@@ -15,9 +15,21 @@
  */
 package io.github.scrier.opus.duke.commander.state;
 
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
 import io.github.scrier.opus.common.data.BaseDataC;
 import io.github.scrier.opus.duke.commander.BaseDukeProcedure;
+import io.github.scrier.opus.duke.commander.BatchCommandProcedure;
 import io.github.scrier.opus.duke.commander.ClusterDistributorProcedure;
+import io.github.scrier.opus.duke.commander.Context;
+import io.github.scrier.opus.duke.commander.DukeCommander;
+import io.github.scrier.opus.duke.commander.INukeInfo;
+import io.github.scrier.opus.duke.io.LoadProfile;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -78,7 +90,9 @@ public abstract class State {
 	 * @param data BaseNukeC
 	 */
 	public void updated(BaseDataC data)  {
-		log.trace("updated(" + data + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("updated(" + data + ")");
+		}
 		log.error("Default update state setting aborted from state: " + getState() + "."); 
 		setState(ABORTED); 
 	}  
@@ -88,7 +102,9 @@ public abstract class State {
 	 * @param data BaseNukeC
 	 */
 	public void evicted(BaseDataC data) {
-		log.trace("evicted(" + data + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("evicted(" + data + ")");
+		}
 		log.error("Default update state setting aborted from state: " + getState() + ".");
 		setState(ABORTED); 
 	}
@@ -98,7 +114,9 @@ public abstract class State {
 	 * @param key Long
 	 */
 	public void removed(Long key) {
-		log.trace("removed(" + key + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("removed(" + key + ")");
+		}
 		log.error("Default update state setting aborted from state: " + getState() + ".");
 		setState(ABORTED); 
 	}
@@ -108,11 +126,35 @@ public abstract class State {
 	 * @param id long
 	 */
 	public void timeout(long id) {
-		log.trace("timeout(" + id + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("timeout(" + id + ")");
+		}
 		log.error("Default update state setting aborted from state: " + getState() + ".");
 		setState(ABORTED); 
 	}
 	
+	/**
+	 * Method to move the users of a lost nuke to the remaining running nukes.
+	 * States that don't start users have nothing to move.
+	 * @param lost INukeInfo of the nuke that was lost.
+	 * @return int with the number of users moved.
+	 */
+	public int redistribute(INukeInfo lost) {
+		if( log.isTraceEnabled() ) {
+			log.trace("redistribute(" + lost + ")");
+		}
+		return 0;
+	}
+	
+	/**
+	 * Method to confirm the level held at peak, called on the ramp up state
+	 * by PeakDelay before ramping down. Only states that search for the peak
+	 * have anything to confirm.
+	 */
+	public void confirm() {
+		log.trace("confirm()");
+	}
+	
 	/**
 	 * Method to get the name of the state for debugging.
 	 * @return String with the correct state.
@@ -146,6 +188,15 @@ public abstract class State {
 		parent.startTimeout(seconds, timerID);
 	}
 	
+	/**
+	 * Method to start a timer with millisecond precision in the parent.
+	 * @param millis number of milliseconds in the parent.
+	 * @param timerID the id of the timer.
+	 */
+	protected void startTimeoutMillis(long millis, long timerID) {
+		parent.startTimeoutMillis(millis, timerID);
+	}
+	
 	/**
 	 * Method to terminate the timeout for a given id.
 	 * @param timerID long
@@ -178,6 +229,22 @@ public abstract class State {
 		return parent.getUserIncrease();
 	}
 	
+	/**
+	 * Propagated method from parent
+	 * @return int with the users stopped each interval when ramping down, 0 to stop all at once.
+	 */
+	protected int getUserDecrease() {
+		return parent.getUserDecrease();
+	}
+	
+	/**
+	 * Propagated method from parent
+	 * @return int with the seconds between the steps of a ramp.
+	 */
+	protected int getStepSeconds() {
+		return parent.getIntervalSeconds();
+	}
+	
 	/**
 	 * Propagated method from parent
 	 * @return int with the maximum number of users to ramp up to.
@@ -186,6 +253,86 @@ public abstract class State {
 		return parent.getMaxUsers();
 	}
 	
+	/**
+	 * Propagated method from parent
+	 * @return double with the executions per second to ramp up to.
+	 */
+	protected double getMaxRate() {
+		return parent.getMaxRate();
+	}
+	
+	/**
+	 * Propagated method from parent
+	 * @return double with the executions per second to increase each interval.
+	 */
+	protected double getRateIncrease() {
+		return parent.getRateIncrease();
+	}
+	
+	/**
+	 * Propagated method from parent
+	 * @return int with the max executions in flight in the cluster, 0 for no limit.
+	 */
+	protected int getMaxInFlight() {
+		return parent.getMaxInFlight();
+	}
+	
+	/**
+	 * Propagated method from parent
+	 * @return LoadProfile to follow in profile mode.
+	 */
+	protected LoadProfile getProfile() {
+		return parent.getProfile();
+	}
+	
+	/**
+	 * Propagated method from parent
+	 * @return boolean if the users of a ramp tick are spread over the interval.
+	 */
+	protected boolean isLaunchSpread() {
+		return parent.isLaunchSpread();
+	}
+	
+	/**
+	 * Propagated method from parent
+	 * @return int with the jitter in percent of the launch spacing.
+	 */
+	protected int getLaunchJitter() {
+		return parent.getLaunchJitter();
+	}
+	
+	/**
+	 * Propagated method from parent
+	 * @return int with the max p95 execution time in ms, 0 if not checked.
+	 */
+	protected int getMaxP95() {
+		return parent.getMaxP95();
+	}
+	
+	/**
+	 * Propagated method from parent
+	 * @return double with the max percent of failed executions, 0 if not checked.
+	 */
+	protected double getMaxErrorRatio() {
+		return parent.getMaxErrorRatio();
+	}
+	
+	/**
+	 * Propagated method from parent
+	 * @return int with the min throughput gain in percent of the users added, 0 if not checked.
+	 */
+	protected int getPlateauPercent() {
+		return parent.getPlateauPercent();
+	}
+	
+	/**
+	 * Propagated method from parent
+	 * @return long with a new unique id.
+	 */
+	protected long getUniqueID() {
+		return parent.getUniqueID();
+	}
+	
 	/**
 	 * @return the folder
 	 */
@@ -223,10 +370,247 @@ public abstract class State {
   	return parent.isTimeoutActive(id);
   }
 	
+	/**
+	 * Method to get the weight of each nuke from its capacity.
+	 * @param nukes List with the INukeInfo to weigh.
+	 * @return long array with a weight above 0 per nuke.
+	 */
+	protected static long[] getWeights(List<INukeInfo> nukes) {
+		long[] retValue = new long[nukes.size()];
+		long known = 0;
+		long total = 0;
+		for( int i = 0; i < retValue.length; i++ ) {
+			retValue[i] = Math.max(0, nukes.get(i).getCapacity());
+			if( 0 < retValue[i] ) {
+				known++;
+				total += retValue[i];
+			}
+		}
+		long unknown = ( 0 == known ) ? 1L : Math.max(1L, total / known);
+		for( int i = 0; i < retValue.length; i++ ) {
+			if( 0 == retValue[i] ) {
+				retValue[i] = unknown;
+			}
+		}
+		return retValue;
+	}
+	
+	/**
+	 * Method to group the running batches per nuke, batches of nukes that
+	 * are gone are left out.
+	 * @param started List with the started batches, oldest first.
+	 * @return Map with the running batches per nuke id, oldest first.
+	 */
+	protected Map<Long, List<BatchCommandProcedure>> getBatchesPerNuke(List<BatchCommandProcedure> started) {
+		Map<Long, List<BatchCommandProcedure>> retValue = new LinkedHashMap<Long, List<BatchCommandProcedure>>();
+		for( BatchCommandProcedure batch : started ) {
+			if( true != batch.isProcedureFinished() && null != Context.INSTANCE.getNuke(batch.getDestination()) ) {
+				List<BatchCommandProcedure> batches = retValue.get(batch.getDestination());
+				if( null == batches ) {
+					batches = new ArrayList<BatchCommandProcedure>();
+					retValue.put(batch.getDestination(), batches);
+				}
+				batches.add(batch);
+			}
+		}
+		return retValue;
+	}
+	
+	/**
+	 * Method to get the users started and not asked to stop on each nuke.
+	 * @param nukes List with the INukeInfo to count for.
+	 * @param batches Map with the running batches per nuke id.
+	 * @return long array with the active users per nuke.
+	 */
+	protected static long[] getActiveUsers(List<INukeInfo> nukes, Map<Long, List<BatchCommandProcedure>> batches) {
+		long[] retValue = new long[nukes.size()];
+		for( int i = 0; i < retValue.length; i++ ) {
+			List<BatchCommandProcedure> started = batches.get(nukes.get(i).getNukeID());
+			if( null != started ) {
+				for( BatchCommandProcedure batch : started ) {
+					retValue[i] += batch.getActiveUsers();
+				}
+			}
+		}
+		return retValue;
+	}
+	
+	/**
+	 * Method to stop users, one at a time from the nuke with the highest
+	 * load per capacity, the newest batches of a nuke are stopped first.
+	 * @param started List with the started batches, oldest first.
+	 * @param noOfUsers int with the number of users to stop.
+	 * @return int with the number of users a stop was sent for.
+	 */
+	protected int stopUsersByLoad(List<BatchCommandProcedure> started, int noOfUsers) {
+		if( log.isTraceEnabled() ) {
+			log.trace("stopUsersByLoad(" + started.size() + ", " + noOfUsers + ")");
+		}
+		Map<Long, List<BatchCommandProcedure>> batches = getBatchesPerNuke(started);
+		List<INukeInfo> nukes = new ArrayList<INukeInfo>();
+		for( Long nukeID : batches.keySet() ) {
+			nukes.add(Context.INSTANCE.getNuke(nukeID));
+		}
+		UserLoads loads = new UserLoads(getWeights(nukes), getActiveUsers(nukes, batches));
+		int[] stops = new int[nukes.size()];
+		for( int left = noOfUsers; 0 < left; left-- ) {
+			int highest = loads.highest();
+			if( 0 > highest ) {
+				break;
+			}
+			loads.move(highest, -1);
+			stops[highest]++;
+		}
+		return stopNewestUsers(nukes, batches, stops);
+	}
+	
+	/**
+	 * Method to stop users on each nuke, the newest batches are stopped first
+	 * and the users requested of the nuke are lowered by the users stopped.
+	 * @param nukes List with the INukeInfo to stop users on.
+	 * @param batches Map with the running batches per nuke id.
+	 * @param stops int array with the users to stop per nuke.
+	 * @return int with the number of users a stop was sent for.
+	 */
+	protected static int stopNewestUsers(List<INukeInfo> nukes, Map<Long, List<BatchCommandProcedure>> batches, int[] stops) {
+		int retValue = 0;
+		for( int i = 0; i < stops.length; i++ ) {
+			if( 0 < stops[i] ) {
+				INukeInfo info = nukes.get(i);
+				List<BatchCommandProcedure> started = batches.get(info.getNukeID());
+				int stopped = 0;
+				for( int j = started.size() - 1; 0 <= j && stopped < stops[i]; j-- ) {
+					stopped += started.get(j).stopUsers(stops[i] - stopped);
+				}
+				if( log.isDebugEnabled() ) {
+					log.debug("Stopping " + stopped + " users on nuke with id: " + info.getNukeID() + ".");
+				}
+				info.setRequestedNoOfThreads(Math.max(0, info.getRequestedNoOfThreads() - stopped));
+				retValue += stopped;
+			}
+		}
+		return retValue;
+	}
+	
+	/**
+	 * Active users per nuke kept ordered on the load per capacity, so the
+	 * highest and lowest loaded nuke are found in log time while users are
+	 * moved one at a time. Nukes with the same load are ordered on index, the
+	 * lowest index counting as the most loaded.
+	 */
+	protected static class UserLoads {
+		
+		private final long[] weights;
+		private final long[] active;
+		private final TreeSet<Integer> order;
+		
+		/**
+		 * Constructor
+		 * @param weights long array with the weight of each nuke.
+		 * @param active long array with the active users of each nuke, updated on move.
+		 */
+		public UserLoads(long[] weights, long[] active) {
+			this.weights = weights;
+			this.active = active;
+			this.order = new TreeSet<Integer>(new Comparator<Integer>() {
+				@Override
+				public int compare(Integer left, Integer right) {
+					long lhs = UserLoads.this.active[left] * UserLoads.this.weights[right];
+					long rhs = UserLoads.this.active[right] * UserLoads.this.weights[left];
+					return ( lhs != rhs ) ? Long.compare(lhs, rhs) : Integer.compare(right, left);
+				}
+			});
+			for( int i = 0; i < active.length; i++ ) {
+				order.add(i);
+			}
+		}
+		
+		/**
+		 * @return int with the index of the nuke with the highest load that has users, -1 if none.
+		 */
+		public int highest() {
+			int retValue = -1;
+			if( true != order.isEmpty() && 0 < active[order.last()] ) {
+				retValue = order.last();
+			}
+			return retValue;
+		}
+		
+		/**
+		 * @return int with the index of the nuke with the lowest load, -1 if none.
+		 */
+		public int lowest() {
+			return ( true == order.isEmpty() ) ? -1 : order.first();
+		}
+		
+		/**
+		 * Method to move users to or from a nuke.
+		 * @param index int with the index of the nuke.
+		 * @param amount long with the users to add, negative to remove.
+		 */
+		public void move(int index, long amount) {
+			order.remove(index);
+			active[index] += amount;
+			order.add(index);
+		}
+		
+		/**
+		 * @param index int with the index of the nuke.
+		 * @return long with the active users of the nuke.
+		 */
+		public long get(int index) {
+			return active[index];
+		}
+		
+	}
+
+	/**
+	 * Propagated method from parent
+	 */
+	protected void confirmPeak() {
+		parent.confirmPeak();
+	}
+
+	/**
+	 * Propagated method from parent
+	 * @param nukeID long with the id of the entry that was removed or evicted.
+	 * @return int with the number of users moved.
+	 */
+	protected int redistributeLostNuke(long nukeID) {
+		return parent.redistributeLostNuke(nukeID);
+	}
+	
 	protected boolean registerProcedure(BaseDukeProcedure procedure) {
 		return parent.registerProcedure(procedure);
 	}
 	
+	/**
+	 * Method to get the registered procedures of a class, also the ones not
+	 * yet initialized.
+	 * @param procs Class of the procedures.
+	 * @return List of BaseDukeProcedure
+	 */
+	protected List<BaseDukeProcedure> getRegisteredProcedures(Class<?> procs) {
+		DukeCommander commander = Context.INSTANCE.getCommander();
+		List<BaseDukeProcedure> retValue = new ArrayList<BaseDukeProcedure>(commander.getProcedures(procs));
+		retValue.addAll(commander.getProceduresToAdd(procs));
+		return retValue;
+	}
+	
+	/**
+	 * @return the batches of repeated users that are running, oldest first.
+	 */
+	protected List<BatchCommandProcedure> getRunningBatches() {
+		List<BatchCommandProcedure> retValue = new ArrayList<BatchCommandProcedure>();
+		for( BaseDukeProcedure procedure : getRegisteredProcedures(BatchCommandProcedure.class) ) {
+			BatchCommandProcedure batch = (BatchCommandProcedure)procedure;
+			if( true == batch.isRepeated() && true != batch.isProcedureFinished() ) {
+				retValue.add(batch);
+			}
+		}
+		return retValue;
+	}
+	
 	/**
 	 * @return the parent
 	 */
@@ -93,7 +93,9 @@ public class Terminating extends State implements ICommandCallback {
 	 */
 	@Override
 	public void updated(BaseDataC data)  {
-		log.trace("updated(" + data + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("updated(" + data + ")");
+		}
 		assertState();
 	}  
 
@@ -103,7 +105,9 @@ public class Terminating extends State implements ICommandCallback {
 	 */
 	@Override
 	public void evicted(BaseDataC data) {
-		log.trace("evicted(" + data + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("evicted(" + data + ")");
+		}
 		assertState();
 	}
 
@@ -113,7 +117,9 @@ public class Terminating extends State implements ICommandCallback {
 	 */
 	@Override
 	public void removed(Long key) {
-		log.trace("removed(" + key + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("removed(" + key + ")");
+		}
 		assertState();
 	}
 
@@ -123,7 +129,9 @@ public class Terminating extends State implements ICommandCallback {
 	 */
 	@Override
 	public void timeout(long id) {
-		log.trace("timeout(" + id + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("timeout(" + id + ")");
+		}
 		assertState();
 		if( id == getTimerID() ) {
 			handleTimerTick();
@@ -141,7 +149,9 @@ public class Terminating extends State implements ICommandCallback {
 	 */
 	@Override
   public void finished(long nukeID, long processID, int state, String query, String result) {
-		log.trace("finished(" + nukeID + ", " + processID + ", " + state + ", " + query + ", " + result + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("finished(" + nukeID + ", " + processID + ", " + state + ", " + query + ", " + result + ")");
+		}
 		if( COMPLETED == state ) {
 			log.info("Terminate Execution command received ok from node " + nukeID + " still " + (getActiveNukeCommands().size() - 1) + " remaining.");
 			if( getActiveNukeCommands().contains(nukeID) ) {
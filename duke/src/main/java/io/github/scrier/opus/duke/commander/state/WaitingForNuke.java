@@ -83,7 +83,9 @@ public class WaitingForNuke extends State {
 	 */
 	@Override
 	public void updated(BaseDataC data)  {
-		log.trace("updated(" + data + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("updated(" + data + ")");
+		}
 		assertState();
 	}  
 
@@ -93,7 +95,9 @@ public class WaitingForNuke extends State {
 	 */
 	@Override
 	public void evicted(BaseDataC data) {
-		log.trace("evicted(" + data + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("evicted(" + data + ")");
+		}
 		assertState();
 	}
 
@@ -103,7 +107,9 @@ public class WaitingForNuke extends State {
 	 */
 	@Override
 	public void removed(Long key) {
-		log.trace("removed(" + key + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("removed(" + key + ")");
+		}
 		assertState();
 	}
 
@@ -113,7 +119,9 @@ public class WaitingForNuke extends State {
 	 */
 	@Override
 	public void timeout(long id) {
-		log.trace("timeout(" + id + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("timeout(" + id + ")");
+		}
 		assertState();
 		if( id == getTimerID() ) {
 			handleTimerTick();
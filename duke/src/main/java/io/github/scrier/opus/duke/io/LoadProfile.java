@@ -0,0 +1,207 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ * @author Andreas Joelsson (andreas.joelsson@gmail.com)
+ */
+package io.github.scrier.opus.duke.io;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Load profile as a list of (time, target) points, the target between two
+ * points is the linear interpolation between them. Two points at the same
+ * time make a step. Before the first point the target ramps from 0 at time
+ * 0 and after the last point it is held.
+ * Step, spike and sine shapes are added as points, so the profile is always
+ * a piecewise linear curve.
+ * {@code
+ * 0:0,30:10,60:10,60:20,90:0
+ * }
+ */
+public class LoadProfile {
+	
+	public static final int SINE_SAMPLES = 16;	///< Points per period of a sine.
+	
+	private List<Integer> times;		///< Seconds from start of each point.
+	private List<Integer> targets;	///< Target of each point.
+	
+	/**
+	 * Constructor
+	 */
+	public LoadProfile() {
+		times = new ArrayList<Integer>();
+		targets = new ArrayList<Integer>();
+	}
+	
+	/**
+	 * Method to add a point the profile ramps linearly to from the previous one.
+	 * @param time int with the seconds from start.
+	 * @param target int with the target at the time.
+	 * @throws IllegalArgumentException if the time is before the last point or a value is negative.
+	 */
+	public void addPoint(int time, int target) throws IllegalArgumentException {
+		if( 0 > time || 0 > target ) {
+			throw new IllegalArgumentException("Time and target must not be negative, was " + time + " and " + target + ".");
+		} else if( getDuration() > time ) {
+			throw new IllegalArgumentException("Time " + time + " is before the last point at " + getDuration() + ".");
+		}
+		times.add(time);
+		targets.add(target);
+	}
+	
+	/**
+	 * Method to hold the last target until the time and then step to the target.
+	 * @param time int with the seconds from start.
+	 * @param target int with the target from the time.
+	 * @throws IllegalArgumentException if the time is before the last point or a value is negative.
+	 */
+	public void addStep(int time, int target) throws IllegalArgumentException {
+		addPoint(time, getLastTarget());
+		addPoint(time, target);
+	}
+	
+	/**
+	 * Method to step to the target at the time, hold it for the length and
+	 * then step back to the target before the spike.
+	 * @param time int with the seconds from start.
+	 * @param target int with the target of the spike.
+	 * @param length int with the seconds the spike holds.
+	 * @throws IllegalArgumentException if the time is before the last point or a value is negative.
+	 */
+	public void addSpike(int time, int target, int length) throws IllegalArgumentException {
+		int base = getLastTarget();
+		addStep(time, target);
+		addStep(time + length, base);
+	}
+	
+	/**
+	 * Method to hold the last target until the time and then follow a sine
+	 * around the base for the length, sampled SINE_SAMPLES times per period.
+	 * Targets below 0 are cut at 0.
+	 * @param time int with the seconds from start.
+	 * @param length int with the seconds the sine lasts.
+	 * @param period int with the seconds of one period.
+	 * @param base int with the target the sine goes around.
+	 * @param amplitude int with the max difference from the base.
+	 * @throws IllegalArgumentException if the time is before the last point or a value is negative.
+	 */
+	public void addSine(int time, int length, int period, int base, int amplitude) throws IllegalArgumentException {
+		if( 0 >= period || 0 > length ) {
+			throw new IllegalArgumentException("Sine needs a period above 0 and a length of at least 0, was " + period + " and " + length + ".");
+		}
+		addStep(time, base);
+		int sample = Math.max(1, period / SINE_SAMPLES);
+		for( int t = sample; t < length + sample; t += sample ) {
+			int at = Math.min(t, length);
+			double value = base + amplitude * Math.sin(2 * Math.PI * at / period);
+			addPoint(time + at, (int)Math.max(0L, Math.round(value)));
+		}
+	}
+	
+	/**
+	 * Method to get the target at a time.
+	 * @param seconds double with the seconds from start.
+	 * @return int with the target.
+	 */
+	public int getTarget(double seconds) {
+		int last = -1;
+		for( int i = 0; i < times.size() && times.get(i) <= seconds; i++ ) {
+			last = i;
+		}
+		double retValue = 0.0;
+		if( true == times.isEmpty() ) {
+			retValue = 0.0;
+		} else if( -1 == last ) {
+			retValue = targets.get(0) * Math.max(0.0, seconds) / times.get(0);
+		} else if( times.size() - 1 == last ) {
+			retValue = targets.get(last);
+		} else {
+			double part = ( seconds - times.get(last) ) / ( times.get(last + 1) - times.get(last) );
+			retValue = targets.get(last) + part * ( targets.get(last + 1) - targets.get(last) );
+		}
+		return (int)Math.round(retValue);
+	}
+	
+	/**
+	 * @return int with the seconds of the last point, 0 if empty.
+	 */
+	public int getDuration() {
+		return times.isEmpty() ? 0 : times.get(times.size() - 1);
+	}
+	
+	/**
+	 * @return int with the highest target of the profile.
+	 */
+	public int getMaxTarget() {
+		int retValue = 0;
+		for( Integer target : targets ) {
+			retValue = Math.max(retValue, target);
+		}
+		return retValue;
+	}
+	
+	/**
+	 * @return int with the number of points.
+	 */
+	public int size() {
+		return times.size();
+	}
+	
+	/**
+	 * @return boolean true if the profile has no points.
+	 */
+	public boolean isEmpty() {
+		return times.isEmpty();
+	}
+	
+	/**
+	 * Method to parse a profile written by toString.
+	 * @param input String with comma separated time:target points.
+	 * @return LoadProfile
+	 * @throws IllegalArgumentException if the input isn't a valid profile.
+	 */
+	public static LoadProfile parse(String input) throws IllegalArgumentException {
+		LoadProfile retValue = new LoadProfile();
+		if( null != input && true != input.trim().isEmpty() ) {
+			for( String point : input.split(",") ) {
+				String[] values = point.trim().split(":");
+				if( 2 != values.length ) {
+					throw new IllegalArgumentException("Point \"" + point + "\" is not on the form time:target.");
+				}
+				retValue.addPoint(Integer.parseInt(values[0].trim()), Integer.parseInt(values[1].trim()));
+			}
+		}
+		return retValue;
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String toString() {
+		StringBuilder retValue = new StringBuilder();
+		for( int i = 0; i < times.size(); i++ ) {
+			if( 0 < i ) {
+				retValue.append(',');
+			}
+			retValue.append(times.get(i)).append(':').append(targets.get(i));
+		}
+		return retValue.toString();
+	}
+	
+	private int getLastTarget() {
+		return targets.isEmpty() ? 0 : targets.get(targets.size() - 1);
+	}
+
+}
@@ -34,6 +34,8 @@ import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
 import org.xml.sax.SAXException;
 
+import io.github.scrier.opus.common.Shared;
+
 public class XmlSettings {
 	
 	private static Logger log = LogManager.getLogger(XmlSettings.class);
@@ -88,6 +90,9 @@ public class XmlSettings {
 		} catch(IOException e) {
 			log.error("IOException", e);
 			retValue = false;
+		} catch(IllegalArgumentException e) {
+			log.error("IllegalArgumentException", e);
+			retValue = false;
 		}
 		return retValue;
 	}
@@ -100,6 +105,10 @@ public class XmlSettings {
 	private void IterateNodes(Node node, String parent) {
 		if ( node.getNodeName().equals("setting") ) {
 			params.put(node.getAttributes().getNamedItem("name").getNodeValue(), node.getTextContent());
+		} else if ( node.getNodeName().equals("profile") ) {
+			Node name = node.getAttributes().getNamedItem("name");
+			params.put(null == name ? Shared.Settings.EXECUTE_PROFILE : name.getNodeValue(), readProfile(node).toString());
+			return;
 		} else if ( node.getNodeName().equals("settings") ) {
 			// do nothing, root node.
 		} else {
@@ -114,6 +123,52 @@ public class XmlSettings {
 		}
 	}
 
+	/**
+	 * Method to read a load profile, each child node adds a shape to it.
+	 * {@code
+	 * <profile name="execute-profile">
+	 *   <point time="30" target="10"/>
+	 *   <step time="60" target="20"/>
+	 *   <spike time="90" target="50" length="10"/>
+	 *   <sine time="120" length="120" period="60" base="20" amplitude="10"/>
+	 * </profile>
+	 * }
+	 * @param node Node with the profile.
+	 * @return LoadProfile
+	 * @throws IllegalArgumentException if a shape is unknown or its values invalid.
+	 */
+	private LoadProfile readProfile(Node node) throws IllegalArgumentException {
+		LoadProfile retValue = new LoadProfile();
+		NodeList nodeList = node.getChildNodes();
+		for( int i = 0; i < nodeList.getLength(); i++ ) {
+			Node shape = nodeList.item(i);
+			if( shape.getNodeType() != Node.ELEMENT_NODE ) {
+				// text and comments.
+			} else if( shape.getNodeName().equals("point") ) {
+				retValue.addPoint(getInt(shape, "time"), getInt(shape, "target"));
+			} else if( shape.getNodeName().equals("step") ) {
+				retValue.addStep(getInt(shape, "time"), getInt(shape, "target"));
+			} else if( shape.getNodeName().equals("spike") ) {
+				retValue.addSpike(getInt(shape, "time"), getInt(shape, "target"), getInt(shape, "length"));
+			} else if( shape.getNodeName().equals("sine") ) {
+				retValue.addSine(getInt(shape, "time"), getInt(shape, "length"), getInt(shape, "period"), 
+						getInt(shape, "base"), getInt(shape, "amplitude"));
+			} else {
+				throw new IllegalArgumentException("Unhandled profile shape: " + shape.getNodeName() + ".");
+			}
+		}
+		log.debug("Read profile of " + retValue.size() + " points over " + retValue.getDuration() + " seconds.");
+		return retValue;
+	}
+	
+	private int getInt(Node node, String attribute) throws IllegalArgumentException {
+		Node item = node.getAttributes().getNamedItem(attribute);
+		if( null == item ) {
+			throw new IllegalArgumentException("Profile " + node.getNodeName() + " is missing attribute " + attribute + ".");
+		}
+		return Integer.parseInt(item.getNodeValue().trim());
+	}
+
 	/**
 	 * @return the dbFactory
 	 */
@@ -7,6 +7,9 @@ public class ClusterDistributorProcedureTestObj extends ClusterDistributorProced
 	public int TimeoutTime;
 	public long TimeoutTimerID;
 	public int TimeoutCalls;
+	public long TimeoutMillis;
+	public long TimeoutMillisTimerID;
+	public int TimeoutMillisCalls;
 	public boolean nukesReady;
 	public boolean timeoutActive;
 	public int NewState;
@@ -21,6 +24,7 @@ public class ClusterDistributorProcedureTestObj extends ClusterDistributorProced
 		getStates()[RAMPING_DOWN] = new StateImpl(this);
 		getStates()[TERMINATING] = new StateImpl(this);
 		this.TimeoutCalls = 0;
+		this.TimeoutMillisCalls = 0;
 		this.nukesReady = false;
 		this.timeoutActive = false;
 		reset();
@@ -31,6 +35,8 @@ public class ClusterDistributorProcedureTestObj extends ClusterDistributorProced
 	public void reset() {
 		this.TimeoutTime = 0;
 		this.TimeoutTimerID = 0L;
+		this.TimeoutMillis = 0L;
+		this.TimeoutMillisTimerID = 0L;
 		this.NewState = -1;
 		this.PreviousState = -1;
 	}
@@ -48,6 +54,13 @@ public class ClusterDistributorProcedureTestObj extends ClusterDistributorProced
 	  this.TimeoutTimerID = timerID;
 	}
 	
+	@Override
+	public void startTimeoutMillis(long millis, long timerID) {
+		this.TimeoutMillisCalls++;
+		this.TimeoutMillis = millis;
+		this.TimeoutMillisTimerID = timerID;
+	}
+	
 	@Override
 	public boolean isTimeoutActive(long id) {
 		return timeoutActive;
@@ -0,0 +1,186 @@
+package io.github.scrier.opus.duke.commander;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+
+import io.github.scrier.opus.TestHelper;
+
+import org.apache.logging.log4j.Level;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.hazelcast.core.HazelcastInstance;
+
+import io.github.scrier.opus.common.Shared;
+import io.github.scrier.opus.common.message.BaseMsgC;
+import io.github.scrier.opus.common.nuke.CommandState;
+import io.github.scrier.opus.common.nuke.NukeExecuteBatchReqMsgC;
+import io.github.scrier.opus.common.nuke.NukeExecuteBatchRspMsgC;
+import io.github.scrier.opus.common.nuke.NukeExecuteIndMsgC;
+import io.github.scrier.opus.common.nuke.NukeMsgFactory;
+import io.github.scrier.opus.common.nuke.NukeStopProcessReqMsgC;
+
+public class BatchCommandProcedureTest {
+	
+	static TestHelper theHelper = TestHelper.INSTANCE;
+	
+	private HazelcastInstance instance;
+	private long identity = theHelper.getNextLong();
+	private long sagaID = theHelper.getNextLong();
+	private long component = theHelper.getNextLong();
+	private Context theContext = Context.INSTANCE;
+	private BaseActiveObjectMock theBaseAOC;
+	private MessageServiceMock SendIF = new MessageServiceMock();
+
+	@BeforeClass
+	public static void setUpBeforeClass() throws Exception {
+		theHelper.setLogLevel(Level.TRACE);
+	}
+
+  @Before
+	public void setUp() throws Exception {
+		instance = theHelper.mockHazelcast();
+		theHelper.mockIdGen(instance, Shared.Hazelcast.COMMON_MAP_UNIQUE_ID, identity);
+		theHelper.mockIdGen(instance, Shared.Hazelcast.COMMON_SAGA_ID, sagaID);
+		theHelper.mockMap(instance, Shared.Hazelcast.BASE_NUKE_MAP);
+		theBaseAOC = new BaseActiveObjectMock(instance);
+		theBaseAOC.preInit();
+		theBaseAOC.setMsgService(SendIF);
+		theContext.init(new DukeCommander(instance), theBaseAOC);
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		theContext.shutDown();
+	}
+	
+	@Test
+	public void testProcedure() {
+		BatchCommandProcedure testObject = new BatchCommandProcedure(component, "command", "folder", true, 3);
+		assertEquals(testObject.CREATED, testObject.getState());
+		assertEquals(sagaID, testObject.getSagaID());
+		assertEquals(3, testObject.getNoOfUsers());
+		assertTrue(testObject.isRouted());
+		assertEquals(sagaID, testObject.getRoutingSagaID());
+	}
+	
+	@Test
+	public void testInit() throws Exception {
+		BatchCommandProcedure testObject = new BatchCommandProcedure(component, "command", "folder", true, 3);
+		testObject.init();
+		assertEquals(testObject.INITIALIZING, testObject.getState());
+		assertEquals(1, SendIF.size());
+		BaseMsgC msg = SendIF.getMessage(0);
+		assertEquals(NukeMsgFactory.NUKE_EXECUTE_BATCH_REQ, msg.getId());
+		NukeExecuteBatchReqMsgC check = new NukeExecuteBatchReqMsgC(msg);
+		assertEquals(testObject.getTxID(), check.getTxID());
+		assertEquals(sagaID, check.getSagaID());
+		assertEquals(component, check.getDestination());
+		assertEquals(identity, check.getSource());
+		assertEquals("command", check.getCommand());
+		assertEquals("folder", check.getFolder());
+		assertTrue(check.isRepeated());
+		assertEquals(3, check.getNoOfUsers());
+	}
+	
+	@Test
+	public void testBatchRspWrongTxID() throws Exception {
+		BatchCommandProcedure testObject = new BatchCommandProcedure(component, "command", "", true, 2);
+		testObject.init();
+		testObject.handleInMessage(createRsp(testObject.getTxID() + 1, 1L, 2L));
+		assertEquals(testObject.INITIALIZING, testObject.getState());
+	}
+	
+	@Test
+	public void testBatchRspWrongSize() throws Exception {
+		BatchCommandProcedure testObject = new BatchCommandProcedure(component, "command", "", true, 2);
+		testObject.init();
+		testObject.handleInMessage(createRsp(testObject.getTxID(), 1L));
+		assertEquals(testObject.ABORTED, testObject.getState());
+	}
+	
+	@Test
+	public void testBatchCompleted() throws Exception {
+		BatchCommandProcedure testObject = new BatchCommandProcedure(component, "command", "", false, 2);
+		testObject.init();
+		testObject.handleInMessage(createRsp(testObject.getTxID(), 1L, 2L));
+		assertEquals(testObject.WORKING, testObject.getState());
+		testObject.handleInMessage(createInd(1L, CommandState.WORKING));
+		assertEquals(CommandState.WORKING, testObject.getProcessState(1L));
+		testObject.handleInMessage(createInd(1L, CommandState.DONE));
+		assertEquals(testObject.WORKING, testObject.getState());
+		testObject.handleInMessage(createInd(3L, CommandState.DONE));
+		assertEquals(testObject.WORKING, testObject.getState());
+		testObject.handleInMessage(createInd(2L, CommandState.ABORTED));
+		assertEquals(testObject.COMPLETED, testObject.getState());
+		assertEquals(2, testObject.getFinishedProcesses());
+		assertEquals(1, testObject.getAbortedProcesses());
+	}
+	
+	@Test
+	public void testBatchAllAborted() throws Exception {
+		BatchCommandProcedure testObject = new BatchCommandProcedure(component, "command", "", false, 1);
+		testObject.init();
+		testObject.handleInMessage(createRsp(testObject.getTxID(), 1L));
+		testObject.handleInMessage(createInd(1L, CommandState.ABORTED));
+		assertEquals(testObject.ABORTED, testObject.getState());
+	}
+	
+	@Test
+	public void testIndWhenInitializing() throws Exception {
+		BatchCommandProcedure testObject = new BatchCommandProcedure(component, "command", "", false, 1);
+		testObject.init();
+		testObject.handleInMessage(createInd(1L, CommandState.WORKING));
+		assertEquals(testObject.INITIALIZING, testObject.getState());
+	}
+	
+	@Test
+	public void testStopUsers() throws Exception {
+		BatchCommandProcedure testObject = new BatchCommandProcedure(component, "command", "", true, 3);
+		assertEquals(3, testObject.getActiveUsers());
+		testObject.init();
+		assertEquals(0, testObject.stopUsers(1));
+		assertEquals(3, testObject.getActiveUsers());
+		testObject.handleInMessage(createRsp(testObject.getTxID(), 1L, 2L, 3L));
+		testObject.handleInMessage(createInd(1L, CommandState.ABORTED));
+		assertEquals(2, testObject.getActiveUsers());
+		SendIF.clear();
+		assertEquals(2, testObject.stopUsers(5));
+		assertEquals(0, testObject.getActiveUsers());
+		assertEquals(1, SendIF.size());
+		NukeStopProcessReqMsgC check = new NukeStopProcessReqMsgC(SendIF.getMessage(0));
+		assertEquals(component, check.getDestination());
+		assertEquals(sagaID, check.getSagaID());
+		assertEquals(2, check.getProcessIDs().size());
+		assertFalse(check.getProcessIDs().contains(1L));
+		assertEquals(0, testObject.stopUsers(1));
+		assertEquals(1, SendIF.size());
+		testObject.handleInMessage(createInd(2L, CommandState.DONE));
+		testObject.handleInMessage(createInd(3L, CommandState.DONE));
+		assertEquals(testObject.COMPLETED, testObject.getState());
+	}
+	
+	private NukeExecuteBatchRspMsgC createRsp(int txID, Long... processIDs) {
+		NukeExecuteBatchRspMsgC retValue = new NukeExecuteBatchRspMsgC();
+		retValue.setSource(component);
+		retValue.setDestination(identity);
+		retValue.setTxID(txID);
+		retValue.setSagaID(sagaID);
+		retValue.setProcessIDs(Arrays.asList(processIDs));
+		return retValue;
+	}
+	
+	private NukeExecuteIndMsgC createInd(long processID, CommandState state) {
+		NukeExecuteIndMsgC retValue = new NukeExecuteIndMsgC();
+		retValue.setSource(component);
+		retValue.setDestination(identity);
+		retValue.setSagaID(sagaID);
+		retValue.setProcessID(processID);
+		retValue.setStatus(state);
+		return retValue;
+	}
+
+}
@@ -19,6 +19,7 @@ import io.github.scrier.opus.common.exception.InvalidOperationException;
 import io.github.scrier.opus.common.message.BaseMsgC;
 import io.github.scrier.opus.common.nuke.CommandState;
 import io.github.scrier.opus.common.nuke.NukeDataFactory;
+import io.github.scrier.opus.common.nuke.NukeExecuteRspMsgC;
 import io.github.scrier.opus.common.nuke.NukeInfo;
 import io.github.scrier.opus.common.nuke.NukeState;
 
@@ -156,7 +157,7 @@ public class DukeCommanderTest {
 		BaseProcedureMock in = new BaseProcedureMock();
 		BaseProcedureMock rem = new BaseProcedureMock();
 		testObject.getProceduresToAdd().add(add);
-		testObject.getProcedures().add(in);
+		testObject.addRunningProcedure(in);
 		testObject.getProceduresToRemove().add(rem);
 		testObject.shutDown();
 		assertTrue(testObject.getProcedures().isEmpty());
@@ -185,8 +186,8 @@ public class DukeCommanderTest {
   public void testMapCleared() {
   	DukeCommander testObject = new DukeCommander(instance);
 		theContext.init(testObject, theBaseAOC);
-		testObject.getProcedures().add(new BaseProcedureMock());
-		testObject.getProcedures().add(new BaseProcedureMock());
+		testObject.addRunningProcedure(new BaseProcedureMock());
+		testObject.addRunningProcedure(new BaseProcedureMock());
 		assertFalse(testObject.getProcedures().isEmpty());
 		MapEvent event = Mockito.mock(MapEvent.class);
 		testObject.mapCleared(event);
@@ -199,8 +200,8 @@ public class DukeCommanderTest {
   public void testMapEvicted() {
   	DukeCommander testObject = new DukeCommander(instance);
 		theContext.init(testObject, theBaseAOC);
-		testObject.getProcedures().add(new BaseProcedureMock());
-		testObject.getProcedures().add(new BaseProcedureMock());
+		testObject.addRunningProcedure(new BaseProcedureMock());
+		testObject.addRunningProcedure(new BaseProcedureMock());
 		assertFalse(testObject.getProcedures().isEmpty());
 		MapEvent event = Mockito.mock(MapEvent.class);
 		testObject.mapEvicted(event);
@@ -235,7 +236,7 @@ public class DukeCommanderTest {
   	DukeCommander testObject = new DukeCommander(instance);
 		theContext.init(testObject, theBaseAOC);
 		BaseProcedureMock procedure = new BaseProcedureMock();
-		testObject.getProcedures().add(procedure);
+		testObject.addRunningProcedure(procedure);
 		testObject.preEntry();
 		testObject.entryEvicted(identity, new NukeInfo());
 		testObject.postEntry();
@@ -250,7 +251,7 @@ public class DukeCommanderTest {
 		theContext.init(testObject, theBaseAOC);
 		BaseProcedureMock procedure = new BaseProcedureMock();
 		procedure.setOnEvictedReturn(procedure.COMPLETED);
-		testObject.getProcedures().add(procedure);
+		testObject.addRunningProcedure(procedure);
 		testObject.preEntry();
 		testObject.entryEvicted(identity, new NukeInfo());
 		testObject.postEntry();
@@ -265,7 +266,7 @@ public class DukeCommanderTest {
 		theContext.init(testObject, theBaseAOC);
 		BaseProcedureMock procedure = new BaseProcedureMock();
 		procedure.setOnEvictedReturn(procedure.ABORTED);
-		testObject.getProcedures().add(procedure);
+		testObject.addRunningProcedure(procedure);
 		testObject.preEntry();
 		testObject.entryEvicted(identity, new NukeInfo());
 		testObject.postEntry();
@@ -279,7 +280,7 @@ public class DukeCommanderTest {
   	DukeCommander testObject = new DukeCommander(instance);
 		theContext.init(testObject, theBaseAOC);
 		BaseProcedureMock procedure = new BaseProcedureMock();
-		testObject.getProcedures().add(procedure);
+		testObject.addRunningProcedure(procedure);
 		testObject.preEntry();
 		testObject.entryRemoved(identity);
 		testObject.postEntry();
@@ -294,7 +295,7 @@ public class DukeCommanderTest {
 		theContext.init(testObject, theBaseAOC);
 		BaseProcedureMock procedure = new BaseProcedureMock();
 		procedure.setOnRemovedReturn(procedure.COMPLETED);
-		testObject.getProcedures().add(procedure);
+		testObject.addRunningProcedure(procedure);
 		testObject.preEntry();
 		testObject.entryRemoved(identity);
 		testObject.postEntry();
@@ -309,7 +310,7 @@ public class DukeCommanderTest {
 		theContext.init(testObject, theBaseAOC);
 		BaseProcedureMock procedure = new BaseProcedureMock();
 		procedure.setOnRemovedReturn(procedure.ABORTED);
-		testObject.getProcedures().add(procedure);
+		testObject.addRunningProcedure(procedure);
 		testObject.preEntry();
 		testObject.entryRemoved(identity);
 		testObject.postEntry();
@@ -323,7 +324,7 @@ public class DukeCommanderTest {
   	DukeCommander testObject = new DukeCommander(instance);
 		theContext.init(testObject, theBaseAOC);
 		BaseProcedureMock procedure = new BaseProcedureMock();
-		testObject.getProcedures().add(procedure);
+		testObject.addRunningProcedure(procedure);
 		testObject.preEntry();
 		testObject.entryUpdated(identity, new NukeInfo());
 		testObject.postEntry();
@@ -338,7 +339,7 @@ public class DukeCommanderTest {
 		theContext.init(testObject, theBaseAOC);
 		BaseProcedureMock procedure = new BaseProcedureMock();
 		procedure.setOnUpdateReturn(procedure.COMPLETED);
-		testObject.getProcedures().add(procedure);
+		testObject.addRunningProcedure(procedure);
 		testObject.preEntry();
 		testObject.entryUpdated(identity, new NukeInfo());
 		testObject.postEntry();
@@ -353,7 +354,7 @@ public class DukeCommanderTest {
 		theContext.init(testObject, theBaseAOC);
 		BaseProcedureMock procedure = new BaseProcedureMock();
 		procedure.setOnUpdateReturn(procedure.ABORTED);
-		testObject.getProcedures().add(procedure);
+		testObject.addRunningProcedure(procedure);
 		testObject.preEntry();
 		testObject.entryUpdated(identity, new NukeInfo());
 		testObject.postEntry();
@@ -388,13 +389,13 @@ public class DukeCommanderTest {
 		procedure4.setOnEvictedReturn(4);
 		BaseProcedureMock procedure5 = new BaseProcedureMock();
 		procedure5.setOnEvictedReturn(5);
-		testObject.getProcedures().add(procedure1);
-		testObject.getProcedures().add(procedure2);
-		testObject.getProcedures().add(procedure3);
-		testObject.getProcedures().add(procedure4);
-		testObject.getProcedures().add(new ClusterDistributorProcedure());
-		testObject.getProcedures().add(new CommandProcedure(12345L, "this is command"));
-		testObject.getProcedures().add(new NukeProcedure(new NukeInfo()));
+		testObject.addRunningProcedure(procedure1);
+		testObject.addRunningProcedure(procedure2);
+		testObject.addRunningProcedure(procedure3);
+		testObject.addRunningProcedure(procedure4);
+		testObject.addRunningProcedure(new ClusterDistributorProcedure());
+		testObject.addRunningProcedure(new CommandProcedure(12345L, "this is command"));
+		testObject.addRunningProcedure(new NukeProcedure(new NukeInfo()));
 		testObject.getProceduresToRemove().add(procedure5);
 		List<BaseDukeProcedure> check = testObject.getProcedures(BaseProcedureMock.class);
 		assertEquals(4, check.size());
@@ -470,8 +471,8 @@ public class DukeCommanderTest {
   public void testDukeCommandReqStopCommandTooManyDistributors() throws InvalidOperationException {
   	DukeCommander testObject = new DukeCommander(instance);
 		theContext.init(testObject, theBaseAOC);
-		testObject.getProcedures().add(new ClusterDistributorProcedure());
-		testObject.getProcedures().add(new ClusterDistributorProcedure());
+		testObject.addRunningProcedure(new ClusterDistributorProcedure());
+		testObject.addRunningProcedure(new ClusterDistributorProcedure());
 		DukeCommandReqMsgC input = new DukeCommandReqMsgC();
 		input.setSource(otherIdentity);
 		input.setDestination(identity);
@@ -494,7 +495,7 @@ public class DukeCommanderTest {
   public void testDukeCommandReqStatusCommandDistributors() throws Exception {
   	DukeCommander testObject = new DukeCommander(instance);
 		theContext.init(testObject, theBaseAOC);
-		testObject.getProcedures().add(new ClusterDistributorProcedure());
+		testObject.addRunningProcedure(new ClusterDistributorProcedure());
 		DukeCommandReqMsgC input = new DukeCommandReqMsgC();
 		input.setSource(otherIdentity);
 		input.setDestination(identity);
@@ -515,4 +516,70 @@ public class DukeCommanderTest {
 		assertTrue(response.getResponse().contains("procedures currently working"));
   }
 
+  
+  @Test
+  public void testHandleInMessageRouted() throws Exception {
+  	DukeCommander testObject = new DukeCommander(instance);
+		theContext.init(testObject, theBaseAOC);
+		RoutedProcedureMock routed = new RoutedProcedureMock();
+		RoutedProcedureMock other = new RoutedProcedureMock();
+		BaseProcedureMock fallback = new BaseProcedureMock();
+		testObject.registerProcedure(routed);
+		testObject.registerProcedure(other);
+		testObject.registerProcedure(fallback);
+		testObject.initializeProcedures();
+		NukeExecuteRspMsgC input = new NukeExecuteRspMsgC();
+		input.setSource(otherIdentity);
+		input.setDestination(identity);
+		input.setTxID(routed.getTxID());
+		testObject.handleInMessage(input);
+		assertSame(input, routed.getHandleInMessage());
+		assertNull(other.getHandleInMessage());
+		assertSame(input, fallback.getHandleInMessage());
+  }
+  
+  @Test
+  public void testHandleInMessageRoutedRemoved() throws Exception {
+  	DukeCommander testObject = new DukeCommander(instance);
+		theContext.init(testObject, theBaseAOC);
+		RoutedProcedureMock routed = new RoutedProcedureMock();
+		routed.setHandleInMessageReturn(routed.COMPLETED);
+		testObject.registerProcedure(routed);
+		testObject.initializeProcedures();
+		NukeExecuteRspMsgC input = new NukeExecuteRspMsgC();
+		input.setSource(otherIdentity);
+		input.setDestination(identity);
+		input.setTxID(routed.getTxID());
+		testObject.handleInMessage(input);
+		assertTrue(routed.isShutDownCalled());
+		assertTrue(testObject.getProcedures().isEmpty());
+		assertEquals(0, testObject.getProcedureIndex().size());
+  }
+
+  @Test
+  public void testProcedureIndexReplacedSameSize() throws Exception {
+  	DukeCommander testObject = new DukeCommander(instance);
+		theContext.init(testObject, theBaseAOC);
+		BaseProcedureMock first = new BaseProcedureMock();
+		RoutedProcedureMock second = new RoutedProcedureMock();
+		testObject.addRunningProcedure(first);
+		assertEquals(1, testObject.getProcedures(BaseProcedureMock.class).size());
+		testObject.removeRunningProcedure(first);
+		testObject.addRunningProcedure(second);
+		assertEquals(0, testObject.getProcedures(BaseProcedureMock.class).size());
+		assertSame(second, testObject.getProcedures(RoutedProcedureMock.class).get(0));
+		testObject.removeRunningProcedure(second);
+		testObject.addRunningProcedure(first);
+		assertEquals(0, testObject.getProcedures(RoutedProcedureMock.class).size());
+		assertSame(first, testObject.getProcedures(BaseProcedureMock.class).get(0));
+		assertEquals(1, testObject.getProcedureIndex().size());
+  }
+
+  @Test(expected=UnsupportedOperationException.class)
+  public void testProceduresNotModifiable() {
+  	DukeCommander testObject = new DukeCommander(instance);
+		theContext.init(testObject, theBaseAOC);
+		testObject.getProcedures().add(new BaseProcedureMock());
+  }
+
 }
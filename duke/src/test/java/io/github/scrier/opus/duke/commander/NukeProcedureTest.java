@@ -103,6 +103,25 @@ public class NukeProcedureTest {
 		assertEquals(testObject.ABORTED, testObject.getState());
 	}
 	
+	@Test
+	public void testRemoved() throws Exception {
+		info.setKey(identity);
+		NukeProcedure testObject = new NukeProcedure(info);
+		testObject.init();
+		assertEquals(testObject.INITIALIZING, testObject.handleOnRemoved(identity + 1));
+		assertEquals(testObject.ABORTED, testObject.handleOnRemoved(identity));
+	}
+	
+	@Test
+	public void testEvicted() throws Exception {
+		NukeProcedure testObject = new NukeProcedure(info);
+		testObject.init();
+		NukeInfo other = new NukeInfo(info);
+		other.setNukeID(identity + 1);
+		assertEquals(testObject.INITIALIZING, testObject.handleOnEvicted(other));
+		assertEquals(testObject.ABORTED, testObject.handleOnEvicted(new NukeInfo(info)));
+	}
+	
 	@Test(expected=NullPointerException.class)
 	public void testShutDown() throws Exception {
 		NukeProcedure testObject = new NukeProcedure(info);
@@ -0,0 +1,118 @@
+package io.github.scrier.opus.duke.commander;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+
+import io.github.scrier.opus.common.nuke.CommandState;
+import io.github.scrier.opus.common.nuke.NukeExecuteIndMsgC;
+import io.github.scrier.opus.common.nuke.NukeExecuteRspMsgC;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class ProcedureIndexTest {
+	
+	ProcedureIndex testObject;
+	
+	@Before
+	public void setUp() throws Exception {
+		testObject = new ProcedureIndex();
+	}
+
+	@Test
+	public void testConstructor() {
+		assertEquals(0, testObject.size());
+		assertTrue(testObject.getProcedures(BaseProcedureMock.class).isEmpty());
+	}
+	
+	@Test
+	public void testAdd() {
+		BaseProcedureMock procedure = new BaseProcedureMock();
+		assertTrue(testObject.add(procedure));
+		assertFalse(testObject.add(procedure));
+		assertEquals(1, testObject.size());
+		assertEquals(1, testObject.getProcedures(BaseProcedureMock.class).size());
+		assertTrue(testObject.getProcedures(RoutedProcedureMock.class).isEmpty());
+	}
+	
+	@Test
+	public void testRemove() {
+		BaseProcedureMock procedure = new BaseProcedureMock();
+		RoutedProcedureMock routed = new RoutedProcedureMock();
+		testObject.add(procedure);
+		testObject.add(routed);
+		assertTrue(testObject.remove(procedure));
+		assertFalse(testObject.remove(procedure));
+		assertEquals(1, testObject.size());
+		assertTrue(testObject.getProcedures(BaseProcedureMock.class).isEmpty());
+		assertTrue(testObject.remove(routed));
+		NukeExecuteRspMsgC message = new NukeExecuteRspMsgC();
+		message.setTxID(routed.getTxID());
+		assertTrue(testObject.route(message).isEmpty());
+	}
+	
+	@Test
+	public void testRouteFallback() {
+		BaseProcedureMock procedure = new BaseProcedureMock();
+		testObject.add(procedure);
+		NukeExecuteIndMsgC message = new NukeExecuteIndMsgC();
+		List<BaseDukeProcedure> result = testObject.route(message);
+		assertEquals(1, result.size());
+		assertSame(procedure, result.get(0));
+	}
+	
+	@Test
+	public void testRouteTxID() {
+		RoutedProcedureMock routed = new RoutedProcedureMock();
+		RoutedProcedureMock other = new RoutedProcedureMock();
+		testObject.add(routed);
+		testObject.add(other);
+		NukeExecuteRspMsgC message = new NukeExecuteRspMsgC();
+		message.setTxID(routed.getTxID());
+		List<BaseDukeProcedure> result = testObject.route(message);
+		assertEquals(1, result.size());
+		assertSame(routed, result.get(0));
+	}
+	
+	@Test
+	public void testRouteProcessIDAfterUpdate() {
+		RoutedProcedureMock routed = new RoutedProcedureMock();
+		testObject.add(routed);
+		NukeExecuteIndMsgC message = new NukeExecuteIndMsgC();
+		message.setTxID(-5);
+		message.setProcessID(4242L);
+		message.setStatus(CommandState.WORKING);
+		assertTrue(testObject.route(message).isEmpty());
+		routed.setProcessID(4242L);
+		testObject.update(routed);
+		List<BaseDukeProcedure> result = testObject.route(message);
+		assertEquals(1, result.size());
+		assertSame(routed, result.get(0));
+	}
+	
+	@Test
+	public void testRouteSagaIDNoDuplicates() {
+		RoutedProcedureMock routed = new RoutedProcedureMock();
+		routed.setSagaID(3131L);
+		routed.setProcessID(4242L);
+		testObject.add(routed);
+		NukeExecuteIndMsgC message = new NukeExecuteIndMsgC();
+		message.setTxID(routed.getTxID());
+		message.setSagaID(3131L);
+		message.setProcessID(4242L);
+		List<BaseDukeProcedure> result = testObject.route(message);
+		assertEquals(1, result.size());
+		assertSame(routed, result.get(0));
+	}
+	
+	@Test
+	public void testClear() {
+		testObject.add(new BaseProcedureMock());
+		testObject.add(new RoutedProcedureMock());
+		testObject.clear();
+		assertEquals(0, testObject.size());
+		assertTrue(testObject.route(new NukeExecuteIndMsgC()).isEmpty());
+	}
+
+}
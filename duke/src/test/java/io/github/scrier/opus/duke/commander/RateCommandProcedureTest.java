@@ -0,0 +1,184 @@
+package io.github.scrier.opus.duke.commander;
+
+import static org.junit.Assert.*;
+
+import io.github.scrier.opus.TestHelper;
+
+import org.apache.logging.log4j.Level;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.hazelcast.core.HazelcastInstance;
+
+import io.github.scrier.opus.common.Shared;
+import io.github.scrier.opus.common.message.BaseMsgC;
+import io.github.scrier.opus.common.nuke.CommandState;
+import io.github.scrier.opus.common.nuke.NukeExecuteBatchIndMsgC;
+import io.github.scrier.opus.common.nuke.NukeExecuteIndMsgC;
+import io.github.scrier.opus.common.nuke.NukeExecuteRateReqMsgC;
+import io.github.scrier.opus.common.nuke.NukeExecuteRspMsgC;
+import io.github.scrier.opus.common.nuke.NukeMsgFactory;
+
+public class RateCommandProcedureTest {
+	
+	static TestHelper theHelper = TestHelper.INSTANCE;
+	
+	private HazelcastInstance instance;
+	private long identity = theHelper.getNextLong();
+	private long sagaID = theHelper.getNextLong();
+	private long component = theHelper.getNextLong();
+	private long schedule = 100L;
+	private Context theContext = Context.INSTANCE;
+	private BaseActiveObjectMock theBaseAOC;
+	private MessageServiceMock SendIF = new MessageServiceMock();
+
+	@BeforeClass
+	public static void setUpBeforeClass() throws Exception {
+		theHelper.setLogLevel(Level.TRACE);
+	}
+
+  @Before
+	public void setUp() throws Exception {
+		instance = theHelper.mockHazelcast();
+		theHelper.mockIdGen(instance, Shared.Hazelcast.COMMON_MAP_UNIQUE_ID, identity);
+		theHelper.mockIdGen(instance, Shared.Hazelcast.COMMON_SAGA_ID, sagaID);
+		theHelper.mockMap(instance, Shared.Hazelcast.BASE_NUKE_MAP);
+		theBaseAOC = new BaseActiveObjectMock(instance);
+		theBaseAOC.preInit();
+		theBaseAOC.setMsgService(SendIF);
+		theContext.init(new DukeCommander(instance), theBaseAOC);
+		SendIF.clear();
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		theContext.shutDown();
+	}
+	
+	@Test
+	public void testProcedure() {
+		RateCommandProcedure testObject = new RateCommandProcedure(component, "command", "folder", 2.5, 10);
+		assertEquals(testObject.CREATED, testObject.getState());
+		assertEquals(sagaID, testObject.getSagaID());
+		assertEquals(2.5, testObject.getRate(), 0.0);
+		assertEquals(10, testObject.getMaxInFlight());
+		assertTrue(testObject.isRouted());
+		assertEquals(sagaID, testObject.getRoutingSagaID());
+	}
+	
+	@Test
+	public void testInit() throws Exception {
+		RateCommandProcedure testObject = new RateCommandProcedure(component, "command", "folder", 2.5, 10);
+		testObject.init();
+		assertEquals(testObject.INITIALIZING, testObject.getState());
+		assertEquals(1, SendIF.size());
+		NukeExecuteRateReqMsgC check = getRequest(0);
+		assertEquals(testObject.getTxID(), check.getTxID());
+		assertEquals(sagaID, check.getSagaID());
+		assertEquals(component, check.getDestination());
+		assertEquals(identity, check.getSource());
+		assertEquals("command", check.getCommand());
+		assertEquals("folder", check.getFolder());
+		assertEquals(2.5, check.getRate(), 0.0);
+		assertEquals(10, check.getMaxInFlight());
+	}
+	
+	@Test
+	public void testRspWrongTxID() throws Exception {
+		RateCommandProcedure testObject = new RateCommandProcedure(component, "command", "", 1.0, 0);
+		testObject.init();
+		testObject.handleInMessage(createRsp(testObject.getTxID() + 1));
+		assertEquals(testObject.INITIALIZING, testObject.getState());
+	}
+	
+	@Test
+	public void testChangeRate() throws Exception {
+		RateCommandProcedure testObject = new RateCommandProcedure(component, "command", "", 1.0, 0);
+		assertFalse(testObject.changeRate(2.0, 0));
+		assertEquals(0, SendIF.size());
+		testObject.init();
+		testObject.handleInMessage(createRsp(testObject.getTxID()));
+		assertEquals(testObject.WORKING, testObject.getState());
+		assertEquals(schedule, testObject.getProcessID());
+		assertFalse(testObject.changeRate(2.0, 0));
+		assertTrue(testObject.changeRate(4.0, 3));
+		assertEquals(2, SendIF.size());
+		NukeExecuteRateReqMsgC check = getRequest(1);
+		assertEquals(sagaID, check.getSagaID());
+		assertEquals(4.0, check.getRate(), 0.0);
+		assertEquals(3, check.getMaxInFlight());
+	}
+	
+	@Test
+	public void testCountAndComplete() throws Exception {
+		RateCommandProcedure testObject = new RateCommandProcedure(component, "command", "", 1.0, 0);
+		testObject.init();
+		testObject.handleInMessage(createRsp(testObject.getTxID()));
+		testObject.handleInMessage(createInd(schedule, CommandState.WORKING));
+		testObject.handleInMessage(createInd(1L, CommandState.WORKING));
+		testObject.handleInMessage(createInd(1L, CommandState.DONE));
+		NukeExecuteBatchIndMsgC batch = new NukeExecuteBatchIndMsgC();
+		batch.setSource(component);
+		batch.setSagaID(sagaID);
+		batch.addStatus(2L, CommandState.WORKING);
+		batch.addStatus(3L, CommandState.WORKING);
+		batch.addStatus(3L, CommandState.ABORTED);
+		testObject.handleInMessage(batch);
+		assertEquals(testObject.WORKING, testObject.getState());
+		assertEquals(3, testObject.getStartedProcesses());
+		assertEquals(2, testObject.getFinishedProcesses());
+		assertEquals(1, testObject.getAbortedProcesses());
+		testObject.handleInMessage(createInd(schedule, CommandState.DONE));
+		assertEquals(testObject.COMPLETED, testObject.getState());
+		assertFalse(testObject.changeRate(8.0, 0));
+	}
+	
+	@Test
+	public void testScheduleAborted() throws Exception {
+		RateCommandProcedure testObject = new RateCommandProcedure(component, "command", "", 1.0, 0);
+		testObject.init();
+		testObject.handleInMessage(createRsp(testObject.getTxID()));
+		testObject.handleInMessage(createInd(schedule, CommandState.ABORTED));
+		assertEquals(testObject.ABORTED, testObject.getState());
+	}
+	
+	@Test
+	public void testIndFromOtherNuke() throws Exception {
+		RateCommandProcedure testObject = new RateCommandProcedure(component, "command", "", 1.0, 0);
+		testObject.init();
+		testObject.handleInMessage(createRsp(testObject.getTxID()));
+		NukeExecuteIndMsgC other = createInd(schedule, CommandState.DONE);
+		other.setSource(component + 1);
+		testObject.handleInMessage(other);
+		assertEquals(testObject.WORKING, testObject.getState());
+	}
+	
+	private NukeExecuteRateReqMsgC getRequest(int index) {
+		BaseMsgC msg = SendIF.getMessage(index);
+		assertEquals(NukeMsgFactory.NUKE_EXECUTE_RATE_REQ, msg.getId());
+		return new NukeExecuteRateReqMsgC(msg);
+	}
+	
+	private NukeExecuteRspMsgC createRsp(int txID) {
+		NukeExecuteRspMsgC retValue = new NukeExecuteRspMsgC();
+		retValue.setSource(component);
+		retValue.setDestination(identity);
+		retValue.setTxID(txID);
+		retValue.setSagaID(sagaID);
+		retValue.setProcessID(schedule);
+		return retValue;
+	}
+	
+	private NukeExecuteIndMsgC createInd(long processID, CommandState state) {
+		NukeExecuteIndMsgC retValue = new NukeExecuteIndMsgC();
+		retValue.setSource(component);
+		retValue.setDestination(identity);
+		retValue.setSagaID(sagaID);
+		retValue.setProcessID(processID);
+		retValue.setStatus(state);
+		return retValue;
+	}
+
+}
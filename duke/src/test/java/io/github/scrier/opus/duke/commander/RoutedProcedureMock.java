@@ -0,0 +1,44 @@
+package io.github.scrier.opus.duke.commander;
+
+import io.github.scrier.opus.common.Constants;
+
+public class RoutedProcedureMock extends BaseProcedureMock {
+	
+	private long processID;
+	private long sagaID;
+	
+	RoutedProcedureMock() {
+		setProcessID(Constants.HC_UNDEFINED);
+		setSagaID(Constants.HC_UNDEFINED);
+	}
+	
+	@Override
+	public boolean isRouted() {
+		return true;
+	}
+	
+	@Override
+	public long getRoutingProcessID() {
+		return processID;
+	}
+	
+	@Override
+	public long getRoutingSagaID() {
+		return sagaID;
+	}
+
+	/**
+	 * @param processID the processID to set
+	 */
+  public void setProcessID(long processID) {
+	  this.processID = processID;
+  }
+
+	/**
+	 * @param sagaID the sagaID to set
+	 */
+  public void setSagaID(long sagaID) {
+	  this.sagaID = sagaID;
+  }
+
+}
@@ -0,0 +1,173 @@
+package io.github.scrier.opus.duke.commander;
+
+import static org.junit.Assert.*;
+
+import io.github.scrier.opus.TestHelper;
+
+import org.apache.logging.log4j.Level;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.hazelcast.core.HazelcastInstance;
+
+import io.github.scrier.opus.common.Shared;
+import io.github.scrier.opus.common.message.BaseMsgC;
+import io.github.scrier.opus.common.nuke.CommandState;
+import io.github.scrier.opus.common.nuke.NukeExecuteIndMsgC;
+import io.github.scrier.opus.common.nuke.NukeExecuteTargetReqMsgC;
+import io.github.scrier.opus.common.nuke.NukeExecuteRspMsgC;
+import io.github.scrier.opus.common.nuke.NukeMsgFactory;
+
+public class TargetCommandProcedureTest {
+	
+	static TestHelper theHelper = TestHelper.INSTANCE;
+	
+	private HazelcastInstance instance;
+	private long identity = theHelper.getNextLong();
+	private long sagaID = theHelper.getNextLong();
+	private long component = theHelper.getNextLong();
+	private long schedule = 100L;
+	private Context theContext = Context.INSTANCE;
+	private BaseActiveObjectMock theBaseAOC;
+	private MessageServiceMock SendIF = new MessageServiceMock();
+
+	@BeforeClass
+	public static void setUpBeforeClass() throws Exception {
+		theHelper.setLogLevel(Level.TRACE);
+	}
+
+  @Before
+	public void setUp() throws Exception {
+		instance = theHelper.mockHazelcast();
+		theHelper.mockIdGen(instance, Shared.Hazelcast.COMMON_MAP_UNIQUE_ID, identity);
+		theHelper.mockIdGen(instance, Shared.Hazelcast.COMMON_SAGA_ID, sagaID);
+		theHelper.mockMap(instance, Shared.Hazelcast.BASE_NUKE_MAP);
+		theBaseAOC = new BaseActiveObjectMock(instance);
+		theBaseAOC.preInit();
+		theBaseAOC.setMsgService(SendIF);
+		theContext.init(new DukeCommander(instance), theBaseAOC);
+		SendIF.clear();
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		theContext.shutDown();
+	}
+	
+	@Test
+	public void testProcedure() {
+		TargetCommandProcedure testObject = new TargetCommandProcedure(component, "command", "folder", 25, 60);
+		assertEquals(testObject.CREATED, testObject.getState());
+		assertEquals(sagaID, testObject.getSagaID());
+		assertEquals(25, testObject.getTarget());
+		assertEquals(60, testObject.getRampSeconds());
+		assertTrue(testObject.isRouted());
+		assertEquals(sagaID, testObject.getRoutingSagaID());
+	}
+	
+	@Test
+	public void testInit() throws Exception {
+		TargetCommandProcedure testObject = new TargetCommandProcedure(component, "command", "folder", 25, 60);
+		testObject.init();
+		assertEquals(testObject.INITIALIZING, testObject.getState());
+		assertEquals(1, SendIF.size());
+		NukeExecuteTargetReqMsgC check = getRequest(0);
+		assertEquals(testObject.getTxID(), check.getTxID());
+		assertEquals(sagaID, check.getSagaID());
+		assertEquals(component, check.getDestination());
+		assertEquals(identity, check.getSource());
+		assertEquals("command", check.getCommand());
+		assertEquals("folder", check.getFolder());
+		assertEquals(25, check.getTarget());
+		assertEquals(60, check.getRampSeconds());
+	}
+	
+	@Test
+	public void testRspWrongTxID() throws Exception {
+		TargetCommandProcedure testObject = new TargetCommandProcedure(component, "command", "", 10, 30);
+		testObject.init();
+		testObject.handleInMessage(createRsp(testObject.getTxID() + 1));
+		assertEquals(testObject.INITIALIZING, testObject.getState());
+	}
+	
+	@Test
+	public void testChangeTarget() throws Exception {
+		TargetCommandProcedure testObject = new TargetCommandProcedure(component, "command", "", 10, 30);
+		assertFalse(testObject.changeTarget(20, 30));
+		assertEquals(0, SendIF.size());
+		testObject.init();
+		testObject.handleInMessage(createRsp(testObject.getTxID()));
+		assertEquals(testObject.WORKING, testObject.getState());
+		assertEquals(schedule, testObject.getProcessID());
+		assertFalse(testObject.changeTarget(20, 10));
+		assertTrue(testObject.changeTarget(5, 10));
+		assertEquals(2, SendIF.size());
+		NukeExecuteTargetReqMsgC check = getRequest(1);
+		assertEquals(sagaID, check.getSagaID());
+		assertEquals(5, check.getTarget());
+		assertEquals(10, check.getRampSeconds());
+	}
+	
+	@Test
+	public void testUsersIgnoredAndComplete() throws Exception {
+		TargetCommandProcedure testObject = new TargetCommandProcedure(component, "command", "", 10, 30);
+		testObject.init();
+		testObject.handleInMessage(createRsp(testObject.getTxID()));
+		testObject.handleInMessage(createInd(schedule, CommandState.WORKING));
+		testObject.handleInMessage(createInd(1L, CommandState.WORKING));
+		testObject.handleInMessage(createInd(1L, CommandState.ABORTED));
+		assertEquals(testObject.WORKING, testObject.getState());
+		testObject.handleInMessage(createInd(schedule, CommandState.DONE));
+		assertEquals(testObject.COMPLETED, testObject.getState());
+		assertFalse(testObject.changeTarget(8, 0));
+	}
+	
+	@Test
+	public void testScheduleAborted() throws Exception {
+		TargetCommandProcedure testObject = new TargetCommandProcedure(component, "command", "", 10, 30);
+		testObject.init();
+		testObject.handleInMessage(createRsp(testObject.getTxID()));
+		testObject.handleInMessage(createInd(schedule, CommandState.ABORTED));
+		assertEquals(testObject.ABORTED, testObject.getState());
+	}
+	
+	@Test
+	public void testIndFromOtherNuke() throws Exception {
+		TargetCommandProcedure testObject = new TargetCommandProcedure(component, "command", "", 10, 30);
+		testObject.init();
+		testObject.handleInMessage(createRsp(testObject.getTxID()));
+		NukeExecuteIndMsgC other = createInd(schedule, CommandState.DONE);
+		other.setSource(component + 1);
+		testObject.handleInMessage(other);
+		assertEquals(testObject.WORKING, testObject.getState());
+	}
+	
+	private NukeExecuteTargetReqMsgC getRequest(int index) {
+		BaseMsgC msg = SendIF.getMessage(index);
+		assertEquals(NukeMsgFactory.NUKE_EXECUTE_TARGET_REQ, msg.getId());
+		return new NukeExecuteTargetReqMsgC(msg);
+	}
+	
+	private NukeExecuteRspMsgC createRsp(int txID) {
+		NukeExecuteRspMsgC retValue = new NukeExecuteRspMsgC();
+		retValue.setSource(component);
+		retValue.setDestination(identity);
+		retValue.setTxID(txID);
+		retValue.setSagaID(sagaID);
+		retValue.setProcessID(schedule);
+		return retValue;
+	}
+	
+	private NukeExecuteIndMsgC createInd(long processID, CommandState state) {
+		NukeExecuteIndMsgC retValue = new NukeExecuteIndMsgC();
+		retValue.setSource(component);
+		retValue.setDestination(identity);
+		retValue.setSagaID(sagaID);
+		retValue.setProcessID(processID);
+		retValue.setStatus(state);
+		return retValue;
+	}
+
+}
@@ -0,0 +1,46 @@
+package io.github.scrier.opus.duke.commander.state;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class LaunchSpacingTest {
+
+	@Test
+	public void testConstructor() {
+		LaunchSpacing testObject = new LaunchSpacing();
+		assertEquals(0.0, testObject.getPlanned(), 0.0);
+		assertEquals(0L, testObject.getSamples());
+		assertEquals(0.0, testObject.getMean(), 0.0);
+	}
+
+	@Test
+	public void testLaunched() {
+		LaunchSpacing testObject = new LaunchSpacing();
+		testObject.startTick(100.0);
+		testObject.launched(1000L);
+		assertEquals(0L, testObject.getSamples());
+		testObject.launched(1090L);
+		testObject.launched(1210L);
+		assertEquals(100.0, testObject.getPlanned(), 0.0);
+		assertEquals(2L, testObject.getSamples());
+		assertEquals(105.0, testObject.getMean(), 0.0);
+		assertEquals(90L, testObject.getMin());
+		assertEquals(120L, testObject.getMax());
+	}
+
+	@Test
+	public void testNotMeasuredBetweenTicks() {
+		LaunchSpacing testObject = new LaunchSpacing();
+		testObject.startTick(50.0);
+		testObject.launched(0L);
+		testObject.launched(50L);
+		testObject.startTick(50.0);
+		testObject.launched(5000L);
+		testObject.launched(5040L);
+		assertEquals(2L, testObject.getSamples());
+		assertEquals(40L, testObject.getMin());
+		assertEquals(50L, testObject.getMax());
+	}
+
+}
@@ -15,6 +15,11 @@ public class NukeInfoMock  implements INukeInfo {
 	public int noOfRequestedCommandsReturned;
 	public int noOfCompletedCommandsReturned;
 	public int actualNumberOfThreads;
+	public int capacityReturned;
+	public int achievedUsersReturned;
+	public long executionsReturned;
+	public long failedExecutionsReturned;
+	public int executionTimeP95Returned;
 	
 	public NukeInfoMock(int requestedNoOfUsers) {
 		this(requestedNoOfUsers, NukeState.RUNNING);
@@ -71,4 +76,29 @@ public class NukeInfoMock  implements INukeInfo {
     this.requestedNoOfUsersReturned = threads;
   }
 
+	@Override
+	public int getCapacity() {
+		return capacityReturned;
+	}
+
+	@Override
+	public int getAchievedUsers() {
+		return achievedUsersReturned;
+	}
+
+	@Override
+	public long getExecutions() {
+		return executionsReturned;
+	}
+
+	@Override
+	public long getFailedExecutions() {
+		return failedExecutionsReturned;
+	}
+
+	@Override
+	public int getExecutionTimeP95() {
+		return executionTimeP95Returned;
+	}
+
 }
@@ -0,0 +1,205 @@
+package io.github.scrier.opus.duke.commander.state;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import io.github.scrier.opus.ClusterDistributorProcedureTestObj;
+import io.github.scrier.opus.TestHelper;
+import io.github.scrier.opus.common.Shared;
+import io.github.scrier.opus.common.nuke.NukeExecuteBatchRspMsgC;
+import io.github.scrier.opus.common.nuke.NukeMsgFactory;
+import io.github.scrier.opus.common.nuke.NukeStopProcessReqMsgC;
+import io.github.scrier.opus.duke.commander.BaseActiveObjectMock;
+import io.github.scrier.opus.duke.commander.BatchCommandProcedure;
+import io.github.scrier.opus.duke.commander.ClusterDistributorProcedure;
+import io.github.scrier.opus.duke.commander.Context;
+import io.github.scrier.opus.duke.commander.DukeCommander;
+import io.github.scrier.opus.duke.commander.MessageServiceMock;
+import io.github.scrier.opus.duke.io.LoadProfile;
+
+import org.apache.logging.log4j.Level;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.hazelcast.core.HazelcastInstance;
+
+public class ProfileDrivenTest {
+	
+	private static TestHelper theHelper = TestHelper.INSTANCE;
+
+	private HazelcastInstance instance;
+	private long identity = theHelper.getNextLong();
+	private long sagaID = theHelper.getNextLong();
+	private long component = theHelper.getNextLong();
+	private Context theContext = Context.INSTANCE;
+	private BaseActiveObjectMock theBaseAOC;
+	private MessageServiceMock SendIF = new MessageServiceMock();
+	private ClusterDistributorProcedureTestObj distributor;
+	private long processID;
+
+	@BeforeClass
+	public static void setUpBeforeClass() throws Exception {
+		theHelper.setLogLevel(Level.TRACE);
+	}
+
+	@Before
+	public void setUp() throws Exception {
+		instance = theHelper.mockHazelcast();
+		theHelper.mockIdGen(instance, Shared.Hazelcast.COMMON_MAP_UNIQUE_ID, identity);
+		theHelper.mockIdGen(instance, Shared.Hazelcast.COMMON_SAGA_ID, sagaID);
+		theHelper.mockIdGen(instance, Shared.Hazelcast.COMMON_UNIQUE_ID, component);
+		theHelper.mockMap(instance, Shared.Hazelcast.BASE_NUKE_MAP);
+		theBaseAOC = new BaseActiveObjectMock(instance);
+		theBaseAOC.preInit();
+		theBaseAOC.setMsgService(SendIF);
+		theContext.init(new DukeCommander(instance), theBaseAOC);
+		distributor = theHelper.getRandomDistributor();
+		theHelper.invokeSingleArg(ClusterDistributorProcedure.class, "setProfile", LoadProfile.class, distributor, 
+				LoadProfile.parse("0:0,10:10,20:10,20:4,30:4"));
+		processID = 1000L;
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		theContext.shutDown();
+	}
+
+	@Test
+	public void testConstructor() {
+		ProfileDriven testObject = new ProfileDriven(distributor, 7);
+		assertEquals(7, testObject.getIntervalSeconds());
+		assertEquals(0, testObject.getTarget());
+		assertEquals(30, testObject.getProfile().getDuration());
+		assertEquals(0, testObject.getActiveUsers());
+	}
+	
+	@Test
+	public void testInit() {
+		TestObject testObject = new TestObject(5000L);
+		testObject.init();
+		assertEquals(5000L, testObject.getStartTime());
+		assertEquals(2, distributor.TimeoutTime);
+		assertEquals(testObject.getTimerID(), distributor.TimeoutTimerID);
+		assertEquals(1, distributor.TimeoutCalls);
+	}
+	
+	@Test
+	public void testTimeoutTerminateID() {
+		ProfileDriven testObject = new ProfileDriven(distributor, 2);
+		testObject.setState(testObject.RAMPING_UP);
+		testObject.timeout(testObject.getTerminateID());
+		assertEquals(testObject.TERMINATING, testObject.getState());
+	}
+	
+	@Test(expected=RuntimeException.class)
+	public void testTimeoutNoNukes() {
+		TestObject testObject = new TestObject(0L);
+		testObject.init();
+		testObject.setState(testObject.RAMPING_UP);
+		testObject.now = 5000L;
+		testObject.timeout(testObject.getTimerID());
+	}
+	
+	@Test
+	public void testTimeoutFollowsProfile() throws Exception {
+		NukeInfoMock small = addNukeInfoObject(100);
+		NukeInfoMock large = addNukeInfoObject(300);
+		TestObject testObject = new TestObject(0L);
+		testObject.init();
+		testObject.setState(testObject.RAMPING_UP);
+		testObject.now = 5000L;
+		testObject.timeout(testObject.getTimerID());
+		assertEquals(5, testObject.getTarget());
+		assertEquals(5, testObject.getActiveUsers());
+		testObject.now = 10000L;
+		testObject.timeout(testObject.getTimerID());
+		assertEquals(10, testObject.getActiveUsers());
+		assertEquals(10, small.getRequestedNoOfThreads() + large.getRequestedNoOfThreads());
+		startBatches(testObject.getBatches());
+		SendIF.clear();
+		testObject.now = 20000L;
+		testObject.timeout(testObject.getTimerID());
+		assertEquals(4, testObject.getTarget());
+		assertEquals(4, testObject.getActiveUsers());
+		assertEquals(4, small.getRequestedNoOfThreads() + large.getRequestedNoOfThreads());
+		int stopped = 0;
+		for( int i = 0; i < SendIF.size(); i++ ) {
+			assertEquals(NukeMsgFactory.NUKE_STOP_PROCESS_REQ, SendIF.getMessage(i).getId());
+			stopped += new NukeStopProcessReqMsgC(SendIF.getMessage(i)).getProcessIDs().size();
+		}
+		assertEquals(6, stopped);
+		assertEquals(testObject.RAMPING_UP, testObject.getState());
+		assertEquals(4, distributor.TimeoutCalls);
+		testObject.now = 30000L;
+		testObject.timeout(testObject.getTimerID());
+		assertEquals(testObject.RAMPING_DOWN, testObject.getState());
+		assertEquals(4, distributor.TimeoutCalls);
+	}
+	
+	@Test
+	public void testStopUsersByLoad() throws Exception {
+		NukeInfoMock small = addNukeInfoObject(100);
+		NukeInfoMock large = addNukeInfoObject(300);
+		ProfileDriven testObject = new ProfileDriven(distributor, 2);
+		testObject.getBatches().add(createBatch(small.getNukeID(), 4));
+		testObject.getBatches().add(createBatch(large.getNukeID(), 6));
+		assertEquals(10, testObject.getActiveUsers());
+		assertEquals(4, testObject.stopUsers(4));
+		assertEquals(1, testObject.getBatches().get(0).getActiveUsers());
+		assertEquals(5, testObject.getBatches().get(1).getActiveUsers());
+		assertEquals(6, testObject.stopUsers(10));
+		assertEquals(0, testObject.getActiveUsers());
+	}
+	
+	private BatchCommandProcedure createBatch(long nukeID, int noOfUsers) throws Exception {
+		BatchCommandProcedure retValue = new BatchCommandProcedure(nukeID, "command", "", true, noOfUsers);
+		List<BatchCommandProcedure> batches = new ArrayList<BatchCommandProcedure>();
+		batches.add(retValue);
+		startBatches(batches);
+		return retValue;
+	}
+	
+	private void startBatches(List<BatchCommandProcedure> batches) throws Exception {
+		for( BatchCommandProcedure batch : batches ) {
+			batch.init();
+			NukeExecuteBatchRspMsgC rsp = new NukeExecuteBatchRspMsgC();
+			rsp.setSource(batch.getDestination());
+			rsp.setDestination(identity);
+			rsp.setTxID(batch.getTxID());
+			rsp.setSagaID(batch.getSagaID());
+			for( int i = 0; i < batch.getNoOfUsers(); i++ ) {
+				rsp.getProcessIDs().add(processID++);
+			}
+			batch.handleInMessage(rsp);
+			assertEquals(batch.WORKING, batch.getState());
+		}
+	}
+	
+	NukeInfoMock addNukeInfoObject(int capacity) {
+		NukeInfoMock mock = new NukeInfoMock(0);
+		mock.capacityReturned = capacity;
+		theContext.addNuke(mock.getNukeID(), mock);
+		return mock;
+	}
+	
+	private class TestObject extends ProfileDriven {
+		
+		public long now;
+		
+		public TestObject(long now) {
+			super(distributor, 2);
+			this.now = now;
+		}
+		
+		@Override
+		protected long getTime() {
+			return now;
+		}
+		
+	}
+	
+}
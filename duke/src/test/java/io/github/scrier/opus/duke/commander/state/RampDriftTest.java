@@ -0,0 +1,40 @@
+package io.github.scrier.opus.duke.commander.state;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class RampDriftTest {
+
+	@Test
+	public void testConstructor() {
+		RampDrift testObject = new RampDrift();
+		assertEquals(0, testObject.getLast());
+		assertEquals(0L, testObject.getSamples());
+		assertEquals(0.0, testObject.getMean(), 0.0);
+		assertEquals(0, testObject.getMax());
+	}
+
+	@Test
+	public void testRecord() {
+		RampDrift testObject = new RampDrift();
+		testObject.record(4);
+		testObject.record(-2);
+		testObject.record(0);
+		assertEquals(0, testObject.getLast());
+		assertEquals(3L, testObject.getSamples());
+		assertEquals(2.0, testObject.getMean(), 0.0);
+		assertEquals(4, testObject.getMax());
+	}
+
+	@Test
+	public void testCorrections() {
+		RampDrift testObject = new RampDrift();
+		testObject.started(3);
+		testObject.started(1);
+		testObject.stopped(2);
+		assertEquals(4L, testObject.getStarted());
+		assertEquals(2L, testObject.getStopped());
+	}
+
+}
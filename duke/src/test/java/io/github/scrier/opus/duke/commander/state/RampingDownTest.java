@@ -8,10 +8,17 @@ import io.github.scrier.opus.ClusterDistributorProcedureTestObj;
 import io.github.scrier.opus.TestHelper;
 import io.github.scrier.opus.common.Shared;
 import io.github.scrier.opus.common.data.BaseDataC;
+import io.github.scrier.opus.common.nuke.NukeExecuteBatchRspMsgC;
+import io.github.scrier.opus.common.nuke.NukeInfo;
+import io.github.scrier.opus.common.nuke.NukeMsgFactory;
 import io.github.scrier.opus.common.nuke.NukeState;
+import io.github.scrier.opus.common.nuke.NukeStopProcessReqMsgC;
 import io.github.scrier.opus.duke.commander.BaseActiveObjectMock;
+import io.github.scrier.opus.duke.commander.BatchCommandProcedure;
+import io.github.scrier.opus.duke.commander.ClusterDistributorProcedure;
 import io.github.scrier.opus.duke.commander.Context;
 import io.github.scrier.opus.duke.commander.DukeCommander;
+import io.github.scrier.opus.duke.commander.MessageServiceMock;
 
 import org.apache.logging.log4j.Level;
 import org.junit.After;
@@ -30,11 +37,14 @@ public class RampingDownTest {
 	private HazelcastInstance instance;
 	private long identity = theHelper.getNextLong();
 	private long timerID = theHelper.getNextLong();
+	private long sagaID = theHelper.getNextLong();
 	private Context theContext = Context.INSTANCE;
 	private BaseActiveObjectMock theBaseAOC;
 	@SuppressWarnings("rawtypes")
 	private IMap theMap;
 	private ClusterDistributorProcedureTestObj distributor;
+	private MessageServiceMock SendIF = new MessageServiceMock();
+	private long processID;
 
 	@BeforeClass
 	public static void setUpBeforeClass() throws Exception {
@@ -45,12 +55,16 @@ public class RampingDownTest {
 	public void setUp() throws Exception {
 		instance = theHelper.mockHazelcast();
 		theHelper.mockIdGen(instance, Shared.Hazelcast.COMMON_MAP_UNIQUE_ID, identity);
+		theHelper.mockIdGen(instance, Shared.Hazelcast.COMMON_SAGA_ID, sagaID);
 		theHelper.mockIdGen(instance, Shared.Hazelcast.COMMON_UNIQUE_ID, timerID);
 		theMap = theHelper.mockMap(instance, Shared.Hazelcast.BASE_NUKE_MAP);
 		theBaseAOC = new BaseActiveObjectMock(instance);
 		theBaseAOC.preInit();
+		theBaseAOC.setMsgService(SendIF);
 		theContext.init(new DukeCommander(instance), theBaseAOC);
 		distributor = theHelper.getRandomDistributor();
+		theHelper.invokeSingleArg(ClusterDistributorProcedure.class, "setUserDecrease", int.class, distributor, 0);
+		processID = 1000L;
 	}
 
 	@After
@@ -177,6 +191,8 @@ public class RampingDownTest {
 	public void testFinishedActiveIDNotActive() {
 		RampingDown testObject = new RampingDown(distributor);
 		testObject.setState(testObject.RAMPING_DOWN);
+		NukeInfoMock nuke = addNukeInfoObject(100, 2);
+		nuke.noOfUsersReturn = 2;
 		testObject.getActiveNukeCommands().add(1L);
 		distributor.timeoutActive = false;
 		testObject.finished(1L, 2L, testObject.COMPLETED, "haha", "hoho");
@@ -185,6 +201,52 @@ public class RampingDownTest {
 		assertEquals(1, distributor.TimeoutCalls);
 	}
 	
+	@Test
+	public void testFinishedLastCommandDrained() {
+		RampingDown testObject = new RampingDown(distributor);
+		testObject.setState(testObject.RAMPING_DOWN);
+		addNukeInfoObject(100, 2);
+		testObject.getActiveNukeCommands().add(1L);
+		distributor.timeoutActive = false;
+		testObject.finished(1L, 2L, testObject.COMPLETED, "haha", "hoho");
+		assertEquals(testObject.COMPLETED, testObject.getState());
+		assertEquals(0, distributor.TimeoutCalls);
+	}
+	
+	@Test
+	public void testUpdatedLastUserDrained() {
+		RampingDown testObject = new RampingDown(distributor);
+		testObject.setState(testObject.RAMPING_DOWN);
+		NukeInfoMock first = addNukeInfoObject(100, 2);
+		first.noOfUsersReturn = 2;
+		addNukeInfoObject(100, 2);
+		testObject.updated(createNukeInfo(first.getNukeID(), 1));
+		assertEquals(testObject.RAMPING_DOWN, testObject.getState());
+		testObject.updated(createNukeInfo(first.getNukeID(), 0));
+		assertEquals(testObject.COMPLETED, testObject.getState());
+		assertEquals(0, testObject.getOldUsers());
+	}
+	
+	@Test
+	public void testUpdatedWaitingForStopCommand() {
+		RampingDown testObject = new RampingDown(distributor);
+		testObject.setState(testObject.RAMPING_DOWN);
+		NukeInfoMock nuke = addNukeInfoObject(100, 2);
+		testObject.getActiveNukeCommands().add(nuke.getNukeID());
+		testObject.updated(createNukeInfo(nuke.getNukeID(), 0));
+		assertEquals(testObject.RAMPING_DOWN, testObject.getState());
+	}
+	
+	@Test
+	public void testUpdatedUnknownNuke() {
+		RampingDown testObject = new RampingDown(distributor);
+		testObject.setState(testObject.RAMPING_DOWN);
+		NukeInfoMock nuke = addNukeInfoObject(100, 2);
+		nuke.noOfUsersReturn = 1;
+		testObject.updated(createNukeInfo(nuke.getNukeID() + 1000, 0));
+		assertEquals(testObject.RAMPING_DOWN, testObject.getState());
+	}
+	
 	@Test
 	public void handleTimerTickOneNuke() {
 		RampingDown testObject = new RampingDown(distributor);
@@ -229,4 +291,118 @@ public class RampingDownTest {
 		assertEquals(1, distributor.TimeoutCalls);
 	}
 
+	@Test
+	public void testInitSteppedNoUsers() throws Exception {
+		setSteps(2, 10);
+		RampingDown testObject = new RampingDown(distributor);
+		testObject.init();
+		assertFalse(testObject.isStepping());
+		assertEquals(testObject.getRampDownUpdateSeconds(), distributor.TimeoutTime);
+	}
+	
+	@Test
+	public void testInitStepped() throws Exception {
+		setSteps(4, 10);
+		NukeInfoMock nuke = addNukeInfoObject(100, 6);
+		BatchCommandProcedure first = createBatch(nuke.getNukeID(), 3);
+		BatchCommandProcedure second = createBatch(nuke.getNukeID(), 3);
+		SendIF.clear();
+		RampingDown testObject = new RampingDown(distributor);
+		testObject.init();
+		assertTrue(testObject.isStepping());
+		assertEquals(0, testObject.getActiveNukeCommands().size());
+		assertEquals(10, distributor.TimeoutTime);
+		assertEquals(2, first.getActiveUsers());
+		assertEquals(0, second.getActiveUsers());
+		assertEquals(2, nuke.getRequestedNoOfThreads());
+		assertEquals(2, SendIF.size());
+		assertEquals(NukeMsgFactory.NUKE_STOP_PROCESS_REQ, SendIF.getMessage(0).getId());
+		assertEquals(2, testObject.getRemainingUsers());
+	}
+	
+	@Test
+	public void testStepDownSpreadOverNukes() throws Exception {
+		setSteps(4, 10);
+		NukeInfoMock large = addNukeInfoObject(300, 6);
+		NukeInfoMock small = addNukeInfoObject(100, 4);
+		BatchCommandProcedure onLarge = createBatch(large.getNukeID(), 6);
+		BatchCommandProcedure onSmall = createBatch(small.getNukeID(), 4);
+		SendIF.clear();
+		RampingDown testObject = new RampingDown(distributor);
+		assertEquals(4, testObject.stepDown(10));
+		assertEquals(5, onLarge.getActiveUsers());
+		assertEquals(1, onSmall.getActiveUsers());
+		assertEquals(5, large.getRequestedNoOfThreads());
+		assertEquals(1, small.getRequestedNoOfThreads());
+		assertEquals(3, ((NukeStopProcessReqMsgC)SendIF.getMessage(1)).getProcessIDs().size());
+	}
+	
+	@Test
+	public void testStepDownSkipsLostNuke() throws Exception {
+		setSteps(4, 10);
+		NukeInfoMock nuke = addNukeInfoObject(100, 2);
+		BatchCommandProcedure batch = createBatch(nuke.getNukeID(), 2);
+		theContext.removeNuke(nuke.getNukeID(), nuke);
+		RampingDown testObject = new RampingDown(distributor);
+		assertEquals(0, testObject.stepDown(2));
+		assertEquals(2, batch.getActiveUsers());
+	}
+	
+	@Test
+	public void testTimerTickSteppedUntilStopAll() throws Exception {
+		setSteps(2, 10);
+		NukeInfoMock nuke = addNukeInfoObject(100, 3);
+		BatchCommandProcedure batch = createBatch(nuke.getNukeID(), 3);
+		RampingDown testObject = new RampingDown(distributor);
+		testObject.setState(testObject.RAMPING_DOWN);
+		testObject.init();
+		assertEquals(1, batch.getActiveUsers());
+		testObject.timeout(testObject.getTimerID());
+		assertTrue(testObject.isStepping());
+		assertEquals(0, batch.getActiveUsers());
+		assertEquals(2, distributor.TimeoutCalls);
+		assertEquals(10, distributor.TimeoutTime);
+		testObject.timeout(testObject.getTimerID());
+		assertFalse(testObject.isStepping());
+		assertEquals(1, testObject.getActiveNukeCommands().size());
+		assertEquals(testObject.RAMPING_DOWN, testObject.getState());
+	}
+	
+	private void setSteps(int userDecrease, int intervalSeconds) throws Exception {
+		theHelper.invokeSingleArg(ClusterDistributorProcedure.class, "setUserDecrease", int.class, distributor, userDecrease);
+		theHelper.invokeSingleArg(ClusterDistributorProcedure.class, "setIntervalSeconds", int.class, distributor, intervalSeconds);
+	}
+	
+	private BatchCommandProcedure createBatch(long nukeID, int noOfUsers) throws Exception {
+		BatchCommandProcedure retValue = new BatchCommandProcedure(nukeID, "command", "", true, noOfUsers);
+		theContext.getCommander().registerProcedure(retValue);
+		retValue.init();
+		NukeExecuteBatchRspMsgC rsp = new NukeExecuteBatchRspMsgC();
+		rsp.setSource(nukeID);
+		rsp.setDestination(identity);
+		rsp.setTxID(retValue.getTxID());
+		rsp.setSagaID(retValue.getSagaID());
+		for( int i = 0; i < noOfUsers; i++ ) {
+			rsp.getProcessIDs().add(processID++);
+		}
+		retValue.handleInMessage(rsp);
+		assertEquals(retValue.WORKING, retValue.getState());
+		return retValue;
+	}
+	
+	private NukeInfo createNukeInfo(long nukeID, int liveUsers) {
+		NukeInfo retValue = new NukeInfo();
+		retValue.setNukeID(nukeID);
+		retValue.setKey(nukeID);
+		retValue.setNumberOfThreads(liveUsers);
+		return retValue;
+	}
+	
+	private NukeInfoMock addNukeInfoObject(int capacity, int requested) {
+		NukeInfoMock mock = new NukeInfoMock(requested);
+		mock.capacityReturned = capacity;
+		theContext.addNuke(mock.getNukeID(), mock);
+		return mock;
+	}
+
 }
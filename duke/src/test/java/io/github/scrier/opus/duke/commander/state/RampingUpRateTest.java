@@ -0,0 +1,170 @@
+package io.github.scrier.opus.duke.commander.state;
+
+import static org.junit.Assert.*;
+import io.github.scrier.opus.ClusterDistributorProcedureTestObj;
+import io.github.scrier.opus.TestHelper;
+import io.github.scrier.opus.common.Shared;
+import io.github.scrier.opus.common.data.BaseDataC;
+import io.github.scrier.opus.duke.commander.BaseActiveObjectMock;
+import io.github.scrier.opus.duke.commander.ClusterDistributorProcedure;
+import io.github.scrier.opus.duke.commander.Context;
+import io.github.scrier.opus.duke.commander.DukeCommander;
+import io.github.scrier.opus.duke.commander.RateCommandProcedure;
+
+import org.apache.logging.log4j.Level;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.hazelcast.core.HazelcastInstance;
+
+public class RampingUpRateTest {
+	
+	private static TestHelper theHelper = TestHelper.INSTANCE;
+
+	private HazelcastInstance instance;
+	private long identity = theHelper.getNextLong();
+	private long sagaID = theHelper.getNextLong();
+	private long component = theHelper.getNextLong();
+	private Context theContext = Context.INSTANCE;
+	private BaseActiveObjectMock theBaseAOC;
+	private ClusterDistributorProcedureTestObj distributor;
+
+	@BeforeClass
+	public static void setUpBeforeClass() throws Exception {
+		theHelper.setLogLevel(Level.TRACE);
+	}
+
+	@Before
+	public void setUp() throws Exception {
+		instance = theHelper.mockHazelcast();
+		theHelper.mockIdGen(instance, Shared.Hazelcast.COMMON_MAP_UNIQUE_ID, identity);
+		theHelper.mockIdGen(instance, Shared.Hazelcast.COMMON_SAGA_ID, sagaID);
+		theHelper.mockIdGen(instance, Shared.Hazelcast.COMMON_UNIQUE_ID, component);
+		theHelper.mockMap(instance, Shared.Hazelcast.BASE_NUKE_MAP);
+		theBaseAOC = new BaseActiveObjectMock(instance);
+		theBaseAOC.preInit();
+		theContext.init(new DukeCommander(instance), theBaseAOC);
+		distributor = theHelper.getRandomDistributor();
+		theHelper.invokeSingleArg(ClusterDistributorProcedure.class, "setMaxRate", double.class, distributor, 3.0);
+		theHelper.invokeSingleArg(ClusterDistributorProcedure.class, "setRateIncrease", double.class, distributor, 2.0);
+		theHelper.invokeSingleArg(ClusterDistributorProcedure.class, "setMaxInFlight", int.class, distributor, 40);
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		theContext.shutDown();
+	}
+
+	@Test
+	public void testConstructor() {
+		RampingUpRate testObject = new RampingUpRate(distributor);
+		assertEquals(RampingUp.DEFAULT_INTERVAL_SECONDS, testObject.getIntervalSeconds());
+		assertEquals(0.0, testObject.getCurrentRate(), 0.0);
+		assertEquals(3.0, testObject.getMaxRate(), 0.0);
+		assertEquals(2.0, testObject.getRateIncrease(), 0.0);
+		assertEquals(40, testObject.getMaxInFlight());
+		assertTrue(testObject.getRates().isEmpty());
+	}
+	
+	@Test
+	public void testInit() throws Exception {
+		RampingUpRate testObject = new RampingUpRate(distributor, 7);
+		testObject.init();
+		assertEquals(7, distributor.TimeoutTime);
+		assertEquals(testObject.getTimerID(), distributor.TimeoutTimerID);
+		assertEquals(1, distributor.TimeoutCalls);
+	}
+	
+	@Test
+	public void testUpdated() {
+		RampingUpRate testObject = new RampingUpRate(distributor);
+		testObject.setState(testObject.RAMPING_UP);
+		testObject.updated(new BaseDataC(1, 2));
+		assertEquals(distributor.RAMPING_UP, testObject.getState());
+	}
+	
+	@Test(expected=RuntimeException.class)
+	public void testUpdatedException() {
+		RampingUpRate testObject = new RampingUpRate(distributor);
+		testObject.updated(new BaseDataC(1, 2));
+	}
+	
+	@Test
+	public void testTimeoutTerminateID() {
+		RampingUpRate testObject = new RampingUpRate(distributor);
+		testObject.setState(testObject.RAMPING_UP);
+		testObject.timeout(testObject.getTerminateID());
+		assertEquals(testObject.TERMINATING, testObject.getState());
+	}
+	
+	@Test(expected=RuntimeException.class)
+	public void testTimeoutNoNukes() {
+		RampingUpRate testObject = new RampingUpRate(distributor);
+		testObject.setState(testObject.RAMPING_UP);
+		testObject.timeout(testObject.getTimerID());
+	}
+	
+	@Test
+	public void testTimeoutRampsToPeak() {
+		addNukeInfoObject(100);
+		RampingUpRate testObject = new RampingUpRate(distributor);
+		testObject.setState(testObject.RAMPING_UP);
+		testObject.timeout(testObject.getTimerID());
+		assertEquals(2.0, testObject.getCurrentRate(), 0.0);
+		assertEquals(testObject.RAMPING_UP, testObject.getState());
+		testObject.timeout(testObject.getTimerID());
+		assertEquals(3.0, testObject.getCurrentRate(), 0.0);
+		assertEquals(1, testObject.getRates().size());
+		assertEquals(3.0, testObject.getRates().values().iterator().next().getRate(), 0.0);
+		assertEquals(2, distributor.TimeoutCalls);
+		testObject.timeout(testObject.getTimerID());
+		assertEquals(testObject.PEAK_DELAY, testObject.getState());
+	}
+	
+	@Test
+	public void testDistributeByCapacity() {
+		NukeInfoMock small = addNukeInfoObject(100);
+		NukeInfoMock large = addNukeInfoObject(300);
+		RampingUpRate testObject = new RampingUpRate(distributor);
+		assertTrue(testObject.distribute(8.0));
+		RateCommandProcedure smallRate = testObject.getRates().get(small.getNukeID());
+		RateCommandProcedure largeRate = testObject.getRates().get(large.getNukeID());
+		assertEquals(2.0, smallRate.getRate(), 0.0);
+		assertEquals(10, smallRate.getMaxInFlight());
+		assertEquals(6.0, largeRate.getRate(), 0.0);
+		assertEquals(30, largeRate.getMaxInFlight());
+		assertTrue(testObject.distribute(16.0));
+		assertSame(smallRate, testObject.getRates().get(small.getNukeID()));
+		assertEquals(4.0, smallRate.getRate(), 0.0);
+		assertEquals(12.0, largeRate.getRate(), 0.0);
+	}
+	
+	@Test
+	public void testDistributeNukeGone() {
+		NukeInfoMock first = addNukeInfoObject(100);
+		NukeInfoMock second = addNukeInfoObject(100);
+		RampingUpRate testObject = new RampingUpRate(distributor);
+		assertTrue(testObject.distribute(4.0));
+		theContext.removeNuke(second.getNukeID(), second);
+		assertTrue(testObject.distribute(4.0));
+		assertEquals(4.0, testObject.getRates().get(first.getNukeID()).getRate(), 0.0);
+		assertEquals(0.0, testObject.getRates().get(second.getNukeID()).getRate(), 0.0);
+	}
+	
+	@Test
+	public void testDistributeNoNukes() {
+		RampingUpRate testObject = new RampingUpRate(distributor);
+		assertFalse(testObject.distribute(4.0));
+		assertTrue(testObject.getRates().isEmpty());
+	}
+	
+	NukeInfoMock addNukeInfoObject(int capacity) {
+		NukeInfoMock mock = new NukeInfoMock(0);
+		mock.capacityReturned = capacity;
+		theContext.addNuke(mock.getNukeID(), mock);
+		return mock;
+	}
+	
+}
@@ -0,0 +1,348 @@
+package io.github.scrier.opus.duke.commander.state;
+
+import static org.junit.Assert.*;
+import io.github.scrier.opus.ClusterDistributorProcedureTestObj;
+import io.github.scrier.opus.TestHelper;
+import io.github.scrier.opus.common.Shared;
+import io.github.scrier.opus.common.duke.DukeState;
+import io.github.scrier.opus.common.nuke.NukeExecuteBatchRspMsgC;
+import io.github.scrier.opus.duke.commander.BaseActiveObjectMock;
+import io.github.scrier.opus.duke.commander.BatchCommandProcedure;
+import io.github.scrier.opus.duke.commander.ClusterDistributorProcedure;
+import io.github.scrier.opus.duke.commander.Context;
+import io.github.scrier.opus.duke.commander.DukeCommander;
+import io.github.scrier.opus.duke.commander.MessageServiceMock;
+
+import org.apache.logging.log4j.Level;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.hazelcast.core.HazelcastInstance;
+
+public class RampingUpSaturationTest {
+	
+	private static TestHelper theHelper = TestHelper.INSTANCE;
+
+	private HazelcastInstance instance;
+	private long identity = theHelper.getNextLong();
+	private long sagaID = theHelper.getNextLong();
+	private long component = theHelper.getNextLong();
+	private Context theContext = Context.INSTANCE;
+	private BaseActiveObjectMock theBaseAOC;
+	private MessageServiceMock SendIF = new MessageServiceMock();
+	private ClusterDistributorProcedureTestObj distributor;
+	private long processID;
+	private long now;
+
+	@BeforeClass
+	public static void setUpBeforeClass() throws Exception {
+		theHelper.setLogLevel(Level.TRACE);
+	}
+
+	@Before
+	public void setUp() throws Exception {
+		instance = theHelper.mockHazelcast();
+		theHelper.mockIdGen(instance, Shared.Hazelcast.COMMON_MAP_UNIQUE_ID, identity);
+		theHelper.mockIdGen(instance, Shared.Hazelcast.COMMON_SAGA_ID, sagaID);
+		theHelper.mockIdGen(instance, Shared.Hazelcast.COMMON_UNIQUE_ID, component);
+		theHelper.mockMap(instance, Shared.Hazelcast.BASE_NUKE_MAP);
+		theBaseAOC = new BaseActiveObjectMock(instance);
+		theBaseAOC.preInit();
+		theBaseAOC.setMsgService(SendIF);
+		theContext.init(new DukeCommander(instance), theBaseAOC);
+		distributor = theHelper.getRandomDistributor();
+		theHelper.invokeSingleArg(ClusterDistributorProcedure.class, "setMaxUsers", int.class, distributor, 30);
+		theHelper.invokeSingleArg(ClusterDistributorProcedure.class, "setUserIncrease", int.class, distributor, 10);
+		theHelper.invokeSingleArg(ClusterDistributorProcedure.class, "setRepeated", boolean.class, distributor, true);
+		processID = 1000L;
+		now = 100000L;
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		theContext.shutDown();
+	}
+
+	@Test
+	public void testConstructor() {
+		RampingUpSaturation testObject = new RampingUpSaturation(distributor, 10);
+		assertEquals(10, testObject.getIntervalSeconds());
+		assertEquals(0, testObject.getLastGoodUsers());
+		assertEquals(0, testObject.getCapacity());
+		assertNull(testObject.getBreach());
+		assertTrue(testObject.getBatches().isEmpty());
+	}
+	
+	@Test
+	public void testInit() {
+		addNukeInfoObject(100).executionsReturned = 500;
+		RampingUpSaturation testObject = createTestObject();
+		testObject.init();
+		assertEquals(now, testObject.getSampleTime());
+		assertEquals(10, distributor.TimeoutTime);
+		assertEquals(testObject.getTimerID(), distributor.TimeoutTimerID);
+		assertEquals(1, distributor.TimeoutCalls);
+		now += 5000;
+		RampingUpSaturation.Sample sample = testObject.takeSample();
+		assertEquals(0L, sample.executions);
+		assertEquals(5.0, sample.seconds, 0.001);
+	}
+	
+	@Test
+	public void testTakeSample() {
+		NukeInfoMock first = addNukeInfoObject(100);
+		NukeInfoMock second = addNukeInfoObject(100);
+		first.executionsReturned = 100;
+		second.executionsReturned = 100;
+		RampingUpSaturation testObject = createTestObject();
+		testObject.takeSample();
+		now += 2000;
+		first.executionsReturned = 140;
+		first.failedExecutionsReturned = 4;
+		first.executionTimeP95Returned = 80;
+		second.executionTimeP95Returned = 500;
+		NukeInfoMock joined = addNukeInfoObject(100);
+		joined.executionsReturned = 20;
+		joined.executionTimeP95Returned = 90;
+		RampingUpSaturation.Sample sample = testObject.takeSample();
+		assertEquals(60L, sample.executions);
+		assertEquals(4L, sample.failedExecutions);
+		assertEquals(90, sample.p95);
+		assertEquals(30.0, sample.getThroughput(), 0.001);
+		assertEquals(6.67, sample.getErrorRatio(), 0.01);
+	}
+	
+	@Test
+	public void testGetBreach() throws Exception {
+		RampingUpSaturation testObject = createTestObject();
+		RampingUpSaturation.Sample sample = createSample(100, 2, 150, 10.0);
+		assertNull(testObject.getBreach(sample, 20, 10, 5.0));
+		theHelper.invokeSingleArg(ClusterDistributorProcedure.class, "setMaxP95", int.class, distributor, 100);
+		assertNotNull(testObject.getBreach(sample, 20, 10, 5.0));
+		theHelper.invokeSingleArg(ClusterDistributorProcedure.class, "setMaxP95", int.class, distributor, 0);
+		theHelper.invokeSingleArg(ClusterDistributorProcedure.class, "setMaxErrorRatio", double.class, distributor, 1.0);
+		assertNotNull(testObject.getBreach(sample, 20, 10, 5.0));
+		theHelper.invokeSingleArg(ClusterDistributorProcedure.class, "setMaxErrorRatio", double.class, distributor, 0.0);
+		theHelper.invokeSingleArg(ClusterDistributorProcedure.class, "setPlateauPercent", int.class, distributor, 50);
+		// doubling the users doubled the throughput.
+		assertNull(testObject.getBreach(sample, 20, 10, 5.0));
+		// doubling the users gave 25 % more throughput, half of the 50 % wanted.
+		assertNotNull(testObject.getBreach(sample, 20, 10, 8.0));
+		// nothing to compare with at the first level or when holding.
+		assertNull(testObject.getBreach(sample, 10, 0, 0.0));
+		assertNull(testObject.getBreach(sample, 20, 20, 0.0));
+	}
+	
+	@Test
+	public void testTimeoutTerminateID() {
+		RampingUpSaturation testObject = createTestObject();
+		testObject.setState(testObject.RAMPING_UP);
+		testObject.timeout(testObject.getTerminateID());
+		assertEquals(testObject.TERMINATING, testObject.getState());
+	}
+	
+	@Test(expected=RuntimeException.class)
+	public void testTimeoutWrongState() {
+		RampingUpSaturation testObject = createTestObject();
+		testObject.timeout(testObject.getTimerID());
+	}
+	
+	@Test
+	public void testStepBackOnP95() throws Exception {
+		theHelper.invokeSingleArg(ClusterDistributorProcedure.class, "setMaxP95", int.class, distributor, 100);
+		NukeInfoMock first = addNukeInfoObject(100);
+		NukeInfoMock second = addNukeInfoObject(100);
+		RampingUpSaturation testObject = createTestObject();
+		testObject.setState(testObject.RAMPING_UP);
+		testObject.init();
+		tick(testObject);
+		assertEquals(10, testObject.getLocalUserRampedUp());
+		execute(first, 50, 0, 60);
+		execute(second, 50, 0, 70);
+		tick(testObject);
+		assertEquals(10, testObject.getLastGoodUsers());
+		assertEquals(20, testObject.getLocalUserRampedUp());
+		assertEquals(testObject.RAMPING_UP, testObject.getState());
+		execute(first, 60, 0, 90);
+		execute(second, 60, 0, 150);
+		tick(testObject);
+		assertEquals(testObject.PEAK_DELAY, testObject.getState());
+		assertEquals(10, testObject.getCapacity());
+		assertEquals(10, testObject.getLocalUserRampedUp());
+		assertNotNull(testObject.getBreach());
+		assertEquals(10, first.getRequestedNoOfThreads() + second.getRequestedNoOfThreads());
+		assertEquals(now, testObject.getSampleTime());
+	}
+	
+	@Test
+	public void testStepBackOnPlateau() throws Exception {
+		theHelper.invokeSingleArg(ClusterDistributorProcedure.class, "setPlateauPercent", int.class, distributor, 50);
+		NukeInfoMock first = addNukeInfoObject(100);
+		RampingUpSaturation testObject = createTestObject();
+		testObject.setState(testObject.RAMPING_UP);
+		testObject.init();
+		tick(testObject);
+		execute(first, 100, 0, 10);
+		tick(testObject);
+		assertEquals(10.0, testObject.getLastGoodThroughput(), 0.001);
+		execute(first, 120, 0, 10);
+		tick(testObject);
+		assertEquals(testObject.PEAK_DELAY, testObject.getState());
+		assertEquals(10, testObject.getCapacity());
+		assertEquals(10, first.getRequestedNoOfThreads());
+	}
+	
+	@Test
+	public void testBreachAtFirstLevel() throws Exception {
+		theHelper.invokeSingleArg(ClusterDistributorProcedure.class, "setMaxErrorRatio", double.class, distributor, 5.0);
+		NukeInfoMock first = addNukeInfoObject(100);
+		RampingUpSaturation testObject = createTestObject();
+		testObject.setState(testObject.RAMPING_UP);
+		testObject.init();
+		tick(testObject);
+		execute(first, 100, 10, 10);
+		tick(testObject);
+		assertEquals(testObject.RAMPING_DOWN, testObject.getState());
+		assertEquals(0, testObject.getCapacity());
+		assertEquals(0, first.getRequestedNoOfThreads());
+	}
+	
+	@Test
+	public void testNoExecutionsNotChecked() throws Exception {
+		theHelper.invokeSingleArg(ClusterDistributorProcedure.class, "setMaxP95", int.class, distributor, 100);
+		NukeInfoMock first = addNukeInfoObject(100);
+		RampingUpSaturation testObject = createTestObject();
+		testObject.setState(testObject.RAMPING_UP);
+		testObject.init();
+		tick(testObject);
+		first.executionTimeP95Returned = 500;
+		tick(testObject);
+		assertEquals(testObject.RAMPING_UP, testObject.getState());
+		assertEquals(0, testObject.getLastGoodUsers());
+		assertEquals(20, testObject.getLocalUserRampedUp());
+	}
+	
+	@Test
+	public void testReachesMaxUsers() throws Exception {
+		theHelper.invokeSingleArg(ClusterDistributorProcedure.class, "setMaxP95", int.class, distributor, 100);
+		NukeInfoMock first = addNukeInfoObject(100);
+		RampingUpSaturation testObject = createTestObject();
+		testObject.setState(testObject.RAMPING_UP);
+		testObject.init();
+		for( int i = 0; i < 3; i++ ) {
+			tick(testObject);
+			execute(first, 100, 0, 50);
+		}
+		tick(testObject);
+		assertEquals(testObject.PEAK_DELAY, testObject.getState());
+		assertEquals(30, testObject.getCapacity());
+		assertNull(testObject.getBreach());
+		assertEquals(30, first.getRequestedNoOfThreads());
+	}
+	
+	@Test
+	public void testConfirm() throws Exception {
+		theContext.setClientState(DukeState.RUNNING);
+		theHelper.invokeSingleArg(ClusterDistributorProcedure.class, "setMaxP95", int.class, distributor, 100);
+		NukeInfoMock first = addNukeInfoObject(100);
+		RampingUpSaturation testObject = createTestObject();
+		testObject.setState(testObject.RAMPING_UP);
+		testObject.init();
+		tick(testObject);
+		execute(first, 100, 0, 50);
+		tick(testObject);
+		execute(first, 100, 0, 200);
+		tick(testObject);
+		assertEquals(10, testObject.getCapacity());
+		execute(first, 100, 0, 60);
+		testObject.confirm();
+		assertEquals(10, theContext.getClientInfo().getMeasuredCapacity());
+	}
+	
+	@Test
+	public void testConfirmNotHeld() throws Exception {
+		theContext.setClientState(DukeState.RUNNING);
+		theHelper.invokeSingleArg(ClusterDistributorProcedure.class, "setMaxP95", int.class, distributor, 100);
+		NukeInfoMock first = addNukeInfoObject(100);
+		RampingUpSaturation testObject = createTestObject();
+		testObject.setState(testObject.RAMPING_UP);
+		testObject.init();
+		tick(testObject);
+		execute(first, 100, 0, 50);
+		tick(testObject);
+		execute(first, 100, 0, 200);
+		tick(testObject);
+		execute(first, 100, 0, 150);
+		testObject.confirm();
+		assertEquals(0, theContext.getClientInfo().getMeasuredCapacity());
+	}
+	
+	@Test
+	public void testConfirmNothingHeld() {
+		theContext.setClientState(DukeState.RUNNING);
+		RampingUpSaturation testObject = createTestObject();
+		testObject.confirm();
+		assertEquals(0, theContext.getClientInfo().getMeasuredCapacity());
+	}
+	
+	private RampingUpSaturation createTestObject() {
+		return new RampingUpSaturation(distributor, 10) {
+			@Override
+			protected long getTime() {
+				return now;
+			}
+		};
+	}
+	
+	private RampingUpSaturation.Sample createSample(long executions, long failedExecutions, int p95, double seconds) {
+		RampingUpSaturation.Sample retValue = new RampingUpSaturation.Sample();
+		retValue.executions = executions;
+		retValue.failedExecutions = failedExecutions;
+		retValue.p95 = p95;
+		retValue.seconds = seconds;
+		return retValue;
+	}
+	
+	/**
+	 * Method to let an interval pass, the started batches get their response.
+	 */
+	private void tick(RampingUpSaturation testObject) throws Exception {
+		now += 10000;
+		testObject.timeout(testObject.getTimerID());
+		for( BatchCommandProcedure batch : testObject.getBatches() ) {
+			if( batch.CREATED == batch.getState() ) {
+				working(batch);
+			}
+		}
+	}
+	
+	private void execute(NukeInfoMock nuke, long executions, long failedExecutions, int p95) {
+		nuke.executionsReturned += executions;
+		nuke.failedExecutionsReturned += failedExecutions;
+		nuke.executionTimeP95Returned = p95;
+	}
+	
+	private void working(BatchCommandProcedure batch) throws Exception {
+		batch.init();
+		NukeExecuteBatchRspMsgC rsp = new NukeExecuteBatchRspMsgC();
+		rsp.setSource(batch.getDestination());
+		rsp.setDestination(identity);
+		rsp.setTxID(batch.getTxID());
+		rsp.setSagaID(batch.getSagaID());
+		for( int i = 0; i < batch.getNoOfUsers(); i++ ) {
+			rsp.getProcessIDs().add(processID++);
+		}
+		batch.handleInMessage(rsp);
+		assertEquals(batch.WORKING, batch.getState());
+	}
+	
+	NukeInfoMock addNukeInfoObject(int capacity) {
+		NukeInfoMock mock = new NukeInfoMock(0);
+		mock.capacityReturned = capacity;
+		theContext.addNuke(mock.getNukeID(), mock);
+		return mock;
+	}
+	
+}
@@ -0,0 +1,160 @@
+package io.github.scrier.opus.duke.commander.state;
+
+import static org.junit.Assert.*;
+import io.github.scrier.opus.ClusterDistributorProcedureTestObj;
+import io.github.scrier.opus.TestHelper;
+import io.github.scrier.opus.common.Shared;
+import io.github.scrier.opus.duke.commander.BaseActiveObjectMock;
+import io.github.scrier.opus.duke.commander.ClusterDistributorProcedure;
+import io.github.scrier.opus.duke.commander.Context;
+import io.github.scrier.opus.duke.commander.DukeCommander;
+import io.github.scrier.opus.duke.commander.TargetCommandProcedure;
+
+import org.apache.logging.log4j.Level;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.hazelcast.core.HazelcastInstance;
+
+public class RampingUpTargetTest {
+	
+	private static TestHelper theHelper = TestHelper.INSTANCE;
+
+	private HazelcastInstance instance;
+	private long identity = theHelper.getNextLong();
+	private long sagaID = theHelper.getNextLong();
+	private long component = theHelper.getNextLong();
+	private Context theContext = Context.INSTANCE;
+	private BaseActiveObjectMock theBaseAOC;
+	private ClusterDistributorProcedureTestObj distributor;
+
+	@BeforeClass
+	public static void setUpBeforeClass() throws Exception {
+		theHelper.setLogLevel(Level.TRACE);
+	}
+
+	@Before
+	public void setUp() throws Exception {
+		instance = theHelper.mockHazelcast();
+		theHelper.mockIdGen(instance, Shared.Hazelcast.COMMON_MAP_UNIQUE_ID, identity);
+		theHelper.mockIdGen(instance, Shared.Hazelcast.COMMON_SAGA_ID, sagaID);
+		theHelper.mockIdGen(instance, Shared.Hazelcast.COMMON_UNIQUE_ID, component);
+		theHelper.mockMap(instance, Shared.Hazelcast.BASE_NUKE_MAP);
+		theBaseAOC = new BaseActiveObjectMock(instance);
+		theBaseAOC.preInit();
+		theContext.init(new DukeCommander(instance), theBaseAOC);
+		distributor = theHelper.getRandomDistributor();
+		theHelper.invokeSingleArg(ClusterDistributorProcedure.class, "setMaxUsers", int.class, distributor, 40);
+		theHelper.invokeSingleArg(ClusterDistributorProcedure.class, "setUserIncrease", int.class, distributor, 15);
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		theContext.shutDown();
+	}
+
+	@Test
+	public void testConstructor() {
+		RampingUpTarget testObject = new RampingUpTarget(distributor, 7);
+		assertEquals(7, testObject.getIntervalSeconds());
+		assertEquals(0, testObject.getRampSeconds());
+		assertTrue(testObject.getTargets().isEmpty());
+	}
+	
+	@Test
+	public void testInit() throws Exception {
+		NukeInfoMock small = addNukeInfoObject(100);
+		NukeInfoMock large = addNukeInfoObject(300);
+		RampingUpTarget testObject = new RampingUpTarget(distributor, 7);
+		testObject.init();
+		assertEquals(21, testObject.getRampSeconds());
+		assertEquals(2, testObject.getTargets().size());
+		TargetCommandProcedure smallTarget = testObject.getTargets().get(small.getNukeID());
+		TargetCommandProcedure largeTarget = testObject.getTargets().get(large.getNukeID());
+		assertEquals(10, smallTarget.getTarget());
+		assertEquals(30, largeTarget.getTarget());
+		assertEquals(21, largeTarget.getRampSeconds());
+		assertEquals(10, small.getRequestedNoOfThreads());
+		assertEquals(30, large.getRequestedNoOfThreads());
+		assertEquals(2, theContext.getCommander().getProceduresToAdd(TargetCommandProcedure.class).size());
+		assertEquals(7, distributor.TimeoutTime);
+		assertEquals(testObject.getTimerID(), distributor.TimeoutTimerID);
+		assertEquals(1, distributor.TimeoutCalls);
+	}
+	
+	@Test(expected=RuntimeException.class)
+	public void testInitNoNukes() {
+		RampingUpTarget testObject = new RampingUpTarget(distributor, 7);
+		testObject.init();
+	}
+	
+	@Test
+	public void testTimeoutTerminateID() {
+		RampingUpTarget testObject = new RampingUpTarget(distributor, 7);
+		testObject.setState(testObject.RAMPING_UP);
+		testObject.timeout(testObject.getTerminateID());
+		assertEquals(testObject.TERMINATING, testObject.getState());
+	}
+	
+	@Test(expected=RuntimeException.class)
+	public void testTimeoutWrongState() {
+		RampingUpTarget testObject = new RampingUpTarget(distributor, 7);
+		testObject.timeout(testObject.getTimerID());
+	}
+	
+	@Test
+	public void testTimeoutRampsToPeak() {
+		NukeInfoMock first = addNukeInfoObject(100);
+		NukeInfoMock second = addNukeInfoObject(100);
+		NukeInfoMock other = addNukeInfoObject(100);
+		RampingUpTarget testObject = new RampingUpTarget(distributor, 7);
+		testObject.init();
+		testObject.getTargets().remove(other.getNukeID());
+		other.achievedUsersReturned = 40;
+		testObject.setState(testObject.RAMPING_UP);
+		first.achievedUsersReturned = 5;
+		second.achievedUsersReturned = 7;
+		testObject.timeout(testObject.getTimerID());
+		assertEquals(12, testObject.getLocalUserRampedUp());
+		assertEquals(testObject.RAMPING_UP, testObject.getState());
+		assertEquals(2, distributor.TimeoutCalls);
+		first.achievedUsersReturned = 20;
+		second.achievedUsersReturned = 20;
+		testObject.timeout(testObject.getTimerID());
+		assertEquals(40, testObject.getLocalUserRampedUp());
+		assertEquals(testObject.PEAK_DELAY, testObject.getState());
+		assertEquals(2, distributor.TimeoutCalls);
+	}
+	
+	@Test
+	public void testRedistributeLostNuke() throws Exception {
+		NukeInfoMock lost = addNukeInfoObject(100);
+		NukeInfoMock first = addNukeInfoObject(100);
+		NukeInfoMock second = addNukeInfoObject(200);
+		RampingUpTarget testObject = new RampingUpTarget(distributor, 7);
+		testObject.init();
+		assertEquals(10, testObject.getTargets().get(lost.getNukeID()).getTarget());
+		assertEquals(10, testObject.redistribute(lost));
+		assertEquals(2, testObject.getTargets().size());
+		assertFalse(testObject.getTargets().containsKey(lost.getNukeID()));
+		assertEquals(0, lost.getRequestedNoOfThreads());
+		int total = 0;
+		for( TargetCommandProcedure target : testObject.getTargets().values() ) {
+			total += target.getTarget();
+		}
+		assertEquals(40, total);
+		assertEquals(first.getRequestedNoOfThreads(), testObject.getTargets().get(first.getNukeID()).getTarget());
+		assertEquals(second.getRequestedNoOfThreads(), testObject.getTargets().get(second.getNukeID()).getTarget());
+		assertEquals(0, testObject.redistribute(lost));
+	}
+	
+	NukeInfoMock addNukeInfoObject(int capacity) {
+		NukeInfoMock mock = new NukeInfoMock(0);
+		mock.capacityReturned = capacity;
+		theContext.addNuke(mock.getNukeID(), mock);
+		return mock;
+	}
+	
+}
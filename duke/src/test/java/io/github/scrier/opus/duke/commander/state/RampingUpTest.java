@@ -6,17 +6,24 @@ import io.github.scrier.opus.TestHelper;
 import io.github.scrier.opus.common.Constants;
 import io.github.scrier.opus.common.Shared;
 import io.github.scrier.opus.common.data.BaseDataC;
+import io.github.scrier.opus.common.duke.DukeState;
+import io.github.scrier.opus.common.nuke.NukeExecuteBatchRspMsgC;
 import io.github.scrier.opus.common.nuke.NukeState;
 import io.github.scrier.opus.duke.commander.BaseActiveObjectMock;
+import io.github.scrier.opus.duke.commander.BaseDukeProcedure;
+import io.github.scrier.opus.duke.commander.BatchCommandProcedure;
 import io.github.scrier.opus.duke.commander.ClusterDistributorProcedure;
 import io.github.scrier.opus.duke.commander.Context;
 import io.github.scrier.opus.duke.commander.DukeCommander;
 import io.github.scrier.opus.duke.commander.INukeInfo;
+import io.github.scrier.opus.duke.commander.MessageServiceMock;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Random;
 import java.util.Set;
 
 import org.apache.logging.log4j.Level;
@@ -41,6 +48,7 @@ public class RampingUpTest {
 	@SuppressWarnings("rawtypes")
 	private IMap theMap;
 	private ClusterDistributorProcedure distributor;
+	private MessageServiceMock SendIF = new MessageServiceMock();
 
 	@BeforeClass
 	public static void setUpBeforeClass() throws Exception {
@@ -52,9 +60,11 @@ public class RampingUpTest {
 		instance = theHelper.mockHazelcast();
 		theHelper.mockIdGen(instance, Shared.Hazelcast.COMMON_MAP_UNIQUE_ID, identity);
 		theHelper.mockIdGen(instance, Shared.Hazelcast.COMMON_SAGA_ID, sagaID);
+		theHelper.mockIdGen(instance, Shared.Hazelcast.COMMON_UNIQUE_ID, component);
 		theMap = theHelper.mockMap(instance, Shared.Hazelcast.BASE_NUKE_MAP);
 		theBaseAOC = new BaseActiveObjectMock(instance);
 		theBaseAOC.preInit();
+		theBaseAOC.setMsgService(SendIF);
 		theContext.init(new DukeCommander(instance), theBaseAOC);
 		distributor = theHelper.getRandomDistributor();
 	}
@@ -119,6 +129,64 @@ public class RampingUpTest {
 		assertEquals(distributor.RAMPING_UP, testObject.getState());
 	}
 	
+	@Test
+	public void testRemovedLostNuke() {
+		theContext.setClientState(DukeState.RUNNING);
+		NukeInfoMock lost = addNukeInfoObject(6);
+		RampingUp testObject = new RampingUp(distributor);
+		testObject.setState(testObject.RAMPING_UP);
+		testObject.removed(lost.getNukeID() + 1000);
+		assertTrue(theContext.getClientInfo().getGapMarkers().isEmpty());
+		testObject.removed(lost.getNukeID());
+		assertEquals(distributor.RAMPING_UP, testObject.getState());
+		assertEquals(1, theContext.getClientInfo().getGapMarkers().size());
+	}
+	
+	@Test
+	public void testRedistributeLostNuke() throws Exception {
+		theHelper.invokeSingleArg(ClusterDistributorProcedure.class, "setRepeated", boolean.class, distributor, true);
+		NukeInfoMock lost = addNukeInfoObject(6);
+		NukeInfoMock first = addNukeInfoObject(2);
+		NukeInfoMock second = addNukeInfoObject(4);
+		RampingUp testObject = new RampingUp(distributor);
+		assertEquals(6, testObject.redistribute(lost));
+		assertEquals(0, lost.getRequestedNoOfThreads());
+		assertEquals(6, first.getRequestedNoOfThreads());
+		assertEquals(6, second.getRequestedNoOfThreads());
+		List<BaseDukeProcedure> started = theContext.getCommander().getProceduresToAdd(BatchCommandProcedure.class);
+		assertEquals(2, started.size());
+		int users = 0;
+		for( BaseDukeProcedure procedure : started ) {
+			BatchCommandProcedure batch = (BatchCommandProcedure)procedure;
+			assertTrue(lost.getNukeID() != batch.getDestination());
+			users += batch.getNoOfUsers();
+		}
+		assertEquals(6, users);
+		assertEquals(0, testObject.redistribute(lost));
+	}
+	
+	@Test
+	public void testRedistributeNotRepeated() throws Exception {
+		theHelper.invokeSingleArg(ClusterDistributorProcedure.class, "setRepeated", boolean.class, distributor, false);
+		NukeInfoMock lost = addNukeInfoObject(6);
+		NukeInfoMock first = addNukeInfoObject(2);
+		RampingUp testObject = new RampingUp(distributor);
+		assertEquals(0, testObject.redistribute(lost));
+		assertEquals(0, lost.getRequestedNoOfThreads());
+		assertEquals(2, first.getRequestedNoOfThreads());
+		assertTrue(theContext.getCommander().getProceduresToAdd(BatchCommandProcedure.class).isEmpty());
+	}
+	
+	@Test
+	public void testRedistributeNoSurvivors() throws Exception {
+		theHelper.invokeSingleArg(ClusterDistributorProcedure.class, "setRepeated", boolean.class, distributor, true);
+		NukeInfoMock lost = addNukeInfoObject(6);
+		addNukeInfoObjects(2, NukeState.ABORTED);
+		RampingUp testObject = new RampingUp(distributor);
+		assertEquals(0, testObject.redistribute(lost));
+		assertTrue(theContext.getCommander().getProceduresToAdd(BatchCommandProcedure.class).isEmpty());
+	}
+	
 	@Test
 	public void testTimeoutTerminateID() {
 		RampingUp testObject = new RampingUp(distributor);
@@ -338,6 +406,333 @@ public class RampingUpTest {
 		}
 	}
 	
+	@Test
+	public void testGetDistributionSuggestionUnevenLoad() throws Exception {
+		NukeInfoMock loaded = addNukeInfoObject(4);
+		NukeInfoMock empty1 = addNukeInfoObject(0);
+		NukeInfoMock half = addNukeInfoObject(2);
+		NukeInfoMock empty2 = addNukeInfoObject(0);
+		RampingUp testObject = new RampingUp(distributor);
+		Map<Long, Integer> check = testObject.getDistributionSuggestion(7);
+		assertEquals(3, check.size());
+		assertFalse(check.containsKey(loaded.getNukeID()));
+		assertEquals(3, check.get(empty1.getNukeID()).intValue());
+		assertEquals(1, check.get(half.getNukeID()).intValue());
+		assertEquals(3, check.get(empty2.getNukeID()).intValue());
+		assertEquals(4, loaded.getRequestedNoOfThreads());
+		assertEquals(3, empty1.getRequestedNoOfThreads());
+		assertEquals(3, half.getRequestedNoOfThreads());
+		assertEquals(3, empty2.getRequestedNoOfThreads());
+	}
+	
+	@Test
+	public void testGetDistributionSuggestionMatchesLeastLoaded() throws Exception {
+		Random random = new Random(4711);
+		for( int i = 0; i < 20; i++ ) {
+			addNukeInfoObject(random.nextInt(10));
+		}
+		RampingUp testObject = new RampingUp(distributor);
+		for( int users : new int[] { 1, 7, 19, 20, 21, 137 } ) {
+			List<INukeInfo> nukes = theContext.getNukes(NukeState.RUNNING);
+			Map<Long, Integer> expected = getLeastLoaded(nukes, users);
+			assertEquals(expected, testObject.getDistributionSuggestion(users));
+		}
+	}
+	
+	@Test
+	public void testGetDistributionSuggestionByCapacity() throws Exception {
+		NukeInfoMock small = addNukeInfoObject(0, 400);
+		NukeInfoMock large = addNukeInfoObject(0, 1600);
+		RampingUp testObject = new RampingUp(distributor);
+		Map<Long, Integer> check = testObject.getDistributionSuggestion(50);
+		assertEquals(10, check.get(small.getNukeID()).intValue());
+		assertEquals(40, check.get(large.getNukeID()).intValue());
+		check = testObject.getDistributionSuggestion(5);
+		assertEquals(1, check.get(small.getNukeID()).intValue());
+		assertEquals(4, check.get(large.getNukeID()).intValue());
+	}
+	
+	@Test
+	public void testGetDistributionSuggestionUnknownCapacity() throws Exception {
+		NukeInfoMock unknown = addNukeInfoObject(0, 0);
+		NukeInfoMock small = addNukeInfoObject(0, 100);
+		NukeInfoMock large = addNukeInfoObject(0, 300);
+		RampingUp testObject = new RampingUp(distributor);
+		Map<Long, Integer> check = testObject.getDistributionSuggestion(60);
+		assertEquals(20, check.get(unknown.getNukeID()).intValue());
+		assertEquals(10, check.get(small.getNukeID()).intValue());
+		assertEquals(30, check.get(large.getNukeID()).intValue());
+	}
+	
+	@Test
+	public void testGetDistributionSuggestionMatchesWeighted() throws Exception {
+		Random random = new Random(1174);
+		for( int i = 0; i < 20; i++ ) {
+			addNukeInfoObject(random.nextInt(50), 100 * ( 1 + random.nextInt(16) ));
+		}
+		RampingUp testObject = new RampingUp(distributor);
+		for( int users : new int[] { 1, 7, 19, 20, 21, 137, 5000 } ) {
+			List<INukeInfo> nukes = theContext.getNukes(NukeState.RUNNING);
+			Map<Long, Integer> expected = getLeastLoaded(nukes, users);
+			assertEquals(expected, testObject.getDistributionSuggestion(users));
+		}
+	}
+	
+	/**
+	 * Reference allocation, one user at a time to the nuke with the lowest
+	 * load per capacity after taking it, nukes without capacity count as 1.
+	 */
+	Map<Long, Integer> getLeastLoaded(List<INukeInfo> nukes, int users) {
+		long[] loads = new long[nukes.size()];
+		long[] weights = new long[nukes.size()];
+		for( int i = 0; i < loads.length; i++ ) {
+			loads[i] = nukes.get(i).getRequestedNoOfThreads();
+			weights[i] = Math.max(1, nukes.get(i).getCapacity());
+		}
+		Map<Long, Integer> retValue = new HashMap<Long, Integer>();
+		for( int user = 0; user < users; user++ ) {
+			int min = 0;
+			for( int i = 1; i < loads.length; i++ ) {
+				if( ( loads[min] + 1 ) * weights[i] > ( loads[i] + 1 ) * weights[min] ) {
+					min = i;
+				}
+			}
+			loads[min]++;
+			Long key = nukes.get(min).getNukeID();
+			retValue.put(key, retValue.containsKey(key) ? retValue.get(key) + 1 : 1);
+		}
+		return retValue;
+	}
+	
+	@Test
+	public void testPlanLaunchesSpread() throws Exception {
+		ClusterDistributorProcedureTestObj testDistributor = (ClusterDistributorProcedureTestObj)distributor;
+		SpreadObject testObject = new SpreadObject();
+		Map<Long, Integer> distribution = new HashMap<Long, Integer>();
+		distribution.put(1L, 3);
+		distribution.put(2L, 1);
+		testObject.setState(testObject.RAMPING_UP);
+		testObject.planLaunches(distribution, 1000L);
+		assertEquals(4, testObject.getPendingLaunches());
+		testObject.launchDue();
+		assertEquals(1, testObject.started.size());
+		assertEquals(Long.valueOf(1L), testObject.started.get(0));
+		assertEquals(250L, testDistributor.TimeoutMillis);
+		assertEquals(testObject.getLaunchTimerID(), testDistributor.TimeoutMillisTimerID);
+		testObject.now = 600L;
+		testObject.timeout(testObject.getLaunchTimerID());
+		assertEquals(3, testObject.started.size());
+		assertEquals(150L, testDistributor.TimeoutMillis);
+		testObject.now = 760L;
+		testObject.timeout(testObject.getLaunchTimerID());
+		assertEquals(0, testObject.getPendingLaunches());
+		assertEquals(2, testDistributor.TimeoutMillisCalls);
+		assertEquals(3, countStarted(testObject.started, 1L));
+		assertEquals(1, countStarted(testObject.started, 2L));
+		assertEquals(250.0, testObject.getLaunchSpacing().getPlanned(), 0.0);
+		assertEquals(3, testObject.getLaunchSpacing().getSamples());
+		assertEquals(0L, testObject.getLaunchSpacing().getMin());
+		assertEquals(600L, testObject.getLaunchSpacing().getMax());
+	}
+	
+	@Test
+	public void testPlanLaunchesGrouped() throws Exception {
+		SpreadObject testObject = new SpreadObject();
+		Map<Long, Integer> distribution = new HashMap<Long, Integer>();
+		distribution.put(1L, 500);
+		testObject.planLaunches(distribution, 1000L);
+		assertEquals(1000L / RampingUp.MIN_LAUNCH_SPACING_MILLIS, testObject.getPendingLaunches());
+		testObject.launchDue();
+		assertEquals(1, testObject.started.size());
+		assertEquals(5, testObject.users);
+		assertEquals(RampingUp.MIN_LAUNCH_SPACING_MILLIS, ((ClusterDistributorProcedureTestObj)distributor).TimeoutMillis);
+	}
+	
+	@Test
+	public void testPlanLaunchesJitter() throws Exception {
+		theHelper.invokeSingleArg(ClusterDistributorProcedure.class, "setLaunchJitter", int.class, distributor, 100);
+		SpreadObject testObject = new SpreadObject();
+		Map<Long, Integer> distribution = new HashMap<Long, Integer>();
+		distribution.put(1L, 10);
+		testObject.planLaunches(distribution, 1000L);
+		long previous = -1L;
+		for( testObject.now = 0L; testObject.now <= 1000L; testObject.now++ ) {
+			int before = testObject.started.size();
+			testObject.launchDue();
+			if( testObject.started.size() > before ) {
+				assertTrue(testObject.now >= ( testObject.started.size() - 1 ) * 100L);
+				assertTrue(testObject.now <= testObject.started.size() * 100L);
+				assertTrue(testObject.now > previous);
+				previous = testObject.now;
+			}
+		}
+		assertEquals(10, testObject.users);
+	}
+	
+	@Test
+	public void testFlushLaunches() throws Exception {
+		SpreadObject testObject = new SpreadObject();
+		Map<Long, Integer> distribution = new HashMap<Long, Integer>();
+		distribution.put(1L, 4);
+		testObject.planLaunches(distribution, 1000L);
+		testObject.launchDue();
+		testObject.flushLaunches();
+		assertEquals(0, testObject.getPendingLaunches());
+		assertEquals(4, testObject.users);
+	}
+	
+	@Test
+	public void testTimeoutSpread() throws Exception {
+		ClusterDistributorProcedureTestObj testDistributor = (ClusterDistributorProcedureTestObj)distributor;
+		theHelper.invokeSingleArg(ClusterDistributorProcedure.class, "setLaunchSpread", boolean.class, distributor, true);
+		theHelper.invokeSingleArg(ClusterDistributorProcedure.class, "setMaxUsers", int.class, distributor, 5);
+		theHelper.invokeSingleArg(ClusterDistributorProcedure.class, "setUserIncrease", int.class, distributor, 4);
+		addNukeInfoObject(0);
+		SpreadObject testObject = new SpreadObject();
+		testObject.setState(testObject.RAMPING_UP);
+		testObject.timeout(testObject.getTimerID());
+		assertEquals(4, testObject.getLocalUserRampedUp());
+		assertEquals(1, testObject.users);
+		assertEquals(3, testObject.getPendingLaunches());
+		assertEquals(500L, testDistributor.TimeoutMillis);
+		assertEquals(1, testDistributor.TimeoutCalls);
+		testObject.now = 2000L;
+		testObject.timeout(testObject.getTimerID());
+		assertEquals(5, testObject.users);
+		assertEquals(0, testObject.getPendingLaunches());
+	}
+	
+	@Test
+	public void testCorrectDriftMissingUsers() throws Exception {
+		theHelper.invokeSingleArg(ClusterDistributorProcedure.class, "setRepeated", boolean.class, distributor, true);
+		NukeInfoMock nuke = addNukeInfoObject(4);
+		nuke.noOfActiveCommandsReturned = 2;
+		RampingUp testObject = new RampingUp(distributor);
+		testObject.setLocalUserRampedUp(4);
+		assertEquals(0, testObject.correctDrift());
+		assertEquals(2, testObject.getRampDrift().getLast());
+		assertEquals(2, testObject.correctDrift());
+		assertEquals(1, testObject.getBatches().size());
+		assertEquals(2, testObject.getBatches().get(0).getNoOfUsers());
+		assertEquals(nuke.getNukeID(), testObject.getBatches().get(0).getDestination());
+		assertEquals(2L, testObject.getRampDrift().getStarted());
+		assertEquals(0, testObject.correctDrift());
+		assertEquals(0, testObject.getRampDrift().getLast());
+		assertEquals(3L, testObject.getRampDrift().getSamples());
+	}
+	
+	@Test
+	public void testCorrectDriftOnlyPersisting() throws Exception {
+		theHelper.invokeSingleArg(ClusterDistributorProcedure.class, "setRepeated", boolean.class, distributor, true);
+		NukeInfoMock nuke = addNukeInfoObject(4);
+		nuke.noOfActiveCommandsReturned = 1;
+		RampingUp testObject = new RampingUp(distributor);
+		testObject.setLocalUserRampedUp(4);
+		assertEquals(0, testObject.correctDrift());
+		nuke.noOfActiveCommandsReturned = 3;
+		assertEquals(1, testObject.correctDrift());
+		assertEquals(1L, testObject.getRampDrift().getStarted());
+		assertEquals(3, testObject.getRampDrift().getMax());
+	}
+	
+	@Test
+	public void testCorrectDriftStartingUsers() throws Exception {
+		theHelper.invokeSingleArg(ClusterDistributorProcedure.class, "setRepeated", boolean.class, distributor, true);
+		NukeInfoMock nuke = addNukeInfoObject(0);
+		RampingUp testObject = new RampingUp(distributor);
+		testObject.startBatch(nuke.getNukeID(), 3);
+		testObject.setLocalUserRampedUp(3);
+		assertEquals(0, testObject.correctDrift());
+		assertEquals(0, testObject.getRampDrift().getLast());
+		assertEquals(0, testObject.correctDrift());
+		assertEquals(3, testObject.getRampDrift().getLast());
+		assertEquals(3, testObject.correctDrift());
+	}
+	
+	@Test
+	public void testCorrectDriftTooMany() throws Exception {
+		theHelper.invokeSingleArg(ClusterDistributorProcedure.class, "setRepeated", boolean.class, distributor, true);
+		NukeInfoMock nuke = addNukeInfoObject(4);
+		nuke.noOfActiveCommandsReturned = 4;
+		RampingUp testObject = new RampingUp(distributor);
+		BatchCommandProcedure batch = testObject.startBatch(nuke.getNukeID(), 4);
+		respond(batch, nuke.getNukeID());
+		testObject.setLocalUserRampedUp(2);
+		assertEquals(0, testObject.correctDrift());
+		assertEquals(-2, testObject.getRampDrift().getLast());
+		SendIF.clear();
+		assertEquals(-2, testObject.correctDrift());
+		assertEquals(1, SendIF.size());
+		assertEquals(2, batch.getStoppingUsers());
+		assertEquals(2, nuke.getRequestedNoOfThreads());
+		assertEquals(2L, testObject.getRampDrift().getStopped());
+		assertEquals(0, testObject.correctDrift());
+		assertEquals(0, testObject.getRampDrift().getLast());
+	}
+	
+	private void respond(BatchCommandProcedure batch, long nukeID) throws Exception {
+		batch.init();
+		NukeExecuteBatchRspMsgC rsp = new NukeExecuteBatchRspMsgC();
+		rsp.setSource(nukeID);
+		rsp.setDestination(identity);
+		rsp.setTxID(batch.getTxID());
+		rsp.setSagaID(batch.getSagaID());
+		for( int i = 0; i < batch.getNoOfUsers(); i++ ) {
+			rsp.getProcessIDs().add(1000L + i);
+		}
+		batch.handleInMessage(rsp);
+		assertEquals(batch.WORKING, batch.getState());
+	}
+	
+	private int countStarted(List<Long> started, long nukeID) {
+		int retValue = 0;
+		for( Long id : started ) {
+			if( nukeID == id ) {
+				retValue++;
+			}
+		}
+		return retValue;
+	}
+	
+	private class SpreadObject extends RampingUp {
+		
+		public long now;
+		public int users;
+		public List<Long> started;
+		
+		public SpreadObject() {
+			super(distributor, 2);
+			setLaunchTimerID(getTimerID() + 1);
+			now = 0L;
+			users = 0;
+			started = new ArrayList<Long>();
+		}
+		
+		@Override
+		protected long getTime() {
+			return now;
+		}
+		
+		@Override
+		protected BatchCommandProcedure startBatch(long nukeID, int noOfUsers) {
+			started.add(nukeID);
+			users += noOfUsers;
+			return null;
+		}
+		
+	}
+	
+	NukeInfoMock addNukeInfoObject(int requested) {
+		return addNukeInfoObject(requested, 0);
+	}
+	
+	NukeInfoMock addNukeInfoObject(int requested, int capacity) {
+		NukeInfoMock mock = new NukeInfoMock(requested);
+		mock.capacityReturned = capacity;
+		theContext.addNuke(mock.getNukeID(), mock);
+		return mock;
+	}
+	
 	/**
 	 * Helper method
 	 */
@@ -0,0 +1,221 @@
+package io.github.scrier.opus.duke.commander.state;
+
+import static org.junit.Assert.*;
+import io.github.scrier.opus.ClusterDistributorProcedureTestObj;
+import io.github.scrier.opus.TestHelper;
+import io.github.scrier.opus.common.Shared;
+import io.github.scrier.opus.common.nuke.NukeExecuteBatchRspMsgC;
+import io.github.scrier.opus.common.nuke.NukeMsgFactory;
+import io.github.scrier.opus.duke.commander.BaseActiveObjectMock;
+import io.github.scrier.opus.duke.commander.BaseDukeProcedure;
+import io.github.scrier.opus.duke.commander.BatchCommandProcedure;
+import io.github.scrier.opus.duke.commander.ClusterDistributorProcedure;
+import io.github.scrier.opus.duke.commander.Context;
+import io.github.scrier.opus.duke.commander.DukeCommander;
+import io.github.scrier.opus.duke.commander.MessageServiceMock;
+
+import java.util.List;
+
+import org.apache.logging.log4j.Level;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.hazelcast.core.HazelcastInstance;
+
+public class RebalancerTest {
+	
+	private static TestHelper theHelper = TestHelper.INSTANCE;
+
+	private HazelcastInstance instance;
+	private long identity = theHelper.getNextLong();
+	private long sagaID = theHelper.getNextLong();
+	private long component = theHelper.getNextLong();
+	private Context theContext = Context.INSTANCE;
+	private BaseActiveObjectMock theBaseAOC;
+	private MessageServiceMock SendIF = new MessageServiceMock();
+	private ClusterDistributorProcedureTestObj distributor;
+	private long processID;
+
+	@BeforeClass
+	public static void setUpBeforeClass() throws Exception {
+		theHelper.setLogLevel(Level.TRACE);
+	}
+
+	@Before
+	public void setUp() throws Exception {
+		instance = theHelper.mockHazelcast();
+		theHelper.mockIdGen(instance, Shared.Hazelcast.COMMON_MAP_UNIQUE_ID, identity);
+		theHelper.mockIdGen(instance, Shared.Hazelcast.COMMON_SAGA_ID, sagaID);
+		theHelper.mockIdGen(instance, Shared.Hazelcast.COMMON_UNIQUE_ID, component);
+		theHelper.mockMap(instance, Shared.Hazelcast.BASE_NUKE_MAP);
+		theBaseAOC = new BaseActiveObjectMock(instance);
+		theBaseAOC.preInit();
+		theBaseAOC.setMsgService(SendIF);
+		theContext.init(new DukeCommander(instance), theBaseAOC);
+		distributor = theHelper.getRandomDistributor();
+		theHelper.invokeSingleArg(ClusterDistributorProcedure.class, "setRepeated", boolean.class, distributor, true);
+		processID = 1000L;
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		theContext.shutDown();
+	}
+
+	@Test
+	public void testConstructor() {
+		RampingUp ramp = new RampingUp(distributor, 5);
+		Rebalancer testObject = new Rebalancer(ramp, 5);
+		assertEquals(5, testObject.getMaxMigrations());
+		assertEquals(0, testObject.getMigrated());
+		assertEquals(0, testObject.getActiveUsers(1L));
+	}
+	
+	@Test
+	public void testSingleNuke() throws Exception {
+		NukeInfoMock first = addNukeInfoObject(100, 6);
+		RampingUp ramp = new RampingUp(distributor, 5);
+		Rebalancer testObject = new Rebalancer(ramp, 5);
+		ramp.getBatches().add(createBatch(first.getNukeID(), 6));
+		SendIF.clear();
+		assertEquals(0, testObject.rebalance());
+		assertTrue(SendIF.isEmpty());
+	}
+	
+	@Test
+	public void testNewNukeGetsUsers() throws Exception {
+		NukeInfoMock first = addNukeInfoObject(100, 6);
+		NukeInfoMock second = addNukeInfoObject(100, 6);
+		RampingUp ramp = new RampingUp(distributor, 5);
+		Rebalancer testObject = new Rebalancer(ramp, 10);
+		ramp.getBatches().add(createBatch(first.getNukeID(), 6));
+		ramp.getBatches().add(createBatch(second.getNukeID(), 6));
+		assertEquals(0, testObject.rebalance());
+		NukeInfoMock joined = addNukeInfoObject(100, 0);
+		SendIF.clear();
+		assertEquals(4, testObject.rebalance());
+		assertEquals(4, testObject.getActiveUsers(first.getNukeID()));
+		assertEquals(4, testObject.getActiveUsers(second.getNukeID()));
+		assertEquals(4, testObject.getActiveUsers(joined.getNukeID()));
+		assertEquals(4, first.getRequestedNoOfThreads());
+		assertEquals(4, second.getRequestedNoOfThreads());
+		assertEquals(4, joined.getRequestedNoOfThreads());
+		assertEquals(2, SendIF.size());
+		assertEquals(NukeMsgFactory.NUKE_STOP_PROCESS_REQ, SendIF.getMessage(0).getId());
+		assertEquals(NukeMsgFactory.NUKE_STOP_PROCESS_REQ, SendIF.getMessage(1).getId());
+		List<BaseDukeProcedure> started = theContext.getCommander().getProceduresToAdd(BatchCommandProcedure.class);
+		assertEquals(1, started.size());
+		BatchCommandProcedure batch = (BatchCommandProcedure)started.get(0);
+		assertEquals(joined.getNukeID(), batch.getDestination());
+		assertEquals(4, batch.getNoOfUsers());
+		assertTrue(batch.isRepeated());
+		assertEquals(4, testObject.getMigrated());
+		assertEquals(0, testObject.rebalance());
+	}
+	
+	@Test
+	public void testMigrationLimit() throws Exception {
+		NukeInfoMock first = addNukeInfoObject(100, 9);
+		RampingUp ramp = new RampingUp(distributor, 5);
+		Rebalancer testObject = new Rebalancer(ramp, 2);
+		ramp.getBatches().add(createBatch(first.getNukeID(), 9));
+		NukeInfoMock joined = addNukeInfoObject(100, 0);
+		assertEquals(2, testObject.rebalance());
+		assertEquals(7, testObject.getActiveUsers(first.getNukeID()));
+		assertEquals(2, testObject.getActiveUsers(joined.getNukeID()));
+		assertEquals(2, testObject.rebalance());
+		assertEquals(5, testObject.getActiveUsers(first.getNukeID()));
+		assertEquals(4, testObject.getActiveUsers(joined.getNukeID()));
+		assertEquals(0, testObject.rebalance());
+		assertEquals(4, testObject.getMigrated());
+	}
+	
+	@Test
+	public void testByCapacity() throws Exception {
+		NukeInfoMock large = addNukeInfoObject(300, 8);
+		RampingUp ramp = new RampingUp(distributor, 5);
+		Rebalancer testObject = new Rebalancer(ramp, 10);
+		ramp.getBatches().add(createBatch(large.getNukeID(), 8));
+		NukeInfoMock small = addNukeInfoObject(100, 0);
+		assertEquals(2, testObject.rebalance());
+		assertEquals(6, testObject.getActiveUsers(large.getNukeID()));
+		assertEquals(2, testObject.getActiveUsers(small.getNukeID()));
+	}
+	
+	@Test
+	public void testNotStartedNotMoved() throws Exception {
+		NukeInfoMock first = addNukeInfoObject(100, 6);
+		RampingUp ramp = new RampingUp(distributor, 5);
+		Rebalancer testObject = new Rebalancer(ramp, 10);
+		BatchCommandProcedure batch = new BatchCommandProcedure(first.getNukeID(), "command", "", true, 6);
+		batch.init();
+		ramp.getBatches().add(batch);
+		NukeInfoMock joined = addNukeInfoObject(100, 0);
+		SendIF.clear();
+		assertEquals(0, testObject.rebalance());
+		assertEquals(6, testObject.getActiveUsers(first.getNukeID()));
+		assertEquals(0, testObject.getActiveUsers(joined.getNukeID()));
+		assertEquals(6, first.getRequestedNoOfThreads());
+		assertTrue(SendIF.isEmpty());
+		assertTrue(theContext.getCommander().getProceduresToAdd(BatchCommandProcedure.class).isEmpty());
+	}
+	
+	@Test
+	public void testMovedUsersStartedByRamp() throws Exception {
+		NukeInfoMock first = addNukeInfoObject(100, 6);
+		RampingUp ramp = new RampingUp(distributor, 5);
+		Rebalancer testObject = new Rebalancer(ramp, 10);
+		ramp.getBatches().add(createBatch(first.getNukeID(), 6));
+		NukeInfoMock joined = addNukeInfoObject(100, 0);
+		assertEquals(3, testObject.rebalance());
+		assertEquals(2, ramp.getBatches().size());
+		BatchCommandProcedure batch = ramp.getBatches().get(1);
+		assertEquals(joined.getNukeID(), batch.getDestination());
+		assertEquals(3, batch.getNoOfUsers());
+		respond(batch);
+		assertEquals(3, ramp.stopUsers(3));
+		assertEquals(3, testObject.getActiveUsers(first.getNukeID()));
+		assertEquals(0, testObject.getActiveUsers(joined.getNukeID()));
+		assertEquals(0, joined.getRequestedNoOfThreads());
+	}
+	
+	@Test
+	public void testLostNukeNotCounted() throws Exception {
+		NukeInfoMock first = addNukeInfoObject(100, 6);
+		RampingUp ramp = new RampingUp(distributor, 5);
+		Rebalancer testObject = new Rebalancer(ramp, 10);
+		ramp.getBatches().add(createBatch(first.getNukeID(), 6));
+		theContext.removeNuke(first.getNukeID(), first);
+		assertEquals(0, testObject.getActiveUsers(first.getNukeID()));
+	}
+	
+	private BatchCommandProcedure createBatch(long nukeID, int noOfUsers) throws Exception {
+		BatchCommandProcedure retValue = new BatchCommandProcedure(nukeID, "command", "", true, noOfUsers);
+		respond(retValue);
+		return retValue;
+	}
+	
+	private void respond(BatchCommandProcedure batch) throws Exception {
+		batch.init();
+		NukeExecuteBatchRspMsgC rsp = new NukeExecuteBatchRspMsgC();
+		rsp.setSource(batch.getDestination());
+		rsp.setDestination(identity);
+		rsp.setTxID(batch.getTxID());
+		rsp.setSagaID(batch.getSagaID());
+		for( int i = 0; i < batch.getNoOfUsers(); i++ ) {
+			rsp.getProcessIDs().add(processID++);
+		}
+		batch.handleInMessage(rsp);
+		assertEquals(batch.WORKING, batch.getState());
+	}
+	
+	NukeInfoMock addNukeInfoObject(int capacity, int requested) {
+		NukeInfoMock mock = new NukeInfoMock(requested);
+		mock.capacityReturned = capacity;
+		theContext.addNuke(mock.getNukeID(), mock);
+		return mock;
+	}
+	
+}
@@ -133,4 +133,21 @@ public class StateTest {
 		assertFalse(theContext.getCommander().getProceduresToAdd(CommandProcedure.class).isEmpty());
 	}
 
+	@Test
+	public void testUserLoads() {
+		State.UserLoads testObject = new State.UserLoads(new long[] { 100, 300, 100 }, new long[] { 4, 6, 0 });
+		assertEquals(0, testObject.highest());
+		assertEquals(2, testObject.lowest());
+		testObject.move(0, -2);
+		testObject.move(2, 2);
+		assertEquals(0, testObject.highest());
+		assertEquals(2, testObject.get(0));
+		assertEquals(2, testObject.get(2));
+		testObject.move(0, -2);
+		testObject.move(2, -2);
+		assertEquals(1, testObject.highest());
+		testObject.move(1, -6);
+		assertEquals(-1, testObject.highest());
+	}
+	
 }
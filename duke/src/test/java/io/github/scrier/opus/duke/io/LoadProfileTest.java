@@ -0,0 +1,99 @@
+package io.github.scrier.opus.duke.io;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class LoadProfileTest {
+
+	@Test
+	public void testEmpty() {
+		LoadProfile testObject = new LoadProfile();
+		assertTrue(testObject.isEmpty());
+		assertEquals(0, testObject.getDuration());
+		assertEquals(0, testObject.getTarget(10.0));
+		assertEquals("", testObject.toString());
+	}
+
+	@Test
+	public void testPoints() {
+		LoadProfile testObject = new LoadProfile();
+		testObject.addPoint(10, 10);
+		testObject.addPoint(30, 30);
+		testObject.addPoint(40, 0);
+		assertEquals(3, testObject.size());
+		assertEquals(40, testObject.getDuration());
+		assertEquals(30, testObject.getMaxTarget());
+		assertEquals(5, testObject.getTarget(5.0));
+		assertEquals(10, testObject.getTarget(10.0));
+		assertEquals(20, testObject.getTarget(20.0));
+		assertEquals(15, testObject.getTarget(35.0));
+		assertEquals(0, testObject.getTarget(100.0));
+	}
+
+	@Test
+	public void testStep() {
+		LoadProfile testObject = new LoadProfile();
+		testObject.addStep(0, 10);
+		testObject.addStep(20, 30);
+		assertEquals("0:0,0:10,20:10,20:30", testObject.toString());
+		assertEquals(10, testObject.getTarget(0.0));
+		assertEquals(10, testObject.getTarget(19.9));
+		assertEquals(30, testObject.getTarget(20.0));
+	}
+
+	@Test
+	public void testSpike() {
+		LoadProfile testObject = new LoadProfile();
+		testObject.addStep(0, 10);
+		testObject.addSpike(20, 50, 5);
+		assertEquals(10, testObject.getTarget(19.0));
+		assertEquals(50, testObject.getTarget(20.0));
+		assertEquals(50, testObject.getTarget(24.0));
+		assertEquals(10, testObject.getTarget(25.0));
+		assertEquals(25, testObject.getDuration());
+	}
+
+	@Test
+	public void testSine() {
+		LoadProfile testObject = new LoadProfile();
+		testObject.addSine(0, 64, 64, 20, 10);
+		assertEquals(64, testObject.getDuration());
+		assertEquals(20, testObject.getTarget(0.0));
+		assertEquals(30, testObject.getTarget(16.0));
+		assertEquals(20, testObject.getTarget(32.0));
+		assertEquals(10, testObject.getTarget(48.0));
+		assertEquals(20, testObject.getTarget(64.0));
+	}
+
+	@Test
+	public void testSineCutAtZero() {
+		LoadProfile testObject = new LoadProfile();
+		testObject.addSine(0, 64, 64, 5, 10);
+		assertEquals(0, testObject.getTarget(48.0));
+	}
+
+	@Test(expected=IllegalArgumentException.class)
+	public void testPointBeforeLast() {
+		LoadProfile testObject = new LoadProfile();
+		testObject.addPoint(10, 10);
+		testObject.addPoint(5, 10);
+	}
+
+	@Test
+	public void testParse() {
+		LoadProfile input = new LoadProfile();
+		input.addPoint(30, 10);
+		input.addSpike(60, 40, 10);
+		LoadProfile testObject = LoadProfile.parse(input.toString());
+		assertEquals(input.toString(), testObject.toString());
+		assertEquals(40, testObject.getTarget(65.0));
+		assertTrue(LoadProfile.parse(" ").isEmpty());
+	}
+
+	@Test(expected=IllegalArgumentException.class)
+	public void testParseInvalid() {
+		LoadProfile.parse("0:0,10");
+	}
+
+}
@@ -5,6 +5,7 @@ import static org.junit.Assert.*;
 import java.util.Map;
 
 import io.github.scrier.opus.TestHelper;
+import io.github.scrier.opus.common.Shared;
 
 import org.apache.logging.log4j.Level;
 import org.apache.logging.log4j.LogManager;
@@ -26,7 +27,7 @@ public class XmlSettingsTest {
 	public void testDefautSettings() {
 		XmlSettings testObject = new XmlSettings(getClass().getResource("/DefaultSettings.xml").getPath());
 		assertTrue(testObject.init());
-		assertEquals(9, testObject.getSettings().size());
+		assertEquals(17, testObject.getSettings().size());
 		log.info(testObject);
 	}
 	
@@ -50,4 +51,24 @@ public class XmlSettingsTest {
 		assertEquals("11", map.get("name11"));
 	}
 
+	@Test
+	public void testProfile() {
+		XmlSettings testObject = new XmlSettings(getClass().getResource("/TestProfile.xml").getPath());
+		assertTrue(testObject.init());
+		assertEquals(2, testObject.getSettings().size());
+		LoadProfile profile = LoadProfile.parse(testObject.getSettings().get(Shared.Settings.EXECUTE_PROFILE));
+		assertEquals(200, profile.getDuration());
+		assertEquals(10, profile.getTarget(30.0));
+		assertEquals(20, profile.getTarget(60.0));
+		assertEquals(50, profile.getTarget(95.0));
+		assertEquals(30, profile.getTarget(135.0));
+		assertEquals(10, profile.getTarget(190.0));
+	}
+	
+	@Test
+	public void testProfileInvalid() {
+		XmlSettings testObject = new XmlSettings(getClass().getResource("/TestProfileInvalid.xml").getPath());
+		assertFalse(testObject.init());
+	}
+
 }
@@ -45,8 +45,8 @@ cp -R ./usr/share/javadoc/opus/* /usr/share/javadoc/opus
 
 echo "Creating symlinks"
 ln -sf /usr/share/java/opus/common*.jar /usr/share/java/opus/common.jar
-ln -sf /usr/share/java/opus/duke*.jar /usr/share/java/opus/duke.jar
-ln -sf /usr/share/java/opus/nuke*.jar /usr/share/java/opus/nuke.jar
+ln -sf /usr/share/java/opus/duke*-shaded.jar /usr/share/java/opus/duke.jar
+ln -sf /usr/share/java/opus/nuke*-shaded.jar /usr/share/java/opus/nuke.jar
 
 echo "Adding items to chkconfig"
 /sbin/chkconfig --add nuke
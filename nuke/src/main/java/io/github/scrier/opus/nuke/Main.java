@@ -30,12 +30,16 @@ public class Main {
 	private HazelcastInstance instance;
 	
 	public static void main(String[] args) throws InvalidOperationException {
-		log.trace("Main(" + args + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("Main(" + args + ")");
+		}
 		new Main(args);
 	}
 	
 	public Main(String[] args) throws InvalidOperationException {
-		log.trace("Main(" + args + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("Main(" + args + ")");
+		}
 		
 		instance = Hazelcast.newHazelcastInstance(null);
 		
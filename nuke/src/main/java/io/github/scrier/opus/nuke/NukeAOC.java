@@ -39,6 +39,7 @@ public class NukeAOC extends BaseActiveObject {
 	@Override
 	public void init() {
 		log.trace("init()");
+		nukeTasks.setDispatcher(getMailbox());
 		Context.INSTANCE.init(nukeTasks, this);
 		if( true != registerOnFactory(NukeMsgFactory.FACTORY_ID) ) {
 			log.fatal("Unable to register on factoru message. " + NukeMsgFactory.FACTORY_ID + ", cannot continue.");
@@ -59,6 +60,7 @@ public class NukeAOC extends BaseActiveObject {
 		}
 		nukeTasks.shutDown();
 		Context.INSTANCE.shutDown();
+		stopMailbox();
 		getInstance().getLifecycleService().shutdown();
 		log.info("System exit.");
 		System.exit(0);
@@ -66,7 +68,9 @@ public class NukeAOC extends BaseActiveObject {
 
 	@Override
   public void handleInMessage(BaseMsgC message) {
-		log.trace("handleInMessage(" + message + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("handleInMessage(" + message + ")");
+		}
 	  try {
 	  	nukeTasks.handleInMessage(message);
     } catch (InvalidOperationException e) {
@@ -0,0 +1,188 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ * @author Andreas Joelsson (andreas.joelsson@gmail.com)
+ */
+package io.github.scrier.opus.nuke.process;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import io.github.scrier.opus.common.nuke.NukeInfo;
+
+/**
+ * Measures the capacity of the host a nuke runs on, the number of cores,
+ * the physical memory and how fast processes can be spawned. The result is
+ * a score used by the duke to give each nuke users in proportion to it.
+ *
+ * The score is 100 per core, scaled by the measured spawn rate against
+ * REFERENCE_SPAWN_RATE, and limited to 100 per MB_PER_CORE of memory.
+ */
+public class CapacityCalibration {
+	
+	private static Logger log = LogManager.getLogger(CapacityCalibration.class);
+	
+	public static final int DEFAULT_SPAWNS = 20;
+	public static final int REFERENCE_SPAWN_RATE = 200;
+	public static final long MB_PER_CORE = 1024L;
+	
+	private static final int SCORE_PER_CORE = 100;
+	private static final double MIN_SPAWN_FACTOR = 0.25;
+	private static final double MAX_SPAWN_FACTOR = 4.0;
+	
+	private int spawns;
+	private String[] command;
+	private int cores;
+	private long memory;
+	private int spawnRate;
+	private int capacity;
+	
+	/**
+	 * Constructor
+	 * @param spawns int with the number of processes to spawn, 0 to skip the spawn calibration.
+	 */
+	public CapacityCalibration(int spawns) {
+		this(spawns, getDefaultCommand());
+	}
+	
+	/**
+	 * Constructor
+	 * @param spawns int with the number of processes to spawn, 0 to skip the spawn calibration.
+	 * @param command String[] with the command to spawn, should exit directly.
+	 */
+	public CapacityCalibration(int spawns, String[] command) {
+		this.spawns = spawns;
+		this.command = command;
+		this.cores = 0;
+		this.memory = 0L;
+		this.spawnRate = 0;
+		this.capacity = 0;
+	}
+	
+	/**
+	 * Method to run the calibration.
+	 * @return int with the capacity score.
+	 */
+	public int calibrate() {
+		log.trace("calibrate()");
+		cores = Runtime.getRuntime().availableProcessors();
+		memory = getPhysicalMemory();
+		spawnRate = measureSpawnRate();
+		capacity = getCapacity(cores, memory, spawnRate);
+		log.info("Calibrated capacity " + capacity + " from " + cores + " cores, " + memory + " MB and " + spawnRate + " spawns/s.");
+		return capacity;
+	}
+	
+	/**
+	 * Method to set the calibration in a NukeInfo.
+	 * @param info NukeInfo to update.
+	 */
+	public void update(NukeInfo info) {
+		info.setCores(getCores());
+		info.setMemory(getMemory());
+		info.setSpawnRate(getSpawnRate());
+		info.setCapacity(getCapacity());
+	}
+	
+	/**
+	 * Method to get the score of a host.
+	 * @param cores int with the number of cores.
+	 * @param memory long with the physical memory in MB, 0 if unknown.
+	 * @param spawnRate int with the spawns per second, 0 if not measured.
+	 * @return int with the score, at least 1.
+	 */
+	public static int getCapacity(int cores, long memory, int spawnRate) {
+		double factor = 1.0;
+		if( 0 < spawnRate ) {
+			factor = Math.min(MAX_SPAWN_FACTOR, Math.max(MIN_SPAWN_FACTOR, (double)spawnRate / REFERENCE_SPAWN_RATE));
+		}
+		double score = Math.max(1, cores) * SCORE_PER_CORE * factor;
+		if( 0 < memory ) {
+			score = Math.min(score, (double)memory * SCORE_PER_CORE / MB_PER_CORE);
+		}
+		return (int)Math.max(1L, Math.round(score));
+	}
+	
+	/**
+	 * @return the cores
+	 */
+	public int getCores() {
+		return cores;
+	}
+	
+	/**
+	 * @return the memory in MB.
+	 */
+	public long getMemory() {
+		return memory;
+	}
+	
+	/**
+	 * @return the spawns per second, 0 if not measured.
+	 */
+	public int getSpawnRate() {
+		return spawnRate;
+	}
+	
+	/**
+	 * @return the capacity
+	 */
+	public int getCapacity() {
+		return capacity;
+	}
+	
+	private int measureSpawnRate() {
+		if( 0 >= spawns ) {
+			return 0;
+		}
+		long start = System.nanoTime();
+		try {
+			for( int i = 0; i < spawns; i++ ) {
+				ProcessHandler handler = new ProcessHandler(command);
+				handler.redirectErrorStream(true);
+				Process process = handler.start();
+				process.getInputStream().close();
+				process.waitFor();
+			}
+		} catch( IOException e ) {
+			log.error("Unable to spawn calibration command, skipping spawn calibration.", e);
+			return 0;
+		} catch( InterruptedException e ) {
+			log.error("Interrupted during spawn calibration.", e);
+			Thread.currentThread().interrupt();
+			return 0;
+		}
+		long elapsed = Math.max(1L, System.nanoTime() - start);
+		return (int)Math.max(1L, spawns * 1000000000L / elapsed);
+	}
+	
+	private static long getPhysicalMemory() {
+		OperatingSystemMXBean bean = ManagementFactory.getOperatingSystemMXBean();
+		if( bean instanceof com.sun.management.OperatingSystemMXBean ) {
+			return ((com.sun.management.OperatingSystemMXBean)bean).getTotalPhysicalMemorySize() / ( 1024L * 1024L );
+		}
+		return Runtime.getRuntime().maxMemory() / ( 1024L * 1024L );
+	}
+	
+	private static String[] getDefaultCommand() {
+		if( System.getProperty("os.name", "").toLowerCase().startsWith("windows") ) {
+			return new String[] { "cmd", "/c", "exit" };
+		}
+		return new String[] { "true" };
+	}
+
+}
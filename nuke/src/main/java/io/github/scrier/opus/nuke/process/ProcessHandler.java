@@ -24,6 +24,8 @@ import org.apache.logging.log4j.Logger;
 public class ProcessHandler {
 	
 	private static Logger log = LogManager.getLogger(ProcessHandler.class);
+	
+	private static final File NULL_FILE = new File(System.getProperty("os.name", "").startsWith("Windows") ? "NUL" : "/dev/null");
 			
 	private ProcessBuilder processBuilder;
 	private String[] args;
@@ -33,7 +35,9 @@ public class ProcessHandler {
 	 * @param args String[]
 	 */
 	public ProcessHandler(String[] args) {
-		log.trace("ProcessHandler(" + args + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("ProcessHandler(" + args + ")");
+		}
 		this.args = args;
 		processBuilder = new ProcessBuilder(this.args);
 	}
@@ -44,7 +48,9 @@ public class ProcessHandler {
 	 * @return ProcessBuilder
 	 */
 	public ProcessBuilder directory(File workdir) {
-		log.trace("directory(" + workdir + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("directory(" + workdir + ")");
+		}
 		return processBuilder.directory(workdir);
 	} 
 	
@@ -54,10 +60,35 @@ public class ProcessHandler {
 	 * @return ProcessBuilder
 	 */
 	public ProcessBuilder redirectErrorStream(boolean redirect) {
-		log.trace("redirectErrorStream(" + redirect + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("redirectErrorStream(" + redirect + ")");
+		}
 		return processBuilder.redirectErrorStream(redirect);
 	}
 	
+	/**
+	 * Method to let the OS append the standard output of the process to a
+	 * file, no stream is read by the JVM.
+	 * @param target File to append to.
+	 * @return ProcessBuilder
+	 */
+	public ProcessBuilder redirectOutput(File target) {
+		if( log.isTraceEnabled() ) {
+			log.trace("redirectOutput(" + target + ")");
+		}
+		return processBuilder.redirectOutput(ProcessBuilder.Redirect.appendTo(target));
+	}
+	
+	/**
+	 * Method to let the OS discard the standard output of the process, no
+	 * stream is read by the JVM.
+	 * @return ProcessBuilder
+	 */
+	public ProcessBuilder discardOutput() {
+		log.trace("discardOutput()");
+		return processBuilder.redirectOutput(ProcessBuilder.Redirect.to(NULL_FILE));
+	}
+	
 	/**
 	 * Method to start the process.
 	 * @return Process
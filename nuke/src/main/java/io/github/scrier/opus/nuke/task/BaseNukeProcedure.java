@@ -26,6 +26,16 @@ import io.github.scrier.opus.common.message.SendIF;
 public abstract class BaseNukeProcedure extends BaseProcedureC {
 
 	public static Logger log = LogManager.getLogger(BaseNukeProcedure.class);
+	
+	/**
+	 * Events a procedure can subscribe to in the NukeTasks.
+	 */
+	public static final int ON_UPDATED = 0x01;
+	public static final int ON_EVICTED = 0x02;
+	public static final int ON_REMOVED = 0x04;
+	public static final int ON_MESSAGE = 0x08;
+	public static final int NO_EVENTS  = 0x00;
+	public static final int ALL_EVENTS = ON_UPDATED | ON_EVICTED | ON_REMOVED | ON_MESSAGE;
 
 	private Context theContext;
 	private long identity;
@@ -45,6 +55,28 @@ public abstract class BaseNukeProcedure extends BaseProcedureC {
     }
 	}
 
+	/**
+	 * Method to get the events that the procedure should be called for,
+	 * override to skip the events that the procedure doesn't handle.
+	 * @return int with the ON_* flags of the events to subscribe to.
+	 */
+	public int getSubscribedEvents() {
+		return ALL_EVENTS;
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * Reports finished procedures to the task handler so that they are removed
+	 * even if they don't subscribe to any events.
+	 */
+	@Override
+	public void onStateChanged(int newState, int previousState) {
+		super.onStateChanged(newState, previousState);
+		if( true == isProcedureFinished() && null != theContext.getTask() ) {
+			theContext.getTask().procedureFinished(this);
+		}
+	}
+
 	/**
 	 * Method to add an entry to the data map.
 	 * @param data BaseDataC instance.
@@ -67,7 +99,9 @@ public abstract class BaseNukeProcedure extends BaseProcedureC {
 	 * @param procedure BaseNukeProcedure instance
 	 */
 	public void registerProcedure(BaseNukeProcedure procedure) {
-		log.trace("registerProcedure(" + procedure + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("registerProcedure(" + procedure + ")");
+		}
 		theContext.getTask().registerProcedure(procedure);
 	}
 	
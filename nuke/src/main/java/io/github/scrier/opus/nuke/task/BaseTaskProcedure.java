@@ -17,14 +17,18 @@ package io.github.scrier.opus.nuke.task;
 
 import java.io.File;
 import java.io.IOException;
-import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.Callable;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import io.github.scrier.opus.common.Constants;
+import io.github.scrier.opus.common.exception.InvalidOperationException;
 import io.github.scrier.opus.common.nuke.CommandState;
 import io.github.scrier.opus.common.nuke.NukeExecuteIndMsgC;
 import io.github.scrier.opus.common.nuke.NukeExecuteReqMsgC;
@@ -41,9 +45,11 @@ public abstract class BaseTaskProcedure extends BaseNukeProcedure {
 	private static Logger log = LogManager.getLogger(BaseTaskProcedure.class);
 	
 	private final int terminateTimeout = 10; 
+	private final ReentrantLock processLock = new ReentrantLock();	///< guards the start and exit of the process, not held while waiting for it.
 
 	private ProcessHandler processHandler;
-	private Process process;
+	private volatile Process process;	///< started on the executing thread, terminated from the dispatcher.
+	private long processStart;
 	private String command;
 	private String folder;
 	private int msgTxID;
@@ -52,7 +58,12 @@ public abstract class BaseTaskProcedure extends BaseNukeProcedure {
 	private long source;
 	private long sagaID;
 	private long processID;
-	private boolean repeated;
+	private volatile boolean repeated;	///< read by the executing thread, cleared from the dispatcher.
+	private volatile boolean closed;	///< set by cleanUp, the reaper ignores the exit of a process it destroyed.
+	private final AtomicBoolean watched = new AtomicBoolean(false);	///< true while the reaper observes the process, claimed once by its exit or by cleanUp.
+	private boolean batched;
+	private boolean reported;
+	private boolean submitted;
 
 	public BaseTaskProcedure() {
 		log.trace("BaseTaskProcedure");
@@ -65,6 +76,9 @@ public abstract class BaseTaskProcedure extends BaseNukeProcedure {
 		setCurrentCommandState(CommandState.UNDEFINED);
 		setSagaID(Constants.HC_UNDEFINED);
 		setProcessID(Constants.HC_UNDEFINED);
+		setBatched(false);
+		setReported(true);
+		setSubmitted(false);
 	}
 	
 	public BaseTaskProcedure(NukeExecuteReqMsgC message) {
@@ -77,72 +91,274 @@ public abstract class BaseTaskProcedure extends BaseNukeProcedure {
 		setSource(message.getSource());
 		setSagaID(message.getSagaID());
 		setCurrentCommandState(CommandState.UNDEFINED);
+		setBatched(false);
+		setReported(true);
+		setSubmitted(false);
 	}
 	
 	public void cleanUp() {
 		log.trace("cleanUp()");
 		log.debug("Process: " + getProcess() + ", processHandler: " + getProcessHandler());
 		setRepeated(false);
-		if( null != getProcess() ) {
-			while( getProcess().isAlive() ) {
-				log.info("Terminating child process.");
-				getProcess().destroy();
-				try {
-	        log.info("With return code: " + getProcess().waitFor(100, TimeUnit.MILLISECONDS) + ".");
-        } catch (InterruptedException e) {
-	        log.fatal("Received InterruptedException from waitFor killing process.", e);
-        }
+		closed = true;
+		Process current = getStartedProcess();
+		if( null != current && true == current.isAlive() ) {
+			log.info("Terminating child process.");
+			current.destroy();
+			try {
+				if( true != current.waitFor(100, TimeUnit.MILLISECONDS) ) {
+					log.info("Child process didn't terminate, killing it.");
+					current.destroyForcibly();
+				}
+			} catch (InterruptedException e) {
+				log.fatal("Received InterruptedException from waitFor killing process.", e);
+			}
+		}
+		// the user of a process still observed by the reaper is stopped here, its exit is ignored.
+		if( true == watched.compareAndSet(true, false) ) {
+			getContext().userStopped();
+		}
+	}
+	
+	/**
+	 * Method to run the command of the procedure until handleProcessResult
+	 * doesn't ask for another run. Without reapers the calling thread waits
+	 * for every process. With reapers the calling thread returns once the
+	 * process is started, the reaper handles the result when the process
+	 * exits and submits the next run to the executor. The user is started
+	 * by the caller and stopped when the last run is done.
+	 * @throws IOException if the gobbler couldn't be created.
+	 * @throws InvalidOperationException if the settings couldn't be read.
+	 */
+	protected void runCommand() throws IOException, InvalidOperationException {
+		log.trace("runCommand()");
+		boolean live = false;
+		try {
+			ProcessReaper reaper = getContext().getReaper();
+			boolean again = true;
+			while( true == again && true != live && true != closed ) {
+				if( null == reaper ) {
+					again = handleProcessResult(executeProcess(getCommand(), getDirectory(), createGobbler()));
+				} else if( true == reapProcess(reaper, getCommand(), getDirectory(), createGobbler()) ) {
+					live = true;
+				} else {
+					again = handleProcessResult(false);
+				}
+			}
+		} finally {
+			if( true != live ) {
+				getContext().userStopped();
+			}
+		}
+	}
+	
+	/**
+	 * Method to handle the result of a run of the command, procedures
+	 * running commands override it.
+	 * @param result boolean with the result of the process.
+	 * @return boolean true if the command should be run again.
+	 */
+	protected boolean handleProcessResult(boolean result) {
+		return false;
+	}
+	
+	/**
+	 * Method to create the gobbler of the process output for a run of the command.
+	 * @return StreamGobbler, null to discard the output.
+	 * @throws IOException if the gobbler couldn't be created.
+	 * @throws InvalidOperationException if the settings couldn't be read.
+	 */
+	protected StreamGobbler createGobbler() throws IOException, InvalidOperationException {
+		return null;
+	}
+	
+	/**
+	 * @return File with the folder to run the command in, null if not set.
+	 */
+	protected File getDirectory() {
+		return getFolder().isEmpty() ? null : new File(getFolder());
+	}
+
+	private void handleReaped(int retCode) {
+		if( log.isTraceEnabled() ) {
+			log.trace("handleReaped(" + retCode + ")");
+		}
+		if( true == closed || true != watched.compareAndSet(true, false) ) {
+			log.debug("Procedure is cleaned up, ignoring the exit of the reaped process.");
+			return;
+		}
+		boolean again = false;
+		try {
+			again = handleProcessResult(processExited(retCode));
+		} finally {
+			if( true != again ) {
+				getContext().userStopped();
+			}
+		}
+		// the next run is started from the executor, the reaper thread observes other processes.
+		if( true == again && true != submit(new Callable<String>() {
+			@Override
+			public String call() throws Exception {
+				runCommand();
+				return null;
 			}
+		}) ) {
+			getContext().userStopped();
 		}
 	}
 
 	/**
-	 * Method to execute a process.
+	 * Method to start a process that the reaper observes.
+	 * @param reaper ProcessReaper to observe the process.
+	 * @param executeString String to process.
+	 * @param directory File optional of where to execute command.
+	 * @param gobbler StreamGobbler optional for handling process output. 
+	 * @return boolean true if started, false if the start failed.
+	 */
+	private boolean reapProcess(ProcessReaper reaper, String executeString, File directory, StreamGobbler gobbler) {
+		boolean retValue = false;
+		processLock.lock();
+		try {
+			retValue = startProcess(executeString, directory, gobbler);
+			if( true == retValue ) {
+				watched.set(true);
+				reaper.watch(getProcess(), new ProcessReaper.ExitListener() {
+					@Override
+					public void onExit(int retCode) {
+						handleReaped(retCode);
+					}
+				});
+			}
+		} finally {
+			processLock.unlock();
+		}
+		return retValue;
+	}
+
+	/**
+	 * Method to execute a process, the execution time and result are recorded
+	 * in the execution stats of the nuke. The process is started under the
+	 * process lock and waited for without holding any lock. Waiting inside a
+	 * synchronized method would pin the carrier thread of a virtual thread on
+	 * JDK 21, letting the virtual strategy run only about as many users as
+	 * there are cores.
 	 * @param executeString String to process.
 	 * @param directory File optional of where to execute command.
 	 * @param gobbler StreamGobbler optional for handling process output. 
 	 * @return boolean
 	 */
-	public synchronized boolean executeProcess(String executeString, File directory, StreamGobbler gobbler) {
-		log.trace("executeProcess(" + executeString + ", " + directory + ", " + gobbler + ")");
+	public boolean executeProcess(String executeString, File directory, StreamGobbler gobbler) {
+		if( log.isTraceEnabled() ) {
+			log.trace("executeProcess(" + executeString + ", " + directory + ", " + gobbler + ")");
+		}
+		Process current = null;
+		boolean retValue = false;
+		processLock.lock();
+		try {
+			retValue = startProcess(executeString, directory, gobbler);
+			current = getProcess();
+		} finally {
+			processLock.unlock();
+		}
+		if( true == retValue ) {
+			try {
+				int retCode = current.waitFor();
+				if( current.isAlive() ) {
+					log.error("Process still alive, although ret code returned.");
+				}
+				retValue = processExited(retCode);
+			} catch ( InterruptedException e ) {
+				log.error("InterruptedException received when waiting for process.", e);
+				setErrorMessage("Command: " + getCommand() + ", on node " + getIdentity() + ", received InterruptedException: " + e.getMessage() + ".");
+				retValue = false;
+				processLock.lock();
+				try {
+					recordProcess(retValue);
+				} finally {
+					processLock.unlock();
+				}
+			}
+		}
+		return retValue;
+	}
+	
+	/**
+	 * Method to start a process and the gobbler of its output. With
+	 * redirected output the OS writes output that doesn't need parsing and
+	 * no gobbler is started. A failed start is recorded in the execution stats.
+	 * Called with the process lock held.
+	 * @param executeString String to process.
+	 * @param directory File optional of where to execute command.
+	 * @param gobbler StreamGobbler optional for handling process output. 
+	 * @return boolean true if started.
+	 */
+	private boolean startProcess(String executeString, File directory, StreamGobbler gobbler) {
 		boolean retValue = true;
 		setProcessHandler(new ProcessHandler(executeString.split(" ")));
 		if( null != directory ) {
 			getProcessHandler().directory(directory);
 		}
 		getProcessHandler().redirectErrorStream(true);
+		boolean redirected = false;
+		if( true == getContext().isOutputRedirected() ) {
+			if( null == gobbler ) {
+				getProcessHandler().discardOutput();
+				redirected = true;
+			} else {
+				redirected = gobbler.redirect(getProcessHandler());
+			}
+		}
 		setProcess(null);
+		processStart = System.nanoTime();
 		try {
 			setProcess(getProcessHandler().start());
-			if ( null == gobbler ) {
+			if( true == redirected ) {
+				log.debug("Output redirected by the OS, no gobbler started.");
+			} else if ( null == gobbler ) {
 				log.debug("No gobbler defined, creating new one!");
-				gobbler = new StreamGobblerToNull(getProcess().getInputStream());
+				getExecutor().startGobbler(new StreamGobblerToNull(getProcess().getInputStream()));
 			} else {
-				log.debug("Setting input stream to gobbler: " + gobbler);
+				if( log.isDebugEnabled() ) {
+					log.debug("Setting input stream to gobbler: " + gobbler);
+				}
 				gobbler.setInputStream(getProcess().getInputStream());
+				getExecutor().startGobbler(gobbler);
 			}
-			gobbler.start();
-			int retCode = getProcess().waitFor();
-			if( getProcess().isAlive() ) {
-				log.error("Process still alive, although ret code returned.");
-			}
-			log.info("Received returncode: " + retCode);
+		} catch ( IOException e ) {
+			log.error("IOException when starting process.", e);
+			setErrorMessage("Command: " + getCommand() + ", on node " + getIdentity() + ", received IOException: " + e.getMessage() + ".");
+			retValue = false;
+			recordProcess(retValue);
+		}
+		return retValue;
+	}
+	
+	/**
+	 * Method to handle the return code of an exited process, the result is
+	 * recorded in the execution stats.
+	 * @param retCode int with the return code.
+	 * @return boolean true if the return code is 0.
+	 */
+	private boolean processExited(int retCode) {
+		boolean retValue = true;
+		log.info("Received returncode: " + retCode);
+		processLock.lock();
+		try {
 			if( 0 != retCode ) {
 				log.error("Received returncode: " + retCode);
 				setErrorMessage("Command: " + getCommand() + ", on node " + getIdentity() + ", received return code: " + retCode + ".");
 				retValue = false;
 			}
-		} catch ( IOException e ) {
-			log.error("IOException when starting process.", e);
-			setErrorMessage("Command: " + getCommand() + ", on node " + getIdentity() + ", received IOException: " + e.getMessage() + ".");
-			retValue = false;
-		} catch ( InterruptedException e ) {
-			log.error("InterruptedException received when waiting for process.", e);
-			setErrorMessage("Command: " + getCommand() + ", on node " + getIdentity() + ", received InterruptedException: " + e.getMessage() + ".");
-			retValue = false;
+			recordProcess(retValue);
+		} finally {
+			processLock.unlock();
 		}
 		return retValue;
 	}
+	
+	private void recordProcess(boolean result) {
+		getContext().getExecutionStats().record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - processStart), result);
+	}
 
 	/**
 	 * @return ProcessHandler
@@ -158,6 +374,19 @@ public abstract class BaseTaskProcedure extends BaseNukeProcedure {
 		this.processHandler = processHandler;
 	}
 	
+	/**
+	 * @return the process of the last start, read under the process lock as
+	 * the process is replaced when the command is run again.
+	 */
+	private Process getStartedProcess() {
+		processLock.lock();
+		try {
+			return getProcess();
+		} finally {
+			processLock.unlock();
+		}
+	}
+	
 	/**
 	 * @return the process
 	 */
@@ -174,11 +403,34 @@ public abstract class BaseTaskProcedure extends BaseNukeProcedure {
 
 	/**
 	 * Method to get the process started by executor.
-	 * @return ThreadPoolExecutor to get threads from.
+	 * @return TaskExecutor to get threads from.
 	 */
-	protected ThreadPoolExecutor getExecutor() {
+	protected TaskExecutor getExecutor() {
 		return getContext().getExecutor();
 	}
+	
+	/**
+	 * Method to submit the procedure to the executor. A rejected procedure is
+	 * reported aborted, it was never started.
+	 * @param task Callable running the command.
+	 * @return boolean true if submitted.
+	 */
+	protected boolean submit(Callable<String> task) {
+		if( log.isTraceEnabled() ) {
+			log.trace("submit(" + task + ")");
+		}
+		try {
+			getExecutor().submit(task);
+			setSubmitted(true);
+		} catch( RejectedExecutionException e ) {
+			log.error("[" + getTxID() + "] Executor rejected the command, " + getExecutor() + ".");
+			setErrorMessage("Command: " + getCommand() + ", on node " + getIdentity() + ", rejected by the executor: " + getExecutor() + ".");
+			sendCommandStateUpdate(CommandState.ABORTED, getErrorMessage());
+			setState(ABORTED);
+			getContext().userRejected();
+		}
+		return isSubmitted();
+	}
 
 	/**
 	 * Method to access the information for this node.
@@ -244,19 +496,49 @@ public abstract class BaseTaskProcedure extends BaseNukeProcedure {
    * @param extraInformation message with reasoning behind a state change.
    */
   protected synchronized void sendCommandStateUpdate(CommandState newState, String extraInformation) {
-  	log.trace("sendCommandStateUpdate(" + newState + ", \"" + extraInformation + "\")");
+  	if( log.isTraceEnabled() ) {
+  		log.trace("sendCommandStateUpdate(" + newState + ", \"" + extraInformation + "\")");
+  	}
   	if( newState != getCurrentCommandState() ) {
   		setCurrentCommandState(newState);
-  		NukeExecuteIndMsgC pNukeExecuteInd = new NukeExecuteIndMsgC(getSendIF());
-  		pNukeExecuteInd.setSource(getIdentity());
-  		pNukeExecuteInd.setDestination(Constants.MSG_TO_ALL);
-  		pNukeExecuteInd.setTxID(getTxID());
-  		pNukeExecuteInd.setProcessID(getProcessID());
-  		pNukeExecuteInd.setStatus(newState);
-  		pNukeExecuteInd.send();
+  		if( true != isReported() ) {
+  			log.debug("[" + getTxID() + "] Process " + getProcessID() + " changed to " + newState + ", not reported.");
+  			return;
+  		}
+  		long destination = ( Constants.HC_UNDEFINED != getSource() ) ? getSource() : Constants.MSG_TO_ALL;
+  		IndicationCoalescer coalescer = getContext().getIndicationCoalescer();
+  		if( true == coalescer.isEnabled() && CommandState.ABORTED != newState ) {
+  			coalescer.add(destination, getSagaID(), getTxID(), getProcessID(), newState);
+  		} else {
+  			NukeExecuteIndMsgC pNukeExecuteInd = new NukeExecuteIndMsgC(getSendIF());
+  			pNukeExecuteInd.setSource(getIdentity());
+  			pNukeExecuteInd.setDestination(destination);
+  			pNukeExecuteInd.setTxID(getTxID());
+  			pNukeExecuteInd.setSagaID(getSagaID());
+  			pNukeExecuteInd.setProcessID(getProcessID());
+  			pNukeExecuteInd.setStatus(newState);
+  			if( true == coalescer.isEnabled() ) {
+  				// aborted is latency sensitive, bypass the buffer.
+  				coalescer.bypass(pNukeExecuteInd);
+  			} else {
+  				pNukeExecuteInd.send();
+  			}
+  		}
   	}
   }
   
+  /**
+   * Method to stop repeating the command, the running execution is allowed
+   * to finish and the procedure then reports DONE as a single command would.
+   * @return boolean true if the command was repeated.
+   */
+  public boolean stopRepeating() {
+  	log.trace("stopRepeating()");
+  	boolean retValue = isRepeated() && true != isProcedureFinished();
+  	setRepeated(false);
+  	return retValue;
+  }
+  
   /**
    * Method to stop a process execution.
    * @return boolean
@@ -264,7 +546,9 @@ public abstract class BaseTaskProcedure extends BaseNukeProcedure {
   public boolean stopProcess() {
   	log.trace("stopProcess()");
   	boolean retValue = true;
-  	if( true != getProcess().isAlive() ) {
+  	Process current = getStartedProcess();
+  	// a repeated command between two runs has no live process but is still stopped.
+  	if( ( null == current || true != current.isAlive() ) && true != isRepeated() ) {
   		retValue = false;
   		setErrorMessage("Process with id: " + getProcessID() + " is not alive.");
   	} else {
@@ -280,16 +564,17 @@ public abstract class BaseTaskProcedure extends BaseNukeProcedure {
 	public boolean terminateProcess() {
 		log.trace("terminateProcess()");
 		boolean retValue = true;
-		if( null == getProcess() ) {
+		Process current = getStartedProcess();
+		if( null == current ) {
 			retValue = false;
 			setErrorMessage("No process exists to terminate.");
-		} else if ( true != getProcess().isAlive() ) {
+		} else if ( true != current.isAlive() ) {
 			retValue = false;
 			setErrorMessage("Process is already terminated.");
 		} else {
-			getProcess().destroy();
+			current.destroy();
 			try {
-	      retValue = getProcess().waitFor(terminateTimeout, TimeUnit.SECONDS);
+	      retValue = current.waitFor(terminateTimeout, TimeUnit.SECONDS);
       } catch (InterruptedException e) {
 	      log.fatal("Received InterruptedException when waiting for termination.", e);
 	      setErrorMessage("Received InterruptedException when waiting for termination.");
@@ -357,6 +642,20 @@ public abstract class BaseTaskProcedure extends BaseNukeProcedure {
 	  this.currentCommandState = currentCommandState;
   }
 
+	/**
+	 * @return the submitted
+	 */
+	public boolean isSubmitted() {
+		return submitted;
+	}
+
+	/**
+	 * @param submitted the submitted to set
+	 */
+	private void setSubmitted(boolean submitted) {
+		this.submitted = submitted;
+	}
+
 	/**
 	 * @return the errorMessage
 	 */
@@ -427,6 +726,38 @@ public abstract class BaseTaskProcedure extends BaseNukeProcedure {
 		this.repeated = repeated;
 	}
   
+	/**
+	 * @return the batched
+	 */
+	public boolean isBatched() {
+		return batched;
+	}
+
+	/**
+	 * Set when the procedure is started from a NukeExecuteBatchReqMsgC, the
+	 * process id is then given by the dispatcher that also sends the response.
+	 * @param batched the batched to set
+	 */
+	public void setBatched(boolean batched) {
+		this.batched = batched;
+	}
+	
+	/**
+	 * @return the reported
+	 */
+	public boolean isReported() {
+		return reported;
+	}
+
+	/**
+	 * Cleared when the procedure is counted by its owner, no indications are
+	 * then sent for it.
+	 * @param reported the reported to set
+	 */
+	public void setReported(boolean reported) {
+		this.reported = reported;
+	}
+	
 	/**
 	 * Method to send response to the requesting part.
 	 */
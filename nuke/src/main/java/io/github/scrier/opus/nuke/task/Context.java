@@ -15,10 +15,12 @@
  */
 package io.github.scrier.opus.nuke.task;
 
-import java.util.concurrent.LinkedBlockingQueue;
-import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+import io.github.scrier.opus.common.Constants;
 import io.github.scrier.opus.common.Shared;
 import io.github.scrier.opus.common.aoc.BaseActiveObject;
 import io.github.scrier.opus.common.data.BaseDataC;
@@ -29,6 +31,7 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IMap;
 
 public enum Context {
 	INSTANCE;
@@ -39,7 +42,16 @@ public enum Context {
 	private boolean initialized;
 	private BaseActiveObject parent;
 	private NukeTasks task;
-	private ThreadPoolExecutor executor;
+	private TaskExecutor executor;
+	private ProcessReaper reaper;
+	private boolean reaperCreated;
+	private Boolean outputRedirected;
+	private ScheduledExecutorService scheduler;
+	private IndicationCoalescer coalescer;
+	private ExecutionStats executionStats;
+	private final AtomicBoolean statsPending = new AtomicBoolean(false);
+	
+	public static final long EXECUTION_STATS_INTERVAL = 1000;	///< Milliseconds between copying the execution stats to the NukeInfo.
 	
 	private int txID;
 	
@@ -47,6 +59,13 @@ public enum Context {
 		initialized = false;
 		txID = 0;
 		executor = null;
+		reaper = null;
+		reaperCreated = false;
+		outputRedirected = null;
+		scheduler = null;
+		coalescer = null;
+		executionStats = null;
+		statsPending.set(false);
 		task = null;
 		parent = null;
 		instance = null;
@@ -62,24 +81,33 @@ public enum Context {
 			setParent(parent);
 			setTask(task);
 			setInstance(parent.getInstance());
-			executor = new ThreadPoolExecutor(10000, 10000, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<Runnable>());
 		}
 		return retValue;
 	}
 
 	public void shutDown() {
+		if( null != coalescer ) {
+			coalescer.shutDown();
+		}
+		if( null != scheduler ) {
+			scheduler.shutdownNow();
+		}
 		if( null != executor ) {
-			executor.shutdownNow();
-			log.info("Shutting down threads, waiting for terminateion.");
-			try {
-				executor.awaitTermination(10, TimeUnit.SECONDS);
-			} catch (InterruptedException e) {
-				log.fatal("Received InterruptedException in shutDown.", e);
-			}
+			executor.shutDown(10);
+		}
+		if( null != reaper ) {
+			reaper.shutDown();
 		}
 		initialized = false;
 		txID = 0;
 		executor = null;
+		reaper = null;
+		reaperCreated = false;
+		outputRedirected = null;
+		scheduler = null;
+		coalescer = null;
+		executionStats = null;
+		statsPending.set(false);
 		task = null;
 		parent = null;
 		instance = null;
@@ -184,12 +212,201 @@ public enum Context {
 		return getTask().removeEntry(data);
 	}
 	
-	public ThreadPoolExecutor getExecutor() {
+	/**
+	 * Method to get the executor the users run on, created from the settings
+	 * the first time it is needed since the settings are written by duke.
+	 * @return TaskExecutor
+	 */
+	public synchronized TaskExecutor getExecutor() {
+		if( null == executor ) {
+			int threads = Math.max(1, getIntSetting(Shared.Settings.EXECUTE_EXECUTOR_THREADS, TaskExecutor.DEFAULT_THREADS));
+			executor = new TaskExecutor(getStringSetting(Shared.Settings.EXECUTE_EXECUTOR, Shared.Values.EXECUTOR_POOL), threads, 
+					Math.max(0, getIntSetting(Shared.Settings.EXECUTE_EXECUTOR_QUEUE, threads)));
+			log.info("Running users on " + executor + ".");
+		}
 		return executor;
 	}
 	
+	/**
+	 * Method to get the reaper observing the exit of the processes, created
+	 * from the settings the first time it is needed.
+	 * @return ProcessReaper, null if no reapers are set and the users wait for their processes.
+	 */
+	public synchronized ProcessReaper getReaper() {
+		if( true != reaperCreated ) {
+			reaperCreated = true;
+			int reapers = getIntSetting(Shared.Settings.EXECUTE_REAPERS, 0);
+			if( 0 < reapers ) {
+				reaper = new ProcessReaper(reapers, Math.max(1, 
+						getIntSetting(Shared.Settings.EXECUTE_REAPER_INTERVAL, (int)ProcessReaper.DEFAULT_INTERVAL)));
+				reaper.start();
+				log.info("Observing processes with " + reaper + ".");
+			}
+		}
+		return reaper;
+	}
+	
+	/**
+	 * Method to check if the OS should write the process output when it
+	 * doesn't need to be parsed, read from the settings the first time.
+	 * @return boolean true if the output is redirected instead of gobbled.
+	 */
+	public synchronized boolean isOutputRedirected() {
+		if( null == outputRedirected ) {
+			outputRedirected = Boolean.valueOf(getStringSetting(Shared.Settings.EXECUTE_GOBBLER_REDIRECT, "false"));
+			log.info("Process output " + ( outputRedirected ? "redirected by the OS" : "read by gobblers" ) + ".");
+		}
+		return outputRedirected;
+	}
+	
 	public SendIF getSendIF() {
 		return parent.getSendIF();
 	}
 	
+	/**
+	 * Method to get the scheduler for timed work, created the first time it is
+	 * needed. The scheduled work should only post to the NukeTasks, it is run
+	 * on a single thread shared by all procedures.
+	 * @return ScheduledExecutorService
+	 */
+	public synchronized ScheduledExecutorService getScheduler() {
+		if( null == scheduler ) {
+			scheduler = Executors.newSingleThreadScheduledExecutor();
+		}
+		return scheduler;
+	}
+	
+	/**
+	 * Method to get the coalescer for execute indications, created from the
+	 * settings the first time it is needed since the settings are written by duke.
+	 * @return IndicationCoalescer, disabled if no flush interval is set.
+	 */
+	public synchronized IndicationCoalescer getIndicationCoalescer() {
+		if( null == coalescer ) {
+			long identity = Constants.HC_UNDEFINED;
+			try {
+				identity = getIdentity();
+			} catch( InvalidOperationException e ) {
+				log.error("Unable to get identity for the indication coalescer.", e);
+			}
+			coalescer = new IndicationCoalescer(getSendIF(), identity,
+					getIntSetting(Shared.Settings.EXECUTE_IND_FLUSH_INTERVAL, 0),
+					getIntSetting(Shared.Settings.EXECUTE_IND_FLUSH_EVENTS, 0));
+			log.info("Indication coalescing " + ( coalescer.isEnabled() ? "enabled" : "disabled" ) + ", interval: " + 
+					coalescer.getFlushInterval() + " ms, events: " + coalescer.getFlushEvents() + ".");
+			coalescer.start();
+		}
+		return coalescer;
+	}
+	
+	/**
+	 * Method to get the execution stats, created the first time a process is
+	 * executed. The totals are copied to the NukeInfo every
+	 * EXECUTION_STATS_INTERVAL from the NukeTasks thread, which publishes
+	 * them if they changed.
+	 * @return ExecutionStats
+	 */
+	public synchronized ExecutionStats getExecutionStats() {
+		if( null == executionStats ) {
+			executionStats = new ExecutionStats(ExecutionStats.DEFAULT_WINDOW);
+			getScheduler().scheduleAtFixedRate(new Runnable() {
+				@Override
+				public void run() {
+					publishExecutionStats();
+				}
+			}, EXECUTION_STATS_INTERVAL, EXECUTION_STATS_INTERVAL, TimeUnit.MILLISECONDS);
+		}
+		return executionStats;
+	}
+	
+	/**
+	 * Method to count a user that started running on the executor, the live
+	 * users are published directly.
+	 */
+	public void userStarted() {
+		getExecutionStats().userStarted();
+		publishExecutionStats();
+	}
+	
+	/**
+	 * Method to count a user that stopped running on the executor, the live
+	 * users are published directly so the duke sees the last user drain.
+	 */
+	public void userStopped() {
+		getExecutionStats().userStopped();
+		publishExecutionStats();
+	}
+	
+	/**
+	 * Method to report a user the executor rejected, the executor counts it
+	 * and the counters are published directly.
+	 */
+	public void userRejected() {
+		getExecutionStats();
+		publishExecutionStats();
+	}
+	
+	/**
+	 * Method to copy the execution stats and the executor counters to the
+	 * NukeInfo on the NukeTasks thread, which publishes them if they changed. Only one copy is queued
+	 * at a time, it reads the stats when it runs.
+	 */
+	public void publishExecutionStats() {
+		final NukeTasks current = getTask();
+		final ExecutionStats stats = executionStats;
+		final TaskExecutor users = executor;
+		if( null != current && null != stats && true == statsPending.compareAndSet(false, true) ) {
+			current.post(new Runnable() {
+				@Override
+				public void run() {
+					statsPending.set(false);
+					stats.update(current.getNukeInfo());
+					if( null != users ) {
+						users.update(current.getNukeInfo());
+					}
+				}
+			});
+		}
+	}
+	
+	/**
+	 * Method to read an optional setting.
+	 * @param key String with the key to look for.
+	 * @param defaultValue String to use when the setting is missing.
+	 * @return String
+	 */
+	public String getStringSetting(String key, String defaultValue) {
+		String retValue = defaultValue;
+		try {
+			IMap<String, String> settings = getParent().getSettings();
+			if( null != settings && true == settings.containsKey(key) ) {
+				retValue = settings.get(key).trim();
+			}
+		} catch( InvalidOperationException e ) {
+			log.error("Unable to read setting " + key + ".", e);
+		}
+		return retValue;
+	}
+	
+	/**
+	 * Method to read an optional integer setting.
+	 * @param key String with the key to look for.
+	 * @param defaultValue int to use when the setting is missing or invalid.
+	 * @return int
+	 */
+	public int getIntSetting(String key, int defaultValue) {
+		int retValue = defaultValue;
+		try {
+			IMap<String, String> settings = getParent().getSettings();
+			if( null != settings && true == settings.containsKey(key) ) {
+				retValue = Integer.parseInt(settings.get(key).trim());
+			}
+		} catch( InvalidOperationException e ) {
+			log.error("Unable to read setting " + key + ".", e);
+		} catch( NumberFormatException e ) {
+			log.error("Invalid value for setting " + key + ", using " + defaultValue + ".", e);
+		}
+		return retValue;
+	}
+	
 }
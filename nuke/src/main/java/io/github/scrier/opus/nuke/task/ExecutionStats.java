@@ -0,0 +1,163 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ * @author Andreas Joelsson (andreas.joelsson@gmail.com)
+ */
+package io.github.scrier.opus.nuke.task;
+
+import java.util.Arrays;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import io.github.scrier.opus.common.nuke.NukeInfo;
+
+/**
+ * Counts the process executions of the nuke and keeps the execution times
+ * of the latest ones, the window, to take percentiles from. Also counts the
+ * live users, the tasks running on the executor. Executions and users are
+ * recorded from the executing threads, the totals are copied to the NukeInfo
+ * on the NukeTasks thread.
+ */
+public class ExecutionStats {
+
+	private static Logger log = LogManager.getLogger(ExecutionStats.class);
+
+	public static final int DEFAULT_WINDOW = 256;	///< Number of latest executions the percentiles are taken over.
+
+	private final long[] window;
+	private int next;
+	private int size;
+	private long executions;
+	private long failedExecutions;
+	private int liveUsers;
+
+	/**
+	 * Constructor
+	 * @param windowSize int with the number of latest executions to keep the times of.
+	 */
+	public ExecutionStats(int windowSize) {
+		if( log.isTraceEnabled() ) {
+			log.trace("ExecutionStats(" + windowSize + ")");
+		}
+		if( 0 >= windowSize ) {
+			throw new IllegalArgumentException("Window size must be above 0, was " + windowSize + ".");
+		}
+		this.window = new long[windowSize];
+		this.next = 0;
+		this.size = 0;
+		this.executions = 0;
+		this.failedExecutions = 0;
+		this.liveUsers = 0;
+	}
+
+	/**
+	 * Method to record a finished execution.
+	 * @param millis long with the execution time in milliseconds.
+	 * @param success boolean false if the execution failed.
+	 */
+	public synchronized void record(long millis, boolean success) {
+		window[next] = millis;
+		next = ( next + 1 ) % window.length;
+		size = Math.min(size + 1, window.length);
+		executions++;
+		if( true != success ) {
+			failedExecutions++;
+		}
+	}
+
+	/**
+	 * Method to count a user that started running.
+	 * @return int with the number of live users.
+	 */
+	public synchronized int userStarted() {
+		return ++liveUsers;
+	}
+
+	/**
+	 * Method to count a user that stopped running.
+	 * @return int with the number of live users.
+	 */
+	public synchronized int userStopped() {
+		if( 0 >= liveUsers ) {
+			log.error("User stopped without any live users.");
+			return 0;
+		}
+		return --liveUsers;
+	}
+
+	/**
+	 * Method to get a percentile of the execution times in the window, the
+	 * nearest rank is used so the result is always a recorded time.
+	 * @param percent int between 1 and 100.
+	 * @return long with the time in milliseconds, 0 if nothing is recorded.
+	 */
+	public synchronized long getPercentile(int percent) {
+		if( 0 == size ) {
+			return 0;
+		}
+		long[] sorted = Arrays.copyOf(window, size);
+		Arrays.sort(sorted);
+		int rank = (int)Math.ceil(percent / 100.0 * size);
+		return sorted[Math.max(0, Math.min(size, rank) - 1)];
+	}
+
+	/**
+	 * Method to copy the totals to the info, only the changed values are
+	 * marked as modified.
+	 * @param info NukeInfo to update.
+	 * @return boolean true if anything changed.
+	 */
+	public synchronized boolean update(NukeInfo info) {
+		boolean retValue = executions != info.getExecutions() || failedExecutions != info.getFailedExecutions();
+		if( true == retValue ) {
+			info.setExecutions(executions);
+			info.setFailedExecutions(failedExecutions);
+			info.setExecutionTimeP95((int)Math.min(Integer.MAX_VALUE, getPercentile(95)));
+		}
+		if( liveUsers != info.getNumberOfThreads() ) {
+			info.setNumberOfThreads(liveUsers);
+			retValue = true;
+		}
+		return retValue;
+	}
+
+	/**
+	 * @return the number of recorded executions.
+	 */
+	public synchronized long getExecutions() {
+		return executions;
+	}
+
+	/**
+	 * @return the number of recorded executions that failed.
+	 */
+	public synchronized long getFailedExecutions() {
+		return failedExecutions;
+	}
+
+	/**
+	 * @return the number of users running.
+	 */
+	public synchronized int getLiveUsers() {
+		return liveUsers;
+	}
+
+	/**
+	 * @return the number of execution times in the window.
+	 */
+	public synchronized int getWindowSize() {
+		return size;
+	}
+
+}
@@ -0,0 +1,286 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * @author Andreas Joelsson (andreas.joelsson@gmail.com)
+ */
+package io.github.scrier.opus.nuke.task;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import io.github.scrier.opus.common.message.BaseMsgC;
+import io.github.scrier.opus.common.message.SendIF;
+import io.github.scrier.opus.common.nuke.CommandState;
+import io.github.scrier.opus.common.nuke.NukeExecuteBatchIndMsgC;
+
+/**
+ * Buffers process state changes and publishes them as one
+ * NukeExecuteBatchIndMsgC per destination and sagaID, every flush interval
+ * or as soon as the number of buffered state changes reaches the event limit.
+ * The coalescer is only enabled with a flush interval above zero.
+ */
+public class IndicationCoalescer {
+
+	private static Logger log = LogManager.getLogger(IndicationCoalescer.class);
+
+	private SendIF sendIF;
+	private long identity;
+	private long flushInterval;
+	private int flushEvents;
+	private Map<Target, NukeExecuteBatchIndMsgC> pending;
+	private int pendingEvents;
+	private long flushedMessages;
+	private long flushedEvents;
+	private ScheduledExecutorService scheduler;
+	private final Object publishLock = new Object();
+
+	/**
+	 * Constructor
+	 * @param sendIF SendIF to publish the batched indications on.
+	 * @param identity long with the identity of the nuke.
+	 * @param flushInterval long with the max milliseconds a state change is buffered, 0 disables the coalescer.
+	 * @param flushEvents int with the number of buffered state changes that triggers a flush, 0 for no limit.
+	 */
+	public IndicationCoalescer(SendIF sendIF, long identity, long flushInterval, int flushEvents) {
+		if( log.isTraceEnabled() ) {
+			log.trace("IndicationCoalescer(" + sendIF + ", " + identity + ", " + flushInterval + ", " + flushEvents + ")");
+		}
+		this.sendIF = sendIF;
+		this.identity = identity;
+		this.flushInterval = flushInterval;
+		this.flushEvents = flushEvents;
+		this.pending = new LinkedHashMap<Target, NukeExecuteBatchIndMsgC>();
+		this.pendingEvents = 0;
+		this.flushedMessages = 0;
+		this.flushedEvents = 0;
+		this.scheduler = null;
+	}
+
+	/**
+	 * Method to start the periodic flush.
+	 */
+	public synchronized void start() {
+		log.trace("start()");
+		if( true == isEnabled() && null == scheduler ) {
+			scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+				@Override
+				public Thread newThread(Runnable runnable) {
+					Thread thread = new Thread(runnable, "indication-coalescer");
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+			scheduler.scheduleAtFixedRate(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						flush();
+					} catch( RuntimeException e ) {
+						log.error("Failed to flush indications.", e);
+					}
+				}
+			}, flushInterval, flushInterval, TimeUnit.MILLISECONDS);
+		}
+	}
+
+	/**
+	 * Method to stop the periodic flush and publish everything buffered.
+	 */
+	public void shutDown() {
+		log.trace("shutDown()");
+		ScheduledExecutorService toStop = null;
+		synchronized( this ) {
+			toStop = scheduler;
+			scheduler = null;
+		}
+		if( null != toStop ) {
+			toStop.shutdownNow();
+		}
+		flush();
+	}
+
+	/**
+	 * @return boolean true if state changes should be buffered.
+	 */
+	public boolean isEnabled() {
+		return 0 < flushInterval;
+	}
+
+	/**
+	 * Method to buffer a state change.
+	 * @param destination long with the destination of the indication.
+	 * @param sagaID long with the sagaID of the requesting procedure.
+	 * @param txID int with the txID of the task procedure.
+	 * @param processID long with the id of the process.
+	 * @param status CommandState the process changed to.
+	 */
+	public void add(long destination, long sagaID, int txID, long processID, CommandState status) {
+		if( log.isTraceEnabled() ) {
+			log.trace("add(" + destination + ", " + sagaID + ", " + txID + ", " + processID + ", " + status + ")");
+		}
+		boolean flushNow = false;
+		synchronized( this ) {
+			Target target = new Target(destination, sagaID);
+			NukeExecuteBatchIndMsgC message = pending.get(target);
+			if( null == message ) {
+				message = new NukeExecuteBatchIndMsgC(sendIF);
+				message.setSource(identity);
+				message.setDestination(destination);
+				message.setSagaID(sagaID);
+				message.setTxID(txID);
+				pending.put(target, message);
+			}
+			message.addStatus(processID, status);
+			pendingEvents++;
+			flushNow = ( 0 < flushEvents && pendingEvents >= flushEvents );
+		}
+		if( true == flushNow ) {
+			flush();
+		}
+	}
+
+	/**
+	 * Method to publish all buffered state changes.
+	 */
+	public void flush() {
+		synchronized( publishLock ) {
+			List<NukeExecuteBatchIndMsgC> toSend = null;
+			synchronized( this ) {
+				toSend = takeAll();
+			}
+			send(toSend);
+		}
+	}
+
+	/**
+	 * Method to publish a message that bypasses the buffer. The buffered state
+	 * changes for the same destination and sagaID are published first so the
+	 * receiver sees them in order.
+	 * @param message BaseMsgC to publish.
+	 */
+	public void bypass(BaseMsgC message) {
+		if( log.isTraceEnabled() ) {
+			log.trace("bypass(" + message + ")");
+		}
+		synchronized( publishLock ) {
+			List<NukeExecuteBatchIndMsgC> toSend = new ArrayList<NukeExecuteBatchIndMsgC>(1);
+			synchronized( this ) {
+				NukeExecuteBatchIndMsgC buffered = pending.remove(new Target(message.getDestination(), message.getSagaID()));
+				if( null != buffered ) {
+					pendingEvents -= buffered.size();
+					toSend.add(buffered);
+				}
+			}
+			send(toSend);
+			message.send();
+		}
+	}
+
+	/**
+	 * @return the number of buffered state changes.
+	 */
+	public synchronized int getPendingEvents() {
+		return pendingEvents;
+	}
+
+	/**
+	 * @return the number of published batched indications.
+	 */
+	public synchronized long getFlushedMessages() {
+		return flushedMessages;
+	}
+
+	/**
+	 * @return the number of state changes published in batched indications.
+	 */
+	public synchronized long getFlushedEvents() {
+		return flushedEvents;
+	}
+
+	/**
+	 * @return the flushInterval
+	 */
+	public long getFlushInterval() {
+		return flushInterval;
+	}
+
+	/**
+	 * @return the flushEvents
+	 */
+	public int getFlushEvents() {
+		return flushEvents;
+	}
+
+	private List<NukeExecuteBatchIndMsgC> takeAll() {
+		List<NukeExecuteBatchIndMsgC> retValue = new ArrayList<NukeExecuteBatchIndMsgC>(pending.values());
+		pending.clear();
+		pendingEvents = 0;
+		return retValue;
+	}
+
+	/**
+	 * Publishes outside the buffer lock so a slow topic doesn't block the tasks.
+	 */
+	private void send(List<NukeExecuteBatchIndMsgC> messages) {
+		if( null == messages || messages.isEmpty() ) {
+			return;
+		}
+		for( NukeExecuteBatchIndMsgC message : messages ) {
+			log.debug("Flushing " + message.size() + " state changes to " + message.getDestination() + ".");
+			message.send();
+		}
+		synchronized( this ) {
+			flushedMessages += messages.size();
+			for( NukeExecuteBatchIndMsgC message : messages ) {
+				flushedEvents += message.size();
+			}
+		}
+	}
+
+	/**
+	 * Destination and sagaID a batched indication is built for.
+	 */
+	private static class Target {
+		private final long destination;
+		private final long sagaID;
+
+		Target(long destination, long sagaID) {
+			this.destination = destination;
+			this.sagaID = sagaID;
+		}
+
+		@Override
+		public int hashCode() {
+			return (int)( destination ^ ( destination >>> 32 ) ) * 31 + (int)( sagaID ^ ( sagaID >>> 32 ) );
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if( !( obj instanceof Target ) ) {
+				return false;
+			}
+			Target other = (Target)obj;
+			return destination == other.destination && sagaID == other.sagaID;
+		}
+	}
+
+}
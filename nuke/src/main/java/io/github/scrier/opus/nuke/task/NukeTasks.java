@@ -16,7 +16,12 @@
 package io.github.scrier.opus.nuke.task;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -47,17 +52,21 @@ public class NukeTasks extends DataListener {
 	private int proceduresStopping;
 	private int proceduresTerminating;
 	
-	private List<BaseNukeProcedure> procedures;
+	private ProcedureRegistry procedures;
 	private List<BaseNukeProcedure> proceduresToAdd;
-	private List<BaseNukeProcedure> toRemove;
+	private Set<BaseNukeProcedure> toRemove;
+	private Queue<BaseNukeProcedure> finished;
 	
 	public NukeTasks(HazelcastInstance instance) {
 	  super(instance, Shared.Hazelcast.BASE_NUKE_MAP);
-	  log.trace("NukeTasks(" + instance + ")");
+	  if( log.isTraceEnabled() ) {
+	  	log.trace("NukeTasks(" + instance + ")");
+	  }
 	  theContext = Context.INSTANCE;
-	  procedures = new ArrayList<BaseNukeProcedure>();
+	  procedures = new ProcedureRegistry();
 	  proceduresToAdd = new ArrayList<BaseNukeProcedure>();
-	  toRemove = new ArrayList<BaseNukeProcedure>();
+	  toRemove = new LinkedHashSet<BaseNukeProcedure>();
+	  finished = new ConcurrentLinkedQueue<BaseNukeProcedure>();
 	  setNukeInfo(new NukeInfo());
 	  setProceduresStopping(0);
 	  setProceduresTerminating(0);
@@ -78,7 +87,7 @@ public class NukeTasks extends DataListener {
 	public void shutDown() {
 		log.trace("shutDown()");
 		clear(getProceduresToAdd());
-		clear(getProcedures());
+		removeAllProcedures();
 		clear(getProceduresToRemove());
 		// Remove the info about this nuke from the map.
 		removeEntry(getNukeInfo());
@@ -99,7 +108,9 @@ public class NukeTasks extends DataListener {
 	private synchronized void intializeProcedures() {
 		log.trace("intializeProcedures()");
 		if( true != getProceduresToAdd().isEmpty() ) {
-			log.debug("Adding " + getProceduresToAdd().size() + " procedures.");
+			if( log.isDebugEnabled() ) {
+				log.debug("Adding " + getProceduresToAdd().size() + " procedures.");
+			}
 			for( BaseNukeProcedure procedure : getProceduresToAdd() ) {
 				try {
 					procedure.init();
@@ -117,7 +128,9 @@ public class NukeTasks extends DataListener {
 	 */
 	@Override
   public void entryAdded(Long component, BaseDataC data) {
-		log.trace("entryAdded(" + component + ", " + data + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("entryAdded(" + component + ", " + data + ")");
+		}
 		switch( data.getId() ) {
 			case NukeDataFactory.NUKE_INFO:
 			{
@@ -137,14 +150,20 @@ public class NukeTasks extends DataListener {
 	 */
 	@Override
   public void entryEvicted(Long component, BaseDataC data) {
-		log.trace("entryEvicted(" + component + ", " + data + ")");
-		for( BaseNukeProcedure procedure : getProcedures() ) {
+		if( log.isTraceEnabled() ) {
+			log.trace("entryEvicted(" + component + ", " + data + ")");
+		}
+		for( BaseNukeProcedure procedure : procedures.getSubscribers(BaseNukeProcedure.ON_EVICTED) ) {
 			int result = procedure.handleOnEvicted(data);
 			if( procedure.COMPLETED == result ) {
-				log.debug("Procedure " + procedure + " completed.");
+				if( log.isDebugEnabled() ) {
+					log.debug("Procedure " + procedure + " completed.");
+				}
 				removeProcedure(procedure);
 			} else if ( procedure.ABORTED == result ) {
-				log.debug("Procedure " + procedure + " aborted.");
+				if( log.isDebugEnabled() ) {
+					log.debug("Procedure " + procedure + " aborted.");
+				}
 				removeProcedure(procedure);
 			}
 		}
@@ -155,14 +174,20 @@ public class NukeTasks extends DataListener {
 	 */
 	@Override
 	public void entryRemoved(Long key) {
-		log.trace("entryRemoved(" + key + ")");
-		for( BaseNukeProcedure procedure : getProcedures() ) {
+		if( log.isTraceEnabled() ) {
+			log.trace("entryRemoved(" + key + ")");
+		}
+		for( BaseNukeProcedure procedure : procedures.getSubscribers(BaseNukeProcedure.ON_REMOVED) ) {
 			int result = procedure.handleOnRemoved(key);
 			if( procedure.COMPLETED == result ) {
-				log.debug("Procedure " + procedure + " completed.");
+				if( log.isDebugEnabled() ) {
+					log.debug("Procedure " + procedure + " completed.");
+				}
 				removeProcedure(procedure);
 			} else if ( procedure.ABORTED == result ) {
-				log.debug("Procedure " + procedure + " aborted.");
+				if( log.isDebugEnabled() ) {
+					log.debug("Procedure " + procedure + " aborted.");
+				}
 				removeProcedure(procedure);
 			}
 		}
@@ -173,14 +198,20 @@ public class NukeTasks extends DataListener {
 	 */
 	@Override
   public void entryUpdated(Long component, BaseDataC data) {
-		log.trace("entryUpdated(" + component + ", " + data + ")");
-		for( BaseNukeProcedure procedure : getProcedures() ) {
+		if( log.isTraceEnabled() ) {
+			log.trace("entryUpdated(" + component + ", " + data + ")");
+		}
+		for( BaseNukeProcedure procedure : procedures.getSubscribers(BaseNukeProcedure.ON_UPDATED) ) {
 			int result = procedure.handleOnUpdated(data);
 			if( procedure.COMPLETED == result ) {
-				log.debug("Procedure " + procedure + " completed.");
+				if( log.isDebugEnabled() ) {
+					log.debug("Procedure " + procedure + " completed.");
+				}
 				removeProcedure(procedure);
 			} else if ( procedure.ABORTED == result ) {
-				log.debug("Procedure " + procedure + " aborted.");
+				if( log.isDebugEnabled() ) {
+					log.debug("Procedure " + procedure + " aborted.");
+				}
 				removeProcedure(procedure);
 			}
 		}
@@ -192,18 +223,24 @@ public class NukeTasks extends DataListener {
 	 * @throws InvalidOperationException thrown if Context isnt initialized properly.
 	 */
 	public void handleInMessage(BaseMsgC message) throws InvalidOperationException {
-		log.trace("handleInMessage(" + message + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("handleInMessage(" + message + ")");
+		}
 		if ( theContext.getIdentity() == message.getDestination() ||
 				( Constants.MSG_TO_ALL == message.getDestination() && 
 				theContext.getIdentity() != message.getSource() ) ) {
 			preEntry();
-			for( BaseNukeProcedure procedure : procedures ) {
+			for( BaseNukeProcedure procedure : procedures.getSubscribers(BaseNukeProcedure.ON_MESSAGE) ) {
 				int result = procedure.handleInMessage(message);
 				if( procedure.COMPLETED == result ) {
-					log.debug("Procedure " + procedure + " completed.");
+					if( log.isDebugEnabled() ) {
+						log.debug("Procedure " + procedure + " completed.");
+					}
 					removeProcedure(procedure);
 				} else if ( procedure.ABORTED == result ) {
-					log.debug("Procedure " + procedure + " aborted.");
+					if( log.isDebugEnabled() ) {
+						log.debug("Procedure " + procedure + " aborted.");
+					}
 					removeProcedure(procedure);
 				}
 			}
@@ -211,6 +248,31 @@ public class NukeTasks extends DataListener {
 		}
 	}
 
+	/**
+	 * Method to run work for the procedures from another thread, the work is
+	 * run on the same thread as the map events and messages, between a
+	 * preEntry and a postEntry. The work is never rejected by the mailbox.
+	 * @param work Runnable to run.
+	 */
+	public void post(final Runnable work) {
+		dispatchInternal(new Runnable() {
+			@Override
+			public void run() {
+				handleWork(work);
+			}
+		});
+	}
+	
+	/**
+	 * Method to run posted work.
+	 * @param work Runnable to run.
+	 */
+	protected synchronized void handleWork(Runnable work) {
+		preEntry();
+		work.run();
+		postEntry();
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -218,6 +280,7 @@ public class NukeTasks extends DataListener {
   public void postEntry() {
 		log.trace("postEntry()");
 	  intializeProcedures();
+	  removeFinishedProcedures();
 	  for( BaseNukeProcedure procedure : getProceduresToRemove() ) {
 	  	try {
 //	  		handleInterrupted(procedure);
@@ -239,7 +302,9 @@ public class NukeTasks extends DataListener {
 	 */
 	@Override
   public void mapCleared(MapEvent cleared) {
-		log.trace("mapCleared(" + cleared + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("mapCleared(" + cleared + ")");
+		}
 		log.error("Map was cleared, removing all.");
 		removeAllProcedures();
   }
@@ -249,7 +314,9 @@ public class NukeTasks extends DataListener {
 	 */
 	@Override
   public void mapEvicted(MapEvent evicted) {
-		log.trace("mapEvicted(" + evicted + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("mapEvicted(" + evicted + ")");
+		}
 		log.error("Map was evicted, removing all.");
 		removeAllProcedures();
   }
@@ -271,15 +338,29 @@ public class NukeTasks extends DataListener {
 	 * }
 	 */
 	public List<BaseNukeProcedure> getProcedures(Class<?>... procs) {
-		List<BaseNukeProcedure> retVal = new ArrayList<BaseNukeProcedure>();
-		for( Class<?> proc : procs ) {
-			for( BaseNukeProcedure procedure : getProcedures() ) {
-				if( proc.getName() == procedure.getClass().getName() ) {
-					retVal.add(procedure);
-				}
-			}
+		return procedures.getProcedures(procs);
+	}
+	
+	/**
+	 * Method to get the task procedure running a specific process.
+	 * @param processID long with the id of the process.
+	 * @return BaseTaskProcedure or null if no such procedure is running.
+	 */
+	public BaseTaskProcedure getProcedure(long processID) {
+		return procedures.getProcedure(processID);
+	}
+	
+	/**
+	 * Method for procedures to report that they reached a finished state,
+	 * can be called from any thread. The procedure is removed in the next
+	 * postEntry.
+	 * @param procedure BaseNukeProcedure that is finished.
+	 */
+	public void procedureFinished(BaseNukeProcedure procedure) {
+		if( log.isTraceEnabled() ) {
+			log.trace("procedureFinished(" + procedure + ")");
 		}
-		return retVal;
+		finished.add(procedure);
 	}
 	
 	/**
@@ -299,8 +380,8 @@ public class NukeTasks extends DataListener {
 	/**
 	 * @return the procedures
 	 */
-	protected List<BaseNukeProcedure> getProcedures() {
-		return procedures;
+	protected Collection<BaseNukeProcedure> getProcedures() {
+		return procedures.getProcedures();
 	}
 	
 	/**
@@ -313,17 +394,21 @@ public class NukeTasks extends DataListener {
 	/**
 	 * @return the toRemove
 	 */
-	protected List<BaseNukeProcedure> getProceduresToRemove() {
+	protected Collection<BaseNukeProcedure> getProceduresToRemove() {
 		return toRemove;
 	}
 	
 	private void removeProcedure(BaseNukeProcedure procedure) {
-		log.trace("removeProcedure(" + procedure + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("removeProcedure(" + procedure + ")");
+		}
 		toRemove.add(procedure);
 	}
 	
 	public boolean registerProcedure(BaseNukeProcedure procedure) {
-		log.trace("registerProcedure(" + procedure + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("registerProcedure(" + procedure + ")");
+		}
 		boolean retValue = true;
 		if( contains(procedure) ) {
 			retValue = false;
@@ -334,7 +419,9 @@ public class NukeTasks extends DataListener {
 	}
 	
 	private boolean contains(BaseNukeProcedure procedure) {
-		log.trace("contains(" + procedure + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("contains(" + procedure + ")");
+		}
 		boolean retValue = procedures.contains(procedure);
 		retValue = ( true == retValue ) ? true : proceduresToAdd.contains(procedure);
 		return retValue;
@@ -342,11 +429,35 @@ public class NukeTasks extends DataListener {
 	
 	private void removeAllProcedures() {
 		log.trace("removeAllProcedures()");
-		clear(getProcedures());
+		for( BaseNukeProcedure procedure : getProcedures() ) {
+			try {
+	      procedure.shutDown();
+      } catch (Exception e) {
+      	log.error("shutDown of procedure: " + procedure + " threw Exception", e);
+      }
+		}
+		procedures.clear();
+		finished.clear();
 	}
 	
-	public void clear(List<BaseNukeProcedure> toClear) {
-		log.trace("clear(" + toClear + ")");
+	/**
+	 * Method to move the procedures that reported themselves finished to the
+	 * procedures to remove.
+	 */
+	private void removeFinishedProcedures() {
+		BaseNukeProcedure procedure = finished.poll();
+		while( null != procedure ) {
+			if( procedures.contains(procedure) ) {
+				removeProcedure(procedure);
+			}
+			procedure = finished.poll();
+		}
+	}
+	
+	public void clear(Collection<BaseNukeProcedure> toClear) {
+		if( log.isTraceEnabled() ) {
+			log.trace("clear(" + toClear + ")");
+		}
 		for( BaseNukeProcedure procedure : toClear ) {
 			try {
 	      procedure.shutDown();
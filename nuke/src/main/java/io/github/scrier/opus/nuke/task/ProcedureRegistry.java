@@ -0,0 +1,217 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * @author Andreas Joelsson (andreas.joelsson@gmail.com)
+ */
+package io.github.scrier.opus.nuke.task;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import io.github.scrier.opus.common.Constants;
+
+/**
+ * Registry of the running procedures in the NukeTasks indexed on procedure
+ * type, processID and the events each procedure subscribes to.
+ */
+public class ProcedureRegistry {
+
+	private static Logger log = LogManager.getLogger(ProcedureRegistry.class);
+
+	private Set<BaseNukeProcedure> procedures;
+	private Map<Class<?>, Set<BaseNukeProcedure>> types;
+	private Map<Long, BaseTaskProcedure> processIDs;
+	private Set<BaseNukeProcedure> onUpdated;
+	private Set<BaseNukeProcedure> onEvicted;
+	private Set<BaseNukeProcedure> onRemoved;
+	private Set<BaseNukeProcedure> onMessage;
+
+	public ProcedureRegistry() {
+		log.trace("ProcedureRegistry()");
+		procedures = new LinkedHashSet<BaseNukeProcedure>();
+		types = new HashMap<Class<?>, Set<BaseNukeProcedure>>();
+		processIDs = new HashMap<Long, BaseTaskProcedure>();
+		onUpdated = new LinkedHashSet<BaseNukeProcedure>();
+		onEvicted = new LinkedHashSet<BaseNukeProcedure>();
+		onRemoved = new LinkedHashSet<BaseNukeProcedure>();
+		onMessage = new LinkedHashSet<BaseNukeProcedure>();
+	}
+
+	/**
+	 * Method to add a procedure to the registry.
+	 * @param procedure BaseNukeProcedure to add.
+	 * @return boolean true if added, false if already registered.
+	 */
+	public boolean add(BaseNukeProcedure procedure) {
+		if( log.isTraceEnabled() ) {
+			log.trace("add(" + procedure + ")");
+		}
+		if( true != procedures.add(procedure) ) {
+			return false;
+		}
+		Set<BaseNukeProcedure> ofType = types.get(procedure.getClass());
+		if( null == ofType ) {
+			ofType = new LinkedHashSet<BaseNukeProcedure>();
+			types.put(procedure.getClass(), ofType);
+		}
+		ofType.add(procedure);
+		if( procedure instanceof BaseTaskProcedure ) {
+			BaseTaskProcedure task = (BaseTaskProcedure)procedure;
+			if( Constants.HC_UNDEFINED != task.getProcessID() ) {
+				processIDs.put(task.getProcessID(), task);
+			}
+		}
+		int events = procedure.getSubscribedEvents();
+		if( 0 < ( BaseNukeProcedure.ON_UPDATED & events ) ) {
+			onUpdated.add(procedure);
+		}
+		if( 0 < ( BaseNukeProcedure.ON_EVICTED & events ) ) {
+			onEvicted.add(procedure);
+		}
+		if( 0 < ( BaseNukeProcedure.ON_REMOVED & events ) ) {
+			onRemoved.add(procedure);
+		}
+		if( 0 < ( BaseNukeProcedure.ON_MESSAGE & events ) ) {
+			onMessage.add(procedure);
+		}
+		return true;
+	}
+
+	/**
+	 * Method to remove a procedure from the registry.
+	 * @param procedure BaseNukeProcedure to remove.
+	 * @return boolean true if it was registered.
+	 */
+	public boolean remove(BaseNukeProcedure procedure) {
+		if( log.isTraceEnabled() ) {
+			log.trace("remove(" + procedure + ")");
+		}
+		if( true != procedures.remove(procedure) ) {
+			return false;
+		}
+		Set<BaseNukeProcedure> ofType = types.get(procedure.getClass());
+		if( null != ofType ) {
+			ofType.remove(procedure);
+			if( ofType.isEmpty() ) {
+				types.remove(procedure.getClass());
+			}
+		}
+		if( procedure instanceof BaseTaskProcedure ) {
+			BaseTaskProcedure task = (BaseTaskProcedure)procedure;
+			if( procedure == processIDs.get(task.getProcessID()) ) {
+				processIDs.remove(task.getProcessID());
+			}
+		}
+		onUpdated.remove(procedure);
+		onEvicted.remove(procedure);
+		onRemoved.remove(procedure);
+		onMessage.remove(procedure);
+		return true;
+	}
+
+	/**
+	 * Method to clear the registry.
+	 */
+	public void clear() {
+		log.trace("clear()");
+		procedures.clear();
+		types.clear();
+		processIDs.clear();
+		onUpdated.clear();
+		onEvicted.clear();
+		onRemoved.clear();
+		onMessage.clear();
+	}
+
+	/**
+	 * @param procedure BaseNukeProcedure to look for.
+	 * @return boolean true if the procedure is registered.
+	 */
+	public boolean contains(BaseNukeProcedure procedure) {
+		return procedures.contains(procedure);
+	}
+
+	/**
+	 * @return the number of registered procedures.
+	 */
+	public int size() {
+		return procedures.size();
+	}
+
+	/**
+	 * @return all registered procedures in the order they were added.
+	 */
+	public Collection<BaseNukeProcedure> getProcedures() {
+		return Collections.unmodifiableSet(procedures);
+	}
+
+	/**
+	 * Method to get the registered procedures of one or more classes.
+	 * @param procs the class(es) to look for.
+	 * @return List with BaseNukeProcedure
+	 */
+	public List<BaseNukeProcedure> getProcedures(Class<?>... procs) {
+		List<BaseNukeProcedure> retVal = new ArrayList<BaseNukeProcedure>();
+		for( Class<?> proc : procs ) {
+			Set<BaseNukeProcedure> ofType = types.get(proc);
+			if( null != ofType ) {
+				retVal.addAll(ofType);
+			}
+		}
+		return retVal;
+	}
+
+	/**
+	 * Method to get the task procedure running a specific process.
+	 * @param processID long with the id of the process.
+	 * @return BaseTaskProcedure or null if not found.
+	 */
+	public BaseTaskProcedure getProcedure(long processID) {
+		return processIDs.get(processID);
+	}
+
+	/**
+	 * Method to get the procedures subscribing to a specific event.
+	 * @param event int with one of the BaseNukeProcedure.ON_* flags.
+	 * @return Collection with BaseNukeProcedure
+	 */
+	public Collection<BaseNukeProcedure> getSubscribers(int event) {
+		switch( event ) {
+			case BaseNukeProcedure.ON_UPDATED: {
+				return onUpdated;
+			}
+			case BaseNukeProcedure.ON_EVICTED: {
+				return onEvicted;
+			}
+			case BaseNukeProcedure.ON_REMOVED: {
+				return onRemoved;
+			}
+			case BaseNukeProcedure.ON_MESSAGE: {
+				return onMessage;
+			}
+			default: {
+				throw new IllegalArgumentException("Unknown event " + event + ".");
+			}
+		}
+	}
+
+}
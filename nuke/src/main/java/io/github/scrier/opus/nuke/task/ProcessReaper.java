@@ -0,0 +1,236 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ * @author Andreas Joelsson (andreas.joelsson@gmail.com)
+ */
+package io.github.scrier.opus.nuke.task;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Observes the exit of many child processes with a few reaper threads, so no
+ * thread is blocked in waitFor for the life of a process. The processes are
+ * spread round robin over the reapers, every reaper polls its processes each
+ * interval and calls the listener of an exited process on the reaper thread.
+ * The listeners should hand longer work off to another thread.
+ */
+public class ProcessReaper {
+
+	private static Logger log = LogManager.getLogger(ProcessReaper.class);
+
+	public static final long DEFAULT_INTERVAL = 10;
+
+	/**
+	 * Listener called when a watched process has exited.
+	 */
+	public interface ExitListener {
+
+		/**
+		 * Method called on the reaper thread when the process has exited.
+		 * @param retCode int with the exit value of the process.
+		 */
+		public void onExit(int retCode);
+
+	}
+
+	private final long interval;
+	private final Reaper[] reapers;
+	private final AtomicInteger next;
+	private final AtomicLong watched;
+	private final AtomicLong reaped;
+
+	/**
+	 * Constructor
+	 * @param reapers int with the number of reaper threads.
+	 * @param interval long with the milliseconds between the polls of a reaper.
+	 */
+	public ProcessReaper(int reapers, long interval) {
+		if( log.isTraceEnabled() ) {
+			log.trace("ProcessReaper(" + reapers + ", " + interval + ")");
+		}
+		if( 0 >= reapers ) {
+			throw new IllegalArgumentException("Reapers must be above 0, was " + reapers + ".");
+		} else if( 0 >= interval ) {
+			throw new IllegalArgumentException("Interval must be above 0, was " + interval + ".");
+		}
+		this.interval = interval;
+		this.reapers = new Reaper[reapers];
+		this.next = new AtomicInteger(0);
+		this.watched = new AtomicLong(0);
+		this.reaped = new AtomicLong(0);
+		for( int i = 0; i < reapers; i++ ) {
+			this.reapers[i] = new Reaper("process-reaper-" + i);
+		}
+	}
+
+	/**
+	 * Method to start the reaper threads.
+	 */
+	public void start() {
+		log.trace("start()");
+		for( Reaper reaper : reapers ) {
+			reaper.start();
+		}
+	}
+
+	/**
+	 * Method to stop the reaper threads, processes still watched are left running.
+	 */
+	public void shutDown() {
+		log.trace("shutDown()");
+		for( Reaper reaper : reapers ) {
+			reaper.interrupt();
+		}
+		for( Reaper reaper : reapers ) {
+			try {
+				reaper.join(1000);
+			} catch( InterruptedException e ) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	/**
+	 * Method to watch a process until it exits.
+	 * @param process Process to watch.
+	 * @param listener ExitListener to call when the process has exited.
+	 */
+	public void watch(Process process, ExitListener listener) {
+		if( log.isTraceEnabled() ) {
+			log.trace("watch(" + process + ", " + listener + ")");
+		}
+		int index = ( next.getAndIncrement() & Integer.MAX_VALUE ) % reapers.length;
+		watched.incrementAndGet();
+		reapers[index].add(new Watched(process, listener));
+	}
+
+	/**
+	 * @return the number of reaper threads.
+	 */
+	public int getReapers() {
+		return reapers.length;
+	}
+
+	/**
+	 * @return the milliseconds between the polls of a reaper.
+	 */
+	public long getInterval() {
+		return interval;
+	}
+
+	/**
+	 * @return the number of processes watched that hasn't exited.
+	 */
+	public long getWatched() {
+		return watched.get() - reaped.get();
+	}
+
+	/**
+	 * @return the number of exited processes.
+	 */
+	public long getReaped() {
+		return reaped.get();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String toString() {
+		return "ProcessReaper{reapers: " + getReapers() + ", interval: " + getInterval() + " ms, watched: " + 
+				getWatched() + ", reaped: " + getReaped() + "}";
+	}
+
+	/**
+	 * A process and the listener to call when it exits.
+	 */
+	private static class Watched {
+		private final Process process;
+		private final ExitListener listener;
+
+		public Watched(Process process, ExitListener listener) {
+			this.process = process;
+			this.listener = listener;
+		}
+	}
+
+	/**
+	 * Reaper thread, the processes are added through a queue and only
+	 * touched by the reaper thread after that.
+	 */
+	private class Reaper extends Thread {
+
+		private final Queue<Watched> added;
+		private final List<Watched> processes;
+
+		public Reaper(String name) {
+			super(name);
+			setDaemon(true);
+			this.added = new ConcurrentLinkedQueue<Watched>();
+			this.processes = new ArrayList<Watched>();
+		}
+
+		public void add(Watched entry) {
+			added.offer(entry);
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public void run() {
+			log.debug(getName() + " started.");
+			while( true != isInterrupted() ) {
+				Watched entry = null;
+				while( null != ( entry = added.poll() ) ) {
+					processes.add(entry);
+				}
+				reap();
+				LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(interval));
+			}
+			log.debug(getName() + " stopped with " + ( processes.size() + added.size() ) + " processes watched.");
+		}
+
+		private void reap() {
+			int i = 0;
+			while( i < processes.size() ) {
+				Watched entry = processes.get(i);
+				if( true == entry.process.isAlive() ) {
+					i++;
+					continue;
+				}
+				// swap the last entry in, the order of the processes doesn't matter.
+				processes.set(i, processes.get(processes.size() - 1));
+				processes.remove(processes.size() - 1);
+				reaped.incrementAndGet();
+				try {
+					entry.listener.onExit(entry.process.exitValue());
+				} catch( RuntimeException e ) {
+					log.error(getName() + " received exception from listener " + entry.listener + ".", e);
+				}
+			}
+		}
+
+	}
+
+}
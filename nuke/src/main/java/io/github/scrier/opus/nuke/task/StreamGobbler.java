@@ -23,6 +23,8 @@ import java.io.InputStreamReader;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import io.github.scrier.opus.nuke.process.ProcessHandler;
+
 public abstract class StreamGobbler extends Thread {
 
 	private static Logger log = LogManager.getLogger(StreamGobbler.class);
@@ -30,7 +32,9 @@ public abstract class StreamGobbler extends Thread {
 	private InputStream inputStream;
 	
 	public StreamGobbler(InputStream is) {
-		log.trace("StreamGobbler(" + is + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("StreamGobbler(" + is + ")");
+		}
 		setInputStream(is);
 	}
 	
@@ -42,6 +46,17 @@ public abstract class StreamGobbler extends Thread {
 	
 	public abstract void onExit();
 	
+	/**
+	 * Method to let the OS handle the output instead of the gobbler, for
+	 * gobblers that don't need to parse it. The gobbler isn't started when
+	 * the output is redirected.
+	 * @param handler ProcessHandler of the process before it is started.
+	 * @return boolean true if the output is redirected.
+	 */
+	public boolean redirect(ProcessHandler handler) {
+		return false;
+	}
+	
 	/**
 	 * {@inheritDoc}
 	 */
@@ -26,42 +26,84 @@ import java.io.PrintWriter;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import io.github.scrier.opus.nuke.process.ProcessHandler;
+
 public class StreamGobblerToFile extends StreamGobbler {
 
 	private static Logger log = LogManager.getLogger(StreamGobblerToFile.class);
 	
+	private File target;
 	private PrintWriter out;
 	
-	public StreamGobblerToFile(File target) throws IOException {
+	/**
+	 * Constructor, the file is appended to and only opened when the gobbler
+	 * runs, a redirected process has the OS append to it instead.
+	 * @param target File to append the output to.
+	 */
+	public StreamGobblerToFile(File target) {
 		super(null);
-		// FileWriter is targeting the buffer to append (second argument)
-		// BufferedWriter is because FileWriter is expensive.
-		// PrintWriter is for ease of printing information to BufferedWriter
-		out = new PrintWriter(new BufferedWriter(new FileWriter(target, true)));
+		this.target = target;
+		this.out = null;
 	}
 
 	public StreamGobblerToFile(InputStream is, File target) throws FileNotFoundException {
 		super(is);
+		this.target = null;
 		out = new PrintWriter(target);
 	}
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void run() {
+		if( null == out ) {
+			try {
+				// FileWriter is targeting the buffer to append (second argument)
+				// BufferedWriter is because FileWriter is expensive.
+				// PrintWriter is for ease of printing information to BufferedWriter
+				out = new PrintWriter(new BufferedWriter(new FileWriter(target, true)));
+			} catch( IOException e ) {
+				log.error("Unable to open " + target + ", the output is discarded.", e);
+			}
+		}
+		super.run();
+	}
 
 	@Override
 	public void handleLine(String line) {
-		out.write(line);
+		if( null != out ) {
+			out.println(line);
+		}
 	}
 
 	@Override
   public void onExit() {
 		log.trace("onExit()");
-	  out.close();
+		if( null != out ) {
+			out.close();
+		}
   }
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean redirect(ProcessHandler handler) {
+		boolean retValue = false;
+		if( null != target ) {
+			handler.redirectOutput(target);
+			retValue = true;
+		}
+		return retValue;
+	}
 	
 	/**
 	 * {@inheritDoc}
 	 */
 	@Override
 	public String toString() {
-		return "StreamGobblerToFile{is: " + getInputStream() + ", out:" + out + "}";
+		return "StreamGobblerToFile{is: " + getInputStream() + ", target: " + target + ", out:" + out + "}";
 	}
 
 }
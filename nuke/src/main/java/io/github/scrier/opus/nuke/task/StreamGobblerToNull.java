@@ -17,6 +17,8 @@ package io.github.scrier.opus.nuke.task;
 
 import java.io.InputStream;
 
+import io.github.scrier.opus.nuke.process.ProcessHandler;
+
 public class StreamGobblerToNull extends StreamGobbler {
 
 	public StreamGobblerToNull(InputStream is) {
@@ -35,6 +37,15 @@ public class StreamGobblerToNull extends StreamGobbler {
   public void onExit() {
 	  // do nothing
   }
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean redirect(ProcessHandler handler) {
+		handler.discardOutput();
+		return true;
+	}
 	
 	/**
 	 * {@inheritDoc}
@@ -0,0 +1,226 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ * @author Andreas Joelsson (andreas.joelsson@gmail.com)
+ */
+package io.github.scrier.opus.nuke.task;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import io.github.scrier.opus.common.Shared;
+import io.github.scrier.opus.common.nuke.NukeInfo;
+
+/**
+ * Executor the users of the nuke run on, the strategy is chosen from the
+ * settings. The pool strategy is a fixed pool of platform threads with an
+ * unbounded queue. The bounded strategy is a fixed pool with a bounded queue
+ * that rejects users when all threads are busy and the queue is full. The
+ * virtual strategy runs every user and its stream gobbler on a virtual
+ * thread of its own, it needs a runtime with virtual threads and the
+ * bounded strategy is used otherwise. On JDK 21 a virtual thread that blocks
+ * inside a synchronized block pins its carrier thread, so users must wait for
+ * their process without holding a monitor. JDK 24 and later don't pin.
+ */
+public class TaskExecutor {
+
+	private static Logger log = LogManager.getLogger(TaskExecutor.class);
+
+	public static final int DEFAULT_THREADS = 10000;
+
+	private final String strategy;
+	private final int threads;
+	private final int queueCapacity;
+	private final ExecutorService executor;
+	private final Method startVirtualThread;
+	private final AtomicLong submitted;
+	private final AtomicLong rejected;
+
+	/**
+	 * Constructor
+	 * @param strategy String with the strategy, pool, bounded or virtual.
+	 * @param threads int with the number of threads of the pools.
+	 * @param queueCapacity int with the users the bounded pool can queue.
+	 */
+	public TaskExecutor(String strategy, int threads, int queueCapacity) {
+		if( log.isTraceEnabled() ) {
+			log.trace("TaskExecutor(" + strategy + ", " + threads + ", " + queueCapacity + ")");
+		}
+		if( 0 >= threads ) {
+			throw new IllegalArgumentException("Threads must be above 0, was " + threads + ".");
+		} else if( 0 > queueCapacity ) {
+			throw new IllegalArgumentException("Queue capacity can't be negative, was " + queueCapacity + ".");
+		}
+		Method virtualStarter = null;
+		ExecutorService virtualExecutor = null;
+		if( Shared.Values.EXECUTOR_VIRTUAL.equals(strategy) ) {
+			try {
+				virtualStarter = Thread.class.getMethod("startVirtualThread", Runnable.class);
+				virtualExecutor = (ExecutorService)Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+			} catch( Exception e ) {
+				log.warn("Virtual threads are not supported by the runtime, using a bounded pool of " + threads + " threads.");
+				virtualStarter = null;
+			}
+		}
+		this.submitted = new AtomicLong(0);
+		this.rejected = new AtomicLong(0);
+		this.threads = threads;
+		this.startVirtualThread = virtualStarter;
+		if( null != virtualExecutor ) {
+			this.strategy = Shared.Values.EXECUTOR_VIRTUAL;
+			this.queueCapacity = 0;
+			this.executor = virtualExecutor;
+		} else if( Shared.Values.EXECUTOR_POOL.equals(strategy) || null == strategy || strategy.isEmpty() ) {
+			this.strategy = Shared.Values.EXECUTOR_POOL;
+			this.queueCapacity = 0;
+			this.executor = createPool(threads, new LinkedBlockingQueue<Runnable>());
+		} else {
+			if( true != Shared.Values.EXECUTOR_BOUNDED.equals(strategy) && true != Shared.Values.EXECUTOR_VIRTUAL.equals(strategy) ) {
+				log.error("Unknown executor strategy " + strategy + ", using a bounded pool of " + threads + " threads.");
+			}
+			this.strategy = Shared.Values.EXECUTOR_BOUNDED;
+			this.queueCapacity = queueCapacity;
+			this.executor = createPool(threads, ( 0 == queueCapacity ) ? 
+					new SynchronousQueue<Runnable>() : new ArrayBlockingQueue<Runnable>(queueCapacity));
+		}
+	}
+
+	/**
+	 * Method to submit a user to run.
+	 * @param task Callable to run.
+	 * @return Future of the task.
+	 * @throws RejectedExecutionException if the bounded pool is full or the executor is shut down.
+	 */
+	public <T> Future<T> submit(Callable<T> task) throws RejectedExecutionException {
+		try {
+			Future<T> retValue = executor.submit(task);
+			submitted.incrementAndGet();
+			return retValue;
+		} catch( RejectedExecutionException e ) {
+			rejected.incrementAndGet();
+			throw e;
+		}
+	}
+
+	/**
+	 * Method to start the stream gobbler of a user, on a virtual thread with
+	 * the virtual strategy and on a thread of its own otherwise.
+	 * @param gobbler StreamGobbler to start.
+	 */
+	public void startGobbler(StreamGobbler gobbler) {
+		if( null != startVirtualThread ) {
+			try {
+				startVirtualThread.invoke(null, gobbler);
+				return;
+			} catch( Exception e ) {
+				log.error("Unable to start gobbler on a virtual thread, starting a thread of its own.", e);
+			}
+		}
+		gobbler.start();
+	}
+
+	/**
+	 * Method to stop the executor, running users are interrupted.
+	 * @param seconds long with the seconds to wait for the users to stop.
+	 */
+	public void shutDown(long seconds) {
+		log.trace("shutDown(" + seconds + ")");
+		log.info("Shutting down " + this + ".");
+		executor.shutdownNow();
+		try {
+			executor.awaitTermination(seconds, TimeUnit.SECONDS);
+		} catch( InterruptedException e ) {
+			log.fatal("Received InterruptedException in shutDown.", e);
+		}
+	}
+
+	/**
+	 * @return the strategy in use.
+	 */
+	public String getStrategy() {
+		return strategy;
+	}
+
+	/**
+	 * @return the number of threads of the pools, not used by the virtual strategy.
+	 */
+	public int getThreads() {
+		return threads;
+	}
+
+	/**
+	 * @return the number of users the bounded pool can queue.
+	 */
+	public int getQueueCapacity() {
+		return queueCapacity;
+	}
+
+	/**
+	 * @return the number of submitted users.
+	 */
+	public long getSubmitted() {
+		return submitted.get();
+	}
+
+	/**
+	 * @return the number of rejected users.
+	 */
+	public long getRejected() {
+		return rejected.get();
+	}
+
+	/**
+	 * Method to copy the counters to the info, only the changed values are
+	 * marked as modified.
+	 * @param info NukeInfo to update.
+	 * @return boolean true if anything changed.
+	 */
+	public boolean update(NukeInfo info) {
+		long currentSubmitted = getSubmitted();
+		long currentRejected = getRejected();
+		boolean retValue = currentSubmitted != info.getSubmittedUsers() || currentRejected != info.getRejectedUsers();
+		if( true == retValue ) {
+			info.setSubmittedUsers(currentSubmitted);
+			info.setRejectedUsers(currentRejected);
+		}
+		return retValue;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String toString() {
+		return "TaskExecutor{strategy: " + getStrategy() + ", threads: " + getThreads() + ", queue: " + getQueueCapacity() + 
+				", submitted: " + getSubmitted() + ", rejected: " + getRejected() + "}";
+	}
+
+	private static ExecutorService createPool(int threads, BlockingQueue<Runnable> queue) {
+		return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS, queue, new ThreadPoolExecutor.AbortPolicy());
+	}
+
+}
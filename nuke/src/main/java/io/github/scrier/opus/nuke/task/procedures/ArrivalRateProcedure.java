@@ -0,0 +1,393 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ * @author Andreas Joelsson (andreas.joelsson@gmail.com)
+ */
+package io.github.scrier.opus.nuke.task.procedures;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import io.github.scrier.opus.common.Constants;
+import io.github.scrier.opus.common.data.BaseDataC;
+import io.github.scrier.opus.common.message.BaseMsgC;
+import io.github.scrier.opus.common.nuke.CommandState;
+import io.github.scrier.opus.common.nuke.NukeExecuteIndMsgC;
+import io.github.scrier.opus.common.nuke.NukeExecuteRateReqMsgC;
+import io.github.scrier.opus.common.nuke.NukeExecuteReqMsgC;
+import io.github.scrier.opus.common.nuke.NukeExecuteRspMsgC;
+import io.github.scrier.opus.nuke.task.BaseNukeProcedure;
+import io.github.scrier.opus.nuke.task.BaseTaskProcedure;
+
+/**
+ * Procedure launching a command at a fixed rate, an open model where new
+ * executions are started on schedule whether or not the earlier ones are
+ * finished. Launches that would exceed the in-flight cap are skipped and
+ * counted. The schedule is reported as a process of its own, WORKING when
+ * started and DONE when stopped, the launched executions report as batched
+ * tasks of the same saga.
+ */
+public class ArrivalRateProcedure extends BaseNukeProcedure {
+
+	private static Logger log = LogManager.getLogger(ArrivalRateProcedure.class);
+	
+	private static final long NANOS_PER_SECOND = 1000000000L;
+	
+	public final int RUNNING = CREATED + 1;
+	
+	private NukeExecuteReqMsgC request;	///< Request the executions are launched from.
+	private long processID;				///< Process id of the schedule itself.
+	private double rate;					///< Executions per second.
+	private int maxInFlight;			///< Max executions in flight, 0 for no limit.
+	private long period;					///< Nanoseconds between launches, 0 when not launching.
+	private long nextLaunch;			///< Time in nanoseconds of the next launch.
+	private List<BaseTaskProcedure> inFlight;
+	private long launched;
+	private long skipped;
+	private ScheduledFuture<?> wakeUp;
+	
+	/**
+	 * Constructor
+	 * @param message NukeExecuteRateReqMsgC starting the schedule.
+	 */
+	public ArrivalRateProcedure(NukeExecuteRateReqMsgC message) {
+		if( log.isTraceEnabled() ) {
+			log.trace("ArrivalRateProcedure(" + message + ")");
+		}
+		request = new NukeExecuteReqMsgC();
+		request.setSource(message.getSource());
+		request.setDestination(message.getDestination());
+		request.setTxID(message.getTxID());
+		request.setSagaID(message.getSagaID());
+		request.setCommand(message.getCommand());
+		request.setFolder(message.getFolder());
+		request.setRepeated(false);
+		processID = Constants.HC_UNDEFINED;
+		rate = message.getRate();
+		maxInFlight = message.getMaxInFlight();
+		period = 0L;
+		nextLaunch = 0L;
+		inFlight = new ArrayList<BaseTaskProcedure>();
+		launched = 0L;
+		skipped = 0L;
+		wakeUp = null;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void init() throws Exception {
+		log.trace("init()");
+		processID = getUniqueID();
+		NukeExecuteRspMsgC pNukeExecuteRsp = new NukeExecuteRspMsgC(getSendIF());
+		pNukeExecuteRsp.setSource(getIdentity());
+		pNukeExecuteRsp.setDestination(getSource());
+		pNukeExecuteRsp.setTxID(request.getTxID());
+		pNukeExecuteRsp.setSagaID(getSagaID());
+		pNukeExecuteRsp.setProcessID(getProcessID());
+		pNukeExecuteRsp.send();
+		sendIndication(CommandState.WORKING);
+		setState(RUNNING);
+		log.info("[" + getTxID() + "] Starting arrival rate of " + rate + " per second, max in flight " + maxInFlight + ".");
+		setRate(rate);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void shutDown() throws Exception {
+		log.trace("shutDown()");
+		cancelWakeUp();
+		log.info("[" + getTxID() + "] Arrival rate stopped after " + getLaunched() + " launches, " + getSkipped() + " skipped at the in flight cap.");
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * The schedule is changed and stopped through the DispatchProcedure.
+	 */
+	@Override
+	public int getSubscribedEvents() {
+		return NO_EVENTS;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int handleOnUpdated(BaseDataC data) {
+		return getState();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int handleOnEvicted(BaseDataC data) {
+		return getState();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int handleOnRemoved(Long key) {
+		return getState();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int handleInMessage(BaseMsgC message) {
+		return getState();
+	}
+	
+	/**
+	 * Method to change the rate and in-flight cap of a running schedule.
+	 * @param message NukeExecuteRateReqMsgC with the new values.
+	 */
+	public void update(NukeExecuteRateReqMsgC message) {
+		if( log.isTraceEnabled() ) {
+			log.trace("update(" + message + ")");
+		}
+		if( RUNNING != getState() ) {
+			log.error("[" + getTxID() + "] Received rate update in state " + getState() + ", ignoring.");
+		} else {
+			log.info("[" + getTxID() + "] Changing arrival rate from " + rate + " to " + message.getRate() + " per second, max in flight " + message.getMaxInFlight() + ".");
+			maxInFlight = message.getMaxInFlight();
+			setRate(message.getRate());
+		}
+	}
+	
+	/**
+	 * Method to stop launching, executions in flight are left to finish.
+	 * @return boolean true if the schedule was running.
+	 */
+	public boolean stop() {
+		log.trace("stop()");
+		boolean retValue = false;
+		if( RUNNING == getState() ) {
+			cancelWakeUp();
+			rate = 0.0;
+			period = 0L;
+			sendIndication(CommandState.DONE);
+			setState(COMPLETED);
+			retValue = true;
+		}
+		return retValue;
+	}
+	
+	/**
+	 * Method to launch the executions that are due, called on the NukeTasks
+	 * thread when woken up by the scheduler. A late wake up launches all the
+	 * executions that were due meanwhile, arrivals don't wait for the nuke.
+	 */
+	protected void launchDue() {
+		log.trace("launchDue()");
+		if( RUNNING != getState() || 0L == period ) {
+			return;
+		}
+		long now = getTime();
+		removeFinished();
+		while( nextLaunch <= now ) {
+			if( 0 < maxInFlight && inFlight.size() >= maxInFlight ) {
+				long missed = ( now - nextLaunch ) / period + 1;
+				if( log.isDebugEnabled() ) {
+					log.debug("[" + getTxID() + "] " + inFlight.size() + " executions in flight, skipping " + missed + " launches.");
+				}
+				skipped += missed;
+				nextLaunch += missed * period;
+			} else {
+				launch();
+				nextLaunch += period;
+			}
+		}
+		scheduleWakeUp(nextLaunch - now);
+	}
+	
+	/**
+	 * Method to launch one execution.
+	 */
+	protected void launch() {
+		ExecuteTaskProcedure task = new ExecuteTaskProcedure(request);
+		task.setBatched(true);
+		task.setProcessID(getUniqueID());
+		registerProcedure(task);
+		inFlight.add(task);
+		launched++;
+	}
+	
+	/**
+	 * Method to set the rate, a shorter period moves the next launch closer
+	 * while a longer one takes effect after the next launch.
+	 * @param rate double with executions per second, 0 stops the launching.
+	 */
+	protected void setRate(double rate) {
+		long now = getTime();
+		long newPeriod = ( 0.0 < rate ) ? Math.max(1L, (long)( NANOS_PER_SECOND / rate )) : 0L;
+		if( 0L == newPeriod ) {
+			cancelWakeUp();
+		} else if( 0L == period || now + newPeriod < nextLaunch ) {
+			nextLaunch = now + newPeriod;
+		}
+		this.rate = rate;
+		this.period = newPeriod;
+		if( 0L != period ) {
+			scheduleWakeUp(nextLaunch - now);
+		}
+	}
+	
+	/**
+	 * Method to schedule the next wake up, replaces any earlier wake up.
+	 * @param delay long with the nanoseconds until the wake up.
+	 */
+	protected void scheduleWakeUp(long delay) {
+		cancelWakeUp();
+		wakeUp = getContext().getScheduler().schedule(new Runnable() {
+			@Override
+			public void run() {
+				getContext().getTask().post(new Runnable() {
+					@Override
+					public void run() {
+						launchDue();
+					}
+				});
+			}
+		}, Math.max(0L, delay), TimeUnit.NANOSECONDS);
+	}
+	
+	/**
+	 * Method to cancel a scheduled wake up.
+	 */
+	protected void cancelWakeUp() {
+		if( null != wakeUp ) {
+			wakeUp.cancel(false);
+			wakeUp = null;
+		}
+	}
+	
+	/**
+	 * @return long with the current time in nanoseconds.
+	 */
+	protected long getTime() {
+		return System.nanoTime();
+	}
+	
+	/**
+	 * Method to drop the finished executions from the in-flight list.
+	 */
+	private void removeFinished() {
+		int size = 0;
+		for( int i = 0; i < inFlight.size(); i++ ) {
+			BaseTaskProcedure task = inFlight.get(i);
+			if( true != task.isProcedureFinished() ) {
+				inFlight.set(size++, task);
+			}
+		}
+		for( int i = inFlight.size() - 1; i >= size; i-- ) {
+			inFlight.remove(i);
+		}
+	}
+	
+	/**
+	 * Method to send the state of the schedule.
+	 * @param status CommandState to send.
+	 */
+	private void sendIndication(CommandState status) {
+		NukeExecuteIndMsgC pNukeExecuteInd = new NukeExecuteIndMsgC(getSendIF());
+		pNukeExecuteInd.setSource(getIdentity());
+		pNukeExecuteInd.setDestination(getSource());
+		pNukeExecuteInd.setTxID(getTxID());
+		pNukeExecuteInd.setSagaID(getSagaID());
+		pNukeExecuteInd.setProcessID(getProcessID());
+		pNukeExecuteInd.setStatus(status);
+		pNukeExecuteInd.send();
+	}
+
+	/**
+	 * @return the source of the request.
+	 */
+	public long getSource() {
+		return request.getSource();
+	}
+
+	/**
+	 * @return the sagaID
+	 */
+	public long getSagaID() {
+		return request.getSagaID();
+	}
+
+	/**
+	 * @return the processID of the schedule.
+	 */
+	public long getProcessID() {
+		return processID;
+	}
+
+	/**
+	 * @return the rate
+	 */
+	public double getRate() {
+		return rate;
+	}
+
+	/**
+	 * @return the maxInFlight
+	 */
+	public int getMaxInFlight() {
+		return maxInFlight;
+	}
+
+	/**
+	 * @return the number of launched executions.
+	 */
+	public long getLaunched() {
+		return launched;
+	}
+
+	/**
+	 * @return the number of launches skipped at the in-flight cap.
+	 */
+	public long getSkipped() {
+		return skipped;
+	}
+
+	/**
+	 * @return the executions launched and not known to be finished.
+	 */
+	protected List<BaseTaskProcedure> getInFlight() {
+		return inFlight;
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String toString() {
+		String retValue = "ArrivalRateProcedure{sagaID: " + getSagaID();
+		retValue += ", rate: " + getRate();
+		retValue += ", maxInFlight: " + getMaxInFlight();
+		retValue += ", launched: " + getLaunched();
+		retValue += ", skipped: " + getSkipped() + "}";
+		return retValue;
+	}
+
+}
@@ -15,19 +15,28 @@
  */
 package io.github.scrier.opus.nuke.task.procedures;
 
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import org.apache.logging.log4j.Logger;
 import org.apache.logging.log4j.LogManager;
 
 import com.hazelcast.partition.client.GetPartitionsRequest;
 
+import io.github.scrier.opus.common.TypedDispatcher;
 import io.github.scrier.opus.common.data.BaseDataC;
 import io.github.scrier.opus.common.message.BaseMsgC;
+import io.github.scrier.opus.common.nuke.NukeExecuteBatchReqMsgC;
+import io.github.scrier.opus.common.nuke.NukeExecuteBatchRspMsgC;
+import io.github.scrier.opus.common.nuke.NukeExecuteRateReqMsgC;
 import io.github.scrier.opus.common.nuke.NukeExecuteReqMsgC;
+import io.github.scrier.opus.common.nuke.NukeExecuteTargetReqMsgC;
 import io.github.scrier.opus.common.nuke.NukeMsgFactory;
 import io.github.scrier.opus.common.nuke.NukeStopAllReqMsgC;
 import io.github.scrier.opus.common.nuke.NukeStopAllRspMsgC;
+import io.github.scrier.opus.common.nuke.NukeStopProcessReqMsgC;
 import io.github.scrier.opus.common.nuke.NukeTerminateAllReqMsgC;
 import io.github.scrier.opus.common.nuke.NukeTerminateAllRspMsgC;
 import io.github.scrier.opus.nuke.task.BaseNukeProcedure;
@@ -37,6 +46,60 @@ public class DispatchProcedure extends BaseNukeProcedure {
 	
 	private static Logger log = LogManager.getLogger(DispatchProcedure.class);
 	
+	private static final TypedDispatcher<DispatchProcedure> dispatcher = new TypedDispatcher<DispatchProcedure>();
+	
+	static {
+		dispatcher.register(NukeMsgFactory.FACTORY_ID, NukeMsgFactory.NUKE_EXECUTE_REQ, NukeExecuteReqMsgC.class,
+				new TypedDispatcher.Handler<DispatchProcedure, NukeExecuteReqMsgC>() {
+			@Override
+			public void handle(DispatchProcedure target, NukeExecuteReqMsgC message) {
+				target.handleMessage(message);
+			}
+		});
+		dispatcher.register(NukeMsgFactory.FACTORY_ID, NukeMsgFactory.NUKE_EXECUTE_BATCH_REQ, NukeExecuteBatchReqMsgC.class,
+				new TypedDispatcher.Handler<DispatchProcedure, NukeExecuteBatchReqMsgC>() {
+			@Override
+			public void handle(DispatchProcedure target, NukeExecuteBatchReqMsgC message) {
+				target.handleMessage(message);
+			}
+		});
+		dispatcher.register(NukeMsgFactory.FACTORY_ID, NukeMsgFactory.NUKE_EXECUTE_RATE_REQ, NukeExecuteRateReqMsgC.class,
+				new TypedDispatcher.Handler<DispatchProcedure, NukeExecuteRateReqMsgC>() {
+			@Override
+			public void handle(DispatchProcedure target, NukeExecuteRateReqMsgC message) {
+				target.handleMessage(message);
+			}
+		});
+		dispatcher.register(NukeMsgFactory.FACTORY_ID, NukeMsgFactory.NUKE_EXECUTE_TARGET_REQ, NukeExecuteTargetReqMsgC.class,
+				new TypedDispatcher.Handler<DispatchProcedure, NukeExecuteTargetReqMsgC>() {
+			@Override
+			public void handle(DispatchProcedure target, NukeExecuteTargetReqMsgC message) {
+				target.handleMessage(message);
+			}
+		});
+		dispatcher.register(NukeMsgFactory.FACTORY_ID, NukeMsgFactory.NUKE_STOP_ALL_REQ, NukeStopAllReqMsgC.class,
+				new TypedDispatcher.Handler<DispatchProcedure, NukeStopAllReqMsgC>() {
+			@Override
+			public void handle(DispatchProcedure target, NukeStopAllReqMsgC message) {
+				target.handleMessage(message);
+			}
+		});
+		dispatcher.register(NukeMsgFactory.FACTORY_ID, NukeMsgFactory.NUKE_STOP_PROCESS_REQ, NukeStopProcessReqMsgC.class,
+				new TypedDispatcher.Handler<DispatchProcedure, NukeStopProcessReqMsgC>() {
+			@Override
+			public void handle(DispatchProcedure target, NukeStopProcessReqMsgC message) {
+				target.handleMessage(message);
+			}
+		});
+		dispatcher.register(NukeMsgFactory.FACTORY_ID, NukeMsgFactory.NUKE_TERMINATE_ALL_REQ, NukeTerminateAllReqMsgC.class,
+				new TypedDispatcher.Handler<DispatchProcedure, NukeTerminateAllReqMsgC>() {
+			@Override
+			public void handle(DispatchProcedure target, NukeTerminateAllReqMsgC message) {
+				target.handleMessage(message);
+			}
+		});
+	}
+	
 	public DispatchProcedure() {
 		log.trace("DispatchProcedure()");
 	}
@@ -53,42 +116,34 @@ public class DispatchProcedure extends BaseNukeProcedure {
 
 	@Override
   public int handleOnUpdated(BaseDataC value) {
-		log.trace("handleOnUpdated(" + value + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("handleOnUpdated(" + value + ")");
+		}
 	  return getState();
   }
 
 	@Override
   public int handleOnEvicted(BaseDataC value) {
-		log.trace("handleOnRemoved(" + value + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("handleOnRemoved(" + value + ")");
+		}
 	  return getState();
   }
 
 	@Override
   public int handleOnRemoved(Long key) {
-		log.trace("handleOnRemoved(" + key + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("handleOnRemoved(" + key + ")");
+		}
 	  return getState();
   }
 
 	@Override
   public int handleInMessage(BaseMsgC message) {
-		log.trace("handleInMessage(" + message + ")");
-		switch( message.getId() ) {
-			case NukeMsgFactory.NUKE_EXECUTE_REQ: {
-				NukeExecuteReqMsgC pNukeExecuteReq = new NukeExecuteReqMsgC(message);
-				handleMessage(pNukeExecuteReq);
-				break;
-			}
-			case NukeMsgFactory.NUKE_STOP_ALL_REQ: {
-				NukeStopAllReqMsgC pNukeStopAllReq = new NukeStopAllReqMsgC(message);
-				handleMessage(pNukeStopAllReq);
-				break;
-			}
-			case NukeMsgFactory.NUKE_TERMINATE_ALL_REQ: {
-				NukeTerminateAllReqMsgC pNukeTerminateAllReq = new NukeTerminateAllReqMsgC(message);
-				handleMessage(pNukeTerminateAllReq);
-				break;
-			}
+		if( log.isTraceEnabled() ) {
+			log.trace("handleInMessage(" + message + ")");
 		}
+		dispatcher.dispatch(this, message);
 	  return getState();
   }
 	
@@ -97,7 +152,9 @@ public class DispatchProcedure extends BaseNukeProcedure {
 	 * @param msg NukeExecuteReqMsgC instance.
 	 */
 	protected void handleMessage(NukeExecuteReqMsgC msg) {
-		log.trace("handleMessage(" + msg + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("handleMessage(" + msg + ")");
+		}
 		if( msg.isRepeated() ) {
 			registerProcedure(new RepeatedExecuteTaskProcedure(msg));
 		} else {
@@ -105,12 +162,129 @@ public class DispatchProcedure extends BaseNukeProcedure {
 		}
 	}
 	
+	/**
+	 * Method to handle the NukeExecuteBatchReqMsgC message, starts one task
+	 * per requested user and responds with all process ids in one message.
+	 * @param msg NukeExecuteBatchReqMsgC instance.
+	 */
+	protected void handleMessage(NukeExecuteBatchReqMsgC msg) {
+		if( log.isTraceEnabled() ) {
+			log.trace("handleMessage(" + msg + ")");
+		}
+		NukeExecuteReqMsgC request = new NukeExecuteReqMsgC();
+		request.setSource(msg.getSource());
+		request.setDestination(msg.getDestination());
+		request.setTxID(msg.getTxID());
+		request.setSagaID(msg.getSagaID());
+		request.setCommand(msg.getCommand());
+		request.setFolder(msg.getFolder());
+		request.setRepeated(msg.isRepeated());
+		List<Long> processIDs = new ArrayList<Long>(msg.getNoOfUsers());
+		log.info("Received message to start " + msg.getNoOfUsers() + " users.");
+		for( int i = 0; i < msg.getNoOfUsers(); i++ ) {
+			BaseTaskProcedure procedure = null;
+			if( msg.isRepeated() ) {
+				procedure = new RepeatedExecuteTaskProcedure(request);
+			} else {
+				procedure = new ExecuteTaskProcedure(request);
+			}
+			procedure.setBatched(true);
+			procedure.setProcessID(getUniqueID());
+			processIDs.add(procedure.getProcessID());
+			registerProcedure(procedure);
+		}
+		NukeExecuteBatchRspMsgC pNukeExecuteBatchRsp = new NukeExecuteBatchRspMsgC(getSendIF());
+		pNukeExecuteBatchRsp.setSource(getIdentity());
+		pNukeExecuteBatchRsp.setDestination(msg.getSource());
+		pNukeExecuteBatchRsp.setTxID(msg.getTxID());
+		pNukeExecuteBatchRsp.setSagaID(msg.getSagaID());
+		pNukeExecuteBatchRsp.setProcessIDs(processIDs);
+		pNukeExecuteBatchRsp.send();
+	}
+	
+	/**
+	 * Method to handle the NukeExecuteRateReqMsgC message, starts the arrival
+	 * rate of the saga or changes it if already started.
+	 * @param msg NukeExecuteRateReqMsgC instance.
+	 */
+	protected void handleMessage(NukeExecuteRateReqMsgC msg) {
+		if( log.isTraceEnabled() ) {
+			log.trace("handleMessage(" + msg + ")");
+		}
+		ArrivalRateProcedure procedure = null;
+		for( BaseNukeProcedure baseProc : getContext().getTask().getProcedures(ArrivalRateProcedure.class) ) {
+			if( msg.getSagaID() == ((ArrivalRateProcedure)baseProc).getSagaID() ) {
+				procedure = (ArrivalRateProcedure)baseProc;
+			}
+		}
+		if( null == procedure ) {
+			registerProcedure(new ArrivalRateProcedure(msg));
+		} else {
+			procedure.update(msg);
+		}
+	}
+	
+	/**
+	 * Method to handle the NukeExecuteTargetReqMsgC message, starts the target
+	 * users of the saga or changes the target if already started.
+	 * @param msg NukeExecuteTargetReqMsgC instance.
+	 */
+	protected void handleMessage(NukeExecuteTargetReqMsgC msg) {
+		if( log.isTraceEnabled() ) {
+			log.trace("handleMessage(" + msg + ")");
+		}
+		TargetUsersProcedure procedure = null;
+		for( BaseNukeProcedure baseProc : getContext().getTask().getProcedures(TargetUsersProcedure.class) ) {
+			if( msg.getSagaID() == ((TargetUsersProcedure)baseProc).getSagaID() ) {
+				procedure = (TargetUsersProcedure)baseProc;
+			}
+		}
+		if( null == procedure ) {
+			registerProcedure(new TargetUsersProcedure(msg));
+		} else {
+			procedure.update(msg);
+		}
+	}
+	
+	/**
+	 * Method to stop all target users, their running executions are stopped
+	 * or terminated with the other tasks.
+	 */
+	protected void stopTargetUsers() {
+		log.trace("stopTargetUsers()");
+		List<BaseNukeProcedure> targets = getContext().getTask().getProcedures(TargetUsersProcedure.class);
+		if( true != targets.isEmpty() ) {
+			log.info("Stopping " + targets.size() + " target users.");
+			for( BaseNukeProcedure baseProc : targets ) {
+				((TargetUsersProcedure)baseProc).stop();
+			}
+		}
+	}
+	
+	/**
+	 * Method to stop launching new executions from all arrival rates.
+	 */
+	protected void stopArrivalRates() {
+		log.trace("stopArrivalRates()");
+		List<BaseNukeProcedure> arrivalRates = getContext().getTask().getProcedures(ArrivalRateProcedure.class);
+		if( true != arrivalRates.isEmpty() ) {
+			log.info("Stopping " + arrivalRates.size() + " arrival rates.");
+			for( BaseNukeProcedure baseProc : arrivalRates ) {
+				((ArrivalRateProcedure)baseProc).stop();
+			}
+		}
+	}
+	
 	/**
 	 * Method to handle the NukeStopAllReqMsgC message.
 	 * @param msg NukeStopAllReqMsgC instance.
 	 */
 	protected void handleMessage(NukeStopAllReqMsgC msg) {
-		log.trace("handleMessage(" + msg + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("handleMessage(" + msg + ")");
+		}
+		stopArrivalRates();
+		stopTargetUsers();
 		List<BaseNukeProcedure> executeTasks = getContext().getTask().getProcedures(ExecuteTaskProcedure.class, RepeatedExecuteTaskProcedure.class);
 		String error = "";
 		int success = 0;
@@ -140,12 +314,36 @@ public class DispatchProcedure extends BaseNukeProcedure {
 		pNukeStopAllRsp.send();
 	}
 	
+	/**
+	 * Method to handle the NukeStopProcessReqMsgC message, the requested
+	 * processes stop repeating and report DONE when their execution finishes.
+	 * @param msg NukeStopProcessReqMsgC instance.
+	 */
+	protected void handleMessage(NukeStopProcessReqMsgC msg) {
+		if( log.isTraceEnabled() ) {
+			log.trace("handleMessage(" + msg + ")");
+		}
+		Set<Long> processIDs = new HashSet<Long>(msg.getProcessIDs());
+		int stopped = 0;
+		for( BaseNukeProcedure baseProc : getContext().getTask().getProcedures(RepeatedExecuteTaskProcedure.class) ) {
+			BaseTaskProcedure procedure = (BaseTaskProcedure)baseProc;
+			if( true == processIDs.contains(procedure.getProcessID()) && true == procedure.stopRepeating() ) {
+				stopped++;
+			}
+		}
+		log.info("Received message to stop " + processIDs.size() + " processes, stopped " + stopped + ".");
+	}
+	
 	/**
 	 * Method to handle the NukeTerminateAllReqMsgC message.
 	 * @param msg NukeTerminateAllReqMsgC instance.
 	 */
 	protected void handleMessage(NukeTerminateAllReqMsgC msg) {
-		log.trace("handleMessage(" + msg + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("handleMessage(" + msg + ")");
+		}
+		stopArrivalRates();
+		stopTargetUsers();
 		List<BaseNukeProcedure> executeTasks = getContext().getTask().getProcedures(ExecuteTaskProcedure.class, RepeatedExecuteTaskProcedure.class);
 		String error = "";
 		int success = 0;
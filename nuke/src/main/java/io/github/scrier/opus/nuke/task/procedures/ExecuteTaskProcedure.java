@@ -15,7 +15,6 @@
  */
 package io.github.scrier.opus.nuke.task.procedures;
 
-import java.io.File;
 import java.util.concurrent.Callable;
 
 import org.apache.logging.log4j.LogManager;
@@ -39,7 +38,9 @@ public class ExecuteTaskProcedure extends BaseTaskProcedure implements Callable<
 	
 	public ExecuteTaskProcedure(NukeExecuteReqMsgC message) {
 		super(message);
-		log.trace("ExecuteTaskProcedure(" + message + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("ExecuteTaskProcedure(" + message + ")");
+		}
 		setProcessID(Constants.HC_UNDEFINED);
 	}
 
@@ -50,11 +51,14 @@ public class ExecuteTaskProcedure extends BaseTaskProcedure implements Callable<
   public void init() throws Exception {
 		log.trace("init()");
 		log.info("init to id: " + getIdentity() + ".");
-		setProcessID(getUniqueID());
-		sendResponse();
-	  getExecutor().submit(this);
-	  getNukeInfo().setActiveCommands(getNukeInfo().getActiveCommands() + 1);
-	  getNukeInfo().setRequestedCommands(getNukeInfo().getRequestedCommands() + 1);
+		if( true != isBatched() ) {
+			setProcessID(getUniqueID());
+			sendResponse();
+		}
+	  if( true == submit(this) ) {
+		  getNukeInfo().setActiveCommands(getNukeInfo().getActiveCommands() + 1);
+		  getNukeInfo().setRequestedCommands(getNukeInfo().getRequestedCommands() + 1);
+	  }
   }
 
 	/**
@@ -66,19 +70,31 @@ public class ExecuteTaskProcedure extends BaseTaskProcedure implements Callable<
 		if( true != isProcedureFinished() ) {
 			log.fatal("shutDown called in a state where we arent finished.");
 			throw new RuntimeException("shutDown called in a state where we arent finished.");
-		} else {
+		} else if( true == isSubmitted() ) {
 		  getNukeInfo().setActiveCommands(getNukeInfo().getActiveCommands() - 1);
 		  getNukeInfo().setCompletedCommands(getNukeInfo().getCompletedCommands() + 1);
 		}
 		cleanUp();
   }
 
+	/**
+	 * {@inheritDoc}
+	 * Task procedures are stopped through the DispatchProcedure and reports
+	 * their own completion, so no events are needed.
+	 */
+	@Override
+	public int getSubscribedEvents() {
+		return NO_EVENTS;
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
 	@Override
   public int handleOnUpdated(BaseDataC data) {
-		log.trace("handleOnUpdated(" + data + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("handleOnUpdated(" + data + ")");
+		}
 	  return getState();
   }
 
@@ -87,7 +103,9 @@ public class ExecuteTaskProcedure extends BaseTaskProcedure implements Callable<
 	 */
 	@Override
   public int handleOnEvicted(BaseDataC data) {
-		log.trace("handleOnEvicted(" + data + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("handleOnEvicted(" + data + ")");
+		}
 	  return getState();
   }
 
@@ -96,7 +114,9 @@ public class ExecuteTaskProcedure extends BaseTaskProcedure implements Callable<
 	 */
 	@Override
   public int handleOnRemoved(Long key) {
-		log.trace("handleOnRemoved(" + key + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("handleOnRemoved(" + key + ")");
+		}
 	  return getState();
   }
 	
@@ -105,7 +125,9 @@ public class ExecuteTaskProcedure extends BaseTaskProcedure implements Callable<
 	 */
 	@Override
   public int handleInMessage(BaseMsgC message) {
-		log.trace("handleInMessage(" + message + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("handleInMessage(" + message + ")");
+		}
 //		switch( message.getId() ) {
 //			case NukeMsgFactory.NUKE_STOP_ALL_REQ: {
 //				NukeStopAllReqMsgC pNukeStopReq = new NukeStopAllReqMsgC(message);
@@ -127,24 +149,28 @@ public class ExecuteTaskProcedure extends BaseTaskProcedure implements Callable<
 	@Override
   public String call() throws Exception {
 		log.trace("call()");
-		setState(RUNNING);
+		getContext().userStarted();
+		// WORKING is sent before the state changes, a RUNNING procedure has reported it.
 		sendCommandStateUpdate(CommandState.WORKING);
-	  String executeString = getCommand();
-	  boolean result = false;
-  	if( getFolder().isEmpty() ) {
-  		result = executeProcess(executeString, null, null);
-  	} else {
-  		result = executeProcess(executeString, new File(getFolder()), null);
-  	}
-	  log.debug("[" + getTxID() + "] Process returns: " + result + ".");
-	  if( result ) {
-	  	sendCommandStateUpdate(CommandState.DONE);
-	  	setState(COMPLETED);
-	  } else {
-	  	sendCommandStateUpdate(CommandState.ABORTED, getErrorMessage());
-	  	setState(ABORTED);
-	  }
+		setState(RUNNING);
+		runCommand();
 	  return null;
   }
 
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected boolean handleProcessResult(boolean result) {
+		log.debug("[" + getTxID() + "] Process returns: " + result + ".");
+		if( result ) {
+			sendCommandStateUpdate(CommandState.DONE);
+			setState(COMPLETED);
+		} else {
+			sendCommandStateUpdate(CommandState.ABORTED, getErrorMessage());
+			setState(ABORTED);
+		}
+		return false;
+	}
+
 }
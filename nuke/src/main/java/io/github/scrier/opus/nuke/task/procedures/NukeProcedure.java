@@ -18,12 +18,15 @@ package io.github.scrier.opus.nuke.task.procedures;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import io.github.scrier.opus.common.Shared;
 import io.github.scrier.opus.common.data.BaseDataC;
 import io.github.scrier.opus.common.message.BaseMsgC;
 import io.github.scrier.opus.common.nuke.NukeDataFactory;
 import io.github.scrier.opus.common.nuke.NukeInfo;
 import io.github.scrier.opus.common.nuke.NukeState;
+import io.github.scrier.opus.nuke.process.CapacityCalibration;
 import io.github.scrier.opus.nuke.task.BaseTaskProcedure;
+import io.github.scrier.opus.nuke.task.Context;
 
 /**
  * Class that will handle state changes of the NukeInfo object related to this
@@ -52,11 +55,23 @@ public class NukeProcedure extends BaseTaskProcedure {
 		getNukeInfo().setNukeID(getIdentity());
 		getNukeInfo().setKey(getIdentity());
 		getNukeInfo().setState(NukeState.AVAILABLE);
+		calibrate();
 		log.info("[" + getTxID() + "] Publishing nuke info to map that we are available: " + getNukeInfo() + "."); 
 		addEntry(getNukeInfo());
 		setState(WAITING_TO_BE_TAKEN);
 	}
 
+	/**
+	 * Method to measure the capacity of the host before the nuke info is published.
+	 */
+	protected void calibrate() {
+		log.trace("calibrate()");
+		CapacityCalibration calibration = new CapacityCalibration(
+				Context.INSTANCE.getIntSetting(Shared.Settings.CALIBRATION_SPAWNS, CapacityCalibration.DEFAULT_SPAWNS));
+		calibration.calibrate();
+		calibration.update(getNukeInfo());
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -70,11 +85,13 @@ public class NukeProcedure extends BaseTaskProcedure {
 	 */
 	@Override
 	public int handleOnUpdated(BaseDataC data) {
-		log.trace("handleOnUpdated(" + data + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("handleOnUpdated(" + data + ")");
+		}
 		if( data.getKey() == getNukeInfo().getKey() ) {
 			switch( data.getId() ) {
 				case NukeDataFactory.NUKE_INFO: {
-					NukeInfo nukeInfo = new NukeInfo(data);
+					NukeInfo nukeInfo = (NukeInfo)data;
 					handleUpdate(nukeInfo);
 					break;
 				}
@@ -88,7 +105,9 @@ public class NukeProcedure extends BaseTaskProcedure {
 	 */
 	@Override
 	public int handleOnEvicted(BaseDataC data) {
-		log.trace("handleOnEvicted(" + data + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("handleOnEvicted(" + data + ")");
+		}
 		if( data.getKey() == getNukeInfo().getKey() ) {
 			switch( data.getId() ) {
 				case NukeDataFactory.NUKE_INFO: {
@@ -109,7 +128,9 @@ public class NukeProcedure extends BaseTaskProcedure {
 	 */
 	@Override
 	public int handleOnRemoved(Long key) {
-		log.trace("handleOnRemoved(" + key + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("handleOnRemoved(" + key + ")");
+		}
 		if( key == getNukeInfo() .getKey() ) {
 			setState(ABORTED);
 		}
@@ -129,7 +150,9 @@ public class NukeProcedure extends BaseTaskProcedure {
 	 * @param msg NukeInfo object.
 	 */
 	protected void handleUpdate(NukeInfo msg) {
-		log.trace("handleUpdate(" + msg + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("handleUpdate(" + msg + ")");
+		}
 		long fieldsChanged = getNukeInfo().compare(msg);
 		if( 0 < (NukeInfo.STATE_MODIFIED & fieldsChanged) ) handleNewState(msg.getState());
 		// the items below are modified by command and give a fals positive.
@@ -169,7 +192,9 @@ public class NukeProcedure extends BaseTaskProcedure {
 	 * @param state NukeState change to.
 	 */
 	protected void handleNewState(NukeState state) {
-		log.trace("handleNewState(" + state + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("handleNewState(" + state + ")");
+		}
 		log.info("[" + getTxID() + "] State changed from " + getNukeInfo().getState() + " to " + state + ".");
 		switch (state) {
 			case TAKEN: {
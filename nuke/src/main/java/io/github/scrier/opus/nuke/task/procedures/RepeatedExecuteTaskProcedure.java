@@ -16,6 +16,7 @@
 package io.github.scrier.opus.nuke.task.procedures;
 
 import java.io.File;
+import java.io.IOException;
 import java.util.concurrent.Callable;
 
 import org.apache.logging.log4j.LogManager;
@@ -23,6 +24,7 @@ import org.apache.logging.log4j.Logger;
 
 import io.github.scrier.opus.common.Shared;
 import io.github.scrier.opus.common.data.BaseDataC;
+import io.github.scrier.opus.common.exception.InvalidOperationException;
 import io.github.scrier.opus.common.message.BaseMsgC;
 import io.github.scrier.opus.common.nuke.CommandState;
 import io.github.scrier.opus.common.nuke.NukeExecuteReqMsgC;
@@ -44,7 +46,9 @@ public class RepeatedExecuteTaskProcedure extends BaseTaskProcedure implements C
 	
 	public RepeatedExecuteTaskProcedure(NukeExecuteReqMsgC message) {
 		super(message);
-		log.trace("RepeatedExecuteTaskProcedure(" + message + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("RepeatedExecuteTaskProcedure(" + message + ")");
+		}
 		setRepeated(message.isRepeated());
 		setCompletedCommands(0);
 	}
@@ -56,13 +60,14 @@ public class RepeatedExecuteTaskProcedure extends BaseTaskProcedure implements C
   public void init() throws Exception {
 		log.trace("init()");
 		log.info("init to id: " + getIdentity() + ".");
-		setProcessID(getUniqueID());
-		sendResponse();
+		if( true != isBatched() ) {
+			setProcessID(getUniqueID());
+			sendResponse();
+		}
 		if( !isRepeated() ) {
 			log.fatal("[" + getTxID() + "] Started a RepeatedExecuteTaskProcedure with command that isn't repeated.");
 			throw new RuntimeException("Started a RepeatedExecuteTaskProcedure with command that isn't repeated.");
-		} else {
-		  getExecutor().submit(this);
+		} else if( true == submit(this) ) {
 		  getNukeInfo().setActiveCommands(getNukeInfo().getActiveCommands() + 1);
 		  getNukeInfo().setRequestedCommands(getNukeInfo().getRequestedCommands() + 1);
 		}
@@ -78,18 +83,32 @@ public class RepeatedExecuteTaskProcedure extends BaseTaskProcedure implements C
 			throw new RuntimeException("shutDown called in a state where we arent finished.");
 		} else {
 			log.info("[" + getTxID() + "] shutDown of procedure after " + getCompletedCommands() + " commands.");
+		}
+		if( true == isSubmitted() ) {
 		  getNukeInfo().setActiveCommands(getNukeInfo().getActiveCommands() - 1);
 		  getNukeInfo().setCompletedCommands(getNukeInfo().getCompletedCommands() + 1);
 		}
 		cleanUp();
   }
 
+	/**
+	 * {@inheritDoc}
+	 * Task procedures are stopped through the DispatchProcedure and reports
+	 * their own completion, so no events are needed.
+	 */
+	@Override
+	public int getSubscribedEvents() {
+		return NO_EVENTS;
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
 	@Override
   public int handleOnUpdated(BaseDataC data) {
-		log.trace("handleOnUpdated(" + data + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("handleOnUpdated(" + data + ")");
+		}
 	  return getState();
   }
 
@@ -98,7 +117,9 @@ public class RepeatedExecuteTaskProcedure extends BaseTaskProcedure implements C
 	 */
 	@Override
   public int handleOnEvicted(BaseDataC data) {
-		log.trace("handleOnEvicted(" + data + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("handleOnEvicted(" + data + ")");
+		}
 	  return getState();
   }
 
@@ -107,7 +128,9 @@ public class RepeatedExecuteTaskProcedure extends BaseTaskProcedure implements C
 	 */
 	@Override
   public int handleOnRemoved(Long key) {
-		log.trace("handleOnRemoved(" + key + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("handleOnRemoved(" + key + ")");
+		}
 	  return getState();
   }
 	
@@ -116,7 +139,9 @@ public class RepeatedExecuteTaskProcedure extends BaseTaskProcedure implements C
 	 */
 	@Override
   public int handleInMessage(BaseMsgC message) {
-		log.trace("handleInMessage(" + message + ")");
+		if( log.isTraceEnabled() ) {
+			log.trace("handleInMessage(" + message + ")");
+		}
 		switch( message.getId() ) {
 //			case NukeMsgFactory.NUKE_STOP_ALL_REQ: {
 //				NukeStopAllReqMsgC pNukeStopReq = new NukeStopAllReqMsgC(message);
@@ -138,39 +163,50 @@ public class RepeatedExecuteTaskProcedure extends BaseTaskProcedure implements C
 	@Override
   public String call() throws Exception {
 		log.trace("call()");
-		setState(RUNNING);
+		getContext().userStarted();
+		// WORKING is sent before the state changes, a RUNNING procedure has reported it.
 		sendCommandStateUpdate(CommandState.WORKING);
-	  String executeString = getCommand();
-	  do {
-	  	File folder = null;
-	  	StreamGobbler gobbler = null;
-	  	if( true != getFolder().isEmpty() ) {
-	  		folder = new File(getFolder());
-	  	}
-	  	if( true == getContext().containsSetting(Shared.Settings.EXECUTE_GOBBLER_LEVEL) ) {
-	  		log.debug("Creating gobbler StreamGobblerToLog4j");
-	  		gobbler = new StreamGobblerToLog4j(getContext().getSetting(Shared.Settings.EXECUTE_GOBBLER_LEVEL), getMsgTxID());
-	  	}
-	  	else if( true == getContext().containsSetting(Shared.Settings.EXECUTE_GOBBLER_DIR) ) {
-	  		log.debug("Creating gobbler StreamGobblerToFile");
-	  		File target = new File(getContext().getSetting(Shared.Settings.EXECUTE_GOBBLER_DIR) + "/" + "process-" + getMsgTxID() + ".log");
-	  		target.createNewFile();
-	  		gobbler = new StreamGobblerToFile(target);
-	  	}
-	  	boolean result = executeProcess(executeString, folder, gobbler);
-		  log.debug("[" + getTxID() + "] Process returns: " + result + ".");
-		  if( !isRepeated() && result ) {
-		  	sendCommandStateUpdate(CommandState.DONE);
-		  	setState(COMPLETED);
-		  } else if( true != result ){
-		  	sendCommandStateUpdate(CommandState.ABORTED, getErrorMessage());
-		  	setState(ABORTED);
-		  }
-		  incCompletedCommands();
-	  } while ( RUNNING == getState() && isRepeated() );
+		setState(RUNNING);
+		runCommand();
 	  return null;
   }
 
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected boolean handleProcessResult(boolean result) {
+		log.debug("[" + getTxID() + "] Process returns: " + result + ".");
+		if( !isRepeated() && result ) {
+			sendCommandStateUpdate(CommandState.DONE);
+			setState(COMPLETED);
+		} else if( true != result ){
+			sendCommandStateUpdate(CommandState.ABORTED, getErrorMessage());
+			setState(ABORTED);
+		}
+		incCompletedCommands();
+		return RUNNING == getState() && isRepeated();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected StreamGobbler createGobbler() throws IOException, InvalidOperationException {
+		StreamGobbler retValue = null;
+		if( true == getContext().containsSetting(Shared.Settings.EXECUTE_GOBBLER_LEVEL) ) {
+			log.debug("Creating gobbler StreamGobblerToLog4j");
+			retValue = new StreamGobblerToLog4j(getContext().getSetting(Shared.Settings.EXECUTE_GOBBLER_LEVEL), getMsgTxID());
+		}
+		else if( true == getContext().containsSetting(Shared.Settings.EXECUTE_GOBBLER_DIR) ) {
+			log.debug("Creating gobbler StreamGobblerToFile");
+			File target = new File(getContext().getSetting(Shared.Settings.EXECUTE_GOBBLER_DIR) + "/" + "process-" + getMsgTxID() + ".log");
+			target.createNewFile();
+			retValue = new StreamGobblerToFile(target);
+		}
+		return retValue;
+	}
+
 	/**
 	 * @return the completedCommands
 	 */
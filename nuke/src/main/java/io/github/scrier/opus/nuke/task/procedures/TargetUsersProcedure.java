@@ -0,0 +1,508 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ * @author Andreas Joelsson (andreas.joelsson@gmail.com)
+ */
+package io.github.scrier.opus.nuke.task.procedures;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import io.github.scrier.opus.common.Constants;
+import io.github.scrier.opus.common.data.BaseDataC;
+import io.github.scrier.opus.common.message.BaseMsgC;
+import io.github.scrier.opus.common.nuke.CommandState;
+import io.github.scrier.opus.common.nuke.NukeExecuteIndMsgC;
+import io.github.scrier.opus.common.nuke.NukeExecuteReqMsgC;
+import io.github.scrier.opus.common.nuke.NukeExecuteRspMsgC;
+import io.github.scrier.opus.common.nuke.NukeExecuteTargetReqMsgC;
+import io.github.scrier.opus.nuke.task.BaseNukeProcedure;
+import io.github.scrier.opus.nuke.task.BaseTaskProcedure;
+
+/**
+ * Procedure converging the number of repeated users of a saga to a target,
+ * linearly over the ramp time of the request. Users are started to ramp up
+ * and stopped newest first to ramp down, users that end on their own are
+ * replaced. The users don't report their state, the number of running users
+ * is published as the achieved users of the NukeInfo instead. The target is
+ * reported as a process of its own, WORKING when started and DONE when stopped.
+ * When the ended users keep failing on their first execution the replacing
+ * backs off, and the target is reported ABORTED after MAX_FAILED_ROUNDS.
+ */
+public class TargetUsersProcedure extends BaseNukeProcedure {
+
+	private static Logger log = LogManager.getLogger(TargetUsersProcedure.class);
+	
+	private static final long NANOS_PER_SECOND = 1000000000L;
+	protected static final long MIN_STEP_NANOS = 10000000L;		///< Users due closer than this are started together.
+	protected static final long MAINTAIN_NANOS = NANOS_PER_SECOND;	///< How often ended users are replaced at the target.
+	protected static final int MAX_FAILED_ROUNDS = 5;	///< Rounds in a row of users failing on their first execution before the target aborts.
+	
+	public final int RUNNING = CREATED + 1;
+	
+	private NukeExecuteReqMsgC request;	///< Request the users are started from.
+	private long processID;				///< Process id of the target itself.
+	private int from;							///< Users when the ramp to the target started.
+	private int target;						///< Users to reach.
+	private long rampStart;				///< Time in nanoseconds the ramp started.
+	private long rampTime;				///< Nanoseconds to reach the target in.
+	private List<RepeatedExecuteTaskProcedure> users;
+	private int achieved;
+	private long started;
+	private long replaced;
+	private long aborted;
+	private int failedFirst;			///< Users that failed on their first execution of the last removed.
+	private int failedRounds;			///< Rounds in a row where every ended user failed on its first execution.
+	private ScheduledFuture<?> wakeUp;
+	
+	/**
+	 * Constructor
+	 * @param message NukeExecuteTargetReqMsgC starting the users.
+	 */
+	public TargetUsersProcedure(NukeExecuteTargetReqMsgC message) {
+		if( log.isTraceEnabled() ) {
+			log.trace("TargetUsersProcedure(" + message + ")");
+		}
+		request = new NukeExecuteReqMsgC();
+		request.setSource(message.getSource());
+		request.setDestination(message.getDestination());
+		request.setTxID(message.getTxID());
+		request.setSagaID(message.getSagaID());
+		request.setCommand(message.getCommand());
+		request.setFolder(message.getFolder());
+		request.setRepeated(true);
+		processID = Constants.HC_UNDEFINED;
+		from = 0;
+		target = message.getTarget();
+		rampStart = 0L;
+		rampTime = message.getRampSeconds() * NANOS_PER_SECOND;
+		users = new ArrayList<RepeatedExecuteTaskProcedure>();
+		achieved = 0;
+		started = 0L;
+		replaced = 0L;
+		aborted = 0L;
+		failedFirst = 0;
+		failedRounds = 0;
+		wakeUp = null;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void init() throws Exception {
+		log.trace("init()");
+		processID = getUniqueID();
+		NukeExecuteRspMsgC pNukeExecuteRsp = new NukeExecuteRspMsgC(getSendIF());
+		pNukeExecuteRsp.setSource(getIdentity());
+		pNukeExecuteRsp.setDestination(getSource());
+		pNukeExecuteRsp.setTxID(request.getTxID());
+		pNukeExecuteRsp.setSagaID(getSagaID());
+		pNukeExecuteRsp.setProcessID(getProcessID());
+		pNukeExecuteRsp.send();
+		sendIndication(CommandState.WORKING);
+		setState(RUNNING);
+		log.info("[" + getTxID() + "] Starting target of " + target + " users in " + ( rampTime / NANOS_PER_SECOND ) + " seconds.");
+		setTarget(target, rampTime);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void shutDown() throws Exception {
+		log.trace("shutDown()");
+		cancelWakeUp();
+		log.info("[" + getTxID() + "] Target users stopped after starting " + getStarted() + " users, " + getReplaced() + 
+				" of them replacing ended users, " + getAborted() + " users aborted.");
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * The target is changed and stopped through the DispatchProcedure.
+	 */
+	@Override
+	public int getSubscribedEvents() {
+		return NO_EVENTS;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int handleOnUpdated(BaseDataC data) {
+		return getState();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int handleOnEvicted(BaseDataC data) {
+		return getState();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int handleOnRemoved(Long key) {
+		return getState();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int handleInMessage(BaseMsgC message) {
+		return getState();
+	}
+	
+	/**
+	 * Method to change the target of running users, the new ramp starts from
+	 * the users achieved so far.
+	 * @param message NukeExecuteTargetReqMsgC with the new target.
+	 */
+	public void update(NukeExecuteTargetReqMsgC message) {
+		if( log.isTraceEnabled() ) {
+			log.trace("update(" + message + ")");
+		}
+		if( RUNNING != getState() ) {
+			log.error("[" + getTxID() + "] Received target update in state " + getState() + ", ignoring.");
+		} else {
+			log.info("[" + getTxID() + "] Changing target from " + target + " to " + message.getTarget() + " users in " + message.getRampSeconds() + " seconds.");
+			setTarget(message.getTarget(), message.getRampSeconds() * NANOS_PER_SECOND);
+		}
+	}
+	
+	/**
+	 * Method to stop all users, running executions are left to finish.
+	 * @return boolean true if the target was running.
+	 */
+	public boolean stop() {
+		log.trace("stop()");
+		boolean retValue = false;
+		if( RUNNING == getState() ) {
+			stopUsers();
+			sendIndication(CommandState.DONE);
+			setState(COMPLETED);
+			retValue = true;
+		}
+		return retValue;
+	}
+	
+	/**
+	 * Method to give up on the target when the users keep failing, the
+	 * running users are stopped and the target is reported aborted.
+	 */
+	protected void abort() {
+		log.error("[" + getTxID() + "] Aborting target of " + target + " users, the ended users failed on their first execution " + 
+				failedRounds + " rounds in a row, " + getAborted() + " of " + getStarted() + " started users aborted.");
+		stopUsers();
+		sendIndication(CommandState.ABORTED);
+		setState(ABORTED);
+	}
+	
+	/**
+	 * Method to start or stop users until the number the ramp is due at is
+	 * reached, called on the NukeTasks thread when woken up by the scheduler.
+	 */
+	protected void converge() {
+		log.trace("converge()");
+		if( RUNNING != getState() ) {
+			return;
+		}
+		long now = getTime();
+		int ended = removeFinished();
+		if( 0 < ended && ended == failedFirst ) {
+			failedRounds++;
+			log.warn("[" + getTxID() + "] All " + ended + " ended users failed on their first execution, " + failedRounds + 
+					" rounds in a row, " + getAborted() + " users aborted in total.");
+			if( MAX_FAILED_ROUNDS <= failedRounds ) {
+				abort();
+				return;
+			}
+		} else {
+			failedRounds = 0;
+		}
+		int desired = getDesired(now);
+		int replacing = Math.min(ended, desired - users.size());
+		if( desired == target && 0 < replacing ) {
+			log.debug("[" + getTxID() + "] Replacing " + replacing + " ended users.");
+			replaced += replacing;
+		}
+		while( users.size() < desired ) {
+			launch();
+		}
+		while( users.size() > desired ) {
+			users.remove(users.size() - 1).stopRepeating();
+		}
+		updateAchieved();
+		long delay = getNextChange(now) - now;
+		if( 0 < failedRounds ) {
+			delay = Math.max(delay, MAINTAIN_NANOS << failedRounds);
+		}
+		scheduleWakeUp(delay);
+	}
+	
+	/**
+	 * Method to start one user.
+	 */
+	protected void launch() {
+		RepeatedExecuteTaskProcedure user = new RepeatedExecuteTaskProcedure(request);
+		user.setBatched(true);
+		user.setReported(false);
+		user.setProcessID(getUniqueID());
+		registerProcedure(user);
+		users.add(user);
+		started++;
+	}
+	
+	/**
+	 * Method to start a ramp from the running users to a target.
+	 * @param target int with the users to reach.
+	 * @param rampTime long with the nanoseconds to reach them in.
+	 */
+	protected void setTarget(int target, long rampTime) {
+		removeFinished();
+		this.from = users.size();
+		this.target = Math.max(0, target);
+		this.rampStart = getTime();
+		this.rampTime = Math.max(0L, rampTime);
+		converge();
+	}
+	
+	/**
+	 * Method to get the users the ramp is due at, rounded towards where the
+	 * ramp started from.
+	 * @param now long with the time in nanoseconds.
+	 * @return int with the users.
+	 */
+	protected int getDesired(long now) {
+		int retValue = target;
+		long elapsed = now - rampStart;
+		if( elapsed < rampTime ) {
+			retValue = from + (int)( ( target - from ) * elapsed / rampTime );
+		}
+		return retValue;
+	}
+	
+	/**
+	 * Method to get when the users the ramp is due at changes next, at the
+	 * target it is time to check for ended users.
+	 * @param now long with the time in nanoseconds.
+	 * @return long with the time in nanoseconds.
+	 */
+	protected long getNextChange(long now) {
+		long retValue = now + MAINTAIN_NANOS;
+		long elapsed = now - rampStart;
+		long steps = Math.abs(target - from);
+		if( elapsed < rampTime && 0 < steps ) {
+			long step = Math.abs(getDesired(now) - from) + 1;
+			retValue = rampStart + Math.min(rampTime, ( step * rampTime + steps - 1 ) / steps);
+			retValue = Math.max(now + MIN_STEP_NANOS, retValue);
+		}
+		return retValue;
+	}
+	
+	/**
+	 * Method to schedule the next wake up, replaces any earlier wake up.
+	 * @param delay long with the nanoseconds until the wake up.
+	 */
+	protected void scheduleWakeUp(long delay) {
+		cancelWakeUp();
+		wakeUp = getContext().getScheduler().schedule(new Runnable() {
+			@Override
+			public void run() {
+				getContext().getTask().post(new Runnable() {
+					@Override
+					public void run() {
+						converge();
+					}
+				});
+			}
+		}, Math.max(0L, delay), TimeUnit.NANOSECONDS);
+	}
+	
+	/**
+	 * Method to cancel a scheduled wake up.
+	 */
+	protected void cancelWakeUp() {
+		if( null != wakeUp ) {
+			wakeUp.cancel(false);
+			wakeUp = null;
+		}
+	}
+	
+	/**
+	 * @return long with the current time in nanoseconds.
+	 */
+	protected long getTime() {
+		return System.nanoTime();
+	}
+	
+	/**
+	 * Method to stop all running users and publish that none are running.
+	 */
+	private void stopUsers() {
+		cancelWakeUp();
+		for( BaseTaskProcedure user : users ) {
+			user.stopRepeating();
+		}
+		users.clear();
+		target = 0;
+		updateAchieved();
+	}
+	
+	/**
+	 * Method to drop the users that ended from the list, the aborted ones
+	 * are counted and those that failed on their first execution noted.
+	 * @return int with the number of dropped users.
+	 */
+	private int removeFinished() {
+		int size = 0;
+		failedFirst = 0;
+		for( int i = 0; i < users.size(); i++ ) {
+			RepeatedExecuteTaskProcedure user = users.get(i);
+			if( true != user.isProcedureFinished() ) {
+				users.set(size++, user);
+			} else if( user.ABORTED == user.getState() ) {
+				aborted++;
+				if( 1 >= user.getCompletedCommands() ) {
+					failedFirst++;
+				}
+			}
+		}
+		int retValue = users.size() - size;
+		for( int i = users.size() - 1; i >= size; i-- ) {
+			users.remove(i);
+		}
+		return retValue;
+	}
+	
+	/**
+	 * Method to publish a change of the running users in the NukeInfo, it is
+	 * sent with the other changes when the NukeTasks entry is done.
+	 */
+	private void updateAchieved() {
+		if( achieved != users.size() ) {
+			getContext().getTask().getNukeInfo().setAchievedUsers(getContext().getTask().getNukeInfo().getAchievedUsers() + users.size() - achieved);
+			achieved = users.size();
+		}
+	}
+	
+	/**
+	 * Method to send the state of the target.
+	 * @param status CommandState to send.
+	 */
+	private void sendIndication(CommandState status) {
+		NukeExecuteIndMsgC pNukeExecuteInd = new NukeExecuteIndMsgC(getSendIF());
+		pNukeExecuteInd.setSource(getIdentity());
+		pNukeExecuteInd.setDestination(getSource());
+		pNukeExecuteInd.setTxID(getTxID());
+		pNukeExecuteInd.setSagaID(getSagaID());
+		pNukeExecuteInd.setProcessID(getProcessID());
+		pNukeExecuteInd.setStatus(status);
+		pNukeExecuteInd.send();
+	}
+
+	/**
+	 * @return the source of the request.
+	 */
+	public long getSource() {
+		return request.getSource();
+	}
+
+	/**
+	 * @return the sagaID
+	 */
+	public long getSagaID() {
+		return request.getSagaID();
+	}
+
+	/**
+	 * @return the processID of the target.
+	 */
+	public long getProcessID() {
+		return processID;
+	}
+
+	/**
+	 * @return the target
+	 */
+	public int getTarget() {
+		return target;
+	}
+
+	/**
+	 * @return the number of running users published as achieved.
+	 */
+	public int getAchieved() {
+		return achieved;
+	}
+
+	/**
+	 * @return the number of started users.
+	 */
+	public long getStarted() {
+		return started;
+	}
+
+	/**
+	 * @return the number of users started to replace ended users.
+	 */
+	public long getReplaced() {
+		return replaced;
+	}
+
+	/**
+	 * @return the number of users that ended aborted.
+	 */
+	public long getAborted() {
+		return aborted;
+	}
+
+	/**
+	 * @return the number of rounds in a row the ended users failed on their first execution.
+	 */
+	public int getFailedRounds() {
+		return failedRounds;
+	}
+	
+	/**
+	 * @return the running users.
+	 */
+	protected List<RepeatedExecuteTaskProcedure> getUsers() {
+		return users;
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String toString() {
+		String retValue = "TargetUsersProcedure{sagaID: " + getSagaID();
+		retValue += ", target: " + getTarget();
+		retValue += ", achieved: " + getAchieved();
+		retValue += ", started: " + getStarted();
+		retValue += ", replaced: " + getReplaced();
+		retValue += ", aborted: " + getAborted() + "}";
+		return retValue;
+	}
+
+}
@@ -0,0 +1,56 @@
+package io.github.scrier.opus.nuke.process;
+
+import static org.junit.Assert.*;
+
+import io.github.scrier.opus.common.nuke.NukeInfo;
+
+import org.junit.Test;
+
+public class CapacityCalibrationTest {
+
+	@Test
+	public void testCapacityFromCores() {
+		assertEquals(400, CapacityCalibration.getCapacity(4, 0L, 0));
+		assertEquals(6400, CapacityCalibration.getCapacity(64, 0L, 0));
+		assertEquals(100, CapacityCalibration.getCapacity(0, 0L, 0));
+	}
+
+	@Test
+	public void testCapacityLimitedByMemory() {
+		assertEquals(200, CapacityCalibration.getCapacity(4, 2048L, 0));
+		assertEquals(400, CapacityCalibration.getCapacity(4, 65536L, 0));
+	}
+
+	@Test
+	public void testCapacityScaledBySpawnRate() {
+		assertEquals(800, CapacityCalibration.getCapacity(4, 0L, 2 * CapacityCalibration.REFERENCE_SPAWN_RATE));
+		assertEquals(200, CapacityCalibration.getCapacity(4, 0L, CapacityCalibration.REFERENCE_SPAWN_RATE / 2));
+		assertEquals(100, CapacityCalibration.getCapacity(4, 0L, 1));
+		assertEquals(1600, CapacityCalibration.getCapacity(4, 0L, 100 * CapacityCalibration.REFERENCE_SPAWN_RATE));
+	}
+
+	@Test
+	public void testCalibrateWithoutSpawns() {
+		CapacityCalibration testObject = new CapacityCalibration(0);
+		int capacity = testObject.calibrate();
+		assertEquals(Runtime.getRuntime().availableProcessors(), testObject.getCores());
+		assertTrue(0 < testObject.getMemory());
+		assertEquals(0, testObject.getSpawnRate());
+		assertEquals(CapacityCalibration.getCapacity(testObject.getCores(), testObject.getMemory(), 0), capacity);
+		NukeInfo info = new NukeInfo();
+		testObject.update(info);
+		assertEquals(testObject.getCores(), info.getCores());
+		assertEquals(testObject.getMemory(), info.getMemory());
+		assertEquals(0, info.getSpawnRate());
+		assertEquals(capacity, info.getCapacity());
+	}
+
+	@Test
+	public void testCalibrateInvalidCommand() {
+		CapacityCalibration testObject = new CapacityCalibration(2, new String[] { "no-such-command-for-calibration" });
+		testObject.calibrate();
+		assertEquals(0, testObject.getSpawnRate());
+		assertTrue(0 < testObject.getCapacity());
+	}
+
+}
@@ -0,0 +1,53 @@
+package io.github.scrier.opus.nuke.process;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ProcessHandlerTest {
+
+	private File target;
+
+	@Before
+	public void setUp() throws Exception {
+		target = File.createTempFile("process-handler", ".log");
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		target.delete();
+	}
+
+	@Test
+	public void testRedirectOutputAppends() throws Exception {
+		for( int i = 0; i < 2; i++ ) {
+			ProcessHandler testObject = new ProcessHandler(new String[] { "echo", "line" + i });
+			testObject.redirectErrorStream(true);
+			testObject.redirectOutput(target);
+			Process process = testObject.start();
+			assertEquals(-1, process.getInputStream().read());
+			assertEquals(0, process.waitFor());
+		}
+		List<String> lines = Files.readAllLines(target.toPath());
+		assertEquals(2, lines.size());
+		assertEquals("line0", lines.get(0));
+		assertEquals("line1", lines.get(1));
+	}
+
+	@Test
+	public void testDiscardOutput() throws Exception {
+		ProcessHandler testObject = new ProcessHandler(new String[] { "echo", "discarded" });
+		testObject.redirectErrorStream(true);
+		testObject.discardOutput();
+		Process process = testObject.start();
+		assertEquals(-1, process.getInputStream().read());
+		assertEquals(0, process.waitFor());
+	}
+
+}
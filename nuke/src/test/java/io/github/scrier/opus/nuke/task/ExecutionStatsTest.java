@@ -0,0 +1,104 @@
+package io.github.scrier.opus.nuke.task;
+
+import static org.junit.Assert.*;
+
+import io.github.scrier.opus.common.nuke.NukeInfo;
+
+import org.junit.Test;
+
+public class ExecutionStatsTest {
+
+	@Test
+	public void testConstructor() {
+		ExecutionStats testObject = new ExecutionStats(10);
+		assertEquals(0L, testObject.getExecutions());
+		assertEquals(0L, testObject.getFailedExecutions());
+		assertEquals(0, testObject.getWindowSize());
+		assertEquals(0L, testObject.getPercentile(95));
+	}
+
+	@Test(expected=IllegalArgumentException.class)
+	public void testInvalidWindow() {
+		new ExecutionStats(0);
+	}
+
+	@Test
+	public void testPercentile() {
+		ExecutionStats testObject = new ExecutionStats(100);
+		for( int i = 100; i >= 1; i-- ) {
+			testObject.record(i, true);
+		}
+		assertEquals(95L, testObject.getPercentile(95));
+		assertEquals(50L, testObject.getPercentile(50));
+		assertEquals(100L, testObject.getPercentile(100));
+		assertEquals(1L, testObject.getPercentile(1));
+	}
+
+	@Test
+	public void testWindowKeepsLatest() {
+		ExecutionStats testObject = new ExecutionStats(4);
+		testObject.record(1000, true);
+		testObject.record(1000, true);
+		for( int i = 0; i < 4; i++ ) {
+			testObject.record(10, true);
+		}
+		assertEquals(4, testObject.getWindowSize());
+		assertEquals(6L, testObject.getExecutions());
+		assertEquals(10L, testObject.getPercentile(95));
+	}
+
+	@Test
+	public void testFailed() {
+		ExecutionStats testObject = new ExecutionStats(10);
+		testObject.record(5, true);
+		testObject.record(5, false);
+		testObject.record(5, false);
+		assertEquals(3L, testObject.getExecutions());
+		assertEquals(2L, testObject.getFailedExecutions());
+	}
+
+	@Test
+	public void testUpdate() {
+		ExecutionStats testObject = new ExecutionStats(10);
+		NukeInfo info = new NukeInfo();
+		assertFalse(testObject.update(info));
+		assertFalse(info.isValuesModified());
+		testObject.record(20, true);
+		testObject.record(40, false);
+		assertTrue(testObject.update(info));
+		assertEquals(2L, info.getExecutions());
+		assertEquals(1L, info.getFailedExecutions());
+		assertEquals(40, info.getExecutionTimeP95());
+		assertTrue(info.isValueModified(NukeInfo.EXECUTION_TIME_P95_MODIFIED));
+		info.resetValuesModified();
+		assertFalse(testObject.update(info));
+		assertFalse(info.isValuesModified());
+	}
+
+	@Test
+	public void testLiveUsers() {
+		ExecutionStats testObject = new ExecutionStats(10);
+		assertEquals(1, testObject.userStarted());
+		assertEquals(2, testObject.userStarted());
+		assertEquals(1, testObject.userStopped());
+		assertEquals(0, testObject.userStopped());
+		assertEquals(0, testObject.userStopped());
+		assertEquals(0, testObject.getLiveUsers());
+	}
+
+	@Test
+	public void testUpdateLiveUsers() {
+		ExecutionStats testObject = new ExecutionStats(10);
+		NukeInfo info = new NukeInfo();
+		testObject.userStarted();
+		assertTrue(testObject.update(info));
+		assertEquals(1, info.getNumberOfThreads());
+		assertTrue(info.isValueModified(NukeInfo.NUMBER_OF_THREADS_MODIFIED));
+		assertFalse(info.isValueModified(NukeInfo.EXECUTIONS_MODIFIED));
+		info.resetValuesModified();
+		testObject.userStopped();
+		assertTrue(testObject.update(info));
+		assertEquals(0, info.getNumberOfThreads());
+	}
+
+}
@@ -0,0 +1,125 @@
+package io.github.scrier.opus.nuke.task;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import io.github.scrier.opus.common.message.BaseMsgC;
+import io.github.scrier.opus.common.message.SendIF;
+import io.github.scrier.opus.common.nuke.CommandState;
+import io.github.scrier.opus.common.nuke.NukeExecuteBatchIndMsgC;
+import io.github.scrier.opus.common.nuke.NukeExecuteIndMsgC;
+import io.github.scrier.opus.common.nuke.NukeMsgFactory;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class IndicationCoalescerTest {
+
+	private List<BaseMsgC> sent;
+	private SendIF sendIF;
+	private IndicationCoalescer testObject;
+
+	@Before
+	public void setUp() throws Exception {
+		sent = new ArrayList<BaseMsgC>();
+		sendIF = new SendIF() {
+			@Override
+			public void publishMessage(BaseMsgC message) {
+				sent.add(message);
+			}
+		};
+		testObject = null;
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		if( null != testObject ) {
+			testObject.shutDown();
+		}
+	}
+
+	@Test
+	public void testDisabled() {
+		testObject = new IndicationCoalescer(sendIF, 1L, 0, 10);
+		assertFalse(testObject.isEnabled());
+	}
+
+	@Test
+	public void testFlushOnEvents() {
+		testObject = new IndicationCoalescer(sendIF, 1L, 60000, 3);
+		assertTrue(testObject.isEnabled());
+		testObject.add(2L, 10L, 1, 100L, CommandState.WORKING);
+		testObject.add(2L, 10L, 1, 101L, CommandState.WORKING);
+		assertEquals(0, sent.size());
+		assertEquals(2, testObject.getPendingEvents());
+		testObject.add(2L, 10L, 1, 100L, CommandState.DONE);
+		assertEquals(1, sent.size());
+		assertEquals(0, testObject.getPendingEvents());
+		NukeExecuteBatchIndMsgC message = (NukeExecuteBatchIndMsgC)sent.get(0);
+		assertEquals(1L, message.getSource());
+		assertEquals(2L, message.getDestination());
+		assertEquals(10L, message.getSagaID());
+		assertEquals(3, message.size());
+		assertEquals(CommandState.DONE, message.getIndication(2).getStatus());
+		assertEquals(1, testObject.getFlushedMessages());
+		assertEquals(3, testObject.getFlushedEvents());
+	}
+
+	@Test
+	public void testGroupedPerDestinationAndSaga() {
+		testObject = new IndicationCoalescer(sendIF, 1L, 60000, 0);
+		testObject.add(2L, 10L, 1, 100L, CommandState.WORKING);
+		testObject.add(2L, 11L, 2, 200L, CommandState.WORKING);
+		testObject.add(3L, 10L, 3, 300L, CommandState.WORKING);
+		testObject.add(2L, 10L, 4, 101L, CommandState.WORKING);
+		testObject.flush();
+		assertEquals(3, sent.size());
+		assertEquals(2, ((NukeExecuteBatchIndMsgC)sent.get(0)).size());
+		assertEquals(1, ((NukeExecuteBatchIndMsgC)sent.get(1)).size());
+		assertEquals(1, ((NukeExecuteBatchIndMsgC)sent.get(2)).size());
+	}
+
+	@Test
+	public void testBypassFlushesSameTargetFirst() {
+		testObject = new IndicationCoalescer(sendIF, 1L, 60000, 0);
+		testObject.add(2L, 10L, 1, 100L, CommandState.WORKING);
+		testObject.add(2L, 11L, 2, 200L, CommandState.WORKING);
+		NukeExecuteIndMsgC aborted = new NukeExecuteIndMsgC(sendIF);
+		aborted.setDestination(2L);
+		aborted.setSagaID(10L);
+		aborted.setProcessID(100L);
+		aborted.setStatus(CommandState.ABORTED);
+		testObject.bypass(aborted);
+		assertEquals(2, sent.size());
+		assertEquals(NukeMsgFactory.NUKE_EXECUTE_BATCH_IND, sent.get(0).getId());
+		assertEquals(10L, sent.get(0).getSagaID());
+		assertSame(aborted, sent.get(1));
+		assertEquals(1, testObject.getPendingEvents());
+	}
+
+	@Test
+	public void testShutDownFlushes() {
+		testObject = new IndicationCoalescer(sendIF, 1L, 60000, 0);
+		testObject.start();
+		testObject.add(2L, 10L, 1, 100L, CommandState.DONE);
+		testObject.shutDown();
+		assertEquals(1, sent.size());
+		assertEquals(0, testObject.getPendingEvents());
+	}
+
+	@Test
+	public void testFlushOnInterval() throws InterruptedException {
+		testObject = new IndicationCoalescer(sendIF, 1L, 10, 0);
+		testObject.start();
+		testObject.add(2L, 10L, 1, 100L, CommandState.DONE);
+		for( int i = 0; i < 100 && 0 == testObject.getFlushedMessages(); i++ ) {
+			Thread.sleep(10);
+		}
+		assertEquals(0, testObject.getPendingEvents());
+		assertEquals(1, testObject.getFlushedMessages());
+	}
+
+}
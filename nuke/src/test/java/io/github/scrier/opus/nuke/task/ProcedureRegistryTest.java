@@ -0,0 +1,145 @@
+package io.github.scrier.opus.nuke.task;
+
+import static org.junit.Assert.*;
+import static org.mockito.Matchers.any;
+
+import java.util.List;
+
+import io.github.scrier.opus.TestHelper;
+import io.github.scrier.opus.common.Shared;
+import io.github.scrier.opus.common.nuke.NukeExecuteReqMsgC;
+import io.github.scrier.opus.nuke.BaseActiveObjectMock;
+import io.github.scrier.opus.nuke.task.procedures.DispatchProcedure;
+import io.github.scrier.opus.nuke.task.procedures.ExecuteTaskProcedure;
+import io.github.scrier.opus.nuke.task.procedures.RepeatedExecuteTaskProcedure;
+
+import org.apache.logging.log4j.Level;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IMap;
+
+public class ProcedureRegistryTest {
+	
+	private static TestHelper helper = TestHelper.INSTANCE;
+	
+	private Context theContext = Context.INSTANCE;
+	private HazelcastInstance instance;
+	private NukeExecuteReqMsgC command;
+	private ProcedureRegistry testObject;
+
+	@BeforeClass
+	public static void setUpBeforeClass() throws Exception {
+		helper.setLogLevel(Level.TRACE);
+	}
+
+	@SuppressWarnings("rawtypes")
+	@Before
+	public void setUp() throws Exception {
+		instance = helper.mockHazelcast();
+		helper.mockIdGen(instance, Shared.Hazelcast.COMMON_MAP_UNIQUE_ID, 3321L);
+		helper.mockIdGen(instance, Shared.Hazelcast.COMMON_UNIQUE_ID, 4421L);
+		helper.mockMap(instance, Shared.Hazelcast.BASE_NUKE_MAP);
+		IMap settingsMap = helper.mockMap(instance, Shared.Hazelcast.SETTINGS_MAP);
+		Mockito.when(settingsMap.containsKey(any())).thenReturn(false);
+		BaseActiveObjectMock theBaseAOC = new BaseActiveObjectMock(instance);
+		theBaseAOC.preInit();
+		theContext.init(new NukeTasks(instance), theBaseAOC);
+		command = new NukeExecuteReqMsgC();
+		command.setCommand("sleep 1");
+		testObject = new ProcedureRegistry();
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		theContext.shutDown();
+		instance = null;
+	}
+
+	@Test
+	public void testConstructor() {
+		assertEquals(0, testObject.size());
+		assertTrue(testObject.getProcedures().isEmpty());
+		assertTrue(testObject.getSubscribers(BaseNukeProcedure.ON_MESSAGE).isEmpty());
+	}
+	
+	@Test
+	public void testAdd() {
+		DispatchProcedure dispatch = new DispatchProcedure();
+		assertTrue(testObject.add(dispatch));
+		assertFalse(testObject.add(dispatch));
+		assertEquals(1, testObject.size());
+		assertTrue(testObject.contains(dispatch));
+		assertTrue(testObject.getSubscribers(BaseNukeProcedure.ON_UPDATED).contains(dispatch));
+		assertTrue(testObject.getSubscribers(BaseNukeProcedure.ON_EVICTED).contains(dispatch));
+		assertTrue(testObject.getSubscribers(BaseNukeProcedure.ON_REMOVED).contains(dispatch));
+		assertTrue(testObject.getSubscribers(BaseNukeProcedure.ON_MESSAGE).contains(dispatch));
+	}
+	
+	@Test
+	public void testAddTaskProcedureNoEvents() {
+		ExecuteTaskProcedure task = new ExecuteTaskProcedure(command);
+		task.setProcessID(1234L);
+		testObject.add(task);
+		assertEquals(1, testObject.size());
+		assertTrue(testObject.getSubscribers(BaseNukeProcedure.ON_UPDATED).isEmpty());
+		assertTrue(testObject.getSubscribers(BaseNukeProcedure.ON_EVICTED).isEmpty());
+		assertTrue(testObject.getSubscribers(BaseNukeProcedure.ON_REMOVED).isEmpty());
+		assertTrue(testObject.getSubscribers(BaseNukeProcedure.ON_MESSAGE).isEmpty());
+		assertSame(task, testObject.getProcedure(1234L));
+		task.cleanUp();
+	}
+	
+	@Test
+	public void testGetProceduresByType() {
+		DispatchProcedure dispatch = new DispatchProcedure();
+		ExecuteTaskProcedure task = new ExecuteTaskProcedure(command);
+		RepeatedExecuteTaskProcedure repeated = new RepeatedExecuteTaskProcedure(command);
+		testObject.add(dispatch);
+		testObject.add(task);
+		testObject.add(repeated);
+		List<BaseNukeProcedure> result = testObject.getProcedures(ExecuteTaskProcedure.class, RepeatedExecuteTaskProcedure.class);
+		assertEquals(2, result.size());
+		assertSame(task, result.get(0));
+		assertSame(repeated, result.get(1));
+		assertEquals(1, testObject.getProcedures(DispatchProcedure.class).size());
+		task.cleanUp();
+		repeated.cleanUp();
+	}
+	
+	@Test
+	public void testRemove() {
+		DispatchProcedure dispatch = new DispatchProcedure();
+		ExecuteTaskProcedure task = new ExecuteTaskProcedure(command);
+		task.setProcessID(1234L);
+		testObject.add(dispatch);
+		testObject.add(task);
+		assertTrue(testObject.remove(task));
+		assertFalse(testObject.remove(task));
+		assertNull(testObject.getProcedure(1234L));
+		assertTrue(testObject.getProcedures(ExecuteTaskProcedure.class).isEmpty());
+		assertTrue(testObject.remove(dispatch));
+		assertTrue(testObject.getSubscribers(BaseNukeProcedure.ON_MESSAGE).isEmpty());
+		assertEquals(0, testObject.size());
+		task.cleanUp();
+	}
+	
+	@Test
+	public void testClear() {
+		testObject.add(new DispatchProcedure());
+		testObject.clear();
+		assertEquals(0, testObject.size());
+		assertTrue(testObject.getProcedures(DispatchProcedure.class).isEmpty());
+		assertTrue(testObject.getSubscribers(BaseNukeProcedure.ON_UPDATED).isEmpty());
+	}
+	
+	@Test(expected=IllegalArgumentException.class)
+	public void testGetSubscribersUnknown() {
+		testObject.getSubscribers(BaseNukeProcedure.ALL_EVENTS);
+	}
+
+}
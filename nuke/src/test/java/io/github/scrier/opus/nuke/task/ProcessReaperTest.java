@@ -0,0 +1,111 @@
+package io.github.scrier.opus.nuke.task;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ProcessReaperTest {
+
+	private List<Integer> exits;
+	private ProcessReaper.ExitListener listener;
+	private ProcessReaper testObject;
+
+	@Before
+	public void setUp() throws Exception {
+		exits = Collections.synchronizedList(new ArrayList<Integer>());
+		listener = new ProcessReaper.ExitListener() {
+			@Override
+			public void onExit(int retCode) {
+				exits.add(retCode);
+			}
+		};
+		testObject = null;
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		if( null != testObject ) {
+			testObject.shutDown();
+		}
+	}
+
+	@Test
+	public void testExitValues() throws Exception {
+		testObject = new ProcessReaper(1, 5);
+		testObject.start();
+		testObject.watch(new ProcessBuilder("true").start(), listener);
+		testObject.watch(new ProcessBuilder("false").start(), listener);
+		waitForExits(2);
+		assertEquals(2, exits.size());
+		assertTrue(exits.contains(0));
+		assertTrue(exits.contains(1));
+		assertEquals(2, testObject.getReaped());
+		assertEquals(0, testObject.getWatched());
+	}
+
+	@Test
+	public void testManyProcessesFewReapers() throws Exception {
+		testObject = new ProcessReaper(2, 5);
+		testObject.start();
+		for( int i = 0; i < 20; i++ ) {
+			testObject.watch(new ProcessBuilder("true").start(), listener);
+		}
+		waitForExits(20);
+		assertEquals(20, exits.size());
+		assertEquals(20, testObject.getReaped());
+	}
+
+	@Test
+	public void testRunningProcessWatched() throws Exception {
+		testObject = new ProcessReaper(1, 5);
+		testObject.start();
+		Process process = new ProcessBuilder("sleep", "10").start();
+		testObject.watch(process, listener);
+		Thread.sleep(50);
+		assertEquals(0, exits.size());
+		assertEquals(1, testObject.getWatched());
+		process.destroy();
+		waitForExits(1);
+		assertEquals(1, exits.size());
+		assertEquals(0, testObject.getWatched());
+	}
+
+	@Test
+	public void testListenerException() throws Exception {
+		testObject = new ProcessReaper(1, 5);
+		testObject.start();
+		testObject.watch(new ProcessBuilder("true").start(), new ProcessReaper.ExitListener() {
+			@Override
+			public void onExit(int retCode) {
+				throw new RuntimeException("Listener failure.");
+			}
+		});
+		testObject.watch(new ProcessBuilder("true").start(), listener);
+		waitForExits(1);
+		assertEquals(1, exits.size());
+		assertEquals(2, testObject.getReaped());
+	}
+
+	@Test(expected=IllegalArgumentException.class)
+	public void testNoReapers() {
+		new ProcessReaper(0, 5);
+	}
+
+	@Test(expected=IllegalArgumentException.class)
+	public void testNoInterval() {
+		new ProcessReaper(1, 0);
+	}
+
+	private void waitForExits(int expected) throws InterruptedException {
+		for( int i = 0; i < 500 && exits.size() < expected; i++ ) {
+			Thread.sleep(10);
+		}
+	}
+
+}
@@ -0,0 +1,70 @@
+package io.github.scrier.opus.nuke.task;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.nio.file.Files;
+import java.util.List;
+
+import io.github.scrier.opus.nuke.process.ProcessHandler;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class StreamGobblerToFileTest {
+
+	private File target;
+
+	@Before
+	public void setUp() throws Exception {
+		target = File.createTempFile("gobbler", ".log");
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		target.delete();
+	}
+
+	@Test
+	public void testLinesAppended() throws Exception {
+		for( int i = 0; i < 2; i++ ) {
+			StreamGobblerToFile testObject = new StreamGobblerToFile(target);
+			testObject.setInputStream(new ByteArrayInputStream(("first" + i + "\nsecond" + i + "\n").getBytes("UTF-8")));
+			testObject.start();
+			testObject.join(1000);
+		}
+		List<String> lines = Files.readAllLines(target.toPath());
+		assertEquals(4, lines.size());
+		assertEquals("first0", lines.get(0));
+		assertEquals("second0", lines.get(1));
+		assertEquals("first1", lines.get(2));
+		assertEquals("second1", lines.get(3));
+	}
+
+	@Test
+	public void testRedirect() throws Exception {
+		StreamGobblerToFile testObject = new StreamGobblerToFile(target);
+		ProcessHandler handler = new ProcessHandler(new String[] { "echo", "redirected" });
+		assertTrue(testObject.redirect(handler));
+		assertEquals(0, handler.start().waitFor());
+		List<String> lines = Files.readAllLines(target.toPath());
+		assertEquals(1, lines.size());
+		assertEquals("redirected", lines.get(0));
+	}
+
+	@Test
+	public void testNoRedirectWithStream() throws Exception {
+		StreamGobblerToFile testObject = new StreamGobblerToFile(new ByteArrayInputStream(new byte[0]), target);
+		assertFalse(testObject.redirect(new ProcessHandler(new String[] { "echo" })));
+		testObject.onExit();
+	}
+
+	@Test
+	public void testLog4jNotRedirected() {
+		StreamGobblerToLog4j testObject = new StreamGobblerToLog4j("INFO", 1);
+		assertFalse(testObject.redirect(new ProcessHandler(new String[] { "echo" })));
+	}
+
+}
@@ -0,0 +1,141 @@
+package io.github.scrier.opus.nuke.task;
+
+import static org.junit.Assert.*;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import io.github.scrier.opus.common.Shared;
+import io.github.scrier.opus.common.nuke.NukeInfo;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TaskExecutorTest {
+
+	private CountDownLatch release;
+	private TaskExecutor testObject;
+
+	@Before
+	public void setUp() throws Exception {
+		release = new CountDownLatch(1);
+		testObject = null;
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		release.countDown();
+		if( null != testObject ) {
+			testObject.shutDown(1);
+		}
+	}
+
+	@Test
+	public void testPool() throws Exception {
+		testObject = new TaskExecutor(Shared.Values.EXECUTOR_POOL, 1, 0);
+		assertEquals(Shared.Values.EXECUTOR_POOL, testObject.getStrategy());
+		assertEquals(1, testObject.getThreads());
+		testObject.submit(blocking());
+		Future<String> queued = testObject.submit(blocking());
+		assertFalse(queued.isDone());
+		release.countDown();
+		assertEquals("done", queued.get(1, TimeUnit.SECONDS));
+		assertEquals(2, testObject.getSubmitted());
+		assertEquals(0, testObject.getRejected());
+	}
+
+	@Test
+	public void testNullStrategy() {
+		testObject = new TaskExecutor(null, 1, 0);
+		assertEquals(Shared.Values.EXECUTOR_POOL, testObject.getStrategy());
+	}
+
+	@Test
+	public void testBoundedRejects() throws Exception {
+		testObject = new TaskExecutor(Shared.Values.EXECUTOR_BOUNDED, 1, 1);
+		assertEquals(Shared.Values.EXECUTOR_BOUNDED, testObject.getStrategy());
+		assertEquals(1, testObject.getQueueCapacity());
+		testObject.submit(blocking());
+		testObject.submit(blocking());
+		try {
+			testObject.submit(blocking());
+			fail("Expected RejectedExecutionException");
+		} catch( RejectedExecutionException e ) {
+			// expected
+		}
+		assertEquals(2, testObject.getSubmitted());
+		assertEquals(1, testObject.getRejected());
+		NukeInfo info = new NukeInfo();
+		assertTrue(testObject.update(info));
+		assertEquals(2L, info.getSubmittedUsers());
+		assertEquals(1L, info.getRejectedUsers());
+		assertTrue(info.isValueModified(NukeInfo.REJECTED_USERS_MODIFIED));
+		info.resetValuesModified();
+		assertFalse(testObject.update(info));
+		assertFalse(info.isValuesModified());
+	}
+
+	@Test
+	public void testBoundedWithoutQueue() throws Exception {
+		testObject = new TaskExecutor(Shared.Values.EXECUTOR_BOUNDED, 1, 0);
+		testObject.submit(blocking());
+		try {
+			testObject.submit(blocking());
+			fail("Expected RejectedExecutionException");
+		} catch( RejectedExecutionException e ) {
+			// expected
+		}
+		assertEquals(1, testObject.getRejected());
+	}
+
+	@Test
+	public void testUnknownStrategy() {
+		testObject = new TaskExecutor("unknown", 1, 5);
+		assertEquals(Shared.Values.EXECUTOR_BOUNDED, testObject.getStrategy());
+		assertEquals(5, testObject.getQueueCapacity());
+	}
+
+	@Test
+	public void testVirtual() throws Exception {
+		testObject = new TaskExecutor(Shared.Values.EXECUTOR_VIRTUAL, 1, 0);
+		boolean supported = true;
+		try {
+			Thread.class.getMethod("startVirtualThread", Runnable.class);
+		} catch( NoSuchMethodException e ) {
+			supported = false;
+		}
+		if( true == supported ) {
+			assertEquals(Shared.Values.EXECUTOR_VIRTUAL, testObject.getStrategy());
+			testObject.submit(blocking());
+			testObject.submit(blocking());
+			assertEquals(0, testObject.getRejected());
+		} else {
+			assertEquals(Shared.Values.EXECUTOR_BOUNDED, testObject.getStrategy());
+		}
+	}
+
+	@Test(expected=IllegalArgumentException.class)
+	public void testNoThreads() {
+		new TaskExecutor(Shared.Values.EXECUTOR_POOL, 0, 0);
+	}
+
+	@Test(expected=IllegalArgumentException.class)
+	public void testNegativeQueue() {
+		new TaskExecutor(Shared.Values.EXECUTOR_BOUNDED, 1, -1);
+	}
+
+	private Callable<String> blocking() {
+		return new Callable<String>() {
+			@Override
+			public String call() throws Exception {
+				release.await();
+				return "done";
+			}
+		};
+	}
+
+}
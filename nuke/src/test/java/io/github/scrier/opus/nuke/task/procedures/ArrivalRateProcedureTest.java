@@ -0,0 +1,192 @@
+package io.github.scrier.opus.nuke.task.procedures;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import io.github.scrier.opus.TestHelper;
+import io.github.scrier.opus.common.Shared;
+import io.github.scrier.opus.common.nuke.CommandState;
+import io.github.scrier.opus.common.nuke.NukeExecuteRateReqMsgC;
+import io.github.scrier.opus.common.nuke.NukeExecuteRspMsgC;
+import io.github.scrier.opus.common.nuke.NukeMsgFactory;
+import io.github.scrier.opus.nuke.BaseActiveObjectMock;
+import io.github.scrier.opus.nuke.task.Context;
+import io.github.scrier.opus.nuke.task.NukeTasks;
+
+import org.apache.logging.log4j.Level;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.hazelcast.core.HazelcastInstance;
+
+public class ArrivalRateProcedureTest {
+	
+	private static TestHelper helper = TestHelper.INSTANCE;
+
+	private HazelcastInstance instance;
+	private long identity = 8239421L;
+	private Context theContext = Context.INSTANCE;
+	private BaseActiveObjectMock theBaseAOC;
+	private NukeExecuteRateReqMsgC command;
+	private int txID = 2525;
+	private long sagaID = 4545L;
+	private MessageServiceMock SendIF;
+	private long processID = 802384L;
+	private long now;
+	private List<Long> wakeUps;
+
+	@BeforeClass
+	public static void setUpBeforeClass() throws Exception {
+		helper.setLogLevel(Level.TRACE);
+	}
+
+  @Before
+	public void setUp() throws Exception {
+		instance = helper.mockHazelcast();
+		helper.mockIdGen(instance, Shared.Hazelcast.COMMON_MAP_UNIQUE_ID, --identity);
+		helper.mockIdGen(instance, Shared.Hazelcast.COMMON_UNIQUE_ID, processID);
+		helper.mockMap(instance, Shared.Hazelcast.BASE_NUKE_MAP);
+		theBaseAOC = new BaseActiveObjectMock(instance);
+		theBaseAOC.preInit();
+		theContext.init(new NukeTasks(instance), theBaseAOC);
+		SendIF = new MessageServiceMock();
+		theBaseAOC.setMsgService(SendIF);
+		command = new NukeExecuteRateReqMsgC();
+		command.setSource(1212L);
+		command.setDestination(identity);
+		command.setTxID(txID);
+		command.setSagaID(sagaID);
+		command.setCommand("sleep 2");
+		command.setRate(10.0);
+		command.setMaxInFlight(0);
+		now = 0L;
+		wakeUps = new ArrayList<Long>();
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		theContext.shutDown();
+		SendIF.clear();
+	}
+
+	@Test
+	public void testConstructor() {
+		ArrivalRateProcedure testObject = new TestObject(command);
+		assertEquals(testObject.CREATED, testObject.getState());
+		assertEquals(sagaID, testObject.getSagaID());
+		assertEquals(1212L, testObject.getSource());
+		assertEquals(10.0, testObject.getRate(), 0.0);
+		assertEquals(0L, testObject.getLaunched());
+		assertEquals(ArrivalRateProcedure.NO_EVENTS, testObject.getSubscribedEvents());
+	}
+	
+	@Test
+	public void testInit() throws Exception {
+		ArrivalRateProcedure testObject = new TestObject(command);
+		testObject.init();
+		assertEquals(testObject.RUNNING, testObject.getState());
+		assertEquals(processID, testObject.getProcessID());
+		assertEquals(2, SendIF.getMessages().size());
+		CommonCheck.assertCorrectBaseMessage(SendIF.getMessage(0), NukeMsgFactory.FACTORY_ID, NukeMsgFactory.NUKE_EXECUTE_RSP);
+		NukeExecuteRspMsgC response = new NukeExecuteRspMsgC(SendIF.getMessage(0));
+		assertEquals(txID, response.getTxID());
+		assertEquals(sagaID, response.getSagaID());
+		assertEquals(processID, response.getProcessID());
+		CommonCheck.assertNukeExecuteIndMsgC(SendIF.getMessage(1), CommandState.WORKING, processID);
+		assertEquals(1, wakeUps.size());
+		assertEquals(100000000L, wakeUps.get(0).longValue());
+	}
+	
+	@Test
+	public void testLaunchOnSchedule() throws Exception {
+		ArrivalRateProcedure testObject = new TestObject(command);
+		testObject.init();
+		now = 50000000L;
+		testObject.launchDue();
+		assertEquals(0L, testObject.getLaunched());
+		now = 100000000L;
+		testObject.launchDue();
+		assertEquals(1L, testObject.getLaunched());
+		assertEquals(100000000L, wakeUps.get(wakeUps.size() - 1).longValue());
+		now = 450000000L;
+		testObject.launchDue();
+		assertEquals(4L, testObject.getLaunched());
+		assertEquals(50000000L, wakeUps.get(wakeUps.size() - 1).longValue());
+		assertEquals(4, testObject.getInFlight().size());
+		assertEquals(0L, testObject.getSkipped());
+	}
+	
+	@Test
+	public void testInFlightCap() throws Exception {
+		command.setMaxInFlight(2);
+		ArrivalRateProcedure testObject = new TestObject(command);
+		testObject.init();
+		now = 500000000L;
+		testObject.launchDue();
+		assertEquals(2L, testObject.getLaunched());
+		assertEquals(3L, testObject.getSkipped());
+		testObject.getInFlight().get(0).setState(testObject.COMPLETED);
+		now = 600000000L;
+		testObject.launchDue();
+		assertEquals(3L, testObject.getLaunched());
+		assertEquals(3L, testObject.getSkipped());
+		assertEquals(2, testObject.getInFlight().size());
+	}
+	
+	@Test
+	public void testUpdate() throws Exception {
+		ArrivalRateProcedure testObject = new TestObject(command);
+		testObject.init();
+		NukeExecuteRateReqMsgC update = new NukeExecuteRateReqMsgC(command);
+		update.setRate(100.0);
+		update.setMaxInFlight(5);
+		now = 10000000L;
+		testObject.update(update);
+		assertEquals(100.0, testObject.getRate(), 0.0);
+		assertEquals(5, testObject.getMaxInFlight());
+		assertEquals(10000000L, wakeUps.get(wakeUps.size() - 1).longValue());
+		update.setRate(0.0);
+		testObject.update(update);
+		now = 1000000000L;
+		testObject.launchDue();
+		assertEquals(0L, testObject.getLaunched());
+	}
+	
+	@Test
+	public void testStop() throws Exception {
+		ArrivalRateProcedure testObject = new TestObject(command);
+		testObject.init();
+		SendIF.clear();
+		assertTrue(testObject.stop());
+		assertEquals(testObject.COMPLETED, testObject.getState());
+		assertEquals(1, SendIF.getMessages().size());
+		CommonCheck.assertNukeExecuteIndMsgC(SendIF.getMessage(0), CommandState.DONE, processID);
+		assertFalse(testObject.stop());
+		now = 1000000000L;
+		testObject.launchDue();
+		assertEquals(0L, testObject.getLaunched());
+	}
+	
+	private class TestObject extends ArrivalRateProcedure {
+		
+		public TestObject(NukeExecuteRateReqMsgC message) {
+			super(message);
+		}
+		
+		@Override
+		protected long getTime() {
+			return now;
+		}
+		
+		@Override
+		protected void scheduleWakeUp(long delay) {
+			wakeUps.add(delay);
+		}
+		
+	}
+
+}
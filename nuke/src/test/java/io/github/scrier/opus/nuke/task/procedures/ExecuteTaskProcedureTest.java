@@ -10,6 +10,12 @@ import io.github.scrier.opus.common.nuke.NukeInfo;
 import io.github.scrier.opus.nuke.BaseActiveObjectMock;
 import io.github.scrier.opus.nuke.task.Context;
 import io.github.scrier.opus.nuke.task.NukeTasks;
+import io.github.scrier.opus.nuke.task.StreamGobblerToFile;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.logging.log4j.Level;
 import org.junit.After;
@@ -31,6 +37,8 @@ public class ExecuteTaskProcedureTest {
 	private BaseActiveObjectMock theBaseAOC;
 	@SuppressWarnings("rawtypes")
   private IMap theMap;
+	@SuppressWarnings("rawtypes")
+  private IMap settingsMap;
 	private NukeExecuteReqMsgC command;
 	private int txID = 2525;
 	private MessageServiceMock SendIF;
@@ -47,6 +55,7 @@ public class ExecuteTaskProcedureTest {
 		helper.mockIdGen(instance, Shared.Hazelcast.COMMON_MAP_UNIQUE_ID, --identity);
 		helper.mockIdGen(instance, Shared.Hazelcast.COMMON_UNIQUE_ID, processID);
 		theMap = helper.mockMap(instance, Shared.Hazelcast.BASE_NUKE_MAP);
+		settingsMap = helper.mockMap(instance, Shared.Hazelcast.SETTINGS_MAP);
 		theBaseAOC = new BaseActiveObjectMock(instance);
 		theBaseAOC.preInit();
 		theContext.init(new NukeTasks(instance), theBaseAOC);
@@ -89,7 +98,7 @@ public class ExecuteTaskProcedureTest {
 		int timeout = 100;
 		while( timeout-- > 0 ) {
 			Thread.sleep(10);
-			if( 1 == SendIF.getMessages().size() ) break; // wait for the task switcing to occur.
+			if( 2 == SendIF.getMessages().size() ) break; // wait for the task switcing to occur.
 		}
 		assertEquals(testObject.RUNNING, testObject.getState());
 		assertEquals(2, SendIF.getMessages().size());
@@ -104,7 +113,11 @@ public class ExecuteTaskProcedureTest {
 		Mockito.when(theMap.containsKey(any())).thenReturn(true);
 		ExecuteTaskProcedure testObject = new ExecuteTaskProcedure(command);
 		testObject.init();
-		Thread.sleep(1); // force taskswitch
+		int timeout = 100;
+		while( timeout-- > 0 ) {
+			Thread.sleep(10);
+			if( 2 == SendIF.getMessages().size() ) break; // wait for the task switching to occur.
+		}
 		assertEquals(testObject.RUNNING, testObject.getState());
 		assertEquals(2, SendIF.getMessages().size());
 		CommonCheck.assertNukeExecuteIndMsgC(SendIF.getMessage(1), CommandState.WORKING, processID);
@@ -143,6 +156,67 @@ public class ExecuteTaskProcedureTest {
 		testObject = null;
 	}
 	
+	@Test
+	public void testWaitForCompleteReaped() throws Exception {
+		Mockito.when(theMap.containsKey(any())).thenReturn(true);
+		Mockito.when(settingsMap.containsKey(Shared.Settings.EXECUTE_REAPERS)).thenReturn(true);
+		Mockito.when(settingsMap.get(Shared.Settings.EXECUTE_REAPERS)).thenReturn("1");
+		ExecuteTaskProcedure testObject = new ExecuteTaskProcedure(command);
+		testObject.init();
+		SendIF.clear();
+		int timeout = 100;
+		while( timeout-- > 0 ) {
+			Thread.sleep(10);
+			if( 1 == theContext.getReaper().getWatched() ) break; // wait for the process to start.
+		}
+		assertEquals(testObject.RUNNING, testObject.getState());
+		assertEquals(1, theContext.getReaper().getWatched());
+		assertEquals(1, theContext.getExecutionStats().getLiveUsers());
+		timeout = 400; // command is sleep 2, so that means I need to wait 10 * 400 to get 4 seconds.
+		while( timeout-- > 0 ) {
+			Thread.sleep(10);
+			if( testObject.COMPLETED == testObject.getState() ) break; // wait for the reaper to observe the exit.
+		}
+		assertEquals(testObject.COMPLETED, testObject.getState());
+		assertEquals(2, SendIF.getMessages().size());
+		CommonCheck.assertNukeExecuteIndMsgC(SendIF.getMessage(1), CommandState.DONE, processID);
+		assertEquals(1, theContext.getReaper().getReaped());
+		assertEquals(0, theContext.getExecutionStats().getLiveUsers());
+		testObject.cleanUp();
+		testObject = null;
+	}
+	
+	@Test
+	public void testShutDownWhileReaped() throws Exception {
+		Mockito.when(theMap.containsKey(any())).thenReturn(true);
+		Mockito.when(settingsMap.containsKey(Shared.Settings.EXECUTE_REAPERS)).thenReturn(true);
+		Mockito.when(settingsMap.get(Shared.Settings.EXECUTE_REAPERS)).thenReturn("1");
+		ExecuteTaskProcedure testObject = new ExecuteTaskProcedure(command);
+		testObject.init();
+		int timeout = 100;
+		while( timeout-- > 0 ) {
+			Thread.sleep(10);
+			if( 1 == theContext.getReaper().getWatched() ) break; // wait for the process to start.
+		}
+		assertEquals(1, theContext.getReaper().getWatched());
+		assertEquals(1, theContext.getExecutionStats().getLiveUsers());
+		SendIF.clear();
+		testObject.setState(testObject.COMPLETED);
+		testObject.shutDown();
+		assertEquals(0, theContext.getExecutionStats().getLiveUsers());
+		timeout = 100;
+		while( timeout-- > 0 ) {
+			Thread.sleep(10);
+			if( 0 == theContext.getReaper().getWatched() ) break; // wait for the reaper to observe the exit.
+		}
+		assertEquals(0, theContext.getReaper().getWatched());
+		Thread.sleep(100); // the exit is counted before the listener is called.
+		assertEquals(0, theContext.getExecutionStats().getLiveUsers());
+		assertEquals(0, theContext.getExecutionStats().getFailedExecutions());
+		assertEquals(0, SendIF.getMessages().size());
+		testObject = null;
+	}
+	
 	@Test
 	public void testShutDown() throws Exception {
 		Mockito.when(theMap.containsKey(any())).thenReturn(true);
@@ -215,6 +289,86 @@ public class ExecuteTaskProcedureTest {
 		testObject = null;
 	}
 	
+	@Test
+	public void testRedirectDiscardsOutput() throws Exception {
+		Mockito.when(settingsMap.containsKey(Shared.Settings.EXECUTE_GOBBLER_REDIRECT)).thenReturn(true);
+		Mockito.when(settingsMap.get(Shared.Settings.EXECUTE_GOBBLER_REDIRECT)).thenReturn("true");
+		ExecuteTaskProcedure testObject = new ExecuteTaskProcedure(command);
+		assertTrue(testObject.executeProcess("echo discarded", null, null));
+		assertEquals(1L, theContext.getExecutionStats().getExecutions());
+		testObject.cleanUp();
+		testObject = null;
+	}
+	
+	@Test
+	public void testWaitsWithoutMonitor() throws Exception {
+		Mockito.when(settingsMap.containsKey(Shared.Settings.EXECUTE_GOBBLER_REDIRECT)).thenReturn(true);
+		Mockito.when(settingsMap.get(Shared.Settings.EXECUTE_GOBBLER_REDIRECT)).thenReturn("true");
+		final ExecuteTaskProcedure testObject = new ExecuteTaskProcedure(command);
+		final boolean[] result = { false };
+		Thread user = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				result[0] = testObject.executeProcess("sleep 2", null, null);
+			}
+		});
+		user.start();
+		while( Thread.State.WAITING != user.getState() && user.isAlive() ) {
+			Thread.sleep(1);
+		}
+		long start = System.nanoTime();
+		synchronized( testObject ) {
+			assertTrue(user.isAlive());
+		}
+		assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 1000);
+		user.join(5000);
+		assertTrue(result[0]);
+		testObject.cleanUp();
+	}
+	
+	@Test
+	public void testRedirectToFileStartsNoGobbler() throws Exception {
+		Mockito.when(settingsMap.containsKey(Shared.Settings.EXECUTE_GOBBLER_REDIRECT)).thenReturn(true);
+		Mockito.when(settingsMap.get(Shared.Settings.EXECUTE_GOBBLER_REDIRECT)).thenReturn("true");
+		File target = File.createTempFile("gobbler", ".log");
+		StreamGobblerToFile gobbler = new StreamGobblerToFile(target);
+		ExecuteTaskProcedure testObject = new ExecuteTaskProcedure(command);
+		assertTrue(testObject.executeProcess("echo redirected", null, gobbler));
+		assertEquals(Thread.State.NEW, gobbler.getState());
+		List<String> lines = Files.readAllLines(target.toPath());
+		assertEquals(1, lines.size());
+		assertEquals("redirected", lines.get(0));
+		testObject.cleanUp();
+		testObject = null;
+		target.delete();
+	}
+	
+	@Test
+	public void testRejectedUserPublished() throws Exception {
+		Mockito.when(theMap.containsKey(any())).thenReturn(true);
+		Mockito.when(settingsMap.containsKey(Shared.Settings.EXECUTE_EXECUTOR)).thenReturn(true);
+		Mockito.when(settingsMap.get(Shared.Settings.EXECUTE_EXECUTOR)).thenReturn(Shared.Values.EXECUTOR_BOUNDED);
+		Mockito.when(settingsMap.containsKey(Shared.Settings.EXECUTE_EXECUTOR_THREADS)).thenReturn(true);
+		Mockito.when(settingsMap.get(Shared.Settings.EXECUTE_EXECUTOR_THREADS)).thenReturn("1");
+		Mockito.when(settingsMap.containsKey(Shared.Settings.EXECUTE_EXECUTOR_QUEUE)).thenReturn(true);
+		Mockito.when(settingsMap.get(Shared.Settings.EXECUTE_EXECUTOR_QUEUE)).thenReturn("0");
+		ExecuteTaskProcedure running = new ExecuteTaskProcedure(command);
+		running.init();
+		Mockito.when(instance.getIdGenerator(Shared.Hazelcast.COMMON_UNIQUE_ID).newId()).thenReturn(processID + 1);
+		ExecuteTaskProcedure testObject = new ExecuteTaskProcedure(command);
+		testObject.init();
+		assertEquals(testObject.ABORTED, testObject.getState());
+		NukeInfo info = theContext.getTask().getNukeInfo();
+		int timeout = 100;
+		while( 1 != info.getRejectedUsers() && timeout-- > 0 ) {
+			Thread.sleep(10);
+		}
+		assertEquals(1L, info.getRejectedUsers());
+		assertEquals(1L, info.getSubmittedUsers());
+		testObject.cleanUp();
+		running.cleanUp();
+	}
+	
 	/**
 	 * Common test methods
 	 * @param testObject ExecuteTaskProcedure instance
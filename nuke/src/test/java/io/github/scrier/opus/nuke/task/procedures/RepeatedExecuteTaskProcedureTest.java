@@ -3,6 +3,10 @@ package io.github.scrier.opus.nuke.task.procedures;
 import static org.junit.Assert.*;
 import static org.mockito.Matchers.any;
 
+import java.io.File;
+import java.nio.file.Files;
+import java.util.List;
+
 import io.github.scrier.opus.TestHelper;
 import io.github.scrier.opus.common.Shared;
 import io.github.scrier.opus.common.message.BaseMsgC;
@@ -158,6 +162,60 @@ public class RepeatedExecuteTaskProcedureTest {
 		testObject = null;
 	}
 	
+	@Test
+	public void testRepeatReaped() throws Exception {
+		Mockito.when(theMap.containsKey(any())).thenReturn(true);
+		Mockito.when(settingsMap.containsKey(Shared.Settings.EXECUTE_REAPERS)).thenReturn(true);
+		Mockito.when(settingsMap.get(Shared.Settings.EXECUTE_REAPERS)).thenReturn("1");
+		command.setCommand("true");
+		RepeatedExecuteTaskProcedure testObject = new RepeatedExecuteTaskProcedure(command);
+		testObject.init();
+		SendIF.waitForMessages(2);
+		int timeout = 100;
+		while( 3 > testObject.getCompletedCommands() && timeout-- > 0 ) {
+			Thread.sleep(20);
+		}
+		assertTrue(3 <= testObject.getCompletedCommands());
+		assertEquals(testObject.RUNNING, testObject.getState());
+		assertTrue(3 <= theContext.getReaper().getReaped());
+		SendIF.clear();
+		assertTrue(testObject.stopRepeating());
+		SendIF.waitForMessages(1);
+		assertEquals(1, SendIF.getMessages().size());
+		CommonCheck.assertNukeExecuteIndMsgC(SendIF.getMessage(0), CommandState.DONE, processID);
+		testObject.cleanUp();
+		testObject = null;
+	}
+	
+	@Test
+	public void testRedirectToGobblerDir() throws Exception {
+		File folder = Files.createTempDirectory("gobbler").toFile();
+		File target = new File(folder, "process-" + command.getTxID() + ".log");
+		Mockito.when(theMap.containsKey(any())).thenReturn(true);
+		Mockito.when(settingsMap.containsKey(Shared.Settings.EXECUTE_GOBBLER_DIR)).thenReturn(true);
+		Mockito.when(settingsMap.get(Shared.Settings.EXECUTE_GOBBLER_DIR)).thenReturn(folder.getPath());
+		Mockito.when(settingsMap.containsKey(Shared.Settings.EXECUTE_GOBBLER_REDIRECT)).thenReturn(true);
+		Mockito.when(settingsMap.get(Shared.Settings.EXECUTE_GOBBLER_REDIRECT)).thenReturn("true");
+		command.setCommand("echo redirected");
+		RepeatedExecuteTaskProcedure testObject = new RepeatedExecuteTaskProcedure(command);
+		testObject.init();
+		SendIF.waitForMessages(2);
+		int timeout = 100;
+		while( 2 > testObject.getCompletedCommands() && timeout-- > 0 ) {
+			Thread.sleep(20);
+		}
+		assertTrue(testObject.stopRepeating());
+		SendIF.waitForMessages(3);
+		CommonCheck.assertNukeExecuteIndMsgC(SendIF.getMessage(2), CommandState.DONE, processID);
+		List<String> lines = Files.readAllLines(target.toPath());
+		assertTrue(2 <= lines.size());
+		assertEquals("redirected", lines.get(0));
+		testObject.cleanUp();
+		testObject = null;
+		target.delete();
+		folder.delete();
+	}
+	
 	@Test
 	public void testWaitForTerminate() throws Exception {
 		Mockito.when(theMap.containsKey(any())).thenReturn(true);
@@ -0,0 +1,267 @@
+package io.github.scrier.opus.nuke.task.procedures;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import io.github.scrier.opus.TestHelper;
+import io.github.scrier.opus.common.Shared;
+import io.github.scrier.opus.common.nuke.CommandState;
+import io.github.scrier.opus.common.nuke.NukeExecuteRspMsgC;
+import io.github.scrier.opus.common.nuke.NukeExecuteTargetReqMsgC;
+import io.github.scrier.opus.common.nuke.NukeMsgFactory;
+import io.github.scrier.opus.nuke.BaseActiveObjectMock;
+import io.github.scrier.opus.nuke.task.BaseTaskProcedure;
+import io.github.scrier.opus.nuke.task.Context;
+import io.github.scrier.opus.nuke.task.NukeTasks;
+
+import org.apache.logging.log4j.Level;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.hazelcast.core.HazelcastInstance;
+
+public class TargetUsersProcedureTest {
+	
+	private static TestHelper helper = TestHelper.INSTANCE;
+	
+	private static final long SECOND = 1000000000L;
+
+	private HazelcastInstance instance;
+	private long identity = 8239421L;
+	private Context theContext = Context.INSTANCE;
+	private BaseActiveObjectMock theBaseAOC;
+	private NukeExecuteTargetReqMsgC command;
+	private int txID = 2525;
+	private long sagaID = 4545L;
+	private MessageServiceMock SendIF;
+	private long processID = 802384L;
+	private long now;
+	private List<Long> wakeUps;
+
+	@BeforeClass
+	public static void setUpBeforeClass() throws Exception {
+		helper.setLogLevel(Level.TRACE);
+	}
+
+  @Before
+	public void setUp() throws Exception {
+		instance = helper.mockHazelcast();
+		helper.mockIdGen(instance, Shared.Hazelcast.COMMON_MAP_UNIQUE_ID, --identity);
+		helper.mockIdGen(instance, Shared.Hazelcast.COMMON_UNIQUE_ID, processID);
+		helper.mockMap(instance, Shared.Hazelcast.BASE_NUKE_MAP);
+		theBaseAOC = new BaseActiveObjectMock(instance);
+		theBaseAOC.preInit();
+		theContext.init(new NukeTasks(instance), theBaseAOC);
+		SendIF = new MessageServiceMock();
+		theBaseAOC.setMsgService(SendIF);
+		command = new NukeExecuteTargetReqMsgC();
+		command.setSource(1212L);
+		command.setDestination(identity);
+		command.setTxID(txID);
+		command.setSagaID(sagaID);
+		command.setCommand("sleep 2");
+		command.setTarget(10);
+		command.setRampSeconds(10);
+		now = 0L;
+		wakeUps = new ArrayList<Long>();
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		theContext.shutDown();
+		SendIF.clear();
+	}
+
+	@Test
+	public void testConstructor() {
+		TargetUsersProcedure testObject = new TestObject(command);
+		assertEquals(testObject.CREATED, testObject.getState());
+		assertEquals(sagaID, testObject.getSagaID());
+		assertEquals(1212L, testObject.getSource());
+		assertEquals(10, testObject.getTarget());
+		assertEquals(0, testObject.getAchieved());
+		assertEquals(TargetUsersProcedure.NO_EVENTS, testObject.getSubscribedEvents());
+	}
+	
+	@Test
+	public void testInit() throws Exception {
+		TargetUsersProcedure testObject = new TestObject(command);
+		testObject.init();
+		assertEquals(testObject.RUNNING, testObject.getState());
+		assertEquals(processID, testObject.getProcessID());
+		assertEquals(2, SendIF.getMessages().size());
+		CommonCheck.assertCorrectBaseMessage(SendIF.getMessage(0), NukeMsgFactory.FACTORY_ID, NukeMsgFactory.NUKE_EXECUTE_RSP);
+		NukeExecuteRspMsgC response = new NukeExecuteRspMsgC(SendIF.getMessage(0));
+		assertEquals(txID, response.getTxID());
+		assertEquals(sagaID, response.getSagaID());
+		assertEquals(processID, response.getProcessID());
+		CommonCheck.assertNukeExecuteIndMsgC(SendIF.getMessage(1), CommandState.WORKING, processID);
+		assertEquals(0, testObject.getUsers().size());
+		assertEquals(1, wakeUps.size());
+		assertEquals(SECOND, wakeUps.get(0).longValue());
+	}
+	
+	@Test
+	public void testRampUp() throws Exception {
+		TargetUsersProcedure testObject = new TestObject(command);
+		testObject.init();
+		now = 5 * SECOND;
+		testObject.converge();
+		assertEquals(5, testObject.getUsers().size());
+		assertEquals(5, testObject.getAchieved());
+		assertEquals(5, theContext.getTask().getNukeInfo().getAchievedUsers());
+		assertEquals(SECOND, wakeUps.get(wakeUps.size() - 1).longValue());
+		now = 5 * SECOND + SECOND / 2;
+		testObject.converge();
+		assertEquals(5, testObject.getUsers().size());
+		assertEquals(SECOND / 2, wakeUps.get(wakeUps.size() - 1).longValue());
+		now = 20 * SECOND;
+		testObject.converge();
+		assertEquals(10, testObject.getUsers().size());
+		assertEquals(10, theContext.getTask().getNukeInfo().getAchievedUsers());
+		assertEquals(TargetUsersProcedure.MAINTAIN_NANOS, wakeUps.get(wakeUps.size() - 1).longValue());
+		assertEquals(10L, testObject.getStarted());
+		// only the response and the working indication, the users are counted in the nuke info.
+		assertEquals(2, SendIF.getMessages().size());
+	}
+	
+	@Test
+	public void testMinStep() throws Exception {
+		command.setTarget(1000);
+		command.setRampSeconds(1);
+		TargetUsersProcedure testObject = new TestObject(command);
+		testObject.init();
+		assertEquals(TargetUsersProcedure.MIN_STEP_NANOS, wakeUps.get(0).longValue());
+	}
+	
+	@Test
+	public void testReplaceEnded() throws Exception {
+		command.setRampSeconds(0);
+		TargetUsersProcedure testObject = new TestObject(command);
+		testObject.init();
+		assertEquals(10, testObject.getUsers().size());
+		testObject.getUsers().get(3).setState(testObject.ABORTED);
+		testObject.getUsers().get(7).setState(testObject.COMPLETED);
+		now = SECOND;
+		testObject.converge();
+		assertEquals(10, testObject.getUsers().size());
+		assertEquals(2L, testObject.getReplaced());
+		assertEquals(12L, testObject.getStarted());
+		assertEquals(1L, testObject.getAborted());
+		assertEquals(0, testObject.getFailedRounds());
+		assertEquals(10, theContext.getTask().getNukeInfo().getAchievedUsers());
+	}
+	
+	@Test
+	public void testAbortOnFailedRounds() throws Exception {
+		command.setRampSeconds(0);
+		TargetUsersProcedure testObject = new TestObject(command);
+		testObject.init();
+		SendIF.clear();
+		for( int round = 1; round < TargetUsersProcedure.MAX_FAILED_ROUNDS; round++ ) {
+			for( BaseTaskProcedure user : testObject.getUsers() ) {
+				user.setState(testObject.ABORTED);
+			}
+			now += SECOND;
+			testObject.converge();
+			assertEquals(round, testObject.getFailedRounds());
+			assertEquals(10, testObject.getUsers().size());
+			assertEquals(TargetUsersProcedure.MAINTAIN_NANOS << round, wakeUps.get(wakeUps.size() - 1).longValue());
+		}
+		assertEquals(testObject.RUNNING, testObject.getState());
+		for( BaseTaskProcedure user : testObject.getUsers() ) {
+			user.setState(testObject.ABORTED);
+		}
+		testObject.converge();
+		assertEquals(testObject.ABORTED, testObject.getState());
+		assertEquals(10L * TargetUsersProcedure.MAX_FAILED_ROUNDS, testObject.getAborted());
+		assertEquals(0, testObject.getUsers().size());
+		assertEquals(0, theContext.getTask().getNukeInfo().getAchievedUsers());
+		assertEquals(1, SendIF.getMessages().size());
+		CommonCheck.assertNukeExecuteIndMsgC(SendIF.getMessage(0), CommandState.ABORTED, processID);
+	}
+	
+	@Test
+	public void testFailedRoundsReset() throws Exception {
+		command.setRampSeconds(0);
+		TargetUsersProcedure testObject = new TestObject(command);
+		testObject.init();
+		testObject.getUsers().get(0).setState(testObject.ABORTED);
+		now = SECOND;
+		testObject.converge();
+		assertEquals(1, testObject.getFailedRounds());
+		now = 3 * SECOND;
+		testObject.converge();
+		assertEquals(0, testObject.getFailedRounds());
+		assertEquals(TargetUsersProcedure.MAINTAIN_NANOS, wakeUps.get(wakeUps.size() - 1).longValue());
+		assertEquals(testObject.RUNNING, testObject.getState());
+	}
+	
+	@Test
+	public void testUpdate() throws Exception {
+		command.setRampSeconds(0);
+		TargetUsersProcedure testObject = new TestObject(command);
+		testObject.init();
+		List<BaseTaskProcedure> first = new ArrayList<BaseTaskProcedure>(testObject.getUsers());
+		NukeExecuteTargetReqMsgC update = new NukeExecuteTargetReqMsgC(command);
+		update.setTarget(4);
+		update.setRampSeconds(0);
+		testObject.update(update);
+		assertEquals(4, testObject.getUsers().size());
+		assertEquals(first.subList(0, 4), testObject.getUsers());
+		assertEquals(4, theContext.getTask().getNukeInfo().getAchievedUsers());
+		for( BaseTaskProcedure stopped : first.subList(4, 10) ) {
+			assertFalse(stopped.stopRepeating());
+		}
+		update.setTarget(0);
+		update.setRampSeconds(4);
+		testObject.update(update);
+		now = SECOND;
+		testObject.converge();
+		assertEquals(3, testObject.getUsers().size());
+		now = 4 * SECOND;
+		testObject.converge();
+		assertEquals(0, testObject.getUsers().size());
+		assertEquals(testObject.RUNNING, testObject.getState());
+	}
+	
+	@Test
+	public void testStop() throws Exception {
+		command.setRampSeconds(0);
+		TargetUsersProcedure testObject = new TestObject(command);
+		testObject.init();
+		SendIF.clear();
+		assertTrue(testObject.stop());
+		assertEquals(testObject.COMPLETED, testObject.getState());
+		assertEquals(0, theContext.getTask().getNukeInfo().getAchievedUsers());
+		assertEquals(1, SendIF.getMessages().size());
+		CommonCheck.assertNukeExecuteIndMsgC(SendIF.getMessage(0), CommandState.DONE, processID);
+		assertFalse(testObject.stop());
+		now = 10 * SECOND;
+		testObject.converge();
+		assertEquals(0, testObject.getUsers().size());
+	}
+	
+	private class TestObject extends TargetUsersProcedure {
+		
+		public TestObject(NukeExecuteTargetReqMsgC message) {
+			super(message);
+		}
+		
+		@Override
+		protected long getTime() {
+			return now;
+		}
+		
+		@Override
+		protected void scheduleWakeUp(long delay) {
+			wakeUps.add(delay);
+		}
+		
+	}
+
+}